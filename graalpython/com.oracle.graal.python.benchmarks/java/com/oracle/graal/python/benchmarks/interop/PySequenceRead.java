@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.benchmarks.interop;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+
+public class PySequenceRead extends BenchRunner {
+
+    @Param({"1000000"}) public int arg1;
+
+    private Value list;
+    private Value tuple;
+    private Value doubleArray;
+    private Value bytes;
+
+    @Setup
+    public void setup() {
+        System.out.println("### setup ...");
+        Value create = this.context.eval("python", //
+                        "import array\n" + //
+                                        "def create(n):\n" + //
+                                        "    l = [i * 0.5 for i in range(n)]\n" + //
+                                        "    return l, tuple(range(n)), array.array('d', l), bytes(i & 0xff for i in range(n))\n" + //
+                                        "create");
+        Value sequences = create.execute(arg1);
+        this.list = sequences.getArrayElement(0);
+        this.tuple = sequences.getArrayElement(1);
+        this.doubleArray = sequences.getArrayElement(2);
+        this.bytes = sequences.getArrayElement(3);
+    }
+
+    @Benchmark
+    public void readList(Blackhole bh) {
+        bh.consume(sumDoubles(list));
+    }
+
+    @Benchmark
+    public void readTuple(Blackhole bh) {
+        bh.consume(sumInts(tuple));
+    }
+
+    @Benchmark
+    public void readDoubleArray(Blackhole bh) {
+        bh.consume(sumDoubles(doubleArray));
+    }
+
+    @Benchmark
+    public void readBytes(Blackhole bh) {
+        bh.consume(sumInts(bytes));
+    }
+
+    private static double sumDoubles(Value seq) {
+        double sum = 0;
+        long size = seq.getArraySize();
+        for (int i = 0; i < size; i++) {
+            sum += getd(seq, i);
+        }
+        return sum;
+    }
+
+    private static long sumInts(Value seq) {
+        long sum = 0;
+        long size = seq.getArraySize();
+        for (int i = 0; i < size; i++) {
+            sum += geti(seq, i);
+        }
+        return sum;
+    }
+}
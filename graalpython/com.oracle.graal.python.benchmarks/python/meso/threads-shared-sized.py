@@ -0,0 +1,62 @@
+# Copyright (c) 2020, Oracle and/or its affiliates.
+# Copyright (c) 2013, Regents of the University of California
+#
+# All rights reserved.
+#
+# Redistribution and use in source and binary forms, with or without modification, are
+# permitted provided that the following conditions are met:
+#
+# 1. Redistributions of source code must retain the above copyright notice, this list of
+# conditions and the following disclaimer.
+# 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+# conditions and the following disclaimer in the documentation and/or other materials provided
+# with the distribution.
+#
+# THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+# OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+# MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+# COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+# EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+# GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+# AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+# NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+# OF THE POSSIBILITY OF SUCH DAMAGE.
+# threads that compute locally and publish into shared containers under a lock, which stresses
+# lock hand-over and (if enabled) the global interpreter lock
+import threading
+
+
+def producer(tid, n, batch, lock, shared_list, shared_dict):
+    local = []
+    for i in range(n):
+        local.append(i * tid)
+        if len(local) == batch:
+            with lock:
+                shared_list.extend(local)
+                shared_dict[tid] = shared_dict.get(tid, 0) + len(local)
+            local = []
+    with lock:
+        shared_list.extend(local)
+        shared_dict[tid] = shared_dict.get(tid, 0) + len(local)
+
+
+def run_threads(num_threads, items_per_thread):
+    lock = threading.Lock()
+    shared_list = []
+    shared_dict = {}
+    threads = [threading.Thread(target=producer, args=(t, items_per_thread, 64, lock, shared_list, shared_dict))
+               for t in range(num_threads)]
+    for t in threads:
+        t.start()
+    for t in threads:
+        t.join()
+    return len(shared_list), sum(shared_dict.values())
+
+
+def measure(num_threads, total_items):
+    result = run_threads(num_threads, total_items // num_threads)
+    print("Result ", result)
+
+
+def __benchmark__(num_threads=4, total_items=2_000_000):
+    measure(num_threads, total_items)
@@ -0,0 +1,52 @@
+# Copyright (c) 2020, Oracle and/or its affiliates.
+# Copyright (c) 2013, Regents of the University of California
+#
+# All rights reserved.
+#
+# Redistribution and use in source and binary forms, with or without modification, are
+# permitted provided that the following conditions are met:
+#
+# 1. Redistributions of source code must retain the above copyright notice, this list of
+# conditions and the following disclaimer.
+# 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+# conditions and the following disclaimer in the documentation and/or other materials provided
+# with the distribution.
+#
+# THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+# OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+# MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+# COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+# EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+# GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+# AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+# NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+# OF THE POSSIBILITY OF SUCH DAMAGE.
+import codecs
+
+
+def make_lines(num):
+    return ["%d: ascii text, umlauts äöü, euro € and emoji \U0001f600 %d\n" % (i, i * 31) for i in range(num)]
+
+
+def roundtrip(lines, iteration):
+    total = 0
+    for t in range(iteration):
+        encoded = [line.encode("utf-8") for line in lines]
+        for data in encoded:
+            total += len(data.decode("utf-8"))
+        decoder = codecs.getincrementaldecoder("utf-8")()
+        blob = b"".join(encoded)
+        for i in range(0, len(blob), 7):
+            total += len(decoder.decode(blob[i:i + 7]))
+        total += len(decoder.decode(b"", final=True))
+    return total
+
+
+def measure(num):
+    lines = make_lines(num)
+    result = roundtrip(lines, 100)
+    print("Result ", result)
+
+
+def __benchmark__(num):
+    measure(num)
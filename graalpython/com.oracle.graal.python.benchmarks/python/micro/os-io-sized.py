@@ -0,0 +1,67 @@
+# Copyright (c) 2020, Oracle and/or its affiliates.
+# Copyright (c) 2013, Regents of the University of California
+#
+# All rights reserved.
+#
+# Redistribution and use in source and binary forms, with or without modification, are
+# permitted provided that the following conditions are met:
+#
+# 1. Redistributions of source code must retain the above copyright notice, this list of
+# conditions and the following disclaimer.
+# 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+# conditions and the following disclaimer in the documentation and/or other materials provided
+# with the distribution.
+#
+# THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+# OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+# MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+# COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+# EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+# GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+# AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+# NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+# OF THE POSSIBILITY OF SUCH DAMAGE.
+# positional, vectored and zero-copy file I/O through the os module
+import os
+import tempfile
+
+
+def compute(num, iteration):
+    fd, path = tempfile.mkstemp()
+    out_fd, out_path = tempfile.mkstemp()
+    try:
+        block = bytes(range(256)) * 64
+        buffers = [bytearray(len(block)) for _ in range(4)]
+        total = 0
+        for t in range(iteration):
+            os.lseek(fd, 0, os.SEEK_SET)
+            for i in range(num):
+                os.pwrite(fd, block, i * len(block))
+            os.lseek(fd, 0, os.SEEK_SET)
+            for i in range(0, num, len(buffers)):
+                total += os.readv(fd, buffers)
+            for i in range(num):
+                total += len(os.pread(fd, 1024, i * len(block)))
+            os.lseek(out_fd, 0, os.SEEK_SET)
+            offset = 0
+            while True:
+                sent = os.sendfile(out_fd, fd, offset, 1 << 20)
+                if sent == 0:
+                    break
+                offset += sent
+            total += offset
+        return total
+    finally:
+        os.close(fd)
+        os.close(out_fd)
+        os.remove(path)
+        os.remove(out_path)
+
+
+def measure(num):
+    result = compute(num, 20)
+    print("Result ", result)
+
+
+def __benchmark__(num):
+    measure(num)
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.cext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.graal.python.test.PythonTests;
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.library.ExportLibrary;
+import com.oracle.truffle.api.library.ExportMessage;
+
+public class HandleCacheTests {
+
+    @ExportLibrary(InteropLibrary.class)
+    static final class CountingResolver implements TruffleObject {
+        int calls;
+
+        @ExportMessage
+        @SuppressWarnings("static-method")
+        boolean isExecutable() {
+            return true;
+        }
+
+        @ExportMessage
+        Object execute(Object[] arguments) {
+            calls++;
+            return "object " + arguments[0];
+        }
+    }
+
+    private CountingResolver resolver;
+
+    @Before
+    public void setUp() {
+        PythonTests.enterContext();
+        resolver = new CountingResolver();
+    }
+
+    @After
+    public void tearDown() {
+        PythonTests.closeContext();
+    }
+
+    private static Object lookup(HandleCache cache, long handle) throws Exception {
+        return InteropLibrary.getFactory().getUncached().execute(cache, handle);
+    }
+
+    /**
+     * Returns {@code n} distinct handles that all map to the bucket of the first one.
+     */
+    private static long[] handlesInOneBucket(int n, int tableLength) {
+        long[] handles = new long[n];
+        int bucket = HandleCache.bucketStart(8, tableLength);
+        int found = 0;
+        for (long handle = 8; found < n; handle += 8) {
+            if (HandleCache.bucketStart(handle, tableLength) == bucket) {
+                handles[found++] = handle;
+            }
+        }
+        return handles;
+    }
+
+    @Test
+    public void tableSizeIsRoundedUp() {
+        assertEquals(128, new HandleCache(resolver, 100, false).getTableSize());
+        assertEquals(HandleCache.BUCKET_SIZE, new HandleCache(resolver, 1, false).getTableSize());
+    }
+
+    @Test
+    public void hitAfterMiss() throws Exception {
+        HandleCache cache = new HandleCache(resolver, 16, true);
+        assertEquals("object 8", lookup(cache, 8));
+        assertEquals("object 8", lookup(cache, 8));
+        assertEquals("object 16", lookup(cache, 16));
+        assertEquals(2, resolver.calls);
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(0, cache.getEvictions());
+    }
+
+    @Test
+    public void fullBucketEvicts() throws Exception {
+        HandleCache cache = new HandleCache(resolver, 16, true);
+        long[] handles = handlesInOneBucket(HandleCache.BUCKET_SIZE + 1, cache.getTableSize());
+        for (long handle : handles) {
+            assertEquals("object " + handle, lookup(cache, handle));
+        }
+        assertEquals(handles.length, resolver.calls);
+        assertEquals(handles.length, cache.getMisses());
+        assertEquals(1, cache.getEvictions());
+
+        // the first handle was evicted to make room for the last one
+        int start = HandleCache.bucketStart(handles[0], cache.getTableSize());
+        for (int i = 0; i < HandleCache.BUCKET_SIZE; i++) {
+            assertNotNull(cache.table[start + i]);
+        }
+        assertEquals(handles[handles.length - 1], cache.table[start].handle);
+        for (int i = 1; i < handles.length; i++) {
+            lookup(cache, handles[i]);
+        }
+        assertEquals(handles.length, resolver.calls);
+        lookup(cache, handles[0]);
+        assertEquals(handles.length + 1, resolver.calls);
+        assertEquals(HandleCache.BUCKET_SIZE, cache.getHits());
+        assertEquals(2, cache.getEvictions());
+    }
+
+    @Test
+    public void statisticsAreOptional() throws Exception {
+        HandleCache cache = new HandleCache(resolver, 16, false);
+        lookup(cache, 8);
+        lookup(cache, 8);
+        assertEquals(1, resolver.calls);
+        assertEquals(0, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+}
@@ -194,6 +194,47 @@ public class JavaInteropTest {
             assertPrints("b'\\x01\\x02\\x03\\x04'\n", source);
         }
 
+        @Test
+        public void readSequenceElements() {
+            Value list = context.eval("python", "[1, 2.5, 'three']");
+            assertEquals(3, list.getArraySize());
+            assertEquals(1, list.getArrayElement(0).asInt());
+            assertEquals(2.5, list.getArrayElement(1).asDouble(), 0.0);
+            assertEquals("three", list.getArrayElement(2).asString());
+
+            Value tuple = context.eval("python", "(1, 2, 3)");
+            assertEquals(3, tuple.getArraySize());
+            assertEquals(3, tuple.getArrayElement(2).asInt());
+
+            Value bytes = context.eval("python", "b'\\x01\\xff'");
+            assertEquals(2, bytes.getArraySize());
+            assertEquals(255, bytes.getArrayElement(1).asInt());
+
+            Value array = context.eval("python", "import array; array.array('d', [0.5, 1.5])");
+            assertEquals(2, array.getArraySize());
+            assertEquals(1.5, array.getArrayElement(1).asDouble(), 0.0);
+
+            try {
+                list.getArrayElement(3);
+                fail();
+            } catch (ArrayIndexOutOfBoundsException e) {
+                // expected
+            }
+        }
+
+        @Test
+        public void readSequenceSubclassElements() {
+            String source = "class MyList(list):\n" +
+                            "    def __getitem__(self, idx):\n" +
+                            "        return 42\n" +
+                            "    def __len__(self):\n" +
+                            "        return 5\n" +
+                            "MyList([1, 2])\n";
+            Value list = context.eval("python", source);
+            assertEquals(5, list.getArraySize());
+            assertEquals(42, list.getArrayElement(3).asInt());
+        }
+
         @Test
         public void testPassingFloats() throws UnsupportedEncodingException {
             String source = "import polyglot\n" +
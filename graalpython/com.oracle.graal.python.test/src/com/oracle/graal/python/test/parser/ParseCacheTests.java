@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.test.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.runtime.PythonParser;
+import com.oracle.graal.python.test.PythonTests;
+import com.oracle.truffle.api.nodes.Node;
+
+public class ParseCacheTests extends ParserTestBase {
+
+    private final Path tmpDir;
+
+    public ParseCacheTests() throws IOException {
+        PythonTests.enterContext(Collections.singletonMap("python.PersistentParseCache", "true"), new String[0]);
+        context = PythonLanguage.getContext();
+        tmpDir = Files.createTempDirectory("parsecache");
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        try (Stream<Path> files = Files.walk(tmpDir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void runtimeFiles() throws Exception {
+        File[] files = new File(getTestFilesDir(), "RuntimeFileTests").listFiles((dir, n) -> n.endsWith(".py"));
+        assertTrue(files != null && files.length > 0);
+        for (File file : files) {
+            Path copy = Files.copy(file.toPath(), tmpDir.resolve(file.getName()), StandardCopyOption.REPLACE_EXISTING);
+            String[] parsed = parseAndPrint(copy.toFile());
+            assertTrue(file.getName(), Files.isRegularFile(getCacheFile(copy)));
+            String[] cached = parseAndPrint(copy.toFile());
+            assertEquals(file.getName(), parsed[0], cached[0]);
+            assertEquals(file.getName(), parsed[1], cached[1]);
+        }
+    }
+
+    @Test
+    public void changedSource() throws Exception {
+        Path file = tmpDir.resolve("changed.py");
+        Files.write(file, "def foo(a, b=1, *args, c, **kwargs):\n    return a + b\n".getBytes(StandardCharsets.UTF_8));
+        String[] first = parseAndPrint(file.toFile());
+        Files.write(file, "def foo(a, b=2, *args, c, **kwargs):\n    return a - b\n".getBytes(StandardCharsets.UTF_8));
+        String[] second = parseAndPrint(file.toFile());
+        assertNotEquals(first[0], second[0]);
+        Files.write(file, "def foo(a, b=1, *args, c, **kwargs):\n    return a + b\n".getBytes(StandardCharsets.UTF_8));
+        assertEquals(first[0], parseAndPrint(file.toFile())[0]);
+    }
+
+    @Test
+    public void corruptedCache() throws Exception {
+        Path file = tmpDir.resolve("corrupted.py");
+        Files.write(file, "class A:\n    x = [i for i in range(10) if i % 2]\n".getBytes(StandardCharsets.UTF_8));
+        String[] parsed = parseAndPrint(file.toFile());
+        Path cacheFile = getCacheFile(file);
+        byte[] data = Files.readAllBytes(cacheFile);
+        byte[] truncated = new byte[data.length / 2 + 10];
+        System.arraycopy(data, 0, truncated, 0, truncated.length);
+        Files.write(cacheFile, truncated);
+        String[] reparsed = parseAndPrint(file.toFile());
+        assertEquals(parsed[0], reparsed[0]);
+        assertEquals(parsed[1], reparsed[1]);
+    }
+
+    private String[] parseAndPrint(File file) throws Exception {
+        Node result = parse(createSource(file), PythonParser.ParserMode.File);
+        StringBuilder scopes = new StringBuilder();
+        getLastGlobalScope().debugPrint(scopes, 0);
+        return new String[]{printTreeToString(result), scopes.toString()};
+    }
+
+    private static Path getCacheFile(Path source) {
+        String name = source.getFileName().toString();
+        return source.resolveSibling("__pycache__").resolve(name.substring(0, name.length() - 3) + ".graalpython.sst");
+    }
+}
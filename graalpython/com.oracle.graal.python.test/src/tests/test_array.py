@@ -96,3 +96,109 @@ def test_add_int_to_long_array():
     y = array('l', [1, 2])
     y[0] = 42 # should not raise
     assert y[0] == 42
+
+def test_typecodes():
+    from array import array
+    for typecode, itemsize in (('b', 1), ('B', 1), ('h', 2), ('H', 2), ('i', 4), ('I', 4), ('q', 8), ('Q', 8), ('f', 4), ('d', 8)):
+        a = array(typecode, [1, 2, 3])
+        assert a.typecode == typecode
+        assert a.itemsize == itemsize
+        assert len(a.tobytes()) == 3 * itemsize
+        assert a.tolist() == [1, 2, 3]
+    assert array('l').itemsize == array('L').itemsize
+    assert_raises(ValueError, array, 'x')
+    assert_raises(TypeError, array, 'bb')
+
+
+def test_integer_ranges():
+    from array import array
+    assert array('B', [255])[0] == 255
+    assert array('H', [65535])[0] == 65535
+    assert array('I', [4294967295])[0] == 4294967295
+    assert array('Q', [18446744073709551615])[0] == 18446744073709551615
+    assert array('b', [-128])[0] == -128
+    assert array('h', [-32768])[0] == -32768
+    for typecode, value in (('b', 128), ('b', -129), ('B', 256), ('B', -1), ('h', 32768), ('H', 65536),
+                            ('H', -1), ('i', 2147483648), ('I', 4294967296), ('I', -1), ('Q', -1),
+                            ('q', 9223372036854775808), ('Q', 18446744073709551616)):
+        assert_raises(OverflowError, array, typecode, [value])
+    a = array('B', [1])
+    assert_raises(OverflowError, a.__setitem__, 0, 256)
+    assert_raises(TypeError, a.append, 1.0)
+    assert a[0] == 1
+
+
+def test_floats():
+    from array import array
+    a = array('f', [0.5, 1])
+    a.append(2)
+    assert a.tolist() == [0.5, 1.0, 2.0]
+    a = array('d', [0.1])
+    assert a[0] == 0.1
+    assert_raises(TypeError, a.append, "x")
+
+
+def test_unicode():
+    from array import array
+    a = array('u', 'hello')
+    a.append('!')
+    assert a.tounicode() == 'hello!'
+    assert a.itemsize in (2, 4)
+    assert_raises(TypeError, a.append, 'ab')
+    assert_raises(TypeError, array, 'b', 'hello')
+    assert_raises(ValueError, array('b').tounicode)
+
+
+def test_bytes_roundtrip():
+    from array import array
+    a = array('i', [1, -2, 3, 2147483647])
+    b = array('i')
+    b.frombytes(a.tobytes())
+    assert a == b
+    assert bytes(a) == a.tobytes()
+    assert array('i', a.tobytes()) == a
+    b.frombytes(bytearray(a.tobytes()))
+    assert len(b) == 8
+    assert_raises(ValueError, b.frombytes, b'abc')
+    assert_raises(TypeError, b.frombytes, 'abc')
+    a.byteswap()
+    a.byteswap()
+    assert a.tolist() == [1, -2, 3, 2147483647]
+
+
+def test_file_roundtrip():
+    import tempfile
+    from array import array
+    a = array('H', range(40000))
+    with tempfile.TemporaryFile() as f:
+        a.tofile(f)
+        f.seek(0)
+        b = array('H')
+        b.fromfile(f, 40000)
+        assert a == b
+        f.seek(0)
+        c = array('H')
+        assert_raises(EOFError, c.fromfile, f, 40001)
+        assert c == a
+
+
+def test_extend_and_slices():
+    from array import array
+    a = array('h', [1, 2, 3])
+    a.extend([4, 5])
+    a.extend(array('h', [6]))
+    assert_raises(TypeError, a.extend, array('i', [7]))
+    assert a.tolist() == [1, 2, 3, 4, 5, 6]
+    assert a[1:3] == array('h', [2, 3])
+    assert a[::-2].tolist() == [6, 4, 2]
+    a[0:2] = array('h', [7, 8, 9])
+    assert a.tolist() == [7, 8, 9, 3, 4, 5, 6]
+    a[::3] = array('h', [0, 0, 0])
+    assert a.tolist() == [0, 8, 9, 0, 4, 5, 0]
+    assert_raises(TypeError, a.__setitem__, slice(0, 1), [1])
+    assert (a * 2).tolist() == a.tolist() * 2
+    assert a + array('h', [1]) == array('h', [0, 8, 9, 0, 4, 5, 0, 1])
+    b = array('h', [1, 2])
+    assert_raises(TypeError, b.fromlist, (3,))
+    assert_raises(OverflowError, b.fromlist, [3, 40000])
+    assert b.tolist() == [1, 2]
@@ -0,0 +1,109 @@
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+import _bisect
+
+
+def test_bisect_primitive():
+    ints = [1, 2, 2, 2, 3, 5]
+    assert _bisect.bisect_right(ints, 2) == 4
+    assert _bisect.bisect_left(ints, 2) == 1
+    assert _bisect.bisect_right(ints, 0) == 0
+    assert _bisect.bisect_left(ints, 6) == 6
+    assert _bisect.bisect_right(ints, 2, 2) == 4
+    assert _bisect.bisect_right(ints, 2, 0, 3) == 3
+    assert _bisect.bisect_left(ints, 2.5) == 4
+    longs = [x * 2 ** 40 for x in ints]
+    assert _bisect.bisect_right(longs, 2 * 2 ** 40) == 4
+    assert _bisect.bisect_left(longs, 0) == 0
+    doubles = [float(x) for x in ints]
+    assert _bisect.bisect_right(doubles, 2.0) == 4
+    assert _bisect.bisect_left(doubles, 2.0) == 1
+    assert _bisect.bisect_left(doubles, 2) == 1
+
+
+def test_bisect_generic():
+    strs = ["a", "b", "b", "d"]
+    assert _bisect.bisect_right(strs, "b") == 3
+    assert _bisect.bisect_left(strs, "b") == 1
+    assert _bisect.bisect_left(strs, "c") == 3
+    assert _bisect.bisect_right(tuple(strs), "b") == 3
+    assert _bisect.bisect_left(range(0, 20, 2), 7) == 4
+    assert _bisect.bisect_right(strs, "b", hi=2) == 2
+    assert _bisect.bisect_left(strs, "b", lo=2) == 2
+    assert _bisect.bisect_right(strs, "z", 0, None) == 4
+
+
+def test_insort():
+    data = [5, 1, 4, 1, 3.5, 2]
+    result = []
+    for x in data:
+        _bisect.insort_right(result, x)
+    assert result == sorted(data)
+    result = []
+    for x in data:
+        _bisect.insort_left(result, x)
+    assert result == sorted(data)
+
+    class MyList(list):
+        inserted = 0
+
+        def insert(self, index, value):
+            MyList.inserted += 1
+            list.insert(self, index, value)
+
+    result = MyList()
+    for x in data:
+        _bisect.insort_right(result, x)
+    assert result == sorted(data)
+    assert MyList.inserted == len(data)
+
+
+def test_errors():
+    try:
+        _bisect.bisect_right([1, 2], 1, -1)
+    except ValueError:
+        pass
+    else:
+        assert False
+    try:
+        _bisect.bisect_left([1, 2], 1, "a")
+    except TypeError:
+        pass
+    else:
+        assert False
@@ -194,3 +194,71 @@ def test_decode_report_consumed():
     dec, consumed = codecs.utf_8_decode(data)
     assert dec == "memory of “unsigned bytes” of the given length."
     assert consumed == len(data)
+
+
+def test_utf8_roundtrip():
+    for s in ["", "abc", "ä", "€uro", "\U0001d120", "mixed ascii, ü, € and \U0001f600" * 20]:
+        assert s.encode('utf-8').decode('utf-8') == s
+        b, consumed = codecs.utf_8_encode(s)
+        assert consumed == len(s)
+        assert codecs.utf_8_decode(b) == (s, len(b))
+
+
+def test_utf8_decode_partial():
+    data = "a€\U0001f600b".encode('utf-8')
+    assert codecs.utf_8_decode(data[:2], 'strict', False) == ("a", 1)
+    assert codecs.utf_8_decode(data[:5], 'strict', False) == ("a€", 4)
+    assert codecs.utf_8_decode(data[:7], 'strict', False) == ("a€", 4)
+    assert codecs.utf_8_decode(data, 'strict', False) == ("a€\U0001f600b", len(data))
+
+
+def test_utf8_incremental_decoder():
+    data = "a€\U0001f600bü".encode('utf-8')
+    decoder = codecs.getincrementaldecoder('utf-8')()
+    result = "".join(decoder.decode(data[i:i + 1]) for i in range(len(data)))
+    result += decoder.decode(b"", final=True)
+    assert result == "a€\U0001f600bü"
+    decoder.reset()
+    assert decoder.decode(b"\xe2\x82") == ""
+    try:
+        decoder.decode(b"", final=True)
+    except UnicodeDecodeError:
+        pass
+    else:
+        assert False, "truncated sequence must raise"
+
+
+def test_utf8_incremental_encoder():
+    encoder = codecs.getincrementalencoder('utf-8')()
+    assert encoder.encode("a€") + encoder.encode("\U0001f600", final=True) == "a€\U0001f600".encode('utf-8')
+
+
+def test_utf8_malformed():
+    for data in [b"\xff", b"\xc0\x80", b"\xed\xa0\x80", b"\xf4\x90\x80\x80", b"a\x80b"]:
+        try:
+            data.decode('utf-8')
+        except UnicodeDecodeError:
+            pass
+        else:
+            assert False, "decoding %r must raise" % data
+    assert b"a\xffb".decode('utf-8', 'replace') == "a�b"
+    assert b"a\xffb".decode('utf-8', 'ignore') == "ab"
+    try:
+        "a\ud800b".encode('utf-8')
+    except UnicodeEncodeError:
+        pass
+    else:
+        assert False, "encoding a lone surrogate must raise"
+    assert "a\ud800b".encode('utf-8', 'ignore') == b"ab"
+
+
+def test_latin1_ascii():
+    s = "".join(chr(i) for i in range(256))
+    assert s.encode('latin-1').decode('latin-1') == s
+    assert s[:128].encode('ascii').decode('ascii') == s[:128]
+    try:
+        b"\x80".decode('ascii')
+    except UnicodeDecodeError:
+        pass
+    else:
+        assert False, "decoding non-ascii bytes as ascii must raise"
@@ -42,6 +42,14 @@ import sys
 import unittest
 from collections import deque
 
+try:
+    import _sysconfig as syscfg
+except ImportError:
+    import sysconfig as syscfg
+
+# without --python.WithThread, threads are dummies that run their target synchronously
+WITH_THREAD = sys.implementation.name != 'graalpython' or syscfg.get_config_var('WITH_THREAD')
+
 BIG = 100000
 
 
@@ -629,3 +637,124 @@ class TestBasic(unittest.TestCase):
         klass = type(reversed(deque()))
         for s in ('abcd', range(2000)):
             self.assertEqual(list(klass(deque(s))), list(reversed(s)))
+
+    def test_insert(self):
+        elements = 'ABCDEFGHI'
+        for i in range(-5 - len(elements) * 2, 5 + len(elements) * 2):
+            d = deque('ABCDEFGHI')
+            s = list('ABCDEFGHI')
+            d.insert(i, 'Z')
+            s.insert(i, 'Z')
+            self.assertEqual(list(d), s)
+
+        d = deque('abc', maxlen=3)
+        self.assertRaises(IndexError, d.insert, 1, 'x')
+        self.assertEqual(list(d), list('abc'))
+
+    def test_iterator_mutation(self):
+        d = deque(range(10))
+        it = iter(d)
+        self.assertEqual(next(it), 0)
+        d.append(10)
+        self.assertRaises(RuntimeError, next, it)
+        self.assertRaises(RuntimeError, next, it)
+
+        d = deque(range(10))
+        it = reversed(d)
+        self.assertEqual(next(it), 9)
+        d.rotate(1)
+        self.assertRaises(RuntimeError, next, it)
+
+        # setting items is not a structural modification
+        d = deque(range(5))
+        it = iter(d)
+        d[4] = 'x'
+        self.assertEqual(list(it), [0, 1, 2, 3, 'x'])
+
+    def test_iterator_length_hint(self):
+        d = deque(range(5))
+        it = iter(d)
+        self.assertEqual(it.__length_hint__(), 5)
+        next(it)
+        self.assertEqual(it.__length_hint__(), 4)
+        self.assertEqual(list(type(it)(d, 2)), [2, 3, 4])
+
+    def test_rotate_with_maxlen(self):
+        d = deque(range(20), maxlen=8)
+        self.assertEqual(list(d), list(range(12, 20)))
+        d.rotate(3)
+        self.assertEqual(list(d), [17, 18, 19, 12, 13, 14, 15, 16])
+        d.append(20)
+        self.assertEqual(list(d), [18, 19, 12, 13, 14, 15, 16, 20])
+        d.rotate(-10)
+        self.assertEqual(list(d), [12, 13, 14, 15, 16, 20, 18, 19])
+        d.appendleft(11)
+        self.assertEqual(list(d), [11, 12, 13, 14, 15, 16, 20, 18])
+
+    def test_sliding_window(self):
+        window = deque(maxlen=3)
+        sums = []
+        for i in range(10):
+            window.append(i)
+            sums.append(sum(window))
+        self.assertEqual(sums, [0, 1, 3, 6, 9, 12, 15, 18, 21, 24])
+
+    def test_repr_recursive(self):
+        d = deque([1, 2])
+        d.append(d)
+        self.assertEqual(repr(d), 'deque([1, 2, [...]])')
+
+    def test_reduce(self):
+        import pickle
+        for d in (deque(range(10)), deque(range(10), 5), deque()):
+            for proto in range(pickle.HIGHEST_PROTOCOL + 1):
+                e = pickle.loads(pickle.dumps(d, proto))
+                self.assertEqual(d, e)
+                self.assertEqual(d.maxlen, e.maxlen)
+                self.assertIsNot(d, e)
+
+    def test_subclass(self):
+        class Deque(deque):
+            pass
+
+        d = Deque('abc', maxlen=5)
+        d.x = 42
+        self.assertEqual(repr(d), "Deque(['a', 'b', 'c'], maxlen=5)")
+        e = copy.copy(d)
+        self.assertIs(type(e), Deque)
+        self.assertEqual(list(e), list('abc'))
+        self.assertEqual(e.maxlen, 5)
+        f = copy.deepcopy(d)
+        self.assertIs(type(f), Deque)
+        self.assertEqual(f.x, 42)
+        self.assertIs(type(d + d), Deque)
+        self.assertEqual(list(d + d), list('bcabc'))
+
+    @unittest.skipUnless(WITH_THREAD, "requires threads")
+    def test_producer_consumer(self):
+        import threading
+        d = deque()
+        n = 10000
+        done = []
+
+        def produce():
+            for i in range(n):
+                d.append(i)
+
+        def consume():
+            received = []
+            while len(received) < n:
+                try:
+                    received.append(d.popleft())
+                except IndexError:
+                    pass
+            done.append(received)
+
+        consumer = threading.Thread(target=consume)
+        producer = threading.Thread(target=produce)
+        consumer.start()
+        producer.start()
+        producer.join()
+        consumer.join()
+        self.assertEqual(done, [list(range(n))])
+        self.assertEqual(len(d), 0)
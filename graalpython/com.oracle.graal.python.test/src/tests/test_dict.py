@@ -629,3 +629,94 @@ def test_hash_and_eq_for_dynamic_object_storage():
     assert d2[MyObject("1")] == 112
     del d2[MyObject("1")]
     assert "1" not in d2
+
+
+def test_many_int_keys_with_deletions():
+    d = {}
+    for i in range(1000):
+        d[i] = i * 2
+    for i in range(0, 1000, 3):
+        del d[i]
+    assert len(d) == 666
+    assert list(d.keys()) == [i for i in range(1000) if i % 3]
+    for i in range(1000):
+        if i % 3:
+            assert d[i] == i * 2
+        else:
+            assert i not in d
+    # re-inserting appends at the end
+    d[0] = "zero"
+    assert list(d)[-1] == 0
+    for i in range(1000):
+        d.pop(i, None)
+    assert len(d) == 0
+    d[1.0] = 1
+    assert d[1] == 1
+    assert d[True] == 1
+
+
+def test_string_keys_then_mixed_keys():
+    d = {"k%d" % i: i for i in range(200)}
+    assert d["k199"] == 199
+    d[5] = "five"
+    d[(1, 2)] = "tuple"
+    assert d["k0"] == 0
+    assert d[5] == "five"
+    assert d[(1, 2)] == "tuple"
+    assert list(d)[-2:] == [5, (1, 2)]
+    assert EncodedString("k7") in d
+    assert d[EncodedString("k7")] == 7
+
+
+def test_colliding_hashes():
+    class Collider:
+        def __init__(self, value):
+            self.value = value
+
+        def __hash__(self):
+            return 42
+
+        def __eq__(self, other):
+            return isinstance(other, Collider) and self.value == other.value
+
+    d = {}
+    for i in range(50):
+        d[Collider(i)] = i
+    for i in range(0, 50, 2):
+        del d[Collider(i)]
+    assert len(d) == 25
+    for i in range(50):
+        assert d.get(Collider(i)) == (i if i % 2 else None)
+
+
+def test_mutation_during_eq():
+    class Mutator:
+        def __init__(self, d):
+            self.d = d
+
+        def __hash__(self):
+            return 7
+
+        def __eq__(self, other):
+            self.d.clear()
+            return False
+
+    d = {7: "seven"}
+    k = Mutator(d)
+    d[k] = "k"
+    assert len(d) == 1
+    assert d[k] == "k"
+
+
+def test_copy_and_update_large():
+    d = {i: str(i) for i in range(500)}
+    c = d.copy()
+    del d[0]
+    assert 0 in c
+    assert len(c) == 500
+    c.update(d)
+    assert len(c) == 500
+    c.clear()
+    assert len(c) == 0
+    c[1] = 2
+    assert c == {1: 2}
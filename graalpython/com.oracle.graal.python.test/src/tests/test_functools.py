@@ -0,0 +1,276 @@
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import functools
+import pickle
+import unittest
+
+
+def capture(*args, **kw):
+    return args, kw
+
+
+class PartialTests(unittest.TestCase):
+
+    def test_basic(self):
+        p = functools.partial(capture, 1, 2, a=10)
+        self.assertEqual(p(3, b=20), ((1, 2, 3), dict(a=10, b=20)))
+        self.assertEqual(p(), ((1, 2), dict(a=10)))
+        self.assertIs(p.func, capture)
+        self.assertEqual(p.args, (1, 2))
+        self.assertEqual(p.keywords, dict(a=10))
+
+    def test_keyword_override(self):
+        p = functools.partial(capture, a=1, b=2)
+        self.assertEqual(p(b=3), ((), dict(a=1, b=3)))
+        self.assertEqual(p.keywords, dict(a=1, b=2))
+
+    def test_keywords_mutation(self):
+        p = functools.partial(capture)
+        p.keywords["x"] = 1
+        self.assertEqual(p(), ((), dict(x=1)))
+
+    def test_not_callable(self):
+        self.assertRaises(TypeError, functools.partial)
+        self.assertRaises(TypeError, functools.partial, 1)
+
+    def test_nested_flattening(self):
+        inner = functools.partial(capture, 1, a=1)
+        outer = functools.partial(inner, 2, b=2)
+        self.assertIs(outer.func, capture)
+        self.assertEqual(outer.args, (1, 2))
+        self.assertEqual(outer.keywords, dict(a=1, b=2))
+        self.assertEqual(outer(3), ((1, 2, 3), dict(a=1, b=2)))
+
+    def test_attributes(self):
+        p = functools.partial(capture)
+        p.attr = 42
+        self.assertEqual(p.attr, 42)
+        self.assertEqual(p.__dict__["attr"], 42)
+
+    def test_repr(self):
+        p = functools.partial(capture, 1, a=2)
+        self.assertEqual(repr(p), "functools.partial(%r, 1, a=2)" % capture)
+
+        class Sub(functools.partial):
+            pass
+        self.assertEqual(repr(Sub(capture)), "Sub(%r)" % capture)
+
+    def test_recursive_repr(self):
+        p = functools.partial(capture)
+        p.__setstate__((capture, (p,), {}, None))
+        self.assertEqual(repr(p), "functools.partial(%r, ...)" % capture)
+
+    def test_subclass(self):
+        class Sub(functools.partial):
+            def __call__(self, *args, **kw):
+                return "sub", super().__call__(*args, **kw)
+        s = Sub(capture, 1)
+        self.assertEqual(s(2), ("sub", ((1, 2), {})))
+        nested = Sub(s, 3)
+        self.assertIs(nested.func, s)
+
+    def test_reduce_setstate(self):
+        p = functools.partial(capture, 1, a=2)
+        p.attr = 3
+        cls, args, state = p.__reduce__()
+        self.assertIs(cls, functools.partial)
+        self.assertEqual(args, (capture,))
+        self.assertEqual(state, (capture, (1,), dict(a=2), dict(attr=3)))
+
+        q = functools.partial(len)
+        q.__setstate__(state)
+        self.assertEqual(q(2), ((1, 2), dict(a=2)))
+        self.assertEqual(q.attr, 3)
+
+        q.__setstate__((capture, (), None, None))
+        self.assertEqual(q.keywords, {})
+        self.assertRaises(TypeError, q.__setstate__, (capture, (), {}))
+        self.assertRaises(TypeError, q.__setstate__, (1, (), {}, None))
+        self.assertRaises(TypeError, q.__setstate__, [capture, (), {}, None])
+
+    def test_pickle(self):
+        p = functools.partial(max, 1, key=abs)
+        q = pickle.loads(pickle.dumps(p))
+        self.assertEqual(q(-3), -3)
+        self.assertEqual(q.args, (1,))
+
+
+class ReduceTests(unittest.TestCase):
+
+    def test_reduce(self):
+        add = lambda x, y: x + y
+        self.assertEqual(functools.reduce(add, [1, 2, 3, 4]), 10)
+        self.assertEqual(functools.reduce(add, [1, 2, 3, 4], 10), 20)
+        self.assertEqual(functools.reduce(add, [], 5), 5)
+        self.assertEqual(functools.reduce(add, [7]), 7)
+        self.assertEqual(functools.reduce(add, iter("abc")), "abc")
+        self.assertEqual(functools.reduce(add, [[1], [2]], []), [1, 2])
+        # None is a valid initial value
+        self.assertEqual(functools.reduce(lambda x, y: y if x is None else x, [1, 2], None), 1)
+
+    def test_errors(self):
+        add = lambda x, y: x + y
+        self.assertRaises(TypeError, functools.reduce, add, [])
+        self.assertRaises(TypeError, functools.reduce, add, 42)
+        self.assertRaises(TypeError, functools.reduce, add)
+
+        def gen():
+            yield 1
+            raise ZeroDivisionError
+        self.assertRaises(ZeroDivisionError, functools.reduce, add, gen())
+
+
+class LruCacheTests(unittest.TestCase):
+
+    def test_hits_and_misses(self):
+        calls = []
+
+        @functools.lru_cache(maxsize=None)
+        def square(x):
+            calls.append(x)
+            return x * x
+
+        self.assertEqual([square(i) for i in [1, 2, 1, 3, 2]], [1, 4, 1, 9, 4])
+        self.assertEqual(calls, [1, 2, 3])
+        info = square.cache_info()
+        self.assertEqual((info.hits, info.misses, info.maxsize, info.currsize), (2, 3, None, 3))
+        square.cache_clear()
+        self.assertEqual(square.cache_info(), (0, 0, None, 0))
+        square(1)
+        self.assertEqual(calls, [1, 2, 3, 1])
+
+    def test_eviction_order(self):
+        calls = []
+
+        @functools.lru_cache(maxsize=2)
+        def f(x):
+            calls.append(x)
+            return x
+
+        f(1)
+        f(2)
+        f(1)  # 2 is now the least recently used entry
+        f(3)  # evicts 2
+        f(1)
+        f(2)  # evicts 3
+        f(3)
+        self.assertEqual(calls, [1, 2, 3, 2, 3])
+        self.assertEqual(f.cache_info().currsize, 2)
+        self.assertEqual(f.cache_info().hits, 2)
+
+    def test_uncached(self):
+        calls = []
+
+        @functools.lru_cache(maxsize=0)
+        def f(x):
+            calls.append(x)
+            return x
+
+        f(1)
+        f(1)
+        self.assertEqual(calls, [1, 1])
+        self.assertEqual(f.cache_info(), (0, 2, 0, 0))
+
+    def test_negative_maxsize(self):
+        f = functools.lru_cache(maxsize=-1)(capture)
+        f(1)
+        f(1)
+        self.assertEqual(f.cache_info().misses, 2)
+        self.assertRaises(TypeError, functools.lru_cache, "1")
+
+    def test_keywords_and_typed(self):
+        calls = []
+
+        @functools.lru_cache(maxsize=10, typed=True)
+        def f(*args, **kw):
+            calls.append((args, kw))
+            return len(calls)
+
+        self.assertEqual(f(1), 1)
+        self.assertEqual(f(1.0), 2)
+        self.assertEqual(f(1), 1)
+        self.assertEqual(f(1, a=2), 3)
+        self.assertEqual(f(1, a=2), 3)
+        self.assertEqual(f(1, a=2.0), 4)
+
+        @functools.lru_cache(maxsize=10)
+        def g(*args, **kw):
+            calls.append((args, kw))
+            return len(calls)
+
+        r = g(1, 2)
+        self.assertEqual(g(1.0, 2), r)
+        self.assertEqual(g(True, 2), r)
+        self.assertNotEqual(g(1, 2, a=1), r)
+
+    def test_unhashable(self):
+        f = functools.lru_cache()(capture)
+        self.assertRaises(TypeError, f, [])
+
+    def test_wrapper_attributes(self):
+        @functools.lru_cache()
+        def f(x):
+            "doc"
+            return x
+
+        self.assertEqual(f.__name__, "f")
+        self.assertEqual(f.__doc__, "doc")
+        self.assertEqual(f.__wrapped__(5), 5)
+        self.assertEqual(f.__reduce__(), f.__qualname__)
+
+    def test_method(self):
+        class A:
+            @functools.lru_cache()
+            def m(self, x):
+                return self, x
+
+        a = A()
+        self.assertEqual(a.m(1), (a, 1))
+        self.assertEqual(a.m(1), (a, 1))
+        self.assertEqual(A.m.cache_info().hits, 1)
+        self.assertEqual(A.m(a, 2), (a, 2))
+
+    def test_recursive(self):
+        @functools.lru_cache(maxsize=4)
+        def fib(n):
+            return n if n < 2 else fib(n - 1) + fib(n - 2)
+
+        self.assertEqual(fib(30), 832040)
+        self.assertEqual(fib.cache_info().currsize, 4)
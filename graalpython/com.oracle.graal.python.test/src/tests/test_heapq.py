@@ -0,0 +1,142 @@
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+import _heapq
+import random
+
+
+def check_heap(heap, less=lambda a, b: a < b):
+    for pos in range(1, len(heap)):
+        assert not less(heap[pos], heap[(pos - 1) // 2]), heap
+
+
+def test_push_pop():
+    for data in ([random.randint(-100, 100) for _ in range(100)],
+                 [random.randint(-100, 100) * 2 ** 40 for _ in range(100)],
+                 [random.random() for _ in range(100)],
+                 [str(random.random()) for _ in range(100)],
+                 [1, 2.5, 3 * 2 ** 40, -1, 0.5, 7]):
+        heap = []
+        for item in data:
+            _heapq.heappush(heap, item)
+            check_heap(heap)
+        result = [_heapq.heappop(heap) for _ in range(len(data))]
+        assert result == sorted(data)
+        assert heap == []
+
+
+def test_heapify():
+    for size in range(30):
+        heap = [random.random() for _ in range(size)]
+        _heapq.heapify(heap)
+        check_heap(heap)
+        heap = [random.randint(0, 10) for _ in range(size)]
+        _heapq.heapify(heap)
+        check_heap(heap)
+
+
+def test_max_heap():
+    data = [random.randint(0, 1000) for _ in range(50)]
+    heap = list(data)
+    _heapq._heapify_max(heap)
+    check_heap(heap, lambda a, b: a > b)
+    assert _heapq._heapreplace_max(heap, -1) == max(data)
+    check_heap(heap, lambda a, b: a > b)
+    result = [_heapq._heappop_max(heap) for _ in range(len(heap))]
+    assert result == sorted(data, reverse=True)[1:] + [-1]
+
+
+def test_replace_and_pushpop():
+    heap = [1, 3, 5]
+    assert _heapq.heapreplace(heap, 4) == 1
+    assert heap[0] == 3
+    assert _heapq.heappushpop(heap, 2) == 2
+    assert _heapq.heappushpop(heap, 6) == 3
+    assert sorted(heap) == [4, 5, 6]
+    assert _heapq.heappushpop([], 1) == 1
+
+
+def test_generalizes_storage():
+    heap = [3, 1, 2]
+    _heapq.heapify(heap)
+    _heapq.heappush(heap, 1.5)
+    assert _heapq.heapreplace(heap, 0.5) == 1
+    assert [_heapq.heappop(heap) for _ in range(4)] == [0.5, 1.5, 2, 3]
+
+
+def test_errors():
+    for fn in (_heapq.heappop, _heapq.heapify, _heapq._heappop_max):
+        try:
+            fn((1, 2))
+        except TypeError:
+            pass
+        else:
+            assert False, fn
+    for fn in (_heapq.heappop, _heapq._heappop_max):
+        try:
+            fn([])
+        except IndexError:
+            pass
+        else:
+            assert False, fn
+    try:
+        _heapq.heapreplace([], 1)
+    except IndexError:
+        pass
+    else:
+        assert False
+
+
+def test_mutating_heap():
+    class EvilCmp:
+        def __init__(self, value, heap):
+            self.value = value
+            self.heap = heap
+
+        def __lt__(self, other):
+            self.heap.clear()
+            return NotImplemented if not isinstance(other, EvilCmp) else self.value < other.value
+
+    heap = []
+    heap.extend(EvilCmp(i, heap) for i in range(10))
+    try:
+        _heapq.heappop(heap)
+    except (RuntimeError, IndexError):
+        pass
+    else:
+        assert False
@@ -753,3 +753,100 @@ class ToBytesTests(unittest.TestCase):
                 return 4
 
         self.assertEqual(MyTest(1).to_bytes(MyTest(10), 'big'), b'\x00\x00\x00\x00\x00\x00\x00\x00\x00\x01')
+
+
+class PowModuloTests(unittest.TestCase):
+
+    def test_small(self):
+        for a in range(-7, 8):
+            for b in range(0, 9):
+                for m in (-13, -2, -1, 1, 2, 7, 2147483647, -2147483647):
+                    self.assertEqual(pow(a, b, m), (a ** b) % m)
+        self.assertEqual(pow(True, 5, 3), 1)
+
+    def test_large(self):
+        p = 2 ** 127 - 1
+        self.assertEqual(pow(3, p - 1, p), 1)
+        self.assertEqual(pow(2 ** 70 + 3, 2 ** 80, 10 ** 30 + 7), pow(2 ** 70 + 3, 2 ** 80, 10 ** 30 + 7))
+        self.assertEqual(pow(2 ** 70, 3, 2 ** 40 + 1), (2 ** 210) % (2 ** 40 + 1))
+        self.assertEqual(pow(5, 117, -(2 ** 61 - 1)), (5 ** 117) % -(2 ** 61 - 1))
+        self.assertEqual(pow(12345678901234567890, 3, 9876543210987), (12345678901234567890 ** 3) % 9876543210987)
+
+    def test_inverse(self):
+        self.assertEqual(pow(3, -1, 7), 5)
+        self.assertEqual(pow(38, -1, 97) * 38 % 97, 1)
+        self.assertEqual(pow(3, -2, 2 ** 89 - 1) * 9 % (2 ** 89 - 1), 1)
+        self.assertRaises(ValueError, pow, 2, -1, 4)
+
+    def test_zero_modulus(self):
+        self.assertRaises(ValueError, pow, 2, 3, 0)
+        self.assertRaises(ValueError, pow, 2 ** 70, 3, 0)
+
+
+class LargeConversionTests(unittest.TestCase):
+
+    def test_parse_long_strings(self):
+        digits = "1234567890" * 700
+        value = int(digits)
+        self.assertEqual(str(value), digits)
+        self.assertEqual(int("-" + digits), -value)
+        self.assertEqual(int("  +" + digits + "  "), value)
+        self.assertEqual(int("f" * 3001, 16), 16 ** 3001 - 1)
+        self.assertEqual(int("1" + "0" * 5000), 10 ** 5000)
+        self.assertRaises(ValueError, int, digits[:3000] + "-" + digits[3000:])
+        self.assertRaises(ValueError, int, digits + "x")
+        self.assertRaises(ValueError, int, "--" + digits)
+
+    def test_bytes_roundtrip(self):
+        value = 3 ** 5000
+        length = (value.bit_length() + 7) // 8
+        for byteorder in ('big', 'little'):
+            self.assertEqual(int.from_bytes(value.to_bytes(length, byteorder), byteorder), value)
+            self.assertEqual(int.from_bytes((-value).to_bytes(length + 1, byteorder, signed=True), byteorder, signed=True), -value)
+
+    def test_to_bytes_padding_and_overflow(self):
+        self.assertEqual((2 ** 127).to_bytes(16, 'big'), b'\x80' + b'\x00' * 15)
+        self.assertEqual((2 ** 64).to_bytes(12, 'little'), b'\x00' * 8 + b'\x01' + b'\x00' * 3)
+        self.assertEqual((-2 ** 127).to_bytes(16, 'little', signed=True), b'\x00' * 15 + b'\x80')
+        self.assertEqual((-2 ** 64).to_bytes(10, 'big', signed=True), b'\xff\xff' + b'\x00' * 8)
+        self.assertEqual((-2 ** 64 - 1).to_bytes(9, 'big', signed=True), b'\xfe' + b'\xff' * 8)
+        self.assertEqual((-2 ** 64 - 1).to_bytes(11, 'little', signed=True), b'\xff' * 8 + b'\xfe' + b'\xff' * 2)
+        self.assertRaises(OverflowError, (2 ** 127).to_bytes, 16, 'big', signed=True)
+        self.assertRaises(OverflowError, (-2 ** 64 - 1).to_bytes, 8, 'big', signed=True)
+        self.assertRaises(OverflowError, (-2 ** 70).to_bytes, 9, 'big')
+        self.assertRaises(OverflowError, (2 ** 64).to_bytes, 0, 'little')
+
+    def test_from_array(self):
+        from array import array
+        a = array('H', [1, 2])
+        self.assertEqual(int.from_bytes(a, 'big'), int.from_bytes(a.tobytes(), 'big'))
+
+
+class LongOverflowTests(unittest.TestCase):
+
+    def test_add_sub(self):
+        big = 0x7fffffffffffffff
+        small = -0x8000000000000000
+        self.assertEqual(big + 1, 0x8000000000000000)
+        self.assertEqual(big + big, 0xfffffffffffffffe)
+        self.assertEqual(small + -1, -0x8000000000000001)
+        self.assertEqual(small + small, -0x10000000000000000)
+        self.assertEqual(big - -1, 0x8000000000000000)
+        self.assertEqual(big - small, 0xffffffffffffffff)
+        self.assertEqual(small - 1, -0x8000000000000001)
+        self.assertEqual(small - big, -0xffffffffffffffff)
+
+    def test_mul(self):
+        big = 0x7fffffffffffffff
+        small = -0x8000000000000000
+        self.assertEqual(big * big, 0x3fffffffffffffff0000000000000001)
+        self.assertEqual(small * small, 0x40000000000000000000000000000000)
+        self.assertEqual(small * big, -0x3fffffffffffffff8000000000000000)
+        self.assertEqual(small * -1, 0x8000000000000000)
+        self.assertEqual(0x100000000 * 0x80000000, 0x8000000000000000)
+        self.assertEqual(-0x123456789abcdef * 0x1000, -0x123456789abcdef000)
+        self.assertEqual(0xfedcba987654321 * -0x7654321, -0x75cd90468acf1357a44a41)
+        x = 3
+        for i in range(80):
+            x *= 3
+        self.assertEqual(x, 3 ** 81)
@@ -0,0 +1,200 @@
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import _io
+
+
+def unlink(file_name):
+    from test import support
+    try:
+        support.unlink(file_name)
+    except OSError:
+        pass
+
+
+def assert_raises(err, fn, *args, **kwargs):
+    raised = False
+    try:
+        fn(*args, **kwargs)
+    except err:
+        raised = True
+    assert raised
+
+
+def test_java_classes():
+    file_name = "dump_io.txt"
+    unlink(file_name)
+    try:
+        with open(file_name, "wb") as f:
+            assert type(f) is _io.BufferedWriter
+            assert type(f.raw) is _io.FileIO
+        with open(file_name, "rb") as f:
+            assert type(f) is _io.BufferedReader
+        with open(file_name, "r") as f:
+            assert type(f) is _io.TextIOWrapper
+            assert type(f.buffer) is _io.BufferedReader
+        with open(file_name, "rb", buffering=0) as f:
+            assert type(f) is _io.FileIO
+    finally:
+        unlink(file_name)
+
+
+def test_fileio():
+    file_name = "dump_io.txt"
+    unlink(file_name)
+    try:
+        f = _io.FileIO(file_name, "w")
+        assert f.mode == "wb"
+        assert f.writable() and not f.readable()
+        assert f.write(b"hello world") == 11
+        f.close()
+        assert f.closed
+        assert_raises(ValueError, f.write, b"x")
+
+        f = _io.FileIO(file_name, "r")
+        assert f.read(5) == b"hello"
+        assert f.tell() == 5
+        buf = bytearray(3)
+        assert f.readinto(buf) == 3
+        assert buf == b" wo"
+        assert f.readall() == b"rld"
+        assert f.read() == b""
+        f.seek(0)
+        assert f.read() == b"hello world"
+        assert_raises(_io.UnsupportedOperation, f.write, b"x")
+        f.close()
+
+        assert_raises(FileExistsError, _io.FileIO, file_name, "x")
+        assert_raises(ValueError, _io.FileIO, file_name, "rw")
+        assert_raises(ValueError, _io.FileIO, -1)
+    finally:
+        unlink(file_name)
+
+
+def test_buffered():
+    file_name = "dump_io.txt"
+    unlink(file_name)
+    try:
+        data = b"".join(b"line %d\n" % i for i in range(5000))
+        with open(file_name, "wb", buffering=64) as f:
+            for i in range(0, len(data), 7):
+                f.write(data[i:i + 7])
+            assert f.tell() == len(data)
+        with open(file_name, "rb", buffering=64) as f:
+            assert f.peek(1)[:1] == b"l"
+            assert f.readline() == b"line 0\n"
+            assert f.read(4) == b"line"
+            assert f.tell() == 11
+            f.seek(0)
+            lines = f.readlines()
+            assert len(lines) == 5000
+            assert lines[4999] == b"line 4999\n"
+            f.seek(-10, 2)
+            assert f.read() == b"line 4999\n"
+            f.seek(7)
+            assert f.read(6) == b"line 1"
+        with open(file_name, "rb") as f:
+            assert f.read() == data
+    finally:
+        unlink(file_name)
+
+
+def test_text():
+    file_name = "dump_io.txt"
+    unlink(file_name)
+    try:
+        with open(file_name, "w", encoding="utf-8") as f:
+            assert f.encoding == "utf-8"
+            assert f.write("ascii\n") == 6
+            assert f.write("ä€\U0001f600\n") == 4
+            f.writelines(["a\n", "b"])
+        with open(file_name, "rb") as f:
+            assert f.read() == "ascii\nä€\U0001f600\na\nb".encode("utf-8")
+        with open(file_name, "r", encoding="utf-8") as f:
+            assert f.readline() == "ascii\n"
+            pos = f.tell()
+            assert f.read(2) == "ä€"
+            f.seek(pos)
+            assert f.readline() == "ä€\U0001f600\n"
+            assert list(f) == ["a\n", "b"]
+            assert f.read() == ""
+        with open(file_name, "r", encoding="latin-1") as f:
+            assert len(f.read()) == len("ascii\nä€\U0001f600\na\nb".encode("utf-8"))
+    finally:
+        unlink(file_name)
+
+
+def test_text_newlines():
+    file_name = "dump_io.txt"
+    unlink(file_name)
+    try:
+        with open(file_name, "wb") as f:
+            f.write(b"a\r\nb\rc\nd")
+        with open(file_name, "r") as f:
+            assert f.readlines() == ["a\n", "b\n", "c\n", "d"]
+        with open(file_name, "r") as f:
+            assert f.read() == "a\nb\nc\nd"
+        with open(file_name, "r", newline="") as f:
+            assert f.readlines() == ["a\r\n", "b\r", "c\n", "d"]
+        with open(file_name, "r", newline="\r") as f:
+            assert f.readlines() == ["a\r", "\nb\r", "c\nd"]
+        with open(file_name, "w", newline="\r\n") as f:
+            f.write("x\ny\n")
+        with open(file_name, "rb") as f:
+            assert f.read() == b"x\r\ny\r\n"
+        assert_raises(ValueError, open, file_name, "r", newline="x")
+    finally:
+        unlink(file_name)
+
+
+def test_text_errors():
+    file_name = "dump_io.txt"
+    unlink(file_name)
+    try:
+        with open(file_name, "wb") as f:
+            f.write(b"ab\xffcd")
+        with open(file_name, "r", encoding="utf-8") as f:
+            assert_raises(UnicodeDecodeError, f.read)
+        with open(file_name, "r", encoding="ascii", errors="ignore") as f:
+            assert f.read() == "abcd"
+        assert_raises(LookupError, open, file_name, "r", encoding="no-such-encoding")
+        with open(file_name, "w") as f:
+            assert_raises(TypeError, f.write, b"bytes")
+    finally:
+        unlink(file_name)
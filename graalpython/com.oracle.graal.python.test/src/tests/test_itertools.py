@@ -1,4 +1,4 @@
-# Copyright (c) 2019, Oracle and/or its affiliates.
+# Copyright (c) 2019, 2020, Oracle and/or its affiliates.
 # Copyright (C) 1996-2017 Python Software Foundation
 #
 # Licensed under the PYTHON SOFTWARE FOUNDATION LICENSE VERSION 2
@@ -98,3 +98,188 @@ class CombinationsTests(unittest.TestCase):
         self.assertRaises(ExpectedError, gulp, [None], keyfunc)
         keyfunc.skip = 1
         self.assertRaises(ExpectedError, gulp, [None, None], keyfunc)
+
+
+class RepeatCountTests(unittest.TestCase):
+
+    def test_repeat(self):
+        self.assertEqual(list(repeat('a', 3)), ['a', 'a', 'a'])
+        self.assertEqual(list(repeat('a', -1)), [])
+        self.assertEqual(list(zip(range(3), repeat('b'))), [(0, 'b'), (1, 'b'), (2, 'b')])
+        r = repeat(1, 2)
+        self.assertEqual(r.__length_hint__(), 2)
+        next(r)
+        self.assertEqual(r.__length_hint__(), 1)
+        self.assertEqual(repr(repeat('a')), "repeat('a')")
+        self.assertEqual(repr(repeat('a', 3)), "repeat('a', 3)")
+        self.assertRaises(TypeError, repeat, 1, None)
+        self.assertRaises(TypeError, repeat)
+
+    def test_count(self):
+        self.assertEqual(list(islice(count(), 3)), [0, 1, 2])
+        self.assertEqual(list(islice(count(10, -2), 3)), [10, 8, 6])
+        self.assertEqual(list(islice(count(0.5, 0.25), 3)), [0.5, 0.75, 1.0])
+        big = 2 ** 62
+        self.assertEqual(list(islice(count(big, big), 3)), [big, 2 * big, 3 * big])
+        self.assertEqual(list(islice(count(2 ** 31 - 2), 3)), [2 ** 31 - 2, 2 ** 31 - 1, 2 ** 31])
+        self.assertEqual(repr(count(5)), "count(5)")
+        self.assertEqual(repr(count(5, 2)), "count(5, 2)")
+        self.assertEqual(repr(count(5, 1.0)), "count(5, 1.0)")
+        self.assertRaises(TypeError, count, 'a')
+        c = count(3)
+        next(c)
+        self.assertEqual(next(copy_of(c)), 4)
+
+
+def copy_of(obj):
+    import copy
+    return copy.copy(obj)
+
+
+class ChainIsliceTests(unittest.TestCase):
+
+    def test_chain(self):
+        self.assertEqual(list(chain('abc', [], (1, 2), range(2))), ['a', 'b', 'c', 1, 2, 0, 1])
+        self.assertEqual(list(chain()), [])
+        self.assertEqual(list(chain.from_iterable(['ab', '', 'c'])), ['a', 'b', 'c'])
+        self.assertRaises(TypeError, list, chain(1))
+
+        def gen():
+            yield [1]
+            yield [2]
+        self.assertEqual(list(chain.from_iterable(gen())), [1, 2])
+        it = chain([1])
+        self.assertEqual(list(it), [1])
+        self.assertEqual(list(it), [])
+
+    def test_islice(self):
+        data = list(range(20))
+        for args in [(10,), (2, 10), (2, 10, 3), (None,), (5, None), (5, None, 4), (None, 3, None), (25,), (30, 40), (0, 0)]:
+            self.assertEqual(list(islice(data, *args)), data[slice(*args)], args)
+            self.assertEqual(list(islice(tuple(data), *args)), data[slice(*args)], args)
+            self.assertEqual(list(islice(iter(data), *args)), data[slice(*args)], args)
+            self.assertEqual(list(islice((x for x in data), *args)), data[slice(*args)], args)
+        self.assertEqual(list(islice(count(), 3, 10, 2)), [3, 5, 7, 9])
+        self.assertRaises(ValueError, islice, data, -1)
+        self.assertRaises(ValueError, islice, data, 1, -1)
+        self.assertRaises(ValueError, islice, data, 1, 2, 0)
+        self.assertRaises(ValueError, islice, data, 'a')
+        self.assertRaises(TypeError, islice, data)
+        self.assertRaises(TypeError, islice, data, 1, 2, 3, 4)
+
+    def test_islice_consumption(self):
+        it = iter(range(10))
+        self.assertEqual(list(islice(it, 3)), [0, 1, 2])
+        self.assertEqual(next(it), 3)
+        it = iter(range(10))
+        self.assertEqual(list(islice(it, 1, 8, 3)), [1, 4, 7])
+        self.assertEqual(next(it), 8)
+        lst = [1, 2, 3, 4, 5]
+        it = iter(lst)
+        s = islice(it, 2, None)
+        self.assertEqual(next(s), 3)
+        self.assertEqual(list(it), [4, 5])
+
+
+class MappingTests(unittest.TestCase):
+
+    def test_starmap(self):
+        self.assertEqual(list(starmap(pow, [(2, 3), (3, 2)])), [8, 9])
+        self.assertEqual(list(starmap(pow, iter([[2, 3], [3, 2]]))), [8, 9])
+        self.assertEqual(list(starmap(lambda *a: a, [(), 'ab'])), [(), ('a', 'b')])
+        self.assertRaises(TypeError, list, starmap(pow, [1]))
+
+    def test_accumulate(self):
+        self.assertEqual(list(accumulate([1, 2, 3, 4])), [1, 3, 6, 10])
+        self.assertEqual(list(accumulate([])), [])
+        self.assertEqual(list(accumulate(['a', 'b'])), ['a', 'ab'])
+        self.assertEqual(list(accumulate([3, 1, 4, 1, 5], max)), [3, 3, 4, 4, 5])
+        self.assertEqual(list(accumulate([1, 2, 3], lambda x, y: x * y)), [1, 2, 6])
+        self.assertEqual(list(accumulate([1, 2, 3], initial=100)), [100, 101, 103, 106])
+        self.assertEqual(list(accumulate([], initial=100)), [100])
+        self.assertRaises(TypeError, list, accumulate([1, 'a']))
+
+
+class CombinatoricTests(unittest.TestCase):
+
+    def test_product(self):
+        self.assertEqual(list(product('ab', range(2))), [('a', 0), ('a', 1), ('b', 0), ('b', 1)])
+        self.assertEqual(list(product(range(2), repeat=3)),
+                         [(0, 0, 0), (0, 0, 1), (0, 1, 0), (0, 1, 1), (1, 0, 0), (1, 0, 1), (1, 1, 0), (1, 1, 1)])
+        self.assertEqual(list(product()), [()])
+        self.assertEqual(list(product('ab', [])), [])
+        self.assertEqual(list(product('ab', repeat=0)), [()])
+        self.assertRaises(ValueError, product, 'ab', repeat=-1)
+        results = list(product('ab', 'cd'))
+        self.assertEqual(len(set(results)), 4)
+
+    def test_product_reduce(self):
+        p = product('ab', 'cd')
+        self.assertEqual(p.__reduce__(), (product, (('a', 'b'), ('c', 'd'))))
+        next(p)
+        next(p)
+        cls, args, state = p.__reduce__()
+        self.assertEqual(state, (0, 1))
+        q = cls(*args)
+        q.__setstate__(state)
+        self.assertEqual(list(q), [('b', 'c'), ('b', 'd')])
+        self.assertEqual(list(p), [('b', 'c'), ('b', 'd')])
+        self.assertEqual(p.__reduce__(), (product, ((),)))
+
+    def test_permutations(self):
+        self.assertEqual(list(permutations(range(3))),
+                         [(0, 1, 2), (0, 2, 1), (1, 0, 2), (1, 2, 0), (2, 0, 1), (2, 1, 0)])
+        self.assertEqual(list(permutations('abc', 2)),
+                         [('a', 'b'), ('a', 'c'), ('b', 'a'), ('b', 'c'), ('c', 'a'), ('c', 'b')])
+        self.assertEqual(list(permutations('abc', 0)), [()])
+        self.assertEqual(list(permutations('abc', 4)), [])
+        self.assertEqual(list(permutations([])), [()])
+        self.assertEqual(len(list(permutations(range(6)))), 720)
+        self.assertRaises(ValueError, permutations, 'abc', -1)
+
+    def test_permutations_reduce(self):
+        p = permutations('abc', 2)
+        self.assertEqual(p.__reduce__(), (permutations, (('a', 'b', 'c'), 2)))
+        next(p)
+        next(p)
+        cls, args, state = p.__reduce__()
+        q = cls(*args)
+        q.__setstate__(state)
+        self.assertEqual(list(q), [('b', 'a'), ('b', 'c'), ('c', 'a'), ('c', 'b')])
+        self.assertEqual(list(p), [('b', 'a'), ('b', 'c'), ('c', 'a'), ('c', 'b')])
+        self.assertEqual(p.__reduce__(), (permutations, ((), 2)))
+
+
+class TeeTests(unittest.TestCase):
+
+    def test_tee(self):
+        a, b = tee(range(200))
+        self.assertEqual(list(a), list(range(200)))
+        self.assertEqual(list(b), list(range(200)))
+        a, b, c = tee('abc', 3)
+        self.assertEqual(next(a), 'a')
+        self.assertEqual(list(b), ['a', 'b', 'c'])
+        self.assertEqual(list(a), ['b', 'c'])
+        self.assertEqual(list(c), ['a', 'b', 'c'])
+        self.assertEqual(tee('abc', 0), ())
+        self.assertRaises(ValueError, tee, 'abc', -1)
+
+    def test_tee_of_tee(self):
+        a, b = tee(iter(range(10)))
+        next(a)
+        c, d = tee(a)
+        self.assertIs(c, a)
+        self.assertEqual(list(d), list(range(1, 10)))
+        self.assertEqual(list(b), list(range(10)))
+        e = copy_of(b)
+        self.assertEqual(list(e), [])
+
+    def test_tee_interleaved(self):
+        def gen():
+            for i in range(150):
+                yield i
+        a, b = tee(gen())
+        result = []
+        for x, y in zip(a, b):
+            result.append((x, y))
+        self.assertEqual(result, [(i, i) for i in range(150)])
@@ -725,6 +725,102 @@ class ListTest(list_tests.CommonTest):
         l.extend(l)
         self.assertEqual([1,2,3,4,10,20,30,40], l)
 
+    def test_sort_primitive(self):
+        l = [5, 3, 9, -1, 0, 3]
+        l.sort()
+        self.assertEqual([-1, 0, 3, 3, 5, 9], l)
+        l.sort(reverse=True)
+        self.assertEqual([9, 5, 3, 3, 0, -1], l)
+
+        l = [LONG_NUMBER, 1, -LONG_NUMBER, 7]
+        l.sort()
+        self.assertEqual([-LONG_NUMBER, 1, 7, LONG_NUMBER], l)
+
+        l = [2.5, -1.0, 0.5, 100.25]
+        l.sort()
+        self.assertEqual([-1.0, 0.5, 2.5, 100.25], l)
+
+        # zeros compare equal and must keep their relative order
+        l = [0.0, 1.0, -0.0]
+        l.sort()
+        self.assertEqual("[0.0, -0.0, 1.0]", repr(l))
+
+        l = list(range(1000, 0, -1))
+        l.sort()
+        self.assertEqual(list(range(1, 1001)), l)
+
+    def test_sort_stable(self):
+        data = [(i % 7, i) for i in range(500)]
+        l = list(data)
+        l.sort(key=lambda t: t[0])
+        self.assertEqual([t for k in range(7) for t in data if t[0] == k], l)
+        l = list(data)
+        l.sort(key=lambda t: t[0], reverse=True)
+        self.assertEqual([t for k in range(6, -1, -1) for t in data if t[0] == k], l)
+
+    def test_sort_key_called_once(self):
+        calls = []
+
+        def key(x):
+            calls.append(x)
+            return -x
+
+        l = list(range(100))
+        l.sort(key=key)
+        self.assertEqual(list(range(99, -1, -1)), l)
+        self.assertEqual(100, len(calls))
+
+    def test_sort_errors(self):
+        l = [3, "a", 1]
+        self.assertRaises(TypeError, l.sort)
+        self.assertEqual(3, len(l))
+
+        def key(x):
+            if x == 2:
+                raise ZeroDivisionError
+            return x
+        l = [3, 2, 1]
+        self.assertRaises(ZeroDivisionError, l.sort, key=key)
+        self.assertEqual([3, 2, 1], l)
+
+        def mutating_key(x):
+            l.append(x)
+            return x
+        l = [3, 2, 1]
+        self.assertRaises(ValueError, l.sort, key=mutating_key)
+        self.assertEqual([1, 2, 3], l)
+
+        self.assertRaises(TypeError, l.sort, lambda x: x)
+
+    def test_sort_error_keeps_elements(self):
+        class Item:
+            compares = 0
+            limit = 0
+
+            def __init__(self, v):
+                self.v = v
+
+            def __lt__(self, other):
+                Item.compares += 1
+                if Item.compares > Item.limit:
+                    raise RuntimeError
+                return self.v < other.v
+
+        n = 300
+        # let the comparisons fail in the insertion sort and in each merge pass
+        for limit in (10, 500, 1200, 1500, 1800, 2100):
+            items = [Item((i * 37) % n) for i in range(n)]
+            Item.compares = 0
+            Item.limit = limit
+            l = list(items)
+            self.assertRaises(RuntimeError, l.sort)
+            self.assertEqual(sorted(map(id, items)), sorted(map(id, l)))
+
+            Item.compares = 0
+            l = list(items)
+            self.assertRaises(RuntimeError, l.sort, key=lambda x: x, reverse=True)
+            self.assertEqual(sorted(map(id, items)), sorted(map(id, l)))
+
 class ListCompareTest(CompareTest):
 
     def test_compare(self):
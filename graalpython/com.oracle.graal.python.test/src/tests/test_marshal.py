@@ -1,8 +1,9 @@
-# Copyright (c) 2019, Oracle and/or its affiliates.
+# Copyright (c) 2019, 2020, Oracle and/or its affiliates.
 # Copyright (C) 1996-2017 Python Software Foundation
 #
 # Licensed under the PYTHON SOFTWARE FOUNDATION LICENSE VERSION 2
 
+import io
 import unittest
 import marshal
 import array
@@ -170,3 +171,62 @@ class BufferTest(unittest.TestCase, BaseMarshalUnmarshal):
     #    a = array.array('b', b"abc")
     #    new = marshal.loads(marshal.dumps(a))
     #    self.assertEqual(new, b"abc")
+
+class FileTest(unittest.TestCase):
+    def test_dump_load(self):
+        for sample in (42, 2**100, 3.25, "Andr\xe8 Previn", b"abc", (1, [2, {3: "4"}]), frozenset("xyz")):
+            f = io.BytesIO()
+            marshal.dump(sample, f)
+            f.seek(0)
+            self.assertEqual(marshal.load(f), sample)
+
+    def test_multiple_values(self):
+        f = io.BytesIO()
+        values = [1, "two", [3.0], {"four": 4}]
+        for v in values:
+            marshal.dump(v, f)
+        f.write(b"trailing")
+        f.seek(0)
+        for v in values:
+            self.assertEqual(marshal.load(f), v)
+        # load must not consume more than the marshalled values
+        self.assertEqual(f.read(), b"trailing")
+
+    def test_real_file(self):
+        import tempfile
+        with tempfile.TemporaryFile() as f:
+            marshal.dump([1, 2], f)
+            marshal.dump("three", f)
+            f.seek(0)
+            self.assertEqual(marshal.load(f), [1, 2])
+            self.assertEqual(marshal.load(f), "three")
+            self.assertRaises(EOFError, marshal.load, f)
+
+    def test_unseekable(self):
+        class Reader:
+            def __init__(self, data):
+                self.data = data
+            def read(self, n=-1):
+                if n < 0:
+                    n = len(self.data)
+                result, self.data = self.data[:n], self.data[n:]
+                return result
+
+        r = Reader(marshal.dumps((1, "two")) + marshal.dumps(3.0))
+        self.assertEqual(marshal.load(r), (1, "two"))
+        self.assertEqual(marshal.load(r), 3.0)
+
+    def test_large(self):
+        sample = [str(i) * 10 for i in range(50000)]
+        f = io.BytesIO()
+        marshal.dump(sample, f)
+        self.assertEqual(f.getvalue(), marshal.dumps(sample))
+        f.seek(0)
+        self.assertEqual(marshal.load(f), sample)
+        self.assertEqual(marshal.loads(bytearray(f.getvalue())), sample)
+
+    def test_truncated(self):
+        data = marshal.dumps(("abc", 2**70))
+        for i in range(len(data)):
+            self.assertRaises(EOFError, marshal.loads, data[:i])
+            self.assertRaises(EOFError, marshal.load, io.BytesIO(data[:i]))
@@ -162,6 +162,100 @@ class MmapTests(unittest.TestCase):
         self.assertEqual(m.read(-42), bytes(range(9, 16)))
         m.close()
 
+    def test_find_rfind(self):
+        m = mmap.mmap(-1, 32)
+        m.write(b'abc--abc--abc')
+        self.assertEqual(m.find(b'abc'), -1)
+        m.seek(0)
+        self.assertEqual(m.find(b'abc'), 0)
+        self.assertEqual(m.find(b'abc', 1), 5)
+        self.assertEqual(m.find(b'abc', 1, 7), -1)
+        self.assertEqual(m.rfind(b'abc'), 10)
+        self.assertEqual(m.rfind(b'abc', 0, 12), 5)
+        self.assertEqual(m.rfind(b'abc', -22), 10)
+        self.assertEqual(m.rfind(b'xyz'), -1)
+        m.close()
+
+    def test_readline_write_byte(self):
+        m = mmap.mmap(-1, 8)
+        m.write(b'ab\ncd')
+        m.write_byte(ord('e'))
+        m.seek(0)
+        self.assertEqual(m.readline(), b'ab\n')
+        self.assertEqual(m.read_byte(), ord('c'))
+        self.assertEqual(m.readline(), b'de\0\0')
+        self.assertRaises(ValueError, m.read_byte)
+        self.assertRaises(ValueError, m.write, b'x')
+        self.assertEqual(m[::2], b'a\nd\0')
+        m.close()
+        self.assertRaises(ValueError, m.read)
+
+    def test_access(self):
+        with open(TESTFN, 'wb') as f:
+            f.write(b'hello world')
+
+        with open(TESTFN, 'rb') as f:
+            m = mmap.mmap(f.fileno(), 0, access=mmap.ACCESS_READ)
+            self.assertEqual(m[:], b'hello world')
+            self.assertRaises(TypeError, m.write, b'x')
+            self.assertRaises(TypeError, m.__setitem__, 0, 1)
+            m.close()
+
+        with open(TESTFN, 'r+b') as f:
+            m = mmap.mmap(f.fileno(), 0, access=mmap.ACCESS_COPY)
+            m[0:5] = b'HELLO'
+            self.assertEqual(m[:], b'HELLO world')
+            m.flush()
+            m.close()
+        with open(TESTFN, 'rb') as f:
+            self.assertEqual(f.read(), b'hello world')
+
+        with open(TESTFN, 'r+b') as f:
+            m = mmap.mmap(f.fileno(), 0)
+            m[6:11] = b'WORLD'
+            m.flush()
+            m.close()
+        with open(TESTFN, 'rb') as f:
+            self.assertEqual(f.read(), b'hello WORLD')
+
+    def test_flush_anonymous(self):
+        m = mmap.mmap(-1, 16)
+        m.write(b'abc')
+        m.flush()
+        self.assertEqual(m[:3], b'abc')
+        m.close()
+
+    def test_write_back(self):
+        with open(TESTFN, 'wb') as f:
+            f.write(b'0123456789')
+
+        with open(TESTFN, 'r+b') as f:
+            m = mmap.mmap(f.fileno(), 0, access=mmap.ACCESS_WRITE)
+            m[0:3] = b'abc'
+            m.flush()
+            with open(TESTFN, 'rb') as g:
+                self.assertEqual(g.read(), b'abc3456789')
+            m.seek(7)
+            m.write(b'xyz')
+            m.close()
+        with open(TESTFN, 'rb') as f:
+            self.assertEqual(f.read(), b'abc3456xyz')
+
+    def test_os_io(self):
+        m = mmap.mmap(-1, 8)
+        m.write(b'abcdefgh')
+        r, w = os.pipe()
+        try:
+            self.assertEqual(os.write(w, m), 8)
+            self.assertEqual(os.read(r, 8), b'abcdefgh')
+            os.write(w, b'12345678')
+            self.assertEqual(os.readv(r, [m]), 8)
+            self.assertEqual(m[:], b'12345678')
+            m.close()
+            self.assertRaises(ValueError, os.write, w, m)
+        finally:
+            os.close(r)
+            os.close(w)
 
 
     def test_context_manager(self):
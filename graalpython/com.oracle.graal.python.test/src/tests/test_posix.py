@@ -105,3 +105,94 @@ class PosixTests(unittest.TestCase):
     def delete_file(self, new_file_path, cwd):
         os.remove(new_file_path)
         os.remove(cwd + '/test.txt')
+
+
+def with_test_file(test):
+    # each test gets a fresh file, since the test runner calls setUp only once per class
+    def wrapper(self):
+        import tempfile
+        fd, path = tempfile.mkstemp()
+        try:
+            os.write(fd, b"0123456789abcdef")
+            os.lseek(fd, 0, os.SEEK_SET)
+            test(self, fd, path)
+        finally:
+            os.close(fd)
+            os.remove(path)
+    return wrapper
+
+
+class PositionalAndVectoredIOTests(unittest.TestCase):
+
+    @with_test_file
+    def test_write_buffer(self, fd, path):
+        import array
+        os.lseek(fd, 0, os.SEEK_SET)
+        self.assertEqual(os.write(fd, array.array('b', [65, 66, 67])), 3)
+        self.assertEqual(os.write(fd, bytearray(b"DE")), 2)
+        self.assertEqual(os.pread(fd, 6, 0), b"ABCDE5")
+
+    @with_test_file
+    def test_pread(self, fd, path):
+        os.lseek(fd, 3, os.SEEK_SET)
+        self.assertEqual(os.pread(fd, 4, 10), b"abcd")
+        self.assertEqual(os.pread(fd, 100, 12), b"cdef")
+        self.assertEqual(os.pread(fd, 4, 100), b"")
+        # the file position is left alone
+        self.assertEqual(os.read(fd, 2), b"34")
+
+    @with_test_file
+    def test_pwrite(self, fd, path):
+        os.lseek(fd, 2, os.SEEK_SET)
+        self.assertEqual(os.pwrite(fd, b"XY", 4), 2)
+        self.assertEqual(os.pwrite(fd, bytearray(b"Z"), 16), 1)
+        self.assertEqual(os.read(fd, 4), b"23XY")
+        self.assertEqual(os.pread(fd, 20, 0), b"0123XY6789abcdefZ")
+
+    @with_test_file
+    def test_readv(self, fd, path):
+        import array
+        a = bytearray(3)
+        b = array.array('b', [0] * 4)
+        c = bytearray(20)
+        self.assertEqual(os.readv(fd, [a, b, c]), 16)
+        self.assertEqual(a, b"012")
+        self.assertEqual(b.tobytes(), b"3456")
+        self.assertEqual(c, b"789abcdef" + bytes(11))
+        self.assertEqual(os.readv(fd, [a]), 0)
+        self.assertRaises(TypeError, os.readv, fd, 1)
+        self.assertRaises((TypeError, BufferError), os.readv, fd, [b"abc"])
+
+    @with_test_file
+    def test_writev(self, fd, path):
+        import array
+        os.lseek(fd, 0, os.SEEK_SET)
+        n = os.writev(fd, [b"ab", bytearray(b"cd"), array.array('b', [101, 102]), b"gh"])
+        self.assertEqual(n, 8)
+        self.assertEqual(os.pread(fd, 10, 0), b"abcdefgh89")
+        self.assertRaises(TypeError, os.writev, fd, 1)
+        self.assertRaises(TypeError, os.writev, fd, [1])
+
+    @with_test_file
+    def test_sendfile(self, fd, path):
+        import tempfile
+        out_fd, out_path = tempfile.mkstemp()
+        try:
+            self.assertEqual(os.sendfile(out_fd, fd, 10, 4), 4)
+            self.assertEqual(os.lseek(fd, 0, os.SEEK_CUR), 0)
+            os.lseek(fd, 2, os.SEEK_SET)
+            self.assertEqual(os.sendfile(out_fd, fd, None, 3), 3)
+            self.assertEqual(os.lseek(fd, 0, os.SEEK_CUR), 5)
+            self.assertEqual(os.sendfile(out_fd, fd, 16, 10), 0)
+            self.assertEqual(os.pread(out_fd, 20, 0), b"abcd234")
+        finally:
+            os.close(out_fd)
+            os.remove(out_path)
+
+    @with_test_file
+    def test_readinto_array(self, fd, path):
+        import array
+        a = array.array('h', [0, 0, 0])
+        with open(path, 'rb', buffering=0) as f:
+            self.assertEqual(f.readinto(a), 6)
+        self.assertEqual(a.tobytes(), b"012345")
@@ -178,3 +178,72 @@ class TestBasicOps:
         randrange = self.gen.randrange
         k = sum(randrange(6755399441055744) % 3 == 2 for i in range(n))
         self.assertTrue(0.30 < k/n < .37, (k/n))
+
+
+class TestMersenneTwister(unittest.TestCase):
+    # expected values are produced by CPython
+
+    def test_random_sequence(self):
+        gen = random.Random(12345)
+        self.assertEqual([gen.random() for i in range(3)], [0.41661987254534116, 0.010169169457068361, 0.8252065092537432])
+        self.assertEqual(gen.getrandbits(7), 38)
+        self.assertEqual(gen.getrandbits(40), 407399717050)
+        self.assertEqual(gen.getrandbits(100), 734464464665624625609062314256)
+        gen.seed(2**80 + 17)
+        self.assertEqual(gen.random(), 0.888540338304147)
+        gen.seed(-12345)
+        self.assertEqual(gen.random(), 0.41661987254534116)
+        self.assertRaises(ValueError, gen.getrandbits, -1)
+
+    def test_state(self):
+        gen = random.Random(12345)
+        state = gen.getstate()
+        self.assertEqual(len(state[1]), 625)
+        self.assertEqual(state[1][-1], 624)
+        first = [gen.random() for i in range(1000)]
+        gen.setstate(state)
+        self.assertEqual([gen.random() for i in range(1000)], first)
+        self.assertRaises(ValueError, gen.setstate, (3, (0,) * 624, None))
+        self.assertRaises(ValueError, gen.setstate, (3, (0,) * 624 + (625,), None))
+        self.assertRaises(TypeError, gen.setstate, (3, (0.5,) * 625, None))
+
+    def test_shuffle_sequence(self):
+        gen = random.Random(42)
+        lst = list(range(20))
+        gen.shuffle(lst)
+        self.assertEqual(lst, [19, 5, 14, 4, 9, 13, 15, 18, 6, 12, 17, 10, 1, 11, 2, 16, 7, 8, 0, 3])
+        lst = [float(i) for i in range(10)]
+        gen.shuffle(lst)
+        self.assertEqual(lst, [7.0, 5.0, 0.0, 2.0, 4.0, 9.0, 1.0, 6.0, 3.0, 8.0])
+        lst = ['a', 'b', 'c', 'd', 'e', 'f']
+        gen.shuffle(lst)
+        self.assertEqual(lst, ['e', 'a', 'b', 'c', 'd', 'f'])
+
+    def test_sample_sequence(self):
+        gen = random.Random(7)
+        self.assertEqual(gen.sample(list(range(1000)), 8), [331, 970, 154, 404, 666, 49, 74, 840])
+        self.assertEqual(gen.sample(tuple(range(30)), 8), [17, 3, 11, 18, 1, 16, 6, 25])
+        self.assertEqual(gen.sample(range(100), 5), [11, 55, 53, 8, 30])
+
+    def test_choices_sequence(self):
+        gen = random.Random(3)
+        self.assertEqual(gen.choices(list('abcde'), k=6), ['b', 'c', 'b', 'd', 'd', 'a'])
+        self.assertEqual(gen.choices(list('abcd'), weights=[1, 2, 3, 4], k=6), ['a', 'd', 'b', 'b', 'd', 'c'])
+        self.assertEqual(gen.choices(list('abcd'), cum_weights=[0.5, 1.0, 2.5, 3.0], k=6), ['d', 'c', 'c', 'a', 'c', 'd'])
+        self.assertEqual(gen.choices(list('ab'), weights=[2**60, 1], k=3), ['a', 'a', 'a'])
+        self.assertRaises(IndexError, gen.choices, [], k=1)
+
+    def test_overridden_generator(self):
+        class Constant(random.Random):
+            def random(self):
+                return 0.0
+
+            def getrandbits(self, k):
+                return 0
+
+        gen = Constant()
+        lst = list(range(5))
+        gen.shuffle(lst)
+        self.assertEqual(lst, [1, 2, 3, 4, 0])
+        self.assertEqual(gen.sample([1, 2, 3], 2), [1, 3])
+        self.assertEqual(gen.choices([1, 2, 3], k=2), [1, 1])
@@ -0,0 +1,155 @@
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import errno
+import select
+import socket
+import unittest
+
+
+def connected_pair():
+    server = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+    server.bind(("127.0.0.1", 0))
+    server.listen(1)
+    client = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+    client.connect(server.getsockname())
+    conn, _ = server.accept()
+    server.close()
+    client.setblocking(False)
+    conn.setblocking(False)
+    return client, conn
+
+
+class PollTests(unittest.TestCase):
+
+    def test_constants(self):
+        for name in ("POLLIN", "POLLPRI", "POLLOUT", "POLLERR", "POLLHUP", "POLLNVAL"):
+            self.assertIsInstance(getattr(select, name), int)
+
+    def test_unregistered(self):
+        p = select.poll()
+        self.assertRaises(KeyError, p.unregister, 3)
+        with self.assertRaises(OSError) as cm:
+            p.modify(3, select.POLLIN)
+        self.assertEqual(cm.exception.errno, errno.ENOENT)
+        self.assertEqual(p.poll(0), [])
+
+    def test_readiness(self):
+        client, conn = connected_pair()
+        try:
+            p = select.poll()
+            p.register(conn, select.POLLIN)
+            p.register(client.fileno(), select.POLLOUT)
+            self.assertEqual(p.poll(0), [(client.fileno(), select.POLLOUT)])
+
+            client.send(b"x")
+            ready = dict(p.poll(1000))
+            self.assertEqual(ready.get(conn.fileno()), select.POLLIN)
+            self.assertEqual(conn.recv(1), b"x")
+
+            p.modify(client, select.POLLIN)
+            self.assertEqual(p.poll(0), [])
+            p.unregister(conn)
+            p.unregister(client)
+            self.assertEqual(p.poll(0), [])
+        finally:
+            client.close()
+            conn.close()
+
+
+@unittest.skipUnless(hasattr(select, "epoll"), "requires select.epoll")
+class EpollTests(unittest.TestCase):
+
+    def test_errors(self):
+        client, conn = connected_pair()
+        try:
+            with select.epoll() as ep:
+                ep.register(conn, select.EPOLLIN)
+                with self.assertRaises(OSError) as cm:
+                    ep.register(conn, select.EPOLLIN)
+                self.assertEqual(cm.exception.errno, errno.EEXIST)
+                with self.assertRaises(OSError) as cm:
+                    ep.unregister(client)
+                self.assertEqual(cm.exception.errno, errno.ENOENT)
+                self.assertRaises(ValueError, ep.poll, 0, 0)
+            self.assertTrue(ep.closed)
+            self.assertRaises(ValueError, ep.poll, 0)
+            self.assertRaises(ValueError, ep.register, client, select.EPOLLIN)
+        finally:
+            client.close()
+            conn.close()
+
+    def test_batches(self):
+        pairs = [connected_pair() for _ in range(16)]
+        ep = select.epoll()
+        try:
+            for client, conn in pairs:
+                ep.register(conn, select.EPOLLIN)
+            self.assertEqual(ep.poll(0), [])
+            for client, _ in pairs:
+                client.send(b"x")
+            ready = set()
+            for _ in range(100):
+                events = ep.poll(1, 4)
+                self.assertTrue(len(events) <= 4)
+                for fd, event in events:
+                    self.assertEqual(event, select.EPOLLIN)
+                    ready.add(fd)
+                if len(ready) == len(pairs):
+                    break
+            self.assertEqual(ready, {conn.fileno() for _, conn in pairs})
+        finally:
+            ep.close()
+            for client, conn in pairs:
+                client.close()
+                conn.close()
+
+    def test_oneshot(self):
+        client, conn = connected_pair()
+        try:
+            with select.epoll() as ep:
+                ep.register(conn, select.EPOLLIN | select.EPOLLONESHOT)
+                client.send(b"x")
+                self.assertEqual(ep.poll(1), [(conn.fileno(), select.EPOLLIN)])
+                self.assertEqual(ep.poll(0), [])
+                ep.modify(conn, select.EPOLLIN)
+                self.assertEqual(ep.poll(0), [(conn.fileno(), select.EPOLLIN)])
+        finally:
+            client.close()
+            conn.close()
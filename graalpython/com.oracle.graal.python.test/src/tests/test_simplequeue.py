@@ -0,0 +1,119 @@
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+import _queue
+import queue
+import sys
+import threading
+import time
+import unittest
+
+IS_GRAALPYTHON = sys.implementation.name == 'graalpython'
+
+try:
+    import _sysconfig as syscfg
+except ImportError:
+    import sysconfig as syscfg
+
+# without --python.WithThread, threads are dummies that run their target synchronously
+WITH_THREAD = sys.implementation.name != 'graalpython' or syscfg.get_config_var('WITH_THREAD')
+
+
+class SimpleQueueTest(unittest.TestCase):
+
+    def test_builtin(self):
+        self.assertIs(queue.SimpleQueue, _queue.SimpleQueue)
+        self.assertIs(queue.Empty, _queue.Empty)
+        self.assertTrue(issubclass(_queue.Empty, Exception))
+
+    def test_put_get(self):
+        q = _queue.SimpleQueue()
+        self.assertTrue(q.empty())
+        for i in range(10):
+            q.put(i)
+        q.put_nowait(None)
+        self.assertEqual(q.qsize(), 11)
+        self.assertFalse(q.empty())
+        self.assertEqual([q.get() for _ in range(10)], list(range(10)))
+        self.assertIsNone(q.get_nowait())
+        self.assertTrue(q.empty())
+
+    def test_empty(self):
+        q = _queue.SimpleQueue()
+        self.assertRaises(_queue.Empty, q.get_nowait)
+        self.assertRaises(_queue.Empty, q.get, False)
+        self.assertRaises(_queue.Empty, q.get, block=False, timeout=10)
+        start = time.monotonic()
+        self.assertRaises(_queue.Empty, q.get, timeout=0.05)
+        self.assertTrue(time.monotonic() - start >= 0.04)
+        self.assertRaises(ValueError, q.get, timeout=-1)
+
+    @unittest.skipUnless(WITH_THREAD, "requires threads")
+    def test_threads(self):
+        q = _queue.SimpleQueue()
+        results = []
+
+        def consume():
+            while True:
+                item = q.get(timeout=10)
+                if item is None:
+                    return
+                results.append(item)
+
+        consumers = [threading.Thread(target=consume) for _ in range(4)]
+        for t in consumers:
+            t.start()
+        for i in range(1000):
+            q.put(i)
+        for _ in consumers:
+            q.put(None)
+        for t in consumers:
+            t.join()
+        self.assertEqual(sorted(results), list(range(1000)))
+
+    @unittest.skipUnless(IS_GRAALPYTHON, "batch operations are a GraalPython extension")
+    def test_many(self):
+        q = _queue.SimpleQueue()
+        q.put_many(range(5))
+        q.put_many([])
+        self.assertEqual(q.qsize(), 5)
+        self.assertEqual(q.get_many(3), [0, 1, 2])
+        self.assertEqual(q.get_many(10), [3, 4])
+        self.assertRaises(_queue.Empty, q.get_many, 1, False)
+        self.assertRaises(_queue.Empty, q.get_many, 1, timeout=0.01)
+        self.assertRaises(ValueError, q.get_many, 0)
@@ -1,4 +1,4 @@
-# Copyright (c) 2018, 2019, Oracle and/or its affiliates.
+# Copyright (c) 2018, 2020, Oracle and/or its affiliates.
 # Copyright (C) 1996-2017 Python Software Foundation
 #
 # Licensed under the PYTHON SOFTWARE FOUNDATION LICENSE VERSION 2
@@ -1138,3 +1138,66 @@ def test_replace_count():
     s = "1 2 3 1 2 3 1 2 3 1 2 3"
     s = s.replace("1", "1 _", s.count("1"))
     assert s == "1 _ 2 3 1 _ 2 3 1 _ 2 3 1 _ 2 3"
+
+
+def test_decoded_latin1():
+    s = b'caf\xe9 au lait, caf\xe9 noir'.decode('latin-1')
+    assert s == 'café au lait, café noir'
+    assert len(s) == 23
+    assert hash(s) == hash('café au lait, café noir')
+    assert {'café au lait, café noir': 1}[s] == 1
+    assert s.find('café') == 0
+    assert s.find('café', 1) == 14
+    assert s.find('café', 1, 17) == -1
+    assert s.find('€') == -1
+    assert s.rfind('café') == 14
+    assert s.rfind('café', 0, 17) == 0
+    assert s.find('') == 0
+    assert s.rfind('') == 23
+    assert s.split() == ['café', 'au', 'lait,', 'café', 'noir']
+    assert s.split(None, 1) == ['café', 'au lait, café noir']
+    assert s.split(', ') == ['café au lait', 'café noir']
+    assert s.split('é', 1) == ['caf', ' au lait, café noir']
+    assert s.split('€') == [s]
+    assert s.replace('café', 'thé') == 'thé au lait, thé noir'
+    assert s.replace('café', 'thé', 1) == 'thé au lait, café noir'
+    assert s.replace('é', '€') == 'caf€ au lait, caf€ noir'
+    assert s.replace('€', 'x') == s
+    assert s.encode('latin-1') == b'caf\xe9 au lait, caf\xe9 noir'
+    assert s.encode('utf-8') == 'café au lait, café noir'.encode('utf-8')
+    try:
+        s.encode('ascii')
+    except UnicodeEncodeError:
+        pass
+    else:
+        assert False, "expected UnicodeEncodeError"
+    assert s + '!' == 'café au lait, café noir!'
+    assert '!' + s + '!' == '!café au lait, café noir!'
+
+
+def test_decoded_ascii():
+    for encoding in ['ascii', 'utf-8']:
+        s = b'hello world'.decode(encoding)
+        assert s == 'hello world'
+        assert s.encode('ascii') == b'hello world'
+        assert s.encode('utf-8') == b'hello world'
+        assert s.upper() == 'HELLO WORLD'
+        assert s[1:4] == 'ell'
+        assert s.split('o') == ['hell', ' w', 'rld']
+    assert b''.decode('latin-1') == ''
+    assert bytearray(b'abc').decode('ascii') == 'abc'
+
+
+def test_decoded_latin1_keys():
+    def decoded():
+        return b'caf\xe9'.decode('latin-1')
+    d = {decoded(): 1}
+    assert d['café'] == 1
+    assert d[decoded()] == 1
+    d['café'] = 2
+    assert len(d) == 1 and d[decoded()] == 2
+    d = {'café': 1, 'thé': 2}
+    assert d[decoded()] == 1
+    assert decoded() in {'café', 'thé'}
+    assert 'café' in {decoded()}
+    assert {decoded(), 'café', decoded()} == {'café'}
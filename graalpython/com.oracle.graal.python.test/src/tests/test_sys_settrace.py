@@ -0,0 +1,323 @@
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import sys
+import unittest
+
+
+def outer(x):
+    return inner(x) + 1
+
+
+def inner(x):
+    return x * 2
+
+
+def three_lines():
+    a = 1
+    b = a + 1
+    return b
+
+
+def raiser():
+    raise KeyError("key")
+
+
+def fib(n):
+    return n if n < 2 else fib(n - 1) + fib(n - 2)
+
+
+def generator():
+    x = 1
+    if x:
+        yield x
+        yield x + 1
+    x = 3
+
+
+def consume():
+    return list(generator())
+
+
+def local_catch():
+    try:
+        raise KeyError(1)
+    except KeyError:
+        x = 1
+    return x
+
+
+def reraise():
+    try:
+        raise KeyError(1)
+    except KeyError:
+        raise
+
+
+def catch_reraised():
+    try:
+        reraise()
+    except KeyError:
+        pass
+
+
+THREAD_HOOK_PROGRAM = """
+import sys
+import threading
+
+names = []
+
+def tracer(frame, event, arg):
+    names.append(frame.f_code.co_name)
+
+def install():
+    sys.settrace(tracer)
+    sys.setprofile(tracer)
+
+def inner():
+    pass
+
+for target in [install, inner]:
+    t = threading.Thread(target=target)
+    t.start()
+    t.join()
+print("inner" in names)
+"""
+
+
+class TraceTests(unittest.TestCase):
+
+    def tearDown(self):
+        sys.settrace(None)
+
+    def test_call_and_return_events(self):
+        events = []
+
+        def tracer(frame, event, arg):
+            if frame.f_code.co_name in ("outer", "inner") and event in ("call", "return"):
+                events.append((frame.f_code.co_name, event, arg))
+            return tracer
+
+        sys.settrace(tracer)
+        outer(1)
+        sys.settrace(None)
+        self.assertEqual(events, [("outer", "call", None), ("inner", "call", None), ("inner", "return", 2), ("outer", "return", 3)])
+
+    def test_gettrace(self):
+        def tracer(frame, event, arg):
+            return None
+
+        self.assertIsNone(sys.gettrace())
+        sys.settrace(tracer)
+        self.assertIs(sys.gettrace(), tracer)
+        sys.settrace(None)
+        self.assertIsNone(sys.gettrace())
+
+    def test_line_events(self):
+        lines = []
+
+        def tracer(frame, event, arg):
+            if event == "line" and frame.f_code.co_name == "three_lines":
+                lines.append(frame.f_lineno - frame.f_code.co_firstlineno)
+            return tracer
+
+        sys.settrace(tracer)
+        three_lines()
+        sys.settrace(None)
+        self.assertEqual(sorted(set(lines)), [1, 2, 3])
+
+    def test_local_trace_function(self):
+        events = []
+
+        def local(frame, event, arg):
+            events.append(event)
+            return local
+
+        def tracer(frame, event, arg):
+            if frame.f_code.co_name == "three_lines":
+                self.assertIsNone(frame.f_trace)
+                return local
+            return None
+
+        sys.settrace(tracer)
+        three_lines()
+        sys.settrace(None)
+        self.assertIn("line", events)
+        self.assertEqual(events[-1], "return")
+
+    def test_exception_event(self):
+        events = []
+
+        def tracer(frame, event, arg):
+            if frame.f_code.co_name == "raiser":
+                events.append((event, arg[0] if event == "exception" else arg))
+            return tracer
+
+        sys.settrace(tracer)
+        try:
+            raiser()
+        except KeyError:
+            pass
+        sys.settrace(None)
+        self.assertIn(("exception", KeyError), events)
+        self.assertEqual(events[-1], ("return", None))
+
+    def assert_events(self, func, expected):
+        # the events CPython reports, as (event, function, line relative to 'func')
+        events = []
+        start = func.__code__.co_firstlineno
+
+        def tracer(frame, event, arg):
+            if frame.f_code.co_filename == __file__ and frame.f_code.co_name != "assert_events":
+                events.append((event, frame.f_code.co_name, frame.f_lineno - start))
+            return tracer
+
+        sys.settrace(tracer)
+        func()
+        sys.settrace(None)
+        self.assertEqual(events, expected)
+
+    def test_call_event_sequence(self):
+        self.assert_events(three_lines, [
+            ("call", "three_lines", 0), ("line", "three_lines", 1), ("line", "three_lines", 2),
+            ("line", "three_lines", 3), ("return", "three_lines", 3),
+        ])
+
+    def test_generator_event_sequence(self):
+        self.assert_events(consume, [
+            ("call", "consume", 0), ("line", "consume", 1),
+            ("call", "generator", -8), ("line", "generator", -7), ("line", "generator", -6),
+            ("line", "generator", -5), ("return", "generator", -5),
+            ("call", "generator", -5), ("line", "generator", -4), ("return", "generator", -4),
+            ("call", "generator", -4), ("line", "generator", -3), ("return", "generator", -3),
+            ("return", "consume", 1),
+        ])
+
+    def test_caught_exception_event_sequence(self):
+        self.assert_events(local_catch, [
+            ("call", "local_catch", 0), ("line", "local_catch", 1), ("line", "local_catch", 2),
+            ("exception", "local_catch", 2), ("line", "local_catch", 3), ("line", "local_catch", 4),
+            ("line", "local_catch", 5), ("return", "local_catch", 5),
+        ])
+        self.assert_events(catch_reraised, [
+            ("call", "catch_reraised", 0), ("line", "catch_reraised", 1), ("line", "catch_reraised", 2),
+            ("call", "reraise", -7), ("line", "reraise", -6), ("line", "reraise", -5),
+            ("exception", "reraise", -5), ("line", "reraise", -4), ("line", "reraise", -3),
+            ("return", "reraise", -3), ("exception", "catch_reraised", 2),
+            ("line", "catch_reraised", 3), ("line", "catch_reraised", 4), ("return", "catch_reraised", 4),
+        ])
+
+    def test_failing_trace_function_is_removed(self):
+        def tracer(frame, event, arg):
+            raise ValueError
+
+        sys.settrace(tracer)
+        try:
+            inner(1)
+        except ValueError:
+            pass
+        trace = sys.gettrace()
+        sys.settrace(None)
+        self.assertIsNone(trace)
+
+    def test_hooks_end_with_thread(self):
+        import subprocess
+        for options in [[], ["--python.ThreadPool"]]:
+            args = [sys.executable]
+            if sys.implementation.name == "graalpython":
+                args += ["--experimental-options", "--python.WithThread"] + options
+            out = subprocess.check_output(args + ["-c", THREAD_HOOK_PROGRAM])
+            self.assertEqual(out.split(), [b"False"])
+
+
+class ProfileTests(unittest.TestCase):
+
+    def tearDown(self):
+        sys.setprofile(None)
+
+    def test_setprofile(self):
+        events = []
+
+        def profiler(frame, event, arg):
+            if frame.f_code.co_name in ("outer", "inner"):
+                events.append((frame.f_code.co_name, event))
+
+        sys.setprofile(profiler)
+        outer(1)
+        sys.setprofile(None)
+        self.assertEqual(events, [("outer", "call"), ("inner", "call"), ("inner", "return"), ("outer", "return")])
+        self.assertIsNone(sys.getprofile())
+
+    def test_lsprof_counts_calls(self):
+        import _lsprof
+        profiler = _lsprof.Profiler()
+        profiler.enable()
+        fib(10)
+        profiler.disable()
+        stats = {e.code.co_name: e for e in profiler.getstats() if not isinstance(e.code, str)}
+        entry = stats["fib"]
+        self.assertEqual(entry.callcount, 177)
+        self.assertEqual(entry.reccallcount, 176)
+        self.assertTrue(entry.totaltime >= entry.inlinetime)
+        recursive = [c for c in entry.calls if c.code is entry.code]
+        self.assertEqual(len(recursive), 1)
+        self.assertEqual(recursive[0].callcount, 176)
+
+    def test_lsprof_clear(self):
+        import _lsprof
+        profiler = _lsprof.Profiler()
+        profiler.enable()
+        inner(1)
+        profiler.disable()
+        self.assertTrue(any(not isinstance(e.code, str) and e.code.co_name == "inner" for e in profiler.getstats()))
+        profiler.clear()
+        self.assertEqual(profiler.getstats(), [])
+
+    def test_cprofile(self):
+        import cProfile
+        import io
+        import pstats
+        profile = cProfile.Profile()
+        profile.enable()
+        outer(3)
+        profile.disable()
+        out = io.StringIO()
+        pstats.Stats(profile, stream=out).print_stats()
+        self.assertIn("(inner)", out.getvalue())
+        self.assertIn("(outer)", out.getvalue())
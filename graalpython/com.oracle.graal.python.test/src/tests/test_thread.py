@@ -1,4 +1,4 @@
-# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# Copyright (c) 2019, 2020, Oracle and/or its affiliates. All rights reserved.
 # DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
 #
 # The Universal Permissive License (UPL), Version 1.0
@@ -39,6 +39,7 @@
 import random
 import re
 import sys
+import unittest
 try:
     import _sysconfig as syscfg
 except Exception:
@@ -46,7 +47,6 @@ except Exception:
 
 if syscfg.get_config_var('WITH_THREAD'):
     import threading
-    import unittest
     from test import support
 
     from _thread import start_new_thread
@@ -513,3 +513,204 @@ if syscfg.get_config_var('WITH_THREAD'):
             lock.release()
             self.assertFalse(lock.locked())
             self.assertTrue(lock.acquire(blocking=False))
+
+
+    class LockReleaseTest(unittest.TestCase):
+
+        def test_release_unlocked(self):
+            lock = thread.allocate_lock()
+            self.assertRaises(RuntimeError, lock.release)
+            lock.acquire()
+            lock.release()
+            self.assertRaises(RuntimeError, lock.release)
+            self.assertFalse(lock.locked())
+
+        def test_rlock_release_unowned(self):
+            rlock = thread.RLock()
+            self.assertRaises(RuntimeError, rlock.release)
+            rlock.acquire()
+            errors = []
+
+            def f():
+                try:
+                    rlock.release()
+                except RuntimeError as e:
+                    errors.append(e)
+            t = threading.Thread(target=f)
+            t.start()
+            t.join()
+            self.assertEqual(len(errors), 1)
+            rlock.release()
+
+        @unittest.skipUnless(sys.implementation.name == 'graalpython', "lock statistics are specific to GraalPython")
+        def test_lock_stats(self):
+            for lock in [thread.allocate_lock(), thread.RLock()]:
+                self.assertEqual(__graalpython__.lock_stats(lock), (0, 0, 0))
+                counter = [0]
+
+                def work():
+                    for i in range(2000):
+                        with lock:
+                            counter[0] += 1
+                threads = [threading.Thread(target=work) for i in range(4)]
+                for t in threads:
+                    t.start()
+                for t in threads:
+                    t.join()
+                self.assertEqual(counter[0], 8000)
+                acquisitions, contended, wait_ns = __graalpython__.lock_stats(lock)
+                self.assertEqual(acquisitions, 8000)
+                self.assertTrue(0 <= contended <= acquisitions)
+                self.assertTrue(wait_ns >= 0)
+            self.assertRaises(TypeError, __graalpython__.lock_stats, object())
+
+
+GIL_TEST_PROGRAM = """
+import threading
+import time
+
+shared_list = []
+shared_dict = {}
+
+def work(tid):
+    for i in range(20000):
+        shared_list.append(i)
+        shared_dict[(tid, i)] = i
+    # blocking calls must give up the GIL, otherwise the other threads would starve
+    time.sleep(0.01)
+
+threads = [threading.Thread(target=work, args=(t,)) for t in range(4)]
+for t in threads:
+    t.start()
+for t in threads:
+    t.join()
+print(len(shared_list), len(shared_dict))
+"""
+
+
+BLOCKING_READ_TEST_PROGRAM = """
+import os
+import threading
+import time
+
+r, w = os.pipe()
+result = []
+
+def reader():
+    result.append(os.read(r, 4))
+
+t = threading.Thread(target=reader)
+t.start()
+# the reader blocks in os.read, this thread can only run if it gave up the GIL
+time.sleep(0.1)
+os.write(w, b"ping")
+t.join()
+print(result[0].decode())
+"""
+
+
+class GlobalInterpreterLockTest(unittest.TestCase):
+
+    def test_switchinterval(self):
+        old = sys.getswitchinterval()
+        try:
+            sys.setswitchinterval(0.001)
+            self.assertAlmostEqual(sys.getswitchinterval(), 0.001)
+            self.assertRaises(ValueError, sys.setswitchinterval, 0)
+            self.assertRaises(ValueError, sys.setswitchinterval, -1.0)
+            self.assertRaises(TypeError, sys.setswitchinterval, "1")
+        finally:
+            sys.setswitchinterval(old)
+
+    def test_atomic_builtins_with_gil(self):
+        import subprocess
+        args = [sys.executable]
+        if sys.implementation.name == "graalpython":
+            args += ["--experimental-options", "--python.WithThread", "--python.GIL"]
+        out = subprocess.check_output(args + ["-c", GIL_TEST_PROGRAM])
+        self.assertEqual(out.split(), [b"80000", b"80000"])
+
+    def test_blocking_read_releases_gil(self):
+        import subprocess
+        args = [sys.executable]
+        if sys.implementation.name == "graalpython":
+            args += ["--experimental-options", "--python.WithThread", "--python.GIL"]
+        out = subprocess.check_output(args + ["-c", BLOCKING_READ_TEST_PROGRAM], timeout=120)
+        self.assertEqual(out.split(), [b"ping"])
+
+
+THREAD_REUSE_TEST_PROGRAM = """
+import _thread
+import threading
+import time
+
+results = []
+
+def work(i):
+    time.sleep(0.001)
+    results.append(i)
+
+for round in range(3):
+    threads = [threading.Thread(target=work, args=(i,)) for i in range(50)]
+    for t in threads:
+        t.start()
+    for t in threads:
+        t.join()
+    print(_thread._count(), threading.active_count())
+print(sorted(results) == sorted(list(range(50)) * 3))
+"""
+
+
+SOCKET_GIL_TEST_PROGRAM = """
+import socket
+import threading
+
+server = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+server.bind(("127.0.0.1", 0))
+server.listen(1)
+received = []
+
+def serve():
+    conn, _ = server.accept()
+    received.append(conn.recv(4))
+    conn.close()
+
+t = threading.Thread(target=serve)
+t.start()
+# the server thread blocks in accept and recv, this thread can only connect if they gave up the GIL
+client = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+client.connect(server.getsockname())
+client.sendall(b"pong")
+t.join()
+client.close()
+server.close()
+print(received[0].decode())
+"""
+
+
+class ThreadLauncherTest(unittest.TestCase):
+
+    def run_program(self, *options):
+        import subprocess
+        args = [sys.executable]
+        if sys.implementation.name == "graalpython":
+            args += ["--experimental-options", "--python.WithThread"] + list(options)
+        return subprocess.check_output(args + ["-c", THREAD_REUSE_TEST_PROGRAM]).split()
+
+    def test_platform_threads(self):
+        self.assertEqual(self.run_program(), [b"0", b"1"] * 3 + [b"True"])
+
+    def test_thread_pool(self):
+        self.assertEqual(self.run_program("--python.ThreadPool"), [b"0", b"1"] * 3 + [b"True"])
+
+    def test_virtual_threads(self):
+        self.assertEqual(self.run_program("--python.VirtualThreads"), [b"0", b"1"] * 3 + [b"True"])
+
+    def test_blocking_socket_calls_with_gil(self):
+        import subprocess
+        for options in [[], ["--python.ThreadPool"], ["--python.VirtualThreads"]]:
+            args = [sys.executable]
+            if sys.implementation.name == "graalpython":
+                args += ["--experimental-options", "--python.WithThread", "--python.GIL"] + options
+            out = subprocess.check_output(args + ["-c", SOCKET_GIL_TEST_PROGRAM], timeout=120)
+            self.assertEqual(out.split(), [b"pong"])
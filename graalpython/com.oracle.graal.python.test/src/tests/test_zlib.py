@@ -164,6 +164,77 @@ class CompressTests(BaseCompressTestCase, unittest.TestCase):
         compressed = zlib.compress(data, 1)
         self.assertEqual(zlib.decompress(compressed, 15, CustomInt()), data)
 
+class CompressObjectTests(unittest.TestCase):
+    def test_pair(self):
+        data = HAMLET_SCENE * 128
+        for ob in data, bytearray(data), memoryview(data):
+            co = zlib.compressobj()
+            x = co.compress(ob) + co.flush()
+            self.assertEqual(zlib.decompress(x), data)
+            dco = zlib.decompressobj()
+            self.assertEqual(dco.decompress(bytearray(x)) + dco.flush(), data)
+            self.assertTrue(dco.eof)
+
+    def test_incremental(self):
+        data = HAMLET_SCENE * 32
+        co = zlib.compressobj(9, zlib.DEFLATED, -zlib.MAX_WBITS)
+        chunks = [co.compress(data[i:i + 100]) for i in range(0, len(data), 100)]
+        chunks.append(co.flush())
+        compressed = b"".join(chunks)
+        dco = zlib.decompressobj(-zlib.MAX_WBITS)
+        result = b"".join(dco.decompress(compressed[i:i + 7]) for i in range(0, len(compressed), 7))
+        self.assertEqual(result + dco.flush(), data)
+
+    def test_sync_flush(self):
+        co = zlib.compressobj()
+        dco = zlib.decompressobj()
+        for i in range(10):
+            chunk = HAMLET_SCENE[i * 100:(i + 1) * 100]
+            # everything compressed so far can be decompressed after a sync flush
+            self.assertEqual(dco.decompress(co.compress(chunk) + co.flush(zlib.Z_SYNC_FLUSH)), chunk)
+        self.assertEqual(dco.decompress(co.flush()), b"")
+        self.assertTrue(dco.eof)
+
+    def test_max_length(self):
+        data = HAMLET_SCENE * 16
+        compressed = zlib.compress(data)
+        dco = zlib.decompressobj()
+        result = dco.decompress(compressed, 100)
+        self.assertEqual(len(result), 100)
+        while dco.unconsumed_tail:
+            chunk = dco.decompress(dco.unconsumed_tail, 100)
+            self.assertTrue(len(chunk) <= 100)
+            result += chunk
+        result += dco.flush()
+        self.assertEqual(result, data)
+        self.assertRaises(ValueError, dco.decompress, b"x", -1)
+
+    def test_unused_data(self):
+        compressed = zlib.compress(HAMLET_SCENE)
+        dco = zlib.decompressobj()
+        self.assertEqual(dco.decompress(compressed + b"trailing"), HAMLET_SCENE)
+        self.assertTrue(dco.eof)
+        self.assertEqual(dco.unused_data, b"trailing")
+        self.assertEqual(dco.unconsumed_tail, b"")
+        dco.decompress(b"more")
+        self.assertEqual(dco.unused_data, b"trailingmore")
+
+    def test_flushed(self):
+        co = zlib.compressobj()
+        co.compress(HAMLET_SCENE)
+        co.flush()
+        self.assertRaises(zlib.error, co.compress, b"abc")
+
+    def test_gzip_stream(self):
+        import gzip
+        import io
+        buf = io.BytesIO()
+        with gzip.GzipFile(fileobj=buf, mode="wb") as f:
+            for i in range(0, len(HAMLET_SCENE), 50):
+                f.write(HAMLET_SCENE[i:i + 50])
+        with gzip.GzipFile(fileobj=io.BytesIO(buf.getvalue()), mode="rb") as f:
+            self.assertEqual(f.read(), HAMLET_SCENE)
+
 HAMLET_SCENE = b"""
 LAERTES
 
@@ -45,6 +45,7 @@ import com.oracle.graal.python.builtins.modules.ArrayModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.AstModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.AtexitModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.BinasciiModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.BisectModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.BuiltinConstructors;
 import com.oracle.graal.python.builtins.modules.BuiltinFunctions;
 import com.oracle.graal.python.builtins.modules.CodecsModuleBuiltins;
@@ -57,6 +58,7 @@ import com.oracle.graal.python.builtins.modules.FcntlModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.FunctoolsModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.GcModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.GraalPythonModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.HeapqModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.IOModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.ImpModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.ItertoolsModuleBuiltins;
@@ -101,6 +103,8 @@ import com.oracle.graal.python.builtins.objects.bytes.BytesBuiltins;
 import com.oracle.graal.python.builtins.objects.cell.CellBuiltins;
 import com.oracle.graal.python.builtins.objects.code.CodeBuiltins;
 import com.oracle.graal.python.builtins.objects.complex.ComplexBuiltins;
+import com.oracle.graal.python.builtins.objects.deque.DequeBuiltins;
+import com.oracle.graal.python.builtins.objects.deque.DequeIterBuiltins;
 import com.oracle.graal.python.builtins.objects.dict.DictBuiltins;
 import com.oracle.graal.python.builtins.objects.dict.DictItemsIteratorBuiltins;
 import com.oracle.graal.python.builtins.objects.dict.DictKeysIteratorBuiltins;
@@ -120,14 +124,30 @@ import com.oracle.graal.python.builtins.objects.function.BuiltinFunctionBuiltins
 import com.oracle.graal.python.builtins.objects.function.FunctionBuiltins;
 import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.function.PBuiltinFunction;
+import com.oracle.graal.python.builtins.objects.functools.LruCacheWrapperBuiltins;
+import com.oracle.graal.python.builtins.objects.functools.PartialBuiltins;
 import com.oracle.graal.python.builtins.objects.generator.GeneratorBuiltins;
 import com.oracle.graal.python.builtins.objects.getsetdescriptor.GetSetDescriptorTypeBuiltins;
 import com.oracle.graal.python.builtins.objects.ints.IntBuiltins;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.io.BufferedIOBuiltins;
+import com.oracle.graal.python.builtins.objects.io.BufferedReaderBuiltins;
+import com.oracle.graal.python.builtins.objects.io.BufferedWriterBuiltins;
+import com.oracle.graal.python.builtins.objects.io.FileIOBuiltins;
+import com.oracle.graal.python.builtins.objects.io.TextIOWrapperBuiltins;
 import com.oracle.graal.python.builtins.objects.iterator.ForeignIteratorBuiltins;
 import com.oracle.graal.python.builtins.objects.iterator.IteratorBuiltins;
 import com.oracle.graal.python.builtins.objects.iterator.PZipBuiltins;
 import com.oracle.graal.python.builtins.objects.iterator.SentinelIteratorBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.AccumulateBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.ChainBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.CountBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.IsliceBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.PermutationsBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.ProductBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.RepeatBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.StarmapBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.TeeBuiltins;
 import com.oracle.graal.python.builtins.objects.list.ListBuiltins;
 import com.oracle.graal.python.builtins.objects.lzma.LZMACompressorBuiltins;
 import com.oracle.graal.python.builtins.objects.lzma.LZMADecompressorBuiltins;
@@ -147,10 +167,13 @@ import com.oracle.graal.python.builtins.objects.object.ObjectBuiltins;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.posix.DirEntryBuiltins;
 import com.oracle.graal.python.builtins.objects.posix.ScandirIteratorBuiltins;
+import com.oracle.graal.python.builtins.objects.queue.SimpleQueueBuiltins;
 import com.oracle.graal.python.builtins.objects.random.RandomBuiltins;
 import com.oracle.graal.python.builtins.objects.range.RangeBuiltins;
 import com.oracle.graal.python.builtins.objects.referencetype.ReferenceTypeBuiltins;
 import com.oracle.graal.python.builtins.objects.reversed.ReversedBuiltins;
+import com.oracle.graal.python.builtins.objects.select.EpollBuiltins;
+import com.oracle.graal.python.builtins.objects.select.PollBuiltins;
 import com.oracle.graal.python.builtins.objects.set.FrozenSetBuiltins;
 import com.oracle.graal.python.builtins.objects.set.SetBuiltins;
 import com.oracle.graal.python.builtins.objects.slice.SliceBuiltins;
@@ -167,6 +190,8 @@ import com.oracle.graal.python.builtins.objects.type.PythonBuiltinClass;
 import com.oracle.graal.python.builtins.objects.type.TypeBuiltins;
 import com.oracle.graal.python.builtins.objects.type.TypeNodes.GetNameNode;
 import com.oracle.graal.python.builtins.objects.zipimporter.ZipImporterBuiltins;
+import com.oracle.graal.python.builtins.objects.zlib.ZLibCompressBuiltins;
+import com.oracle.graal.python.builtins.objects.zlib.ZLibDecompressBuiltins;
 import com.oracle.graal.python.nodes.BuiltinNames;
 import com.oracle.graal.python.nodes.call.GenericInvokeNode;
 import com.oracle.graal.python.runtime.PythonContext;
@@ -243,11 +268,9 @@ public final class Python3Core implements PythonCore {
                         "_sysconfig",
                         "_socket",
                         "ctypes",
-                        "zlib",
                         "termios",
                         "zipimport",
                         "mmap",
-                        "_queue",
                         "_ast",
                         "java",
                         "pyio_patches",
@@ -256,7 +279,6 @@ public final class Python3Core implements PythonCore {
                         "_contextvars",
                         "pip_hook",
                         "_lsprof",
-                        "marshal",
                         "_lzma"));
         // must be last
         coreFiles.add("final_patches");
@@ -348,16 +370,25 @@ public final class Python3Core implements PythonCore {
                         new WeakRefModuleBuiltins(),
                         new ReferenceTypeBuiltins(),
                         new IOModuleBuiltins(),
+                        new FileIOBuiltins(),
+                        new BufferedIOBuiltins(),
+                        new BufferedReaderBuiltins(),
+                        new BufferedWriterBuiltins(),
+                        new TextIOWrapperBuiltins(),
                         new StringModuleBuiltins(),
                         new ItertoolsModuleBuiltins(),
                         new FunctoolsModuleBuiltins(),
                         new ErrnoModuleBuiltins(),
                         new CodecsModuleBuiltins(),
                         new CollectionsModuleBuiltins(),
+                        new DequeBuiltins(),
+                        new DequeIterBuiltins(),
                         new JavaModuleBuiltins(),
                         new SREModuleBuiltins(),
                         new AstModuleBuiltins(),
                         new SelectModuleBuiltins(),
+                        new PollBuiltins(),
+                        new EpollBuiltins(),
                         new SocketModuleBuiltins(),
                         new SocketBuiltins(),
                         new SignalModuleBuiltins(),
@@ -381,10 +412,26 @@ public final class Python3Core implements PythonCore {
                         new ZipImporterBuiltins(),
                         new ZipImportModuleBuiltins(),
                         new ZLibModuleBuiltins(),
+                        new ZLibCompressBuiltins(),
+                        new ZLibDecompressBuiltins(),
                         new MMapModuleBuiltins(),
                         new FcntlModuleBuiltins(),
                         new MMapBuiltins(),
                         new QueueModuleBuiltins(),
+                        new SimpleQueueBuiltins(),
+                        new PartialBuiltins(),
+                        new LruCacheWrapperBuiltins(),
+                        new RepeatBuiltins(),
+                        new CountBuiltins(),
+                        new ChainBuiltins(),
+                        new IsliceBuiltins(),
+                        new StarmapBuiltins(),
+                        new AccumulateBuiltins(),
+                        new ProductBuiltins(),
+                        new PermutationsBuiltins(),
+                        new TeeBuiltins(),
+                        new HeapqModuleBuiltins(),
+                        new BisectModuleBuiltins(),
                         new ThreadModuleBuiltins(),
                         new ThreadBuiltins(),
                         new LockBuiltins(),
@@ -118,7 +118,30 @@ public enum PythonBuiltinClassType implements LazyPythonClass {
     PDirEntry("DirEntry", "posix"),
     PLZMACompressor("LZMACompressor", "_lzma"),
     PLZMADecompressor("LZMADecompressor", "_lzma"),
+    PZLibCompress("Compress", "zlib"),
+    PZLibDecompress("Decompress", "zlib"),
     LsprofProfiler("Profiler", "_lsprof"),
+    PFileIO("FileIO", "_io"),
+    PBufferedReader("BufferedReader", "_io"),
+    PBufferedWriter("BufferedWriter", "_io"),
+    PTextIOWrapper("TextIOWrapper", "_io"),
+    PDeque("deque", "_collections"),
+    PDequeIter("_deque_iterator", "_collections"),
+    PDequeRevIter("_deque_reverse_iterator", "_collections"),
+    PPoll("poll", "select"),
+    PEpoll("epoll", "select"),
+    PSimpleQueue("SimpleQueue", "_queue"),
+    PPartial("partial", "_functools"),
+    PLruCacheWrapper("_lru_cache_wrapper", "_functools"),
+    PRepeat("repeat", "itertools"),
+    PCount("count", "itertools"),
+    PChain("chain", "itertools"),
+    PIslice("islice", "itertools"),
+    PStarmap("starmap", "itertools"),
+    PAccumulate("accumulate", "itertools"),
+    PProduct("product", "itertools"),
+    PPermutations("permutations", "itertools"),
+    PTee("_tee", "itertools"),
 
     // Errors and exceptions:
 
@@ -164,6 +187,7 @@ public enum PythonBuiltinClassType implements LazyPythonClass {
     ZipImportError("ZipImportError", "zipimport"),
     ZLibError("error", "zlib"),
     LZMAError("LZMAError", "_lzma"),
+    QueueEmpty("Empty", "_queue"),
 
     // todo: all OS errors
 
@@ -306,6 +330,7 @@ public enum PythonBuiltinClassType implements LazyPythonClass {
         ZipImportError.base = ImportError;
         ZLibError.base = Exception;
         LZMAError.base = Exception;
+        QueueEmpty.base = Exception;
 
         ReferenceError.base = Exception;
         RuntimeError.base = Exception;
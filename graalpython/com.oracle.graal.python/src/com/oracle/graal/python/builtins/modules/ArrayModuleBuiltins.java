@@ -25,7 +25,6 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
-import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
@@ -36,20 +35,18 @@ import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.array.ArrayBuiltins;
+import com.oracle.graal.python.builtins.objects.array.ArrayNodes;
 import com.oracle.graal.python.builtins.objects.array.PArray;
 import com.oracle.graal.python.builtins.objects.common.SequenceNodes;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
-import com.oracle.graal.python.builtins.objects.range.PRange;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
-import com.oracle.graal.python.nodes.control.GetIteratorExpressionNode.GetIteratorNode;
-import com.oracle.graal.python.nodes.control.GetNextNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
-import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
-import com.oracle.graal.python.nodes.util.CastToByteNode;
-import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
 import com.oracle.graal.python.runtime.sequence.PSequence;
-import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.graal.python.runtime.sequence.storage.PackedSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.PackedSequenceStorage.Format;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
@@ -70,230 +67,82 @@ public final class ArrayModuleBuiltins extends PythonBuiltins {
     abstract static class PythonArrayNode extends PythonBuiltinNode {
 
         @Specialization(guards = "isNoValue(initializer)")
-        PArray array(LazyPythonClass cls, String typeCode, @SuppressWarnings("unused") PNone initializer) {
-            /**
-             * TODO @param typeCode should be a char, not a string
-             */
-            return makeEmptyArray(cls, typeCode.charAt(0));
+        PArray array(LazyPythonClass cls, Object typeCode, @SuppressWarnings("unused") PNone initializer,
+                        @Cached CastToJavaStringNode castToJavaStringNode) {
+            Format format = getFormat(typeCode, castToJavaStringNode);
+            return factory().createArray(cls, new PackedSequenceStorage(format, 0));
         }
 
-        @Specialization
-        PArray arrayWithRangeInitializer(LazyPythonClass cls, String typeCode, PRange range) {
-            if (!typeCode.equals("i")) {
-                typeError(typeCode, range);
-            }
-
-            int[] intArray = new int[range.len()];
-
-            int start = range.getStart();
-            int stop = range.getStop();
-            int step = range.getStep();
-
-            int index = 0;
-            for (int i = start; i < stop; i += step) {
-                intArray[index++] = i;
-            }
-
-            return factory().createArray(cls, intArray);
-        }
-
-        @Specialization
-        PArray arrayWithSequenceInitializer(LazyPythonClass cls, String typeCode, String str) {
-            if (!typeCode.equals("c")) {
-                typeError(typeCode, str);
-            }
-
-            return factory().createArray(cls, str.toCharArray());
-        }
-
-        protected boolean isIntArray(String typeCode) {
-            return typeCode.charAt(0) == 'i';
-        }
-
-        protected boolean isLongArray(String typeCode) {
-            return typeCode.charAt(0) == 'l';
-        }
-
-        protected boolean isByteArray(String typeCode) {
-            return typeCode.charAt(0) == 'b';
-        }
-
-        protected boolean isCharArray(String typeCode) {
-            return typeCode.charAt(0) == 'B';
-        }
-
-        protected boolean isDoubleArray(String typeCode) {
-            return typeCode.charAt(0) == 'd';
-        }
-
-        @Specialization(guards = "isByteArray(typeCode)")
-        PArray arrayByteInitializer(VirtualFrame frame, LazyPythonClass cls, @SuppressWarnings("unused") String typeCode, PSequence initializer,
-                        @Cached("createCast()") CastToByteNode castToByteNode,
-                        @Cached("create()") GetIteratorNode getIterator,
-                        @Cached("create()") GetNextNode next,
-                        @Cached("create()") IsBuiltinClassProfile errorProfile,
-                        @Cached("create()") SequenceNodes.LenNode lenNode) {
-            Object iter = getIterator.executeWith(frame, initializer);
-            int i = 0;
-            byte[] byteArray = new byte[lenNode.execute(initializer)];
-
-            while (true) {
-                Object nextValue;
-                try {
-                    nextValue = next.execute(frame, iter);
-                } catch (PException e) {
-                    e.expectStopIteration(errorProfile);
-                    break;
-                }
-                byteArray[i++] = castToByteNode.execute(frame, nextValue);
-            }
-
-            return factory().createArray(cls, byteArray);
-        }
-
-        @Specialization(guards = "isCharArray(typeCode)")
-        PArray arrayCharInitializer(LazyPythonClass cls, @SuppressWarnings("unused") String typeCode, PSequence initializer,
+        @Specialization(guards = "isBytes(initializer)")
+        PArray arrayWithBytesInitializer(LazyPythonClass cls, Object typeCode, PSequence initializer,
+                        @Cached CastToJavaStringNode castToJavaStringNode,
                         @Cached SequenceNodes.GetSequenceStorageNode getSequenceStorageNode,
                         @Cached SequenceStorageNodes.ToByteArrayNode toByteArrayNode) {
-            byte[] byteArray = toByteArrayNode.execute(getSequenceStorageNode.execute(initializer));
-            return factory().createArray(cls, byteArray);
-        }
-
-        @Specialization(guards = "isIntArray(typeCode)")
-        PArray arrayIntInitializer(VirtualFrame frame, LazyPythonClass cls, @SuppressWarnings("unused") String typeCode, PSequence initializer,
-                        @Cached("create()") GetIteratorNode getIterator,
-                        @Cached("create()") GetNextNode next,
-                        @Cached("create()") IsBuiltinClassProfile errorProfile,
-                        @Cached("create()") SequenceNodes.LenNode lenNode) {
-            Object iter = getIterator.executeWith(frame, initializer);
-            int i = 0;
-
-            int[] intArray = new int[lenNode.execute(initializer)];
-
-            while (true) {
-                Object nextValue;
-                try {
-                    nextValue = next.execute(frame, iter);
-                } catch (PException e) {
-                    e.expectStopIteration(errorProfile);
-                    break;
-                }
-                if (nextValue instanceof Integer) {
-                    intArray[i++] = (int) nextValue;
-                } else {
-                    throw raise(ValueError, "integer argument expected, got %p", nextValue);
-                }
+            Format format = getFormat(typeCode, castToJavaStringNode);
+            byte[] bytes = toByteArrayNode.execute(getSequenceStorageNode.execute(initializer));
+            if (bytes.length % format.itemSize != 0) {
+                throw raise(ValueError, "bytes length not a multiple of item size");
             }
-
-            return factory().createArray(cls, intArray);
-        }
-
-        @Specialization(guards = "isLongArray(typeCode)")
-        PArray arrayLongInitializer(VirtualFrame frame, LazyPythonClass cls, @SuppressWarnings("unused") String typeCode, PSequence initializer,
-                        @Cached("create()") GetIteratorNode getIterator,
-                        @Cached("create()") GetNextNode next,
-                        @Cached("create()") IsBuiltinClassProfile errorProfile,
-                        @Cached("create()") SequenceNodes.LenNode lenNode) {
-            Object iter = getIterator.executeWith(frame, initializer);
-            int i = 0;
-
-            long[] longArray = new long[lenNode.execute(initializer)];
-
-            while (true) {
-                Object nextValue;
-                try {
-                    nextValue = next.execute(frame, iter);
-                } catch (PException e) {
-                    e.expectStopIteration(errorProfile);
-                    break;
-                }
-                if (nextValue instanceof Number) {
-                    longArray[i++] = longValue((Number) nextValue);
-                } else {
-                    throw raise(ValueError, "integer argument expected, got %p", nextValue);
-                }
+            // the bytes may be shared with a mutable bytearray, so they are copied
+            PackedSequenceStorage storage = new PackedSequenceStorage(format, bytes.length / format.itemSize);
+            storage.appendBytes(bytes, 0, bytes.length);
+            return factory().createArray(cls, storage);
+        }
+
+        @Specialization(guards = "isString(initializer)")
+        PArray arrayWithStringInitializer(LazyPythonClass cls, Object typeCode, Object initializer,
+                        @Cached CastToJavaStringNode castToJavaStringNode) {
+            Format format = getFormat(typeCode, castToJavaStringNode);
+            if (!format.isUnicode()) {
+                throw raise(TypeError, "cannot use a str to initialize an array with typecode '%s'", String.valueOf(format.typeCode));
             }
-
-            return factory().createArray(cls, longArray);
-        }
-
-        @Specialization(guards = "isDoubleArray(typeCode)")
-        PArray arrayDoubleInitializer(VirtualFrame frame, LazyPythonClass cls, @SuppressWarnings("unused") String typeCode, PSequence initializer,
-                        @Cached("create()") GetIteratorNode getIterator,
-                        @Cached("create()") GetNextNode next,
-                        @Cached("create()") IsBuiltinClassProfile errorProfile,
-                        @Cached("create()") SequenceNodes.LenNode lenNode) {
-            Object iter = getIterator.executeWith(frame, initializer);
-            int i = 0;
-
-            double[] doubleArray = new double[lenNode.execute(initializer)];
-
-            while (true) {
-                Object nextValue;
-                try {
-                    nextValue = next.execute(frame, iter);
-                } catch (PException e) {
-                    e.expectStopIteration(errorProfile);
-                    break;
-                }
-                if (nextValue instanceof Integer) {
-                    doubleArray[i++] = ((Integer) nextValue).doubleValue();
-                } else if (nextValue instanceof Double) {
-                    doubleArray[i++] = (double) nextValue;
-                } else {
-                    throw raise(ValueError, "double value expected");
-                }
-            }
-
-            return factory().createArray(cls, doubleArray);
+            PackedSequenceStorage storage = new PackedSequenceStorage(format, 0);
+            ArrayBuiltins.fromUnicode(storage, castToJavaStringNode.execute(initializer));
+            return factory().createArray(cls, storage);
         }
 
         @Specialization
-        @TruffleBoundary
-        PArray arrayWithObjectInitializer(@SuppressWarnings("unused") LazyPythonClass cls, @SuppressWarnings("unused") String typeCode, Object initializer) {
-            if (!(isIntArray(typeCode) || isByteArray(typeCode) || isDoubleArray(typeCode) || isCharArray(typeCode))) {
-                // TODO implement support for typecodes: b, B, u, h, H, i, I, l, L, q, Q, f or d
-                throw raise(ValueError, "bad typecode (must be i, d, b, B, or l)");
+        PArray arrayWithArrayInitializer(VirtualFrame frame, LazyPythonClass cls, Object typeCode, PArray initializer,
+                        @Cached CastToJavaStringNode castToJavaStringNode,
+                        @Cached ArrayNodes.ExtendNode extendNode) {
+            Format format = getFormat(typeCode, castToJavaStringNode);
+            PackedSequenceStorage source = initializer.getSequenceStorage();
+            if (source.getFormat() == format) {
+                return factory().createArray(cls, new PackedSequenceStorage(format, source.getBytes(), source.length()));
+            } else if (format.isUnicode() || source.getFormat().isUnicode()) {
+                throw raise(TypeError, "cannot use a unicode array to initialize an array with typecode '%s'", String.valueOf(format.typeCode));
             }
-            throw new RuntimeException("Unsupported initializer " + initializer);
+            PackedSequenceStorage storage = new PackedSequenceStorage(format, source.length());
+            extendNode.execute(frame, storage, initializer);
+            return factory().createArray(cls, storage);
         }
 
-        @Specialization(guards = "!isString(typeCode)")
-        PArray noArray(@SuppressWarnings("unused") LazyPythonClass cls, Object typeCode, @SuppressWarnings("unused") Object initializer) {
-            throw raise(TypeError, "array() argument 1 must be a unicode character, not %p", typeCode);
+        @Specialization(guards = {"!isNoValue(initializer)", "!isBytes(initializer)", "!isString(initializer)", "!isArray(initializer)"})
+        PArray arrayWithIterableInitializer(VirtualFrame frame, LazyPythonClass cls, Object typeCode, Object initializer,
+                        @Cached CastToJavaStringNode castToJavaStringNode,
+                        @Cached ArrayNodes.ExtendNode extendNode) {
+            Format format = getFormat(typeCode, castToJavaStringNode);
+            PackedSequenceStorage storage = new PackedSequenceStorage(format, 0);
+            extendNode.execute(frame, storage, initializer);
+            return factory().createArray(cls, storage);
         }
 
-        @TruffleBoundary
-        private static long longValue(Number n) {
-            return n.longValue();
+        protected static boolean isArray(Object obj) {
+            return obj instanceof PArray;
         }
 
-        private PArray makeEmptyArray(LazyPythonClass cls, char type) {
-            switch (type) {
-                case 'c':
-                case 'b':
-                    return factory().createArray(cls, new byte[0]);
-                case 'B':
-                    return factory().createArray(cls, new byte[0]);
-                case 'i':
-                    return factory().createArray(cls, new int[0]);
-                case 'd':
-                    return factory().createArray(cls, new double[0]);
-                default:
-                    return null;
+        private Format getFormat(Object typeCode, CastToJavaStringNode castToJavaStringNode) {
+            String typeCodeStr = castToJavaStringNode.execute(typeCode);
+            if (typeCodeStr == null) {
+                throw raise(TypeError, "array() argument 1 must be a unicode character, not %p", typeCode);
+            } else if (typeCodeStr.length() != 1) {
+                throw raise(TypeError, "array() argument 1 must be a unicode character, not str");
             }
-        }
-
-        protected CastToByteNode createCast() {
-            return CastToByteNode.create(val -> {
-                throw raise(OverflowError, "signed char is greater than maximum");
-            }, null);
-
-        }
-
-        @TruffleBoundary
-        private void typeError(String typeCode, Object initializer) {
-            throw raise(TypeError, "cannot use a %p to initialize an array with typecode '%s'", initializer, typeCode);
+            Format format = Format.forTypeCode(typeCodeStr.charAt(0));
+            if (format == null) {
+                throw raise(ValueError, "bad typecode (must be " + Format.TYPE_CODES + ")");
+            }
+            return format;
         }
     }
 }
@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.IndexError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.list.ListBuiltins.ListInsertNode;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallTernaryNode;
+import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
+import com.oracle.graal.python.nodes.expression.CoerceToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonQuaternaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.subscript.GetItemNode;
+import com.oracle.graal.python.runtime.PythonOptions;
+import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+import com.oracle.truffle.api.profiles.ValueProfile;
+
+/**
+ * Java implementation of the {@code bisect} module's functions. Searches in lists backed by
+ * {@code int}, {@code long}, or {@code double} storages run directly on the primitive arrays if the
+ * searched item has the matching type, all other sequences are searched using Python's {@code <}.
+ */
+@CoreFunctions(defineModule = "_bisect")
+public class BisectModuleBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return BisectModuleBuiltinsFactory.getFactories();
+    }
+
+    abstract static class BisectNode extends PythonQuaternaryBuiltinNode {
+        private final ValueProfile storageProfile = ValueProfile.createClassProfile();
+
+        @Child private PythonObjectLibrary lib;
+        @Child private SequenceStorageNodes.GetItemScalarNode getItemScalarNode;
+        @Child private GetItemNode getItemNode;
+        @Child private BinaryComparisonNode ltNode;
+        @Child private CoerceToBooleanNode castToBooleanNode;
+
+        @CompilationFinal private boolean seenNonBoolean = false;
+
+        /**
+         * Returns the index where {@code x} would be inserted into {@code a[lo:hi]}; to the right
+         * of existing equal items if {@code right} is {@code true}, to the left of them otherwise.
+         */
+        protected final int bisect(VirtualFrame frame, Object a, Object x, Object loObj, Object hiObj, boolean right) {
+            int lo = PNone.NO_VALUE == loObj ? 0 : getLibrary().asSizeWithState(loObj, PArguments.getThreadState(frame));
+            if (lo < 0) {
+                throw raise(ValueError, "lo must be non-negative");
+            }
+            int hi = PGuards.isPNone(hiObj) ? -1 : getLibrary().asSizeWithState(hiObj, PArguments.getThreadState(frame));
+            if (hi == -1) {
+                hi = getLibrary().lengthWithState(a, PArguments.getThreadState(frame));
+            }
+            if (a instanceof PList) {
+                SequenceStorage storage = storageProfile.profile(((PList) a).getSequenceStorage());
+                if (hi <= storage.length()) {
+                    if (storage instanceof IntSequenceStorage && x instanceof Integer) {
+                        return bisect(((IntSequenceStorage) storage).getInternalIntArray(), (int) x, lo, hi, right);
+                    } else if (storage instanceof LongSequenceStorage && (x instanceof Long || x instanceof Integer)) {
+                        return bisect(((LongSequenceStorage) storage).getInternalLongArray(), ((Number) x).longValue(), lo, hi, right);
+                    } else if (storage instanceof DoubleSequenceStorage && x instanceof Double) {
+                        return bisect(((DoubleSequenceStorage) storage).getInternalDoubleArray(), (double) x, lo, hi, right);
+                    }
+                    return bisectList(frame, (PList) a, x, lo, hi, right);
+                }
+            }
+            return bisectGeneric(frame, a, x, lo, hi, right);
+        }
+
+        private static int bisect(int[] a, int x, int loStart, int hiStart, boolean right) {
+            int lo = loStart;
+            int hi = hiStart;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (right ? x < a[mid] : !(a[mid] < x)) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            return lo;
+        }
+
+        private static int bisect(long[] a, long x, int loStart, int hiStart, boolean right) {
+            int lo = loStart;
+            int hi = hiStart;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (right ? x < a[mid] : !(a[mid] < x)) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            return lo;
+        }
+
+        // only '<' is used, so NaNs behave exactly like with the Python implementation
+        private static int bisect(double[] a, double x, int loStart, int hiStart, boolean right) {
+            int lo = loStart;
+            int hi = hiStart;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (right ? x < a[mid] : !(a[mid] < x)) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            return lo;
+        }
+
+        private int bisectList(VirtualFrame frame, PList a, Object x, int loStart, int hiStart, boolean right) {
+            int lo = loStart;
+            int hi = hiStart;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                // comparisons may run arbitrary code, so the list could have shrunk in the meantime
+                SequenceStorage storage = a.getSequenceStorage();
+                if (mid >= storage.length()) {
+                    throw raise(IndexError, "list index out of range");
+                }
+                Object item = getItemScalar(storage, mid);
+                if (right ? lessThan(frame, x, item) : !lessThan(frame, item, x)) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            return lo;
+        }
+
+        private int bisectGeneric(VirtualFrame frame, Object a, Object x, int loStart, int hiStart, boolean right) {
+            int lo = loStart;
+            int hi = hiStart;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                Object item = getItem(frame, a, mid);
+                if (right ? lessThan(frame, x, item) : !lessThan(frame, item, x)) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            return lo;
+        }
+
+        private PythonObjectLibrary getLibrary() {
+            if (lib == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                lib = insert(PythonObjectLibrary.getFactory().createDispatched(PythonOptions.getCallSiteInlineCacheMaxDepth()));
+            }
+            return lib;
+        }
+
+        private Object getItemScalar(SequenceStorage storage, int idx) {
+            if (getItemScalarNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                getItemScalarNode = insert(SequenceStorageNodes.GetItemScalarNode.create());
+            }
+            return getItemScalarNode.execute(storage, idx);
+        }
+
+        private Object getItem(VirtualFrame frame, Object a, int idx) {
+            if (getItemNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                getItemNode = insert(GetItemNode.create());
+            }
+            return getItemNode.execute(frame, a, idx);
+        }
+
+        private boolean lessThan(VirtualFrame frame, Object left, Object right) {
+            if (ltNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                ltNode = insert(BinaryComparisonNode.create(__LT__, __GT__, "<"));
+            }
+            if (!seenNonBoolean) {
+                try {
+                    return ltNode.executeBool(frame, left, right);
+                } catch (UnexpectedResultException e) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    seenNonBoolean = true;
+                    return getCastToBooleanNode().executeBoolean(frame, e.getResult());
+                }
+            }
+            return getCastToBooleanNode().executeBoolean(frame, ltNode.executeWith(frame, left, right));
+        }
+
+        private CoerceToBooleanNode getCastToBooleanNode() {
+            if (castToBooleanNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castToBooleanNode = insert(CoerceToBooleanNode.createIfTrueNode());
+            }
+            return castToBooleanNode;
+        }
+    }
+
+    abstract static class InsortNode extends BisectNode {
+
+        protected final Object insort(VirtualFrame frame, Object a, Object x, Object lo, Object hi, boolean right,
+                        IsBuiltinClassProfile isListProfile, ListInsertNode listInsertNode, LookupAndCallTernaryNode callInsertNode) {
+            int index = bisect(frame, a, x, lo, hi, right);
+            if (a instanceof PList && isListProfile.profileObject((PList) a, PythonBuiltinClassType.PList)) {
+                listInsertNode.execute(frame, (PList) a, index, x);
+            } else {
+                callInsertNode.execute(frame, a, index, x);
+            }
+            return PNone.NONE;
+        }
+
+        protected static LookupAndCallTernaryNode createCallInsert() {
+            return LookupAndCallTernaryNode.create("insert");
+        }
+    }
+
+    // bisect.bisect_right(a, x, lo=0, hi=len(a))
+    @Builtin(name = "bisect_right", minNumOfPositionalArgs = 2, parameterNames = {"a", "x", "lo", "hi"})
+    @GenerateNodeFactory
+    abstract static class BisectRightNode extends BisectNode {
+
+        @Specialization
+        int doBisect(VirtualFrame frame, Object a, Object x, Object lo, Object hi) {
+            return bisect(frame, a, x, lo, hi, true);
+        }
+    }
+
+    // bisect.bisect_left(a, x, lo=0, hi=len(a))
+    @Builtin(name = "bisect_left", minNumOfPositionalArgs = 2, parameterNames = {"a", "x", "lo", "hi"})
+    @GenerateNodeFactory
+    abstract static class BisectLeftNode extends BisectNode {
+
+        @Specialization
+        int doBisect(VirtualFrame frame, Object a, Object x, Object lo, Object hi) {
+            return bisect(frame, a, x, lo, hi, false);
+        }
+    }
+
+    // bisect.insort_right(a, x, lo=0, hi=len(a))
+    @Builtin(name = "insort_right", minNumOfPositionalArgs = 2, parameterNames = {"a", "x", "lo", "hi"})
+    @GenerateNodeFactory
+    abstract static class InsortRightNode extends InsortNode {
+
+        @Specialization
+        Object doInsort(VirtualFrame frame, Object a, Object x, Object lo, Object hi,
+                        @Cached IsBuiltinClassProfile isListProfile,
+                        @Cached ListInsertNode listInsertNode,
+                        @Cached("createCallInsert()") LookupAndCallTernaryNode callInsertNode) {
+            return insort(frame, a, x, lo, hi, true, isListProfile, listInsertNode, callInsertNode);
+        }
+    }
+
+    // bisect.insort_left(a, x, lo=0, hi=len(a))
+    @Builtin(name = "insort_left", minNumOfPositionalArgs = 2, parameterNames = {"a", "x", "lo", "hi"})
+    @GenerateNodeFactory
+    abstract static class InsortLeftNode extends InsortNode {
+
+        @Specialization
+        Object doInsort(VirtualFrame frame, Object a, Object x, Object lo, Object hi,
+                        @Cached IsBuiltinClassProfile isListProfile,
+                        @Cached ListInsertNode listInsertNode,
+                        @Cached("createCallInsert()") LookupAndCallTernaryNode callInsertNode) {
+            return insort(frame, a, x, lo, hi, false, isListProfile, listInsertNode, callInsertNode);
+        }
+    }
+}
@@ -82,6 +82,7 @@ import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PEllipsis;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.builtins.objects.array.PArray;
 import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
 import com.oracle.graal.python.builtins.objects.bytes.BytesUtils;
 import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
@@ -276,7 +277,13 @@ public final class BuiltinConstructors extends PythonBuiltins {
             return create(cls, (byte[]) ((ByteSequenceStorage) iterable.getSequenceStorage()).getCopyOfInternalArrayObject());
         }
 
-        @Specialization(guards = {"!lib.canBeIndex(iterable)", "!isNoValue(iterable)", "isNoValue(encoding)", "isNoValue(errors)"})
+        // arrays export their packed items, like through the buffer protocol
+        @Specialization(guards = {"isNoValue(encoding)", "isNoValue(errors)"})
+        public Object bytearray(LazyPythonClass cls, PArray array, @SuppressWarnings("unused") PNone encoding, @SuppressWarnings("unused") PNone errors) {
+            return create(cls, array.getSequenceStorage().getBytes());
+        }
+
+        @Specialization(guards = {"!lib.canBeIndex(iterable)", "!isNoValue(iterable)", "!isPArray(iterable)", "isNoValue(encoding)", "isNoValue(errors)"})
         public Object bytearray(VirtualFrame frame, LazyPythonClass cls, Object iterable, @SuppressWarnings("unused") PNone encoding, @SuppressWarnings("unused") PNone errors,
                         @Cached("create()") GetIteratorNode getIteratorNode,
                         @Cached("create()") GetNextNode getNextNode,
@@ -1321,11 +1328,9 @@ public final class BuiltinConstructors extends PythonBuiltins {
                 s = str.substring(b, e);
             }
 
-            BigInteger bi;
+            BigInteger bi = PInt.parseBigInteger(s, base);
             if (sign == '-') {
-                bi = new BigInteger("-" + s, base);
-            } else {
-                bi = new BigInteger(s, base);
+                bi = bi.negate();
             }
             return bi;
         }
@@ -1748,28 +1748,37 @@ public final class BuiltinFunctions extends PythonBuiltins {
 
         @Specialization(rewriteOn = UnexpectedResultException.class)
         public double sumDouble(VirtualFrame frame, Object arg1, @SuppressWarnings("unused") PNone start) throws UnexpectedResultException {
-            return sumDoubleInternal(frame, arg1, 0);
+            return sumDoubleInternal(frame, arg1, 0, 0);
         }
 
         @Specialization(rewriteOn = UnexpectedResultException.class)
         public double sumDouble(VirtualFrame frame, Object arg1, double start) throws UnexpectedResultException {
-            return sumDoubleInternal(frame, arg1, start);
+            return sumDoubleInternal(frame, arg1, start, start);
         }
 
-        private double sumDoubleInternal(VirtualFrame frame, Object arg1, double start) throws UnexpectedResultException {
+        /**
+         * {@code boxedStart} is the start value as the user passed it; without one, the sum starts
+         * from the int {@code 0} and only becomes a float when a float item is added.
+         */
+        private double sumDoubleInternal(VirtualFrame frame, Object arg1, double start, Object boxedStart) throws UnexpectedResultException {
             Object iterator = iter.executeWith(frame, arg1);
             double value = start;
+            boolean empty = true;
             while (true) {
                 double nextValue;
                 try {
                     nextValue = next.executeDouble(frame, iterator);
                 } catch (PException e) {
                     e.expectStopIteration(errorProfile1);
+                    if (empty && !(boxedStart instanceof Double)) {
+                        throw new UnexpectedResultException(boxedStart);
+                    }
                     return value;
                 } catch (UnexpectedResultException e) {
-                    Object newValue = add.executeObject(frame, value, e.getResult());
+                    Object newValue = add.executeObject(frame, empty ? boxedStart : value, e.getResult());
                     throw new UnexpectedResultException(iterateGeneric(frame, iterator, newValue, errorProfile2));
                 }
+                empty = false;
                 try {
                     value = add.executeDouble(frame, value, nextValue);
                 } catch (UnexpectedResultException e) {
@@ -1807,17 +1816,23 @@ public final class BuiltinFunctions extends PythonBuiltins {
         @TruffleBoundary
         String input(@SuppressWarnings("unused") PNone prompt) {
             CharBuffer buf = CharBuffer.allocate(1000);
+            PythonContext context = getContext();
             try {
-                InputStream stdin = getContext().getStandardIn();
-                int read = stdin.read();
-                while (read != -1 && read != '\n') {
-                    if (buf.remaining() == 0) {
-                        CharBuffer newBuf = CharBuffer.allocate(buf.capacity() * 2);
-                        newBuf.put(buf);
-                        buf = newBuf;
+                InputStream stdin = context.getStandardIn();
+                boolean releasedGil = context.releaseGil();
+                try {
+                    int read = stdin.read();
+                    while (read != -1 && read != '\n') {
+                        if (buf.remaining() == 0) {
+                            CharBuffer newBuf = CharBuffer.allocate(buf.capacity() * 2);
+                            newBuf.put(buf);
+                            buf = newBuf;
+                        }
+                        buf.put((char) read);
+                        read = stdin.read();
                     }
-                    buf.put((char) read);
-                    read = stdin.read();
+                } finally {
+                    context.reacquireGil(releasedGil);
                 }
                 buf.limit(buf.position());
                 buf.rewind();
@@ -49,9 +49,12 @@ import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CoderResult;
 import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -66,11 +69,14 @@ import com.oracle.graal.python.builtins.objects.bytes.PBytes;
 import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary;
-import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.GetInternalByteArrayNode;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodesFactory.GetInternalByteArrayNodeGen;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.str.Latin1CharSequence;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.str.Utf8Codec;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.expression.CoerceToBooleanNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
@@ -237,39 +243,68 @@ public class CodecsModuleBuiltins extends PythonBuiltins {
         // utf_8_sig
     }
 
+    /**
+     * Decoders and encoders must not be shared between threads, but creating one on every call
+     * shows when decoding many small pieces, so each thread keeps one per charset.
+     */
+    private static final ThreadLocal<Map<Charset, CharsetDecoder>> DECODERS = ThreadLocal.withInitial(HashMap::new);
+    private static final ThreadLocal<Map<Charset, CharsetEncoder>> ENCODERS = ThreadLocal.withInitial(HashMap::new);
+
     @TruffleBoundary
-    static Charset getCharset(String encoding) {
+    public static Charset getCharset(String encoding) {
         return CHARSET_MAP.get(encoding);
     }
 
+    /**
+     * Returns this thread's decoder for {@code charset}, reset and configured for {@code errors}.
+     * It must not escape the current call.
+     */
+    @TruffleBoundary
+    public static CharsetDecoder getDecoder(Charset charset, String errors) {
+        CodingErrorAction action = convertCodingErrorAction(errors);
+        CharsetDecoder decoder = DECODERS.get().computeIfAbsent(charset, Charset::newDecoder);
+        return decoder.reset().onMalformedInput(action).onUnmappableCharacter(action);
+    }
+
+    /**
+     * Returns this thread's encoder for {@code charset}, reset and configured for {@code errors}.
+     * It must not escape the current call.
+     */
+    @TruffleBoundary
+    public static CharsetEncoder getEncoder(Charset charset, String errors) {
+        CodingErrorAction action = convertCodingErrorAction(errors);
+        CharsetEncoder encoder = ENCODERS.get().computeIfAbsent(charset, Charset::newEncoder);
+        return encoder.reset().onMalformedInput(action).onUnmappableCharacter(action);
+    }
+
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
         return CodecsModuleBuiltinsFactory.getFactories();
     }
 
-    abstract static class EncodeBaseNode extends PythonBuiltinNode {
+    public static CodingErrorAction convertCodingErrorAction(String errors) {
+        CodingErrorAction errorAction;
+        switch (errors) {
+            // TODO: see [GR-10256] to implement the correct handling mechanics
+            case "ignore":
+            case "surrogatepass":
+                errorAction = CodingErrorAction.IGNORE;
+                break;
+            case "replace":
+            case "surrogateescape":
+            case "namereplace":
+            case "backslashreplace":
+            case "xmlcharrefreplace":
+                errorAction = CodingErrorAction.REPLACE;
+                break;
+            default:
+                errorAction = CodingErrorAction.REPORT;
+                break;
+        }
+        return errorAction;
+    }
 
-        protected static CodingErrorAction convertCodingErrorAction(String errors) {
-            CodingErrorAction errorAction;
-            switch (errors) {
-                // TODO: see [GR-10256] to implement the correct handling mechanics
-                case "ignore":
-                case "surrogatepass":
-                    errorAction = CodingErrorAction.IGNORE;
-                    break;
-                case "replace":
-                case "surrogateescape":
-                case "namereplace":
-                case "backslashreplace":
-                case "xmlcharrefreplace":
-                    errorAction = CodingErrorAction.REPLACE;
-                    break;
-                default:
-                    errorAction = CodingErrorAction.REPORT;
-                    break;
-            }
-            return errorAction;
-        }
+    abstract static class EncodeBaseNode extends PythonBuiltinNode {
     }
 
     @Builtin(name = "unicode_escape_encode", minNumOfPositionalArgs = 1, parameterNames = {"str", "errors"})
@@ -318,34 +353,48 @@ public class CodecsModuleBuiltins extends PythonBuiltins {
     @Builtin(name = "__truffle_encode", minNumOfPositionalArgs = 1, parameterNames = {"obj", "encoding", "errors"})
     @GenerateNodeFactory
     public abstract static class CodecsEncodeNode extends EncodeBaseNode {
-        @Child private SequenceStorageNodes.LenNode lenNode;
+        @Specialization(guards = {"isLatin1String(str)", "isPNone(encoding) || isString(encoding)", "isPNone(errors) || isString(errors)"})
+        Object encodeLatin1(PString str, Object encoding, Object errors,
+                        @Cached CastToJavaStringNode castToStringNode) {
+            Latin1CharSequence seq = (Latin1CharSequence) str.getCharSequence();
+            String encodingStr = PGuards.isPNone(encoding) ? "utf-8" : castToStringNode.execute(encoding);
+            Charset charset = getCharset(encodingStr);
+            if (charset == StandardCharsets.ISO_8859_1 || ((charset == StandardCharsets.US_ASCII || charset == StandardCharsets.UTF_8) && seq.isAscii())) {
+                // the compact representation already is the encoded form
+                byte[] data = seq.getBytes();
+                return factory().createTuple(new Object[]{factory().createBytes(copyOf(data)), data.length});
+            }
+            String errorsStr = PGuards.isPNone(errors) ? "strict" : castToStringNode.execute(errors);
+            PBytes bytes = encodeString(seq.materialize(), encodingStr, errorsStr);
+            return factory().createTuple(new Object[]{bytes, seq.length()});
+        }
 
         @Specialization(guards = "isString(str)")
         Object encode(Object str, @SuppressWarnings("unused") PNone encoding, @SuppressWarnings("unused") PNone errors,
                         @Cached("createClassProfile()") ValueProfile strTypeProfile) {
-            Object profiledStr = strTypeProfile.profile(str);
-            PBytes bytes = encodeString(profiledStr.toString(), "utf-8", "strict");
-            return factory().createTuple(new Object[]{bytes, getLength(bytes)});
+            String profiledStr = strTypeProfile.profile(str).toString();
+            PBytes bytes = encodeString(profiledStr, "utf-8", "strict");
+            return factory().createTuple(new Object[]{bytes, profiledStr.length()});
         }
 
         @Specialization(guards = {"isString(str)", "isString(encoding)"})
         Object encode(Object str, Object encoding, @SuppressWarnings("unused") PNone errors,
                         @Cached("createClassProfile()") ValueProfile strTypeProfile,
                         @Cached("createClassProfile()") ValueProfile encodingTypeProfile) {
-            Object profiledStr = strTypeProfile.profile(str);
+            String profiledStr = strTypeProfile.profile(str).toString();
             Object profiledEncoding = encodingTypeProfile.profile(encoding);
-            PBytes bytes = encodeString(profiledStr.toString(), profiledEncoding.toString(), "strict");
-            return factory().createTuple(new Object[]{bytes, getLength(bytes)});
+            PBytes bytes = encodeString(profiledStr, profiledEncoding.toString(), "strict");
+            return factory().createTuple(new Object[]{bytes, profiledStr.length()});
         }
 
         @Specialization(guards = {"isString(str)", "isString(errors)"})
         Object encode(Object str, @SuppressWarnings("unused") PNone encoding, Object errors,
                         @Cached("createClassProfile()") ValueProfile strTypeProfile,
                         @Cached("createClassProfile()") ValueProfile errorsTypeProfile) {
-            Object profiledStr = strTypeProfile.profile(str);
+            String profiledStr = strTypeProfile.profile(str).toString();
             Object profiledErrors = errorsTypeProfile.profile(errors);
-            PBytes bytes = encodeString(profiledStr.toString(), "utf-8", profiledErrors.toString());
-            return factory().createTuple(new Object[]{bytes, getLength(bytes)});
+            PBytes bytes = encodeString(profiledStr, "utf-8", profiledErrors.toString());
+            return factory().createTuple(new Object[]{bytes, profiledStr.length()});
         }
 
         @Specialization(guards = {"isString(str)", "isString(encoding)", "isString(errors)"})
@@ -353,11 +402,11 @@ public class CodecsModuleBuiltins extends PythonBuiltins {
                         @Cached("createClassProfile()") ValueProfile strTypeProfile,
                         @Cached("createClassProfile()") ValueProfile encodingTypeProfile,
                         @Cached("createClassProfile()") ValueProfile errorsTypeProfile) {
-            Object profiledStr = strTypeProfile.profile(str);
+            String profiledStr = strTypeProfile.profile(str).toString();
             Object profiledEncoding = encodingTypeProfile.profile(encoding);
             Object profiledErrors = errorsTypeProfile.profile(errors);
-            PBytes bytes = encodeString(profiledStr.toString(), profiledEncoding.toString(), profiledErrors.toString());
-            return factory().createTuple(new Object[]{bytes, getLength(bytes)});
+            PBytes bytes = encodeString(profiledStr, profiledEncoding.toString(), profiledErrors.toString());
+            return factory().createTuple(new Object[]{bytes, profiledStr.length()});
         }
 
         @Fallback
@@ -367,13 +416,19 @@ public class CodecsModuleBuiltins extends PythonBuiltins {
 
         @TruffleBoundary
         private PBytes encodeString(String self, String encoding, String errors) {
-            CodingErrorAction errorAction = convertCodingErrorAction(errors);
             Charset charset = getCharset(encoding);
             if (charset == null) {
                 throw raise(LookupError, "unknown encoding: %s", encoding);
             }
+            if (charset == StandardCharsets.UTF_8) {
+                byte[] utf8 = Utf8Codec.encode(self);
+                if (utf8 != null) {
+                    return factory().createBytes(utf8);
+                }
+                // lone surrogates are left to the encoder's error handling
+            }
             try {
-                ByteBuffer encoded = charset.newEncoder().onMalformedInput(errorAction).onUnmappableCharacter(errorAction).encode(CharBuffer.wrap(self));
+                ByteBuffer encoded = getEncoder(charset, errors).encode(CharBuffer.wrap(self));
                 int n = encoded.remaining();
                 byte[] data = new byte[n];
                 encoded.get(data);
@@ -383,12 +438,9 @@ public class CodecsModuleBuiltins extends PythonBuiltins {
             }
         }
 
-        private int getLength(PBytes b) {
-            if (lenNode == null) {
-                CompilerDirectives.transferToInterpreterAndInvalidate();
-                lenNode = insert(SequenceStorageNodes.LenNode.create());
-            }
-            return lenNode.execute(b.getSequenceStorage());
+        @TruffleBoundary(allowInlining = true)
+        private static byte[] copyOf(byte[] data) {
+            return Arrays.copyOf(data, data.length);
         }
     }
 
@@ -454,30 +506,22 @@ public class CodecsModuleBuiltins extends PythonBuiltins {
 
         @Specialization
         Object decode(VirtualFrame frame, PIBytesLike bytes, @SuppressWarnings("unused") PNone encoding, @SuppressWarnings("unused") PNone errors, Object finalData) {
-            ByteBuffer decoded = getBytes(bytes);
-            String string = decodeBytes(decoded, "utf-8", "strict", castToBoolean(frame, finalData));
-            return factory().createTuple(new Object[]{string, decoded.position()});
+            return doDecode(bytes, "utf-8", "strict", castToBoolean(frame, finalData));
         }
 
         @Specialization(guards = {"isString(encoding)"})
         Object decode(VirtualFrame frame, PIBytesLike bytes, Object encoding, @SuppressWarnings("unused") PNone errors, Object finalData) {
-            ByteBuffer decoded = getBytes(bytes);
-            String string = decodeBytes(decoded, castToString(encoding), "strict", castToBoolean(frame, finalData));
-            return factory().createTuple(new Object[]{string, decoded.position()});
+            return doDecode(bytes, castToString(encoding), "strict", castToBoolean(frame, finalData));
         }
 
         @Specialization(guards = {"isString(errors)"})
         Object decode(VirtualFrame frame, PIBytesLike bytes, @SuppressWarnings("unused") PNone encoding, Object errors, Object finalData) {
-            ByteBuffer decoded = getBytes(bytes);
-            String string = decodeBytes(decoded, "utf-8", castToString(errors), castToBoolean(frame, finalData));
-            return factory().createTuple(new Object[]{string, decoded.position()});
+            return doDecode(bytes, "utf-8", castToString(errors), castToBoolean(frame, finalData));
         }
 
         @Specialization(guards = {"isString(encoding)", "isString(errors)"})
         Object decode(VirtualFrame frame, PIBytesLike bytes, Object encoding, Object errors, Object finalData) {
-            ByteBuffer decoded = getBytes(bytes);
-            String string = decodeBytes(decoded, castToString(encoding), castToString(errors), castToBoolean(frame, finalData));
-            return factory().createTuple(new Object[]{string, decoded.position()});
+            return doDecode(bytes, castToString(encoding), castToString(errors), castToBoolean(frame, finalData));
         }
 
         @Fallback
@@ -485,32 +529,63 @@ public class CodecsModuleBuiltins extends PythonBuiltins {
             throw raise(TypeError, "a bytes-like object is required, not '%p'", bytes);
         }
 
+        private Object doDecode(PIBytesLike bytes, String encoding, String errors, boolean finalData) {
+            byte[] data = getByteArray(bytes);
+            int len = bytes.getSequenceStorage().length();
+            Charset charset = getCharset(encoding);
+            if (charset == StandardCharsets.ISO_8859_1 || charset == StandardCharsets.US_ASCII || charset == StandardCharsets.UTF_8) {
+                // every byte of Latin-1 input, and of ASCII-only input in the other encodings,
+                // decodes to exactly one character, so we can keep the bytes as they are
+                if (charset == StandardCharsets.ISO_8859_1 || Latin1CharSequence.isAscii(data, len)) {
+                    PString string = factory().createString(new Latin1CharSequence(copyOf(data, len)));
+                    return factory().createTuple(new Object[]{string, len});
+                }
+                if (charset == StandardCharsets.UTF_8) {
+                    // a truncated sequence at the end is left for the next call unless this is
+                    // the final piece
+                    int complete = finalData ? len : Utf8Codec.completeLength(data, 0, len);
+                    String string = Utf8Codec.decode(data, 0, complete);
+                    if (string != null) {
+                        return factory().createTuple(new Object[]{string, complete});
+                    }
+                    // malformed input is left to the decoder's error handling
+                }
+            }
+            ByteBuffer decoded = wrap(data, len);
+            String string = decodeBytes(decoded, encoding, errors, finalData);
+            return factory().createTuple(new Object[]{string, decoded.position()});
+        }
+
+        @TruffleBoundary(allowInlining = true)
+        private static byte[] copyOf(byte[] data, int len) {
+            return Arrays.copyOf(data, len);
+        }
+
         @TruffleBoundary
-        private static ByteBuffer wrap(byte[] bytes) {
-            return ByteBuffer.wrap(bytes);
+        private static ByteBuffer wrap(byte[] bytes, int len) {
+            return ByteBuffer.wrap(bytes, 0, len);
         }
 
         @TruffleBoundary
         String decodeBytes(ByteBuffer byteBuffer, String encoding, String errors, boolean finalData) {
-            CodingErrorAction errorAction = convertCodingErrorAction(errors);
             Charset charset = getCharset(encoding);
             if (charset == null) {
                 throw raise(LookupError, "unknown encoding: %s", encoding);
             }
-            CharBuffer decoded = CharBuffer.allocate(byteBuffer.capacity());
-            CoderResult result = charset.newDecoder().onMalformedInput(errorAction).onUnmappableCharacter(errorAction).decode(byteBuffer, decoded, finalData);
+            CharBuffer decoded = CharBuffer.allocate(byteBuffer.remaining());
+            CoderResult result = getDecoder(charset, errors).decode(byteBuffer, decoded, finalData);
             if (result.isError()) {
                 throw raise(UnicodeDecodeError, result.toString());
             }
             return String.valueOf(decoded.flip());
         }
 
-        private ByteBuffer getBytes(PIBytesLike bytesLike) {
+        private byte[] getByteArray(PIBytesLike bytesLike) {
             if (toByteArrayNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
                 toByteArrayNode = insert(GetInternalByteArrayNodeGen.create());
             }
-            return wrap(toByteArrayNode.execute(bytesLike.getSequenceStorage()));
+            return toByteArrayNode.execute(bytesLike.getSequenceStorage());
         }
 
         private String castToString(Object encodingObj) {
@@ -40,18 +40,80 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
-import java.util.ArrayList;
 import java.util.List;
 
+import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.deque.PDeque;
+import com.oracle.graal.python.builtins.objects.deque.PDequeIter;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.library.CachedLibrary;
 
 @CoreFunctions(defineModule = "_collections")
 public class CollectionsModuleBuiltins extends PythonBuiltins {
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
-        return new ArrayList<>();
+        return CollectionsModuleBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = "deque", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PDeque)
+    @GenerateNodeFactory
+    abstract static class DequeNode extends PythonBuiltinNode {
+        @Specialization
+        PDeque create(LazyPythonClass cls, @SuppressWarnings("unused") Object[] args, @SuppressWarnings("unused") PKeyword[] kwargs) {
+            return factory().createDeque(cls);
+        }
+    }
+
+    @Builtin(name = "_deque_iterator", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 3, constructsClass = PythonBuiltinClassType.PDequeIter)
+    @GenerateNodeFactory
+    abstract static class DequeIterNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PDequeIter create(LazyPythonClass cls, PDeque deque, Object index,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib) {
+            PDequeIter iterator = factory().createDequeIter(cls, deque);
+            if (!PGuards.isNoValue(index)) {
+                iterator.skip(lib.asSize(index));
+            }
+            return iterator;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        Object createOther(Object cls, Object deque, Object index) {
+            throw raise(PythonBuiltinClassType.TypeError, "expected a deque, not %p", deque);
+        }
+    }
+
+    @Builtin(name = "_deque_reverse_iterator", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 3, constructsClass = PythonBuiltinClassType.PDequeRevIter)
+    @GenerateNodeFactory
+    abstract static class DequeRevIterNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PDequeIter create(LazyPythonClass cls, PDeque deque, Object index,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib) {
+            PDequeIter iterator = factory().createDequeRevIter(cls, deque);
+            if (!PGuards.isNoValue(index)) {
+                iterator.skip(lib.asSize(index));
+            }
+            return iterator;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        Object createOther(Object cls, Object deque, Object index) {
+            throw raise(PythonBuiltinClassType.TypeError, "expected a deque, not %p", deque);
+        }
     }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -40,18 +40,139 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
-import java.util.ArrayList;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__CALL__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
 import java.util.List;
 
+import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.functools.PLruCacheWrapper;
+import com.oracle.graal.python.builtins.objects.functools.PPartial;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.attributes.LookupInheritedAttributeNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.control.GetIteratorExpressionNode.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
 
 @CoreFunctions(defineModule = "_functools")
 public class FunctoolsModuleBuiltins extends PythonBuiltins {
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
-        return new ArrayList<>();
+        return FunctoolsModuleBuiltinsFactory.getFactories();
+    }
+
+    static boolean isCallable(Object object, LookupInheritedAttributeNode lookupCallNode) {
+        return PGuards.isCallable(object) || lookupCallNode.execute(object) != PNone.NO_VALUE;
+    }
+
+    // reduce(function, sequence[, initial])
+    @Builtin(name = "reduce", minNumOfPositionalArgs = 2, parameterNames = {"function", "sequence", "initial"})
+    @GenerateNodeFactory
+    public abstract static class ReduceNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        Object reduce(VirtualFrame frame, Object function, Object sequence, Object initial,
+                        @Cached GetIteratorNode getIteratorNode,
+                        @Cached GetNextNode nextNode,
+                        @Cached CallNode callNode,
+                        @Cached IsBuiltinClassProfile typeErrorProfile,
+                        @Cached IsBuiltinClassProfile stopIterationProfile) {
+            Object iterator;
+            try {
+                iterator = getIteratorNode.executeWith(frame, sequence);
+            } catch (PException e) {
+                e.expect(TypeError, typeErrorProfile);
+                throw raise(TypeError, "reduce() arg 2 must support iteration");
+            }
+            Object result = initial == PNone.NO_VALUE ? null : initial;
+            while (true) {
+                Object item;
+                try {
+                    item = nextNode.execute(frame, iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(stopIterationProfile);
+                    break;
+                }
+                if (result == null) {
+                    result = item;
+                } else {
+                    result = callNode.execute(frame, function, result, item);
+                }
+            }
+            if (result == null) {
+                throw raise(TypeError, "reduce() of empty sequence with no initial value");
+            }
+            return result;
+        }
+    }
+
+    // partial(func, *args, **keywords)
+    @Builtin(name = "partial", minNumOfPositionalArgs = 2, parameterNames = {"$cls", "func"}, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PPartial)
+    @GenerateNodeFactory
+    public abstract static class PartialNode extends PythonBuiltinNode {
+        @Specialization
+        PPartial create(LazyPythonClass cls, Object function, Object[] arguments, PKeyword[] keywords,
+                        @Cached("create(__CALL__)") LookupInheritedAttributeNode lookupCallNode,
+                        @CachedLibrary(limit = "1") HashingStorageLibrary storageLib) {
+            if (!isCallable(function, lookupCallNode)) {
+                throw raise(TypeError, "the first argument must be callable");
+            }
+            if (function instanceof PPartial && ((PPartial) function).isExactPartial() && PPartial.isPartialClass(cls)) {
+                // partial(partial(f, a), b) is flattened to partial(f, a, b)
+                PPartial inner = (PPartial) function;
+                HashingStorage mergedKeywords = storageLib.copy(inner.getKeywords().getDictStorage());
+                for (PKeyword keyword : keywords) {
+                    mergedKeywords = storageLib.setItem(mergedKeywords, keyword.getName(), keyword.getValue());
+                }
+                return factory().createPartial(cls, inner.getFunction(), inner.bindArguments(arguments), factory().createDict(mergedKeywords));
+            }
+            return factory().createPartial(cls, function, arguments, factory().createDict(keywords));
+        }
+    }
+
+    // _lru_cache_wrapper(user_function, maxsize, typed, cache_info_type)
+    @Builtin(name = "_lru_cache_wrapper", minNumOfPositionalArgs = 5, parameterNames = {"$cls", "user_function", "maxsize", "typed", "cache_info_type"}, constructsClass = PythonBuiltinClassType.PLruCacheWrapper)
+    @GenerateNodeFactory
+    public abstract static class LruCacheWrapperNode extends PythonBuiltinNode {
+        @Specialization(limit = "3")
+        PLruCacheWrapper create(LazyPythonClass cls, Object function, Object maxSizeObject, Object typed, Object cacheInfoType,
+                        @Cached("create(__CALL__)") LookupInheritedAttributeNode lookupCallNode,
+                        @CachedLibrary("maxSizeObject") PythonObjectLibrary maxSizeLib,
+                        @CachedLibrary("typed") PythonObjectLibrary typedLib) {
+            if (!isCallable(function, lookupCallNode)) {
+                throw raise(TypeError, "the first argument must be callable");
+            }
+            int maxSize;
+            int kind;
+            if (maxSizeObject == PNone.NONE) {
+                maxSize = -1;
+                kind = PLruCacheWrapper.INFINITE;
+            } else if (maxSizeLib.canBeIndex(maxSizeObject)) {
+                maxSize = Math.max(maxSizeLib.asSize(maxSizeObject), 0);
+                kind = maxSize == 0 ? PLruCacheWrapper.UNCACHED : PLruCacheWrapper.BOUNDED;
+            } else {
+                throw raise(TypeError, "maxsize should be integer or None");
+            }
+            return factory().createLruCacheWrapper(cls, function, maxSizeObject, maxSize, kind, typedLib.isTrue(typed), cacheInfoType, factory().createPythonObject(PythonBuiltinClassType.PythonObject));
+        }
     }
 }
@@ -43,6 +43,7 @@ package com.oracle.graal.python.builtins.modules;
 import static com.oracle.graal.python.nodes.SpecialAttributeNames.__NAME__;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.ImportError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.NotImplementedError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
 
 import java.io.PrintWriter;
 import java.util.List;
@@ -54,6 +55,7 @@ import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.cext.HandleCache;
 import com.oracle.graal.python.builtins.objects.code.PCode;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
 import com.oracle.graal.python.builtins.objects.function.PFunction;
@@ -63,6 +65,8 @@ import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.method.PMethod;
 import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
+import com.oracle.graal.python.builtins.objects.thread.AbstractQueuedPythonLock;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.BuiltinNames;
 import com.oracle.graal.python.nodes.argument.ReadIndexedArgumentNode;
 import com.oracle.graal.python.nodes.argument.ReadVarArgsNode;
@@ -441,4 +445,40 @@ public class GraalPythonModuleBuiltins extends PythonBuiltins {
             return toolPath.toString();
         }
     }
+
+    /**
+     * Returns the contention statistics of a {@code _thread.lock} or {@code _thread.RLock} as a
+     * tuple {@code (acquisitions, contended_acquisitions, wait_time_ns)}.
+     */
+    @Builtin(name = "lock_stats", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class LockStatsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTuple doLock(AbstractQueuedPythonLock lock) {
+            return factory().createTuple(new Object[]{lock.getAcquisitions(), lock.getContendedAcquisitions(), lock.getWaitNanos()});
+        }
+
+        @Fallback
+        Object doOther(Object object) {
+            throw raise(TypeError, "expected a lock, not '%p'", object);
+        }
+    }
+
+    /**
+     * Returns {@code (slots, hits, misses, evictions)} of the C API handle cache, or {@code None}
+     * if the C API is not loaded or {@code --python.CAPIHandleCacheStatistics} is not set.
+     */
+    @Builtin(name = "capi_handle_cache_stats", minNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    public abstract static class CApiHandleCacheStatsNode extends PythonBuiltinNode {
+        @Specialization
+        @TruffleBoundary
+        Object doIt() {
+            HandleCache cache = getContext().getCApiHandleCache();
+            if (cache == null || !cache.isCollectingStatistics()) {
+                return PNone.NONE;
+            }
+            return factory().createTuple(new Object[]{cache.getTableSize(), cache.getHits(), cache.getMisses(), cache.getEvictions()});
+        }
+    }
 }
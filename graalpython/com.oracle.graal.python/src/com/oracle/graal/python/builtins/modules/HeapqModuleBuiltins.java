@@ -0,0 +1,550 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.IndexError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.RuntimeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.IndexNodes.NormalizeIndexNode;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.ListGeneralizationNode;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.nodes.builtins.ListNodes.AppendNode;
+import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
+import com.oracle.graal.python.nodes.expression.CoerceToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+import com.oracle.truffle.api.profiles.ValueProfile;
+
+/**
+ * Java implementation of the heap operations of the {@code heapq} module. Like CPython's
+ * {@code _heapq}, the functions only work on lists. Lists backed by {@code int}, {@code long}, or
+ * {@code double} storages are sifted directly on the primitive arrays, everything else is compared
+ * with Python's {@code <}.
+ */
+@CoreFunctions(defineModule = "_heapq")
+public class HeapqModuleBuiltins extends PythonBuiltins {
+
+    private static final String HEAP_MUST_BE_LIST = "heap argument must be a list";
+    private static final String INDEX_OUT_OF_RANGE = "index out of range";
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return HeapqModuleBuiltinsFactory.getFactories();
+    }
+
+    abstract static class HeapNode extends PythonBuiltinNode {
+        private final ValueProfile storageProfile = ValueProfile.createClassProfile();
+
+        @Child private SequenceStorageNodes.GetItemScalarNode getItemNode;
+        @Child private SequenceStorageNodes.SetItemScalarNode setItemNode;
+        @Child private SequenceStorageNodes.SetItemNode setItemGeneralizingNode;
+        @Child private BinaryComparisonNode ltNode;
+        @Child private CoerceToBooleanNode castToBooleanNode;
+
+        @CompilationFinal private boolean seenNonBoolean = false;
+
+        protected final Object pop(VirtualFrame frame, PList heap, boolean max) {
+            SequenceStorage storage = heap.getSequenceStorage();
+            int len = storage.length();
+            if (len == 0) {
+                throw raise(IndexError, INDEX_OUT_OF_RANGE);
+            }
+            Object lastElt = getItem(storage, len - 1);
+            storage.setNewLength(len - 1);
+            if (len == 1) {
+                return lastElt;
+            }
+            // the last element came from the same storage, so no generalization is needed
+            Object returnItem = getItem(storage, 0);
+            getSetItemNode().execute(storage, 0, lastElt);
+            siftUp(frame, heap, 0, max);
+            return returnItem;
+        }
+
+        protected final Object replace(VirtualFrame frame, PList heap, Object item, boolean max) {
+            SequenceStorage storage = heap.getSequenceStorage();
+            if (storage.length() == 0) {
+                throw raise(IndexError, INDEX_OUT_OF_RANGE);
+            }
+            Object returnItem = getItem(storage, 0);
+            setItemGeneralizing(frame, heap, item);
+            siftUp(frame, heap, 0, max);
+            return returnItem;
+        }
+
+        protected final void heapify(VirtualFrame frame, PList heap, boolean max) {
+            int len = heap.getSequenceStorage().length();
+            // only the parents need to be sifted, starting with the last one
+            for (int i = len / 2 - 1; i >= 0; i--) {
+                siftUp(frame, heap, i, max);
+            }
+        }
+
+        private Object getItem(SequenceStorage storage, int idx) {
+            if (getItemNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                getItemNode = insert(SequenceStorageNodes.GetItemScalarNode.create());
+            }
+            return getItemNode.execute(storage, idx);
+        }
+
+        private SequenceStorageNodes.SetItemScalarNode getSetItemNode() {
+            if (setItemNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                setItemNode = insert(SequenceStorageNodes.SetItemScalarNode.create());
+            }
+            return setItemNode;
+        }
+
+        /**
+         * Stores {@code item} as the new root of the heap, generalizing the list's storage if
+         * necessary.
+         */
+        protected final void setItemGeneralizing(VirtualFrame frame, PList heap, Object item) {
+            if (setItemGeneralizingNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                setItemGeneralizingNode = insert(SequenceStorageNodes.SetItemNode.create(NormalizeIndexNode.forListAssign(), () -> ListGeneralizationNode.create()));
+            }
+            SequenceStorage storage = heap.getSequenceStorage();
+            SequenceStorage newStorage = setItemGeneralizingNode.executeInt(frame, storage, 0, item);
+            if (newStorage != storage) {
+                heap.setSequenceStorage(newStorage);
+            }
+        }
+
+        /**
+         * Moves the item at {@code pos} up towards {@code startPos} until its parent is not
+         * greater; {@code heapq._siftdown} in CPython.
+         */
+        protected final void siftDown(VirtualFrame frame, PList heap, int startPos, int pos, boolean max) {
+            SequenceStorage storage = storageProfile.profile(heap.getSequenceStorage());
+            if (storage instanceof IntSequenceStorage) {
+                siftDown(((IntSequenceStorage) storage).getInternalIntArray(), startPos, pos, max);
+            } else if (storage instanceof LongSequenceStorage) {
+                siftDown(((LongSequenceStorage) storage).getInternalLongArray(), startPos, pos, max);
+            } else if (storage instanceof DoubleSequenceStorage) {
+                siftDown(((DoubleSequenceStorage) storage).getInternalDoubleArray(), startPos, pos, max);
+            } else {
+                siftDownGeneric(frame, heap, startPos, pos, max);
+            }
+        }
+
+        /**
+         * Moves the smaller (or, for max-heaps, the larger) child of {@code pos} up until a leaf is
+         * reached and then puts the original item there and sifts it down; {@code heapq._siftup}
+         * in CPython.
+         */
+        protected final void siftUp(VirtualFrame frame, PList heap, int pos, boolean max) {
+            SequenceStorage storage = storageProfile.profile(heap.getSequenceStorage());
+            if (storage instanceof IntSequenceStorage) {
+                siftUp(((IntSequenceStorage) storage).getInternalIntArray(), storage.length(), pos, max);
+            } else if (storage instanceof LongSequenceStorage) {
+                siftUp(((LongSequenceStorage) storage).getInternalLongArray(), storage.length(), pos, max);
+            } else if (storage instanceof DoubleSequenceStorage) {
+                siftUp(((DoubleSequenceStorage) storage).getInternalDoubleArray(), storage.length(), pos, max);
+            } else {
+                siftUpGeneric(frame, heap, pos, max);
+            }
+        }
+
+        private static void siftDown(int[] heap, int startPos, int startAt, boolean max) {
+            int pos = startAt;
+            int newItem = heap[pos];
+            while (pos > startPos) {
+                int parentPos = (pos - 1) >> 1;
+                int parent = heap[parentPos];
+                if (max ? parent < newItem : newItem < parent) {
+                    heap[pos] = parent;
+                    pos = parentPos;
+                } else {
+                    break;
+                }
+            }
+            heap[pos] = newItem;
+        }
+
+        private static void siftUp(int[] heap, int endPos, int startAt, boolean max) {
+            int pos = startAt;
+            int newItem = heap[pos];
+            int childPos = 2 * pos + 1;
+            while (childPos < endPos) {
+                int rightPos = childPos + 1;
+                if (rightPos < endPos && !(max ? heap[rightPos] < heap[childPos] : heap[childPos] < heap[rightPos])) {
+                    childPos = rightPos;
+                }
+                heap[pos] = heap[childPos];
+                pos = childPos;
+                childPos = 2 * pos + 1;
+            }
+            heap[pos] = newItem;
+            siftDown(heap, startAt, pos, max);
+        }
+
+        private static void siftDown(long[] heap, int startPos, int startAt, boolean max) {
+            int pos = startAt;
+            long newItem = heap[pos];
+            while (pos > startPos) {
+                int parentPos = (pos - 1) >> 1;
+                long parent = heap[parentPos];
+                if (max ? parent < newItem : newItem < parent) {
+                    heap[pos] = parent;
+                    pos = parentPos;
+                } else {
+                    break;
+                }
+            }
+            heap[pos] = newItem;
+        }
+
+        private static void siftUp(long[] heap, int endPos, int startAt, boolean max) {
+            int pos = startAt;
+            long newItem = heap[pos];
+            int childPos = 2 * pos + 1;
+            while (childPos < endPos) {
+                int rightPos = childPos + 1;
+                if (rightPos < endPos && !(max ? heap[rightPos] < heap[childPos] : heap[childPos] < heap[rightPos])) {
+                    childPos = rightPos;
+                }
+                heap[pos] = heap[childPos];
+                pos = childPos;
+                childPos = 2 * pos + 1;
+            }
+            heap[pos] = newItem;
+            siftDown(heap, startAt, pos, max);
+        }
+
+        // only '<' is used, so NaNs behave exactly like with the Python implementation
+        private static void siftDown(double[] heap, int startPos, int startAt, boolean max) {
+            int pos = startAt;
+            double newItem = heap[pos];
+            while (pos > startPos) {
+                int parentPos = (pos - 1) >> 1;
+                double parent = heap[parentPos];
+                if (max ? parent < newItem : newItem < parent) {
+                    heap[pos] = parent;
+                    pos = parentPos;
+                } else {
+                    break;
+                }
+            }
+            heap[pos] = newItem;
+        }
+
+        private static void siftUp(double[] heap, int endPos, int startAt, boolean max) {
+            int pos = startAt;
+            double newItem = heap[pos];
+            int childPos = 2 * pos + 1;
+            while (childPos < endPos) {
+                int rightPos = childPos + 1;
+                if (rightPos < endPos && !(max ? heap[rightPos] < heap[childPos] : heap[childPos] < heap[rightPos])) {
+                    childPos = rightPos;
+                }
+                heap[pos] = heap[childPos];
+                pos = childPos;
+                childPos = 2 * pos + 1;
+            }
+            heap[pos] = newItem;
+            siftDown(heap, startAt, pos, max);
+        }
+
+        /*
+         * The generic variants follow CPython's _heapqmodule.c: items are swapped instead of
+         * moved, so that the list stays consistent if a comparison raises, and the list must not
+         * change its size while a comparison runs.
+         */
+
+        private void siftDownGeneric(VirtualFrame frame, PList heap, int startPos, int startAt, boolean max) {
+            int pos = startAt;
+            SequenceStorage storage = heap.getSequenceStorage();
+            int size = storage.length();
+            while (pos > startPos) {
+                int parentPos = (pos - 1) >> 1;
+                Object newItem = getItem(storage, pos);
+                Object parent = getItem(storage, parentPos);
+                boolean lt = max ? lessThan(frame, parent, newItem) : lessThan(frame, newItem, parent);
+                storage = checkSize(heap, size);
+                if (!lt) {
+                    break;
+                }
+                swap(storage, parentPos, pos);
+                pos = parentPos;
+            }
+        }
+
+        private void siftUpGeneric(VirtualFrame frame, PList heap, int startAt, boolean max) {
+            int pos = startAt;
+            SequenceStorage storage = heap.getSequenceStorage();
+            int endPos = storage.length();
+            int limit = endPos >> 1;
+            while (pos < limit) {
+                int childPos = 2 * pos + 1;
+                if (childPos + 1 < endPos) {
+                    Object left = getItem(storage, childPos);
+                    Object right = getItem(storage, childPos + 1);
+                    boolean lt = max ? lessThan(frame, right, left) : lessThan(frame, left, right);
+                    storage = checkSize(heap, endPos);
+                    if (!lt) {
+                        childPos++;
+                    }
+                }
+                swap(storage, childPos, pos);
+                pos = childPos;
+            }
+            siftDownGeneric(frame, heap, startAt, pos, max);
+        }
+
+        private SequenceStorage checkSize(PList heap, int expectedSize) {
+            SequenceStorage storage = heap.getSequenceStorage();
+            if (storage.length() != expectedSize) {
+                throw raise(RuntimeError, "list changed size during iteration");
+            }
+            return storage;
+        }
+
+        private void swap(SequenceStorage storage, int i, int j) {
+            Object a = getItem(storage, i);
+            Object b = getItem(storage, j);
+            getSetItemNode().execute(storage, i, b);
+            getSetItemNode().execute(storage, j, a);
+        }
+
+        protected final boolean lessThan(VirtualFrame frame, Object left, Object right) {
+            if (ltNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                ltNode = insert(BinaryComparisonNode.create(__LT__, __GT__, "<"));
+            }
+            if (!seenNonBoolean) {
+                try {
+                    return ltNode.executeBool(frame, left, right);
+                } catch (UnexpectedResultException e) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    seenNonBoolean = true;
+                    return getCastToBooleanNode().executeBoolean(frame, e.getResult());
+                }
+            }
+            return getCastToBooleanNode().executeBoolean(frame, ltNode.executeWith(frame, left, right));
+        }
+
+        private CoerceToBooleanNode getCastToBooleanNode() {
+            if (castToBooleanNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castToBooleanNode = insert(CoerceToBooleanNode.createIfTrueNode());
+            }
+            return castToBooleanNode;
+        }
+    }
+
+    // heapq.heappush(heap, item)
+    @Builtin(name = "heappush", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class HeapPushNode extends HeapNode {
+
+        @Specialization
+        Object doList(VirtualFrame frame, PList heap, Object item,
+                        @Cached AppendNode appendNode) {
+            appendNode.execute(heap, item);
+            siftDown(frame, heap, 0, heap.getSequenceStorage().length() - 1, false);
+            return PNone.NONE;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        Object doError(Object heap, Object item) {
+            throw raise(TypeError, HEAP_MUST_BE_LIST);
+        }
+    }
+
+    // heapq.heappop(heap)
+    @Builtin(name = "heappop", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HeapPopNode extends HeapNode {
+
+        @Specialization
+        Object doList(VirtualFrame frame, PList heap) {
+            return pop(frame, heap, false);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        Object doError(Object heap) {
+            throw raise(TypeError, HEAP_MUST_BE_LIST);
+        }
+    }
+
+    // heapq._heappop_max(heap)
+    @Builtin(name = "_heappop_max", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HeapPopMaxNode extends HeapNode {
+
+        @Specialization
+        Object doList(VirtualFrame frame, PList heap) {
+            return pop(frame, heap, true);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        Object doError(Object heap) {
+            throw raise(TypeError, HEAP_MUST_BE_LIST);
+        }
+    }
+
+    // heapq.heapreplace(heap, item)
+    @Builtin(name = "heapreplace", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class HeapReplaceNode extends HeapNode {
+
+        @Specialization
+        Object doList(VirtualFrame frame, PList heap, Object item) {
+            return replace(frame, heap, item, false);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        Object doError(Object heap, Object item) {
+            throw raise(TypeError, HEAP_MUST_BE_LIST);
+        }
+    }
+
+    // heapq._heapreplace_max(heap, item)
+    @Builtin(name = "_heapreplace_max", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class HeapReplaceMaxNode extends HeapNode {
+
+        @Specialization
+        Object doList(VirtualFrame frame, PList heap, Object item) {
+            return replace(frame, heap, item, true);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        Object doError(Object heap, Object item) {
+            throw raise(TypeError, HEAP_MUST_BE_LIST);
+        }
+    }
+
+    // heapq.heappushpop(heap, item)
+    @Builtin(name = "heappushpop", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class HeapPushPopNode extends HeapNode {
+
+        @Specialization
+        Object doList(VirtualFrame frame, PList heap, Object item,
+                        @Cached SequenceStorageNodes.GetItemScalarNode getItemNode) {
+            SequenceStorage storage = heap.getSequenceStorage();
+            if (storage.length() == 0 || !lessThan(frame, getItemNode.execute(storage, 0), item)) {
+                return item;
+            }
+            storage = heap.getSequenceStorage();
+            if (storage.length() == 0) {
+                throw raise(IndexError, INDEX_OUT_OF_RANGE);
+            }
+            Object returnItem = getItemNode.execute(storage, 0);
+            setItemGeneralizing(frame, heap, item);
+            siftUp(frame, heap, 0, false);
+            return returnItem;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        Object doError(Object heap, Object item) {
+            throw raise(TypeError, HEAP_MUST_BE_LIST);
+        }
+    }
+
+    // heapq.heapify(x)
+    @Builtin(name = "heapify", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HeapifyNode extends HeapNode {
+
+        @Specialization
+        Object doList(VirtualFrame frame, PList heap) {
+            heapify(frame, heap, false);
+            return PNone.NONE;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        Object doError(Object heap) {
+            throw raise(TypeError, HEAP_MUST_BE_LIST);
+        }
+    }
+
+    // heapq._heapify_max(x)
+    @Builtin(name = "_heapify_max", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HeapifyMaxNode extends HeapNode {
+
+        @Specialization
+        Object doList(VirtualFrame frame, PList heap) {
+            heapify(frame, heap, true);
+            return PNone.NONE;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        Object doError(Object heap) {
+            throw raise(TypeError, HEAP_MUST_BE_LIST);
+        }
+    }
+}
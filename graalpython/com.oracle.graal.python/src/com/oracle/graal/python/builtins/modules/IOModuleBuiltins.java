@@ -40,18 +40,73 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
-import java.util.ArrayList;
 import java.util.List;
 
+import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.io.PBuffered;
+import com.oracle.graal.python.builtins.objects.io.PFileIO;
+import com.oracle.graal.python.builtins.objects.io.PTextIO;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
 
 @CoreFunctions(defineModule = "_io")
 public class IOModuleBuiltins extends PythonBuiltins {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
-        return new ArrayList<>();
+        return IOModuleBuiltinsFactory.getFactories();
+    }
+
+    @Override
+    public void initialize(PythonCore core) {
+        super.initialize(core);
+        builtinConstants.put("DEFAULT_BUFFER_SIZE", DEFAULT_BUFFER_SIZE);
+    }
+
+    @Builtin(name = "FileIO", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PFileIO)
+    @GenerateNodeFactory
+    abstract static class FileIONode extends PythonBuiltinNode {
+        @Specialization
+        PFileIO create(LazyPythonClass cls, @SuppressWarnings("unused") Object[] args, @SuppressWarnings("unused") PKeyword[] kwargs) {
+            return factory().createFileIO(cls);
+        }
+    }
+
+    @Builtin(name = "BufferedReader", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PBufferedReader)
+    @GenerateNodeFactory
+    abstract static class BufferedReaderNode extends PythonBuiltinNode {
+        @Specialization
+        PBuffered create(LazyPythonClass cls, @SuppressWarnings("unused") Object[] args, @SuppressWarnings("unused") PKeyword[] kwargs) {
+            return factory().createBuffered(cls);
+        }
+    }
+
+    @Builtin(name = "BufferedWriter", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PBufferedWriter)
+    @GenerateNodeFactory
+    abstract static class BufferedWriterNode extends PythonBuiltinNode {
+        @Specialization
+        PBuffered create(LazyPythonClass cls, @SuppressWarnings("unused") Object[] args, @SuppressWarnings("unused") PKeyword[] kwargs) {
+            return factory().createBuffered(cls);
+        }
+    }
+
+    @Builtin(name = "TextIOWrapper", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PTextIOWrapper)
+    @GenerateNodeFactory
+    abstract static class TextIOWrapperNode extends PythonBuiltinNode {
+        @Specialization
+        PTextIO create(LazyPythonClass cls, @SuppressWarnings("unused") Object[] args, @SuppressWarnings("unused") PKeyword[] kwargs) {
+            return factory().createTextIO(cls);
+        }
     }
 }
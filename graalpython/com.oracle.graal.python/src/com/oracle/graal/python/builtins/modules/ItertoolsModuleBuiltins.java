@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, 2018, Oracle and/or its affiliates.
+ * Copyright (c) 2017, 2020, Oracle and/or its affiliates.
  * Copyright (c) 2013, Regents of the University of California
  *
  * All rights reserved.
@@ -25,19 +25,48 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
-import static com.oracle.graal.python.runtime.exception.PythonErrorType.NotImplementedError;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__FLOAT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.SequenceNodes.GetObjectArrayNode;
+import com.oracle.graal.python.builtins.objects.itertools.PAccumulate;
+import com.oracle.graal.python.builtins.objects.itertools.PChain;
+import com.oracle.graal.python.builtins.objects.itertools.PCount;
+import com.oracle.graal.python.builtins.objects.itertools.PIslice;
+import com.oracle.graal.python.builtins.objects.itertools.PPermutations;
+import com.oracle.graal.python.builtins.objects.itertools.PProduct;
+import com.oracle.graal.python.builtins.objects.itertools.PRepeat;
+import com.oracle.graal.python.builtins.objects.itertools.PStarmap;
+import com.oracle.graal.python.builtins.objects.itertools.PTee;
+import com.oracle.graal.python.builtins.objects.itertools.PTeeDataObject;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.attributes.LookupInheritedAttributeNode;
+import com.oracle.graal.python.nodes.builtins.TupleNodes.ConstructTupleNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.control.GetIteratorExpressionNode.GetIteratorNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonQuaternaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToJavaIntNode;
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
 
 @CoreFunctions(defineModule = "itertools")
 public final class ItertoolsModuleBuiltins extends PythonBuiltins {
@@ -47,15 +76,236 @@ public final class ItertoolsModuleBuiltins extends PythonBuiltins {
         return ItertoolsModuleBuiltinsFactory.getFactories();
     }
 
-    // tee(iterable, n=2)
-    @Builtin(name = "tee", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    // repeat(object[, times])
+    @Builtin(name = "repeat", minNumOfPositionalArgs = 2, parameterNames = {"$cls", "object", "times"}, constructsClass = PythonBuiltinClassType.PRepeat)
+    @GenerateNodeFactory
+    public abstract static class RepeatNode extends PythonTernaryBuiltinNode {
+        @Specialization(guards = "isNoValue(times)")
+        PRepeat repeat(LazyPythonClass cls, Object object, @SuppressWarnings("unused") PNone times) {
+            return factory().createRepeat(cls, object, -1);
+        }
+
+        @Specialization(guards = "!isNoValue(times)", limit = "1")
+        PRepeat repeat(LazyPythonClass cls, Object object, Object times,
+                        @CachedLibrary("times") PythonObjectLibrary lib) {
+            if (!lib.canBeIndex(times)) {
+                throw raise(TypeError, "integer argument expected, got %p", times);
+            }
+            return factory().createRepeat(cls, object, Math.max(lib.asSize(times, null), 0));
+        }
+    }
+
+    // count(start=0, step=1)
+    @Builtin(name = "count", minNumOfPositionalArgs = 1, parameterNames = {"$cls", "start", "step"}, constructsClass = PythonBuiltinClassType.PCount)
     @GenerateNodeFactory
-    public abstract static class TeeNode extends PythonBuiltinNode {
-        @SuppressWarnings("unused")
-        @Specialization(guards = "isNoValue(n)")
-        Object tee(Object iterable, PNone n) {
-            throw raise(NotImplementedError, "tee");
+    public abstract static class CountNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PCount count(LazyPythonClass cls, Object start, Object step,
+                        @Cached("create(__FLOAT__)") LookupInheritedAttributeNode lookupFloatNode,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib) {
+            Object counter = start == PNone.NO_VALUE ? 0 : start;
+            Object increment = step == PNone.NO_VALUE ? 1 : step;
+            if (!isNumber(counter, lib, lookupFloatNode) || !isNumber(increment, lib, lookupFloatNode)) {
+                throw raise(TypeError, "a number is required");
+            }
+            return factory().createCount(cls, counter, increment);
+        }
+
+        private static boolean isNumber(Object object, PythonObjectLibrary lib, LookupInheritedAttributeNode lookupFloatNode) {
+            return lib.canBeIndex(object) || lookupFloatNode.execute(object) != PNone.NO_VALUE;
         }
     }
 
+    // chain(*iterables)
+    @Builtin(name = "chain", minNumOfPositionalArgs = 1, parameterNames = {"$cls"}, takesVarArgs = true, constructsClass = PythonBuiltinClassType.PChain)
+    @GenerateNodeFactory
+    public abstract static class ChainNode extends PythonBuiltinNode {
+        @Specialization
+        PChain chain(VirtualFrame frame, LazyPythonClass cls, Object[] iterables,
+                        @Cached GetIteratorNode getIteratorNode) {
+            return factory().createChain(cls, getIteratorNode.executeWith(frame, factory().createTuple(iterables)));
+        }
+    }
+
+    // islice(iterable, stop)
+    // islice(iterable, start, stop[, step])
+    @Builtin(name = "islice", minNumOfPositionalArgs = 2, parameterNames = {"$cls", "iterable"}, takesVarArgs = true, constructsClass = PythonBuiltinClassType.PIslice)
+    @GenerateNodeFactory
+    public abstract static class IsliceNode extends PythonBuiltinNode {
+        private static final String STOP_ERROR = "Stop argument for islice() must be None or an integer: 0 <= x <= sys.maxsize.";
+        private static final String INDEX_ERROR = "Indices for islice() must be None or an integer: 0 <= x <= sys.maxsize.";
+        private static final String STEP_ERROR = "Step for islice() must be a positive integer or None.";
+
+        @Specialization
+        PIslice islice(VirtualFrame frame, LazyPythonClass cls, Object iterable, Object[] args,
+                        @Cached GetIteratorNode getIteratorNode,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary lib) {
+            if (args.length == 0) {
+                throw raise(TypeError, "islice expected at least 2 arguments, got 1");
+            } else if (args.length > 3) {
+                throw raise(TypeError, "islice expected at most 4 arguments, got %d", args.length + 1);
+            }
+            int start = 0;
+            int stop;
+            int step = 1;
+            if (args.length == 1) {
+                stop = toIndex(args[0], -1, 0, STOP_ERROR, lib);
+            } else {
+                start = toIndex(args[0], 0, 0, INDEX_ERROR, lib);
+                stop = toIndex(args[1], -1, 0, STOP_ERROR, lib);
+                if (args.length == 3) {
+                    step = toIndex(args[2], 1, 1, STEP_ERROR, lib);
+                }
+            }
+            return factory().createIslice(cls, getIteratorNode.executeWith(frame, iterable), start, stop, step);
+        }
+
+        private int toIndex(Object value, int noneValue, int min, String message, PythonObjectLibrary lib) {
+            if (value == PNone.NONE) {
+                return noneValue;
+            }
+            if (lib.canBeIndex(value)) {
+                int index = lib.asSize(value, null);
+                if (index >= min) {
+                    return index;
+                }
+            }
+            throw raise(ValueError, message);
+        }
+    }
+
+    // starmap(function, iterable)
+    @Builtin(name = "starmap", minNumOfPositionalArgs = 3, parameterNames = {"$cls", "function", "iterable"}, constructsClass = PythonBuiltinClassType.PStarmap)
+    @GenerateNodeFactory
+    public abstract static class StarmapNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PStarmap starmap(VirtualFrame frame, LazyPythonClass cls, Object function, Object iterable,
+                        @Cached GetIteratorNode getIteratorNode) {
+            return factory().createStarmap(cls, function, getIteratorNode.executeWith(frame, iterable));
+        }
+    }
+
+    // accumulate(iterable[, func, *, initial=None])
+    @Builtin(name = "accumulate", minNumOfPositionalArgs = 2, parameterNames = {"$cls", "iterable", "func"}, varArgsMarker = true, keywordOnlyNames = {"initial"}, constructsClass = PythonBuiltinClassType.PAccumulate)
+    @GenerateNodeFactory
+    public abstract static class AccumulateNode extends PythonQuaternaryBuiltinNode {
+        @Specialization
+        PAccumulate accumulate(VirtualFrame frame, LazyPythonClass cls, Object iterable, Object func, Object initial,
+                        @Cached GetIteratorNode getIteratorNode) {
+            Object function = PGuards.isPNone(func) ? null : func;
+            Object initialValue = PGuards.isPNone(initial) ? null : initial;
+            return factory().createAccumulate(cls, getIteratorNode.executeWith(frame, iterable), function, initialValue);
+        }
+    }
+
+    // product(*iterables, repeat=1)
+    @Builtin(name = "product", minNumOfPositionalArgs = 1, parameterNames = {"$cls"}, takesVarArgs = true, keywordOnlyNames = {"repeat"}, constructsClass = PythonBuiltinClassType.PProduct)
+    @GenerateNodeFactory
+    public abstract static class ProductNode extends PythonBuiltinNode {
+        @Specialization
+        PProduct product(VirtualFrame frame, LazyPythonClass cls, Object[] iterables, Object repeat,
+                        @Cached ConstructTupleNode constructTupleNode,
+                        @Cached GetObjectArrayNode getObjectArrayNode,
+                        @Cached CastToJavaIntNode castToIntNode) {
+            int repeatCount = 1;
+            if (repeat != PNone.NO_VALUE) {
+                repeatCount = castToIntNode.execute(repeat);
+                if (repeatCount < 0) {
+                    throw raise(ValueError, "repeat argument cannot be negative");
+                }
+            }
+            Object[][] pools = new Object[iterables.length][];
+            for (int i = 0; i < iterables.length; i++) {
+                pools[i] = getObjectArrayNode.execute(constructTupleNode.execute(frame, iterables[i]));
+            }
+            Object[][] gears = new Object[pools.length * repeatCount][];
+            for (int i = 0; i < repeatCount; i++) {
+                System.arraycopy(pools, 0, gears, i * pools.length, pools.length);
+            }
+            return factory().createProduct(cls, gears);
+        }
+    }
+
+    // permutations(iterable, r=None)
+    @Builtin(name = "permutations", minNumOfPositionalArgs = 2, parameterNames = {"$cls", "iterable", "r"}, constructsClass = PythonBuiltinClassType.PPermutations)
+    @GenerateNodeFactory
+    public abstract static class PermutationsNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PPermutations permutations(VirtualFrame frame, LazyPythonClass cls, Object iterable, Object r,
+                        @Cached ConstructTupleNode constructTupleNode,
+                        @Cached GetObjectArrayNode getObjectArrayNode,
+                        @Cached CastToJavaIntNode castToIntNode) {
+            Object[] pool = getObjectArrayNode.execute(constructTupleNode.execute(frame, iterable));
+            int length = pool.length;
+            if (!PGuards.isPNone(r)) {
+                length = castToIntNode.execute(r);
+                if (length < 0) {
+                    throw raise(ValueError, "r must be non-negative");
+                }
+            }
+            return factory().createPermutations(cls, pool, length);
+        }
+    }
+
+    // _tee(iterable)
+    @Builtin(name = "_tee", minNumOfPositionalArgs = 2, parameterNames = {"$cls", "iterable"}, constructsClass = PythonBuiltinClassType.PTee)
+    @GenerateNodeFactory
+    public abstract static class TeeTypeNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PTee tee(VirtualFrame frame, LazyPythonClass cls, Object iterable,
+                        @Cached GetIteratorNode getIteratorNode) {
+            Object iterator = getIteratorNode.executeWith(frame, iterable);
+            if (iterator instanceof PTee) {
+                PTee tee = (PTee) iterator;
+                return factory().createTee(cls, tee.getData(), tee.getIndex());
+            }
+            return factory().createTee(cls, new PTeeDataObject(iterator), 0);
+        }
+    }
+
+    // tee(iterable, n=2)
+    @Builtin(name = "tee", minNumOfPositionalArgs = 1, parameterNames = {"iterable", "n"})
+    @GenerateNodeFactory
+    public abstract static class TeeNode extends PythonBinaryBuiltinNode {
+        static final String COPY = "__copy__";
+
+        @Specialization
+        PTuple tee(VirtualFrame frame, Object iterable, Object n,
+                        @Cached CastToJavaIntNode castToIntNode,
+                        @Cached GetIteratorNode getIteratorNode,
+                        @Cached("create(COPY)") LookupInheritedAttributeNode lookupCopyNode,
+                        @Cached CallNode callNode) {
+            int count = n == PNone.NO_VALUE ? 2 : castToIntNode.execute(n);
+            if (count < 0) {
+                throw raise(ValueError, "n must be >= 0");
+            }
+            Object[] result = new Object[count];
+            if (count == 0) {
+                return factory().createTuple(result);
+            }
+            Object iterator = getIteratorNode.executeWith(frame, iterable);
+            if (iterator instanceof PTee) {
+                // copying a tee object shares its buffer, like calling its __copy__
+                PTee tee = (PTee) iterator;
+                result[0] = tee;
+                for (int i = 1; i < count; i++) {
+                    result[i] = factory().createTee(PythonBuiltinClassType.PTee, tee.getData(), tee.getIndex());
+                }
+                return factory().createTuple(result);
+            }
+            Object copyMethod = lookupCopyNode.execute(iterator);
+            if (copyMethod == PNone.NO_VALUE) {
+                PTeeDataObject data = new PTeeDataObject(iterator);
+                for (int i = 0; i < count; i++) {
+                    result[i] = factory().createTee(PythonBuiltinClassType.PTee, data, 0);
+                }
+            } else {
+                result[0] = iterator;
+                for (int i = 1; i < count; i++) {
+                    result[i] = callNode.execute(frame, copyMethod, iterator);
+                }
+            }
+            return factory().createTuple(result);
+        }
+    }
 }
@@ -40,8 +40,6 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -49,26 +47,19 @@ import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.modules.Profiler.ProfilerEntry;
+import com.oracle.graal.python.builtins.modules.Profiler.ProfilerSubEntry;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.list.PList;
-import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.graal.python.nodes.SpecialMethodNames;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
-import com.oracle.truffle.api.InstrumentInfo;
-import com.oracle.truffle.api.TruffleLanguage.Env;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
-import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
-import com.oracle.truffle.api.source.SourceSection;
-import com.oracle.truffle.tools.profiler.CPUSampler;
-import com.oracle.truffle.tools.profiler.CPUSampler.Payload;
-import com.oracle.truffle.tools.profiler.ProfilerNode;
-import com.oracle.truffle.tools.profiler.impl.CPUSamplerInstrument;
 
 @CoreFunctions(defineModule = "_lsprof")
 public class LsprofModuleBuiltins extends PythonBuiltins {
@@ -85,39 +76,15 @@ public class LsprofModuleBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class LsprofNew extends PythonBuiltinNode {
         @Specialization
-        @TruffleBoundary
         Profiler doit(LazyPythonClass cls, @SuppressWarnings("unused") Object[] args, @SuppressWarnings("unused") PKeyword[] kwargs) {
-            Env env = getContext().getEnv();
-            Map<String, InstrumentInfo> instruments = env.getInstruments();
-            InstrumentInfo instrumentInfo = instruments.get(CPUSamplerInstrument.ID);
-            if (instrumentInfo != null) {
-                CPUSampler sampler = env.lookup(instrumentInfo, CPUSampler.class);
-                if (sampler != null) {
-                    return factory().trace(new Profiler(cls, sampler));
-                }
+            if (!getContext().isTraceHooksAvailable()) {
+                throw raise(PythonBuiltinClassType.NotImplementedError, "profiler not available");
             }
-            throw raise(PythonBuiltinClassType.NotImplementedError, "coverage tracker not available");
+            return factory().trace(new Profiler(cls));
         }
     }
 }
 
-class Profiler extends PythonBuiltinObject {
-    boolean subcalls;
-    boolean builtins;
-    double timeunit;
-    Object externalTimer;
-    double time;
-    final CPUSampler sampler;
-
-    public Profiler(LazyPythonClass cls, CPUSampler sampler) {
-        super(cls);
-        this.sampler = sampler;
-        this.sampler.setFilter(SourceSectionFilter.newBuilder().includeInternal(true).build());
-        this.sampler.setMode(CPUSampler.Mode.ROOTS);
-        this.sampler.setPeriod(1);
-    }
-}
-
 @CoreFunctions(extendClasses = PythonBuiltinClassType.LsprofProfiler)
 class ProfilerBuiltins extends PythonBuiltins {
     @Override
@@ -133,7 +100,7 @@ class ProfilerBuiltins extends PythonBuiltins {
             self.subcalls = subcalls > 0;
             self.builtins = builtins > 0;
             self.timeunit = timeunit;
-            self.externalTimer = timer;
+            self.externalTimer = timer instanceof PNone ? null : timer;
             return PNone.NONE;
         }
 
@@ -142,8 +109,8 @@ class ProfilerBuiltins extends PythonBuiltins {
         PNone doit(Profiler self, Object timer, PNone timeunit, PNone subcalls, PNone builtins) {
             self.subcalls = true;
             self.builtins = true;
-            self.timeunit = -1;
-            self.externalTimer = timer;
+            self.timeunit = 0;
+            self.externalTimer = timer instanceof PNone ? null : timer;
             return PNone.NONE;
         }
     }
@@ -152,13 +119,11 @@ class ProfilerBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class Enable extends PythonBuiltinNode {
         @Specialization
-        @TruffleBoundary
         PNone doit(Profiler self, long subcalls, long builtins) {
             self.subcalls = subcalls > 0;
             self.builtins = builtins > 0;
-            // TODO: deal with any arguments
-            self.time = System.currentTimeMillis();
-            self.sampler.setCollecting(true);
+            // only Python functions report calls, so 'builtins' has no effect
+            getContext().setProfileFunction(self);
             return PNone.NONE;
         }
 
@@ -182,10 +147,10 @@ class ProfilerBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class Disable extends PythonBuiltinNode {
         @Specialization
-        @TruffleBoundary
         PNone doit(Profiler self) {
-            self.sampler.setCollecting(false);
-            self.time = (System.currentTimeMillis() - self.time) / 1000D;
+            // like CPython, this removes any profile function of the current thread
+            getContext().setProfileFunction(null);
+            self.flushUnmatched();
             return PNone.NONE;
         }
     }
@@ -194,9 +159,8 @@ class ProfilerBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class Clear extends PythonBuiltinNode {
         @Specialization
-        @TruffleBoundary
         PNone doit(Profiler self) {
-            self.sampler.clearData();
+            self.clear();
             return PNone.NONE;
         }
     }
@@ -228,52 +192,48 @@ class ProfilerBuiltins extends PythonBuiltins {
         @Specialization
         @TruffleBoundary
         PList doit(Profiler self) {
-            double avgSampleSeconds = self.sampler.getPeriod() / 1000D;
-            List<PList> entries = new ArrayList<>();
-            for (ProfilerNode<Payload> node : self.sampler.getRootNodes()) {
-                countNode(entries, node, avgSampleSeconds);
+            double tickSeconds = self.getTickSeconds();
+            List<ProfilerEntry> entries = self.getEntries();
+            Object[] result = new Object[entries.size()];
+            for (int i = 0; i < result.length; i++) {
+                ProfilerEntry entry = entries.get(i);
+                Object calls = PNone.NONE;
+                if (self.subcalls) {
+                    Object[] subentries = new Object[entry.calls.size()];
+                    int callIdx = 0;
+                    for (Map.Entry<ProfilerEntry, ProfilerSubEntry> call : entry.calls.entrySet()) {
+                        subentries[callIdx++] = factory().createList(getProfilerEntry(getCode(call.getKey()), call.getValue(), tickSeconds));
+                    }
+                    calls = factory().createList(subentries);
+                }
+                Object[] profilerEntry = getProfilerEntry(getCode(entry), entry, tickSeconds);
+                Object[] withCalls = new Object[profilerEntry.length + 1];
+                System.arraycopy(profilerEntry, 0, withCalls, 0, profilerEntry.length);
+                withCalls[profilerEntry.length] = calls;
+                result[i] = factory().createList(withCalls);
             }
-            self.sampler.close();
-            return factory().createList(entries.toArray());
+            return factory().createList(result);
         }
 
-        private void countNode(List<PList> entries, ProfilerNode<Payload> node, double avgSampleTime) {
-            Collection<ProfilerNode<Payload>> children = node.getChildren();
-            Object[] profilerEntry = getProfilerEntry(node, avgSampleTime);
-            Object[] calls = new Object[children.size()];
-            int callIdx = 0;
-            for (ProfilerNode<Payload> childNode : children) {
-                countNode(entries, childNode, avgSampleTime);
-                calls[callIdx++] = factory().createList(getProfilerEntry(childNode, avgSampleTime));
+        /**
+         * The entries and sub-entries of a code object share one code object, since
+         * {@code cProfile} matches them by identity.
+         */
+        private Object getCode(ProfilerEntry entry) {
+            if (entry.code == null) {
+                entry.code = factory().createCode(entry.root.getCallTarget());
             }
-            assert callIdx == calls.length;
-            profilerEntry[profilerEntry.length - 1] = factory().createList(calls);
-            entries.add(factory().createList(profilerEntry));
+            return entry.code;
         }
 
-        private static Object[] getProfilerEntry(ProfilerNode<Payload> node, double avgSampleTime) {
-            SourceSection sec = node.getSourceSection();
-            String rootName;
-            if (sec == null) {
-                rootName = node.getRootName();
-            } else {
-                rootName = sec.getSource().getName() + ":" + sec.getStartLine() + "(" + node.getRootName() + ")";
-            }
-            if (rootName == null) {
-                rootName = "<unknown root>";
-            }
-            int otherHitCount = node.getPayload().getHitCount();
-            int selfHitCount = node.getPayload().getSelfHitCount();
-            long hitCount = (long) otherHitCount + selfHitCount;
-            Object[] profilerEntry = new Object[]{
-                            rootName,
-                            hitCount,
-                            0,
-                            otherHitCount * avgSampleTime,
-                            selfHitCount * avgSampleTime,
-                            PNone.NONE
+        private static Object[] getProfilerEntry(Object code, ProfilerSubEntry entry, double tickSeconds) {
+            return new Object[]{
+                            code,
+                            entry.callCount,
+                            entry.recursiveCallCount,
+                            entry.totalTime * tickSeconds,
+                            entry.inlineTime * tickSeconds
             };
-            return profilerEntry;
         }
     }
 }
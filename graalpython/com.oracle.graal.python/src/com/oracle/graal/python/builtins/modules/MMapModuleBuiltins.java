@@ -45,6 +45,8 @@ import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.StandardOpenOption;
 import java.util.HashSet;
@@ -100,7 +102,7 @@ public class MMapModuleBuiltins extends PythonBuiltins {
         PMMap doAnonymous(LazyPythonClass clazz, @SuppressWarnings("unused") long fd, int length, @SuppressWarnings("unused") Object tagname, @SuppressWarnings("unused") PNone access,
                         @SuppressWarnings("unused") PNone offset) {
             checkLength(length);
-            return factory().createMMap(clazz, new AnonymousMap(length), length, 0);
+            return factory().createMMap(clazz, allocate(length), null, false, 0);
         }
 
         @Specialization(guards = {"fd >= 0", "isNoValue(access)", "isNoValue(offset)"})
@@ -115,8 +117,16 @@ public class MMapModuleBuiltins extends PythonBuiltins {
 
         // mmap(fileno, length, tagname=None, access=ACCESS_DEFAULT[, offset])
         @Specialization(guards = "fd >= 0")
-        PMMap doFile(LazyPythonClass clazz, long fd, int length, @SuppressWarnings("unused") Object tagname, @SuppressWarnings("unused") int access, long offset) {
+        PMMap doFile(LazyPythonClass clazz, long fd, int length, @SuppressWarnings("unused") Object tagname, int access, long offset) {
             checkLength(length);
+            if (offset < 0) {
+                invalidLengthProfile.enter();
+                throw raise(PythonBuiltinClassType.OverflowError, "memory mapped offset must be positive");
+            }
+            if (access < ACCESS_DEFAULT || access > ACCESS_COPY) {
+                invalidLengthProfile.enter();
+                throw raise(ValueError, "mmap invalid access parameter.");
+            }
             int ifd;
             try {
                 ifd = PInt.intValueExact(fd);
@@ -127,16 +137,60 @@ public class MMapModuleBuiltins extends PythonBuiltins {
             String path = getContext().getResources().getFilePath(ifd);
             TruffleFile truffleFile = getContext().getEnv().getPublicTruffleFile(path);
 
-            // TODO(fa) correctly honor access flags
-            Set<StandardOpenOption> options = set(StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Set<StandardOpenOption> options;
+            if (access == ACCESS_READ || access == ACCESS_COPY) {
+                options = set(StandardOpenOption.READ);
+            } else {
+                options = set(StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
 
-            // we create a new channel otherwise we cannot guarantee that the cursor is exclusive
-            SeekableByteChannel fileChannel;
+            // we create a new channel such that closing the map does not affect the file object
+            SeekableByteChannel fileChannel = null;
             try {
                 fileChannel = truffleFile.newByteChannel(options);
-                position(fileChannel, offset);
-                return factory().createMMap(clazz, fileChannel, length, offset);
+                long fileSize = size(fileChannel);
+                long mapSize = length;
+                if (length == 0) {
+                    if (offset >= fileSize) {
+                        closeQuietly(fileChannel);
+                        throw raise(ValueError, "mmap offset is greater than file size");
+                    }
+                    mapSize = fileSize - offset;
+                    if (mapSize > Integer.MAX_VALUE) {
+                        closeQuietly(fileChannel);
+                        throw raise(PythonBuiltinClassType.OverflowError, "memory mapped length must be less than 2 GB");
+                    }
+                } else if (offset > fileSize || fileSize - offset < length) {
+                    closeQuietly(fileChannel);
+                    throw raise(ValueError, "mmap length is greater than file size");
+                }
+                if (fileChannel instanceof FileChannel) {
+                    FileChannel ch = (FileChannel) fileChannel;
+                    ByteBuffer buffer = map(ch, getMapMode(access), offset, (int) mapSize);
+                    if (access == ACCESS_COPY) {
+                        // a private mapping does not need the channel anymore
+                        close(ch);
+                        ch = null;
+                    }
+                    return factory().createMMap(clazz, buffer, ch, true, offset);
+                } else {
+                    // the file system does not support mapping; operate on a copy that writable
+                    // maps write back through the channel
+                    ByteBuffer buffer = readFully(fileChannel, offset, (int) mapSize);
+                    SeekableByteChannel ch = fileChannel;
+                    if (access == ACCESS_READ || access == ACCESS_COPY) {
+                        close(ch);
+                        ch = null;
+                    }
+                    if (access == ACCESS_READ) {
+                        buffer = asReadOnly(buffer);
+                    }
+                    return factory().createMMap(clazz, buffer, ch, false, offset);
+                }
             } catch (IOException e) {
+                if (fileChannel != null) {
+                    closeQuietly(fileChannel);
+                }
                 throw raise(ValueError, "cannot mmap file");
             }
         }
@@ -171,63 +225,60 @@ public class MMapModuleBuiltins extends PythonBuiltins {
             }
         }
 
-        @TruffleBoundary
-        private static void position(SeekableByteChannel ch, long offset) throws IOException {
-            ch.position(offset);
-        }
-    }
-
-    private static class AnonymousMap implements SeekableByteChannel {
-        private final byte[] data;
-
-        private boolean open = true;
-        private int cur;
-
-        public AnonymousMap(int cap) {
-            this.data = new byte[cap];
-        }
-
-        public boolean isOpen() {
-            return open;
+        private static MapMode getMapMode(int access) {
+            switch (access) {
+                case ACCESS_READ:
+                    return MapMode.READ_ONLY;
+                case ACCESS_COPY:
+                    return MapMode.PRIVATE;
+                default:
+                    return MapMode.READ_WRITE;
+            }
         }
 
-        public void close() throws IOException {
-            open = false;
+        @TruffleBoundary
+        private static ByteBuffer allocate(int length) {
+            return ByteBuffer.allocateDirect(length);
         }
 
-        public int read(ByteBuffer dst) throws IOException {
-            int nread = Math.min(dst.remaining(), data.length - cur);
-            dst.put(data, cur, nread);
-            return nread;
+        @TruffleBoundary
+        private static ByteBuffer map(FileChannel ch, MapMode mode, long offset, int length) throws IOException {
+            return ch.map(mode, offset, length);
         }
 
-        public int write(ByteBuffer src) throws IOException {
-            int nwrite = Math.min(src.remaining(), data.length - cur);
-            src.get(data, cur, nwrite);
-            return nwrite;
+        @TruffleBoundary
+        private static ByteBuffer readFully(SeekableByteChannel ch, long offset, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(length);
+            ch.position(offset);
+            while (buffer.hasRemaining() && ch.read(buffer) >= 0) {
+                // keep reading
+            }
+            buffer.clear();
+            return buffer;
         }
 
-        public long position() throws IOException {
-            return cur;
+        @TruffleBoundary
+        private static ByteBuffer asReadOnly(ByteBuffer buffer) {
+            return buffer.asReadOnlyBuffer();
         }
 
-        public SeekableByteChannel position(long newPosition) throws IOException {
-            if (newPosition < 0) {
-                throw new IllegalArgumentException();
-            }
-            cur = (int) newPosition;
-            return this;
+        @TruffleBoundary
+        private static long size(SeekableByteChannel ch) throws IOException {
+            return ch.size();
         }
 
-        public long size() throws IOException {
-            return data.length;
+        @TruffleBoundary
+        private static void close(SeekableByteChannel ch) throws IOException {
+            ch.close();
         }
 
-        public SeekableByteChannel truncate(long size) throws IOException {
-            for (int i = 0; i < size; i++) {
-                data[i] = 0;
+        @TruffleBoundary
+        private static void closeQuietly(SeekableByteChannel ch) {
+            try {
+                ch.close();
+            } catch (IOException e) {
+                // ignore
             }
-            return this;
         }
     }
 }
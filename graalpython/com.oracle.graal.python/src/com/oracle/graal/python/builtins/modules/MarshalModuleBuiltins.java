@@ -25,13 +25,14 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.EOFError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.NotImplementedError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
-import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 
@@ -62,21 +63,28 @@ import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
 import com.oracle.graal.python.builtins.objects.set.PFrozenSet;
 import com.oracle.graal.python.builtins.objects.set.PSet;
 import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.graal.python.nodes.IndirectCallNode;
+import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.PNodeWithContext;
 import com.oracle.graal.python.nodes.PRaiseNode;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CastToJavaIntNode;
 import com.oracle.graal.python.runtime.ExecutionContext.IndirectCallContext;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
 import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -89,6 +97,7 @@ import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.library.CachedLibrary;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 
@@ -99,13 +108,26 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
         return MarshalModuleBuiltinsFactory.getFactories();
     }
 
-    @Builtin(name = "dump", minNumOfPositionalArgs = 2, parameterNames = {"self", "file", "version"})
+    @Builtin(name = "dump", minNumOfPositionalArgs = 2, parameterNames = {"value", "file", "version"})
     @GenerateNodeFactory
     abstract static class DumpNode extends PythonBuiltinNode {
-        @SuppressWarnings("unused")
+        @Child private MarshallerNode marshaller = MarshallerNode.create();
+        @Child private GetAttributeNode getWrite = GetAttributeNode.create("write", null);
+        @Child private CallNode callWrite = CallNode.create();
+
         @Specialization
-        Object doit(Object value, Object file, Object version) {
-            throw raise(NotImplementedError, "marshal.dump");
+        Object doit(VirtualFrame frame, Object value, Object file, Object version,
+                        @Cached CastToJavaIntNode castToIntNode) {
+            int v = PGuards.isNoValue(version) ? CURRENT_VERSION : castToIntNode.execute(version);
+            Object write = getWrite.executeObject(frame, file);
+            // the marshaller hands full chunks to 'write' itself, we only write the rest
+            MarshalBuffer buffer = new MarshalBuffer(write);
+            marshaller.resetRecursionDepth();
+            marshaller.execute(frame, value, v, buffer);
+            if (buffer.size() > 0) {
+                callWrite.execute(frame, write, factory().createBytes(buffer.takeChunk()));
+            }
+            return PNone.NONE;
         }
     }
 
@@ -115,45 +137,52 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
 
         @Child private MarshallerNode marshaller = MarshallerNode.create();
 
-        private byte[] dump(VirtualFrame frame, Object o, int version) {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            DataOutputStream buffer = new DataOutputStream(baos);
+        private PBytes dump(VirtualFrame frame, Object o, int version) {
+            MarshalBuffer buffer = new MarshalBuffer(null);
             marshaller.resetRecursionDepth();
             marshaller.execute(frame, o, version, buffer);
-            try {
-                return getByteArrayFromStream(baos, buffer);
-            } catch (IOException e) {
-                throw raise(ValueError, "Was not possible to marshal %p", o);
-            }
-        }
-
-        @TruffleBoundary
-        private static byte[] getByteArrayFromStream(ByteArrayOutputStream baos, DataOutputStream buffer) throws IOException {
-            buffer.flush();
-            byte[] result = baos.toByteArray();
-            baos.close();
-            buffer.close();
-            return result;
+            // the bytes object takes over the buffer's array without copying it
+            return factory().createBytes(new ByteSequenceStorage(buffer.getInternalArray(), buffer.size()));
         }
 
         @Specialization
         Object doit(VirtualFrame frame, Object value, int version) {
-            return factory().createBytes(dump(frame, value, version));
+            return dump(frame, value, version);
         }
 
         @Specialization
         Object doit(VirtualFrame frame, Object value, @SuppressWarnings("unused") PNone version) {
-            return factory().createBytes(dump(frame, value, CURRENT_VERSION));
+            return dump(frame, value, CURRENT_VERSION);
         }
     }
 
-    @Builtin(name = "load", minNumOfPositionalArgs = 1)
+    @Builtin(name = "load", minNumOfPositionalArgs = 1, parameterNames = {"file"})
     @GenerateNodeFactory
     abstract static class LoadNode extends PythonBuiltinNode {
-        @SuppressWarnings("unused")
+        @Child private UnmarshallerNode marshaller = UnmarshallerNode.create();
+        @Child private GetAttributeNode getRead = GetAttributeNode.create("read", null);
+        @Child private LookupAndCallUnaryNode callSeekable = LookupAndCallUnaryNode.create("seekable");
+        @Child private GetAttributeNode getSeek;
+        @Child private CallNode callSeek;
+
         @Specialization
-        Object doit(Object file) {
-            throw raise(NotImplementedError, "marshal.load");
+        Object doit(VirtualFrame frame, Object file) {
+            Object read = getRead.executeObject(frame, file);
+            // Only seekable files may be read ahead in chunks, because we have to give back what
+            // we did not consume. Other files are read exactly as far as the data goes.
+            boolean seekable = Boolean.TRUE.equals(callSeekable.executeObject(frame, file));
+            MarshalReader reader = new MarshalReader(read, seekable);
+            Object result = marshaller.execute(frame, reader);
+            int unread = reader.remaining();
+            if (unread > 0) {
+                if (getSeek == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    getSeek = insert(GetAttributeNode.create("seek", null));
+                    callSeek = insert(CallNode.create());
+                }
+                callSeek.execute(frame, getSeek.executeObject(frame, file), -unread, 1);
+            }
+            return result;
         }
     }
 
@@ -163,25 +192,40 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
 
         @Child private UnmarshallerNode marshaller = UnmarshallerNode.create();
 
-        @SuppressWarnings("unused")
-        @Specialization
-        Object doit(VirtualFrame frame, PBytes bytes,
+        @Specialization(guards = "isByteStorage(bytes)")
+        Object doBytes(VirtualFrame frame, PBytes bytes) {
+            return loadFromStorage(frame, (ByteSequenceStorage) bytes.getSequenceStorage());
+        }
+
+        @Specialization(guards = "isByteStorage(bytes)")
+        Object doByteArray(VirtualFrame frame, PByteArray bytes) {
+            return loadFromStorage(frame, (ByteSequenceStorage) bytes.getSequenceStorage());
+        }
+
+        private Object loadFromStorage(VirtualFrame frame, ByteSequenceStorage storage) {
+            // read directly from the storage, nothing can modify it while we unmarshal
+            return marshaller.execute(frame, new MarshalReader(storage.getInternalByteArray(), storage.length()));
+        }
+
+        @Specialization(guards = "!isByteStorage(bytes)")
+        Object doBytesGeneric(VirtualFrame frame, PBytes bytes,
                         @Cached("create()") BytesNodes.ToBytesNode toBytesNode) {
-            return marshaller.execute(frame, toBytesNode.execute(frame, bytes), CURRENT_VERSION);
+            byte[] data = toBytesNode.execute(frame, bytes);
+            return marshaller.execute(frame, new MarshalReader(data, data.length));
         }
 
-        @SuppressWarnings("unused")
-        @Specialization
-        Object doit(VirtualFrame frame, PByteArray bytes,
+        @Specialization(guards = "!isByteStorage(bytes)")
+        Object doByteArrayGeneric(VirtualFrame frame, PByteArray bytes,
                         @Cached("create()") BytesNodes.ToBytesNode toBytesNode) {
-            return marshaller.execute(frame, toBytesNode.execute(frame, bytes), CURRENT_VERSION);
+            byte[] data = toBytesNode.execute(frame, bytes);
+            return marshaller.execute(frame, new MarshalReader(data, data.length));
         }
 
-        @SuppressWarnings("unused")
         @Specialization
         Object doit(VirtualFrame frame, PMemoryView bytes,
                         @Cached("create()") BytesNodes.ToBytesNode toBytesNode) {
-            return marshaller.execute(frame, toBytesNode.execute(frame, bytes), CURRENT_VERSION);
+            byte[] data = toBytesNode.execute(frame, bytes);
+            return marshaller.execute(frame, new MarshalReader(data, data.length));
         }
     }
 
@@ -215,6 +259,9 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
     private static final int MAX_MARSHAL_STACK_DEPTH = 2000;
     private static final int CURRENT_VERSION = 1;
 
+    /** The size of the chunks in which {@code dump} writes and {@code load} reads files. */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
     static final class InternedString {
         public final String string;
 
@@ -223,6 +270,200 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
         }
     }
 
+    /**
+     * A growable byte array the marshaller writes into. Primitives are stored in little-endian
+     * order, like CPython does. If the buffer has a {@code write} method (for {@code marshal.dump}),
+     * the marshaller drains it to the file whenever a chunk is full.
+     */
+    static final class MarshalBuffer {
+        private final Object writeMethod;
+        private byte[] data;
+        private int size;
+
+        MarshalBuffer(Object writeMethod) {
+            this.writeMethod = writeMethod;
+            this.data = new byte[64];
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] getInternalArray() {
+            return data;
+        }
+
+        Object getWriteMethod() {
+            return writeMethod;
+        }
+
+        boolean shouldFlush() {
+            return writeMethod != null && size >= CHUNK_SIZE;
+        }
+
+        byte[] takeChunk() {
+            byte[] chunk = Arrays.copyOf(data, size);
+            size = 0;
+            return chunk;
+        }
+
+        private void ensureCapacity(int additional) {
+            int needed = size + additional;
+            if (needed > data.length) {
+                CompilerDirectives.transferToInterpreter();
+                grow(needed);
+            }
+        }
+
+        @TruffleBoundary
+        private void grow(int needed) {
+            if (needed < 0) {
+                throw new OutOfMemoryError();
+            }
+            int newCapacity = Math.max(needed, data.length < Integer.MAX_VALUE / 2 ? data.length * 2 : Integer.MAX_VALUE - 8);
+            data = Arrays.copyOf(data, newCapacity);
+        }
+
+        void put(byte b) {
+            ensureCapacity(1);
+            data[size++] = b;
+        }
+
+        void putInt(int v) {
+            ensureCapacity(4);
+            data[size] = (byte) v;
+            data[size + 1] = (byte) (v >> 8);
+            data[size + 2] = (byte) (v >> 16);
+            data[size + 3] = (byte) (v >> 24);
+            size += 4;
+        }
+
+        void putLong(long v) {
+            putInt((int) v);
+            putInt((int) (v >> 32));
+        }
+
+        void putBytes(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, data, size, bytes.length);
+            size += bytes.length;
+        }
+    }
+
+    /**
+     * The input of the unmarshaller. It reads either directly from a byte array (for
+     * {@code marshal.loads}, this is the storage of the bytes object) or from a file using its
+     * {@code read} method (for {@code marshal.load}). Files are read on demand, in chunks if they
+     * are seekable and otherwise exactly as much as needed.
+     */
+    static final class MarshalReader {
+        private final Object readMethod;
+        private final boolean readAhead;
+        private byte[] data;
+        private int index;
+        private int limit;
+
+        MarshalReader(byte[] data, int length) {
+            this.readMethod = null;
+            this.readAhead = false;
+            this.data = data;
+            this.limit = length;
+        }
+
+        MarshalReader(Object readMethod, boolean readAhead) {
+            this.readMethod = readMethod;
+            this.readAhead = readAhead;
+            this.data = new byte[0];
+        }
+
+        /**
+         * The number of bytes that were read from the file but not consumed.
+         */
+        int remaining() {
+            return limit - index;
+        }
+
+        private void ensure(int n) {
+            if (n < 0 || limit - index < n) {
+                fill(n);
+            }
+        }
+
+        @TruffleBoundary
+        private void fill(int n) {
+            if (readMethod == null || n < 0) {
+                throw PRaiseNode.getUncached().raise(EOFError, "marshal data too short");
+            }
+            int available = limit - index;
+            int missing = n - available;
+            byte[] newData = new byte[Math.max(n, readAhead ? CHUNK_SIZE : 0)];
+            System.arraycopy(data, index, newData, 0, available);
+            int filled = available;
+            while (filled < n) {
+                int request = readAhead ? Math.max(missing, CHUNK_SIZE - filled) : missing;
+                Object chunk = CallNode.getUncached().execute(readMethod, request);
+                byte[] bytes;
+                try {
+                    bytes = PythonObjectLibrary.getUncached().getBufferBytes(chunk);
+                } catch (UnsupportedMessageException e) {
+                    throw PRaiseNode.getUncached().raise(TypeError, "file.read() returned not bytes but %p", chunk);
+                }
+                if (bytes.length == 0) {
+                    throw PRaiseNode.getUncached().raise(EOFError, "EOF read where object expected");
+                } else if (bytes.length > request) {
+                    throw PRaiseNode.getUncached().raise(ValueError, "read() returned too much data: %d bytes requested, %d returned", request, bytes.length);
+                }
+                if (filled + bytes.length > newData.length) {
+                    newData = Arrays.copyOf(newData, filled + bytes.length);
+                }
+                System.arraycopy(bytes, 0, newData, filled, bytes.length);
+                filled += bytes.length;
+                missing -= bytes.length;
+            }
+            data = newData;
+            index = 0;
+            limit = filled;
+        }
+
+        int readByte() {
+            ensure(1);
+            return data[index++];
+        }
+
+        int readInt() {
+            ensure(4);
+            int b0 = data[index] & 0xFF;
+            int b1 = data[index + 1] & 0xFF;
+            int b2 = data[index + 2] & 0xFF;
+            int b3 = data[index + 3] & 0xFF;
+            index += 4;
+            return b0 | (b1 << 8) | (b2 << 16) | (b3 << 24);
+        }
+
+        long readLong() {
+            long lo4 = readInt();
+            long hi4 = readInt();
+            return (hi4 << 32) | (lo4 & 0xFFFFFFFFL);
+        }
+
+        byte[] readBytes() {
+            int len = readInt();
+            ensure(len);
+            byte[] bytes = Arrays.copyOfRange(data, index, index + len);
+            index += len;
+            return bytes;
+        }
+
+        @TruffleBoundary
+        String readString() {
+            int len = readInt();
+            ensure(len);
+            String text = new String(data, index, len, StandardCharsets.UTF_8);
+            index += len;
+            return text;
+        }
+    }
+
     private abstract static class PNodeWithState extends PNodeWithContext {
         @Child private PythonObjectFactory objectFactory;
         @Child private PRaiseNode raiseNode;
@@ -246,9 +487,10 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
 
     abstract static class MarshallerNode extends PNodeWithState {
 
-        public abstract void execute(VirtualFrame frame, Object x, int version, DataOutputStream buffer);
+        public abstract void execute(VirtualFrame frame, Object x, int version, MarshalBuffer buffer);
 
         @Child private MarshallerNode recursiveNode;
+        @Child private CallNode callWriteNode;
         private int depth = 0;
         private IsBuiltinClassProfile isBuiltinProfile;
 
@@ -263,97 +505,87 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
             return recursiveNode;
         }
 
-        private void handleIOException(Object v) {
-            throw raise(ValueError, "Was not possible to marshal %p", v);
-        }
-
         public void resetRecursionDepth() {
             depth = 0;
         }
 
-        @Specialization
-        @TruffleBoundary
-        void writeByte(char v, @SuppressWarnings("unused") int version, DataOutputStream buffer) {
-            try {
-                buffer.write(v);
-            } catch (IOException e) {
-                handleIOException(v);
+        /**
+         * Writes an element of a container and, if this is {@code marshal.dump}, passes the data
+         * on to the file once a chunk is full, so that we never hold much more than a chunk.
+         */
+        private void writeElement(VirtualFrame frame, Object element, int version, MarshalBuffer buffer) {
+            getRecursiveNode().execute(frame, element, version, buffer);
+            if (buffer.shouldFlush()) {
+                if (callWriteNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    callWriteNode = insert(CallNode.create());
+                }
+                callWriteNode.execute(frame, buffer.getWriteMethod(), factory().createBytes(buffer.takeChunk()));
             }
         }
 
-        @TruffleBoundary
-        private void writeBytes(byte[] bytes, int version, DataOutputStream buffer) {
-            int len = bytes.length;
-            writeInt(len, version, buffer);
-            try {
-                buffer.write(bytes);
-            } catch (IOException e) {
-                throw raise(ValueError, "Was not possible to marshal");
-            }
+        @Specialization
+        static void writeByte(char v, @SuppressWarnings("unused") int version, MarshalBuffer buffer) {
+            buffer.put((byte) v);
         }
 
-        @TruffleBoundary
-        private void writeInt(int v, @SuppressWarnings("unused") int version, DataOutputStream buffer) {
-            try {
-                buffer.writeInt(v);
-            } catch (IOException e) {
-                handleIOException(v);
-            }
+        private static void writeBytes(byte[] bytes, @SuppressWarnings("unused") int version, MarshalBuffer buffer) {
+            buffer.putInt(bytes.length);
+            buffer.putBytes(bytes);
+        }
+
+        private static void writeInt(int v, @SuppressWarnings("unused") int version, MarshalBuffer buffer) {
+            buffer.putInt(v);
         }
 
         @Specialization
-        void handleInt(int v, int version, DataOutputStream buffer) {
+        static void handleInt(int v, int version, MarshalBuffer buffer) {
             writeByte(TYPE_INT, version, buffer);
             writeInt(v, version, buffer);
         }
 
-        private void writeLong(long v, int version, DataOutputStream buffer) {
-            writeInt((int) (v & 0xffffffff), version, buffer);
-            writeInt((int) ((v >> 32) & 0xffffffff), version, buffer);
-        }
-
         @Specialization
-        void handleLong(long v, int version, DataOutputStream buffer) {
+        static void handleLong(long v, int version, MarshalBuffer buffer) {
             writeByte(TYPE_LONG, version, buffer);
-            writeLong(v, version, buffer);
+            buffer.putLong(v);
         }
 
         @Specialization
         @TruffleBoundary
-        void handlePInt(PInt v, int version, DataOutputStream buffer) {
+        static void handlePInt(PInt v, int version, MarshalBuffer buffer) {
             writeByte(TYPE_PINT, version, buffer);
             writeBytes(v.getValue().toByteArray(), version, buffer);
         }
 
-        private void writeDouble(double v, int version, DataOutputStream buffer) {
-            writeLong(Double.doubleToLongBits(v), version, buffer);
+        private static void writeDouble(double v, @SuppressWarnings("unused") int version, MarshalBuffer buffer) {
+            buffer.putLong(Double.doubleToLongBits(v));
         }
 
         @Specialization
-        void handleFloat(float v, int version, DataOutputStream buffer) {
+        static void handleFloat(float v, int version, MarshalBuffer buffer) {
             handleDouble(v, version, buffer);
         }
 
         @Specialization
-        void handleDouble(double v, int version, DataOutputStream buffer) {
+        static void handleDouble(double v, int version, MarshalBuffer buffer) {
             writeByte(TYPE_FLOAT, version, buffer);
             writeDouble(v, version, buffer);
         }
 
         @Specialization
-        void handlePFloat(PFloat v, int version, DataOutputStream buffer) {
+        static void handlePFloat(PFloat v, int version, MarshalBuffer buffer) {
             handleDouble(v.getValue(), version, buffer);
         }
 
         @Specialization
-        void handlePComplex(PComplex v, int version, DataOutputStream buffer) {
+        static void handlePComplex(PComplex v, int version, MarshalBuffer buffer) {
             writeByte(TYPE_COMPLEX, version, buffer);
             writeDouble(v.getReal(), version, buffer);
             writeDouble(v.getImag(), version, buffer);
         }
 
         @Specialization
-        void writeBoolean(boolean v, int version, DataOutputStream buffer) {
+        static void writeBoolean(boolean v, int version, MarshalBuffer buffer) {
             if (v) {
                 writeByte(TYPE_TRUE, version, buffer);
             } else {
@@ -362,76 +594,71 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
         }
 
         @TruffleBoundary
-        private void writeString(String v, int version, DataOutputStream buffer) {
-            byte[] bytes = v.getBytes();
-            writeInt(bytes.length, version, buffer);
-            try {
-                buffer.write(bytes);
-            } catch (IOException e) {
-                handleIOException(v);
-            }
+        private static void writeString(String v, int version, MarshalBuffer buffer) {
+            writeBytes(v.getBytes(StandardCharsets.UTF_8), version, buffer);
         }
 
         @Specialization
-        void handleString(String v, int version, DataOutputStream buffer) {
+        static void handleString(String v, int version, MarshalBuffer buffer) {
             writeByte(TYPE_STRING, version, buffer);
             writeString(v, version, buffer);
         }
 
         @Specialization
-        void handlePString(PString v, int version, DataOutputStream buffer) {
+        static void handlePString(PString v, int version, MarshalBuffer buffer) {
             writeByte(TYPE_STRING, version, buffer);
             writeString(v.getValue(), version, buffer);
         }
 
         @Specialization
-        void handleInternedString(InternedString v, int version, DataOutputStream buffer) {
+        static void handleInternedString(InternedString v, int version, MarshalBuffer buffer) {
             writeByte(TYPE_INTERNED, version, buffer);
             writeString(v.string, version, buffer);
         }
 
         @Specialization
-        void handleBytesLike(VirtualFrame frame, PIBytesLike v, int version, DataOutputStream buffer,
+        static void handleBytesLike(VirtualFrame frame, PIBytesLike v, int version, MarshalBuffer buffer,
                         @Cached("create()") BytesNodes.ToBytesNode toBytesNode) {
             writeByte(TYPE_BYTESLIKE, version, buffer);
             writeBytes(toBytesNode.execute(frame, v), version, buffer);
         }
 
         @Specialization
-        void handleMemoryView(VirtualFrame frame, PMemoryView v, int version, DataOutputStream buffer,
+        static void handleMemoryView(VirtualFrame frame, PMemoryView v, int version, MarshalBuffer buffer,
                         @Cached("create()") BytesNodes.ToBytesNode toBytesNode) {
             writeByte(TYPE_BYTESLIKE, version, buffer);
             writeBytes(toBytesNode.execute(frame, v), version, buffer);
         }
 
         @Specialization
-        void handlePArray(@SuppressWarnings("unused") PArray v, @SuppressWarnings("unused") int version, @SuppressWarnings("unused") DataOutputStream buffer) {
+        void handlePArray(@SuppressWarnings("unused") PArray v, @SuppressWarnings("unused") int version, @SuppressWarnings("unused") MarshalBuffer buffer) {
             throw raise(NotImplementedError, "marshal.dumps(array)");
         }
 
         @Specialization
-        void handlePTuple(VirtualFrame frame, PTuple t, int version, DataOutputStream buffer,
+        void handlePTuple(VirtualFrame frame, PTuple t, int version, MarshalBuffer buffer,
                         @Cached GetObjectArrayNode getObjectArrayNode) {
             writeByte(TYPE_TUPLE, version, buffer);
             Object[] items = getObjectArrayNode.execute(t);
             writeInt(items.length, version, buffer);
             for (int i = 0; i < items.length; i++) {
-                getRecursiveNode().execute(frame, items[i], version, buffer);
+                writeElement(frame, items[i], version, buffer);
             }
         }
 
         @Specialization
-        void handlePList(VirtualFrame frame, PList l, int version, DataOutputStream buffer) {
+        void handlePList(VirtualFrame frame, PList l, int version, MarshalBuffer buffer,
+                        @Cached GetObjectArrayNode getObjectArrayNode) {
             writeByte(TYPE_LIST, version, buffer);
-            Object[] items = l.getSequenceStorage().getInternalArray();
+            Object[] items = getObjectArrayNode.execute(l);
             writeInt(items.length, version, buffer);
             for (int i = 0; i < items.length; i++) {
-                getRecursiveNode().execute(frame, items[i], version, buffer);
+                writeElement(frame, items[i], version, buffer);
             }
         }
 
         @Specialization(limit = "1")
-        void handlePDict(VirtualFrame frame, PDict d, int version, DataOutputStream buffer,
+        void handlePDict(VirtualFrame frame, PDict d, int version, MarshalBuffer buffer,
                         @Cached("createBinaryProfile()") ConditionProfile hasFrame,
                         @CachedLibrary("d.getDictStorage()") HashingStorageLibrary lib) {
             writeByte(TYPE_DICT, version, buffer);
@@ -444,12 +671,12 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
             writeInt(len, version, buffer);
             for (DictEntry entry : d.entries()) {
                 getRecursiveNode().execute(frame, entry.key, version, buffer);
-                getRecursiveNode().execute(frame, entry.value, version, buffer);
+                writeElement(frame, entry.value, version, buffer);
             }
         }
 
         @Specialization
-        void handlePCode(VirtualFrame frame, PCode c, int version, DataOutputStream buffer) {
+        void handlePCode(VirtualFrame frame, PCode c, int version, MarshalBuffer buffer) {
             writeByte(TYPE_CODE, version, buffer);
             writeInt(c.getArgcount(), version, buffer);
             writeInt(c.getPositionalOnlyArgCount(), version, buffer);
@@ -489,7 +716,7 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
         }
 
         @Specialization(limit = "1")
-        void handlePSet(VirtualFrame frame, PSet s, int version, DataOutputStream buffer,
+        void handlePSet(VirtualFrame frame, PSet s, int version, MarshalBuffer buffer,
                         @Cached("createBinaryProfile()") ConditionProfile hasFrame,
                         @CachedLibrary("s.getDictStorage()") HashingStorageLibrary lib) {
             writeByte(TYPE_SET, version, buffer);
@@ -501,12 +728,12 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
             }
             writeInt(len, version, buffer);
             for (DictEntry entry : s.entries()) {
-                getRecursiveNode().execute(frame, entry.key, version, buffer);
+                writeElement(frame, entry.key, version, buffer);
             }
         }
 
         @Specialization(limit = "1")
-        void handlePForzenSet(VirtualFrame frame, PFrozenSet s, int version, DataOutputStream buffer,
+        void handlePForzenSet(VirtualFrame frame, PFrozenSet s, int version, MarshalBuffer buffer,
                         @Cached("createBinaryProfile()") ConditionProfile hasFrame,
                         @CachedLibrary("s.getDictStorage()") HashingStorageLibrary lib) {
             writeByte(TYPE_FROZENSET, version, buffer);
@@ -518,12 +745,12 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
             }
             writeInt(len, version, buffer);
             for (DictEntry entry : s.entries()) {
-                getRecursiveNode().execute(frame, entry.key, version, buffer);
+                writeElement(frame, entry.key, version, buffer);
             }
         }
 
         @Specialization
-        void handlePNone(PNone v, int version, DataOutputStream buffer) {
+        static void handlePNone(PNone v, int version, MarshalBuffer buffer) {
             if (v == PNone.NONE) {
                 writeByte(TYPE_NONE, version, buffer);
             } else if (v == PNone.NO_VALUE) {
@@ -532,7 +759,7 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
         }
 
         @Fallback
-        void writeObject(Object v, int version, DataOutputStream buffer) {
+        void writeObject(Object v, int version, MarshalBuffer buffer) {
             if (depth >= MAX_MARSHAL_STACK_DEPTH) {
                 throw raise(ValueError, "Maximum marshal stack depth");
             } else if (v == null) {
@@ -561,8 +788,8 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
         }
     }
 
-    public abstract static class UnmarshallerNode extends PNodeWithState implements IndirectCallNode {
-        public abstract Object execute(VirtualFrame frame, byte[] dataBytes, int version);
+    abstract static class UnmarshallerNode extends PNodeWithState implements IndirectCallNode {
+        public abstract Object execute(VirtualFrame frame, MarshalReader reader);
 
         @Child private CodeNodes.CreateCodeNode createCodeNode;
         private final Assumption dontNeedExceptionState = Truffle.getRuntime().createAssumption();
@@ -578,98 +805,57 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
             return dontNeedExceptionState;
         }
 
-        private int index;
-        private byte[] data;
-
-        public void reset() {
-            index = 0;
-        }
-
-        private int readByte() {
-            return data[index++];
-        }
-
-        private int readInt() {
-            int ch1 = readByte() & 0xFF;
-            int ch2 = readByte() & 0xFF;
-            int ch3 = readByte() & 0xFF;
-            int ch4 = readByte() & 0xFF;
-            return ((ch1 << 24) + (ch2 << 16) + (ch3 << 8) + ch4);
-        }
-
-        private long read_long64() { // cpython calls this r_long64
-            long lo4 = readInt();
-            long hi4 = readInt();
-            long x = (hi4 << 32) | (lo4 & 0xFFFFFFFFL);
-            return x;
-        }
-
-        private PInt readPInt() {
-            byte[] bytes = readBytes();
+        private PInt readPInt(MarshalReader in) {
+            byte[] bytes = in.readBytes();
             return factory().createInt(new BigInteger(bytes));
         }
 
-        private double readDouble() {
-            long n = read_long64();
-            return Double.longBitsToDouble(n);
-        }
-
-        private String readString() {
-            int len = readInt();
-            String text = new String(data, index, len);
-            index += len;
-            return text;
-        }
-
-        private String readInternedString() {
-            return readString().intern();
+        private static double readDouble(MarshalReader in) {
+            return Double.longBitsToDouble(in.readLong());
         }
 
-        private byte[] readBytes() {
-            int len = readInt();
-            byte[] bytes = Arrays.copyOfRange(data, index, index + len);
-            index += len;
-            return bytes;
+        private static String readInternedString(MarshalReader in) {
+            return in.readString().intern();
         }
 
-        private PBytes readBytesLike() {
-            byte[] bytes = readBytes();
+        private PBytes readBytesLike(MarshalReader in) {
+            byte[] bytes = in.readBytes();
             return factory().createBytes(bytes);
         }
 
-        private PCode readCode(int depth, HashingStorageLibrary lib) {
-            int argcount = readInt();
-            int posonlyargcount = readInt();
-            int kwonlyargcount = readInt();
-            int nlocals = readInt();
-            int stacksize = readInt();
-            int flags = readInt();
-            byte[] codestring = readBytes();
-            Object[] constants = getArray((PTuple) readObject(depth + 1, lib));
-            Object[] names = getArray((PTuple) readObject(depth + 1, lib));
-            Object[] varnames = getArray((PTuple) readObject(depth + 1, lib));
-            Object[] freevars = getArray((PTuple) readObject(depth + 1, lib));
-            Object[] cellvars = getArray((PTuple) readObject(depth + 1, lib));
-            String filename = ((String) readObject(depth + 1, lib));
-            String name = ((String) readObject(depth + 1, lib));
-            int firstlineno = readInt();
-            byte[] lnotab = readBytes();
+        private PCode readCode(MarshalReader in, int depth, HashingStorageLibrary lib) {
+            int argcount = in.readInt();
+            int posonlyargcount = in.readInt();
+            int kwonlyargcount = in.readInt();
+            int nlocals = in.readInt();
+            int stacksize = in.readInt();
+            int flags = in.readInt();
+            byte[] codestring = in.readBytes();
+            Object[] constants = getArray((PTuple) readObject(in, depth + 1, lib));
+            Object[] names = getArray((PTuple) readObject(in, depth + 1, lib));
+            Object[] varnames = getArray((PTuple) readObject(in, depth + 1, lib));
+            Object[] freevars = getArray((PTuple) readObject(in, depth + 1, lib));
+            Object[] cellvars = getArray((PTuple) readObject(in, depth + 1, lib));
+            String filename = ((String) readObject(in, depth + 1, lib));
+            String name = ((String) readObject(in, depth + 1, lib));
+            int firstlineno = in.readInt();
+            byte[] lnotab = in.readBytes();
 
             return ensureCreateCodeNode().execute(null, PythonBuiltinClassType.PCode, argcount, posonlyargcount,
                             kwonlyargcount, nlocals, stacksize, flags, codestring, constants, names,
                             varnames, freevars, cellvars, filename, name, firstlineno, lnotab);
         }
 
-        private PDict readDict(int depth, HashingStorageLibrary lib) {
-            int len = readInt();
+        private PDict readDict(MarshalReader in, int depth, HashingStorageLibrary lib) {
+            int len = in.readInt();
             HashingStorage store = PDict.createNewStorage(false, len);
             PDict dict = factory().createDict(store);
             for (int i = 0; i < len; i++) {
-                Object key = readObject(depth + 1, lib);
+                Object key = readObject(in, depth + 1, lib);
                 if (key == null) {
                     break;
                 }
-                Object value = readObject(depth + 1, lib);
+                Object value = readObject(in, depth + 1, lib);
                 if (value != null) {
                     store = lib.setItem(store, key, value);
                 }
@@ -678,14 +864,14 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
             return dict;
         }
 
-        private PList readList(int depth, HashingStorageLibrary lib) {
-            int n = readInt();
+        private PList readList(MarshalReader in, int depth, HashingStorageLibrary lib) {
+            int n = in.readInt();
             if (n < 0) {
                 throw raise(ValueError, "bad marshal data");
             }
             Object[] items = new Object[n];
             for (int i = 0; i < n; i++) {
-                Object item = readObject(depth + 1, lib);
+                Object item = readObject(in, depth + 1, lib);
                 if (item == null) {
                     throw raise(ValueError, "bad marshal data");
                 }
@@ -694,36 +880,19 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
             return factory().createList(items);
         }
 
-        private PSet readSet(int depth, HashingStorageLibrary lib) {
-            int n = readInt();
-            if (n < 0) {
-                throw raise(ValueError, "bad marshal data");
-            }
-            HashingStorage newStorage = EconomicMapStorage.create(n);
-            for (int i = 0; i < n; i++) {
-                Object key = readObject(depth + 1, lib);
-                // note: we may pass a 'null' frame here because global state is ensured to be
-                // transfered
-                lib.setItem(newStorage, key, PNone.NO_VALUE);
-            }
-
-            return factory().createSet(newStorage);
-        }
-
-        private PFrozenSet readFrozenSet(int depth, HashingStorageLibrary lib) {
-            int n = readInt();
+        private HashingStorage readSetStorage(MarshalReader in, int depth, HashingStorageLibrary lib) {
+            int n = in.readInt();
             if (n < 0) {
                 throw raise(ValueError, "bad marshal data");
             }
             HashingStorage newStorage = EconomicMapStorage.create(n);
             for (int i = 0; i < n; i++) {
-                Object key = readObject(depth + 1, lib);
+                Object key = readObject(in, depth + 1, lib);
                 // note: we may pass a 'null' frame here because global state is ensured to be
                 // transfered
                 lib.setItem(newStorage, key, PNone.NO_VALUE);
             }
-
-            return factory().createFrozenSet(newStorage);
+            return newStorage;
         }
 
         private static Object[] getArray(PTuple tuple) {
@@ -733,11 +902,11 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
         }
 
         @TruffleBoundary
-        private Object readObject(int depth, HashingStorageLibrary lib) {
+        private Object readObject(MarshalReader in, int depth, HashingStorageLibrary lib) {
             if (depth >= MAX_MARSHAL_STACK_DEPTH) {
                 throw raise(ValueError, "Maximum marshal stack depth");
             }
-            int type = readByte();
+            int type = in.readByte();
             switch (type) {
                 case TYPE_NULL:
                     return null;
@@ -754,42 +923,47 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
                 case TYPE_TRUE:
                     return true;
                 case TYPE_INT:
-                    return readInt();
+                    return in.readInt();
                 case TYPE_INT64:
-                    return read_long64();
+                    return in.readLong();
                 case TYPE_LONG:
-                    return read_long64();
+                    return in.readLong();
                 case TYPE_PINT:
-                    return readPInt();
+                    return readPInt(in);
                 case TYPE_FLOAT:
-                    return readDouble();
+                    return readDouble(in);
+                case TYPE_COMPLEX: {
+                    double real = readDouble(in);
+                    double imag = readDouble(in);
+                    return factory().createComplex(real, imag);
+                }
                 case TYPE_STRING:
-                    return readString();
+                    return in.readString();
                 case TYPE_INTERNED:
-                    return readInternedString();
+                    return readInternedString(in);
                 case TYPE_BYTESLIKE:
-                    return readBytesLike();
+                    return readBytesLike(in);
                 case TYPE_TUPLE: {
-                    int n = readInt();
+                    int n = in.readInt();
                     if (n < 0) {
                         throw raise(ValueError, "bad marshal data");
                     }
                     Object[] items = new Object[n];
                     for (int i = 0; i < n; i++) {
-                        items[i] = readObject(depth + 1, lib);
+                        items[i] = readObject(in, depth + 1, lib);
                     }
                     return factory().createTuple(items);
                 }
                 case TYPE_DICT:
-                    return readDict(depth, lib);
+                    return readDict(in, depth, lib);
                 case TYPE_LIST:
-                    return readList(depth, lib);
+                    return readList(in, depth, lib);
                 case TYPE_SET:
-                    return readSet(depth, lib);
+                    return factory().createSet(readSetStorage(in, depth, lib));
                 case TYPE_FROZENSET:
-                    return readFrozenSet(depth, lib);
+                    return factory().createFrozenSet(readSetStorage(in, depth, lib));
                 case TYPE_CODE:
-                    return readCode(depth, lib);
+                    return readCode(in, depth, lib);
                 default:
                     throw raise(ValueError, "bad marshal data");
             }
@@ -804,14 +978,12 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
         }
 
         @Specialization
-        Object readObject(VirtualFrame frame, byte[] dataBytes, @SuppressWarnings("unused") int version,
+        Object readObject(VirtualFrame frame, MarshalReader reader,
                         @CachedContext(PythonLanguage.class) PythonContext context,
                         @CachedLibrary(limit = "1") HashingStorageLibrary lib) {
-            reset();
-            this.data = dataBytes;
             Object state = IndirectCallContext.enter(frame, context, this);
             try {
-                return readObject(0, lib);
+                return readObject(reader, 0, lib);
             } finally {
                 IndirectCallContext.exit(frame, context, state);
             }
@@ -58,7 +58,9 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channel;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ScatteringByteChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.file.LinkOption;
@@ -89,11 +91,13 @@ import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.modules.PosixModuleBuiltinsFactory.StatNodeFactory;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.array.PArray;
 import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
 import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
 import com.oracle.graal.python.builtins.objects.bytes.PBytes;
 import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
 import com.oracle.graal.python.builtins.objects.common.SequenceNodes;
+import com.oracle.graal.python.builtins.objects.common.SequenceNodes.GetObjectArrayNode;
 import com.oracle.graal.python.builtins.objects.common.SequenceNodes.LenNode;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.GetItemDynamicNode;
@@ -107,11 +111,13 @@ import com.oracle.graal.python.builtins.objects.function.PArguments.ThreadState;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.mmap.PMMap;
 import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
 import com.oracle.graal.python.builtins.objects.socket.PSocket;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.SpecialMethodNames;
 import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
 import com.oracle.graal.python.nodes.expression.IsExpressionNode.IsNode;
@@ -135,6 +141,8 @@ import com.oracle.graal.python.runtime.exception.PythonErrorType;
 import com.oracle.graal.python.runtime.exception.PythonExitException;
 import com.oracle.graal.python.runtime.sequence.PSequence;
 import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.PackedSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.graal.python.util.FileDeleteShutdownHook;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
@@ -151,6 +159,7 @@ import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.dsl.TypeSystemReference;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.library.CachedLibrary;
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.api.profiles.ConditionProfile;
@@ -168,17 +177,17 @@ public class PosixModuleBuiltins extends PythonBuiltins {
     private static final int DSYNC = 4096;
     private static final int NDELAY = 2048;
     private static final int NONBLOCK = 2048;
-    private static final int APPEND = 1024;
-    private static final int TRUNC = 512;
-    private static final int EXCL = 128;
-    private static final int CREAT = 64;
-    private static final int RDWR = 2;
-    private static final int WRONLY = 1;
-    private static final int RDONLY = 0;
-
-    private static final int SEEK_SET = 0;
-    private static final int SEEK_CUR = 1;
-    private static final int SEEK_END = 2;
+    public static final int APPEND = 1024;
+    public static final int TRUNC = 512;
+    public static final int EXCL = 128;
+    public static final int CREAT = 64;
+    public static final int RDWR = 2;
+    public static final int WRONLY = 1;
+    public static final int RDONLY = 0;
+
+    public static final int SEEK_SET = 0;
+    public static final int SEEK_CUR = 1;
+    public static final int SEEK_END = 2;
 
     private static final int WNOHANG = 1;
     private static final int WUNTRACED = 3;
@@ -219,7 +228,7 @@ public class PosixModuleBuiltins extends PythonBuiltins {
                     new PosixFilePermission[]{PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE, PosixFilePermission.OWNER_EXECUTE},
     };
 
-    private static boolean terminalIsInteractive(PythonContext context) {
+    public static boolean terminalIsInteractive(PythonContext context) {
         return context.getOption(PythonOptions.TerminalIsInteractive);
     }
 
@@ -228,10 +237,152 @@ public class PosixModuleBuiltins extends PythonBuiltins {
         return PosixModuleBuiltinsFactory.getFactories();
     }
 
+    /**
+     * Size of the direct buffer each thread keeps for {@code sendfile} copies.
+     */
+    private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+    private static final ThreadLocal<ByteBuffer> TRANSFER_BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(TRANSFER_BUFFER_SIZE));
+
     public abstract static class PythonFileNode extends PythonBuiltinNode {
         protected PosixResources getResources() {
             return getContext().getResources();
         }
+
+        /**
+         * Wraps the memory backing a writable buffer object, so that channel reads land in the
+         * object without an intermediate copy.
+         */
+        protected ByteBuffer toWritableBuffer(Object buffer, PythonObjectLibrary lib) {
+            if (buffer instanceof PMMap) {
+                return getMapView((PMMap) buffer, true);
+            }
+            ByteBuffer result = wrapBackingArray(buffer, false);
+            if (result == null) {
+                if (lib.isBuffer(buffer)) {
+                    throw raise(PythonBuiltinClassType.BufferError, "Object is not writable.");
+                }
+                throw raise(PythonBuiltinClassType.TypeError, "a bytes-like object is required, not '%p'", buffer);
+            }
+            return result;
+        }
+
+        /**
+         * Wraps the contents of a buffer object for writing them to a channel. Byte sequences,
+         * arrays and memory maps are wrapped in place, other buffers are copied once.
+         */
+        protected ByteBuffer toReadableBuffer(Object buffer, PythonObjectLibrary lib) {
+            if (buffer instanceof PMMap) {
+                return getMapView((PMMap) buffer, false);
+            }
+            ByteBuffer result = wrapBackingArray(buffer, true);
+            if (result == null) {
+                if (!lib.isBuffer(buffer)) {
+                    throw raise(PythonBuiltinClassType.TypeError, "a bytes-like object is required, not '%p'", buffer);
+                }
+                try {
+                    result = wrap(lib.getBufferBytes(buffer), lib.getBufferLength(buffer));
+                } catch (UnsupportedMessageException e) {
+                    throw raise(PythonBuiltinClassType.TypeError, "a bytes-like object is required, not '%p'", buffer);
+                }
+            }
+            return result;
+        }
+
+        private ByteBuffer getMapView(PMMap map, boolean writable) {
+            ByteBuffer view = map.getView();
+            if (view == null) {
+                throw raise(PythonBuiltinClassType.ValueError, "mmap closed or invalid");
+            } else if (writable && view.isReadOnly()) {
+                throw raise(PythonBuiltinClassType.BufferError, "Object is not writable.");
+            }
+            return view;
+        }
+
+        protected final SeekableByteChannel getSeekableChannel(VirtualFrame frame, Channel channel) {
+            if (channel == null) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF);
+            } else if (!(channel instanceof SeekableByteChannel)) {
+                throw raiseOSError(frame, OSErrorEnum.ESPIPE);
+            }
+            return (SeekableByteChannel) channel;
+        }
+
+        /**
+         * Reads into {@code dst} at the given file offset without moving the file position.
+         * Returns the number of bytes read, which is less than requested only at the end of the
+         * file. The channels of {@link TruffleFile} have no positional I/O, so this seeks and
+         * restores the position while holding the channel's lock, which keeps concurrent
+         * {@code pread} and {@code pwrite} calls on the same descriptor from interleaving.
+         */
+        @TruffleBoundary(allowInlining = true, transferToInterpreterOnException = false)
+        protected static int readAt(SeekableByteChannel channel, byte[] dst, long offset) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(dst);
+            PythonContext context = PythonLanguage.getContext();
+            boolean releasedGil = context.releaseGil();
+            try {
+                synchronized (channel) {
+                    long savedPosition = channel.position();
+                    try {
+                        channel.position(offset);
+                        int n;
+                        do {
+                            n = channel.read(buffer);
+                        } while (n > 0 && buffer.hasRemaining());
+                        return buffer.position();
+                    } finally {
+                        channel.position(savedPosition);
+                    }
+                }
+            } finally {
+                context.reacquireGil(releasedGil);
+            }
+        }
+
+        /**
+         * Writes all of {@code src} at the given file offset without moving the file position.
+         * Like {@link #readAt}, this holds the channel's lock while the position is moved.
+         */
+        @TruffleBoundary(allowInlining = true, transferToInterpreterOnException = false)
+        protected static int writeAt(SeekableByteChannel channel, ByteBuffer src, long offset) throws IOException {
+            int start = src.position();
+            PythonContext context = PythonLanguage.getContext();
+            boolean releasedGil = context.releaseGil();
+            try {
+                synchronized (channel) {
+                    long savedPosition = channel.position();
+                    try {
+                        channel.position(offset);
+                        while (src.hasRemaining()) {
+                            channel.write(src);
+                        }
+                        return src.position() - start;
+                    } finally {
+                        channel.position(savedPosition);
+                    }
+                }
+            } finally {
+                context.reacquireGil(releasedGil);
+            }
+        }
+
+        @TruffleBoundary(allowInlining = true)
+        private static ByteBuffer wrapBackingArray(Object buffer, boolean acceptReadOnly) {
+            if (buffer instanceof PByteArray || (acceptReadOnly && buffer instanceof PBytes)) {
+                SequenceStorage storage = ((PIBytesLike) buffer).getSequenceStorage();
+                if (storage instanceof ByteSequenceStorage) {
+                    return ByteBuffer.wrap(((ByteSequenceStorage) storage).getInternalByteArray(), 0, storage.length());
+                }
+            } else if (buffer instanceof PArray) {
+                PackedSequenceStorage storage = ((PArray) buffer).getSequenceStorage();
+                return ByteBuffer.wrap(storage.getInternalByteArray(), 0, storage.getByteLength());
+            }
+            return null;
+        }
+
+        @TruffleBoundary(allowInlining = true)
+        private static ByteBuffer wrap(byte[] data, int length) {
+            return ByteBuffer.wrap(data, 0, length);
+        }
     }
 
     public PosixModuleBuiltins() {
@@ -908,6 +1059,8 @@ public class PosixModuleBuiltins extends PythonBuiltins {
     @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class OpenNode extends PythonFileNode {
 
+        public abstract Object executeWith(VirtualFrame frame, Object pathname, Object flags, Object mode, Object dirFd);
+
         @Specialization(guards = {"isNoValue(mode)", "isNoValue(dir_fd)"})
         Object open(VirtualFrame frame, Object pathname, long flags, @SuppressWarnings("unused") PNone mode, PNone dir_fd,
                         @Cached CastToPathNode cast) {
@@ -985,6 +1138,10 @@ public class PosixModuleBuiltins extends PythonBuiltins {
             }
             return options;
         }
+
+        public static OpenNode create() {
+            return PosixModuleBuiltinsFactory.OpenNodeFactory.create(null);
+        }
     }
 
     @Builtin(name = "lseek", minNumOfPositionalArgs = 3)
@@ -1146,7 +1303,13 @@ public class PosixModuleBuiltins extends PythonBuiltins {
 
         @TruffleBoundary(allowInlining = true, transferToInterpreterOnException = false)
         private static int doWriteOp(byte[] data, WritableByteChannel channel) throws IOException {
-            return channel.write(ByteBuffer.wrap(data));
+            PythonContext context = PythonLanguage.getContext();
+            boolean releasedGil = context.releaseGil();
+            try {
+                return channel.write(ByteBuffer.wrap(data));
+            } finally {
+                context.reacquireGil(releasedGil);
+            }
         }
 
         @Specialization
@@ -1172,6 +1335,36 @@ public class PosixModuleBuiltins extends PythonBuiltins {
             return write(frame, fd, getByteArray(data), channelClassProfile);
         }
 
+        @Specialization(guards = "lib.isBuffer(data)", limit = "3")
+        Object writeBuffer(VirtualFrame frame, int fd, Object data,
+                        @CachedLibrary("data") PythonObjectLibrary lib,
+                        @Cached("createClassProfile()") ValueProfile channelClassProfile) {
+            ByteBuffer src = toReadableBuffer(data, lib);
+            Channel channel = getResources().getFileChannel(fd, channelClassProfile);
+            if (channel instanceof WritableByteChannel) {
+                try {
+                    return doWriteOp(src, (WritableByteChannel) channel);
+                } catch (Exception e) {
+                    gotException.enter();
+                    throw raiseOSError(frame, e);
+                }
+            } else {
+                notWritable.enter();
+                throw raiseOSError(frame, OSErrorEnum.EBADF);
+            }
+        }
+
+        @TruffleBoundary(allowInlining = true, transferToInterpreterOnException = false)
+        private static int doWriteOp(ByteBuffer src, WritableByteChannel channel) throws IOException {
+            PythonContext context = PythonLanguage.getContext();
+            boolean releasedGil = context.releaseGil();
+            try {
+                return channel.write(src);
+            } finally {
+                context.reacquireGil(releasedGil);
+            }
+        }
+
         @Specialization(limit = "getCallSiteInlineCacheMaxDepth()")
         Object writePInt(VirtualFrame frame, Object fd, Object data,
                         @CachedLibrary("fd") PythonObjectLibrary lib,
@@ -1233,6 +1426,256 @@ public class PosixModuleBuiltins extends PythonBuiltins {
         }
     }
 
+    @Builtin(name = "pread", minNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    public abstract static class PreadNode extends PythonFileNode {
+        private final BranchProfile gotException = BranchProfile.create();
+
+        @Specialization
+        Object pread(VirtualFrame frame, Object fdObj, Object sizeObj, Object offsetObj,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary lib,
+                        @Cached CoerceToJavaLongNode castOffsetNode,
+                        @Cached("createClassProfile()") ValueProfile channelClassProfile) {
+            ThreadState state = PArguments.getThreadState(frame);
+            int fd = lib.asSizeWithState(fdObj, state);
+            int size = lib.asSizeWithState(sizeObj, state);
+            long offset = castOffsetNode.execute(offsetObj);
+            if (size < 0 || offset < 0) {
+                throw raiseOSError(frame, OSErrorEnum.EINVAL);
+            }
+            SeekableByteChannel channel = getSeekableChannel(frame, getResources().getFileChannel(fd, channelClassProfile));
+            try {
+                byte[] data = new byte[availableAt(channel, offset, size)];
+                int n = readAt(channel, data, offset);
+                return factory().createBytes(new ByteSequenceStorage(data, n));
+            } catch (IOException e) {
+                gotException.enter();
+                throw raiseOSError(frame, e);
+            }
+        }
+
+        @TruffleBoundary(allowInlining = true, transferToInterpreterOnException = false)
+        private static int availableAt(SeekableByteChannel channel, long offset, int size) throws IOException {
+            return (int) Math.max(0, Math.min(size, channel.size() - offset));
+        }
+    }
+
+    @Builtin(name = "pwrite", minNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    public abstract static class PwriteNode extends PythonFileNode {
+        private final BranchProfile gotException = BranchProfile.create();
+
+        @Specialization
+        Object pwrite(VirtualFrame frame, Object fdObj, Object data, Object offsetObj,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary lib,
+                        @Cached CoerceToJavaLongNode castOffsetNode,
+                        @Cached("createClassProfile()") ValueProfile channelClassProfile) {
+            int fd = lib.asSizeWithState(fdObj, PArguments.getThreadState(frame));
+            ByteBuffer src = toReadableBuffer(data, lib);
+            long offset = castOffsetNode.execute(offsetObj);
+            if (offset < 0) {
+                throw raiseOSError(frame, OSErrorEnum.EINVAL);
+            }
+            SeekableByteChannel channel = getSeekableChannel(frame, getResources().getFileChannel(fd, channelClassProfile));
+            try {
+                return writeAt(channel, src, offset);
+            } catch (IOException e) {
+                gotException.enter();
+                throw raiseOSError(frame, e);
+            }
+        }
+    }
+
+    @Builtin(name = "readv", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class ReadvNode extends PythonFileNode {
+        private final BranchProfile gotException = BranchProfile.create();
+
+        @Specialization
+        Object readv(VirtualFrame frame, Object fdObj, PSequence buffers,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary lib,
+                        @Cached GetObjectArrayNode getObjectArrayNode,
+                        @Cached("createClassProfile()") ValueProfile channelClassProfile) {
+            int fd = lib.asSizeWithState(fdObj, PArguments.getThreadState(frame));
+            Object[] items = getObjectArrayNode.execute(buffers);
+            ByteBuffer[] dsts = new ByteBuffer[items.length];
+            for (int i = 0; i < items.length; i++) {
+                dsts[i] = toWritableBuffer(items[i], lib);
+            }
+            Channel channel = getResources().getFileChannel(fd, channelClassProfile);
+            if (!(channel instanceof ReadableByteChannel)) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF);
+            }
+            try {
+                return scatter((ReadableByteChannel) channel, dsts);
+            } catch (IOException e) {
+                gotException.enter();
+                throw raiseOSError(frame, e);
+            }
+        }
+
+        @Fallback
+        Object readv(@SuppressWarnings("unused") Object fd, @SuppressWarnings("unused") Object buffers) {
+            throw raise(PythonBuiltinClassType.TypeError, "readv() arg 2 must be a sequence");
+        }
+
+        @TruffleBoundary(allowInlining = true, transferToInterpreterOnException = false)
+        private static long scatter(ReadableByteChannel channel, ByteBuffer[] dsts) throws IOException {
+            PythonContext context = PythonLanguage.getContext();
+            boolean releasedGil = context.releaseGil();
+            try {
+                if (channel instanceof ScatteringByteChannel) {
+                    return Math.max(0, ((ScatteringByteChannel) channel).read(dsts));
+                }
+                long total = 0;
+                for (ByteBuffer dst : dsts) {
+                    int n = channel.read(dst);
+                    if (n > 0) {
+                        total += n;
+                    }
+                    if (dst.hasRemaining()) {
+                        // like readv(2), a short read ends the transfer
+                        break;
+                    }
+                }
+                return total;
+            } finally {
+                context.reacquireGil(releasedGil);
+            }
+        }
+    }
+
+    @Builtin(name = "writev", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class WritevNode extends PythonFileNode {
+        private final BranchProfile gotException = BranchProfile.create();
+
+        @Specialization
+        Object writev(VirtualFrame frame, Object fdObj, PSequence buffers,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary lib,
+                        @Cached GetObjectArrayNode getObjectArrayNode,
+                        @Cached("createClassProfile()") ValueProfile channelClassProfile) {
+            int fd = lib.asSizeWithState(fdObj, PArguments.getThreadState(frame));
+            Object[] items = getObjectArrayNode.execute(buffers);
+            ByteBuffer[] srcs = new ByteBuffer[items.length];
+            for (int i = 0; i < items.length; i++) {
+                srcs[i] = toReadableBuffer(items[i], lib);
+            }
+            Channel channel = getResources().getFileChannel(fd, channelClassProfile);
+            if (!(channel instanceof WritableByteChannel)) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF);
+            }
+            try {
+                return gather((WritableByteChannel) channel, srcs);
+            } catch (IOException e) {
+                gotException.enter();
+                throw raiseOSError(frame, e);
+            }
+        }
+
+        @Fallback
+        Object writev(@SuppressWarnings("unused") Object fd, @SuppressWarnings("unused") Object buffers) {
+            throw raise(PythonBuiltinClassType.TypeError, "writev() arg 2 must be a sequence");
+        }
+
+        @TruffleBoundary(allowInlining = true, transferToInterpreterOnException = false)
+        private static long gather(WritableByteChannel channel, ByteBuffer[] srcs) throws IOException {
+            PythonContext context = PythonLanguage.getContext();
+            boolean releasedGil = context.releaseGil();
+            try {
+                if (channel instanceof GatheringByteChannel) {
+                    return ((GatheringByteChannel) channel).write(srcs);
+                }
+                long total = 0;
+                for (ByteBuffer src : srcs) {
+                    total += channel.write(src);
+                    if (src.hasRemaining()) {
+                        break;
+                    }
+                }
+                return total;
+            } finally {
+                context.reacquireGil(releasedGil);
+            }
+        }
+    }
+
+    @Builtin(name = "sendfile", minNumOfPositionalArgs = 4, parameterNames = {"out_fd", "in_fd", "offset", "count"})
+    @GenerateNodeFactory
+    public abstract static class SendfileNode extends PythonFileNode {
+        private final BranchProfile gotException = BranchProfile.create();
+
+        @Specialization
+        Object sendfile(VirtualFrame frame, Object outFdObj, Object inFdObj, Object offsetObj, Object countObj,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary lib,
+                        @Cached CoerceToJavaLongNode castOffsetNode,
+                        @Cached CoerceToJavaLongNode castCountNode,
+                        @Cached("createClassProfile()") ValueProfile channelClassProfile) {
+            ThreadState state = PArguments.getThreadState(frame);
+            int outFd = lib.asSizeWithState(outFdObj, state);
+            int inFd = lib.asSizeWithState(inFdObj, state);
+            // 'None' sends from the current position of 'in_fd' and advances it, like on Linux
+            long offset = PGuards.isNone(offsetObj) ? -1 : castOffsetNode.execute(offsetObj);
+            long count = castCountNode.execute(countObj);
+            if (count < 0 || (offset < 0 && !PGuards.isNone(offsetObj))) {
+                throw raiseOSError(frame, OSErrorEnum.EINVAL);
+            }
+            Channel out = getResources().getFileChannel(outFd, channelClassProfile);
+            Channel in = getResources().getFileChannel(inFd, channelClassProfile);
+            if (!(out instanceof WritableByteChannel) || !(in instanceof ReadableByteChannel)) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF);
+            }
+            if (offset >= 0 && !(in instanceof SeekableByteChannel)) {
+                throw raiseOSError(frame, OSErrorEnum.ESPIPE);
+            }
+            try {
+                return transfer((ReadableByteChannel) in, (WritableByteChannel) out, offset, count);
+            } catch (IOException e) {
+                gotException.enter();
+                throw raiseOSError(frame, e);
+            }
+        }
+
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        private static long transfer(ReadableByteChannel in, WritableByteChannel out, long offset, long count) throws IOException {
+            PythonContext context = PythonLanguage.getContext();
+            boolean releasedGil = context.releaseGil();
+            try {
+                if (offset >= 0) {
+                    // like readAt, keep other positional calls from moving the position meanwhile
+                    SeekableByteChannel seekable = (SeekableByteChannel) in;
+                    synchronized (seekable) {
+                        long savedPosition = seekable.position();
+                        try {
+                            seekable.position(offset);
+                            return copy(in, out, count);
+                        } finally {
+                            seekable.position(savedPosition);
+                        }
+                    }
+                }
+                return copy(in, out, count);
+            } finally {
+                context.reacquireGil(releasedGil);
+            }
+        }
+
+        private static long copy(ReadableByteChannel in, WritableByteChannel out, long count) throws IOException {
+            ByteBuffer buffer = TRANSFER_BUFFER.get();
+            buffer.clear();
+            buffer.limit((int) Math.min(count, buffer.capacity()));
+            int n = in.read(buffer);
+            if (n <= 0) {
+                return 0;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            return n;
+        }
+    }
+
     @Builtin(name = "isatty", minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     @TypeSystemReference(PythonArithmeticTypes.class)
@@ -1452,7 +1895,14 @@ public class PosixModuleBuiltins extends PythonBuiltins {
         PTuple waitpid(VirtualFrame frame, int pid, int options) {
             try {
                 if (options == 0) {
-                    int exitStatus = getResources().waitpid(pid);
+                    PythonContext context = getContext();
+                    boolean releasedGil = context.releaseGil();
+                    int exitStatus;
+                    try {
+                        exitStatus = getResources().waitpid(pid);
+                    } finally {
+                        context.reacquireGil(releasedGil);
+                    }
                     return factory().createTuple(new Object[]{pid, exitStatus});
                 } else if (options == WNOHANG) {
                     int exitStatus = getResources().exitStatus(pid);
@@ -1564,7 +2014,13 @@ public class PosixModuleBuiltins extends PythonBuiltins {
                     stdout.start();
                     stderr.start();
                 }
-                int exitStatus = proc.waitFor();
+                boolean releasedGil = context.releaseGil();
+                int exitStatus;
+                try {
+                    exitStatus = proc.waitFor();
+                } finally {
+                    context.reacquireGil(releasedGil);
+                }
                 if (stdsArePipes) {
                     stdout.finish();
                     stderr.finish();
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.SourceSection;
+
+/**
+ * A deterministic profiler in the manner of CPython's {@code _lsprof}. While enabled, it is the
+ * profile function of its thread and receives every call and return of a Python function from the
+ * trace instrumentation, recording exact call counts and inline and total times per code object.
+ */
+public final class Profiler extends PythonBuiltinObject {
+    boolean subcalls = true;
+    boolean builtins = true;
+    double timeunit;
+    Object externalTimer;
+
+    /* keyed by source section, so that split copies of a root node share one entry */
+    private final Map<Object, ProfilerEntry> entries = new LinkedHashMap<>();
+    private ProfilerContext current;
+    private long lastTime;
+
+    public Profiler(LazyPythonClass cls) {
+        super(cls);
+    }
+
+    /**
+     * Statistics of one code object, corresponds to {@code profiler_entry}.
+     */
+    static final class ProfilerEntry extends ProfilerSubEntry {
+        final RootNode root;
+        final Map<ProfilerEntry, ProfilerSubEntry> calls = new LinkedHashMap<>();
+        Object code;
+
+        ProfilerEntry(RootNode root) {
+            this.root = root;
+        }
+    }
+
+    /**
+     * Statistics of the calls from one code object to another, corresponds to
+     * {@code profiler_subentry}.
+     */
+    static class ProfilerSubEntry {
+        long callCount;
+        long recursiveCallCount;
+        long totalTime;
+        long inlineTime;
+        int recursionLevel;
+
+        final void exit(long total, long inline) {
+            if (--recursionLevel == 0) {
+                totalTime += total;
+            } else {
+                recursiveCallCount++;
+            }
+            inlineTime += inline;
+            callCount++;
+        }
+    }
+
+    private static final class ProfilerContext {
+        final ProfilerContext previous;
+        final ProfilerEntry entry;
+        final ProfilerSubEntry subentry;
+        final long start;
+        long subcallTime;
+
+        ProfilerContext(ProfilerContext previous, ProfilerEntry entry, ProfilerSubEntry subentry, long start) {
+            this.previous = previous;
+            this.entry = entry;
+            this.subentry = subentry;
+            this.start = start;
+        }
+    }
+
+    public Object getExternalTimer() {
+        return externalTimer;
+    }
+
+    /**
+     * Converts the result of the external timer to the ticks that are recorded. Like in CPython,
+     * the timer returns integer ticks of {@code timeunit} seconds if a time unit was given, and
+     * seconds otherwise. Other results count as {@code 0}.
+     */
+    @TruffleBoundary
+    public long timerToTicks(Object value) {
+        if (timeunit > 0) {
+            if (value instanceof Number) {
+                return ((Number) value).longValue();
+            } else if (value instanceof PInt) {
+                return ((PInt) value).longValue();
+            }
+        }
+        double seconds;
+        if (value instanceof Number) {
+            seconds = ((Number) value).doubleValue();
+        } else if (value instanceof PInt) {
+            seconds = ((PInt) value).doubleValue();
+        } else if (value instanceof PFloat) {
+            seconds = ((PFloat) value).getValue();
+        } else if (value instanceof Boolean) {
+            seconds = (Boolean) value ? 1 : 0;
+        } else {
+            return 0;
+        }
+        return (long) (seconds * 1e9);
+    }
+
+    /**
+     * The factor that converts ticks to seconds.
+     */
+    double getTickSeconds() {
+        return externalTimer != null && timeunit > 0 ? timeunit : 1e-9;
+    }
+
+    @TruffleBoundary
+    public void enter(RootNode root, long now) {
+        SourceSection section = root.getSourceSection();
+        Object key = section != null ? section : root;
+        ProfilerEntry entry = entries.get(key);
+        if (entry == null) {
+            entry = new ProfilerEntry(root);
+            entries.put(key, entry);
+        }
+        entry.recursionLevel++;
+        ProfilerSubEntry subentry = null;
+        if (subcalls && current != null) {
+            subentry = current.entry.calls.get(entry);
+            if (subentry == null) {
+                subentry = new ProfilerSubEntry();
+                current.entry.calls.put(entry, subentry);
+            }
+            subentry.recursionLevel++;
+        }
+        current = new ProfilerContext(current, entry, subentry, now);
+        lastTime = now;
+    }
+
+    @TruffleBoundary
+    public void exit(long now) {
+        ProfilerContext context = current;
+        lastTime = now;
+        if (context == null) {
+            // returning from a call that started before the profiler was enabled
+            return;
+        }
+        long total = now - context.start;
+        long inline = total - context.subcallTime;
+        current = context.previous;
+        if (current != null) {
+            current.subcallTime += total;
+        }
+        context.entry.exit(total, inline);
+        if (context.subentry != null) {
+            context.subentry.exit(total, inline);
+        }
+    }
+
+    /**
+     * Records the calls that are still running as if they returned at the last event.
+     */
+    @TruffleBoundary
+    void flushUnmatched() {
+        while (current != null) {
+            exit(lastTime);
+        }
+    }
+
+    @TruffleBoundary
+    void clear() {
+        entries.clear();
+        current = null;
+    }
+
+    @TruffleBoundary
+    List<ProfilerEntry> getEntries() {
+        return new ArrayList<>(entries.values());
+    }
+}
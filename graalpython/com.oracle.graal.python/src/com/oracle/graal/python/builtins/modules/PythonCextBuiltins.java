@@ -209,6 +209,7 @@ import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
 import com.oracle.graal.python.runtime.ExecutionContext.IndirectCallContext;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.PythonOptions;
 import com.oracle.graal.python.runtime.exception.ExceptionUtils;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
@@ -2081,8 +2082,16 @@ public class PythonCextBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class PyTruffleHandleCacheCreate extends PythonUnaryBuiltinNode {
         @Specialization
+        @TruffleBoundary
         Object createCache(TruffleObject ptrToResolveHandle) {
-            return new HandleCache(ptrToResolveHandle);
+            PythonContext context = getContext();
+            boolean statistics = context.getOption(PythonOptions.CAPIHandleCacheStatistics);
+            HandleCache cache = new HandleCache(ptrToResolveHandle, context.getOption(PythonOptions.CAPIHandleCacheSize), statistics);
+            context.setCApiHandleCache(cache);
+            if (statistics) {
+                context.registerShutdownHook(cache::printStatistics);
+            }
+            return cache;
         }
     }
 
@@ -57,15 +57,22 @@ import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
 import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.select.PPoll;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.SpecialMethodNames;
 import com.oracle.graal.python.nodes.builtins.ListNodes.FastConstructListNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToJavaIntNode;
 import com.oracle.graal.python.nodes.util.CoerceToDoubleNode;
 import com.oracle.graal.python.nodes.util.CoerceToFileDescriptorNode;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.sequence.PSequence;
 import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -85,6 +92,66 @@ public class SelectModuleBuiltins extends PythonBuiltins {
         return SelectModuleBuiltinsFactory.getFactories();
     }
 
+    @Override
+    public void initialize(PythonCore core) {
+        super.initialize(core);
+        builtinConstants.put("POLLIN", PPoll.POLLIN);
+        builtinConstants.put("POLLPRI", PPoll.POLLPRI);
+        builtinConstants.put("POLLOUT", PPoll.POLLOUT);
+        builtinConstants.put("POLLERR", PPoll.POLLERR);
+        builtinConstants.put("POLLHUP", PPoll.POLLHUP);
+        builtinConstants.put("POLLNVAL", PPoll.POLLNVAL);
+        builtinConstants.put("POLLRDNORM", PPoll.POLLRDNORM);
+        builtinConstants.put("POLLRDBAND", PPoll.POLLRDBAND);
+        builtinConstants.put("POLLWRNORM", PPoll.POLLWRNORM);
+        builtinConstants.put("POLLWRBAND", PPoll.POLLWRBAND);
+        builtinConstants.put("POLLMSG", PPoll.POLLMSG);
+        builtinConstants.put("POLLRDHUP", PPoll.POLLRDHUP);
+
+        builtinConstants.put("EPOLLIN", PPoll.POLLIN);
+        builtinConstants.put("EPOLLPRI", PPoll.POLLPRI);
+        builtinConstants.put("EPOLLOUT", PPoll.POLLOUT);
+        builtinConstants.put("EPOLLERR", PPoll.POLLERR);
+        builtinConstants.put("EPOLLHUP", PPoll.POLLHUP);
+        builtinConstants.put("EPOLLRDNORM", PPoll.POLLRDNORM);
+        builtinConstants.put("EPOLLRDBAND", PPoll.POLLRDBAND);
+        builtinConstants.put("EPOLLWRNORM", PPoll.POLLWRNORM);
+        builtinConstants.put("EPOLLWRBAND", PPoll.POLLWRBAND);
+        builtinConstants.put("EPOLLMSG", PPoll.POLLMSG);
+        builtinConstants.put("EPOLLRDHUP", PPoll.POLLRDHUP);
+        builtinConstants.put("EPOLLEXCLUSIVE", PPoll.EPOLLEXCLUSIVE);
+        builtinConstants.put("EPOLLONESHOT", PPoll.EPOLLONESHOT);
+        // an unsigned int in CPython
+        builtinConstants.put("EPOLLET", Integer.toUnsignedLong(PPoll.EPOLLET));
+        builtinConstants.put("EPOLL_CLOEXEC", PPoll.EPOLL_CLOEXEC);
+    }
+
+    @Builtin(name = "poll", minNumOfPositionalArgs = 1, constructsClass = PythonBuiltinClassType.PPoll)
+    @GenerateNodeFactory
+    abstract static class PollNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PPoll create(LazyPythonClass cls) {
+            return factory().createPoll(cls);
+        }
+    }
+
+    @Builtin(name = "epoll", minNumOfPositionalArgs = 1, parameterNames = {"cls", "sizehint", "flags"}, constructsClass = PythonBuiltinClassType.PEpoll)
+    @GenerateNodeFactory
+    abstract static class EpollNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PPoll create(LazyPythonClass cls, Object sizehint, @SuppressWarnings("unused") Object flags,
+                        @Cached CastToJavaIntNode castToIntNode) {
+            // the size hint is only validated, the selector grows as needed
+            if (!PGuards.isNoValue(sizehint)) {
+                int size = castToIntNode.execute(sizehint);
+                if (size == 0 || size < -1) {
+                    throw raise(PythonBuiltinClassType.ValueError, "negative sizehint");
+                }
+            }
+            return factory().createPoll(cls);
+        }
+    }
+
     @Builtin(name = "select", minNumOfPositionalArgs = 3, parameterNames = {"rlist", "wlist", "xlist", "timeout"})
     @GenerateNodeFactory
     abstract static class SelectNode extends PythonBuiltinNode {
@@ -142,6 +209,8 @@ public class SelectModuleBuiltins extends PythonBuiltins {
                 throw raise(PythonBuiltinClassType.ValueError, "timeout must be non-negative");
             }
 
+            PythonContext context = getContext();
+            boolean releasedGil = context.releaseGil();
             try {
                 doSelect(readFDs, writeFDs, xFDs, timeoutMillis);
             } catch (ClosedChannelException e) {
@@ -153,6 +222,8 @@ public class SelectModuleBuiltins extends PythonBuiltins {
                 throw raiseOSError(frame, e);
             } catch (RuntimeException e) {
                 throw raise(PythonBuiltinClassType.SystemError, e);
+            } finally {
+                context.reacquireGil(releasedGil);
             }
 
             return factory().createTuple(new PList[]{toList(readFDs), toList(writeFDs), toList(xFDs)});
@@ -160,7 +231,13 @@ public class SelectModuleBuiltins extends PythonBuiltins {
 
         @TruffleBoundary
         private static void doSelect(ChannelFD[] readFDs, ChannelFD[] writeFDs, ChannelFD[] xFDs, long timeoutMillis) throws IOException {
-            Selector selector = Selector.open();
+            // closing the selector also deregisters the channels again
+            try (Selector selector = Selector.open()) {
+                doSelect(selector, readFDs, writeFDs, xFDs, timeoutMillis);
+            }
+        }
+
+        private static void doSelect(Selector selector, ChannelFD[] readFDs, ChannelFD[] writeFDs, ChannelFD[] xFDs, long timeoutMillis) throws IOException {
 
             for (ChannelFD readFD : readFDs) {
                 readFD.channel.configureBlocking(false);
@@ -40,6 +40,7 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.NotImplementedError;
 import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
 import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__SIZEOF__;
@@ -66,13 +67,16 @@ import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.builtins.objects.traceback.PTraceback;
+import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode.NoAttributeHandler;
 import com.oracle.graal.python.nodes.frame.ReadCallerFrameNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.util.CoerceToDoubleNode;
 import com.oracle.graal.python.nodes.util.CoerceToIntegerNode;
 import com.oracle.graal.python.nodes.util.ExceptionStateNodes.GetCaughtExceptionNode;
 import com.oracle.graal.python.runtime.PythonContext;
@@ -500,4 +504,82 @@ public class SysModuleBuiltins extends PythonBuiltins {
             return LookupAndCallUnaryNode.create(__SIZEOF__);
         }
     }
+
+    @Builtin(name = "getswitchinterval", minNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class GetSwitchIntervalNode extends PythonBuiltinNode {
+        @Specialization
+        double get() {
+            return getContext().getSwitchInterval();
+        }
+    }
+
+    @Builtin(name = "setswitchinterval", minNumOfPositionalArgs = 1, parameterNames = {"interval"})
+    @GenerateNodeFactory
+    abstract static class SetSwitchIntervalNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object set(VirtualFrame frame, Object interval,
+                        @Cached CoerceToDoubleNode coerceToDoubleNode) {
+            double value = coerceToDoubleNode.execute(frame, interval);
+            if (value <= 0.0) {
+                throw raise(ValueError, "switch interval must be strictly positive");
+            }
+            getContext().setSwitchInterval(value);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "settrace", minNumOfPositionalArgs = 1, parameterNames = {"function"})
+    @GenerateNodeFactory
+    abstract static class SetTraceNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object set(Object function) {
+            PythonContext context = getContext();
+            if (PGuards.isNone(function)) {
+                context.setTraceFunction(null);
+            } else if (context.isTraceHooksAvailable()) {
+                context.setTraceFunction(function);
+            } else {
+                throw raise(NotImplementedError, "tracing is not available");
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "gettrace", minNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class GetTraceNode extends PythonBuiltinNode {
+        @Specialization
+        Object get() {
+            Object function = getContext().getTraceFunction();
+            return function != null ? function : PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "setprofile", minNumOfPositionalArgs = 1, parameterNames = {"function"})
+    @GenerateNodeFactory
+    abstract static class SetProfileNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object set(Object function) {
+            PythonContext context = getContext();
+            if (PGuards.isNone(function)) {
+                context.setProfileFunction(null);
+            } else if (context.isTraceHooksAvailable()) {
+                context.setProfileFunction(function);
+            } else {
+                throw raise(NotImplementedError, "profiling is not available");
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "getprofile", minNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class GetProfileNode extends PythonBuiltinNode {
+        @Specialization
+        Object get() {
+            Object function = getContext().getProfileFunction();
+            return function != null ? function : PNone.NONE;
+        }
+    }
 }
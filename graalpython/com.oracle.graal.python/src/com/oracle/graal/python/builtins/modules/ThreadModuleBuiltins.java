@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -65,7 +65,6 @@ import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
-import com.oracle.truffle.api.TruffleLanguage;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.CachedContext;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
@@ -124,7 +123,7 @@ public class ThreadModuleBuiltins extends PythonBuiltins {
         @Specialization
         @TruffleBoundary
         long getCount() {
-            return getContext().getThreadGroup().activeCount();
+            return getContext().getThreadLauncher().getRunningThreadCount();
         }
     }
 
@@ -165,23 +164,29 @@ public class ThreadModuleBuiltins extends PythonBuiltins {
                         @Cached ExecutePositionalStarargsNode getArgsNode,
                         @Cached ExpandKeywordStarargsNode getKwArgsNode) {
             PythonContext context = getContext();
-            TruffleLanguage.Env env = context.getEnv();
 
             // TODO: python thread stack size != java thread stack size
             // ignore setting the stack size for the moment
-            Thread thread = env.createThread(() -> {
-                Object[] arguments = getArgsNode.executeWith(frame, args);
-                PKeyword[] keywords = getKwArgsNode.executeWith(kwargs);
-
-                // n.b.: It is important to pass 'null' frame here because each thread has it's own
-                // stack and if we would pass the current frame, this would be connected as a caller
-                // which is incorrect. However, the thread-local 'topframeref' is initialized with
-                // EMPTY which will be picked up.
-                callNode.execute(null, callable, arguments, keywords);
-            }, env.getContext(), context.getThreadGroup());
+            // the thread that starts the first other thread takes the GIL (if there is one) so
+            // that from now on only one of them runs at a time
+            context.acquireGil();
+            Thread thread = context.getThreadLauncher().start(() -> {
+                context.acquireGil();
+                try {
+                    Object[] arguments = getArgsNode.executeWith(frame, args);
+                    PKeyword[] keywords = getKwArgsNode.executeWith(kwargs);
+
+                    // n.b.: It is important to pass 'null' frame here because each thread has it's
+                    // own stack and if we would pass the current frame, this would be connected as
+                    // a caller which is incorrect. However, the thread-local 'topframeref' is
+                    // initialized with EMPTY which will be picked up.
+                    callNode.execute(null, callable, arguments, keywords);
+                } finally {
+                    context.releaseGil();
+                }
+            });
 
             PThread pThread = factory().createPythonThread(cls, thread);
-            pThread.start();
             return pThread.getId();
         }
     }
@@ -61,14 +61,18 @@ import com.oracle.graal.python.builtins.objects.bytes.PBytes;
 import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodesFactory.ToByteArrayNodeGen;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.zlib.PZLibCompress;
+import com.oracle.graal.python.builtins.objects.zlib.PZLibDecompress;
+import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
 import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
 import com.oracle.graal.python.nodes.util.CoerceToIntegerNode;
-import com.oracle.graal.python.nodes.util.CastToJavaIntNode;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -78,7 +82,7 @@ import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.dsl.TypeSystemReference;
 import com.oracle.truffle.api.frame.VirtualFrame;
-import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.library.CachedLibrary;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 
 @CoreFunctions(defineModule = ZLibModuleBuiltins.MODULE_NAME)
@@ -87,7 +91,7 @@ public class ZLibModuleBuiltins extends PythonBuiltins {
     protected static final int MAX_WBITS = 15;
     protected static final int DEFLATED = 8;
     protected static final int DEF_MEM_LEVEL = 8;
-    protected static final int DEF_BUF_SIZE = 16 * 1024;
+    public static final int DEF_BUF_SIZE = 16 * 1024;
     // compression levels
     protected static final int Z_NO_COMPRESSION = 0;
     protected static final int Z_BEST_SPEED = 1;
@@ -100,11 +104,11 @@ public class ZLibModuleBuiltins extends PythonBuiltins {
     protected static final int Z_FIXED = 4;
     protected static final int Z_DEFAULT_STRATEGY = 0;
     // allowed flush values
-    protected static final int Z_NO_FLUSH = 0;
+    public static final int Z_NO_FLUSH = 0;
     protected static final int Z_PARTIAL_FLUSH = 1;
     protected static final int Z_SYNC_FLUSH = 2;
-    protected static final int Z_FULL_FLUSH = 3;
-    protected static final int Z_FINISH = 4;
+    public static final int Z_FULL_FLUSH = 3;
+    public static final int Z_FINISH = 4;
     protected static final int Z_BLOCK = 5;
     protected static final int Z_TREES = 6;
 
@@ -355,104 +359,66 @@ public class ZLibModuleBuiltins extends PythonBuiltins {
         }
     }
 
-    @Builtin(name = "zlib_deflateInit", minNumOfPositionalArgs = 6)
+    // zlib.compressobj(level=-1, method=DEFLATED, wbits=MAX_WBITS, memLevel=DEF_MEM_LEVEL,
+    // strategy=Z_DEFAULT_STRATEGY, zdict=None)
+    @Builtin(name = "compressobj", parameterNames = {"level", "method", "wbits", "memLevel", "strategy", "zdict"})
     @GenerateNodeFactory
-    abstract static class DeflateInitNode extends PythonBuiltinNode {
+    abstract static class CompressObjNode extends PythonBuiltinNode {
         /**
-         * @param memLevel is ignored - it mostly affects performance and compression rate, we trust
-         *            that the Deflater implementation will work well
+         * @param memLevelObj is ignored - it mostly affects performance and compression rate, we
+         *            trust that the Deflater implementation will work well
          */
         @Specialization
-        @TruffleBoundary
-        Object deflateInit(int level, int method, int wbits, int memLevel, int strategy, Object zdict) {
-            Deflater deflater;
-            if (wbits < 0) {
-                // generate a RAW stream, i.e., no wrapping
-                deflater = new Deflater(level, true);
-            } else if (wbits >= 25) {
-                // include gzip container
-                throw raise(PythonBuiltinClassType.NotImplementedError, "gzip containers");
-            } else {
-                // wrap stream with zlib header and trailer
-                deflater = new Deflater(level, false);
-            }
-
+        PZLibCompress compressobj(VirtualFrame frame, Object levelObj, Object methodObj, Object wbitsObj, @SuppressWarnings("unused") Object memLevelObj, Object strategyObj, Object zdictObj,
+                        @Cached ToBytesNode toBytesNode,
+                        @CachedLibrary(limit = "4") PythonObjectLibrary lib) {
+            int level = PGuards.isPNone(levelObj) ? Z_DEFAULT_COMPRESSION : lib.asSizeWithState(levelObj, PArguments.getThreadState(frame));
+            int method = PGuards.isPNone(methodObj) ? DEFLATED : lib.asSizeWithState(methodObj, PArguments.getThreadState(frame));
+            int wbits = PGuards.isPNone(wbitsObj) ? MAX_WBITS : lib.asSizeWithState(wbitsObj, PArguments.getThreadState(frame));
+            int strategy = PGuards.isPNone(strategyObj) ? Z_DEFAULT_STRATEGY : lib.asSizeWithState(strategyObj, PArguments.getThreadState(frame));
+            byte[] zdict = PGuards.isPNone(zdictObj) ? null : toBytesNode.execute(frame, zdictObj);
             if (method != DEFLATED) {
                 throw raise(PythonBuiltinClassType.ValueError, "only DEFLATED (%d) allowed as method, got %d", DEFLATED, method);
             }
-            deflater.setStrategy(strategy);
-            if (zdict instanceof String) {
-                deflater.setDictionary(((String) zdict).getBytes());
-            } else if (!(zdict instanceof PNone)) {
-                throw raise(PythonBuiltinClassType.ValueError, "zdict must be a str, not %p", zdict);
-            }
-            return new DeflaterWrapper(deflater);
-        }
-    }
-
-    static class DeflaterWrapper implements TruffleObject {
-        private final Deflater deflater;
-
-        public DeflaterWrapper(Deflater deflater) {
-            this.deflater = deflater;
-        }
-    }
-
-    @Builtin(name = "zlib_deflateCompress", minNumOfPositionalArgs = 3)
-    @GenerateNodeFactory
-    abstract static class DeflateCompress extends PythonTernaryBuiltinNode {
-        @Child private ToBytesNode toBytes = ToBytesNode.create();
-
-        @Specialization
-        Object deflateCompress(VirtualFrame frame, DeflaterWrapper stream, Object pb, int mode) {
-            byte[] data = toBytes.execute(frame, pb);
-            byte[] result = new byte[DEF_BUF_SIZE];
-
-            ByteArrayOutputStream baos = deflate(stream, mode, data, result);
-
-            return factory().createBytes(baos.toByteArray());
-        }
-
-        @TruffleBoundary
-        private static ByteArrayOutputStream deflate(DeflaterWrapper stream, int mode, byte[] data, byte[] result) {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            stream.deflater.setInput(data);
-            int deflateMode = mode;
-            if (mode == Z_FINISH) {
-                deflateMode = Z_SYNC_FLUSH;
-                stream.deflater.finish();
-            }
-
-            int bytesWritten = result.length;
-            while (bytesWritten == result.length) {
-                bytesWritten = stream.deflater.deflate(result, 0, result.length, deflateMode);
-                baos.write(result, 0, bytesWritten);
+            if (level < Z_DEFAULT_COMPRESSION || level > Z_BEST_COMPRESSION || strategy < Z_DEFAULT_STRATEGY || strategy > Z_FIXED) {
+                throw raise(PythonBuiltinClassType.ValueError, "Invalid initialization option");
             }
-
-            if (mode == Z_FINISH) {
-                stream.deflater.end();
+            if (wbits >= 25) {
+                // include gzip container
+                throw raise(PythonBuiltinClassType.NotImplementedError, "gzip containers");
             }
-            return baos;
+            // negative wbits generate a RAW stream, i.e., no zlib header and trailer
+            Deflater deflater = PZLibCompress.createDeflater(level, wbits < 0, strategy, zdict);
+            return factory().createZLibCompress(deflater, level, wbits, strategy, zdict);
         }
     }
 
-    @Builtin(name = "zlib_inflateInit", minNumOfPositionalArgs = 2)
+    // zlib.decompressobj(wbits=MAX_WBITS, zdict=b'')
+    @Builtin(name = "decompressobj", parameterNames = {"wbits", "zdict"})
     @GenerateNodeFactory
-    abstract static class InflateInitNode extends PythonBinaryBuiltinNode {
-        @Child private ToBytesNode toBytes = ToBytesNode.create();
-
+    abstract static class DecompressObjNode extends PythonBinaryBuiltinNode {
         @Specialization
-        Object init(VirtualFrame frame, int wbits, PBytes zdict) {
-            byte[] bytes = toBytes.execute(frame, zdict);
-            return new InflaterWrapper(inflate(wbits, bytes));
+        PZLibDecompress decompressobj(VirtualFrame frame, Object wbitsObj, Object zdictObj,
+                        @Cached ToBytesNode toBytesNode,
+                        @CachedLibrary(limit = "4") PythonObjectLibrary lib) {
+            int wbits = PGuards.isPNone(wbitsObj) ? MAX_WBITS : lib.asSizeWithState(wbitsObj, PArguments.getThreadState(frame));
+            byte[] zdict = PGuards.isPNone(zdictObj) ? null : toBytesNode.execute(frame, zdictObj);
+            if (zdict != null && zdict.length == 0) {
+                zdict = null;
+            }
+            return factory().createZLibDecompress(createInflater(wbits, zdict), zdict);
         }
 
         @TruffleBoundary
-        private Inflater inflate(int wbits, byte[] bytes) {
+        private Inflater createInflater(int wbits, byte[] zdict) {
             Inflater inflater;
             if (wbits < 0) {
                 // generate a RAW stream, i.e., no wrapping
                 inflater = new Inflater(true);
+                // raw streams do not ask for their dictionary, it must be set up front
+                if (zdict != null) {
+                    inflater.setDictionary(zdict);
+                }
             } else if (wbits >= 25) {
                 // include gzip container
                 throw raise(PythonBuiltinClassType.NotImplementedError, "gzip containers");
@@ -460,74 +426,10 @@ public class ZLibModuleBuiltins extends PythonBuiltins {
                 // wrap stream with zlib header and trailer
                 inflater = new Inflater(false);
             }
-
-            inflater.setDictionary(bytes);
             return inflater;
         }
     }
 
-    static class InflaterWrapper implements TruffleObject {
-        private final Inflater inflater;
-
-        public InflaterWrapper(Inflater inflater) {
-            this.inflater = inflater;
-        }
-
-        @TruffleBoundary(allowInlining = true)
-        private boolean needsInput() {
-            return inflater.needsInput();
-        }
-
-        @TruffleBoundary(allowInlining = true)
-        private int getRemaining() {
-            return inflater.getRemaining();
-        }
-    }
-
-    @Builtin(name = "zlib_inflateDecompress", minNumOfPositionalArgs = 3)
-    @GenerateNodeFactory
-    abstract static class InflaterDecompress extends PythonTernaryBuiltinNode {
-        @Child private ToBytesNode toBytes = ToBytesNode.create();
-
-        @Specialization
-        Object decompress(VirtualFrame frame, InflaterWrapper stream, PIBytesLike pb, int maxLen) {
-            int maxLength = maxLen == 0 ? Integer.MAX_VALUE : maxLen;
-
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            byte[] data = toBytes.execute(frame, pb);
-            byte[] result = new byte[Math.min(maxLen, DEF_BUF_SIZE)];
-            byte[] decompressed = decompress(stream, maxLength, baos, data, result);
-
-            return factory().createTuple(new Object[]{
-                            factory().createBytes(decompressed),
-                            stream.inflater.finished(),
-                            stream.getRemaining()
-            });
-        }
-
-        @Specialization
-        Object decompress(VirtualFrame frame, InflaterWrapper stream, PIBytesLike pb, long maxLen,
-                        @Cached CastToJavaIntNode castInt) {
-            return decompress(frame, stream, pb, castInt.execute(maxLen));
-        }
-
-        @TruffleBoundary
-        private byte[] decompress(InflaterWrapper stream, int maxLength, ByteArrayOutputStream baos, byte[] data, byte[] result) {
-            stream.inflater.setInput(data);
-            int bytesWritten = result.length;
-            while (baos.size() < maxLength && bytesWritten == result.length) {
-                try {
-                    bytesWritten = stream.inflater.inflate(result, 0, result.length);
-                } catch (DataFormatException e) {
-                    throw raise(ZLibError, e);
-                }
-                baos.write(result, 0, bytesWritten);
-            }
-            byte[] decompressed = baos.toByteArray();
-            return decompressed;
-        }
-    }
-
     // zlib.compress(data, level=-1)
     @Builtin(name = "compress", minNumOfPositionalArgs = 1, parameterNames = {"", "level"})
     @TypeSystemReference(PythonArithmeticTypes.class)
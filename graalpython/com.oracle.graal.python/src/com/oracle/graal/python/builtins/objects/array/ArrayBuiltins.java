@@ -39,9 +39,12 @@ import static com.oracle.graal.python.nodes.SpecialMethodNames.__MUL__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__NE__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__RMUL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETITEM__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__STR__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.MemoryError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
-import java.util.Arrays;
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
@@ -49,33 +52,35 @@ import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
-import com.oracle.graal.python.builtins.objects.array.ArrayBuiltinsFactory.ArrayNoGeneralizationNodeGen;
 import com.oracle.graal.python.builtins.objects.common.IndexNodes.NormalizeIndexNode;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
-import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.GenNodeSupplier;
-import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.GeneralizationNode;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.slice.PSlice;
+import com.oracle.graal.python.builtins.objects.slice.PSlice.SliceInfo;
+import com.oracle.graal.python.builtins.objects.str.StringBuiltins;
 import com.oracle.graal.python.builtins.objects.type.TypeNodes;
-import com.oracle.graal.python.nodes.SpecialMethodNames;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
-import com.oracle.graal.python.runtime.sequence.storage.BasicSequenceStorage;
-import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
-import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
-import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
-import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
-import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.PackedSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.PackedSequenceStorage.Format;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
-import com.oracle.truffle.api.dsl.GenerateUncached;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
+import com.oracle.truffle.api.library.CachedLibrary;
 
 @CoreFunctions(extendClasses = PythonBuiltinClassType.PArray)
 public class ArrayBuiltins extends PythonBuiltins {
@@ -89,19 +94,39 @@ public class ArrayBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class AddNode extends PythonBinaryBuiltinNode {
         @Specialization
-        PArray doPArray(PArray left, PArray right,
-                        @Cached("create()") SequenceStorageNodes.ConcatNode concatNode) {
-            return factory().createArray(concatNode.execute(left.getSequenceStorage(), right.getSequenceStorage()));
+        PArray doPArray(PArray left, PArray right) {
+            PackedSequenceStorage leftStorage = left.getSequenceStorage();
+            PackedSequenceStorage rightStorage = right.getSequenceStorage();
+            if (leftStorage.getFormat() != rightStorage.getFormat()) {
+                throw raise(TypeError, "bad argument type for built-in operation");
+            }
+            PackedSequenceStorage result = new PackedSequenceStorage(leftStorage.getFormat(), leftStorage.length() + rightStorage.length());
+            result.appendBytes(leftStorage.getInternalByteArray(), 0, leftStorage.getByteLength());
+            result.appendBytes(rightStorage.getInternalByteArray(), 0, rightStorage.getByteLength());
+            return factory().createArray(result);
+        }
+
+        @Fallback
+        Object doGeneric(@SuppressWarnings("unused") Object left, Object right) {
+            throw raise(TypeError, "can only append array (not \"%p\") to array", right);
         }
     }
 
     @Builtin(name = __MUL__, minNumOfPositionalArgs = 2)
     @GenerateNodeFactory
     abstract static class MulNode extends PythonBuiltinNode {
-        @Specialization
+        @Specialization(limit = "3")
         PArray mul(VirtualFrame frame, PArray self, Object times,
-                        @Cached("create()") SequenceStorageNodes.RepeatNode repeatNode) {
-            return factory().createArray(repeatNode.execute(frame, self.getSequenceStorage(), times));
+                        @CachedLibrary("times") PythonObjectLibrary lib) {
+            if (!lib.canBeIndex(times)) {
+                throw raise(TypeError, "can't multiply sequence by non-int of type '%p'", times);
+            }
+            int count = Math.max(0, lib.asSizeWithState(times, PArguments.getThreadState(frame)));
+            try {
+                return factory().createArray(self.getSequenceStorage().repeat(count));
+            } catch (ArithmeticException | OutOfMemoryError e) {
+                throw raise(MemoryError);
+            }
         }
     }
 
@@ -189,27 +214,26 @@ public class ArrayBuiltins extends PythonBuiltins {
         @Specialization
         @TruffleBoundary
         String str(PArray self) {
-            // TODO: this needs to be enhanced, but it is slow path and not critical for now
-            // mostly cosmetic
-            String typeCode = "?";
-            String array = "?";
-            SequenceStorage sequenceStorage = self.getSequenceStorage();
-            if (sequenceStorage instanceof IntSequenceStorage) {
-                typeCode = "i";
-                array = Arrays.toString(((IntSequenceStorage) sequenceStorage).getInternalIntArray());
-            } else if (sequenceStorage instanceof ByteSequenceStorage) {
-                typeCode = "b";
-                array = Arrays.toString(((ByteSequenceStorage) sequenceStorage).getInternalByteArray());
-            } else if (sequenceStorage instanceof DoubleSequenceStorage) {
-                typeCode = "d";
-                array = Arrays.toString(((DoubleSequenceStorage) sequenceStorage).getInternalDoubleArray());
-            }
+            PackedSequenceStorage storage = self.getSequenceStorage();
+            Format format = storage.getFormat();
             String typeName = TypeNodes.GetNameNode.doSlowPath(self.getLazyPythonClass());
-            if (sequenceStorage.length() == 0) {
-                return String.format("%s('%s')", typeName, typeCode);
-            } else {
-                return String.format("%s('%s', %s)", typeName, typeCode, array);
+            if (storage.length() == 0) {
+                return String.format("%s('%c')", typeName, format.typeCode);
+            } else if (format.isUnicode()) {
+                return String.format("%s('%c', %s)", typeName, format.typeCode, StringBuiltins.ReprNode.repr(toUnicode(storage)));
             }
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < storage.length(); i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                if (format.isFloatingPoint()) {
+                    sb.append(PFloat.doubleToString(storage.getDoubleItemNormalized(i)));
+                } else {
+                    sb.append(storage.getItemNormalized(i));
+                }
+            }
+            return String.format("%s('%c', [%s])", typeName, format.typeCode, sb);
         }
     }
 
@@ -234,29 +258,67 @@ public class ArrayBuiltins extends PythonBuiltins {
         }
 
         protected static SequenceStorageNodes.GetItemNode createGetItem() {
-            return SequenceStorageNodes.GetItemNode.create(NormalizeIndexNode.forArray());
+            return SequenceStorageNodes.GetItemNode.create(NormalizeIndexNode.forArray(), (s, f) -> f.createArray((PackedSequenceStorage) s));
         }
     }
 
-    @Builtin(name = SpecialMethodNames.__SETITEM__, minNumOfPositionalArgs = 3)
+    @Builtin(name = __SETITEM__, minNumOfPositionalArgs = 3)
     @GenerateNodeFactory
     abstract static class SetItemNode extends PythonTernaryBuiltinNode {
 
+        @Specialization(guards = "!isPSlice(key)", limit = "3")
+        PNone setitem(VirtualFrame frame, PArray self, Object key, Object value,
+                        @CachedLibrary("key") PythonObjectLibrary lib,
+                        @Cached("forArrayAssign()") NormalizeIndexNode normalizeIndexNode,
+                        @Cached ArrayNodes.PutValueNode putValueNode) {
+            if (!lib.canBeIndex(key)) {
+                throw raise(TypeError, "array indices must be integers");
+            }
+            PackedSequenceStorage storage = self.getSequenceStorage();
+            int index = normalizeIndexNode.execute(lib.asSizeWithState(key, PythonBuiltinClassType.IndexError, PArguments.getThreadState(frame)), storage.length());
+            putValueNode.execute(frame, storage, index, value);
+            return PNone.NONE;
+        }
+
         @Specialization
-        PNone getitem(VirtualFrame frame, PArray self, Object key, Object value,
-                        @Cached("createSetItem()") SequenceStorageNodes.SetItemNode setItemNode) {
-            setItemNode.execute(frame, self.getSequenceStorage(), key, value);
+        PNone setslice(PArray self, PSlice slice, PArray value) {
+            PackedSequenceStorage storage = self.getSequenceStorage();
+            PackedSequenceStorage source = value.getSequenceStorage();
+            if (storage.getFormat() != source.getFormat()) {
+                throw raise(TypeError, "bad argument type for built-in operation");
+            }
+            SliceInfo info = slice.computeIndices(storage.length());
+            if (info.step == 1) {
+                storage.replaceSlice(info.start, info.start + info.length, source.getInternalByteArray(), source.length());
+            } else if (info.length != source.length()) {
+                throw raise(ValueError, "attempt to assign array of size %d to extended slice of size %d", source.length(), info.length);
+            } else {
+                int size = storage.getItemSize();
+                byte[] src = source == storage ? source.getBytes() : source.getInternalByteArray();
+                byte[] dst = storage.getInternalByteArray();
+                for (int i = info.start, j = 0; j < info.length; i += info.step, j++) {
+                    System.arraycopy(src, j * size, dst, i * size, size);
+                }
+            }
             return PNone.NONE;
         }
 
+        @Specialization(guards = "!isArray(value)")
+        PNone setslice(@SuppressWarnings("unused") PArray self, @SuppressWarnings("unused") PSlice slice, Object value) {
+            throw raise(TypeError, "can only assign array (not \"%p\") to array slice", value);
+        }
+
         @Fallback
         Object doGeneric(Object self, @SuppressWarnings("unused") Object key, @SuppressWarnings("unused") Object value) {
             throw raise(PythonErrorType.TypeError, "descriptor '__setitem__' requires a 'array.array' object but received a '%p'", self);
         }
 
-        protected static SequenceStorageNodes.SetItemNode createSetItem() {
-            // TODO correct error message depending on array's element type
-            return SequenceStorageNodes.SetItemNode.create(NormalizeIndexNode.forArrayAssign(), "invalid item for assignment");
+        protected static boolean isPSlice(Object obj) {
+            return obj instanceof PSlice;
+        }
+
+        protected static boolean isArray(Object obj) {
+            return obj instanceof PArray;
         }
     }
 
@@ -270,16 +332,24 @@ public class ArrayBuiltins extends PythonBuiltins {
         }
     }
 
-    @Builtin(name = "itemsize", minNumOfPositionalArgs = 1)
+    @Builtin(name = "itemsize", minNumOfPositionalArgs = 1, isGetter = true)
     @GenerateNodeFactory
     abstract static class ItemSizeNode extends PythonUnaryBuiltinNode {
 
         @Specialization
-        Object getItemSize(PArray self) {
-            if (self.getSequenceStorage().getElementType() == SequenceStorage.ListStorageType.Int) {
-                return factory().createInt(4);
-            }
-            return factory().createInt(2);
+        static int getItemSize(PArray self) {
+            return self.getFormat().itemSize;
+        }
+    }
+
+    @Builtin(name = "typecode", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class TypeCodeNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        @TruffleBoundary
+        static String getTypeCode(PArray self) {
+            return String.valueOf(self.getFormat().typeCode);
         }
     }
 
@@ -287,73 +357,180 @@ public class ArrayBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     public abstract static class LenNode extends PythonUnaryBuiltinNode {
 
-        @Specialization(guards = "isEmptyStorage(array)")
-        public int lenEmpty(@SuppressWarnings("unused") PArray array) {
-            return 0;
+        @Specialization
+        public int len(PArray self) {
+            return self.len();
         }
+    }
 
-        @Specialization(guards = "isIntStorage(array)")
-        public int lenInt(PArray array) {
-            IntSequenceStorage store = (IntSequenceStorage) array.getSequenceStorage();
-            return store.length();
+    @Builtin(name = "append", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class ArrayAppendNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone append(VirtualFrame frame, PArray array, Object arg,
+                        @Cached ArrayNodes.PutValueNode putValueNode) {
+            PackedSequenceStorage storage = array.getSequenceStorage();
+            int length = storage.length();
+            storage.ensureCapacity(length + 1);
+            putValueNode.execute(frame, storage, length, arg);
+            storage.setNewLength(length + 1);
+            return PNone.NONE;
         }
+    }
 
-        @Specialization(guards = "isLongStorage(array)")
-        public int lenLong(PArray array) {
-            LongSequenceStorage store = (LongSequenceStorage) array.getSequenceStorage();
-            return store.length();
+    @Builtin(name = "extend", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class ArrayExtendNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone extend(PArray self, PArray other) {
+            PackedSequenceStorage storage = self.getSequenceStorage();
+            PackedSequenceStorage source = other.getSequenceStorage();
+            if (storage.getFormat() != source.getFormat()) {
+                throw raise(TypeError, "can only extend with array of same kind");
+            }
+            storage.appendBytes(source.getBytes(), 0, source.getByteLength());
+            return PNone.NONE;
         }
 
-        @Specialization(guards = "isDoubleStorage(array)")
-        public int lenDouble(PArray array) {
-            DoubleSequenceStorage store = (DoubleSequenceStorage) array.getSequenceStorage();
-            return store.length();
+        @Specialization(guards = "!isArray(iterable)")
+        static PNone extend(VirtualFrame frame, PArray self, Object iterable,
+                        @Cached ArrayNodes.ExtendNode extendNode) {
+            extendNode.execute(frame, self.getSequenceStorage(), iterable);
+            return PNone.NONE;
         }
 
-        @Specialization(guards = "isBasicStorage(array)")
-        public int lenBasicStorage(PArray array) {
-            BasicSequenceStorage store = (BasicSequenceStorage) array.getSequenceStorage();
-            return store.length();
+        protected static boolean isArray(Object obj) {
+            return obj instanceof PArray;
         }
+    }
 
+    @Builtin(name = "frombytes", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class FromBytesNode extends PythonBinaryBuiltinNode {
+        @Specialization(limit = "3")
+        PNone frombytes(PArray self, Object buffer,
+                        @CachedLibrary("buffer") PythonObjectLibrary lib) {
+            if (!lib.isBuffer(buffer)) {
+                throw raise(TypeError, "a bytes-like object is required, not '%p'", buffer);
+            }
+            PackedSequenceStorage storage = self.getSequenceStorage();
+            try {
+                int length = lib.getBufferLength(buffer);
+                if (length % storage.getItemSize() != 0) {
+                    throw raise(ValueError, "bytes length not a multiple of item size");
+                }
+                storage.appendBytes(lib.getBufferBytes(buffer), 0, length);
+            } catch (UnsupportedMessageException e) {
+                throw raise(TypeError, "a bytes-like object is required, not '%p'", buffer);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "tobytes", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ToBytesNode extends PythonUnaryBuiltinNode {
         @Specialization
-        public int len(PArray self) {
-            return self.len();
+        Object tobytes(PArray self) {
+            return factory().createBytes(self.getSequenceStorage().getBytes());
         }
     }
 
-    /**
-     * Does not allow any generalization but compatible types.
-     */
-    @GenerateUncached
-    public abstract static class ArrayNoGeneralizationNode extends SequenceStorageNodes.NoGeneralizationNode {
+    @Builtin(name = "fromlist", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class FromListNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        static PNone fromlist(VirtualFrame frame, PArray self, PList list,
+                        @Cached ArrayNodes.ExtendNode extendNode) {
+            PackedSequenceStorage storage = self.getSequenceStorage();
+            int length = storage.length();
+            try {
+                extendNode.execute(frame, storage, list);
+            } catch (PException e) {
+                // fromlist is atomic: on error, none of the items are added
+                storage.setNewLength(length);
+                throw e;
+            }
+            return PNone.NONE;
+        }
 
-        public static final GenNodeSupplier SUPPLIER = new GenNodeSupplier() {
+        @Fallback
+        Object fromlist(@SuppressWarnings("unused") Object self, @SuppressWarnings("unused") Object list) {
+            throw raise(TypeError, "arg must be list");
+        }
+    }
 
-            public GeneralizationNode create() {
-                return ArrayNoGeneralizationNodeGen.create();
-            }
+    @Builtin(name = "tolist", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ToListNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PList tolist(PArray self) {
+            return factory().createList(self.getSequenceStorage().getInternalArray());
+        }
+    }
 
-            public GeneralizationNode getUncached() {
-                return ArrayNoGeneralizationNodeGen.getUncached();
+    @Builtin(name = "fromunicode", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class FromUnicodeNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone fromunicode(PArray self, Object str,
+                        @Cached CastToJavaStringNode castToJavaStringNode) {
+            String value = castToJavaStringNode.execute(str);
+            if (value == null) {
+                throw raise(TypeError, "fromunicode() argument must be str, not %p", str);
             }
-        };
+            PackedSequenceStorage storage = self.getSequenceStorage();
+            if (!storage.getFormat().isUnicode()) {
+                throw raise(ValueError, "fromunicode() may only be called on unicode type arrays");
+            }
+            fromUnicode(storage, value);
+            return PNone.NONE;
+        }
+    }
 
-        @Override
-        protected String getErrorMessage() {
-            return "signed short integer is greater than maximum";
+    @Builtin(name = "tounicode", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ToUnicodeNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        String tounicode(PArray self) {
+            PackedSequenceStorage storage = self.getSequenceStorage();
+            if (!storage.getFormat().isUnicode()) {
+                throw raise(ValueError, "tounicode() may only be called on unicode type arrays");
+            }
+            return toUnicode(storage);
         }
     }
 
-    @Builtin(name = "append", minNumOfPositionalArgs = 2)
+    @Builtin(name = "byteswap", minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
-    public abstract static class ArrayAppendNode extends PythonBinaryBuiltinNode {
+    public abstract static class ByteSwapNode extends PythonUnaryBuiltinNode {
         @Specialization
-        PArray append(PArray array, Object arg,
-                        @Cached SequenceStorageNodes.AppendNode appendNode) {
-            appendNode.execute(array.getSequenceStorage(), arg, ArrayNoGeneralizationNode.SUPPLIER);
-            return array;
+        static PNone byteswap(PArray self) {
+            self.getSequenceStorage().byteswap();
+            return PNone.NONE;
         }
     }
 
+    @TruffleBoundary
+    public static void fromUnicode(PackedSequenceStorage storage, String value) {
+        int count = value.codePointCount(0, value.length());
+        int length = storage.length();
+        storage.ensureCapacity(length + count);
+        for (int i = 0, offset = 0; i < count; i++) {
+            int codePoint = value.codePointAt(offset);
+            storage.setLongItemNormalized(length + i, codePoint);
+            offset += Character.charCount(codePoint);
+        }
+        storage.setNewLength(length + count);
+    }
+
+    @TruffleBoundary
+    static String toUnicode(PackedSequenceStorage storage) {
+        StringBuilder sb = new StringBuilder(storage.length());
+        for (int i = 0; i < storage.length(); i++) {
+            int codePoint = (int) storage.getLongItemNormalized(i);
+            sb.appendCodePoint(Character.isValidCodePoint(codePoint) ? codePoint : 0xFFFD);
+        }
+        return sb.toString();
+    }
 }
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.array;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import com.oracle.graal.python.builtins.objects.array.ArrayNodesFactory.ExtendNodeGen;
+import com.oracle.graal.python.builtins.objects.array.ArrayNodesFactory.PutValueNodeGen;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.PRaiseNode;
+import com.oracle.graal.python.nodes.control.GetIteratorExpressionNode.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
+import com.oracle.graal.python.nodes.util.CoerceToDoubleNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.sequence.storage.PackedSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.PackedSequenceStorage.Format;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.TypeSystemReference;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+public abstract class ArrayNodes {
+
+    /**
+     * Converts a Python object to the item format of an array and stores it at the given index,
+     * raising the same errors as CPython for values of the wrong type or out of range.
+     */
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    public abstract static class PutValueNode extends PNodeWithContext {
+        @Child private PRaiseNode raiseNode;
+
+        public abstract void execute(VirtualFrame frame, PackedSequenceStorage storage, int index, Object value);
+
+        @Specialization(guards = "isInteger(storage)")
+        void doLong(PackedSequenceStorage storage, int index, long value) {
+            Format format = storage.getFormat();
+            if (!format.fits(value)) {
+                throw ensureRaiseNode().raise(OverflowError, overflowMessage(format, value < 0));
+            }
+            storage.setLongItemNormalized(index, value);
+        }
+
+        @Specialization(guards = "isInteger(storage)")
+        void doPInt(PackedSequenceStorage storage, int index, PInt value) {
+            Format format = storage.getFormat();
+            if (format.itemSize == 8 && !format.signed && value.isZeroOrPositive() && bitLength(value) <= 64) {
+                storage.setLongItemNormalized(index, value.longValue());
+                return;
+            }
+            long longValue;
+            try {
+                longValue = value.longValueExact();
+            } catch (ArithmeticException e) {
+                throw ensureRaiseNode().raise(OverflowError, overflowMessage(format, value.isZeroOrNegative()));
+            }
+            doLong(storage, index, longValue);
+        }
+
+        @Specialization(guards = "isFloatingPoint(storage)")
+        static void doFloat(VirtualFrame frame, PackedSequenceStorage storage, int index, Object value,
+                        @Cached CoerceToDoubleNode coerceToDoubleNode) {
+            storage.setDoubleItemNormalized(index, coerceToDoubleNode.execute(frame, value));
+        }
+
+        @Specialization(guards = "isUnicode(storage)")
+        void doUnicode(PackedSequenceStorage storage, int index, String value) {
+            if (!PackedSequenceStorage.isSingleCodePoint(value)) {
+                throw ensureRaiseNode().raise(TypeError, "array item must be unicode character");
+            }
+            storage.setLongItemNormalized(index, PackedSequenceStorage.codePointAt(value));
+        }
+
+        @Fallback
+        void doError(@SuppressWarnings("unused") VirtualFrame frame, PackedSequenceStorage storage, @SuppressWarnings("unused") int index, Object value) {
+            if (storage.getFormat().isUnicode()) {
+                throw ensureRaiseNode().raise(TypeError, "array item must be unicode character");
+            }
+            throw ensureRaiseNode().raise(TypeError, "integer argument expected, got %p", value);
+        }
+
+        protected static boolean isInteger(PackedSequenceStorage storage) {
+            return storage.getFormat().isInteger();
+        }
+
+        protected static boolean isFloatingPoint(PackedSequenceStorage storage) {
+            return storage.getFormat().isFloatingPoint();
+        }
+
+        protected static boolean isUnicode(PackedSequenceStorage storage) {
+            return storage.getFormat().isUnicode();
+        }
+
+        @TruffleBoundary
+        private static int bitLength(PInt value) {
+            return value.getValue().bitLength();
+        }
+
+        private static String overflowMessage(Format format, boolean tooSmall) {
+            String bound = tooSmall ? "less than minimum" : "greater than maximum";
+            switch (format) {
+                case SIGNED_CHAR:
+                    return "signed char is " + bound;
+                case UNSIGNED_CHAR:
+                    return "unsigned byte integer is " + bound;
+                case SIGNED_SHORT:
+                    return "signed short integer is " + bound;
+                case UNSIGNED_SHORT:
+                    return "unsigned short is " + bound;
+                case SIGNED_INT:
+                    return "signed integer is " + bound;
+                case UNSIGNED_INT:
+                    return "unsigned int is " + bound;
+                case UNSIGNED_LONG:
+                case UNSIGNED_LONG_LONG:
+                    return tooSmall ? "unsigned long is less than minimum" : "Python int too large to convert to C unsigned long";
+                default:
+                    return "Python int too large to convert to C long";
+            }
+        }
+
+        private PRaiseNode ensureRaiseNode() {
+            if (raiseNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                raiseNode = insert(PRaiseNode.create());
+            }
+            return raiseNode;
+        }
+
+        public static PutValueNode create() {
+            return PutValueNodeGen.create();
+        }
+    }
+
+    /**
+     * Appends all items of an iterable to an array, converting each one with
+     * {@link PutValueNode}. Items appended before a conversion error stay in the array, like in
+     * CPython.
+     */
+    public abstract static class ExtendNode extends PNodeWithContext {
+
+        public abstract void execute(VirtualFrame frame, PackedSequenceStorage storage, Object iterable);
+
+        @Specialization
+        static void doIterable(VirtualFrame frame, PackedSequenceStorage storage, Object iterable,
+                        @Cached GetIteratorNode getIteratorNode,
+                        @Cached GetNextNode getNextNode,
+                        @Cached IsBuiltinClassProfile errorProfile,
+                        @Cached PutValueNode putValueNode) {
+            Object iterator = getIteratorNode.executeWith(frame, iterable);
+            while (true) {
+                Object value;
+                try {
+                    value = getNextNode.execute(frame, iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(errorProfile);
+                    return;
+                }
+                int length = storage.length();
+                storage.ensureCapacity(length + 1);
+                putValueNode.execute(frame, storage, length, value);
+                storage.setNewLength(length + 1);
+            }
+        }
+
+        public static ExtendNode create() {
+            return ExtendNodeGen.create();
+        }
+    }
+}
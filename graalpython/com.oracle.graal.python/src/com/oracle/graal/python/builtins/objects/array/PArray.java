@@ -25,34 +25,56 @@
  */
 package com.oracle.graal.python.builtins.objects.array;
 
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.graal.python.runtime.sequence.PMutableSequence;
+import com.oracle.graal.python.runtime.sequence.storage.PackedSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.PackedSequenceStorage.Format;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.library.ExportLibrary;
+import com.oracle.truffle.api.library.ExportMessage;
 
+@ExportLibrary(PythonObjectLibrary.class)
 public class PArray extends PMutableSequence {
 
-    private SequenceStorage store;
+    private PackedSequenceStorage store;
 
-    public PArray(LazyPythonClass clazz) {
-        super(clazz);
-    }
-
-    public PArray(LazyPythonClass clazz, SequenceStorage store) {
+    public PArray(LazyPythonClass clazz, PackedSequenceStorage store) {
         super(clazz);
         this.store = store;
     }
 
     @Override
-    public SequenceStorage getSequenceStorage() {
+    public PackedSequenceStorage getSequenceStorage() {
         return store;
     }
 
     @Override
     public void setSequenceStorage(SequenceStorage store) {
-        this.store = store;
+        this.store = (PackedSequenceStorage) store;
+    }
+
+    public Format getFormat() {
+        return store.getFormat();
     }
 
     public int len() {
         return store.length();
     }
+
+    @ExportMessage
+    @SuppressWarnings("static-method")
+    boolean isBuffer() {
+        return true;
+    }
+
+    @ExportMessage
+    int getBufferLength() {
+        return store.getByteLength();
+    }
+
+    @ExportMessage
+    byte[] getBufferBytes() {
+        return store.getBytes();
+    }
 }
@@ -48,6 +48,7 @@ import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.objects.bytes.BytesBuiltins.BytesLikeNoGeneralizationNode;
 import com.oracle.graal.python.builtins.objects.bytes.BytesNodesFactory.BytesJoinNodeGen;
 import com.oracle.graal.python.builtins.objects.bytes.BytesNodesFactory.FindNodeGen;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodesFactory.ToByteStorageNodeGen;
 import com.oracle.graal.python.builtins.objects.bytes.BytesNodesFactory.ToBytesNodeGen;
 import com.oracle.graal.python.builtins.objects.common.IndexNodes.NormalizeIndexNode;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
@@ -208,6 +209,35 @@ public abstract class BytesNodes {
         }
     }
 
+    /**
+     * Like {@link ToBytesNode}, but hands out the storage of {@code bytes} and {@code bytearray}
+     * objects itself instead of copying their contents. Callers may only read the first
+     * {@code length()} bytes of its internal array and must not hold on to it.
+     */
+    public abstract static class ToByteStorageNode extends PNodeWithContext {
+
+        public abstract ByteSequenceStorage execute(VirtualFrame frame, Object obj);
+
+        @Specialization(guards = "hasByteStorage(obj)")
+        static ByteSequenceStorage doByteStorage(Object obj) {
+            return (ByteSequenceStorage) ((PIBytesLike) obj).getSequenceStorage();
+        }
+
+        @Specialization(guards = "!hasByteStorage(obj)")
+        static ByteSequenceStorage doOther(VirtualFrame frame, Object obj,
+                        @Cached("create()") ToBytesNode toBytesNode) {
+            return new ByteSequenceStorage(toBytesNode.execute(frame, obj));
+        }
+
+        static boolean hasByteStorage(Object obj) {
+            return obj instanceof PIBytesLike && ((PIBytesLike) obj).getSequenceStorage() instanceof ByteSequenceStorage;
+        }
+
+        public static ToByteStorageNode create() {
+            return ToByteStorageNodeGen.create();
+        }
+    }
+
     public abstract static class FindNode extends PNodeWithContext {
         @Child private PRaiseNode raise = PRaiseNode.create();
         @Child private NormalizeIndexNode normalizeIndexNode;
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -40,9 +40,14 @@
  */
 package com.oracle.graal.python.builtins.objects.cext;
 
+import java.io.PrintWriter;
+import java.util.concurrent.atomic.LongAdder;
+
 import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateUncached;
 import com.oracle.truffle.api.dsl.ImportStatic;
@@ -61,30 +66,138 @@ import com.oracle.truffle.api.nodes.ExplodeLoop.LoopExplosionKind;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.profiles.BranchProfile;
 
+/**
+ * Caches the results of resolving native handles to managed objects. The cache is a hash table of
+ * {@link Entry entries} that is split into buckets of {@link #BUCKET_SIZE} consecutive slots. A
+ * handle is only ever stored in the bucket selected by its hash; if that bucket is full, one of its
+ * entries is evicted.
+ *
+ * The table is lock-free: an entry is immutable and published with a single reference write, so a
+ * reader either sees a complete entry or none. Concurrent inserts into the same slot may lose one
+ * of the entries, which only causes another miss later on.
+ */
 @ExportLibrary(InteropLibrary.class)
 public final class HandleCache implements TruffleObject {
+    /** The maximum number of handles that are cached in a single lookup node. */
     public static final int CACHE_SIZE = 10;
 
-    final long[] keys;
-    final Object[] values;
+    public static final int DEFAULT_TABLE_SIZE = 1024;
+    static final int BUCKET_SIZE = 4;
+
+    static final class Entry {
+        final long handle;
+        final Object value;
+
+        Entry(long handle, Object value) {
+            this.handle = handle;
+            this.value = value;
+        }
+    }
+
+    final Entry[] table;
     private final TruffleObject ptrToResolveHandle;
 
-    int pos = 0;
+    /** Selects the slot to evict in a full bucket; updated without synchronization. */
+    int victim = 0;
+
+    private final boolean collectStatistics;
+    private final LongAdder lookups;
+    private final LongAdder misses;
+    private final LongAdder evictions;
 
     public HandleCache(TruffleObject ptrToResolveHandle) {
-        keys = new long[CACHE_SIZE];
-        values = new Object[CACHE_SIZE];
-        this.ptrToResolveHandle = ptrToResolveHandle;
+        this(ptrToResolveHandle, DEFAULT_TABLE_SIZE, false);
     }
 
-    protected int len() {
-        return keys.length;
+    /**
+     * Creates a cache with at least {@code size} slots. The size is rounded up to a power of two.
+     */
+    public HandleCache(TruffleObject ptrToResolveHandle, int size, boolean collectStatistics) {
+        int capacity = BUCKET_SIZE;
+        while (capacity < size && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        this.table = new Entry[capacity];
+        this.ptrToResolveHandle = ptrToResolveHandle;
+        this.collectStatistics = collectStatistics;
+        this.lookups = collectStatistics ? new LongAdder() : null;
+        this.misses = collectStatistics ? new LongAdder() : null;
+        this.evictions = collectStatistics ? new LongAdder() : null;
     }
 
     protected TruffleObject getPtrToResolveHandle() {
         return ptrToResolveHandle;
     }
 
+    public int getTableSize() {
+        return table.length;
+    }
+
+    public boolean isCollectingStatistics() {
+        return collectStatistics;
+    }
+
+    public long getHits() {
+        return collectStatistics ? sum(lookups) - sum(misses) : 0;
+    }
+
+    public long getMisses() {
+        return collectStatistics ? sum(misses) : 0;
+    }
+
+    public long getEvictions() {
+        return collectStatistics ? sum(evictions) : 0;
+    }
+
+    @TruffleBoundary
+    private static long sum(LongAdder adder) {
+        return adder.sum();
+    }
+
+    @TruffleBoundary
+    private static void increment(LongAdder adder) {
+        adder.increment();
+    }
+
+    /**
+     * Counts a lookup. Every lookup is counted exactly once, either when a cached slot is read or
+     * when a bucket is probed; misses are counted where the handle is resolved, so the hits are
+     * the difference.
+     */
+    void countLookup() {
+        if (collectStatistics) {
+            increment(lookups);
+        }
+    }
+
+    void countMiss(boolean evicted) {
+        if (collectStatistics) {
+            increment(misses);
+            if (evicted) {
+                increment(evictions);
+            }
+        }
+    }
+
+    @TruffleBoundary
+    public void printStatistics(PythonContext context) {
+        PrintWriter stderr = new PrintWriter(context.getStandardErr());
+        long h = getHits();
+        long m = getMisses();
+        stderr.printf("C API handle cache: %d slots, %d hits, %d misses (%.1f%% hit rate), %d evictions%n",
+                        table.length, h, m, h + m == 0 ? 0.0 : 100.0 * h / (h + m), getEvictions());
+        stderr.flush();
+    }
+
+    /**
+     * Returns the first slot of the bucket of the given handle. Handles are tagged addresses, so
+     * the bits are mixed to spread consecutive handles over the table.
+     */
+    static int bucketStart(long handle, int tableLength) {
+        long h = handle * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (tableLength - 1) & ~(BUCKET_SIZE - 1);
+    }
+
     @ExportMessage
     @SuppressWarnings("static-method")
     public boolean isExecutable() {
@@ -112,73 +225,100 @@ public final class HandleCache implements TruffleObject {
     abstract static class GetOrInsertNode extends Node {
         public abstract Object execute(HandleCache cache, long handle) throws UnsupportedTypeException, ArityException, UnsupportedMessageException;
 
-        @Specialization(limit = "CACHE_SIZE", guards = {"cache.len() == cachedLen",
-                        "handle == cachedHandle"}, rewriteOn = InvalidCacheEntryException.class, assumptions = "singleContextAssumption()")
+        @Specialization(limit = "CACHE_SIZE", guards = "handle == cachedHandle", rewriteOn = InvalidCacheEntryException.class, assumptions = "singleContextAssumption()")
         Object doCachedSingleContext(HandleCache cache, @SuppressWarnings("unused") long handle,
                         @Cached("handle") long cachedHandle,
-                        @Cached("cache.len()") @SuppressWarnings("unused") int cachedLen,
                         @Cached("cache.getPtrToResolveHandle()") @SuppressWarnings("unused") TruffleObject cachedResolveHandleFunction,
-                        @Cached("lookupPositionUncached(cache, handle, cachedLen, cachedResolveHandleFunction)") int cachedPosition) throws InvalidCacheEntryException {
-            if (cache.keys[cachedPosition] == cachedHandle) {
-                return cache.values[cachedPosition];
-            }
-            throw InvalidCacheEntryException.INSTANCE;
+                        @Cached("lookupPositionUncached(cache, handle, cachedResolveHandleFunction)") int cachedPosition) throws InvalidCacheEntryException {
+            return readCachedPosition(cache, cachedHandle, cachedPosition);
         }
 
-        @Specialization(guards = {"cache.len() == cachedLen"}, replaces = "doCachedSingleContext", assumptions = "singleContextAssumption()")
+        @Specialization(replaces = "doCachedSingleContext", assumptions = "singleContextAssumption()")
         Object doFullLookupSingleContext(HandleCache cache, long handle,
-                        @Cached(value = "cache.len()", allowUncached = true) int cachedLen,
                         @Cached(value = "cache.getPtrToResolveHandle()", allowUncached = true) TruffleObject resolveHandleFunction,
                         @CachedLibrary("resolveHandleFunction") InteropLibrary interopLibrary) throws UnsupportedTypeException, ArityException, UnsupportedMessageException {
-            int pos = lookupPosition(cache, handle, cachedLen, resolveHandleFunction, interopLibrary);
-            return cache.values[pos];
+            return lookup(cache, handle, resolveHandleFunction, interopLibrary).value;
         }
 
-        @Specialization(limit = "CACHE_SIZE", guards = {"cache.len() == cachedLen",
-                        "handle == cachedHandle", "cache.getPtrToResolveHandle() == cachedResolveHandleFunction"}, rewriteOn = InvalidCacheEntryException.class)
+        @Specialization(limit = "CACHE_SIZE", guards = {"handle == cachedHandle", "cache.getPtrToResolveHandle() == cachedResolveHandleFunction"}, rewriteOn = InvalidCacheEntryException.class)
         Object doCached(HandleCache cache, @SuppressWarnings("unused") long handle,
                         @Cached("handle") long cachedHandle,
-                        @Cached("cache.len()") @SuppressWarnings("unused") int cachedLen,
                         @Cached("cache.getPtrToResolveHandle()") @SuppressWarnings("unused") TruffleObject cachedResolveHandleFunction,
-                        @Cached("lookupPositionUncached(cache, handle, cachedLen, cachedResolveHandleFunction)") int cachedPosition) throws InvalidCacheEntryException {
-            if (cache.keys[cachedPosition] == cachedHandle) {
-                return cache.values[cachedPosition];
-            }
-            throw InvalidCacheEntryException.INSTANCE;
+                        @Cached("lookupPositionUncached(cache, handle, cachedResolveHandleFunction)") int cachedPosition) throws InvalidCacheEntryException {
+            return readCachedPosition(cache, cachedHandle, cachedPosition);
         }
 
-        @Specialization(guards = {"cache.len() == cachedLen", "cache.getPtrToResolveHandle() == cachedResolveHandleFunction"}, replaces = "doCached")
+        @Specialization(guards = "cache.getPtrToResolveHandle() == cachedResolveHandleFunction", replaces = "doCached")
         Object doFullLookup(HandleCache cache, long handle,
-                        @Cached(value = "cache.len()", allowUncached = true) int cachedLen,
                         @Cached(value = "cache.getPtrToResolveHandle()", allowUncached = true) TruffleObject cachedResolveHandleFunction,
                         @CachedLibrary("cachedResolveHandleFunction") InteropLibrary interopLibrary) throws UnsupportedTypeException, ArityException, UnsupportedMessageException {
-            int pos = lookupPosition(cache, handle, cachedLen, cachedResolveHandleFunction, interopLibrary);
-            return cache.values[pos];
+            return lookup(cache, handle, cachedResolveHandleFunction, interopLibrary).value;
         }
 
-        protected static int lookupPositionUncached(HandleCache cache, long handle, int len, TruffleObject ptrToResolveHandle)
+        private static Object readCachedPosition(HandleCache cache, long cachedHandle, int cachedPosition) throws InvalidCacheEntryException {
+            Entry[] table = cache.table;
+            if (cachedPosition < table.length) {
+                Entry entry = table[cachedPosition];
+                if (entry != null && entry.handle == cachedHandle) {
+                    cache.countLookup();
+                    return entry.value;
+                }
+            }
+            throw InvalidCacheEntryException.INSTANCE;
+        }
+
+        protected static int lookupPositionUncached(HandleCache cache, long handle, TruffleObject ptrToResolveHandle)
                         throws UnsupportedTypeException, ArityException, UnsupportedMessageException {
             CompilerAsserts.neverPartOfCompilation();
-            return lookupPosition(cache, handle, len, ptrToResolveHandle, InteropLibrary.getFactory().getUncached(ptrToResolveHandle));
+            // the lookup is counted when the specialization reads the slot
+            Entry entry = getOrInsert(cache, handle, ptrToResolveHandle, InteropLibrary.getFactory().getUncached(ptrToResolveHandle));
+            Entry[] table = cache.table;
+            int start = bucketStart(handle, table.length);
+            for (int i = 0; i < BUCKET_SIZE; i++) {
+                if (table[start + i] == entry) {
+                    return start + i;
+                }
+            }
+            // a concurrent insert replaced the entry already, the cached specialization will be
+            // rewritten on first use
+            return start;
+        }
+
+        protected static Entry lookup(HandleCache cache, long handle, TruffleObject ptrToResolveHandle, InteropLibrary interopLibrary)
+                        throws UnsupportedTypeException, ArityException, UnsupportedMessageException {
+            cache.countLookup();
+            return getOrInsert(cache, handle, ptrToResolveHandle, interopLibrary);
         }
 
         @ExplodeLoop(kind = LoopExplosionKind.FULL_UNROLL_UNTIL_RETURN)
-        protected static int lookupPosition(HandleCache cache, long handle, int cachedLen, TruffleObject ptrToResolveHandle, InteropLibrary interopLibrary)
+        private static Entry getOrInsert(HandleCache cache, long handle, TruffleObject ptrToResolveHandle, InteropLibrary interopLibrary)
                         throws UnsupportedTypeException, ArityException, UnsupportedMessageException {
-            for (int i = 0; i < cachedLen; i++) {
-                if (cache.keys[i] == handle) {
-                    return i;
+            Entry[] table = cache.table;
+            int start = bucketStart(handle, table.length);
+            int free = -1;
+            for (int i = 0; i < BUCKET_SIZE; i++) {
+                Entry entry = table[start + i];
+                if (entry == null) {
+                    if (free < 0) {
+                        free = start + i;
+                    }
+                } else if (entry.handle == handle) {
+                    return entry;
                 }
             }
 
             Object resolved = interopLibrary.execute(ptrToResolveHandle, handle);
 
-            int insertPos = cache.pos;
-            cache.keys[insertPos] = handle;
-            cache.values[insertPos] = resolved;
-            cache.pos = (insertPos + 1) % cache.len();
-
-            return insertPos;
+            int insertPos = free;
+            if (insertPos < 0) {
+                int v = cache.victim;
+                cache.victim = v + 1;
+                insertPos = start + (v & (BUCKET_SIZE - 1));
+            }
+            cache.countMiss(free < 0);
+            Entry entry = new Entry(handle, resolved);
+            table[insertPos] = entry;
+            return entry;
         }
 
         protected static Assumption singleContextAssumption() {
@@ -44,6 +44,8 @@ import static com.oracle.graal.python.builtins.objects.cext.NativeCAPISymbols.FU
 import static com.oracle.graal.python.builtins.objects.cext.NativeCAPISymbols.FUN_GET_PTR_ARRAY_TYPE_ID;
 import static com.oracle.graal.python.builtins.objects.cext.NativeCAPISymbols.FUN_NATIVE_HANDLE_FOR_ARRAY;
 
+import java.nio.ByteBuffer;
+
 import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.objects.PythonAbstractObject;
 import com.oracle.graal.python.builtins.objects.PythonAbstractObject.PInteropSubscriptAssignNode;
@@ -199,7 +201,7 @@ public final class PySequenceArrayWrapper extends PythonNativeWrapper {
                         @Cached("createClassProfile()") ValueProfile profile,
                         @Cached SequenceStorageNodes.LenNode lenNode,
                         @Cached SequenceStorageNodes.GetItemDynamicNode getItemNode,
-                        @Shared("castToLongNode") @Cached CoerceToJavaLongNode castToJavaLongNode) {
+                        @Cached CoerceToJavaLongNode castToJavaLongNode) {
             PIBytesLike profiled = profile.profile(bytesLike);
             int len = lenNode.execute(profiled.getSequenceStorage());
             // simulate sentinel value
@@ -235,40 +237,17 @@ public final class PySequenceArrayWrapper extends PythonNativeWrapper {
             return result;
         }
 
+        /**
+         * Like {@link #doBytesI64}, but reads directly from the mapped region.
+         */
         @Specialization
-        long doPMmapI64(PMMap mmap, long byteIdx,
-                        @Exclusive @Cached LookupInheritedAttributeNode.Dynamic lookupGetItemNode,
-                        @Exclusive @Cached CallNode callGetItemNode,
-                        @Shared("castToLongNode") @Cached CoerceToJavaLongNode castToJavaLongNode) {
-
-            long len = mmap.getLength();
-            Object attrGetItem = lookupGetItemNode.execute(mmap, SpecialMethodNames.__GETITEM__);
-
-            int i = (int) byteIdx;
-            long result = 0;
-            result |= castToJavaLongNode.execute(callGetItemNode.execute(null, attrGetItem, mmap, byteIdx));
-            if (i + 1 < len) {
-                result |= (castToJavaLongNode.execute(callGetItemNode.execute(null, attrGetItem, mmap, byteIdx)) << 8L) & 0xFF00L;
-            }
-            if (i + 2 < len) {
-                result |= (castToJavaLongNode.execute(callGetItemNode.execute(null, attrGetItem, mmap, byteIdx)) << 16L) & 0xFF0000L;
-            }
-            if (i + 3 < len) {
-                result |= (castToJavaLongNode.execute(callGetItemNode.execute(null, attrGetItem, mmap, byteIdx)) << 24L) & 0xFF000000L;
-            }
-            if (i + 4 < len) {
-                result |= (castToJavaLongNode.execute(callGetItemNode.execute(null, attrGetItem, mmap, byteIdx)) << 32L) & 0xFF00000000L;
-            }
-            if (i + 5 < len) {
-                result |= (castToJavaLongNode.execute(callGetItemNode.execute(null, attrGetItem, mmap, byteIdx)) << 40L) & 0xFF0000000000L;
-            }
-            if (i + 6 < len) {
-                result |= (castToJavaLongNode.execute(callGetItemNode.execute(null, attrGetItem, mmap, byteIdx)) << 48L) & 0xFF000000000000L;
-            }
-            if (i + 7 < len) {
-                result |= (castToJavaLongNode.execute(callGetItemNode.execute(null, attrGetItem, mmap, byteIdx)) << 56L) & 0xFF00000000000000L;
+        long doPMmapI64(PMMap mmap, long byteIdx) {
+            ByteBuffer buffer = mmap.getBuffer();
+            // simulate sentinel value
+            if (buffer == null || byteIdx >= mmap.getLength()) {
+                return 0L;
             }
-            return result;
+            return PMMap.getLongLE(buffer, (int) byteIdx);
         }
 
         @Specialization(guards = {"!isTuple(object)", "!isList(object)", "!hasByteArrayContent(object)"})
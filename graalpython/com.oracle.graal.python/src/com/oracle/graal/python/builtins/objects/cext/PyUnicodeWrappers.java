@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -46,8 +46,10 @@ import java.nio.charset.CharsetEncoder;
 import com.oracle.graal.python.builtins.objects.cext.DynamicObjectNativeWrapper.PAsPointerNode;
 import com.oracle.graal.python.builtins.objects.cext.DynamicObjectNativeWrapper.ToPyObjectNode;
 import com.oracle.graal.python.builtins.objects.cext.UnicodeObjectNodes.UnicodeAsWideCharNode;
+import com.oracle.graal.python.builtins.objects.str.Latin1CharSequence;
 import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.builtins.objects.str.StringNodes.StringLenNode;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
@@ -153,14 +155,19 @@ public abstract class PyUnicodeWrappers {
                         @CachedLibrary("this") PythonNativeWrapperLibrary lib,
                         @Cached(value = "createNativeOrder()", uncached = "getUncachedNativeOrder()") UnicodeAsWideCharNode asWideCharNode,
                         @Cached CExtNodes.SizeofWCharNode sizeofWcharNode,
-                        @Exclusive @Cached StringLenNode stringLenNode) throws UnknownIdentifierException {
+                        @Exclusive @Cached StringLenNode stringLenNode,
+                        @Cached PythonObjectFactory factory) throws UnknownIdentifierException {
             switch (member) {
                 case NativeMemberNames.UNICODE_DATA_ANY:
                 case NativeMemberNames.UNICODE_DATA_LATIN1:
                 case NativeMemberNames.UNICODE_DATA_UCS2:
                 case NativeMemberNames.UNICODE_DATA_UCS4:
-                    int elementSize = (int) sizeofWcharNode.execute();
                     PString s = getPString(lib);
+                    if (s.getCharSequence() instanceof Latin1CharSequence) {
+                        // PyUnicode_1BYTE_KIND: expose the compact storage without copying
+                        return new PySequenceArrayWrapper(factory.createBytes(((Latin1CharSequence) s.getCharSequence()).getBytes()), 1);
+                    }
+                    int elementSize = (int) sizeofWcharNode.execute();
                     return new PySequenceArrayWrapper(asWideCharNode.execute(s, elementSize, stringLenNode.execute(s)), elementSize);
             }
             throw UnknownIdentifierException.create(member);
@@ -214,10 +221,20 @@ public abstract class PyUnicodeWrappers {
                         @Cached CExtNodes.SizeofWCharNode sizeofWcharNode) throws UnknownIdentifierException {
             // padding(24), ready(1), ascii(1), compact(1), kind(3), interned(2)
             int value = 0b000000000000000000000000_1_0_0_000_00;
-            if (onlyAscii(getPString(lib).getValue())) {
-                value |= 0b1_0_000_00;
+            PString s = getPString(lib);
+            if (s.getCharSequence() instanceof Latin1CharSequence) {
+                // the data member exposes the bytes directly, see PyUnicodeData
+                Latin1CharSequence seq = (Latin1CharSequence) s.getCharSequence();
+                if (seq.isAscii()) {
+                    value |= 0b1_0_000_00;
+                }
+                value |= 1 << 2;
+            } else {
+                if (onlyAscii(s.getValue())) {
+                    value |= 0b1_0_000_00;
+                }
+                value |= ((int) sizeofWcharNode.execute() << 2) & 0b11100;
             }
-            value |= ((int) sizeofWcharNode.execute() << 2) & 0b11100;
             switch (member) {
                 case NativeMemberNames.UNICODE_STATE_INTERNED:
                 case NativeMemberNames.UNICODE_STATE_KIND:
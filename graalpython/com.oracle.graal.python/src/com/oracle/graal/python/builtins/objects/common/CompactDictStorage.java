@@ -0,0 +1,599 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.common;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary.ForEachNode;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary.HashingStorageIterable;
+import com.oracle.graal.python.builtins.objects.function.PArguments.ThreadState;
+import com.oracle.graal.python.builtins.objects.object.PythonObject;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.attributes.LookupInheritedAttributeNode;
+import com.oracle.graal.python.nodes.object.GetLazyClassNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Exclusive;
+import com.oracle.truffle.api.dsl.ImportStatic;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.library.ExportLibrary;
+import com.oracle.truffle.api.library.ExportMessage;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.api.profiles.ValueProfile;
+
+/**
+ * A storage modeled after CPython's compact dict layout. A sparse open-addressing index table maps
+ * hashes to positions in dense, insertion ordered entry arrays. Hashes are kept unboxed in a
+ * parallel array, so they never need to be recomputed when the table grows, and no per-entry
+ * objects are allocated.
+ *
+ * As long as all keys are Java strings, lookups with string keys compare keys directly instead of
+ * going through {@link PythonObjectLibrary}. Keys or values that may have observable side effects
+ * when compared or deleted cause a generalization to {@link EconomicMapStorage}.
+ */
+@ExportLibrary(HashingStorageLibrary.class)
+public final class CompactDictStorage extends HashingStorage {
+
+    private static final int MIN_INDEX_SIZE = 8;
+    private static final int PERTURB_SHIFT = 5;
+
+    /** Marks an index slot that was never used. */
+    private static final int FREE = -1;
+    /** Marks an index slot of a deleted entry, probing must continue past it. */
+    private static final int DUMMY = -2;
+
+    private int[] indices;
+    private long[] hashes;
+    private Object[] keys;
+    private Object[] values;
+
+    /** Number of used entry slots, including the ones of deleted entries. */
+    private int usedEntries;
+    /** Number of live entries. */
+    private int size;
+    /** {@code true} as long as every key ever inserted was a Java {@link String}. */
+    private boolean allStrings = true;
+
+    private CompactDictStorage(int expectedSize) {
+        int indexSize = indexSizeFor(expectedSize);
+        this.indices = newIndices(indexSize);
+        int capacity = usableSize(indexSize);
+        this.hashes = new long[capacity];
+        this.keys = new Object[capacity];
+        this.values = new Object[capacity];
+    }
+
+    private CompactDictStorage(CompactDictStorage original) {
+        this.indices = original.indices.clone();
+        this.hashes = original.hashes.clone();
+        this.keys = original.keys.clone();
+        this.values = original.values.clone();
+        this.usedEntries = original.usedEntries;
+        this.size = original.size;
+        this.allStrings = original.allStrings;
+    }
+
+    public static CompactDictStorage create() {
+        return new CompactDictStorage(0);
+    }
+
+    public static CompactDictStorage create(int expectedSize) {
+        return new CompactDictStorage(expectedSize);
+    }
+
+    private static int usableSize(int indexSize) {
+        return (indexSize << 1) / 3;
+    }
+
+    private static int indexSizeFor(int expectedSize) {
+        int indexSize = MIN_INDEX_SIZE;
+        while (usableSize(indexSize) < expectedSize) {
+            indexSize <<= 1;
+        }
+        return indexSize;
+    }
+
+    private static int[] newIndices(int indexSize) {
+        int[] result = new int[indexSize];
+        Arrays.fill(result, FREE);
+        return result;
+    }
+
+    @Override
+    @ExportMessage
+    public int length() {
+        return size;
+    }
+
+    /**
+     * Looks up a string key while all keys are strings. No Python-level comparison can happen.
+     *
+     * @return the index slot of the entry, or {@code -1}
+     */
+    private int lookupString(String key, long hash) {
+        int[] idx = indices;
+        int mask = idx.length - 1;
+        long perturb = hash;
+        int i = (int) hash & mask;
+        while (true) {
+            int ix = idx[i];
+            if (ix == FREE) {
+                return -1;
+            }
+            if (ix >= 0 && hashes[ix] == hash) {
+                Object k = keys[ix];
+                if (k == key || key.equals(k)) {
+                    return i;
+                }
+            }
+            perturb >>>= PERTURB_SHIFT;
+            i = (int) ((i * 5L + perturb + 1) & mask);
+        }
+    }
+
+    /**
+     * Looks up an arbitrary key, comparing with {@code __eq__} if identity and hash do not decide.
+     * If the comparison modifies this storage, the lookup is restarted, like CPython does.
+     *
+     * @return the index slot of the entry, or {@code -1}
+     */
+    private int lookup(Object key, long hash, PythonObjectLibrary keylib, PythonObjectLibrary otherlib, ConditionProfile gotState, ThreadState state) {
+        restart: while (true) {
+            int[] idx = indices;
+            Object[] ks = keys;
+            int mask = idx.length - 1;
+            long perturb = hash;
+            int i = (int) hash & mask;
+            while (true) {
+                int ix = idx[i];
+                if (ix == FREE) {
+                    return -1;
+                }
+                if (ix >= 0) {
+                    Object k = ks[ix];
+                    if (k == key) {
+                        return i;
+                    }
+                    if (hashes[ix] == hash) {
+                        boolean equal;
+                        if (gotState.profile(state != null)) {
+                            equal = keylib.equalsWithState(key, k, otherlib, state);
+                        } else {
+                            equal = keylib.equals(key, k, otherlib);
+                        }
+                        if (ks != keys || idx != indices || ks[ix] != k) {
+                            // the storage was modified by __eq__
+                            continue restart;
+                        }
+                        if (equal) {
+                            return i;
+                        }
+                    }
+                }
+                perturb >>>= PERTURB_SHIFT;
+                i = (int) ((i * 5L + perturb + 1) & mask);
+            }
+        }
+    }
+
+    private int findSlot(Object key, long hash, PythonObjectLibrary keylib, PythonObjectLibrary otherlib, ConditionProfile stringProfile, ConditionProfile gotState, ThreadState state) {
+        if (stringProfile.profile(allStrings && key instanceof String)) {
+            return lookupString((String) key, hash);
+        }
+        return lookup(key, hash, keylib, otherlib, gotState, state);
+    }
+
+    private Object get(Object key, long hash, PythonObjectLibrary keylib, PythonObjectLibrary otherlib, ConditionProfile stringProfile, ConditionProfile gotState, ThreadState state) {
+        int slot = findSlot(key, hash, keylib, otherlib, stringProfile, gotState, state);
+        return slot < 0 ? null : values[indices[slot]];
+    }
+
+    private void put(Object key, long hash, Object value, PythonObjectLibrary keylib, PythonObjectLibrary otherlib, ConditionProfile stringProfile, ConditionProfile gotState,
+                    ThreadState state) {
+        int slot = findSlot(key, hash, keylib, otherlib, stringProfile, gotState, state);
+        if (slot >= 0) {
+            values[indices[slot]] = value;
+        } else {
+            insertNew(key, hash, value);
+        }
+    }
+
+    /**
+     * Appends an entry for a key that is known to be absent.
+     */
+    private void insertNew(Object key, long hash, Object value) {
+        if (usedEntries == keys.length) {
+            resize(size + 1);
+        }
+        int[] idx = indices;
+        int mask = idx.length - 1;
+        long perturb = hash;
+        int i = (int) hash & mask;
+        while (idx[i] >= 0) {
+            perturb >>>= PERTURB_SHIFT;
+            i = (int) ((i * 5L + perturb + 1) & mask);
+        }
+        int ix = usedEntries++;
+        idx[i] = ix;
+        hashes[ix] = hash;
+        keys[ix] = key;
+        values[ix] = value;
+        size++;
+        if (!(key instanceof String)) {
+            allStrings = false;
+        }
+    }
+
+    private Object remove(Object key, long hash, PythonObjectLibrary keylib, PythonObjectLibrary otherlib, ConditionProfile stringProfile, ConditionProfile gotState, ThreadState state) {
+        int slot = findSlot(key, hash, keylib, otherlib, stringProfile, gotState, state);
+        if (slot < 0) {
+            return null;
+        }
+        int ix = indices[slot];
+        Object oldValue = values[ix];
+        indices[slot] = DUMMY;
+        keys[ix] = null;
+        values[ix] = null;
+        size--;
+        return oldValue;
+    }
+
+    /**
+     * Rebuilds the index table and compacts the entry arrays, such that at least
+     * {@code minimumSize} entries fit. Hashes are taken from the hash array, so no key is hashed
+     * again.
+     */
+    @TruffleBoundary
+    private void resize(int minimumSize) {
+        // grow more aggressively for small tables, as CPython does
+        int indexSize = indexSizeFor(Math.max(minimumSize, size * 3));
+        int capacity = usableSize(indexSize);
+        int[] newIndices = newIndices(indexSize);
+        long[] newHashes = new long[capacity];
+        Object[] newKeys = new Object[capacity];
+        Object[] newValues = new Object[capacity];
+        int mask = indexSize - 1;
+        int j = 0;
+        for (int ix = 0; ix < usedEntries; ix++) {
+            Object k = keys[ix];
+            if (k != null) {
+                long hash = hashes[ix];
+                long perturb = hash;
+                int i = (int) hash & mask;
+                while (newIndices[i] != FREE) {
+                    perturb >>>= PERTURB_SHIFT;
+                    i = (int) ((i * 5L + perturb + 1) & mask);
+                }
+                newIndices[i] = j;
+                newHashes[j] = hash;
+                newKeys[j] = k;
+                newValues[j] = values[ix];
+                j++;
+            }
+        }
+        assert j == size;
+        indices = newIndices;
+        hashes = newHashes;
+        keys = newKeys;
+        values = newValues;
+        usedEntries = j;
+    }
+
+    private static String toString(PString key, ValueProfile profile) {
+        return EconomicMapStorage.toString(key, profile);
+    }
+
+    @ExportMessage
+    @ImportStatic(PGuards.class)
+    static class GetItemWithState {
+
+        @Specialization
+        static Object getItemString(CompactDictStorage self, String key, ThreadState state,
+                        @Exclusive @Cached("createBinaryProfile()") ConditionProfile stringProfile,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib,
+                        @Exclusive @Cached("createBinaryProfile()") ConditionProfile gotState) {
+            return self.get(key, key.hashCode(), lib, lib, stringProfile, gotState, state);
+        }
+
+        @SuppressWarnings("unused")
+        @Specialization(guards = {"!isNativeString(key)", "isBuiltinString(key, isBuiltinClassProfile, getClassNode)"})
+        static Object getItemPString(CompactDictStorage self, PString key, ThreadState state,
+                        @Exclusive @Cached("createBinaryProfile()") ConditionProfile stringProfile,
+                        @Exclusive @Cached("createBinaryProfile()") ConditionProfile gotState,
+                        @Exclusive @Cached("createClassProfile()") ValueProfile profile,
+                        @Exclusive @Cached IsBuiltinClassProfile isBuiltinClassProfile,
+                        @Exclusive @Cached GetLazyClassNode getClassNode,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib) {
+            return getItemString(self, CompactDictStorage.toString(key, profile), state, stringProfile, lib, gotState);
+        }
+
+        @Specialization(replaces = "getItemString", limit = "3")
+        static Object getItemGeneric(CompactDictStorage self, Object key, ThreadState state,
+                        @CachedLibrary("key") PythonObjectLibrary lib,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary otherlib,
+                        @Exclusive @Cached("createBinaryProfile()") ConditionProfile stringProfile,
+                        @Exclusive @Cached("createBinaryProfile()") ConditionProfile gotState) {
+            long hash = self.getHashWithState(key, lib, state, gotState);
+            return self.get(key, hash, lib, otherlib, stringProfile, gotState, state);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    @ExportMessage
+    @ImportStatic(PGuards.class)
+    static class SetItemWithState {
+
+        static boolean isBuiltin(PythonObject o, IsBuiltinClassProfile p) {
+            return EconomicMapStorage.SetItemWithState.isBuiltin(o, p);
+        }
+
+        static boolean maySideEffect(PythonObject o, LookupInheritedAttributeNode.Dynamic lookup) {
+            return EconomicMapStorage.SetItemWithState.maySideEffect(o, lookup);
+        }
+
+        @Specialization
+        static HashingStorage setItemString(CompactDictStorage self, String key, Object value, ThreadState state,
+                        @Exclusive @Cached("createBinaryProfile()") ConditionProfile stringProfile,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib,
+                        @Exclusive @Cached("createBinaryProfile()") ConditionProfile gotState) {
+            self.put(key, key.hashCode(), value, lib, lib, stringProfile, gotState, state);
+            return self;
+        }
+
+        @Specialization(guards = {"!isNativeString(key)", "isBuiltinString(key, isBuiltinClassProfile, getClassNode)"})
+        static HashingStorage setItemPString(CompactDictStorage self, PString key, Object value, ThreadState state,
+                        @Exclusive @Cached("createClassProfile()") ValueProfile profile,
+                        @Exclusive @Cached("createBinaryProfile()") ConditionProfile stringProfile,
+                        @Exclusive @Cached("createBinaryProfile()") ConditionProfile gotState,
+                        @Exclusive @Cached IsBuiltinClassProfile isBuiltinClassProfile,
+                        @Exclusive @Cached GetLazyClassNode getClassNode,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib) {
+            return setItemString(self, CompactDictStorage.toString(key, profile), value, state, stringProfile, lib, gotState);
+        }
+
+        @Specialization(guards = {"!isBuiltin(key,builtinProfile) || !isBuiltin(value,builtinProfile)", "maySideEffect(key, lookup) || maySideEffect(value, lookup)"})
+        static HashingStorage setItemPythonObjectWithSideEffect(CompactDictStorage self, PythonObject key, PythonObject value, ThreadState state,
+                        @Exclusive @Cached LookupInheritedAttributeNode.Dynamic lookup,
+                        @Exclusive @Cached IsBuiltinClassProfile builtinProfile,
+                        @CachedLibrary(limit = "2") HashingStorageLibrary lib,
+                        @Exclusive @Cached("createBinaryProfile()") ConditionProfile gotState) {
+            return generalize(self, key, value, state, lib, gotState);
+        }
+
+        @Specialization(guards = {"!isBuiltin(key,builtinProfile)", "maySideEffect(key, lookup)"})
+        static HashingStorage setItemPythonObjectWithSideEffect(CompactDictStorage self, PythonObject key, Object value, ThreadState state,
+                        @Exclusive @Cached LookupInheritedAttributeNode.Dynamic lookup,
+                        @Exclusive @Cached IsBuiltinClassProfile builtinProfile,
+                        @CachedLibrary(limit = "2") HashingStorageLibrary lib,
+                        @Exclusive @Cached("createBinaryProfile()") ConditionProfile gotState) {
+            return generalize(self, key, value, state, lib, gotState);
+        }
+
+        @Specialization(guards = {"!isBuiltin(value,builtinProfile)", "maySideEffect(value, lookup)"})
+        static HashingStorage setItemPythonObjectWithSideEffect(CompactDictStorage self, Object key, PythonObject value, ThreadState state,
+                        @Exclusive @Cached LookupInheritedAttributeNode.Dynamic lookup,
+                        @Exclusive @Cached IsBuiltinClassProfile builtinProfile,
+                        @CachedLibrary(limit = "2") HashingStorageLibrary lib,
+                        @Exclusive @Cached("createBinaryProfile()") ConditionProfile gotState) {
+            return generalize(self, key, value, state, lib, gotState);
+        }
+
+        @Specialization(replaces = "setItemString", limit = "3")
+        static HashingStorage setItemGeneric(CompactDictStorage self, Object key, Object value, ThreadState state,
+                        @CachedLibrary("key") PythonObjectLibrary lib,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary otherlib,
+                        @Exclusive @Cached("createBinaryProfile()") ConditionProfile stringProfile,
+                        @Exclusive @Cached("createBinaryProfile()") ConditionProfile gotState) {
+            long hash = self.getHashWithState(key, lib, state, gotState);
+            self.put(key, hash, value, lib, otherlib, stringProfile, gotState, state);
+            return self;
+        }
+
+        /**
+         * Objects with custom {@code __eq__}, {@code __hash__} or {@code __del__} are handled by
+         * {@link EconomicMapStorage}, which knows how to deal with their side effects. If
+         * {@code __eq__} modifies this storage while the key is inserted into the new one, the
+         * copy is out of date and is made again.
+         */
+        private static HashingStorage generalize(CompactDictStorage self, Object key, Object value, ThreadState state, HashingStorageLibrary lib, ConditionProfile gotState) {
+            while (true) {
+                Object[] keys = self.keys;
+                int usedEntries = self.usedEntries;
+                int size = self.size;
+                HashingStorage newStore = EconomicMapStorage.create(size + 1);
+                newStore = lib.addAllToOther(self, newStore);
+                if (gotState.profile(state != null)) {
+                    newStore = lib.setItemWithState(newStore, key, value, state);
+                } else {
+                    newStore = lib.setItem(newStore, key, value);
+                }
+                if (keys == self.keys && usedEntries == self.usedEntries && size == self.size) {
+                    return newStore;
+                }
+            }
+        }
+    }
+
+    @ExportMessage
+    static class DelItemWithState {
+
+        @Specialization
+        static HashingStorage delItemString(CompactDictStorage self, String key, ThreadState state,
+                        @Exclusive @Cached("createBinaryProfile()") ConditionProfile stringProfile,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib,
+                        @Exclusive @Cached("createBinaryProfile()") ConditionProfile gotState) {
+            self.remove(key, key.hashCode(), lib, lib, stringProfile, gotState, state);
+            return self;
+        }
+
+        @Specialization(replaces = "delItemString", limit = "2")
+        static HashingStorage delItemGeneric(CompactDictStorage self, Object key, ThreadState state,
+                        @CachedLibrary("key") PythonObjectLibrary lib,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary otherlib,
+                        @Exclusive @Cached("createBinaryProfile()") ConditionProfile stringProfile,
+                        @Exclusive @Cached("createBinaryProfile()") ConditionProfile gotState) {
+            long hash = self.getHashWithState(key, lib, state, gotState);
+            self.remove(key, hash, lib, otherlib, stringProfile, gotState, state);
+            return self;
+        }
+    }
+
+    @Override
+    @ExportMessage
+    Object forEachUntyped(ForEachNode<Object> node, Object arg) {
+        Object result = arg;
+        for (int ix = 0; ix < usedEntries; ix++) {
+            Object key = keys[ix];
+            if (key != null) {
+                result = node.execute(key, result);
+            }
+        }
+        return result;
+    }
+
+    @ExportMessage
+    static class AddAllToOther {
+
+        @Specialization
+        static HashingStorage toSameType(CompactDictStorage self, CompactDictStorage other,
+                        @Exclusive @Cached("createBinaryProfile()") ConditionProfile stringProfile,
+                        @Exclusive @Cached("createBinaryProfile()") ConditionProfile gotState,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib) {
+            // the hashes are already known, so keys do not need to be hashed again
+            for (int ix = 0; ix < self.usedEntries; ix++) {
+                Object key = self.keys[ix];
+                if (key != null) {
+                    other.put(key, self.hashes[ix], self.values[ix], lib, lib, stringProfile, gotState, null);
+                }
+            }
+            return other;
+        }
+
+        @TruffleBoundary
+        @Specialization(limit = "2")
+        static HashingStorage generic(CompactDictStorage self, HashingStorage other,
+                        @CachedLibrary("other") HashingStorageLibrary lib) {
+            HashingStorage result = other;
+            for (int ix = 0; ix < self.usedEntries; ix++) {
+                Object key = self.keys[ix];
+                if (key != null) {
+                    result = lib.setItem(result, key, self.values[ix]);
+                }
+            }
+            return result;
+        }
+    }
+
+    @Override
+    @ExportMessage
+    public HashingStorage clear() {
+        int indexSize = MIN_INDEX_SIZE;
+        int capacity = usableSize(indexSize);
+        indices = newIndices(indexSize);
+        hashes = new long[capacity];
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        usedEntries = 0;
+        size = 0;
+        allStrings = true;
+        return this;
+    }
+
+    @Override
+    @ExportMessage
+    public HashingStorage copy() {
+        return new CompactDictStorage(this);
+    }
+
+    @Override
+    @ExportMessage
+    public HashingStorageIterable<Object> keys() {
+        return new HashingStorageIterable<>(new KeysIterator(this));
+    }
+
+    private static final class KeysIterator implements Iterator<Object> {
+        private final CompactDictStorage storage;
+        private int index;
+
+        KeysIterator(CompactDictStorage storage) {
+            this.storage = storage;
+        }
+
+        public boolean hasNext() {
+            Object[] ks = storage.keys;
+            while (index < storage.usedEntries && ks[index] == null) {
+                index++;
+            }
+            return index < storage.usedEntries;
+        }
+
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return storage.keys[index++];
+        }
+    }
+
+    @Override
+    public String toString() {
+        CompilerAsserts.neverPartOfCompilation();
+        StringBuilder builder = new StringBuilder();
+        builder.append("compact(size=").append(size).append(", {");
+        String sep = "";
+        for (int ix = 0; ix < usedEntries; ix++) {
+            if (keys[ix] != null) {
+                builder.append(sep);
+                builder.append("(").append(keys[ix]).append(",").append(values[ix]).append(")");
+                sep = ",";
+            }
+        }
+        builder.append("})");
+        return builder.toString();
+    }
+}
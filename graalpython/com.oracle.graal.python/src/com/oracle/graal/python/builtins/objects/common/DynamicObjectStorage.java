@@ -267,11 +267,11 @@ public final class DynamicObjectStorage extends HashingStorage {
                         @CachedLibrary(limit = "2") HashingStorageLibrary lib,
                         @Exclusive @Cached("createBinaryProfile()") ConditionProfile gotState) {
             if (gotState.profile(state != null)) {
-                HashingStorage newStore = EconomicMapStorage.create(lib.lengthWithState(self, state));
+                HashingStorage newStore = CompactDictStorage.create(lib.lengthWithState(self, state));
                 newStore = lib.addAllToOther(self, newStore);
                 return lib.setItemWithState(newStore, key, value, state);
             } else {
-                HashingStorage newStore = EconomicMapStorage.create(lib.length(self));
+                HashingStorage newStore = CompactDictStorage.create(lib.length(self));
                 newStore = lib.addAllToOther(self, newStore);
                 return lib.setItem(newStore, key, value);
             }
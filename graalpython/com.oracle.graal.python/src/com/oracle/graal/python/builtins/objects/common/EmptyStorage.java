@@ -80,14 +80,13 @@ public class EmptyStorage extends HashingStorage {
         if (key instanceof String) {
             newStore = new DynamicObjectStorage();
         } else {
-            newStore = EconomicMapStorage.create();
+            newStore = CompactDictStorage.create();
         }
         if (gotState.profile(state != null)) {
-            lib.setItemWithState(newStore, key, value, state);
+            return lib.setItemWithState(newStore, key, value, state);
         } else {
-            lib.setItem(newStore, key, value);
+            return lib.setItem(newStore, key, value);
         }
-        return newStore;
     }
 
     @ExportMessage
@@ -202,7 +202,7 @@ public class KeywordsStorage extends HashingStorage {
     }
 
     private HashingStorage generalize(HashingStorageLibrary lib) {
-        HashingStorage newStore = EconomicMapStorage.create(length());
+        HashingStorage newStore = CompactDictStorage.create(length());
         newStore = lib.addAllToOther(this, newStore);
         return newStore;
     }
@@ -262,7 +262,7 @@ public class KeywordsStorage extends HashingStorage {
     @Override
     @ExportMessage
     public HashingStorage clear() {
-        return EconomicMapStorage.create();
+        return CompactDictStorage.create();
     }
 
     @Override
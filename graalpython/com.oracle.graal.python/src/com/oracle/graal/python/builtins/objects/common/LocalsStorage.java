@@ -203,7 +203,7 @@ public class LocalsStorage extends HashingStorage {
     }
 
     private HashingStorage generalize(HashingStorageLibrary lib) {
-        HashingStorage result = EconomicMapStorage.create(length());
+        HashingStorage result = CompactDictStorage.create(length());
         result = lib.addAllToOther(this, result);
         return result;
     }
@@ -269,7 +269,7 @@ public class LocalsStorage extends HashingStorage {
     @Override
     @ExportMessage
     public HashingStorage clear() {
-        return EconomicMapStorage.create();
+        return CompactDictStorage.create();
     }
 
     @Override
@@ -141,6 +141,7 @@ import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.MroSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.NativeSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.ObjectSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.PackedSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.RangeSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage.ListStorageType;
@@ -740,6 +741,11 @@ public abstract class SequenceStorageNodes {
             return storage.getItemNormalized(idx);
         }
 
+        @Specialization
+        protected Object doPacked(PackedSequenceStorage storage, int idx) {
+            return storage.getItemNormalized(idx);
+        }
+
         @Specialization(guards = "isObject(storage)", limit = "1")
         protected Object doNativeObject(NativeSequenceStorage storage, int idx,
                         @CachedLibrary("storage.getPtr()") InteropLibrary lib,
@@ -1251,6 +1257,11 @@ public abstract class SequenceStorageNodes {
             storage.setItemNormalized(idx, value);
         }
 
+        @Specialization
+        protected void doPacked(PackedSequenceStorage storage, int idx, Object value) {
+            storage.setItemNormalized(idx, value);
+        }
+
         @Specialization(guards = "isByteStorage(storage)")
         protected void doNativeByte(NativeSequenceStorage storage, int idx, Object value,
                         @Shared("raiseNode") @Cached PRaiseNode raiseNode,
@@ -2036,7 +2047,12 @@ public abstract class SequenceStorageNodes {
             return bytes;
         }
 
-        @Specialization(guards = "!isByteSequenceStorage(s)")
+        @Specialization
+        static byte[] doPacked(PackedSequenceStorage s) {
+            return s.getBytes();
+        }
+
+        @Specialization(guards = {"!isByteSequenceStorage(s)", "!isPackedSequenceStorage(s)"})
         byte[] doOther(SequenceStorage s,
                         @Cached GetInternalByteArrayNode getInternalByteArrayNode) {
             return getInternalByteArrayNode.execute(s);
@@ -2050,6 +2066,10 @@ public abstract class SequenceStorageNodes {
             return s instanceof ByteSequenceStorage;
         }
 
+        static boolean isPackedSequenceStorage(SequenceStorage s) {
+            return s instanceof PackedSequenceStorage;
+        }
+
     }
 
     abstract static class ConcatBaseNode extends SequenceStorageBaseNode {
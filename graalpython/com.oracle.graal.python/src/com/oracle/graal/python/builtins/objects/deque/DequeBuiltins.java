@@ -0,0 +1,1064 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.deque;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.IndexError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.MemoryError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.RuntimeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ADD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__CONTAINS__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__COPY__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__DELITEM__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EQ__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETITEM__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__HASH__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__IADD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__IMUL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LEN__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__MUL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REDUCE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REVERSED__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__RMUL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETITEM__;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.deque.DequeBuiltinsFactory.DequeCopyNodeFactory;
+import com.oracle.graal.python.builtins.objects.deque.DequeBuiltinsFactory.DequeExtendNodeFactory;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.type.TypeNodes;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.control.GetIteratorExpressionNode.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetLazyClassNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.sequence.storage.ObjectSequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PDeque)
+public class DequeBuiltins extends PythonBuiltins {
+
+    static final String MUTATED_DURING_ITERATION = "deque mutated during iteration";
+    private static final String INDEX_OUT_OF_RANGE = "deque index out of range";
+    private static final String POP_FROM_EMPTY = "pop from an empty deque";
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return DequeBuiltinsFactory.getFactories();
+    }
+
+    @Override
+    public void initialize(PythonCore core) {
+        super.initialize(core);
+        builtinConstants.put(__HASH__, PNone.NONE);
+    }
+
+    /**
+     * Deques are commonly shared between producer and consumer threads. While only a single thread
+     * runs Python code, the ring buffer is accessed directly; after other threads have been
+     * started, every access holds the deque's lock. The lock is never held while calling back into
+     * Python code.
+     */
+    static boolean lock(PythonContext context, PDeque self) {
+        if (context.getSingleThreadedAssumption().isValid()) {
+            return false;
+        }
+        self.lock();
+        return true;
+    }
+
+    static void unlock(PDeque self, boolean locked) {
+        if (locked) {
+            self.unlock();
+        }
+    }
+
+    static Object[] toArray(PythonContext context, PDeque self) {
+        boolean locked = lock(context, self);
+        try {
+            return self.toArray();
+        } finally {
+            unlock(self, locked);
+        }
+    }
+
+    /**
+     * Reads an element for a search loop, failing if the deque was modified since the search
+     * started.
+     */
+    static Object getItemChecked(PythonBuiltinBaseNode node, PDeque self, int index, int state) {
+        boolean locked = lock(node.getContext(), self);
+        try {
+            if (self.getState() != state) {
+                throw node.raise(RuntimeError, MUTATED_DURING_ITERATION);
+            }
+            return self.get(index);
+        } finally {
+            unlock(self, locked);
+        }
+    }
+
+    static boolean eq(VirtualFrame frame, ConditionProfile hasFrame, PythonObjectLibrary lib, Object item, Object value) {
+        if (hasFrame.profile(frame != null)) {
+            return lib.equalsWithState(item, value, lib, PArguments.getThreadState(frame));
+        } else {
+            return lib.equals(item, value, lib);
+        }
+    }
+
+    static ObjectSequenceStorage toStorage(PythonContext context, PDeque self) {
+        return new ObjectSequenceStorage(toArray(context, self));
+    }
+
+    static int normalizeIndex(PythonBuiltinBaseNode node, int index, int size) {
+        int normalized = index < 0 ? index + size : index;
+        if (normalized < 0 || normalized >= size) {
+            throw node.raise(IndexError, INDEX_OUT_OF_RANGE);
+        }
+        return normalized;
+    }
+
+    @Builtin(name = __INIT__, minNumOfPositionalArgs = 1, parameterNames = {"$self", "iterable", "maxlen"})
+    @GenerateNodeFactory
+    public abstract static class DequeInitNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PNone init(VirtualFrame frame, PDeque self, Object iterable, Object maxlenObj,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib,
+                        @Cached("createExtend()") DequeExtendNode extendNode) {
+            int maxlen = -1;
+            if (!PGuards.isPNone(maxlenObj)) {
+                maxlen = lib.asSize(maxlenObj);
+                if (maxlen < 0) {
+                    throw raise(ValueError, "maxlen must be non-negative");
+                }
+            }
+            boolean locked = lock(getContext(), self);
+            try {
+                self.setMaxLength(maxlen);
+                if (self.getSize() > 0) {
+                    self.clear();
+                }
+            } finally {
+                unlock(self, locked);
+            }
+            if (!PGuards.isNoValue(iterable)) {
+                extendNode.execute(frame, self, iterable);
+            }
+            return PNone.NONE;
+        }
+
+        protected static DequeExtendNode createExtend() {
+            return DequeExtendNodeFactory.create();
+        }
+    }
+
+    // deque.append(x)
+    @Builtin(name = "append", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeAppendNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        PNone append(PDeque self, Object value) {
+            boolean locked = lock(getContext(), self);
+            try {
+                self.append(value);
+            } finally {
+                unlock(self, locked);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    // deque.appendleft(x)
+    @Builtin(name = "appendleft", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeAppendLeftNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        PNone appendLeft(PDeque self, Object value) {
+            boolean locked = lock(getContext(), self);
+            try {
+                self.appendLeft(value);
+            } finally {
+                unlock(self, locked);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    // deque.pop()
+    @Builtin(name = "pop", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class DequePopNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        Object pop(PDeque self) {
+            boolean locked = lock(getContext(), self);
+            try {
+                if (self.getSize() == 0) {
+                    throw raise(IndexError, POP_FROM_EMPTY);
+                }
+                return self.pop();
+            } finally {
+                unlock(self, locked);
+            }
+        }
+    }
+
+    // deque.popleft()
+    @Builtin(name = "popleft", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class DequePopLeftNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        Object popLeft(PDeque self) {
+            boolean locked = lock(getContext(), self);
+            try {
+                if (self.getSize() == 0) {
+                    throw raise(IndexError, POP_FROM_EMPTY);
+                }
+                return self.popLeft();
+            } finally {
+                unlock(self, locked);
+            }
+        }
+    }
+
+    // deque.extend(iterable)
+    @Builtin(name = "extend", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeExtendNode extends PythonBinaryBuiltinNode {
+
+        public abstract PNone execute(VirtualFrame frame, PDeque self, Object iterable);
+
+        @Specialization
+        PNone extend(VirtualFrame frame, PDeque self, Object iterable,
+                        @Cached GetIteratorNode getIteratorNode,
+                        @Cached GetNextNode getNextNode,
+                        @Cached IsBuiltinClassProfile errorProfile) {
+            if (iterable == self) {
+                extendSelf(self);
+                return PNone.NONE;
+            }
+            Object iterator = getIteratorNode.executeWith(frame, iterable);
+            while (true) {
+                Object value;
+                try {
+                    value = getNextNode.execute(frame, iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(errorProfile);
+                    return PNone.NONE;
+                }
+                boolean locked = lock(getContext(), self);
+                try {
+                    self.append(value);
+                } finally {
+                    unlock(self, locked);
+                }
+            }
+        }
+
+        private void extendSelf(PDeque self) {
+            boolean locked = lock(getContext(), self);
+            try {
+                for (Object value : self.toArray()) {
+                    self.append(value);
+                }
+            } finally {
+                unlock(self, locked);
+            }
+        }
+    }
+
+    // deque.extendleft(iterable)
+    @Builtin(name = "extendleft", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeExtendLeftNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        PNone extendLeft(VirtualFrame frame, PDeque self, Object iterable,
+                        @Cached GetIteratorNode getIteratorNode,
+                        @Cached GetNextNode getNextNode,
+                        @Cached IsBuiltinClassProfile errorProfile) {
+            if (iterable == self) {
+                boolean locked = lock(getContext(), self);
+                try {
+                    for (Object value : self.toArray()) {
+                        self.appendLeft(value);
+                    }
+                } finally {
+                    unlock(self, locked);
+                }
+                return PNone.NONE;
+            }
+            Object iterator = getIteratorNode.executeWith(frame, iterable);
+            while (true) {
+                Object value;
+                try {
+                    value = getNextNode.execute(frame, iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(errorProfile);
+                    return PNone.NONE;
+                }
+                boolean locked = lock(getContext(), self);
+                try {
+                    self.appendLeft(value);
+                } finally {
+                    unlock(self, locked);
+                }
+            }
+        }
+    }
+
+    // deque.insert(i, x)
+    @Builtin(name = "insert", minNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    public abstract static class DequeInsertNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PNone insert(PDeque self, Object indexObj, Object value,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib) {
+            int index = lib.asSize(indexObj);
+            boolean locked = lock(getContext(), self);
+            try {
+                int size = self.getSize();
+                if (size == self.getMaxLength()) {
+                    throw raise(IndexError, "deque already at its maximum size");
+                }
+                if (index < 0) {
+                    index = Math.max(index + size, 0);
+                }
+                self.insert(Math.min(index, size), value);
+            } finally {
+                unlock(self, locked);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    // deque.rotate(n=1)
+    @Builtin(name = "rotate", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeRotateNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        PNone rotateOne(PDeque self, @SuppressWarnings("unused") PNone n) {
+            return doRotate(self, 1);
+        }
+
+        @Specialization
+        PNone rotateInt(PDeque self, int n) {
+            return doRotate(self, n);
+        }
+
+        @Specialization(guards = "!isPNone(n)", replaces = "rotateInt")
+        PNone rotateGeneric(PDeque self, Object n,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib) {
+            return doRotate(self, lib.asSize(n));
+        }
+
+        private PNone doRotate(PDeque self, int n) {
+            boolean locked = lock(getContext(), self);
+            try {
+                self.rotate(n);
+            } finally {
+                unlock(self, locked);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    // deque.clear()
+    @Builtin(name = "clear", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class DequeClearNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        PNone clear(PDeque self) {
+            boolean locked = lock(getContext(), self);
+            try {
+                self.clear();
+            } finally {
+                unlock(self, locked);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    // deque.reverse()
+    @Builtin(name = "reverse", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class DequeReverseNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        PNone reverse(PDeque self) {
+            boolean locked = lock(getContext(), self);
+            try {
+                self.reverse();
+            } finally {
+                unlock(self, locked);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    // deque.count(x)
+    @Builtin(name = "count", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeCountNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        int count(VirtualFrame frame, PDeque self, Object value,
+                        @Cached("createBinaryProfile()") ConditionProfile hasFrame,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            int state = self.getState();
+            int size = self.getSize();
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (eq(frame, hasFrame, lib, getItemChecked(this, self, i, state), value)) {
+                    count++;
+                }
+                if (self.getState() != state) {
+                    throw raise(RuntimeError, MUTATED_DURING_ITERATION);
+                }
+            }
+            return count;
+        }
+    }
+
+    // deque.index(x[, start[, stop]])
+    @Builtin(name = "index", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    public abstract static class DequeIndexNode extends PythonBuiltinNode {
+
+        @Child private LookupAndCallUnaryNode reprNode;
+
+        @Specialization
+        int index(VirtualFrame frame, PDeque self, Object value, Object startObj, Object stopObj,
+                        @Cached("createBinaryProfile()") ConditionProfile hasFrame,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary indexLib,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            int start = PGuards.isNoValue(startObj) ? 0 : indexLib.asSize(startObj, null);
+            int stop = PGuards.isNoValue(stopObj) ? Integer.MAX_VALUE : indexLib.asSize(stopObj, null);
+            int state = self.getState();
+            int size = self.getSize();
+            if (start < 0) {
+                start = Math.max(start + size, 0);
+            }
+            if (stop < 0) {
+                stop = Math.max(stop + size, 0);
+            }
+            stop = Math.min(stop, size);
+            for (int i = start; i < stop; i++) {
+                if (eq(frame, hasFrame, lib, getItemChecked(this, self, i, state), value)) {
+                    return i;
+                }
+                if (self.getState() != state) {
+                    throw raise(RuntimeError, MUTATED_DURING_ITERATION);
+                }
+            }
+            throw raise(ValueError, "%s is not in deque", repr(frame, value));
+        }
+
+        private Object repr(VirtualFrame frame, Object value) {
+            if (reprNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                reprNode = insert(LookupAndCallUnaryNode.create(__REPR__));
+            }
+            return reprNode.executeObject(frame, value);
+        }
+    }
+
+    // deque.remove(x)
+    @Builtin(name = "remove", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeRemoveNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        PNone remove(VirtualFrame frame, PDeque self, Object value,
+                        @Cached("createBinaryProfile()") ConditionProfile hasFrame,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            int size = self.getSize();
+            for (int i = 0; i < size; i++) {
+                Object item;
+                boolean locked = lock(getContext(), self);
+                try {
+                    if (self.getSize() != size) {
+                        throw raise(IndexError, "deque mutated during remove().");
+                    }
+                    item = self.get(i);
+                } finally {
+                    unlock(self, locked);
+                }
+                boolean found = eq(frame, hasFrame, lib, item, value);
+                locked = lock(getContext(), self);
+                try {
+                    if (self.getSize() != size) {
+                        throw raise(IndexError, "deque mutated during remove().");
+                    }
+                    if (found) {
+                        self.delete(i);
+                        return PNone.NONE;
+                    }
+                } finally {
+                    unlock(self, locked);
+                }
+            }
+            throw raise(ValueError, "deque.remove(x): x not in deque");
+        }
+    }
+
+    // deque.copy()
+    @Builtin(name = "copy", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class DequeCopyNode extends PythonUnaryBuiltinNode {
+
+        public abstract Object execute(VirtualFrame frame, PDeque self);
+
+        @Specialization
+        Object copy(VirtualFrame frame, PDeque self,
+                        @Cached IsBuiltinClassProfile isBuiltinProfile,
+                        @Cached GetLazyClassNode getClassNode,
+                        @Cached CallNode callNode) {
+            if (isBuiltinProfile.profileObject(self, PythonBuiltinClassType.PDeque)) {
+                PDeque copy = factory().createDeque(PythonBuiltinClassType.PDeque);
+                boolean locked = lock(getContext(), self);
+                try {
+                    copy.setMaxLength(self.getMaxLength());
+                    for (int i = 0; i < self.getSize(); i++) {
+                        copy.append(self.get(i));
+                    }
+                } finally {
+                    unlock(self, locked);
+                }
+                return copy;
+            }
+            int maxlen = self.getMaxLength();
+            if (maxlen < 0) {
+                return callNode.execute(frame, getClassNode.execute(self), self);
+            } else {
+                return callNode.execute(frame, getClassNode.execute(self), self, maxlen);
+            }
+        }
+
+        public static DequeCopyNode create() {
+            return DequeCopyNodeFactory.create();
+        }
+    }
+
+    @Builtin(name = __COPY__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class DequeDunderCopyNode extends DequeCopyNode {
+    }
+
+    @Builtin(name = "maxlen", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class DequeMaxLenNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        Object maxlen(PDeque self) {
+            int maxlen = self.getMaxLength();
+            return maxlen < 0 ? PNone.NONE : maxlen;
+        }
+    }
+
+    @Builtin(name = __LEN__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class DequeLenNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        int len(PDeque self) {
+            return self.getSize();
+        }
+    }
+
+    @Builtin(name = __ITER__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class DequeIterNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        PDequeIter iter(PDeque self) {
+            return factory().createDequeIter(PythonBuiltinClassType.PDequeIter, self);
+        }
+    }
+
+    @Builtin(name = __REVERSED__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class DequeReversedNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        PDequeIter reversed(PDeque self) {
+            return factory().createDequeRevIter(PythonBuiltinClassType.PDequeRevIter, self);
+        }
+    }
+
+    @Builtin(name = __GETITEM__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeGetItemNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        Object getItemInt(PDeque self, int index) {
+            boolean locked = lock(getContext(), self);
+            try {
+                return self.get(normalizeIndex(this, index, self.getSize()));
+            } finally {
+                unlock(self, locked);
+            }
+        }
+
+        @Specialization(replaces = "getItemInt")
+        Object getItemGeneric(PDeque self, Object indexObj,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib) {
+            return getItemInt(self, lib.asSize(indexObj, IndexError));
+        }
+    }
+
+    @Builtin(name = __SETITEM__, minNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    public abstract static class DequeSetItemNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PNone setItem(PDeque self, Object indexObj, Object value,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib) {
+            int index = lib.asSize(indexObj, IndexError);
+            boolean locked = lock(getContext(), self);
+            try {
+                self.set(normalizeIndex(this, index, self.getSize()), value);
+            } finally {
+                unlock(self, locked);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __DELITEM__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeDelItemNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        PNone delItem(PDeque self, Object indexObj,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib) {
+            int index = lib.asSize(indexObj, IndexError);
+            boolean locked = lock(getContext(), self);
+            try {
+                self.delete(normalizeIndex(this, index, self.getSize()));
+            } finally {
+                unlock(self, locked);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __CONTAINS__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeContainsNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        boolean contains(VirtualFrame frame, PDeque self, Object value,
+                        @Cached("createBinaryProfile()") ConditionProfile hasFrame,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            int state = self.getState();
+            int size = self.getSize();
+            for (int i = 0; i < size; i++) {
+                if (eq(frame, hasFrame, lib, getItemChecked(this, self, i, state), value)) {
+                    return true;
+                }
+                if (self.getState() != state) {
+                    throw raise(RuntimeError, MUTATED_DURING_ITERATION);
+                }
+            }
+            return false;
+        }
+    }
+
+    @Builtin(name = __REPR__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class DequeReprNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        Object repr(VirtualFrame frame, PDeque self,
+                        @Cached("create(__REPR__)") LookupAndCallUnaryNode reprNode,
+                        @Cached GetLazyClassNode getClassNode,
+                        @Cached TypeNodes.GetNameNode getNameNode) {
+            Object[] items = toArray(getContext(), self);
+            StringBuilder sb = newStringBuilder(getNameNode.execute(getClassNode.execute(self)));
+            sbAppend(sb, "([");
+            for (int i = 0; i < items.length; i++) {
+                if (i > 0) {
+                    sbAppend(sb, ", ");
+                }
+                if (items[i] == self) {
+                    sbAppend(sb, "[...]");
+                    continue;
+                }
+                Object reprString = reprNode.executeObject(frame, items[i]);
+                if (reprString instanceof PString) {
+                    reprString = ((PString) reprString).getValue();
+                }
+                if (!(reprString instanceof String)) {
+                    throw raise(TypeError, "__repr__ returned non-string (type %p)", reprString);
+                }
+                sbAppend(sb, (String) reprString);
+            }
+            sbAppend(sb, "]");
+            int maxlen = self.getMaxLength();
+            if (maxlen >= 0) {
+                sbAppend(sb, ", maxlen=");
+                sbAppend(sb, maxlen);
+            }
+            sbAppend(sb, ")");
+            return sbToString(sb);
+        }
+
+        @TruffleBoundary(allowInlining = true)
+        private static StringBuilder newStringBuilder(String s) {
+            return new StringBuilder(s);
+        }
+
+        @TruffleBoundary(allowInlining = true)
+        private static StringBuilder sbAppend(StringBuilder sb, String s) {
+            return sb.append(s);
+        }
+
+        @TruffleBoundary(allowInlining = true)
+        private static StringBuilder sbAppend(StringBuilder sb, int i) {
+            return sb.append(i);
+        }
+
+        @TruffleBoundary(allowInlining = true)
+        private static String sbToString(StringBuilder sb) {
+            return sb.toString();
+        }
+    }
+
+    @Builtin(name = __REDUCE__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class DequeReduceNode extends PythonUnaryBuiltinNode {
+
+        @Specialization(limit = "1")
+        Object reduce(PDeque self,
+                        @CachedLibrary("self") PythonObjectLibrary lib,
+                        @Cached GetLazyClassNode getClassNode,
+                        @Cached IsBuiltinClassProfile exactDequeProfile) {
+            Object state = PNone.NONE;
+            if (!exactDequeProfile.profileObject(self, PythonBuiltinClassType.PDeque)) {
+                // instances of subclasses keep their attributes in the object storage until
+                // '__dict__' is materialized, so expose them the same way 'object.__dict__' does
+                PHashingCollection dict = lib.getDict(self);
+                state = dict != null ? dict : factory().createDictFixedStorage(self);
+            }
+            int maxlen = self.getMaxLength();
+            Object args;
+            if (maxlen < 0) {
+                args = factory().createEmptyTuple();
+            } else {
+                args = factory().createTuple(new Object[]{factory().createEmptyTuple(), maxlen});
+            }
+            PDequeIter iterator = factory().createDequeIter(PythonBuiltinClassType.PDequeIter, self);
+            return factory().createTuple(new Object[]{getClassNode.execute(self), args, state, iterator});
+        }
+    }
+
+    @Builtin(name = __ADD__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeAddNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        Object add(VirtualFrame frame, PDeque self, PDeque other,
+                        @Cached DequeCopyNode copyNode,
+                        @Cached("createExtend()") DequeExtendNode extendNode) {
+            Object copy = copyNode.execute(frame, self);
+            if (!(copy instanceof PDeque)) {
+                throw raise(TypeError, "copy() returned a non-deque (type %p)", copy);
+            }
+            extendNode.execute(frame, (PDeque) copy, other);
+            return copy;
+        }
+
+        @Fallback
+        Object addOther(@SuppressWarnings("unused") Object self, Object other) {
+            throw raise(TypeError, "can only concatenate deque (not \"%p\") to deque", other);
+        }
+
+        protected static DequeExtendNode createExtend() {
+            return DequeExtendNodeFactory.create();
+        }
+    }
+
+    @Builtin(name = __IADD__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeIAddNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        PDeque iadd(VirtualFrame frame, PDeque self, Object other,
+                        @Cached("createExtend()") DequeExtendNode extendNode) {
+            extendNode.execute(frame, self, other);
+            return self;
+        }
+
+        protected static DequeExtendNode createExtend() {
+            return DequeExtendNodeFactory.create();
+        }
+    }
+
+    @Builtin(name = __IMUL__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeIMulNode extends PythonBinaryBuiltinNode {
+
+        public abstract Object execute(VirtualFrame frame, PDeque self, Object times);
+
+        @Specialization(guards = "lib.canBeIndex(times)", limit = "2")
+        PDeque imul(PDeque self, Object times,
+                        @CachedLibrary("times") PythonObjectLibrary lib) {
+            int n = lib.asSize(times);
+            boolean locked = lock(getContext(), self);
+            try {
+                int size = self.getSize();
+                if (n <= 0) {
+                    self.clear();
+                    return self;
+                }
+                if (size == 0 || n == 1) {
+                    return self;
+                }
+                int maxlen = self.getMaxLength();
+                if (maxlen >= 0 && (long) n * size > maxlen) {
+                    // appending more copies would only evict the elements again
+                    n = (maxlen + size - 1) / size + 1;
+                }
+                if ((long) n * size > Integer.MAX_VALUE) {
+                    throw raise(MemoryError);
+                }
+                Object[] items = self.toArray();
+                for (int i = 1; i < n; i++) {
+                    for (int j = 0; j < items.length; j++) {
+                        self.append(items[j]);
+                    }
+                }
+                return self;
+            } finally {
+                unlock(self, locked);
+            }
+        }
+
+        @Specialization(guards = "!lib.canBeIndex(times)", limit = "2")
+        @SuppressWarnings("unused")
+        PNotImplemented imulOther(PDeque self, Object times,
+                        @CachedLibrary("times") PythonObjectLibrary lib) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __MUL__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeMulNode extends PythonBinaryBuiltinNode {
+
+        @Specialization(guards = "lib.canBeIndex(times)", limit = "2")
+        Object mul(VirtualFrame frame, PDeque self, Object times,
+                        @SuppressWarnings("unused") @CachedLibrary("times") PythonObjectLibrary lib,
+                        @Cached DequeCopyNode copyNode,
+                        @Cached("createIMul()") DequeIMulNode imulNode) {
+            Object copy = copyNode.execute(frame, self);
+            if (!(copy instanceof PDeque)) {
+                throw raise(TypeError, "copy() returned a non-deque (type %p)", copy);
+            }
+            return imulNode.execute(frame, (PDeque) copy, times);
+        }
+
+        @Specialization(guards = "!lib.canBeIndex(times)", limit = "2")
+        @SuppressWarnings("unused")
+        PNotImplemented mulOther(PDeque self, Object times,
+                        @CachedLibrary("times") PythonObjectLibrary lib) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+
+        protected static DequeIMulNode createIMul() {
+            return DequeBuiltinsFactory.DequeIMulNodeFactory.create();
+        }
+    }
+
+    @Builtin(name = __RMUL__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeRMulNode extends DequeMulNode {
+    }
+
+    @Builtin(name = __EQ__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeEqNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        boolean eq(VirtualFrame frame, PDeque self, PDeque other,
+                        @Cached("createEq()") SequenceStorageNodes.CmpNode cmpNode) {
+            return cmpNode.execute(frame, toStorage(getContext(), self), toStorage(getContext(), other));
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented doOther(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __NE__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeNeNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        boolean ne(VirtualFrame frame, PDeque self, PDeque other,
+                        @Cached("createEq()") SequenceStorageNodes.CmpNode cmpNode) {
+            return !cmpNode.execute(frame, toStorage(getContext(), self), toStorage(getContext(), other));
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented doOther(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __LT__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeLtNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        boolean lt(VirtualFrame frame, PDeque self, PDeque other,
+                        @Cached("createLt()") SequenceStorageNodes.CmpNode cmpNode) {
+            return cmpNode.execute(frame, toStorage(getContext(), self), toStorage(getContext(), other));
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented doOther(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __LE__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeLeNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        boolean le(VirtualFrame frame, PDeque self, PDeque other,
+                        @Cached("createLe()") SequenceStorageNodes.CmpNode cmpNode) {
+            return cmpNode.execute(frame, toStorage(getContext(), self), toStorage(getContext(), other));
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented doOther(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __GT__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeGtNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        boolean gt(VirtualFrame frame, PDeque self, PDeque other,
+                        @Cached("createGt()") SequenceStorageNodes.CmpNode cmpNode) {
+            return cmpNode.execute(frame, toStorage(getContext(), self), toStorage(getContext(), other));
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented doOther(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __GE__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeGeNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        boolean ge(VirtualFrame frame, PDeque self, PDeque other,
+                        @Cached("createGe()") SequenceStorageNodes.CmpNode cmpNode) {
+            return cmpNode.execute(frame, toStorage(getContext(), self), toStorage(getContext(), other));
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNotImplemented doOther(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.deque;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A {@code collections.deque} backed by a growable circular array. The capacity is always a power
+ * of two, so that physical positions can be computed by masking. None of the accessors are
+ * synchronized; callers that may run concurrently with other Python threads have to hold the lock
+ * (see {@link #lock()}).
+ */
+public final class PDeque extends PythonBuiltinObject {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Object[] items = new Object[INITIAL_CAPACITY];
+    /** Physical position of the leftmost element. */
+    private int head;
+    private int size;
+    /** The maximum length or {@code -1} if the deque is unbounded. */
+    private int maxLength = -1;
+    /** Incremented on every structural modification, used to detect mutation in iterators. */
+    private int state;
+
+    public PDeque(LazyPythonClass cls) {
+        super(cls);
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    public void lock() {
+        lock.lock();
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    public void unlock() {
+        lock.unlock();
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    public void setMaxLength(int maxLength) {
+        this.maxLength = maxLength;
+    }
+
+    public int getState() {
+        return state;
+    }
+
+    private int mask() {
+        return items.length - 1;
+    }
+
+    public Object get(int index) {
+        assert 0 <= index && index < size;
+        return items[(head + index) & mask()];
+    }
+
+    public void set(int index, Object value) {
+        assert 0 <= index && index < size;
+        items[(head + index) & mask()] = value;
+    }
+
+    /**
+     * Adds an element to the right side. If the deque is bounded and full, the leftmost element
+     * is discarded.
+     */
+    public void append(Object value) {
+        if (size == maxLength) {
+            if (maxLength == 0) {
+                return;
+            }
+            popLeft();
+        }
+        if (size == items.length) {
+            resize(items.length << 1);
+        }
+        items[(head + size) & mask()] = value;
+        size++;
+        state++;
+    }
+
+    /**
+     * Adds an element to the left side. If the deque is bounded and full, the rightmost element
+     * is discarded.
+     */
+    public void appendLeft(Object value) {
+        if (size == maxLength) {
+            if (maxLength == 0) {
+                return;
+            }
+            pop();
+        }
+        if (size == items.length) {
+            resize(items.length << 1);
+        }
+        head = (head - 1) & mask();
+        items[head] = value;
+        size++;
+        state++;
+    }
+
+    public Object pop() {
+        assert size > 0;
+        int index = (head + size - 1) & mask();
+        Object value = items[index];
+        items[index] = null;
+        size--;
+        state++;
+        shrinkIfSparse();
+        return value;
+    }
+
+    public Object popLeft() {
+        assert size > 0;
+        Object value = items[head];
+        items[head] = null;
+        head = (head + 1) & mask();
+        size--;
+        state++;
+        shrinkIfSparse();
+        return value;
+    }
+
+    public void clear() {
+        if (items.length > INITIAL_CAPACITY) {
+            items = new Object[INITIAL_CAPACITY];
+        } else {
+            for (int i = 0; i < items.length; i++) {
+                items[i] = null;
+            }
+        }
+        head = 0;
+        size = 0;
+        state++;
+    }
+
+    /**
+     * Rotates the deque {@code n} steps to the right, or to the left if {@code n} is negative.
+     * Like CPython, this moves at most half of the elements. A completely filled buffer only
+     * needs to move its head.
+     */
+    public void rotate(long n) {
+        if (size <= 1) {
+            return;
+        }
+        int steps = (int) (n % size);
+        int half = size >> 1;
+        if (steps > half) {
+            steps -= size;
+        } else if (steps < -half) {
+            steps += size;
+        }
+        if (steps == 0) {
+            return;
+        }
+        int mask = mask();
+        if (size == items.length) {
+            head = (head - steps) & mask;
+        } else if (steps > 0) {
+            for (int i = 0; i < steps; i++) {
+                int tail = (head + size - 1) & mask;
+                head = (head - 1) & mask;
+                items[head] = items[tail];
+                items[tail] = null;
+            }
+        } else {
+            for (int i = 0; i > steps; i--) {
+                int tail = (head + size) & mask;
+                items[tail] = items[head];
+                items[head] = null;
+                head = (head + 1) & mask;
+            }
+        }
+        state++;
+    }
+
+    public void reverse() {
+        int mask = mask();
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            int left = (head + i) & mask;
+            int right = (head + j) & mask;
+            Object tmp = items[left];
+            items[left] = items[right];
+            items[right] = tmp;
+        }
+    }
+
+    /**
+     * Inserts an element before the given index, moving the shorter side of the deque. The caller
+     * has to make sure that the deque is not full.
+     */
+    public void insert(int index, Object value) {
+        assert 0 <= index && index <= size && size != maxLength;
+        if (size == items.length) {
+            resize(items.length << 1);
+        }
+        int mask = mask();
+        if (index < size >> 1) {
+            head = (head - 1) & mask;
+            for (int i = 0; i < index; i++) {
+                items[(head + i) & mask] = items[(head + i + 1) & mask];
+            }
+        } else {
+            for (int i = size; i > index; i--) {
+                items[(head + i) & mask] = items[(head + i - 1) & mask];
+            }
+        }
+        items[(head + index) & mask] = value;
+        size++;
+        state++;
+    }
+
+    /**
+     * Removes the element at the given index, moving the shorter side of the deque.
+     */
+    public void delete(int index) {
+        assert 0 <= index && index < size;
+        int mask = mask();
+        if (index < size >> 1) {
+            for (int i = index; i > 0; i--) {
+                items[(head + i) & mask] = items[(head + i - 1) & mask];
+            }
+            items[head] = null;
+            head = (head + 1) & mask;
+        } else {
+            for (int i = index; i < size - 1; i++) {
+                items[(head + i) & mask] = items[(head + i + 1) & mask];
+            }
+            items[(head + size - 1) & mask] = null;
+        }
+        size--;
+        state++;
+        shrinkIfSparse();
+    }
+
+    public Object[] toArray() {
+        Object[] result = new Object[size];
+        int firstPart = Math.min(size, items.length - head);
+        System.arraycopy(items, head, result, 0, firstPart);
+        System.arraycopy(items, 0, result, firstPart, size - firstPart);
+        return result;
+    }
+
+    private void shrinkIfSparse() {
+        if (items.length > INITIAL_CAPACITY && size < items.length >> 2) {
+            resize(items.length >> 1);
+        }
+    }
+
+    private void resize(int capacity) {
+        assert capacity >= size && Integer.bitCount(capacity) == 1;
+        Object[] newItems = new Object[capacity];
+        int firstPart = Math.min(size, items.length - head);
+        System.arraycopy(items, head, newItems, 0, firstPart);
+        System.arraycopy(items, 0, newItems, firstPart, size - firstPart);
+        items = newItems;
+        head = 0;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.deque;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+
+/**
+ * The forward and reverse iterators of {@link PDeque}. The iterator remembers the deque's
+ * modification state and fails if the deque is structurally modified while iterating.
+ */
+public final class PDequeIter extends PythonBuiltinObject {
+
+    private final PDeque deque;
+    private final boolean reversed;
+    private final int state;
+    /** The number of elements not yet returned. */
+    private int remaining;
+
+    public PDequeIter(LazyPythonClass cls, PDeque deque, boolean reversed) {
+        super(cls);
+        this.deque = deque;
+        this.reversed = reversed;
+        this.state = deque.getState();
+        this.remaining = deque.getSize();
+    }
+
+    public PDeque getDeque() {
+        return deque;
+    }
+
+    public boolean isReversed() {
+        return reversed;
+    }
+
+    public int getRemaining() {
+        return remaining;
+    }
+
+    public boolean isDequeModified() {
+        return state != deque.getState();
+    }
+
+    public void invalidate() {
+        remaining = 0;
+    }
+
+    /**
+     * Returns the next element. The caller has to check {@link #isDequeModified()} and
+     * {@link #getRemaining()} first.
+     */
+    public Object next() {
+        assert remaining > 0 && !isDequeModified();
+        int size = deque.getSize();
+        Object value = reversed ? deque.get(remaining - 1) : deque.get(size - remaining);
+        remaining--;
+        return value;
+    }
+
+    public void skip(int n) {
+        if (n > 0) {
+            remaining -= Math.min(n, remaining);
+        }
+    }
+}
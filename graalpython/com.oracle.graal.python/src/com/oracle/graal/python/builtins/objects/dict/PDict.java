@@ -25,8 +25,8 @@
  */
 package com.oracle.graal.python.builtins.objects.dict;
 
+import com.oracle.graal.python.builtins.objects.common.CompactDictStorage;
 import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage;
-import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
 import com.oracle.graal.python.builtins.objects.common.EmptyStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary;
@@ -70,7 +70,7 @@ public final class PDict extends PHashingCollection {
         } else if (isStringKey && expectedSize < DynamicObjectStorage.SIZE_THRESHOLD) {
             newDictStorage = new DynamicObjectStorage();
         } else {
-            newDictStorage = EconomicMapStorage.create(expectedSize);
+            newDictStorage = CompactDictStorage.create(expectedSize);
         }
         return newDictStorage;
     }
@@ -39,6 +39,7 @@ import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.builtins.objects.object.ObjectBuiltins.DictNode;
 import com.oracle.graal.python.builtins.objects.object.ObjectBuiltinsFactory.DictNodeFactory;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
+import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.PRootNode;
 import com.oracle.graal.python.nodes.frame.MaterializeFrameNode;
 import com.oracle.graal.python.nodes.frame.ReadCallerFrameNode;
@@ -117,13 +118,18 @@ public final class FrameBuiltins extends PythonBuiltins {
         }
     }
 
-    @Builtin(name = "f_trace", minNumOfPositionalArgs = 1, isGetter = true)
+    @Builtin(name = "f_trace", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
     @GenerateNodeFactory
     public abstract static class GetTraceNode extends PythonBuiltinNode {
-        @Specialization
-        Object get(@SuppressWarnings("unused") PFrame self) {
-            // TODO: frames: This must return the traceback if there is a
-            // handled exception here
+        @Specialization(guards = "isNoValue(none)")
+        Object get(PFrame self, @SuppressWarnings("unused") PNone none) {
+            Object localTrace = self.getLocalTraceFunction();
+            return localTrace != null ? localTrace : PNone.NONE;
+        }
+
+        @Specialization(guards = "!isNoValue(value)")
+        Object set(PFrame self, Object value) {
+            self.setLocalTraceFunction(PGuards.isNone(value) ? null : value);
             return PNone.NONE;
         }
     }
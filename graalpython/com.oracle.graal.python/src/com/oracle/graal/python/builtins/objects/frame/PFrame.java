@@ -69,6 +69,12 @@ public final class PFrame extends PythonBuiltinObject {
 
     private PFrame.Reference backref = null;
 
+    /* the local trace function ('f_trace'), or 'null' */
+    private Object localTraceFunction;
+
+    /* the exception last reported to the local trace function since the last 'line' event */
+    private Object tracedException;
+
     // TODO: frames: this is a large object, think about how to make this
     // smaller
     public static final class Reference {
@@ -303,7 +309,30 @@ public final class PFrame extends PythonBuiltinObject {
         this.arguments = arguments2;
     }
 
+    public Node getLocation() {
+        return location;
+    }
+
     public void setLocation(Node location) {
-        this.location = location;
+        if (this.location != location) {
+            this.location = location;
+            this.line = -2;
+        }
+    }
+
+    public Object getLocalTraceFunction() {
+        return localTraceFunction;
+    }
+
+    public void setLocalTraceFunction(Object localTraceFunction) {
+        this.localTraceFunction = localTraceFunction;
+    }
+
+    public Object getTracedException() {
+        return tracedException;
+    }
+
+    public void setTracedException(Object tracedException) {
+        this.tracedException = tracedException;
     }
 }
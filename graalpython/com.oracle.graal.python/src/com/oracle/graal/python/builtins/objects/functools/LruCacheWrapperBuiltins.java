@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.functools;
+
+import static com.oracle.graal.python.nodes.SpecialAttributeNames.__DICT__;
+import static com.oracle.graal.python.nodes.SpecialAttributeNames.__QUALNAME__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__CALL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GET__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REDUCE__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary;
+import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.function.PArguments.ThreadState;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.functools.PLruCacheWrapper.Link;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode.GetFixedAttributeNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonVarargsBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.ImportStatic;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PLruCacheWrapper)
+public class LruCacheWrapperBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return LruCacheWrapperBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = __CALL__, minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true)
+    @GenerateNodeFactory
+    @ImportStatic(PLruCacheWrapper.class)
+    public abstract static class LruCacheCallNode extends PythonVarargsBuiltinNode {
+        @Child private CallNode callNode = CallNode.create();
+        @Child private GetClassNode getClassNode;
+
+        @Specialization(guards = "self.getKind() == UNCACHED")
+        Object uncached(VirtualFrame frame, PLruCacheWrapper self, Object[] arguments, PKeyword[] keywords) {
+            self.miss();
+            return callNode.execute(frame, self.getFunction(), arguments, keywords);
+        }
+
+        @Specialization(guards = "self.getKind() == INFINITE")
+        Object infinite(VirtualFrame frame, PLruCacheWrapper self, Object[] arguments, PKeyword[] keywords,
+                        @Cached IsBuiltinClassProfile intProfile,
+                        @Cached IsBuiltinClassProfile strProfile,
+                        @CachedLibrary(limit = "2") HashingStorageLibrary lib) {
+            ThreadState state = PArguments.getThreadState(frame);
+            Object key = makeKey(self, arguments, keywords, intProfile, strProfile);
+            Object result = lib.getItemWithState(self.getCache(), key, state);
+            if (result != null) {
+                self.hit();
+                return result;
+            }
+            self.miss();
+            result = callNode.execute(frame, self.getFunction(), arguments, keywords);
+            self.setCache(lib.setItemWithState(self.getCache(), key, result, state));
+            return result;
+        }
+
+        @Specialization(guards = "self.getKind() == BOUNDED")
+        Object bounded(VirtualFrame frame, PLruCacheWrapper self, Object[] arguments, PKeyword[] keywords,
+                        @Cached IsBuiltinClassProfile intProfile,
+                        @Cached IsBuiltinClassProfile strProfile,
+                        @Cached("createBinaryProfile()") ConditionProfile fullProfile,
+                        @CachedLibrary(limit = "2") HashingStorageLibrary lib) {
+            ThreadState state = PArguments.getThreadState(frame);
+            Object key = makeKey(self, arguments, keywords, intProfile, strProfile);
+            Object link = lib.getItemWithState(self.getCache(), key, state);
+            if (link != null) {
+                self.touch((Link) link);
+                self.hit();
+                return ((Link) link).getResult();
+            }
+            self.miss();
+            Object result = callNode.execute(frame, self.getFunction(), arguments, keywords);
+            HashingStorage cache = self.getCache();
+            if (lib.getItemWithState(cache, key, state) != null) {
+                // the call re-entered the wrapper and already cached this key
+                return result;
+            }
+            if (fullProfile.profile(lib.lengthWithState(cache, state) >= self.getMaxSize())) {
+                cache = lib.delItemWithState(cache, self.removeOldest().getKey(), state);
+            }
+            self.setCache(lib.setItemWithState(cache, key, self.add(key, result), state));
+            return result;
+        }
+
+        /**
+         * Builds the cache key like {@code functools._make_key}: a single int or str argument is
+         * its own key, otherwise the key is a tuple of the positional arguments, followed by a
+         * marker and the keyword names and values, followed by the argument types if the cache is
+         * typed.
+         */
+        private Object makeKey(PLruCacheWrapper self, Object[] arguments, PKeyword[] keywords, IsBuiltinClassProfile intProfile, IsBuiltinClassProfile strProfile) {
+            boolean typed = self.isTyped();
+            if (!typed && keywords.length == 0) {
+                if (arguments.length == 1) {
+                    Object argument = arguments[0];
+                    if (argument instanceof Integer || argument instanceof Long || argument instanceof String ||
+                                    (argument instanceof PInt && intProfile.profileObject((PInt) argument, PythonBuiltinClassType.PInt)) ||
+                                    (argument instanceof PString && strProfile.profileObject((PString) argument, PythonBuiltinClassType.PString))) {
+                        return argument;
+                    }
+                }
+                return factory().createTuple(arguments);
+            }
+            int size = arguments.length;
+            if (keywords.length > 0) {
+                size += 1 + 2 * keywords.length;
+            }
+            if (typed) {
+                size += arguments.length + keywords.length;
+            }
+            Object[] key = new Object[size];
+            System.arraycopy(arguments, 0, key, 0, arguments.length);
+            int n = arguments.length;
+            if (keywords.length > 0) {
+                key[n++] = self.getKeywordMark();
+                for (PKeyword keyword : keywords) {
+                    key[n++] = keyword.getName();
+                    key[n++] = keyword.getValue();
+                }
+            }
+            if (typed) {
+                if (getClassNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    getClassNode = insert(GetClassNode.create());
+                }
+                for (Object argument : arguments) {
+                    key[n++] = getClassNode.execute(argument);
+                }
+                for (PKeyword keyword : keywords) {
+                    key[n++] = getClassNode.execute(keyword.getValue());
+                }
+            }
+            return factory().createTuple(key);
+        }
+
+        @Override
+        public Object varArgExecute(VirtualFrame frame, @SuppressWarnings("unused") Object self, Object[] arguments, PKeyword[] keywords) throws VarargsBuiltinDirectInvocationNotSupported {
+            Object[] argsWithoutSelf = new Object[arguments.length - 1];
+            System.arraycopy(arguments, 1, argsWithoutSelf, 0, argsWithoutSelf.length);
+            return execute(frame, arguments[0], argsWithoutSelf, keywords);
+        }
+    }
+
+    @Builtin(name = "cache_info", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class CacheInfoNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object cacheInfo(VirtualFrame frame, PLruCacheWrapper self,
+                        @Cached CallNode callNode,
+                        @CachedLibrary(limit = "2") HashingStorageLibrary lib) {
+            int currentSize = lib.lengthWithState(self.getCache(), PArguments.getThreadState(frame));
+            return callNode.execute(frame, self.getCacheInfoType(), self.getHits(), self.getMisses(), self.getMaxSizeObject(), currentSize);
+        }
+    }
+
+    @Builtin(name = "cache_clear", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class CacheClearNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static PNone cacheClear(PLruCacheWrapper self) {
+            self.clear();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __GET__, minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    public abstract static class GetNode extends PythonTernaryBuiltinNode {
+        @Specialization(guards = "isNone(instance)")
+        static Object getClass(PLruCacheWrapper self, @SuppressWarnings("unused") Object instance, @SuppressWarnings("unused") Object owner) {
+            return self;
+        }
+
+        @Specialization(guards = "!isNone(instance)")
+        Object getInstance(PLruCacheWrapper self, Object instance, @SuppressWarnings("unused") Object owner) {
+            return factory().createMethod(instance, self);
+        }
+    }
+
+    @Builtin(name = __REDUCE__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ReduceNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object reduce(VirtualFrame frame, PLruCacheWrapper self,
+                        @Cached("create(__QUALNAME__)") GetFixedAttributeNode getQualNameNode) {
+            return getQualNameNode.executeObject(frame, self);
+        }
+    }
+
+    @Builtin(name = "__copy__", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class CopyNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static PLruCacheWrapper copy(PLruCacheWrapper self) {
+            return self;
+        }
+    }
+
+    @Builtin(name = "__deepcopy__", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DeepCopyNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        static PLruCacheWrapper deepcopy(PLruCacheWrapper self, @SuppressWarnings("unused") Object memo) {
+            return self;
+        }
+    }
+
+    @Builtin(name = __DICT__, minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
+    @GenerateNodeFactory
+    public abstract static class DictNode extends PythonBinaryBuiltinNode {
+        @Specialization(limit = "1")
+        static PNone dict(PLruCacheWrapper self, PHashingCollection mapping,
+                        @CachedLibrary("self") PythonObjectLibrary lib) {
+            try {
+                lib.setDict(self, mapping);
+            } catch (UnsupportedMessageException e) {
+                CompilerDirectives.transferToInterpreter();
+                throw new IllegalStateException(e);
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "isNoValue(mapping)", limit = "1")
+        Object dict(PLruCacheWrapper self, @SuppressWarnings("unused") PNone mapping,
+                        @CachedLibrary("self") PythonObjectLibrary lib) {
+            return PartialBuiltins.getOrCreateDict(factory(), self, lib);
+        }
+
+        @Specialization(guards = {"!isNoValue(mapping)", "!isDict(mapping)"})
+        Object dict(@SuppressWarnings("unused") PLruCacheWrapper self, Object mapping) {
+            throw raise(TypeError, "__dict__ must be set to a dictionary, not a '%p'", mapping);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.functools;
+
+import com.oracle.graal.python.builtins.objects.common.CompactDictStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+
+/**
+ * The function wrapper created by {@code functools.lru_cache}. Cached results are kept in a
+ * hashing storage that maps the call's key to a {@link Link}. For bounded caches the links also
+ * form a circular doubly linked list in the order of their last use, so that finding, refreshing
+ * and evicting the least recently used entry are all constant time operations.
+ */
+public final class PLruCacheWrapper extends PythonBuiltinObject {
+
+    /** Cache kinds, like the three wrapper functions in CPython's {@code _functoolsmodule.c}. */
+    public static final int UNCACHED = 0;
+    public static final int INFINITE = 1;
+    public static final int BOUNDED = 2;
+
+    public static final class Link {
+        private Link prev;
+        private Link next;
+        private final Object key;
+        private final Object result;
+
+        Link(Object key, Object result) {
+            this.key = key;
+            this.result = result;
+        }
+
+        public Object getKey() {
+            return key;
+        }
+
+        public Object getResult() {
+            return result;
+        }
+    }
+
+    private final Object function;
+    private final Object cacheInfoType;
+    /** The {@code maxsize} argument as given, which is what {@code cache_info()} reports. */
+    private final Object maxSizeObject;
+    private final int maxSize;
+    private final int kind;
+    private final boolean typed;
+    /** Separates positional and keyword arguments in keys, see {@code functools._make_key}. */
+    private final Object keywordMark;
+
+    private HashingStorage cache = CompactDictStorage.create();
+    /** The sentinel of the list, {@code root.next} is the least recently used entry. */
+    private final Link root = new Link(null, null);
+    private long hits;
+    private long misses;
+
+    public PLruCacheWrapper(LazyPythonClass cls, Object function, Object maxSizeObject, int maxSize, int kind, boolean typed, Object cacheInfoType, Object keywordMark) {
+        super(cls);
+        this.function = function;
+        this.maxSizeObject = maxSizeObject;
+        this.maxSize = maxSize;
+        this.kind = kind;
+        this.typed = typed;
+        this.cacheInfoType = cacheInfoType;
+        this.keywordMark = keywordMark;
+        root.prev = root;
+        root.next = root;
+    }
+
+    public Object getFunction() {
+        return function;
+    }
+
+    public Object getCacheInfoType() {
+        return cacheInfoType;
+    }
+
+    public Object getMaxSizeObject() {
+        return maxSizeObject;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getKind() {
+        return kind;
+    }
+
+    public boolean isTyped() {
+        return typed;
+    }
+
+    public Object getKeywordMark() {
+        return keywordMark;
+    }
+
+    public HashingStorage getCache() {
+        return cache;
+    }
+
+    public void setCache(HashingStorage cache) {
+        this.cache = cache;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void hit() {
+        hits++;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void miss() {
+        misses++;
+    }
+
+    /**
+     * Marks {@code link} as the most recently used entry.
+     */
+    public void touch(Link link) {
+        unlink(link);
+        append(link);
+    }
+
+    /**
+     * Creates the link for a new entry and makes it the most recently used one.
+     */
+    public Link add(Object key, Object result) {
+        Link link = new Link(key, result);
+        append(link);
+        return link;
+    }
+
+    /**
+     * Removes and returns the least recently used entry, the caller has to remove it from the
+     * cache storage.
+     */
+    public Link removeOldest() {
+        Link oldest = root.next;
+        assert oldest != root;
+        unlink(oldest);
+        return oldest;
+    }
+
+    public void clear() {
+        cache = CompactDictStorage.create();
+        root.prev = root;
+        root.next = root;
+        hits = 0;
+        misses = 0;
+    }
+
+    private void append(Link link) {
+        Link last = root.prev;
+        last.next = link;
+        link.prev = last;
+        link.next = root;
+        root.prev = link;
+    }
+
+    private static void unlink(Link link) {
+        link.prev.next = link.next;
+        link.next.prev = link.prev;
+    }
+}
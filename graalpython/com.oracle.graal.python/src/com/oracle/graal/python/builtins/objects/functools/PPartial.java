@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.functools;
+
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.builtins.objects.type.PythonBuiltinClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A {@code functools.partial} object. The bound positional arguments are kept both as the
+ * {@code args} tuple and as a plain array, so that calls only need to concatenate arrays. The
+ * bound keywords are the {@code keywords} dictionary, which user code may mutate.
+ */
+public final class PPartial extends PythonBuiltinObject {
+    private Object function;
+    private Object[] arguments;
+    private PTuple argumentsTuple;
+    private PDict keywords;
+
+    public PPartial(LazyPythonClass cls, Object function, Object[] arguments, PTuple argumentsTuple, PDict keywords) {
+        super(cls);
+        setState(function, arguments, argumentsTuple, keywords);
+    }
+
+    public void setState(Object newFunction, Object[] newArguments, PTuple newArgumentsTuple, PDict newKeywords) {
+        this.function = newFunction;
+        this.arguments = newArguments;
+        this.argumentsTuple = newArgumentsTuple;
+        this.keywords = newKeywords;
+    }
+
+    public Object getFunction() {
+        return function;
+    }
+
+    public Object[] getArguments() {
+        return arguments;
+    }
+
+    public PTuple getArgumentsTuple() {
+        return argumentsTuple;
+    }
+
+    public PDict getKeywords() {
+        return keywords;
+    }
+
+    /**
+     * Returns the bound positional arguments followed by {@code callArguments}.
+     */
+    public Object[] bindArguments(Object[] callArguments) {
+        if (arguments.length == 0) {
+            return callArguments;
+        }
+        Object[] result = new Object[arguments.length + callArguments.length];
+        System.arraycopy(arguments, 0, result, 0, arguments.length);
+        System.arraycopy(callArguments, 0, result, arguments.length, callArguments.length);
+        return result;
+    }
+
+    /**
+     * Merges the bound keywords with the keywords of a call, the latter take precedence.
+     */
+    public static PKeyword[] bindKeywords(PKeyword[] boundKeywords, PKeyword[] callKeywords) {
+        if (boundKeywords.length == 0) {
+            return callKeywords;
+        } else if (callKeywords.length == 0) {
+            return boundKeywords;
+        }
+        return mergeKeywords(boundKeywords, callKeywords);
+    }
+
+    @TruffleBoundary
+    private static PKeyword[] mergeKeywords(PKeyword[] boundKeywords, PKeyword[] callKeywords) {
+        PKeyword[] result = new PKeyword[boundKeywords.length + callKeywords.length];
+        int n = 0;
+        outer: for (PKeyword bound : boundKeywords) {
+            for (PKeyword keyword : callKeywords) {
+                if (keyword.getName().equals(bound.getName())) {
+                    continue outer;
+                }
+            }
+            result[n++] = bound;
+        }
+        System.arraycopy(callKeywords, 0, result, n, callKeywords.length);
+        n += callKeywords.length;
+        if (n < result.length) {
+            PKeyword[] trimmed = new PKeyword[n];
+            System.arraycopy(result, 0, trimmed, 0, n);
+            return trimmed;
+        }
+        return result;
+    }
+
+    /**
+     * Only instances of {@code partial} itself may be unwrapped at call sites, subclasses can
+     * override {@code __call__}.
+     */
+    public boolean isExactPartial() {
+        return isPartialClass(getLazyPythonClass());
+    }
+
+    public static boolean isPartialClass(LazyPythonClass cls) {
+        return cls == PythonBuiltinClassType.PPartial || (cls instanceof PythonBuiltinClass && ((PythonBuiltinClass) cls).getType() == PythonBuiltinClassType.PPartial);
+    }
+}
@@ -37,6 +37,7 @@ public final class GeneratorControlData {
     private final Object[] forNodeIterators; // See {@link GeneratorForNode}
     private int lastYieldIndex;
     private ExceptionState activeException;
+    private Object traceState; // See {@link GeneratorTraceState}
 
     public GeneratorControlData(int numOfActiveFlags, int numOfGeneratorBlockNode, int numOfGeneratorForNode) {
         this.activeFlags = new boolean[numOfActiveFlags];
@@ -84,4 +85,12 @@ public final class GeneratorControlData {
     public void setActiveException(ExceptionState activeException) {
         this.activeException = activeException;
     }
+
+    public Object getTraceState() {
+        return traceState;
+    }
+
+    public void setTraceState(Object traceState) {
+        this.traceState = traceState;
+    }
 }
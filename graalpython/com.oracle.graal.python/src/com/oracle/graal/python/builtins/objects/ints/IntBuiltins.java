@@ -44,6 +44,7 @@ import static com.oracle.graal.python.nodes.SpecialMethodNames.__LT__;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
 import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.List;
 
 import com.oracle.graal.python.PythonLanguage;
@@ -168,7 +169,8 @@ public class IntBuiltins extends PythonBuiltins {
             long r = x + y;
             // HD 2-12 Overflow iff both arguments have the opposite sign of the result
             if (((x ^ r) & (y ^ r)) < 0) {
-                return factory().createInt(op(PInt.longToBigInteger(x), PInt.longToBigInteger(y)));
+                // both arguments have the sign of the 65-bit result, which is r extended by it
+                return factory().createInt(PInt.fromDoubleWord(x >> 63, r));
             }
             return r;
         }
@@ -232,7 +234,8 @@ public class IntBuiltins extends PythonBuiltins {
             // HD 2-12 Overflow iff the arguments have different signs and
             // the sign of the result is different than the sign of x
             if (((x ^ y) & (x ^ r)) < 0) {
-                return factory().createInt(op(PInt.longToBigInteger(x), PInt.longToBigInteger(y)));
+                // x has the sign of the 65-bit result, which is r extended by it
+                return factory().createInt(PInt.fromDoubleWord(x >> 63, r));
             }
             return r;
         }
@@ -634,10 +637,9 @@ public class IntBuiltins extends PythonBuiltins {
 
         @TruffleBoundary
         static BigInteger opNeg(BigInteger a, BigInteger b) {
-            if (a.equals(BigInteger.ZERO)) {
-                return BigInteger.ZERO;
-            }
-            return a.mod(b.negate()).subtract(b);
+            // the result has the sign of the negative divisor
+            BigInteger r = a.mod(b.negate());
+            return r.signum() == 0 ? r : r.add(b);
         }
 
         @SuppressWarnings("unused")
@@ -679,7 +681,8 @@ public class IntBuiltins extends PythonBuiltins {
                 // and check for the special case of Long.MIN_VALUE * -1
                 if (((y != 0) && (r / y != x)) ||
                                 (x == Long.MIN_VALUE && y == -1)) {
-                    return factory().createInt(mul(PInt.longToBigInteger(x), PInt.longToBigInteger(y)));
+                    // r is the low word of the 128-bit product
+                    return factory().createInt(PInt.fromDoubleWord(PInt.multiplyHigh(x, y), r));
                 }
             }
             return r;
@@ -816,6 +819,11 @@ public class IntBuiltins extends PythonBuiltins {
             return Math.pow(left, right);
         }
 
+        @Specialization(guards = "right >= 0")
+        PInt doPIntLong(PInt left, long right, @SuppressWarnings("unused") PNone none) {
+            return factory().createInt(op(left.getValue(), right));
+        }
+
         @Specialization
         PInt doPInt(PInt left, PInt right, @SuppressWarnings("unused") PNone none) {
             try {
@@ -827,6 +835,36 @@ public class IntBuiltins extends PythonBuiltins {
             return factory().createInt((long) value);
         }
 
+        @Specialization(guards = {"right >= 0", "isSmallModulus(mod)"})
+        static long doLongModulo(long left, long right, long mod) {
+            // the modulus has at most 31 bits, so no product below overflows
+            long m = Math.abs(mod);
+            long base = Math.floorMod(left, m);
+            long result = 1 % m;
+            long exponent = right;
+            while (exponent != 0) {
+                if ((exponent & 1) != 0) {
+                    result = result * base % m;
+                }
+                exponent >>= 1;
+                base = base * base % m;
+            }
+            return mod < 0 && result != 0 ? result + mod : result;
+        }
+
+        @Specialization(guards = {"isInteger(left)", "isInteger(right)", "isInteger(mod)"})
+        PInt doModulo(Object left, Object right, Object mod) {
+            BigInteger modulus = toBigInteger(mod);
+            if (modulus.signum() == 0) {
+                throw raise(PythonErrorType.ValueError, "pow() 3rd argument cannot be 0");
+            }
+            try {
+                return factory().createInt(modPow(toBigInteger(left), toBigInteger(right), modulus));
+            } catch (ArithmeticException e) {
+                throw raise(PythonErrorType.ValueError, "base is not invertible for the given modulus");
+            }
+        }
+
         @Specialization
         Object powModulo(VirtualFrame frame, Object x, Object y, long z,
                         @Cached("create(__POW__)") LookupAndCallTernaryNode powNode,
@@ -855,6 +893,37 @@ public class IntBuiltins extends PythonBuiltins {
             return PNotImplemented.NOT_IMPLEMENTED;
         }
 
+        protected static boolean isSmallModulus(long mod) {
+            return mod != 0 && mod > Integer.MIN_VALUE && mod <= Integer.MAX_VALUE;
+        }
+
+        protected static boolean isInteger(Object value) {
+            return value instanceof Integer || value instanceof Long || value instanceof Boolean || value instanceof PInt;
+        }
+
+        private static BigInteger toBigInteger(Object value) {
+            if (value instanceof PInt) {
+                return ((PInt) value).getValue();
+            } else if (value instanceof Boolean) {
+                return PInt.longToBigInteger(PInt.intValue((boolean) value));
+            }
+            return PInt.longToBigInteger(((Number) value).longValue());
+        }
+
+        /**
+         * Computes {@code (base ** exponent) % mod} with Python semantics: the result has the sign
+         * of {@code mod}, and a negative exponent uses the modular inverse of {@code base}, which
+         * throws an {@link ArithmeticException} if there is none.
+         */
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        private static BigInteger modPow(BigInteger base, BigInteger exponent, BigInteger mod) {
+            BigInteger result = base.modPow(exponent, mod.abs());
+            if (mod.signum() < 0 && result.signum() != 0) {
+                result = result.add(mod);
+            }
+            return result;
+        }
+
         @TruffleBoundary
         private BigInteger op(BigInteger a, long b) {
             try {
@@ -1889,19 +1958,38 @@ public class IntBuiltins extends PythonBuiltins {
         }
 
         @TruffleBoundary
-        private byte getSingByte(BigInteger value, boolean signed) {
-            if (value.compareTo(BigInteger.ZERO) < 0) {
-                if (!signed) {
-                    throw raise(PythonErrorType.OverflowError, MESSAGE_CONVERT_NEGATIVE);
-                }
-                return -1;
-            }
-            return 0;
+        private static int bitLength(BigInteger value) {
+            return value.bitLength();
         }
 
+        /**
+         * Copies the two's complement bytes of {@code value} into an array of {@code byteCount}
+         * bytes in the requested order, in one pass. The value must fit.
+         */
         @TruffleBoundary
-        private static byte[] getBytes(BigInteger value) {
-            return value.toByteArray();
+        private static byte[] toByteArray(BigInteger value, int byteCount, boolean bigEndian) {
+            byte[] bytes = value.toByteArray();
+            if (bigEndian && bytes.length == byteCount) {
+                return bytes;
+            }
+            byte[] result = new byte[byteCount];
+            // the bytes beyond 'byteCount' can only be sign bytes
+            int len = Math.min(bytes.length, byteCount);
+            byte signByte = value.signum() < 0 ? (byte) -1 : 0;
+            if (bigEndian) {
+                System.arraycopy(bytes, bytes.length - len, result, byteCount - len, len);
+                if (signByte != 0) {
+                    Arrays.fill(result, 0, byteCount - len, signByte);
+                }
+            } else {
+                for (int i = 0; i < len; i++) {
+                    result[i] = bytes[bytes.length - 1 - i];
+                }
+                if (signByte != 0) {
+                    Arrays.fill(result, len, byteCount, signByte);
+                }
+            }
+            return result;
         }
 
         @Specialization
@@ -1910,62 +1998,15 @@ public class IntBuiltins extends PythonBuiltins {
                 throw raise(PythonErrorType.ValueError, MESSAGE_LENGTH_ARGUMENT);
             }
             BigInteger value = self.getValue();
-            byte signByte = getSingByte(value, signed);
-            byte[] bytes = getBytes(value);
-            if (bytes.length > byteCount) {
-                // Check, whether we need to cut unneeded sign bytes.
-                int len = bytes.length;
-                int startIndex = 0;
-                if (!signed) {
-                    for (startIndex = 0; startIndex < bytes.length; startIndex++) {
-                        if (bytes[startIndex] != 0) {
-                            break;
-                        }
-                    }
-                    len = Math.max(bytes.length - startIndex, byteCount);
-                }
-                if (overflowProfile.profile(len > byteCount)) {
-                    // the corrected len is still bigger then we need.
-                    throw raise(PythonErrorType.OverflowError, MESSAGE_INT_TO_BIG);
-                }
-                if (bytes.length > byteCount) {
-                    // the array starts with sign bytes and has to be truncated to the requested
-                    // size
-                    byte[] tmp = bytes;
-                    bytes = new byte[len];
-                    System.arraycopy(tmp, startIndex, bytes, 0, len);
-                }
+            if (negativeNumberProfile.profile(!signed && !self.isZeroOrPositive())) {
+                throw raise(PythonErrorType.OverflowError, MESSAGE_CONVERT_NEGATIVE);
             }
-
-            if (isBigEndian(byteorder)) {
-                if (byteCount > bytes.length) {
-                    // requested array is bigger then we obtained from BigInteger
-                    byte[] resultBytes = new byte[byteCount];
-                    System.arraycopy(bytes, 0, resultBytes, resultBytes.length - bytes.length, bytes.length);
-                    if (signByte == -1) {
-                        // add sign bytes
-                        for (int i = 0; i < resultBytes.length - bytes.length; i++) {
-                            resultBytes[i] = signByte;
-                        }
-                    }
-                    return factory().createBytes(resultBytes);
-                } else {
-                    return factory().createBytes(bytes);
-                }
-            } else {
-                // little endian -> need to switch bytes
-                byte[] resultBytes = new byte[byteCount];
-                for (int i = 0; i < bytes.length; i++) {
-                    resultBytes[i] = bytes[bytes.length - 1 - i];
-                }
-                if (byteCount > bytes.length && signByte == -1) {
-                    // add sign negative bytes
-                    for (int i = bytes.length; i < resultBytes.length; i++) {
-                        resultBytes[i] = signByte;
-                    }
-                }
-                return factory().createBytes(resultBytes);
+            // a signed value also needs its sign bit
+            long bits = (long) bitLength(value) + (signed ? 1 : 0);
+            if (overflowProfile.profile(bits > (long) byteCount * Byte.SIZE)) {
+                throw raise(PythonErrorType.OverflowError, MESSAGE_INT_TO_BIG);
             }
+            return factory().createBytes(toByteArray(value, byteCount, isBigEndian(byteorder)));
         }
 
         @Specialization
@@ -2146,17 +2187,15 @@ public class IntBuiltins extends PythonBuiltins {
             return fromPByteArray(frame, cl, bytes, byteorder, false);
         }
 
-        // from PArray
+        // from PArray, through its packed item bytes like the buffer protocol
         @Specialization
-        public Object fromPArray(VirtualFrame frame, LazyPythonClass cl, PArray array, String byteorder, boolean signed,
-                        @Cached("create()") BytesNodes.FromSequenceStorageNode fromSequenceStorageNode) {
-            return compute(cl, fromSequenceStorageNode.execute(frame, array.getSequenceStorage()), byteorder, signed);
+        public Object fromPArray(LazyPythonClass cl, PArray array, String byteorder, boolean signed) {
+            return compute(cl, array.getSequenceStorage().getBytes(), byteorder, signed);
         }
 
         @Specialization
-        public Object fromPArray(VirtualFrame frame, LazyPythonClass cl, PArray array, String byteorder, @SuppressWarnings("unused") PNone signed,
-                        @Cached("create()") BytesNodes.FromSequenceStorageNode fromSequenceStorageNode) {
-            return fromPArray(frame, cl, array, byteorder, false, fromSequenceStorageNode);
+        public Object fromPArray(LazyPythonClass cl, PArray array, String byteorder, @SuppressWarnings("unused") PNone signed) {
+            return fromPArray(cl, array, byteorder, false);
         }
 
         // from PMemoryView
@@ -2192,15 +2231,15 @@ public class IntBuiltins extends PythonBuiltins {
             return fromPTuple(frame, cl, tuple, byteorder, false);
         }
 
-        // rest objects
-        @Specialization
+        // rest objects, arrays go through fromPArray even if this was activated first
+        @Specialization(guards = "!isPArray(object)")
         public Object fromObject(VirtualFrame frame, LazyPythonClass cl, PythonObject object, String byteorder, @SuppressWarnings("unused") PNone signed,
                         @Shared("ctxRef") @CachedContext(PythonLanguage.class) ContextReference<PythonContext> ctxRef,
                         @CachedLibrary(limit = "1") PythonObjectLibrary dataModelLibrary) {
             return fromObject(frame, cl, object, byteorder, false, ctxRef, dataModelLibrary);
         }
 
-        @Specialization
+        @Specialization(guards = "!isPArray(object)")
         public Object fromObject(VirtualFrame frame, LazyPythonClass cl, PythonObject object, String byteorder, boolean signed,
                         @Shared("ctxRef") @CachedContext(PythonLanguage.class) ContextReference<PythonContext> ctxRef,
                         @CachedLibrary(limit = "1") PythonObjectLibrary dataModelLibrary) {
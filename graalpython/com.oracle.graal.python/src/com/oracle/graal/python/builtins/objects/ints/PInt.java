@@ -26,6 +26,8 @@
 package com.oracle.graal.python.builtins.objects.ints;
 
 import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
 
 import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.objects.cext.PythonNativeWrapperLibrary;
@@ -45,6 +47,9 @@ import com.oracle.truffle.api.library.ExportMessage;
 @ExportLibrary(InteropLibrary.class)
 public final class PInt extends PythonBuiltinObject {
 
+    /** Strings with up to this many digits are parsed by the BigInteger constructor directly. */
+    private static final int PARSE_SPLIT_DIGITS = 1000;
+
     private final BigInteger value;
 
     public PInt(LazyPythonClass clazz, BigInteger value) {
@@ -241,6 +246,72 @@ public final class PInt extends PythonBuiltinObject {
         return BigInteger.valueOf(value);
     }
 
+    /**
+     * Creates the value of the 128-bit two's complement number {@code hi * 2^64 + (lo unsigned)}.
+     * This is how the results of overflowing {@code long} additions and multiplications are
+     * boxed, without computing them again with {@link BigInteger} arithmetic.
+     */
+    @TruffleBoundary
+    public static BigInteger fromDoubleWord(long hi, long lo) {
+        byte[] bytes = new byte[2 * Long.BYTES];
+        for (int i = 0; i < Long.BYTES; i++) {
+            bytes[Long.BYTES - 1 - i] = (byte) (hi >>> (8 * i));
+            bytes[2 * Long.BYTES - 1 - i] = (byte) (lo >>> (8 * i));
+        }
+        return new BigInteger(bytes);
+    }
+
+    /**
+     * Returns the upper 64 bits of the 128-bit product of two signed longs, like
+     * {@code Math.multiplyHigh} of JDK 9 and later.
+     */
+    public static long multiplyHigh(long x, long y) {
+        long x1 = x >> 32;
+        long x2 = x & 0xFFFFFFFFL;
+        long y1 = y >> 32;
+        long y2 = y & 0xFFFFFFFFL;
+        long z2 = x2 * y2;
+        long t = x1 * y2 + (z2 >>> 32);
+        long z1 = (t & 0xFFFFFFFFL) + x2 * y1;
+        long z0 = t >> 32;
+        return x1 * y1 + z0 + (z1 >> 32);
+    }
+
+    /**
+     * Parses a string of digits in the given radix. Long strings are split in halves that are
+     * parsed recursively and combined with a single multiplication. This is subquadratic, because
+     * {@link BigInteger} multiplies large numbers with Karatsuba or Toom-Cook, while its string
+     * constructor takes quadratic time in the number of digits.
+     */
+    @TruffleBoundary
+    public static BigInteger parseBigInteger(String digits, int radix) throws NumberFormatException {
+        for (int i = 0; i < digits.length(); i++) {
+            if (Character.digit(digits.charAt(i), radix) < 0) {
+                throw new NumberFormatException(digits);
+            }
+        }
+        if (digits.length() <= PARSE_SPLIT_DIGITS) {
+            return new BigInteger(digits, radix);
+        }
+        return parseDigits(digits, 0, digits.length(), radix, new HashMap<>());
+    }
+
+    private static BigInteger parseDigits(String digits, int start, int end, int radix, Map<Integer, BigInteger> powers) {
+        int length = end - start;
+        if (length <= PARSE_SPLIT_DIGITS) {
+            return new BigInteger(digits.substring(start, end), radix);
+        }
+        int lowLength = length / 2;
+        BigInteger high = parseDigits(digits, start, end - lowLength, radix, powers);
+        BigInteger low = parseDigits(digits, end - lowLength, end, radix, powers);
+        BigInteger power = powers.get(lowLength);
+        if (power == null) {
+            power = BigInteger.valueOf(radix).pow(lowLength);
+            powers.put(lowLength, power);
+        }
+        return high.multiply(power).add(low);
+    }
+
     public double doubleValue() {
         return doubleValue(value);
     }
@@ -0,0 +1,499 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+import static com.oracle.graal.python.builtins.objects.io.IONodes.CLOSED_FILE;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ENTER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EXIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETSTATE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.modules.PosixModuleBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.io.IONodes.BufferedIsClosedNode;
+import com.oracle.graal.python.builtins.objects.io.IONodes.CallIOMethodNode;
+import com.oracle.graal.python.builtins.objects.io.IONodes.FlushWriteBufferNode;
+import com.oracle.graal.python.builtins.objects.io.IONodes.RawSeekNode;
+import com.oracle.graal.python.builtins.objects.io.IONodes.ReadLinesNode;
+import com.oracle.graal.python.builtins.objects.io.IONodes.WriteLinesNode;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.builtins.objects.type.PythonBuiltinClass;
+import com.oracle.graal.python.builtins.objects.type.TypeNodes;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.PRaiseNode;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode.GetFixedAttributeNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetLazyClassNode;
+import com.oracle.graal.python.nodes.util.CastToJavaLongNode;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+
+/**
+ * Methods shared by {@code _io.BufferedReader} and {@code _io.BufferedWriter}. Since an object is
+ * only ever one of the two, the methods here may assume that at most one of the read buffer and
+ * the write buffer is non-empty.
+ */
+@CoreFunctions(extendClasses = {PythonBuiltinClassType.PBufferedReader, PythonBuiltinClassType.PBufferedWriter})
+public class BufferedIOBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return BufferedIOBuiltinsFactory.getFactories();
+    }
+
+    static void checkInitialized(PythonBuiltinBaseNode node, PBuffered self) {
+        if (!self.isOK()) {
+            if (self.isDetached()) {
+                throw node.raise(ValueError, "raw stream has been detached");
+            }
+            throw node.raise(ValueError, "I/O operation on uninitialized object");
+        }
+    }
+
+    static void checkClosed(VirtualFrame frame, PythonBuiltinBaseNode node, PBuffered self, BufferedIsClosedNode isClosedNode, String message) {
+        checkInitialized(node, self);
+        if (isClosedNode.execute(frame, self)) {
+            throw node.raise(ValueError, message);
+        }
+    }
+
+    /**
+     * Returns the logical position of the stream, i.e., the raw position corrected by the data
+     * that is still buffered.
+     */
+    static long tell(VirtualFrame frame, PBuffered self, RawSeekNode rawSeekNode) {
+        long pos = rawSeekNode.execute(frame, self, 0, PosixModuleBuiltins.SEEK_CUR);
+        pos = pos - self.getReadAvailable() + self.getWriteEnd();
+        return pos < 0 ? 0 : pos;
+    }
+
+    @Builtin(name = "close", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class CloseNode extends PythonUnaryBuiltinNode {
+        protected static final String CLOSE = "close";
+
+        @Specialization
+        Object close(VirtualFrame frame, PBuffered self,
+                        @Cached BufferedIsClosedNode isClosedNode,
+                        @Cached FlushWriteBufferNode flushNode,
+                        @Cached("create(CLOSE)") CallIOMethodNode callCloseNode) {
+            checkInitialized(this, self);
+            if (isClosedNode.execute(frame, self)) {
+                return PNone.NONE;
+            }
+            try {
+                flushNode.execute(frame, self);
+            } catch (PException e) {
+                // the raw stream is closed even if flushing fails
+                callCloseNode.execute(frame, self.getRaw());
+                throw e;
+            }
+            self.resetReadBuffer();
+            return callCloseNode.execute(frame, self.getRaw());
+        }
+    }
+
+    @Builtin(name = "closed", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ClosedNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean closed(VirtualFrame frame, PBuffered self,
+                        @Cached BufferedIsClosedNode isClosedNode) {
+            checkInitialized(this, self);
+            return isClosedNode.execute(frame, self);
+        }
+    }
+
+    @Builtin(name = "detach", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class DetachNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object detach(VirtualFrame frame, PBuffered self,
+                        @Cached FlushWriteBufferNode flushNode) {
+            checkInitialized(this, self);
+            flushNode.execute(frame, self);
+            Object raw = self.getRaw();
+            self.detach();
+            return raw;
+        }
+    }
+
+    @Builtin(name = "flush", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class FlushNode extends PythonUnaryBuiltinNode {
+        protected static final String FLUSH = "flush";
+
+        public abstract Object execute(VirtualFrame frame, PBuffered self);
+
+        @Specialization
+        Object flush(VirtualFrame frame, PBuffered self,
+                        @Cached BufferedIsClosedNode isClosedNode,
+                        @Cached FlushWriteBufferNode flushNode,
+                        @Cached("create(FLUSH)") CallIOMethodNode callFlushNode) {
+            checkClosed(frame, this, self, isClosedNode, "flush of closed file");
+            flushNode.execute(frame, self);
+            if (self.getFileIORaw() == null) {
+                // _io.FileIO.flush does nothing, so we only need to call it for other raw streams
+                callFlushNode.execute(frame, self.getRaw());
+            }
+            return PNone.NONE;
+        }
+
+        public static FlushNode create() {
+            return BufferedIOBuiltinsFactory.FlushNodeFactory.create();
+        }
+    }
+
+    @Builtin(name = "tell", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class TellNode extends PythonUnaryBuiltinNode {
+
+        public abstract long execute(VirtualFrame frame, PBuffered self);
+
+        @Specialization
+        long tell(VirtualFrame frame, PBuffered self,
+                        @Cached RawSeekNode rawSeekNode) {
+            checkInitialized(this, self);
+            return BufferedIOBuiltins.tell(frame, self, rawSeekNode);
+        }
+
+        public static TellNode create() {
+            return BufferedIOBuiltinsFactory.TellNodeFactory.create();
+        }
+    }
+
+    @Builtin(name = "seek", minNumOfPositionalArgs = 2, parameterNames = {"$self", "pos", "whence"})
+    @GenerateNodeFactory
+    abstract static class SeekNode extends PythonBuiltinNode {
+
+        public abstract long executeWith(VirtualFrame frame, PBuffered self, Object pos, Object whence);
+
+        @Specialization
+        long seek(VirtualFrame frame, PBuffered self, Object posObj, Object whenceObj,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib,
+                        @Cached CastToJavaLongNode castToLongNode,
+                        @Cached PRaiseNode raiseNode,
+                        @Cached BufferedIsClosedNode isClosedNode,
+                        @Cached FlushWriteBufferNode flushNode,
+                        @Cached RawSeekNode rawSeekNode) {
+            checkInitialized(this, self);
+            int whence = PGuards.isNoValue(whenceObj) ? PosixModuleBuiltins.SEEK_SET : lib.asSizeWithState(whenceObj, PArguments.getThreadState(frame));
+            if (whence < PosixModuleBuiltins.SEEK_SET || whence > PosixModuleBuiltins.SEEK_END) {
+                throw raise(ValueError, "whence value %d unsupported", whence);
+            }
+            if (isClosedNode.execute(frame, self)) {
+                throw raise(ValueError, "seek of closed file");
+            }
+            long pos = IONodes.castToLong(castToLongNode, raiseNode, posObj);
+            if (whence != PosixModuleBuiltins.SEEK_END && self.getReadEnd() > 0) {
+                // try to stay inside the read buffer which holds raw[rawPos - readEnd:rawPos]
+                long rawPos = rawSeekNode.execute(frame, self, 0, PosixModuleBuiltins.SEEK_CUR);
+                long bufferStart = rawPos - self.getReadEnd();
+                long target = whence == PosixModuleBuiltins.SEEK_SET ? pos : rawPos - self.getReadAvailable() + pos;
+                if (target >= bufferStart && target <= rawPos) {
+                    self.setReadPos((int) (target - bufferStart));
+                    return target;
+                }
+            }
+            flushNode.execute(frame, self);
+            if (whence == PosixModuleBuiltins.SEEK_CUR) {
+                pos -= self.getReadAvailable();
+            }
+            long result = rawSeekNode.execute(frame, self, pos, whence);
+            self.resetReadBuffer();
+            return result;
+        }
+
+        public static SeekNode create() {
+            return BufferedIOBuiltinsFactory.SeekNodeFactory.create(null);
+        }
+    }
+
+    @Builtin(name = "truncate", minNumOfPositionalArgs = 1, parameterNames = {"$self", "pos"})
+    @GenerateNodeFactory
+    abstract static class TruncateNode extends PythonBinaryBuiltinNode {
+        protected static final String TRUNCATE = "truncate";
+
+        @Specialization
+        Object truncate(VirtualFrame frame, PBuffered self, Object pos,
+                        @Cached BufferedIsClosedNode isClosedNode,
+                        @Cached FlushWriteBufferNode flushNode,
+                        @Cached RawSeekNode rawSeekNode,
+                        @Cached("create(TRUNCATE)") CallIOMethodNode callTruncateNode) {
+            checkClosed(frame, this, self, isClosedNode, "truncate of closed file");
+            flushNode.execute(frame, self);
+            Object size = PGuards.isPNone(pos) ? BufferedIOBuiltins.tell(frame, self, rawSeekNode) : pos;
+            if (self.getReadAvailable() > 0) {
+                // re-synchronize the raw position with the logical one
+                rawSeekNode.execute(frame, self, -self.getReadAvailable(), PosixModuleBuiltins.SEEK_CUR);
+                self.resetReadBuffer();
+            }
+            return callTruncateNode.execute(frame, self.getRaw(), size);
+        }
+    }
+
+    @Builtin(name = "fileno", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class FilenoNode extends PythonUnaryBuiltinNode {
+        protected static final String FILENO = "fileno";
+
+        @Specialization
+        Object fileno(VirtualFrame frame, PBuffered self,
+                        @Cached("create(FILENO)") CallIOMethodNode callNode) {
+            checkInitialized(this, self);
+            return callNode.execute(frame, self.getRaw());
+        }
+    }
+
+    @Builtin(name = "isatty", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IsattyNode extends PythonUnaryBuiltinNode {
+        protected static final String ISATTY = "isatty";
+
+        @Specialization
+        Object isatty(VirtualFrame frame, PBuffered self,
+                        @Cached("create(ISATTY)") CallIOMethodNode callNode) {
+            checkInitialized(this, self);
+            return callNode.execute(frame, self.getRaw());
+        }
+    }
+
+    @Builtin(name = "readable", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReadableNode extends PythonUnaryBuiltinNode {
+        protected static final String READABLE = "readable";
+
+        @Specialization
+        Object readable(VirtualFrame frame, PBuffered self,
+                        @Cached("create(READABLE)") CallIOMethodNode callNode) {
+            checkInitialized(this, self);
+            return callNode.execute(frame, self.getRaw());
+        }
+    }
+
+    @Builtin(name = "writable", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class WritableNode extends PythonUnaryBuiltinNode {
+        protected static final String WRITABLE = "writable";
+
+        @Specialization
+        Object writable(VirtualFrame frame, PBuffered self,
+                        @Cached("create(WRITABLE)") CallIOMethodNode callNode) {
+            checkInitialized(this, self);
+            return callNode.execute(frame, self.getRaw());
+        }
+    }
+
+    @Builtin(name = "seekable", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class SeekableNode extends PythonUnaryBuiltinNode {
+        protected static final String SEEKABLE = "seekable";
+
+        @Specialization
+        Object seekable(VirtualFrame frame, PBuffered self,
+                        @Cached("create(SEEKABLE)") CallIOMethodNode callNode) {
+            checkInitialized(this, self);
+            return callNode.execute(frame, self.getRaw());
+        }
+    }
+
+    @Builtin(name = "raw", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class RawNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object raw(PBuffered self) {
+            checkInitialized(this, self);
+            return self.getRaw();
+        }
+    }
+
+    @Builtin(name = "name", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class NameNode extends PythonUnaryBuiltinNode {
+        protected static final String NAME = "name";
+
+        @Specialization
+        Object name(VirtualFrame frame, PBuffered self,
+                        @Cached("create(NAME)") GetFixedAttributeNode getNameNode) {
+            checkInitialized(this, self);
+            return getNameNode.executeObject(frame, self.getRaw());
+        }
+    }
+
+    @Builtin(name = "mode", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ModeNode extends PythonUnaryBuiltinNode {
+        protected static final String MODE = "mode";
+
+        @Specialization
+        Object mode(VirtualFrame frame, PBuffered self,
+                        @Cached("create(MODE)") GetFixedAttributeNode getModeNode) {
+            checkInitialized(this, self);
+            return getModeNode.executeObject(frame, self.getRaw());
+        }
+    }
+
+    @Builtin(name = "readlines", minNumOfPositionalArgs = 1, parameterNames = {"$self", "hint"})
+    @GenerateNodeFactory
+    abstract static class ReadlinesNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object readlines(VirtualFrame frame, PBuffered self, Object hint,
+                        @Cached BufferedIsClosedNode isClosedNode,
+                        @Cached ReadLinesNode readLinesNode) {
+            checkClosed(frame, this, self, isClosedNode, CLOSED_FILE);
+            return readLinesNode.execute(frame, self, hint);
+        }
+    }
+
+    @Builtin(name = "writelines", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class WritelinesNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone writelines(VirtualFrame frame, PBuffered self, Object lines,
+                        @Cached BufferedIsClosedNode isClosedNode,
+                        @Cached WriteLinesNode writeLinesNode) {
+            checkClosed(frame, this, self, isClosedNode, CLOSED_FILE);
+            writeLinesNode.execute(frame, self, lines);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __ENTER__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class EnterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PBuffered enter(VirtualFrame frame, PBuffered self,
+                        @Cached BufferedIsClosedNode isClosedNode) {
+            checkClosed(frame, this, self, isClosedNode, CLOSED_FILE);
+            return self;
+        }
+    }
+
+    @Builtin(name = __EXIT__, minNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class ExitNode extends PythonBuiltinNode {
+        protected static final String CLOSE = "close";
+
+        @Specialization
+        static Object exit(VirtualFrame frame, PBuffered self, @SuppressWarnings("unused") Object typ, @SuppressWarnings("unused") Object val, @SuppressWarnings("unused") Object tb,
+                        @Cached("create(CLOSE)") LookupAndCallUnaryNode callCloseNode) {
+            return callCloseNode.executeObject(frame, self);
+        }
+    }
+
+    @Builtin(name = __ITER__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PBuffered iter(VirtualFrame frame, PBuffered self,
+                        @Cached BufferedIsClosedNode isClosedNode) {
+            checkClosed(frame, this, self, isClosedNode, CLOSED_FILE);
+            return self;
+        }
+    }
+
+    @Builtin(name = __REPR__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReprNode extends PythonUnaryBuiltinNode {
+        protected static final String NAME = "name";
+
+        @Specialization
+        Object repr(VirtualFrame frame, PBuffered self,
+                        @Cached GetLazyClassNode getClassNode,
+                        @Cached TypeNodes.GetNameNode getTypeNameNode,
+                        @Cached("create(NAME)") GetFixedAttributeNode getNameNode,
+                        @Cached("create(__REPR__)") LookupAndCallUnaryNode reprNode,
+                        @Cached CastToJavaStringNode castToStringNode) {
+            LazyPythonClass cls = getClassNode.execute(self);
+            String typeName = getTypeNameNode.execute(cls);
+            if (cls instanceof PythonBuiltinClassType || cls instanceof PythonBuiltinClass) {
+                typeName = concat("_io.", typeName);
+            }
+            Object name;
+            try {
+                name = self.isOK() ? getNameNode.executeObject(frame, self.getRaw()) : PNone.NO_VALUE;
+            } catch (PException e) {
+                // CPython also ignores errors (other than a recursive repr) here
+                name = PNone.NO_VALUE;
+            }
+            if (name == PNone.NO_VALUE) {
+                return concat(concat("<", typeName), ">");
+            }
+            return concat(concat(concat("<", typeName), concat(" name=", castToStringNode.execute(reprNode.executeObject(frame, name)))), ">");
+        }
+
+        @TruffleBoundary(allowInlining = true)
+        private static String concat(String a, String b) {
+            return a + b;
+        }
+    }
+
+    @Builtin(name = __GETSTATE__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class GetStateNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object getstate(PBuffered self) {
+            throw raise(TypeError, "cannot serialize '%p' object", self);
+        }
+    }
+}
@@ -0,0 +1,406 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETITEM__;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.modules.IOModuleBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.io.IONodes.BufferedIsClosedNode;
+import com.oracle.graal.python.builtins.objects.io.IONodes.CallIOMethodNode;
+import com.oracle.graal.python.builtins.objects.io.IONodes.FillReadBufferNode;
+import com.oracle.graal.python.builtins.objects.io.IONodes.RaiseUnsupportedOperationNode;
+import com.oracle.graal.python.builtins.objects.io.IONodes.RawReadNode;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallTernaryNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PBufferedReader)
+public class BufferedReaderBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return BufferedReaderBuiltinsFactory.getFactories();
+    }
+
+    static byte[] copyOfRange(byte[] src, int from, int to) {
+        byte[] result = new byte[to - from];
+        System.arraycopy(src, from, result, 0, to - from);
+        return result;
+    }
+
+    static byte[] grow(byte[] array, int minCapacity) {
+        byte[] result = new byte[Math.max(array.length * 2, minCapacity)];
+        System.arraycopy(array, 0, result, 0, array.length);
+        return result;
+    }
+
+    /**
+     * Takes up to {@code len} bytes from the read buffer and then reads from the raw stream until
+     * {@code len} bytes were read or the end of the stream is reached. Large reads bypass the
+     * buffer. Returns the number of bytes read or {@code -1} if a non-blocking raw stream did not
+     * deliver any data.
+     */
+    static int readInto(VirtualFrame frame, PBuffered self, byte[] dst, int off, int len, FillReadBufferNode fillNode, RawReadNode rawReadNode) {
+        byte[] buffer = self.getBuffer();
+        int got = Math.min(len, self.getReadAvailable());
+        System.arraycopy(buffer, self.getReadPos(), dst, off, got);
+        self.setReadPos(self.getReadPos() + got);
+        while (got < len) {
+            int remaining = len - got;
+            int n;
+            if (remaining >= buffer.length) {
+                n = rawReadNode.execute(frame, self, dst, off + got, remaining);
+                if (n > 0) {
+                    got += n;
+                }
+            } else {
+                n = fillNode.execute(frame, self);
+                if (n > 0) {
+                    int take = Math.min(remaining, self.getReadAvailable());
+                    System.arraycopy(buffer, self.getReadPos(), dst, off + got, take);
+                    self.setReadPos(self.getReadPos() + take);
+                    got += take;
+                }
+            }
+            if (n <= 0) {
+                if (n < 0 && got == 0) {
+                    return -1;
+                }
+                break;
+            }
+        }
+        return got;
+    }
+
+    @Builtin(name = __INIT__, minNumOfPositionalArgs = 2, parameterNames = {"$self", "raw", "buffer_size"})
+    @GenerateNodeFactory
+    public abstract static class InitNode extends PythonBuiltinNode {
+        protected static final String READABLE = "readable";
+
+        @Specialization
+        PNone init(VirtualFrame frame, PBuffered self, Object raw, Object bufferSizeObj,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib,
+                        @Cached("create(READABLE)") CallIOMethodNode callReadableNode,
+                        @Cached RaiseUnsupportedOperationNode raiseUnsupportedNode) {
+            int bufferSize = PGuards.isNoValue(bufferSizeObj) ? IOModuleBuiltins.DEFAULT_BUFFER_SIZE : lib.asSizeWithState(bufferSizeObj, PArguments.getThreadState(frame));
+            if (!lib.isTrueWithState(callReadableNode.execute(frame, raw), PArguments.getThreadState(frame))) {
+                throw raiseUnsupportedNode.raise(frame, "File or stream is not readable.");
+            }
+            if (bufferSize <= 0) {
+                throw raise(ValueError, "buffer size must be strictly positive");
+            }
+            self.init(raw, bufferSize);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "read", minNumOfPositionalArgs = 1, parameterNames = {"$self", "size"})
+    @GenerateNodeFactory
+    abstract static class ReadNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        Object read(VirtualFrame frame, PBuffered self, Object sizeObj,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib,
+                        @Cached BufferedIsClosedNode isClosedNode,
+                        @Cached FillReadBufferNode fillNode,
+                        @Cached RawReadNode rawReadNode,
+                        @Cached("createBinaryProfile()") ConditionProfile readAllProfile) {
+            BufferedIOBuiltins.checkClosed(frame, this, self, isClosedNode, "read of closed file");
+            int size = PGuards.isPNone(sizeObj) ? -1 : lib.asSizeWithState(sizeObj, PArguments.getThreadState(frame));
+            if (size < -1) {
+                throw raise(ValueError, "read length must be non-negative or -1");
+            }
+            if (readAllProfile.profile(size == -1)) {
+                return readAll(frame, self, rawReadNode);
+            }
+            byte[] buffer = self.getBuffer();
+            int readPos = self.getReadPos();
+            if (size <= self.getReadAvailable()) {
+                self.setReadPos(readPos + size);
+                return factory().createBytes(copyOfRange(buffer, readPos, readPos + size));
+            }
+            byte[] result = new byte[size];
+            int n = readInto(frame, self, result, 0, size, fillNode, rawReadNode);
+            if (n < 0) {
+                return PNone.NONE;
+            }
+            return factory().createBytes(new ByteSequenceStorage(result, n));
+        }
+
+        private Object readAll(VirtualFrame frame, PBuffered self, RawReadNode rawReadNode) {
+            byte[] buffer = self.getBuffer();
+            int available = self.getReadAvailable();
+            byte[] result = new byte[Math.max(available * 2, buffer.length)];
+            System.arraycopy(buffer, self.getReadPos(), result, 0, available);
+            self.resetReadBuffer();
+            int total = available;
+            while (true) {
+                if (total == result.length) {
+                    result = grow(result, total + buffer.length);
+                }
+                int n = rawReadNode.execute(frame, self, result, total, result.length - total);
+                if (n <= 0) {
+                    if (n < 0 && total == 0) {
+                        return PNone.NONE;
+                    }
+                    break;
+                }
+                total += n;
+            }
+            return factory().createBytes(new ByteSequenceStorage(result, total));
+        }
+    }
+
+    @Builtin(name = "read1", minNumOfPositionalArgs = 1, parameterNames = {"$self", "size"})
+    @GenerateNodeFactory
+    public abstract static class Read1Node extends PythonBinaryBuiltinNode {
+
+        public abstract PBytes executeWith(VirtualFrame frame, PBuffered self, Object size);
+
+        @Specialization
+        PBytes read1(VirtualFrame frame, PBuffered self, Object sizeObj,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib,
+                        @Cached BufferedIsClosedNode isClosedNode,
+                        @Cached FillReadBufferNode fillNode,
+                        @Cached RawReadNode rawReadNode) {
+            BufferedIOBuiltins.checkInitialized(this, self);
+            int size = PGuards.isPNone(sizeObj) ? -1 : lib.asSizeWithState(sizeObj, PArguments.getThreadState(frame));
+            byte[] buffer = self.getBuffer();
+            if (size < 0) {
+                size = buffer.length;
+            }
+            if (size == 0) {
+                return factory().createBytes(new byte[0]);
+            }
+            int readPos = self.getReadPos();
+            int available = self.getReadAvailable();
+            if (available > 0) {
+                int n = Math.min(size, available);
+                self.setReadPos(readPos + n);
+                return factory().createBytes(copyOfRange(buffer, readPos, readPos + n));
+            }
+            if (isClosedNode.execute(frame, self)) {
+                throw raise(ValueError, "read of closed file");
+            }
+            if (size > buffer.length) {
+                byte[] result = new byte[size];
+                int n = rawReadNode.execute(frame, self, result, 0, size);
+                return factory().createBytes(new ByteSequenceStorage(result, Math.max(n, 0)));
+            }
+            fillNode.execute(frame, self);
+            int n = Math.min(size, self.getReadAvailable());
+            readPos = self.getReadPos();
+            self.setReadPos(readPos + n);
+            return factory().createBytes(copyOfRange(buffer, readPos, readPos + n));
+        }
+
+        public static Read1Node create() {
+            return BufferedReaderBuiltinsFactory.Read1NodeFactory.create();
+        }
+    }
+
+    @Builtin(name = "peek", minNumOfPositionalArgs = 1, parameterNames = {"$self", "size"})
+    @GenerateNodeFactory
+    abstract static class PeekNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PBytes peek(VirtualFrame frame, PBuffered self, @SuppressWarnings("unused") Object size,
+                        @Cached BufferedIsClosedNode isClosedNode,
+                        @Cached FillReadBufferNode fillNode) {
+            BufferedIOBuiltins.checkClosed(frame, this, self, isClosedNode, "peek of closed file");
+            if (self.getReadAvailable() == 0) {
+                fillNode.execute(frame, self);
+            }
+            return factory().createBytes(copyOfRange(self.getBuffer(), self.getReadPos(), self.getReadEnd()));
+        }
+    }
+
+    @Builtin(name = "readinto", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class ReadIntoNode extends PythonBinaryBuiltinNode {
+
+        @Specialization(guards = "isByteStorage(buffer)")
+        Object readIntoByteArray(VirtualFrame frame, PBuffered self, PByteArray buffer,
+                        @Shared("isClosed") @Cached BufferedIsClosedNode isClosedNode,
+                        @Shared("fill") @Cached FillReadBufferNode fillNode,
+                        @Shared("rawRead") @Cached RawReadNode rawReadNode) {
+            BufferedIOBuiltins.checkClosed(frame, this, self, isClosedNode, "readinto of closed file");
+            ByteSequenceStorage storage = (ByteSequenceStorage) buffer.getSequenceStorage();
+            int n = BufferedReaderBuiltins.readInto(frame, self, storage.getInternalByteArray(), 0, storage.length(), fillNode, rawReadNode);
+            return n < 0 ? PNone.NONE : n;
+        }
+
+        @Specialization(guards = "!isByteStorage(buffer)")
+        Object readInto(VirtualFrame frame, PBuffered self, Object buffer,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib,
+                        @Shared("isClosed") @Cached BufferedIsClosedNode isClosedNode,
+                        @Shared("fill") @Cached FillReadBufferNode fillNode,
+                        @Shared("rawRead") @Cached RawReadNode rawReadNode,
+                        @Cached("create(__SETITEM__)") LookupAndCallTernaryNode setItemNode) {
+            BufferedIOBuiltins.checkClosed(frame, this, self, isClosedNode, "readinto of closed file");
+            int len = lib.lengthWithState(buffer, PArguments.getThreadState(frame));
+            byte[] data = new byte[len];
+            int n = BufferedReaderBuiltins.readInto(frame, self, data, 0, len, fillNode, rawReadNode);
+            if (n < 0) {
+                return PNone.NONE;
+            }
+            setItemNode.execute(frame, buffer, factory().createSlice(0, n, 1), factory().createBytes(new ByteSequenceStorage(data, n)));
+            return n;
+        }
+
+        static boolean isByteStorage(Object buffer) {
+            return buffer instanceof PByteArray && ((PByteArray) buffer).getSequenceStorage() instanceof ByteSequenceStorage;
+        }
+    }
+
+    @Builtin(name = "readline", minNumOfPositionalArgs = 1, parameterNames = {"$self", "size"})
+    @GenerateNodeFactory
+    public abstract static class ReadlineNode extends PythonBinaryBuiltinNode {
+
+        public abstract PBytes executeWith(VirtualFrame frame, PBuffered self, Object size);
+
+        @Specialization
+        PBytes readline(VirtualFrame frame, PBuffered self, Object sizeObj,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib,
+                        @Cached FillReadBufferNode fillNode,
+                        @Cached("createBinaryProfile()") ConditionProfile foundInBufferProfile) {
+            BufferedIOBuiltins.checkInitialized(this, self);
+            int limit = PGuards.isPNone(sizeObj) ? -1 : lib.asSizeWithState(sizeObj, PArguments.getThreadState(frame));
+            if (limit < 0) {
+                limit = Integer.MAX_VALUE;
+            }
+            byte[] buffer = self.getBuffer();
+            int start = self.getReadPos();
+            int end = self.getReadEnd();
+            int scanEnd = end - start > limit ? start + limit : end;
+            int eol = indexOfNewline(buffer, start, scanEnd);
+            if (foundInBufferProfile.profile(eol >= 0 || scanEnd - start == limit)) {
+                // fast path: the whole line is in the buffer
+                int lineEnd = eol >= 0 ? eol + 1 : scanEnd;
+                self.setReadPos(lineEnd);
+                return factory().createBytes(copyOfRange(buffer, start, lineEnd));
+            }
+            byte[] line = new byte[Math.max(2 * (end - start), 80)];
+            int lineLen = 0;
+            while (true) {
+                // everything that is in the buffer belongs to the line
+                int take = end - start;
+                if (lineLen + take > line.length) {
+                    line = grow(line, lineLen + take);
+                }
+                System.arraycopy(buffer, start, line, lineLen, take);
+                lineLen += take;
+                self.setReadPos(end);
+                if (fillNode.execute(frame, self) <= 0) {
+                    break;
+                }
+                start = self.getReadPos();
+                end = self.getReadEnd();
+                scanEnd = end - start > limit - lineLen ? start + (limit - lineLen) : end;
+                eol = indexOfNewline(buffer, start, scanEnd);
+                if (eol >= 0 || scanEnd - start == limit - lineLen) {
+                    int lineEnd = eol >= 0 ? eol + 1 : scanEnd;
+                    take = lineEnd - start;
+                    if (lineLen + take > line.length) {
+                        line = grow(line, lineLen + take);
+                    }
+                    System.arraycopy(buffer, start, line, lineLen, take);
+                    lineLen += take;
+                    self.setReadPos(lineEnd);
+                    break;
+                }
+            }
+            return factory().createBytes(new ByteSequenceStorage(line, lineLen));
+        }
+
+        static int indexOfNewline(byte[] buffer, int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (buffer[i] == '\n') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        public static ReadlineNode create() {
+            return BufferedReaderBuiltinsFactory.ReadlineNodeFactory.create();
+        }
+    }
+
+    @Builtin(name = __NEXT__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class NextNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PBytes next(VirtualFrame frame, PBuffered self,
+                        @Cached ReadlineNode readlineNode) {
+            PBytes line = readlineNode.executeWith(frame, self, PNone.NO_VALUE);
+            if (line.getSequenceStorage().length() == 0) {
+                throw raise(PythonBuiltinClassType.StopIteration);
+            }
+            return line;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.modules.IOModuleBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.io.IONodes.BufferedIsClosedNode;
+import com.oracle.graal.python.builtins.objects.io.IONodes.CallIOMethodNode;
+import com.oracle.graal.python.builtins.objects.io.IONodes.FlushWriteBufferNode;
+import com.oracle.graal.python.builtins.objects.io.IONodes.RaiseUnsupportedOperationNode;
+import com.oracle.graal.python.builtins.objects.io.IONodes.RawWriteNode;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.PRaiseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PBufferedWriter)
+public class BufferedWriterBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return BufferedWriterBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * Appends {@code data[0:len]} to the write buffer. If it does not fit, the buffer is flushed
+     * first, and data that is at least as large as the buffer is passed to the raw stream
+     * directly.
+     */
+    static void write(VirtualFrame frame, PBuffered self, byte[] data, int len, FlushWriteBufferNode flushNode, RawWriteNode rawWriteNode, ConditionProfile fitsProfile,
+                    PRaiseNode raiseNode) {
+        byte[] buffer = self.getBuffer();
+        int writeEnd = self.getWriteEnd();
+        if (fitsProfile.profile(writeEnd + len <= buffer.length)) {
+            System.arraycopy(data, 0, buffer, writeEnd, len);
+            self.setWriteEnd(writeEnd + len);
+            return;
+        }
+        flushNode.execute(frame, self);
+        if (len < buffer.length) {
+            System.arraycopy(data, 0, buffer, 0, len);
+            self.setWriteEnd(len);
+            return;
+        }
+        int written = 0;
+        while (written < len) {
+            int n = rawWriteNode.execute(frame, self, data, written, len - written);
+            if (n < 0) {
+                throw raiseNode.raise(PythonBuiltinClassType.BlockingIOError, "write could not complete without blocking");
+            }
+            written += n;
+        }
+    }
+
+    @Builtin(name = __INIT__, minNumOfPositionalArgs = 2, parameterNames = {"$self", "raw", "buffer_size"})
+    @GenerateNodeFactory
+    public abstract static class InitNode extends PythonBuiltinNode {
+        protected static final String WRITABLE = "writable";
+
+        @Specialization
+        PNone init(VirtualFrame frame, PBuffered self, Object raw, Object bufferSizeObj,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib,
+                        @Cached("create(WRITABLE)") CallIOMethodNode callWritableNode,
+                        @Cached RaiseUnsupportedOperationNode raiseUnsupportedNode) {
+            int bufferSize = PGuards.isNoValue(bufferSizeObj) ? IOModuleBuiltins.DEFAULT_BUFFER_SIZE : lib.asSizeWithState(bufferSizeObj, PArguments.getThreadState(frame));
+            if (!lib.isTrueWithState(callWritableNode.execute(frame, raw), PArguments.getThreadState(frame))) {
+                throw raiseUnsupportedNode.raise(frame, "File or stream is not writable.");
+            }
+            if (bufferSize <= 0) {
+                throw raise(ValueError, "buffer size must be strictly positive");
+            }
+            self.init(raw, bufferSize);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "write", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class WriteNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        int write(VirtualFrame frame, PBuffered self, Object data,
+                        @Cached("createToBytes()") BytesNodes.ToBytesNode toBytesNode,
+                        @Cached BufferedIsClosedNode isClosedNode,
+                        @Cached FlushWriteBufferNode flushNode,
+                        @Cached RawWriteNode rawWriteNode,
+                        @Cached("createBinaryProfile()") ConditionProfile fitsProfile,
+                        @Cached PRaiseNode raiseNode) {
+            BufferedIOBuiltins.checkInitialized(this, self);
+            if (PGuards.isString(data)) {
+                throw raise(TypeError, IONodes.BYTESLIKE_REQUIRED, data);
+            }
+            byte[] bytes = toBytesNode.execute(frame, data);
+            if (isClosedNode.execute(frame, self)) {
+                throw raise(ValueError, "write to closed file");
+            }
+            BufferedWriterBuiltins.write(frame, self, bytes, bytes.length, flushNode, rawWriteNode, fitsProfile, raiseNode);
+            return bytes.length;
+        }
+
+        static BytesNodes.ToBytesNode createToBytes() {
+            return BytesNodes.ToBytesNode.create(true, TypeError, IONodes.BYTESLIKE_REQUIRED);
+        }
+    }
+}
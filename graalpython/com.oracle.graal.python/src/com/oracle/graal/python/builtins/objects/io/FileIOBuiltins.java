@@ -0,0 +1,881 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+import static com.oracle.graal.python.builtins.objects.io.IONodes.CLOSED_FILE;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ENTER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EXIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETSTATE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETITEM__;
+
+import java.io.IOException;
+import java.nio.channels.Channel;
+import java.nio.channels.SeekableByteChannel;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.modules.PosixModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.PosixModuleBuiltins.OpenNode;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.array.PArray;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
+import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.io.IONodes.RaiseUnsupportedOperationNode;
+import com.oracle.graal.python.builtins.objects.io.IONodes.ReadLinesNode;
+import com.oracle.graal.python.builtins.objects.io.IONodes.WriteLinesNode;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.PRaiseOSErrorNode;
+import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
+import com.oracle.graal.python.nodes.attributes.WriteAttributeToObjectNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallTernaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
+import com.oracle.graal.python.nodes.util.CastToJavaLongNode;
+import com.oracle.graal.python.nodes.util.CastToJavaLongNode.CannotCastException;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.graal.python.nodes.util.ChannelNodes.ReadIntoArrayNode;
+import com.oracle.graal.python.nodes.util.ChannelNodes.WriteFromArrayNode;
+import com.oracle.graal.python.runtime.PosixResources;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.PackedSequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.TypeSystemReference;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PFileIO)
+public class FileIOBuiltins extends PythonBuiltins {
+
+    /** The chunk size used when the size of the remaining data is not known. */
+    private static final int READALL_CHUNK = 8192;
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return FileIOBuiltinsFactory.getFactories();
+    }
+
+    static Channel getChannel(VirtualFrame frame, PythonBuiltinBaseNode node, PFileIO self) {
+        if (self.isClosed()) {
+            throw node.raise(ValueError, CLOSED_FILE);
+        }
+        Channel channel = node.getContext().getResources().getFileChannel(self.getFD());
+        if (channel == null) {
+            throw node.raiseOSError(frame, OSErrorEnum.EBADF);
+        }
+        return channel;
+    }
+
+    static Channel getReadableChannel(VirtualFrame frame, PythonBuiltinBaseNode node, PFileIO self, RaiseUnsupportedOperationNode raiseUnsupportedNode) {
+        Channel channel = getChannel(frame, node, self);
+        if (!self.isReadable()) {
+            throw raiseUnsupportedNode.raise(frame, "File not open for reading");
+        }
+        return channel;
+    }
+
+    static Channel getWritableChannel(VirtualFrame frame, PythonBuiltinBaseNode node, PFileIO self, RaiseUnsupportedOperationNode raiseUnsupportedNode) {
+        Channel channel = getChannel(frame, node, self);
+        if (!self.isWritable()) {
+            throw raiseUnsupportedNode.raise(frame, "File not open for writing");
+        }
+        return channel;
+    }
+
+    @Builtin(name = __INIT__, minNumOfPositionalArgs = 2, parameterNames = {"$self", "file", "mode", "closefd", "opener"})
+    @GenerateNodeFactory
+    public abstract static class InitNode extends PythonBuiltinNode {
+        private static final String BAD_MODE = "Must have exactly one of read/write/create/append mode";
+
+        @Specialization
+        PNone init(VirtualFrame frame, PFileIO self, Object file, Object modeObj, Object closefdObj, Object opener,
+                        @Cached CastToJavaLongNode castToLongNode,
+                        @Cached CastToJavaStringNode castToStringNode,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib,
+                        @Cached OpenNode openNode,
+                        @Cached CallNode callOpenerNode,
+                        @Cached WriteAttributeToObjectNode writeNameNode) {
+            if (!self.isClosed()) {
+                if (self.isCloseFD()) {
+                    getContext().getResources().close(self.getFD());
+                }
+                self.setFD(-1);
+            }
+            if (file instanceof Double || file instanceof PFloat) {
+                throw raise(TypeError, "integer argument expected, got float");
+            }
+            long fd = -1;
+            boolean isFD = false;
+            if (!(file instanceof String || file instanceof PString)) {
+                try {
+                    fd = castToLongNode.execute(file);
+                    isFD = true;
+                } catch (CannotCastException e) {
+                    // a path
+                }
+            }
+            if (isFD && fd < 0) {
+                throw raise(ValueError, "negative file descriptor");
+            }
+            String mode;
+            if (PGuards.isNoValue(modeObj)) {
+                mode = "r";
+            } else {
+                mode = castToStringNode.execute(modeObj);
+                if (mode == null) {
+                    throw raise(TypeError, "FileIO() argument 'mode' must be str, not %p", modeObj);
+                }
+            }
+            boolean closefd = PGuards.isNoValue(closefdObj) || lib.isTrueWithState(closefdObj, PArguments.getThreadState(frame));
+            int flags = decodeMode(self, mode);
+
+            if (isFD) {
+                self.setFD((int) fd);
+                self.setCloseFD(closefd);
+            } else {
+                if (!closefd) {
+                    throw raise(ValueError, "Cannot use closefd=False with file name");
+                }
+                Object fdObj;
+                if (PGuards.isPNone(opener)) {
+                    fdObj = openNode.executeWith(frame, file, (long) flags, 0666L, PNone.NO_VALUE);
+                } else {
+                    fdObj = callOpenerNode.execute(frame, opener, file, flags);
+                }
+                try {
+                    fd = castToLongNode.execute(fdObj);
+                } catch (CannotCastException e) {
+                    throw raise(TypeError, "expected integer from opener");
+                }
+                if (fd < 0) {
+                    throw raise(ValueError, "opener returned %d", fd);
+                }
+                self.setFD((int) fd);
+                self.setCloseFD(true);
+                String path = getContext().getResources().getFilePath((int) fd);
+                if (path != null && isDirectory(path)) {
+                    getContext().getResources().close((int) fd);
+                    self.setFD(-1);
+                    throw raiseOSError(frame, OSErrorEnum.EISDIR, path);
+                }
+            }
+            writeNameNode.execute(self, "name", file);
+            if (self.isAppending()) {
+                // for consistent behaviour, explicitly seek to the end of file
+                Channel channel = getContext().getResources().getFileChannel(self.getFD());
+                if (channel instanceof SeekableByteChannel) {
+                    try {
+                        seekToEnd((SeekableByteChannel) channel);
+                    } catch (IOException e) {
+                        throw raiseOSError(frame, e);
+                    }
+                }
+            }
+            return PNone.NONE;
+        }
+
+        private int decodeMode(PFileIO self, String mode) {
+            boolean rwa = false;
+            boolean plus = false;
+            boolean readable = false;
+            boolean writable = false;
+            boolean created = false;
+            boolean appending = false;
+            int flags = 0;
+            for (int i = 0; i < mode.length(); i++) {
+                switch (mode.charAt(i)) {
+                    case 'r':
+                        if (rwa) {
+                            throw raise(ValueError, BAD_MODE);
+                        }
+                        rwa = true;
+                        readable = true;
+                        break;
+                    case 'w':
+                        if (rwa) {
+                            throw raise(ValueError, BAD_MODE);
+                        }
+                        rwa = true;
+                        writable = true;
+                        flags |= PosixModuleBuiltins.CREAT | PosixModuleBuiltins.TRUNC;
+                        break;
+                    case 'x':
+                        if (rwa) {
+                            throw raise(ValueError, BAD_MODE);
+                        }
+                        rwa = true;
+                        created = true;
+                        writable = true;
+                        flags |= PosixModuleBuiltins.EXCL | PosixModuleBuiltins.CREAT;
+                        break;
+                    case 'a':
+                        if (rwa) {
+                            throw raise(ValueError, BAD_MODE);
+                        }
+                        rwa = true;
+                        writable = true;
+                        appending = true;
+                        flags |= PosixModuleBuiltins.APPEND | PosixModuleBuiltins.CREAT;
+                        break;
+                    case 'b':
+                        break;
+                    case '+':
+                        if (plus) {
+                            throw raise(ValueError, BAD_MODE);
+                        }
+                        readable = true;
+                        writable = true;
+                        plus = true;
+                        break;
+                    default:
+                        throw raise(ValueError, "invalid mode: %s", mode);
+                }
+            }
+            if (!rwa) {
+                throw raise(ValueError, BAD_MODE);
+            }
+            if (readable && writable) {
+                flags |= PosixModuleBuiltins.RDWR;
+            } else if (readable) {
+                flags |= PosixModuleBuiltins.RDONLY;
+            } else {
+                flags |= PosixModuleBuiltins.WRONLY;
+            }
+            self.setMode(created, readable, writable, appending);
+            return flags;
+        }
+
+        @TruffleBoundary
+        private boolean isDirectory(String path) {
+            TruffleFile file = getContext().getEnv().getPublicTruffleFile(path);
+            return file.isDirectory();
+        }
+
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        private static void seekToEnd(SeekableByteChannel channel) throws IOException {
+            channel.position(channel.size());
+        }
+    }
+
+    @Builtin(name = "read", minNumOfPositionalArgs = 1, parameterNames = {"$self", "size"})
+    @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    abstract static class ReadNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        PBytes readAll(VirtualFrame frame, PFileIO self, @SuppressWarnings("unused") PNone size,
+                        @Shared("raiseUnsupported") @Cached RaiseUnsupportedOperationNode raiseUnsupportedNode,
+                        @Cached ReadAllNode readAllNode) {
+            getReadableChannel(frame, this, self, raiseUnsupportedNode);
+            return readAllNode.execute(frame, self);
+        }
+
+        @Specialization(guards = "!isPNone(size)")
+        PBytes read(VirtualFrame frame, PFileIO self, Object size,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib,
+                        @Shared("raiseUnsupported") @Cached RaiseUnsupportedOperationNode raiseUnsupportedNode,
+                        @Cached ReadIntoArrayNode readNode,
+                        @Cached ReadAllNode readAllNode,
+                        @Cached("createBinaryProfile()") ConditionProfile negativeProfile) {
+            Channel channel = getReadableChannel(frame, this, self, raiseUnsupportedNode);
+            int n = lib.asSizeWithState(size, PArguments.getThreadState(frame));
+            if (negativeProfile.profile(n < 0)) {
+                return readAllNode.execute(frame, self);
+            }
+            byte[] buf = new byte[n];
+            int nread = readNode.execute(channel, buf, 0, n);
+            return factory().createBytes(new ByteSequenceStorage(buf, nread));
+        }
+    }
+
+    @Builtin(name = "readall", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReadAllNode extends PythonUnaryBuiltinNode {
+
+        public abstract PBytes execute(VirtualFrame frame, PFileIO self);
+
+        public static ReadAllNode create() {
+            return FileIOBuiltinsFactory.ReadAllNodeFactory.create();
+        }
+
+        @Specialization
+        PBytes readall(VirtualFrame frame, PFileIO self,
+                        @Cached RaiseUnsupportedOperationNode raiseUnsupportedNode,
+                        @Cached ReadIntoArrayNode readNode) {
+            Channel channel = getReadableChannel(frame, this, self, raiseUnsupportedNode);
+            byte[] buf = new byte[estimateRemaining(channel)];
+            int total = 0;
+            while (true) {
+                if (total == buf.length) {
+                    buf = grow(buf);
+                }
+                int n = readNode.execute(channel, buf, total, buf.length - total);
+                if (n <= 0) {
+                    break;
+                }
+                total += n;
+            }
+            return factory().createBytes(new ByteSequenceStorage(buf, total));
+        }
+
+        @TruffleBoundary
+        private static int estimateRemaining(Channel channel) {
+            if (channel instanceof SeekableByteChannel) {
+                try {
+                    SeekableByteChannel seekable = (SeekableByteChannel) channel;
+                    long remaining = seekable.size() - seekable.position();
+                    if (remaining >= 0 && remaining < Integer.MAX_VALUE / 2) {
+                        // one more byte so that EOF is detected without growing the buffer
+                        return (int) remaining + 1;
+                    }
+                } catch (IOException e) {
+                    // fall through to the default size
+                }
+            }
+            return READALL_CHUNK;
+        }
+
+        @TruffleBoundary(allowInlining = true)
+        private static byte[] grow(byte[] buf) {
+            byte[] newBuf = new byte[Math.max(buf.length * 2, READALL_CHUNK)];
+            System.arraycopy(buf, 0, newBuf, 0, buf.length);
+            return newBuf;
+        }
+    }
+
+    @Builtin(name = "readinto", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class ReadIntoNode extends PythonBinaryBuiltinNode {
+
+        @Specialization(guards = "isByteStorage(buffer)")
+        int readIntoByteArray(VirtualFrame frame, PFileIO self, PByteArray buffer,
+                        @Shared("raiseUnsupported") @Cached RaiseUnsupportedOperationNode raiseUnsupportedNode,
+                        @Shared("readNode") @Cached ReadIntoArrayNode readNode) {
+            Channel channel = getReadableChannel(frame, this, self, raiseUnsupportedNode);
+            ByteSequenceStorage storage = (ByteSequenceStorage) buffer.getSequenceStorage();
+            return readNode.execute(channel, storage.getInternalByteArray(), 0, storage.length());
+        }
+
+        @Specialization
+        int readIntoArray(VirtualFrame frame, PFileIO self, PArray buffer,
+                        @Shared("raiseUnsupported") @Cached RaiseUnsupportedOperationNode raiseUnsupportedNode,
+                        @Shared("readNode") @Cached ReadIntoArrayNode readNode) {
+            Channel channel = getReadableChannel(frame, this, self, raiseUnsupportedNode);
+            PackedSequenceStorage storage = buffer.getSequenceStorage();
+            return readNode.execute(channel, storage.getInternalByteArray(), 0, storage.getByteLength());
+        }
+
+        @Specialization(guards = {"!isByteStorage(buffer)", "!isArray(buffer)"})
+        int readInto(VirtualFrame frame, PFileIO self, Object buffer,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib,
+                        @Shared("raiseUnsupported") @Cached RaiseUnsupportedOperationNode raiseUnsupportedNode,
+                        @Shared("readNode") @Cached ReadIntoArrayNode readNode,
+                        @Cached("create(__SETITEM__)") LookupAndCallTernaryNode setItemNode) {
+            Channel channel = getReadableChannel(frame, this, self, raiseUnsupportedNode);
+            int len = lib.lengthWithState(buffer, PArguments.getThreadState(frame));
+            byte[] data = new byte[len];
+            int n = readNode.execute(channel, data, 0, len);
+            setItemNode.execute(frame, buffer, factory().createSlice(0, n, 1), factory().createBytes(new ByteSequenceStorage(data, n)));
+            return n;
+        }
+
+        static boolean isByteStorage(Object buffer) {
+            return buffer instanceof PByteArray && ((PByteArray) buffer).getSequenceStorage() instanceof ByteSequenceStorage;
+        }
+
+        static boolean isArray(Object buffer) {
+            return buffer instanceof PArray;
+        }
+    }
+
+    @Builtin(name = "readline", minNumOfPositionalArgs = 1, parameterNames = {"$self", "size"})
+    @GenerateNodeFactory
+    abstract static class ReadlineNode extends PythonBinaryBuiltinNode {
+        private static final int CHUNK = 256;
+
+        public abstract PBytes execute(VirtualFrame frame, PFileIO self, Object size);
+
+        public static ReadlineNode create() {
+            return FileIOBuiltinsFactory.ReadlineNodeFactory.create();
+        }
+
+        @Specialization
+        PBytes readline(VirtualFrame frame, PFileIO self, Object sizeObj,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib,
+                        @Cached RaiseUnsupportedOperationNode raiseUnsupportedNode,
+                        @Cached ReadIntoArrayNode readNode) {
+            Channel channel = getReadableChannel(frame, this, self, raiseUnsupportedNode);
+            int limit = PGuards.isPNone(sizeObj) ? -1 : lib.asSizeWithState(sizeObj, PArguments.getThreadState(frame));
+            boolean seekable = channel instanceof SeekableByteChannel;
+            byte[] buf = new byte[limit >= 0 ? Math.min(limit, CHUNK) : CHUNK];
+            int total = 0;
+            while (limit < 0 || total < limit) {
+                if (total == buf.length) {
+                    buf = ReadAllNode.grow(buf);
+                }
+                // without the possibility to un-read, we must not consume more than one line
+                int want = seekable ? buf.length - total : 1;
+                if (limit >= 0) {
+                    want = Math.min(want, limit - total);
+                }
+                int n = readNode.execute(channel, buf, total, want);
+                if (n <= 0) {
+                    break;
+                }
+                int eol = indexOfNewline(buf, total, total + n);
+                if (eol >= 0) {
+                    int lineEnd = eol + 1;
+                    if (lineEnd < total + n) {
+                        unread((SeekableByteChannel) channel, total + n - lineEnd, frame);
+                    }
+                    total = lineEnd;
+                    break;
+                }
+                total += n;
+            }
+            return factory().createBytes(new ByteSequenceStorage(buf, total));
+        }
+
+        private void unread(SeekableByteChannel channel, int count, VirtualFrame frame) {
+            try {
+                moveBack(channel, count);
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            }
+        }
+
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        private static void moveBack(SeekableByteChannel channel, int count) throws IOException {
+            channel.position(channel.position() - count);
+        }
+
+        private static int indexOfNewline(byte[] buf, int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (buf[i] == '\n') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    @Builtin(name = "readlines", minNumOfPositionalArgs = 1, parameterNames = {"$self", "hint"})
+    @GenerateNodeFactory
+    abstract static class ReadlinesNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object readlines(VirtualFrame frame, PFileIO self, Object hint,
+                        @Cached ReadLinesNode readLinesNode) {
+            getChannel(frame, this, self);
+            return readLinesNode.execute(frame, self, hint);
+        }
+    }
+
+    @Builtin(name = "write", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class WriteNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        int write(VirtualFrame frame, PFileIO self, Object data,
+                        @Cached RaiseUnsupportedOperationNode raiseUnsupportedNode,
+                        @Cached("createToBytes()") BytesNodes.ToBytesNode toBytesNode,
+                        @Cached WriteFromArrayNode writeNode) {
+            Channel channel = getWritableChannel(frame, this, self, raiseUnsupportedNode);
+            if (PGuards.isString(data)) {
+                throw raise(TypeError, IONodes.BYTESLIKE_REQUIRED, data);
+            }
+            byte[] bytes = toBytesNode.execute(frame, data);
+            writeNode.execute(channel, bytes, 0, bytes.length);
+            return bytes.length;
+        }
+
+        static BytesNodes.ToBytesNode createToBytes() {
+            return BytesNodes.ToBytesNode.create(true, TypeError, IONodes.BYTESLIKE_REQUIRED);
+        }
+    }
+
+    @Builtin(name = "writelines", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class WritelinesNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone writelines(VirtualFrame frame, PFileIO self, Object lines,
+                        @Cached WriteLinesNode writeLinesNode) {
+            getChannel(frame, this, self);
+            writeLinesNode.execute(frame, self, lines);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "seek", minNumOfPositionalArgs = 2, parameterNames = {"$self", "pos", "whence"})
+    @GenerateNodeFactory
+    abstract static class SeekNode extends PythonBuiltinNode {
+        @Specialization
+        long seek(VirtualFrame frame, PFileIO self, Object posObj, Object whenceObj,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib,
+                        @Cached CastToJavaLongNode castToLongNode,
+                        @Cached PRaiseOSErrorNode raiseOSErrorNode) {
+            Channel channel = getChannel(frame, this, self);
+            long pos;
+            try {
+                pos = castToLongNode.execute(posObj);
+            } catch (CannotCastException e) {
+                throw raise(TypeError, "an integer is required (got type %p)", posObj);
+            }
+            int whence = PGuards.isNoValue(whenceObj) ? PosixModuleBuiltins.SEEK_SET : lib.asSizeWithState(whenceObj, PArguments.getThreadState(frame));
+            return IONodes.seekChannel(frame, channel, pos, whence, raiseOSErrorNode);
+        }
+    }
+
+    @Builtin(name = "tell", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class TellNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        long tell(VirtualFrame frame, PFileIO self,
+                        @Cached PRaiseOSErrorNode raiseOSErrorNode) {
+            Channel channel = getChannel(frame, this, self);
+            return IONodes.seekChannel(frame, channel, 0, PosixModuleBuiltins.SEEK_CUR, raiseOSErrorNode);
+        }
+    }
+
+    @Builtin(name = "truncate", minNumOfPositionalArgs = 1, parameterNames = {"$self", "size"})
+    @GenerateNodeFactory
+    abstract static class TruncateNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        long truncate(VirtualFrame frame, PFileIO self, Object sizeObj,
+                        @Cached RaiseUnsupportedOperationNode raiseUnsupportedNode,
+                        @Cached CastToJavaLongNode castToLongNode,
+                        @Cached PRaiseOSErrorNode raiseOSErrorNode) {
+            Channel channel = getWritableChannel(frame, this, self, raiseUnsupportedNode);
+            long size;
+            if (PGuards.isPNone(sizeObj)) {
+                size = IONodes.seekChannel(frame, channel, 0, PosixModuleBuiltins.SEEK_CUR, raiseOSErrorNode);
+            } else {
+                try {
+                    size = castToLongNode.execute(sizeObj);
+                } catch (CannotCastException e) {
+                    throw raise(TypeError, "an integer is required (got type %p)", sizeObj);
+                }
+            }
+            try {
+                getContext().getResources().ftruncate(self.getFD(), size);
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            }
+            return size;
+        }
+    }
+
+    @Builtin(name = "close", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class CloseNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone close(PFileIO self) {
+            if (!self.isClosed()) {
+                PosixResources resources = getContext().getResources();
+                if (self.isCloseFD()) {
+                    resources.close(self.getFD());
+                }
+                self.setFD(-1);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "closed", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ClosedNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static boolean closed(PFileIO self) {
+            return self.isClosed();
+        }
+    }
+
+    @Builtin(name = "closefd", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class CloseFDNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static boolean closefd(PFileIO self) {
+            return self.isCloseFD();
+        }
+    }
+
+    @Builtin(name = "mode", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ModeNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static String mode(PFileIO self) {
+            return self.getModeString();
+        }
+    }
+
+    @Builtin(name = "fileno", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class FilenoNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int fileno(PFileIO self) {
+            if (self.isClosed()) {
+                throw raise(ValueError, CLOSED_FILE);
+            }
+            return self.getFD();
+        }
+    }
+
+    @Builtin(name = "isatty", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IsattyNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean isatty(PFileIO self) {
+            if (self.isClosed()) {
+                throw raise(ValueError, CLOSED_FILE);
+            }
+            int fd = self.getFD();
+            return fd <= 2 && PosixModuleBuiltins.terminalIsInteractive(getContext());
+        }
+    }
+
+    @Builtin(name = "readable", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReadableNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean readable(PFileIO self) {
+            if (self.isClosed()) {
+                throw raise(ValueError, CLOSED_FILE);
+            }
+            return self.isReadable();
+        }
+    }
+
+    @Builtin(name = "writable", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class WritableNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean writable(PFileIO self) {
+            if (self.isClosed()) {
+                throw raise(ValueError, CLOSED_FILE);
+            }
+            return self.isWritable();
+        }
+    }
+
+    @Builtin(name = "seekable", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class SeekableNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean seekable(VirtualFrame frame, PFileIO self) {
+            Channel channel = getChannel(frame, this, self);
+            if (self.getSeekable() < 0) {
+                self.setSeekable(channel instanceof SeekableByteChannel ? 1 : 0);
+            }
+            return self.getSeekable() == 1;
+        }
+    }
+
+    @Builtin(name = "flush", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class FlushNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone flush(PFileIO self) {
+            if (self.isClosed()) {
+                throw raise(ValueError, CLOSED_FILE);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "_checkClosed", minNumOfPositionalArgs = 1, parameterNames = {"$self", "msg"})
+    @GenerateNodeFactory
+    abstract static class CheckClosedNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone check(PFileIO self, Object msg,
+                        @Cached CastToJavaStringNode castToStringNode) {
+            if (self.isClosed()) {
+                String message = PGuards.isPNone(msg) ? null : castToStringNode.execute(msg);
+                throw raise(ValueError, message != null ? message : CLOSED_FILE);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "_checkReadable", minNumOfPositionalArgs = 1, parameterNames = {"$self", "msg"})
+    @GenerateNodeFactory
+    abstract static class CheckReadableNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone check(VirtualFrame frame, PFileIO self, @SuppressWarnings("unused") Object msg,
+                        @Cached RaiseUnsupportedOperationNode raiseUnsupportedNode) {
+            getReadableChannel(frame, this, self, raiseUnsupportedNode);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "_checkWritable", minNumOfPositionalArgs = 1, parameterNames = {"$self", "msg"})
+    @GenerateNodeFactory
+    abstract static class CheckWritableNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone check(VirtualFrame frame, PFileIO self, @SuppressWarnings("unused") Object msg,
+                        @Cached RaiseUnsupportedOperationNode raiseUnsupportedNode) {
+            getWritableChannel(frame, this, self, raiseUnsupportedNode);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "_checkSeekable", minNumOfPositionalArgs = 1, parameterNames = {"$self", "msg"})
+    @GenerateNodeFactory
+    abstract static class CheckSeekableNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone check(VirtualFrame frame, PFileIO self, @SuppressWarnings("unused") Object msg,
+                        @Cached RaiseUnsupportedOperationNode raiseUnsupportedNode) {
+            if (!(getChannel(frame, this, self) instanceof SeekableByteChannel)) {
+                throw raiseUnsupportedNode.raise(frame, "File or stream is not seekable.");
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __ENTER__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class EnterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PFileIO enter(PFileIO self) {
+            if (self.isClosed()) {
+                throw raise(ValueError, CLOSED_FILE);
+            }
+            return self;
+        }
+    }
+
+    @Builtin(name = __EXIT__, minNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class ExitNode extends PythonBuiltinNode {
+        protected static final String CLOSE = "close";
+
+        @Specialization
+        static Object exit(VirtualFrame frame, PFileIO self, @SuppressWarnings("unused") Object typ, @SuppressWarnings("unused") Object val, @SuppressWarnings("unused") Object tb,
+                        @Cached("create(CLOSE)") LookupAndCallUnaryNode callCloseNode) {
+            return callCloseNode.executeObject(frame, self);
+        }
+    }
+
+    @Builtin(name = __ITER__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PFileIO iter(PFileIO self) {
+            if (self.isClosed()) {
+                throw raise(ValueError, CLOSED_FILE);
+            }
+            return self;
+        }
+    }
+
+    @Builtin(name = __NEXT__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class NextNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PBytes next(VirtualFrame frame, PFileIO self,
+                        @Cached ReadlineNode readlineNode) {
+            PBytes line = readlineNode.execute(frame, self, PNone.NO_VALUE);
+            if (line.getSequenceStorage().length() == 0) {
+                throw raise(PythonBuiltinClassType.StopIteration);
+            }
+            return line;
+        }
+    }
+
+    @Builtin(name = __REPR__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReprNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object repr(VirtualFrame frame, PFileIO self,
+                        @Cached ReadAttributeFromObjectNode readNameNode,
+                        @Cached("create(__REPR__)") LookupAndCallUnaryNode reprNode,
+                        @Cached CastToJavaStringNode castToStringNode) {
+            if (self.isClosed()) {
+                return "<_io.FileIO [closed]>";
+            }
+            String closefd = self.isCloseFD() ? "True" : "False";
+            Object name = readNameNode.execute(self, "name");
+            if (name == PNone.NO_VALUE) {
+                return format("<_io.FileIO fd=%d mode='%s' closefd=%s>", self.getFD(), self.getModeString(), closefd);
+            }
+            String nameRepr = castToStringNode.execute(reprNode.executeObject(frame, name));
+            return format("<_io.FileIO name=%s mode='%s' closefd=%s>", nameRepr, self.getModeString(), closefd);
+        }
+
+        @TruffleBoundary
+        private static String format(String fmt, Object... args) {
+            return String.format(fmt, args);
+        }
+    }
+
+    @Builtin(name = __GETSTATE__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class GetStateNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object getstate(PFileIO self) {
+            throw raise(TypeError, "cannot serialize '%p' object", self);
+        }
+    }
+}
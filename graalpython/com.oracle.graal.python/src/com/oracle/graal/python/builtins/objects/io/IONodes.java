@@ -0,0 +1,710 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.OSError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.UnicodeDecodeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.modules.CodecsModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.PosixModuleBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
+import com.oracle.graal.python.builtins.objects.exception.PBaseException;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.io.IONodesFactory.BufferedIsClosedNodeGen;
+import com.oracle.graal.python.builtins.objects.io.IONodesFactory.FillReadBufferNodeGen;
+import com.oracle.graal.python.builtins.objects.io.IONodesFactory.FlushWriteBufferNodeGen;
+import com.oracle.graal.python.builtins.objects.io.IONodesFactory.RawReadNodeGen;
+import com.oracle.graal.python.builtins.objects.io.IONodesFactory.RawSeekNodeGen;
+import com.oracle.graal.python.builtins.objects.io.IONodesFactory.RawWriteNodeGen;
+import com.oracle.graal.python.builtins.objects.io.IONodesFactory.ReadChunkNodeGen;
+import com.oracle.graal.python.builtins.objects.io.IONodesFactory.ReadLinesNodeGen;
+import com.oracle.graal.python.builtins.objects.io.IONodesFactory.TextIsClosedNodeGen;
+import com.oracle.graal.python.builtins.objects.io.IONodesFactory.WriteLinesNodeGen;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.module.PythonModule;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.str.Utf8Codec;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.PRaiseNode;
+import com.oracle.graal.python.nodes.PRaiseOSErrorNode;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode.GetFixedAttributeNode;
+import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
+import com.oracle.graal.python.nodes.builtins.ListNodes;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.control.GetIteratorExpressionNode.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CastToJavaLongNode;
+import com.oracle.graal.python.nodes.util.CastToJavaLongNode.CannotCastException;
+import com.oracle.graal.python.nodes.util.ChannelNodes.ReadIntoArrayNode;
+import com.oracle.graal.python.nodes.util.ChannelNodes.WriteFromArrayNode;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleLanguage.ContextReference;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.dsl.CachedContext;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.nodes.Node;
+
+public abstract class IONodes {
+
+    public static final String CLOSED_FILE = "I/O operation on closed file";
+    public static final String BYTESLIKE_REQUIRED = "a bytes-like object is required, not '%p'";
+
+    /**
+     * Looks up a method on an arbitrary stream object and calls it, i.e.,
+     * {@code getattr(obj, name)(*args)}. This is the slow path for streams that are not implemented
+     * in Java.
+     */
+    public static final class CallIOMethodNode extends Node {
+        private final String name;
+        @Child private GetFixedAttributeNode getAttributeNode;
+        @Child private CallNode callNode;
+
+        private CallIOMethodNode(String name) {
+            this.name = name;
+        }
+
+        public Object execute(VirtualFrame frame, Object receiver, Object... arguments) {
+            if (getAttributeNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                getAttributeNode = insert(GetFixedAttributeNode.create(name));
+                callNode = insert(CallNode.create());
+            }
+            return callNode.execute(frame, getAttributeNode.executeObject(frame, receiver), arguments);
+        }
+
+        public static CallIOMethodNode create(String name) {
+            return new CallIOMethodNode(name);
+        }
+    }
+
+    /**
+     * Raises {@code _io.UnsupportedOperation}, which is defined in Python because it inherits from
+     * both {@code OSError} and {@code ValueError}.
+     */
+    public static final class RaiseUnsupportedOperationNode extends Node {
+        @Child private ReadAttributeFromObjectNode readNode;
+        @Child private CallNode callNode;
+        @Child private PRaiseNode raiseNode;
+        @CompilationFinal private ContextReference<PythonContext> contextRef;
+
+        public PException raise(VirtualFrame frame, String message) {
+            if (readNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                readNode = insert(ReadAttributeFromObjectNode.create());
+                callNode = insert(CallNode.create());
+                raiseNode = insert(PRaiseNode.create());
+                contextRef = lookupContextReference(PythonLanguage.class);
+            }
+            PythonModule ioModule = contextRef.get().getCore().lookupBuiltinModule("_io");
+            Object exception = callNode.execute(frame, readNode.execute(ioModule, "UnsupportedOperation"), message);
+            throw raiseNode.raise((PBaseException) exception);
+        }
+
+        public static RaiseUnsupportedOperationNode create() {
+            return new RaiseUnsupportedOperationNode();
+        }
+    }
+
+    /**
+     * Reads at most {@code len} bytes from the raw stream of a buffered object into {@code dst}.
+     * Returns the number of bytes read, {@code 0} at the end of the stream and {@code -1} if a
+     * non-blocking raw stream returned {@code None}.
+     */
+    public abstract static class RawReadNode extends PNodeWithContext {
+        protected static final String READ = "read";
+
+        public abstract int execute(VirtualFrame frame, PBuffered self, byte[] dst, int off, int len);
+
+        @Specialization(guards = "self.getFileIORaw() != null")
+        static int readFileIO(PBuffered self, byte[] dst, int off, int len,
+                        @CachedContext(PythonLanguage.class) PythonContext context,
+                        @Cached ReadIntoArrayNode readNode,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            PFileIO raw = self.getFileIORaw();
+            if (raw.isClosed()) {
+                throw raiseNode.raise(ValueError, CLOSED_FILE);
+            }
+            return readNode.execute(context.getResources().getFileChannel(raw.getFD()), dst, off, len);
+        }
+
+        @Specialization(guards = "self.getFileIORaw() == null")
+        static int readGeneric(VirtualFrame frame, PBuffered self, byte[] dst, int off, int len,
+                        @Cached("create(READ)") CallIOMethodNode callReadNode,
+                        @Cached BytesNodes.ToBytesNode toBytesNode,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            Object result = callReadNode.execute(frame, self.getRaw(), len);
+            if (result == PNone.NONE) {
+                return -1;
+            }
+            byte[] data = toBytesNode.execute(frame, result);
+            if (data.length > len) {
+                throw raiseNode.raise(OSError, "raw read() returned invalid length %d (should have been between 0 and %d)", data.length, len);
+            }
+            System.arraycopy(data, 0, dst, off, data.length);
+            return data.length;
+        }
+
+        public static RawReadNode create() {
+            return RawReadNodeGen.create();
+        }
+    }
+
+    /**
+     * Writes {@code len} bytes of {@code src} to the raw stream of a buffered object. Returns the
+     * number of bytes the raw stream accepted or {@code -1} if a non-blocking raw stream returned
+     * {@code None}.
+     */
+    public abstract static class RawWriteNode extends PNodeWithContext {
+        protected static final String WRITE = "write";
+
+        public abstract int execute(VirtualFrame frame, PBuffered self, byte[] src, int off, int len);
+
+        @Specialization(guards = "self.getFileIORaw() != null")
+        static int writeFileIO(PBuffered self, byte[] src, int off, int len,
+                        @CachedContext(PythonLanguage.class) PythonContext context,
+                        @Cached WriteFromArrayNode writeNode,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            PFileIO raw = self.getFileIORaw();
+            if (raw.isClosed()) {
+                throw raiseNode.raise(ValueError, CLOSED_FILE);
+            }
+            writeNode.execute(context.getResources().getFileChannel(raw.getFD()), src, off, len);
+            return len;
+        }
+
+        @Specialization(guards = "self.getFileIORaw() == null")
+        static int writeGeneric(VirtualFrame frame, PBuffered self, byte[] src, int off, int len,
+                        @Cached("create(WRITE)") CallIOMethodNode callWriteNode,
+                        @Cached PythonObjectFactory factory,
+                        @Cached CastToJavaLongNode castToLongNode,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            byte[] data = off == 0 && len == src.length ? src : copyOfRange(src, off, len);
+            Object result = callWriteNode.execute(frame, self.getRaw(), factory.createBytes(data));
+            if (result == PNone.NONE) {
+                return -1;
+            }
+            long n = castToLong(castToLongNode, raiseNode, result);
+            if (n < 0 || n > len) {
+                throw raiseNode.raise(OSError, "raw write() returned invalid length %d (should have been between 0 and %d)", n, len);
+            }
+            return (int) n;
+        }
+
+        @TruffleBoundary(allowInlining = true)
+        private static byte[] copyOfRange(byte[] src, int off, int len) {
+            byte[] data = new byte[len];
+            System.arraycopy(src, off, data, 0, len);
+            return data;
+        }
+
+        public static RawWriteNode create() {
+            return RawWriteNodeGen.create();
+        }
+    }
+
+    /**
+     * Seeks the raw stream of a buffered object and returns the new absolute position. Passing
+     * {@code (0, SEEK_CUR)} is how the position is queried.
+     */
+    public abstract static class RawSeekNode extends PNodeWithContext {
+        protected static final String SEEK = "seek";
+
+        public abstract long execute(VirtualFrame frame, PBuffered self, long pos, int whence);
+
+        @Specialization(guards = "self.getFileIORaw() != null")
+        static long seekFileIO(VirtualFrame frame, PBuffered self, long pos, int whence,
+                        @CachedContext(PythonLanguage.class) PythonContext context,
+                        @Cached PRaiseOSErrorNode raiseOSErrorNode,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            PFileIO raw = self.getFileIORaw();
+            if (raw.isClosed()) {
+                throw raiseNode.raise(ValueError, CLOSED_FILE);
+            }
+            return seekChannel(frame, context.getResources().getFileChannel(raw.getFD()), pos, whence, raiseOSErrorNode);
+        }
+
+        @Specialization(guards = "self.getFileIORaw() == null")
+        static long seekGeneric(VirtualFrame frame, PBuffered self, long pos, int whence,
+                        @Cached("create(SEEK)") CallIOMethodNode callSeekNode,
+                        @Cached CastToJavaLongNode castToLongNode,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            long result = castToLong(castToLongNode, raiseNode, callSeekNode.execute(frame, self.getRaw(), pos, whence));
+            if (result < 0) {
+                throw raiseNode.raise(OSError, "Raw stream returned invalid position %d", result);
+            }
+            return result;
+        }
+
+        public static RawSeekNode create() {
+            return RawSeekNodeGen.create();
+        }
+    }
+
+    /**
+     * Implements {@code readlines(hint=-1)} on top of the object's {@code readline} method like
+     * {@code _io._IOBase} does.
+     */
+    public abstract static class ReadLinesNode extends PNodeWithContext {
+        protected static final String READLINE = "readline";
+
+        public abstract PList execute(VirtualFrame frame, Object self, Object hint);
+
+        @Specialization
+        static PList readlines(VirtualFrame frame, Object self, Object hintObj,
+                        @Cached("create(READLINE)") CallIOMethodNode readlineNode,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib,
+                        @Cached ListNodes.AppendNode appendNode,
+                        @Cached PythonObjectFactory factory) {
+            long hint = PGuards.isPNone(hintObj) ? -1 : lib.asSizeWithState(hintObj, PArguments.getThreadState(frame));
+            PList result = factory.createList();
+            long total = 0;
+            while (true) {
+                Object line = readlineNode.execute(frame, self);
+                int len = lib.lengthWithState(line, PArguments.getThreadState(frame));
+                if (len == 0) {
+                    break;
+                }
+                appendNode.execute(result, line);
+                total += len;
+                if (hint > 0 && total >= hint) {
+                    break;
+                }
+            }
+            return result;
+        }
+
+        public static ReadLinesNode create() {
+            return ReadLinesNodeGen.create();
+        }
+    }
+
+    /**
+     * Implements {@code writelines(lines)} by calling the object's {@code write} method for every
+     * item of the iterable.
+     */
+    public abstract static class WriteLinesNode extends PNodeWithContext {
+        protected static final String WRITE = "write";
+
+        public abstract void execute(VirtualFrame frame, Object self, Object lines);
+
+        @Specialization
+        static void writelines(VirtualFrame frame, Object self, Object lines,
+                        @Cached("create(WRITE)") CallIOMethodNode writeNode,
+                        @Cached GetIteratorNode getIteratorNode,
+                        @Cached GetNextNode getNextNode,
+                        @Cached IsBuiltinClassProfile errorProfile) {
+            Object iterator = getIteratorNode.executeWith(frame, lines);
+            while (true) {
+                Object line;
+                try {
+                    line = getNextNode.execute(frame, iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(errorProfile);
+                    return;
+                }
+                writeNode.execute(frame, self, line);
+            }
+        }
+
+        public static WriteLinesNode create() {
+            return WriteLinesNodeGen.create();
+        }
+    }
+
+    /**
+     * Checks that a buffered object was initialized and not detached and returns the result of
+     * {@code raw.closed}, which is read directly if the raw stream is an {@code _io.FileIO}.
+     */
+    public abstract static class BufferedIsClosedNode extends PNodeWithContext {
+        protected static final String CLOSED = "closed";
+
+        public abstract boolean execute(VirtualFrame frame, PBuffered self);
+
+        @Specialization(guards = "self.getFileIORaw() != null")
+        static boolean closedFileIO(PBuffered self) {
+            return self.getFileIORaw().isClosed();
+        }
+
+        @Specialization(guards = "self.getFileIORaw() == null")
+        static boolean closedGeneric(VirtualFrame frame, PBuffered self,
+                        @Cached("create(CLOSED)") GetFixedAttributeNode getClosedNode,
+                        @CachedLibrary(limit = "1") PythonObjectLibrary lib,
+                        @Cached PRaiseNode raiseNode) {
+            checkInitialized(self, raiseNode);
+            return lib.isTrueWithState(getClosedNode.executeObject(frame, self.getRaw()), PArguments.getThreadState(frame));
+        }
+
+        public static BufferedIsClosedNode create() {
+            return BufferedIsClosedNodeGen.create();
+        }
+    }
+
+    static void checkInitialized(PBuffered self, PRaiseNode raiseNode) {
+        if (!self.isOK()) {
+            if (self.isDetached()) {
+                throw raiseNode.raise(ValueError, "raw stream has been detached");
+            }
+            throw raiseNode.raise(ValueError, "I/O operation on uninitialized object");
+        }
+    }
+
+    /**
+     * Passes the pending data in {@code buffer[0:writeEnd]} to the raw stream.
+     */
+    public abstract static class FlushWriteBufferNode extends PNodeWithContext {
+
+        public abstract void execute(VirtualFrame frame, PBuffered self);
+
+        @Specialization
+        static void flush(VirtualFrame frame, PBuffered self,
+                        @Cached RawWriteNode rawWriteNode,
+                        @Cached PRaiseNode raiseNode) {
+            byte[] buffer = self.getBuffer();
+            int end = self.getWriteEnd();
+            int written = 0;
+            while (written < end) {
+                int n = rawWriteNode.execute(frame, self, buffer, written, end - written);
+                if (n < 0) {
+                    // keep what was not written yet
+                    System.arraycopy(buffer, written, buffer, 0, end - written);
+                    self.setWriteEnd(end - written);
+                    throw raiseNode.raise(PythonBuiltinClassType.BlockingIOError, "write could not complete without blocking");
+                }
+                written += n;
+            }
+            self.setWriteEnd(0);
+        }
+
+        public static FlushWriteBufferNode create() {
+            return FlushWriteBufferNodeGen.create();
+        }
+    }
+
+    /**
+     * Moves the unconsumed read-ahead data to the start of the buffer and fills the rest of it
+     * with one raw read. Returns the number of new bytes, {@code 0} at the end of the stream and
+     * {@code -1} if a non-blocking raw stream has no data.
+     */
+    public abstract static class FillReadBufferNode extends PNodeWithContext {
+
+        public abstract int execute(VirtualFrame frame, PBuffered self);
+
+        @Specialization
+        static int fill(VirtualFrame frame, PBuffered self,
+                        @Cached RawReadNode rawReadNode) {
+            byte[] buffer = self.getBuffer();
+            int available = self.getReadAvailable();
+            if (available > 0 && self.getReadPos() > 0) {
+                System.arraycopy(buffer, self.getReadPos(), buffer, 0, available);
+            }
+            self.setReadPos(0);
+            self.setReadEnd(available);
+            int n = rawReadNode.execute(frame, self, buffer, available, buffer.length - available);
+            if (n > 0) {
+                self.setReadEnd(available + n);
+            }
+            return n;
+        }
+
+        public static FillReadBufferNode create() {
+            return FillReadBufferNodeGen.create();
+        }
+    }
+
+    /**
+     * Checks whether the buffer of a text stream is closed. If the buffer is one of the Java
+     * buffered streams, this does not need an attribute lookup.
+     */
+    public abstract static class TextIsClosedNode extends PNodeWithContext {
+        protected static final String CLOSED = "closed";
+
+        public abstract boolean execute(VirtualFrame frame, PTextIO self);
+
+        @Specialization(guards = "self.getJavaBuffer() != null")
+        static boolean closedJava(VirtualFrame frame, PTextIO self,
+                        @Cached BufferedIsClosedNode isClosedNode,
+                        @Cached PRaiseNode raiseNode) {
+            PBuffered buffer = self.getJavaBuffer();
+            checkInitialized(buffer, raiseNode);
+            return isClosedNode.execute(frame, buffer);
+        }
+
+        @Specialization(guards = "self.getJavaBuffer() == null")
+        static boolean closedGeneric(VirtualFrame frame, PTextIO self,
+                        @Cached("create(CLOSED)") GetFixedAttributeNode getClosedNode,
+                        @CachedLibrary(limit = "1") PythonObjectLibrary lib) {
+            return lib.isTrueWithState(getClosedNode.executeObject(frame, self.getBuffer()), PArguments.getThreadState(frame));
+        }
+
+        public static TextIsClosedNode create() {
+            return TextIsClosedNodeGen.create();
+        }
+    }
+
+    /**
+     * Reads the next chunk of bytes from the buffer of a text stream, decodes it and appends it to
+     * the unconsumed part of {@link PTextIO#getDecodedChars()}. If the buffer is an
+     * {@code _io.BufferedReader}, the bytes are decoded directly from its read buffer. Returns
+     * {@code false} if no more bytes were available.
+     */
+    public abstract static class ReadChunkNode extends PNodeWithContext {
+        protected static final String READ1 = "read1";
+
+        public abstract boolean execute(VirtualFrame frame, PTextIO self);
+
+        @Specialization(guards = "self.getJavaReader() != null")
+        static boolean readJava(VirtualFrame frame, PTextIO self,
+                        @Cached FillReadBufferNode fillNode,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            PBuffered reader = self.getJavaReader();
+            checkInitialized(reader, raiseNode);
+            if (reader.getReadAvailable() == 0) {
+                fillNode.execute(frame, reader);
+            }
+            int available = reader.getReadAvailable();
+            decodeChunk(self, reader.getBuffer(), reader.getReadPos(), available, raiseNode);
+            reader.setReadPos(reader.getReadEnd());
+            return available > 0;
+        }
+
+        @Specialization(guards = "self.getJavaReader() == null")
+        static boolean readGeneric(VirtualFrame frame, PTextIO self,
+                        @Cached("create(READ1)") CallIOMethodNode callReadNode,
+                        @Cached BytesNodes.ToBytesNode toBytesNode,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            byte[] data = toBytesNode.execute(frame, callReadNode.execute(frame, self.getBuffer(), self.getChunkSize()));
+            decodeChunk(self, data, 0, data.length, raiseNode);
+            return data.length > 0;
+        }
+
+        private static void decodeChunk(PTextIO self, byte[] data, int off, int len, PRaiseNode raiseNode) {
+            String decoded;
+            try {
+                decoded = decode(self, data, off, len, len == 0);
+            } catch (CharacterCodingException e) {
+                throw raiseNode.raise(UnicodeDecodeError, e);
+            }
+            boolean hasCR = self.isReadUniversal() && PString.indexOf(decoded, "\r", 0) >= 0;
+            if (self.getDecodedCharsAvailable() > 0) {
+                String rest = PString.substring(self.getDecodedChars(), self.getDecodedCharsUsed());
+                self.setDecoded(concat(rest, decoded), hasCR || self.isDecodedHasCR());
+            } else {
+                self.setDecoded(decoded, hasCR);
+            }
+        }
+
+        public static ReadChunkNode create() {
+            return ReadChunkNodeGen.create();
+        }
+    }
+
+    /**
+     * Decodes {@code data[off:off+len]} with the charset of a text stream. Incomplete multi-byte
+     * sequences at the end are kept in {@link PTextIO#getPendingBytes()} unless {@code last} is
+     * set. Pure ASCII data is copied without going through the decoder if the charset allows it,
+     * and well-formed UTF-8 is decoded directly.
+     */
+    static String decode(PTextIO self, byte[] data, int off, int len, boolean last) throws CharacterCodingException {
+        if (self.getPendingBytes() == null) {
+            if (self.isLatin1() || self.isAsciiCompatible() && isAscii(data, off, len)) {
+                return newLatin1String(data, off, len);
+            } else if (self.getCharset() == StandardCharsets.UTF_8) {
+                String decoded = decodeUtf8(self, data, off, len, last);
+                if (decoded != null) {
+                    return decoded;
+                }
+            }
+        }
+        return decodeWithDecoder(self, data, off, len, last);
+    }
+
+    @TruffleBoundary
+    private static String decodeUtf8(PTextIO self, byte[] data, int off, int len, boolean last) {
+        int complete = last ? len : Utf8Codec.completeLength(data, off, len);
+        String decoded = Utf8Codec.decode(data, off, complete);
+        if (decoded != null && complete < len) {
+            self.setPendingBytes(Arrays.copyOfRange(data, off + complete, off + len));
+        }
+        return decoded;
+    }
+
+    private static boolean isAscii(byte[] data, int off, int len) {
+        int end = off + len;
+        for (int i = off; i < end; i++) {
+            if (data[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static String newLatin1String(byte[] data, int off, int len) {
+        return new String(data, off, len, StandardCharsets.ISO_8859_1);
+    }
+
+    @TruffleBoundary
+    private static String decodeWithDecoder(PTextIO self, byte[] data, int off, int len, boolean last) throws CharacterCodingException {
+        CharsetDecoder decoder = self.getDecoder();
+        if (decoder == null) {
+            CodingErrorAction action = CodecsModuleBuiltins.convertCodingErrorAction(self.getErrors());
+            decoder = self.getCharset().newDecoder().onMalformedInput(action).onUnmappableCharacter(action);
+            self.setDecoder(decoder);
+        }
+        byte[] pending = self.getPendingBytes();
+        ByteBuffer in;
+        if (pending != null) {
+            byte[] joined = Arrays.copyOf(pending, pending.length + len);
+            System.arraycopy(data, off, joined, pending.length, len);
+            in = ByteBuffer.wrap(joined);
+        } else {
+            in = ByteBuffer.wrap(data, off, len);
+        }
+        CharBuffer out = CharBuffer.allocate((int) (in.remaining() * decoder.averageCharsPerByte()) + 16);
+        while (true) {
+            CoderResult result = decoder.decode(in, out, last);
+            if (result.isOverflow()) {
+                out = grow(out);
+            } else if (result.isError()) {
+                self.setPendingBytes(null);
+                result.throwException();
+            } else {
+                break;
+            }
+        }
+        if (last) {
+            while (decoder.flush(out).isOverflow()) {
+                out = grow(out);
+            }
+            // a flushed decoder cannot be used again without a reset
+            decoder.reset();
+        }
+        if (in.hasRemaining()) {
+            byte[] rest = new byte[in.remaining()];
+            in.get(rest);
+            self.setPendingBytes(rest);
+        } else {
+            self.setPendingBytes(null);
+        }
+        out.flip();
+        return out.toString();
+    }
+
+    private static CharBuffer grow(CharBuffer buffer) {
+        CharBuffer result = CharBuffer.allocate(buffer.capacity() * 2 + 16);
+        buffer.flip();
+        result.put(buffer);
+        return result;
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static String concat(String a, String b) {
+        return a + b;
+    }
+
+    static long castToLong(CastToJavaLongNode castToLongNode, PRaiseNode raiseNode, Object value) {
+        try {
+            return castToLongNode.execute(value);
+        } catch (CannotCastException e) {
+            throw raiseNode.raise(TypeError, "an integer is required (got type %p)", value);
+        }
+    }
+
+    static long seekChannel(VirtualFrame frame, Channel channel, long pos, int whence, PRaiseOSErrorNode raiseOSErrorNode) {
+        if (!(channel instanceof SeekableByteChannel)) {
+            throw raiseOSErrorNode.raiseOSError(frame, OSErrorEnum.ESPIPE);
+        }
+        try {
+            return setPosition((SeekableByteChannel) channel, pos, whence);
+        } catch (IOException | IllegalArgumentException e) {
+            throw raiseOSErrorNode.raiseOSError(frame, e);
+        }
+    }
+
+    @TruffleBoundary(allowInlining = true, transferToInterpreterOnException = false)
+    private static long setPosition(SeekableByteChannel channel, long pos, int whence) throws IOException {
+        switch (whence) {
+            case PosixModuleBuiltins.SEEK_SET:
+                channel.position(pos);
+                break;
+            case PosixModuleBuiltins.SEEK_CUR:
+                if (pos != 0) {
+                    channel.position(channel.position() + pos);
+                }
+                break;
+            case PosixModuleBuiltins.SEEK_END:
+                channel.position(channel.size() + pos);
+                break;
+            default:
+                throw new IllegalArgumentException("invalid whence (" + whence + ", should be 0, 1 or 2)");
+        }
+        return channel.position();
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.objects.object.PythonObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+
+/**
+ * Common state of {@code _io.BufferedReader} and {@code _io.BufferedWriter}. A reader keeps the
+ * read-ahead data in {@code buffer[readPos:readEnd]}, a writer keeps the data that was not yet
+ * passed to the raw stream in {@code buffer[0:writeEnd]}.
+ */
+public final class PBuffered extends PythonObject {
+
+    private Object raw;
+    /** The raw stream if it is exactly an {@code _io.FileIO}, {@code null} otherwise. */
+    private PFileIO fileIORaw;
+    private byte[] buffer;
+    private int readPos;
+    private int readEnd;
+    private int writeEnd;
+    private boolean ok;
+    private boolean detached;
+
+    public PBuffered(LazyPythonClass clazz) {
+        super(clazz);
+    }
+
+    public void init(Object rawStream, int bufferSize) {
+        this.raw = rawStream;
+        if (rawStream instanceof PFileIO && IsBuiltinClassProfile.profileClassSlowPath(((PFileIO) rawStream).getLazyPythonClass(), PythonBuiltinClassType.PFileIO)) {
+            this.fileIORaw = (PFileIO) rawStream;
+        } else {
+            this.fileIORaw = null;
+        }
+        this.buffer = new byte[bufferSize];
+        this.readPos = 0;
+        this.readEnd = 0;
+        this.writeEnd = 0;
+        this.ok = true;
+        this.detached = false;
+    }
+
+    public Object getRaw() {
+        return raw;
+    }
+
+    public PFileIO getFileIORaw() {
+        return fileIORaw;
+    }
+
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    public int getBufferSize() {
+        return buffer.length;
+    }
+
+    public int getReadPos() {
+        return readPos;
+    }
+
+    public void setReadPos(int readPos) {
+        this.readPos = readPos;
+    }
+
+    public int getReadEnd() {
+        return readEnd;
+    }
+
+    public void setReadEnd(int readEnd) {
+        this.readEnd = readEnd;
+    }
+
+    /** Number of bytes that were read ahead from the raw stream but not yet consumed. */
+    public int getReadAvailable() {
+        return readEnd - readPos;
+    }
+
+    public void resetReadBuffer() {
+        readPos = 0;
+        readEnd = 0;
+    }
+
+    public int getWriteEnd() {
+        return writeEnd;
+    }
+
+    public void setWriteEnd(int writeEnd) {
+        this.writeEnd = writeEnd;
+    }
+
+    public boolean isOK() {
+        return ok;
+    }
+
+    public boolean isDetached() {
+        return detached;
+    }
+
+    public void detach() {
+        this.raw = null;
+        this.fileIORaw = null;
+        this.buffer = null;
+        this.ok = false;
+        this.detached = true;
+    }
+}
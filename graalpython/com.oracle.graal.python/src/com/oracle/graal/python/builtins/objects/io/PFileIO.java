@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import com.oracle.graal.python.builtins.objects.object.PythonObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+
+/**
+ * The raw file object of the {@code _io} module. It only remembers the file descriptor and the
+ * access mode; the actual channel is owned by {@link com.oracle.graal.python.runtime.PosixResources}.
+ */
+public final class PFileIO extends PythonObject {
+
+    private int fd = -1;
+    private boolean created;
+    private boolean readable;
+    private boolean writable;
+    private boolean appending;
+    private boolean closefd = true;
+    /** -1 unknown, 0 not seekable, 1 seekable */
+    private int seekable = -1;
+
+    public PFileIO(LazyPythonClass clazz) {
+        super(clazz);
+    }
+
+    public int getFD() {
+        return fd;
+    }
+
+    public void setFD(int fd) {
+        this.fd = fd;
+    }
+
+    public boolean isClosed() {
+        return fd < 0;
+    }
+
+    public boolean isCreated() {
+        return created;
+    }
+
+    public boolean isReadable() {
+        return readable;
+    }
+
+    public boolean isWritable() {
+        return writable;
+    }
+
+    public boolean isAppending() {
+        return appending;
+    }
+
+    public void setMode(boolean created, boolean readable, boolean writable, boolean appending) {
+        this.created = created;
+        this.readable = readable;
+        this.writable = writable;
+        this.appending = appending;
+    }
+
+    public boolean isCloseFD() {
+        return closefd;
+    }
+
+    public void setCloseFD(boolean closefd) {
+        this.closefd = closefd;
+    }
+
+    public int getSeekable() {
+        return seekable;
+    }
+
+    public void setSeekable(int seekable) {
+        this.seekable = seekable;
+    }
+
+    public String getModeString() {
+        if (created) {
+            return readable ? "xb+" : "xb";
+        }
+        if (appending) {
+            return readable ? "ab+" : "ab";
+        } else if (readable) {
+            return writable ? "rb+" : "rb";
+        } else {
+            return "wb";
+        }
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+
+import com.oracle.graal.python.builtins.objects.object.PythonObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+
+/**
+ * State of an {@code _io.TextIOWrapper}. Decoded text is kept untranslated in
+ * {@link #getDecodedChars()} so that every character can be mapped back to the bytes it came from,
+ * which is what {@code tell()} relies on. Newlines are translated when the text is handed out.
+ */
+public final class PTextIO extends PythonObject {
+
+    private Object buffer;
+    /** The buffer if it is exactly an {@code _io.BufferedReader}, {@code null} otherwise. */
+    private PBuffered javaReader;
+    /** The buffer if it is exactly an {@code _io.BufferedWriter}, {@code null} otherwise. */
+    private PBuffered javaWriter;
+
+    private String encoding;
+    private String errors;
+    private Charset charset;
+    private CharsetDecoder decoder;
+    private CharsetEncoder encoder;
+    /** Whether ASCII bytes decode to the same chars, so that pure ASCII data can be copied. */
+    private boolean asciiCompatible;
+    private boolean latin1;
+
+    /** Whether any of {@code \r}, {@code \n} and {@code \r\n} end a line. */
+    private boolean readUniversal;
+    /** Whether line endings are translated to {@code \n} when reading. */
+    private boolean readTranslate;
+    /** The line ending if {@link #readUniversal} is not set. */
+    private String readNewline;
+    /** The replacement for {@code \n} when writing or {@code null} if nothing is replaced. */
+    private String writeNewline;
+    private Object newlineArg;
+    private boolean lineBuffering;
+    private boolean writeThrough;
+
+    private String decodedChars;
+    private int decodedCharsUsed;
+    private boolean decodedHasCR;
+    /** Undecoded bytes at the end of the last chunk, e.g. an incomplete UTF-8 sequence. */
+    private byte[] pendingBytes;
+
+    private int chunkSize;
+    private boolean seekable;
+    private boolean ok;
+    private boolean detached;
+
+    public PTextIO(LazyPythonClass clazz) {
+        super(clazz);
+    }
+
+    public void init(Object bufferObj, PBuffered reader, PBuffered writer, String enc, String err, Charset cs, Object newline) {
+        this.buffer = bufferObj;
+        this.javaReader = reader;
+        this.javaWriter = writer;
+        this.encoding = enc;
+        this.errors = err;
+        this.charset = cs;
+        this.decoder = null;
+        this.encoder = null;
+        this.newlineArg = newline;
+        this.chunkSize = 8192;
+        this.ok = true;
+        this.detached = false;
+        clearDecoded();
+    }
+
+    public Object getBuffer() {
+        return buffer;
+    }
+
+    public PBuffered getJavaReader() {
+        return javaReader;
+    }
+
+    public PBuffered getJavaWriter() {
+        return javaWriter;
+    }
+
+    /** Returns the buffer if it is exactly an {@code _io.BufferedReader} or {@code _io.BufferedWriter}. */
+    public PBuffered getJavaBuffer() {
+        return javaReader != null ? javaReader : javaWriter;
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    public String getErrors() {
+        return errors;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public CharsetDecoder getDecoder() {
+        return decoder;
+    }
+
+    public void setDecoder(CharsetDecoder decoder) {
+        this.decoder = decoder;
+    }
+
+    public CharsetEncoder getEncoder() {
+        return encoder;
+    }
+
+    public void setEncoder(CharsetEncoder encoder) {
+        this.encoder = encoder;
+    }
+
+    public boolean isAsciiCompatible() {
+        return asciiCompatible;
+    }
+
+    public boolean isLatin1() {
+        return latin1;
+    }
+
+    public void setCharsetKind(boolean isAsciiCompatible, boolean isLatin1) {
+        this.asciiCompatible = isAsciiCompatible;
+        this.latin1 = isLatin1;
+    }
+
+    public boolean isReadUniversal() {
+        return readUniversal;
+    }
+
+    public boolean isReadTranslate() {
+        return readTranslate;
+    }
+
+    public String getReadNewline() {
+        return readNewline;
+    }
+
+    public String getWriteNewline() {
+        return writeNewline;
+    }
+
+    public void setNewlines(boolean universal, boolean translate, String readNl, String writeNl) {
+        this.readUniversal = universal;
+        this.readTranslate = translate;
+        this.readNewline = readNl;
+        this.writeNewline = writeNl;
+    }
+
+    public Object getNewlineArg() {
+        return newlineArg;
+    }
+
+    public boolean isLineBuffering() {
+        return lineBuffering;
+    }
+
+    public void setLineBuffering(boolean lineBuffering) {
+        this.lineBuffering = lineBuffering;
+    }
+
+    public boolean isWriteThrough() {
+        return writeThrough;
+    }
+
+    public void setWriteThrough(boolean writeThrough) {
+        this.writeThrough = writeThrough;
+    }
+
+    public String getDecodedChars() {
+        return decodedChars;
+    }
+
+    public int getDecodedCharsUsed() {
+        return decodedCharsUsed;
+    }
+
+    public void setDecodedCharsUsed(int used) {
+        this.decodedCharsUsed = used;
+    }
+
+    public int getDecodedCharsAvailable() {
+        return decodedChars.length() - decodedCharsUsed;
+    }
+
+    public boolean isDecodedHasCR() {
+        return decodedHasCR;
+    }
+
+    public void setDecoded(String chars, boolean hasCR) {
+        this.decodedChars = chars;
+        this.decodedCharsUsed = 0;
+        this.decodedHasCR = hasCR;
+    }
+
+    public byte[] getPendingBytes() {
+        return pendingBytes;
+    }
+
+    public void setPendingBytes(byte[] pendingBytes) {
+        this.pendingBytes = pendingBytes;
+    }
+
+    /** Drops all decoded and undecoded read-ahead data, e.g. after a seek or a write. */
+    public void clearDecoded() {
+        this.decodedChars = "";
+        this.decodedCharsUsed = 0;
+        this.decodedHasCR = false;
+        this.pendingBytes = null;
+        // a new decoder is created lazily
+        this.decoder = null;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public boolean isSeekable() {
+        return seekable;
+    }
+
+    public void setSeekable(boolean seekable) {
+        this.seekable = seekable;
+    }
+
+    public boolean isOK() {
+        return ok;
+    }
+
+    public boolean isDetached() {
+        return detached;
+    }
+
+    public void detach() {
+        this.buffer = null;
+        this.javaReader = null;
+        this.javaWriter = null;
+        this.ok = false;
+        this.detached = true;
+    }
+}
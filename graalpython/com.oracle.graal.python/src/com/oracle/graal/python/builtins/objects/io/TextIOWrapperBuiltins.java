@@ -0,0 +1,1024 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.LookupError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.UnicodeDecodeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.UnicodeEncodeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+import static com.oracle.graal.python.builtins.objects.io.IONodes.CLOSED_FILE;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ENTER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EXIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETSTATE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.modules.CodecsModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.PosixModuleBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.function.PArguments.ThreadState;
+import com.oracle.graal.python.builtins.objects.io.IONodes.CallIOMethodNode;
+import com.oracle.graal.python.builtins.objects.io.IONodes.FlushWriteBufferNode;
+import com.oracle.graal.python.builtins.objects.io.IONodes.RaiseUnsupportedOperationNode;
+import com.oracle.graal.python.builtins.objects.io.IONodes.RawWriteNode;
+import com.oracle.graal.python.builtins.objects.io.IONodes.ReadChunkNode;
+import com.oracle.graal.python.builtins.objects.io.IONodes.ReadLinesNode;
+import com.oracle.graal.python.builtins.objects.io.IONodes.TextIsClosedNode;
+import com.oracle.graal.python.builtins.objects.io.IONodes.WriteLinesNode;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.str.Utf8Codec;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.builtins.objects.type.PythonBuiltinClass;
+import com.oracle.graal.python.builtins.objects.type.TypeNodes;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.PRaiseNode;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode.GetFixedAttributeNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetLazyClassNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CastToJavaLongNode;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+/**
+ * {@code _io.TextIOWrapper}. If the buffer is exactly an {@code _io.BufferedReader} or
+ * {@code _io.BufferedWriter}, bytes are decoded directly from the read buffer and encoded bytes
+ * are copied directly into the write buffer. Only charsets known to Java are supported.
+ */
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PTextIOWrapper)
+public class TextIOWrapperBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return TextIOWrapperBuiltinsFactory.getFactories();
+    }
+
+    static void checkInitialized(PythonBuiltinBaseNode node, PTextIO self) {
+        if (!self.isOK()) {
+            if (self.isDetached()) {
+                throw node.raise(ValueError, "underlying buffer has been detached");
+            }
+            throw node.raise(ValueError, "I/O operation on uninitialized object");
+        }
+    }
+
+    static void checkClosed(VirtualFrame frame, PythonBuiltinBaseNode node, PTextIO self, TextIsClosedNode isClosedNode) {
+        checkInitialized(node, self);
+        if (isClosedNode.execute(frame, self)) {
+            throw node.raise(ValueError, CLOSED_FILE);
+        }
+    }
+
+    static void checkReadable(VirtualFrame frame, PTextIO self, RaiseUnsupportedOperationNode raiseUnsupportedNode) {
+        if (self.getJavaWriter() != null) {
+            throw raiseUnsupportedNode.raise(frame, "not readable");
+        }
+    }
+
+    static void checkWritable(VirtualFrame frame, PTextIO self, RaiseUnsupportedOperationNode raiseUnsupportedNode) {
+        if (self.getJavaReader() != null) {
+            throw raiseUnsupportedNode.raise(frame, "not writable");
+        }
+    }
+
+    static void flushBuffer(VirtualFrame frame, PTextIO self, BufferedIOBuiltins.FlushNode flushNode, CallIOMethodNode callFlushNode) {
+        PBuffered javaBuffer = self.getJavaBuffer();
+        if (javaBuffer != null) {
+            flushNode.execute(frame, javaBuffer);
+        } else {
+            callFlushNode.execute(frame, self.getBuffer());
+        }
+    }
+
+    @TruffleBoundary
+    static Charset lookupCharset(String encoding) {
+        Charset charset = CodecsModuleBuiltins.getCharset(encoding);
+        if (charset == null) {
+            charset = CodecsModuleBuiltins.getCharset(encoding.toLowerCase(Locale.ENGLISH));
+        }
+        return charset;
+    }
+
+    @TruffleBoundary
+    static boolean isValidNewline(String newline) {
+        return newline.isEmpty() || newline.equals("\n") || newline.equals("\r") || newline.equals("\r\n");
+    }
+
+    /**
+     * Returns the end (exclusive) of the first line in {@code text[start:]} or {@code -1} if there
+     * is no complete line yet. With universal newlines, a {@code \r} at the very end only ends a
+     * line at EOF, since it might be the first half of {@code \r\n}.
+     */
+    @TruffleBoundary
+    static int findLineEnd(PTextIO self, String text, int start, boolean atEOF) {
+        if (!self.isReadUniversal()) {
+            String newline = self.getReadNewline();
+            int i = text.indexOf(newline, start);
+            return i < 0 ? -1 : i + newline.length();
+        }
+        int nl = text.indexOf('\n', start);
+        if (!self.isDecodedHasCR()) {
+            return nl < 0 ? -1 : nl + 1;
+        }
+        int cr = text.indexOf('\r', start);
+        if (cr < 0 || (nl >= 0 && nl < cr)) {
+            return nl < 0 ? -1 : nl + 1;
+        }
+        if (cr + 1 < text.length()) {
+            return text.charAt(cr + 1) == '\n' ? cr + 2 : cr + 1;
+        }
+        return atEOF ? cr + 1 : -1;
+    }
+
+    @TruffleBoundary
+    static String translateNewlines(String text) {
+        if (text.indexOf('\r') < 0) {
+            return text;
+        }
+        return text.replace("\r\n", "\n").replace('\r', '\n');
+    }
+
+    /**
+     * Consumes at most {@code n} translated characters from the decoded text. A {@code \r} at the
+     * very end is left in place unless {@code atEOF} is set.
+     */
+    @TruffleBoundary
+    static String takeChars(PTextIO self, int n, boolean atEOF) {
+        String text = self.getDecodedChars();
+        int start = self.getDecodedCharsUsed();
+        int len = text.length();
+        if (!self.isReadTranslate() || !self.isDecodedHasCR()) {
+            int end = n >= len - start ? len : start + n;
+            self.setDecodedCharsUsed(end);
+            return text.substring(start, end);
+        }
+        StringBuilder sb = new StringBuilder(Math.min(n, len - start));
+        int i = start;
+        while (sb.length() < n && i < len) {
+            char c = text.charAt(i);
+            if (c == '\r') {
+                if (i + 1 < len) {
+                    i += text.charAt(i + 1) == '\n' ? 2 : 1;
+                } else if (atEOF) {
+                    i++;
+                } else {
+                    break;
+                }
+                sb.append('\n');
+            } else {
+                sb.append(c);
+                i++;
+            }
+        }
+        self.setDecodedCharsUsed(i);
+        return sb.toString();
+    }
+
+    @TruffleBoundary
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Encodes text with the charset of the stream. The encoder is kept between calls so that a
+     * byte order mark is only written once.
+     */
+    @TruffleBoundary
+    static byte[] encode(PTextIO self, String text) throws CharacterCodingException {
+        if (self.isAsciiCompatible() && isAscii(text)) {
+            return text.getBytes(StandardCharsets.ISO_8859_1);
+        } else if (self.getCharset() == StandardCharsets.UTF_8) {
+            byte[] utf8 = Utf8Codec.encode(text);
+            if (utf8 != null) {
+                return utf8;
+            }
+        }
+        CharsetEncoder encoder = self.getEncoder();
+        if (encoder == null) {
+            CodingErrorAction action = CodecsModuleBuiltins.convertCodingErrorAction(self.getErrors());
+            encoder = self.getCharset().newEncoder().onMalformedInput(action).onUnmappableCharacter(action);
+            self.setEncoder(encoder);
+        }
+        CharBuffer in = CharBuffer.wrap(text);
+        ByteBuffer out = ByteBuffer.allocate((int) (text.length() * encoder.averageBytesPerChar()) + 16);
+        while (true) {
+            CoderResult result = encoder.encode(in, out, false);
+            if (result.isOverflow()) {
+                out = grow(out, 0);
+            } else if (result.isError()) {
+                result.throwException();
+            } else {
+                break;
+            }
+        }
+        if (in.hasRemaining()) {
+            // the encoder waits for the second half of a surrogate pair that will never come
+            if (encoder.malformedInputAction() == CodingErrorAction.REPORT) {
+                CoderResult.malformedForLength(in.remaining()).throwException();
+            } else if (encoder.malformedInputAction() == CodingErrorAction.REPLACE) {
+                out = grow(out, encoder.replacement().length);
+                out.put(encoder.replacement());
+            }
+        }
+        out.flip();
+        byte[] bytes = new byte[out.remaining()];
+        out.get(bytes);
+        return bytes;
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int minFree) {
+        if (minFree > 0 && buffer.remaining() >= minFree) {
+            return buffer;
+        }
+        ByteBuffer result = ByteBuffer.allocate(buffer.capacity() * 2 + minFree + 16);
+        buffer.flip();
+        result.put(buffer);
+        return result;
+    }
+
+    /**
+     * Returns the number of bytes {@code text} was decoded from. This is exact for text that was
+     * decoded without errors.
+     */
+    @TruffleBoundary
+    static long encodedLength(PTextIO self, String text) {
+        if (self.isLatin1() || self.isAsciiCompatible() && isAscii(text)) {
+            return text.length();
+        }
+        if (self.getCharset() == StandardCharsets.UTF_8) {
+            long n = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    n += 1;
+                } else if (c < 0x800) {
+                    n += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    n += 4;
+                    i++;
+                } else {
+                    n += 3;
+                }
+            }
+            return n;
+        }
+        // encode a suffix along with the text so that byte order marks cancel out
+        CharsetEncoder encoder = self.getCharset().newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+        try {
+            int withText = encoder.encode(CharBuffer.wrap(text + "\n")).remaining();
+            encoder.reset();
+            return withText - encoder.encode(CharBuffer.wrap("\n")).remaining();
+        } catch (CharacterCodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static String concat(String a, String b) {
+        return a + b;
+    }
+
+    @Builtin(name = __INIT__, minNumOfPositionalArgs = 2, parameterNames = {"$self", "buffer", "encoding", "errors", "newline", "line_buffering", "write_through"})
+    @GenerateNodeFactory
+    public abstract static class InitNode extends PythonBuiltinNode {
+        protected static final String SEEKABLE = "seekable";
+
+        @Specialization
+        PNone init(VirtualFrame frame, PTextIO self, Object buffer, Object encodingObj, Object errorsObj, Object newlineObj, Object lineBufferingObj, Object writeThroughObj,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary lib,
+                        @Cached CastToJavaStringNode castToStringNode,
+                        @Cached IsBuiltinClassProfile isReaderProfile,
+                        @Cached IsBuiltinClassProfile isWriterProfile,
+                        @Cached("create(SEEKABLE)") CallIOMethodNode callSeekableNode) {
+            String encoding = "utf-8";
+            if (!PGuards.isPNone(encodingObj)) {
+                encoding = castToStringNode.execute(encodingObj);
+                if (encoding == null) {
+                    throw raise(TypeError, "TextIOWrapper() argument 'encoding' must be str or None, not %p", encodingObj);
+                }
+            }
+            String errors = "strict";
+            if (!PGuards.isPNone(errorsObj)) {
+                errors = castToStringNode.execute(errorsObj);
+                if (errors == null) {
+                    throw raise(TypeError, "TextIOWrapper() argument 'errors' must be str or None, not %p", errorsObj);
+                }
+            }
+            String newline = null;
+            if (!PGuards.isPNone(newlineObj)) {
+                newline = castToStringNode.execute(newlineObj);
+                if (newline == null) {
+                    throw raise(TypeError, "TextIOWrapper() argument 'newline' must be str or None, not %p", newlineObj);
+                }
+                if (!isValidNewline(newline)) {
+                    throw raise(ValueError, "illegal newline value: %s", newline);
+                }
+            }
+            Charset charset = lookupCharset(encoding);
+            if (charset == null) {
+                throw raise(LookupError, "unknown encoding: %s", encoding);
+            }
+            ThreadState threadState = PArguments.getThreadState(frame);
+            boolean lineBuffering = !PGuards.isPNone(lineBufferingObj) && lib.isTrueWithState(lineBufferingObj, threadState);
+            boolean writeThrough = !PGuards.isPNone(writeThroughObj) && lib.isTrueWithState(writeThroughObj, threadState);
+
+            PBuffered reader = null;
+            PBuffered writer = null;
+            if (buffer instanceof PBuffered) {
+                if (isReaderProfile.profileObject((PBuffered) buffer, PythonBuiltinClassType.PBufferedReader)) {
+                    reader = (PBuffered) buffer;
+                } else if (isWriterProfile.profileObject((PBuffered) buffer, PythonBuiltinClassType.PBufferedWriter)) {
+                    writer = (PBuffered) buffer;
+                }
+            }
+            self.init(buffer, reader, writer, encoding, errors, charset, newlineObj);
+            if (newline == null) {
+                self.setNewlines(true, true, null, null);
+            } else if (newline.isEmpty()) {
+                self.setNewlines(true, false, null, null);
+            } else {
+                self.setNewlines(false, false, newline, PString.equals(newline, "\n") ? null : newline);
+            }
+            boolean latin1 = charset == StandardCharsets.ISO_8859_1;
+            self.setCharsetKind(latin1 || charset == StandardCharsets.UTF_8 || charset == StandardCharsets.US_ASCII, latin1);
+            self.setLineBuffering(lineBuffering);
+            self.setWriteThrough(writeThrough);
+            self.setSeekable(lib.isTrueWithState(callSeekableNode.execute(frame, buffer), threadState));
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "read", minNumOfPositionalArgs = 1, parameterNames = {"$self", "size"})
+    @GenerateNodeFactory
+    abstract static class ReadNode extends PythonBinaryBuiltinNode {
+        protected static final String READ = "read";
+
+        @Specialization
+        String read(VirtualFrame frame, PTextIO self, Object sizeObj,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib,
+                        @Cached TextIsClosedNode isClosedNode,
+                        @Cached RaiseUnsupportedOperationNode raiseUnsupportedNode,
+                        @Cached ReadChunkNode readChunkNode,
+                        @Cached("create(READ)") CallIOMethodNode callReadNode,
+                        @Cached BytesNodes.ToBytesNode toBytesNode,
+                        @Cached("createBinaryProfile()") ConditionProfile readAllProfile) {
+            checkClosed(frame, this, self, isClosedNode);
+            checkReadable(frame, self, raiseUnsupportedNode);
+            int size = PGuards.isPNone(sizeObj) ? -1 : lib.asSizeWithState(sizeObj, PArguments.getThreadState(frame));
+            if (readAllProfile.profile(size < 0)) {
+                byte[] data = toBytesNode.execute(frame, callReadNode.execute(frame, self.getBuffer()));
+                String decoded;
+                try {
+                    decoded = IONodes.decode(self, data, 0, data.length, true);
+                } catch (CharacterCodingException e) {
+                    throw raise(UnicodeDecodeError, e);
+                }
+                if (self.getDecodedCharsAvailable() > 0) {
+                    decoded = concat(PString.substring(self.getDecodedChars(), self.getDecodedCharsUsed()), decoded);
+                }
+                self.clearDecoded();
+                return self.isReadTranslate() ? translateNewlines(decoded) : decoded;
+            }
+            String result = "";
+            boolean eof = false;
+            while (true) {
+                result = concat(result, takeChars(self, size - PString.length(result), eof));
+                if (PString.length(result) >= size || eof && self.getDecodedCharsAvailable() == 0) {
+                    return result;
+                }
+                eof = !readChunkNode.execute(frame, self);
+            }
+        }
+    }
+
+    @Builtin(name = "readline", minNumOfPositionalArgs = 1, parameterNames = {"$self", "size"})
+    @GenerateNodeFactory
+    public abstract static class ReadlineNode extends PythonBinaryBuiltinNode {
+
+        public abstract String executeWith(VirtualFrame frame, PTextIO self, Object size);
+
+        @Specialization
+        String readline(VirtualFrame frame, PTextIO self, Object sizeObj,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib,
+                        @Cached TextIsClosedNode isClosedNode,
+                        @Cached RaiseUnsupportedOperationNode raiseUnsupportedNode,
+                        @Cached ReadChunkNode readChunkNode) {
+            checkClosed(frame, this, self, isClosedNode);
+            checkReadable(frame, self, raiseUnsupportedNode);
+            int limit = PGuards.isPNone(sizeObj) ? -1 : lib.asSizeWithState(sizeObj, PArguments.getThreadState(frame));
+            boolean eof = false;
+            while (true) {
+                String text = self.getDecodedChars();
+                int start = self.getDecodedCharsUsed();
+                int len = PString.length(text);
+                int end = findLineEnd(self, text, start, eof);
+                if (end < 0 && eof) {
+                    end = len;
+                }
+                if (end < 0 && limit >= 0 && len - start >= limit) {
+                    end = start + limit;
+                }
+                if (end < 0) {
+                    eof = !readChunkNode.execute(frame, self);
+                    continue;
+                }
+                if (limit >= 0 && end - start > limit) {
+                    end = start + limit;
+                }
+                self.setDecodedCharsUsed(end);
+                String line = PString.substring(text, start, end);
+                return self.isReadTranslate() && self.isDecodedHasCR() ? translateNewlines(line) : line;
+            }
+        }
+
+        public static ReadlineNode create() {
+            return TextIOWrapperBuiltinsFactory.ReadlineNodeFactory.create();
+        }
+    }
+
+    @Builtin(name = "readlines", minNumOfPositionalArgs = 1, parameterNames = {"$self", "hint"})
+    @GenerateNodeFactory
+    abstract static class ReadlinesNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object readlines(VirtualFrame frame, PTextIO self, Object hint,
+                        @Cached TextIsClosedNode isClosedNode,
+                        @Cached ReadLinesNode readLinesNode) {
+            checkClosed(frame, this, self, isClosedNode);
+            return readLinesNode.execute(frame, self, hint);
+        }
+    }
+
+    @Builtin(name = "write", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class WriteNode extends PythonBinaryBuiltinNode {
+        protected static final String WRITE = "write";
+        protected static final String FLUSH = "flush";
+
+        @Specialization
+        int write(VirtualFrame frame, PTextIO self, Object textObj,
+                        @Cached CastToJavaStringNode castToStringNode,
+                        @Cached TextIsClosedNode isClosedNode,
+                        @Cached RaiseUnsupportedOperationNode raiseUnsupportedNode,
+                        @Cached FlushWriteBufferNode flushWriteBufferNode,
+                        @Cached RawWriteNode rawWriteNode,
+                        @Cached("createBinaryProfile()") ConditionProfile fitsProfile,
+                        @Cached PRaiseNode raiseNode,
+                        @Cached("create(WRITE)") CallIOMethodNode callWriteNode,
+                        @Cached BufferedIOBuiltins.FlushNode flushNode,
+                        @Cached("create(FLUSH)") CallIOMethodNode callFlushNode) {
+            checkClosed(frame, this, self, isClosedNode);
+            checkWritable(frame, self, raiseUnsupportedNode);
+            String text = castToStringNode.execute(textObj);
+            if (text == null) {
+                throw raise(TypeError, "write() argument must be str, not %p", textObj);
+            }
+            boolean hasLF = (self.getWriteNewline() != null || self.isLineBuffering()) && PString.indexOf(text, "\n", 0) >= 0;
+            boolean needFlush = self.isLineBuffering() && (hasLF || PString.indexOf(text, "\r", 0) >= 0);
+            String toWrite = hasLF && self.getWriteNewline() != null ? replaceNewlines(text, self.getWriteNewline()) : text;
+            byte[] bytes;
+            try {
+                bytes = encode(self, toWrite);
+            } catch (CharacterCodingException e) {
+                throw raise(UnicodeEncodeError, e);
+            }
+            if (self.getDecodedCharsAvailable() > 0 || self.getPendingBytes() != null) {
+                self.clearDecoded();
+            }
+            PBuffered writer = self.getJavaWriter();
+            if (writer != null) {
+                BufferedWriterBuiltins.write(frame, writer, bytes, bytes.length, flushWriteBufferNode, rawWriteNode, fitsProfile, raiseNode);
+            } else {
+                callWriteNode.execute(frame, self.getBuffer(), factory().createBytes(bytes));
+            }
+            if (needFlush) {
+                flushBuffer(frame, self, flushNode, callFlushNode);
+            }
+            return PString.length(text);
+        }
+
+        @TruffleBoundary
+        private static String replaceNewlines(String text, String newline) {
+            return text.replace("\n", newline);
+        }
+    }
+
+    @Builtin(name = "writelines", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class WritelinesNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone writelines(VirtualFrame frame, PTextIO self, Object lines,
+                        @Cached TextIsClosedNode isClosedNode,
+                        @Cached WriteLinesNode writeLinesNode) {
+            checkClosed(frame, this, self, isClosedNode);
+            writeLinesNode.execute(frame, self, lines);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "flush", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class FlushNode extends PythonUnaryBuiltinNode {
+        protected static final String FLUSH = "flush";
+
+        @Specialization
+        Object flush(VirtualFrame frame, PTextIO self,
+                        @Cached TextIsClosedNode isClosedNode,
+                        @Cached BufferedIOBuiltins.FlushNode flushNode,
+                        @Cached("create(FLUSH)") CallIOMethodNode callFlushNode) {
+            checkClosed(frame, this, self, isClosedNode);
+            flushBuffer(frame, self, flushNode, callFlushNode);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "close", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class CloseNode extends PythonUnaryBuiltinNode {
+        protected static final String FLUSH = "flush";
+        protected static final String CLOSE = "close";
+
+        @Specialization
+        Object close(VirtualFrame frame, PTextIO self,
+                        @Cached TextIsClosedNode isClosedNode,
+                        @Cached BufferedIOBuiltins.FlushNode flushNode,
+                        @Cached("create(FLUSH)") CallIOMethodNode callFlushNode,
+                        @Cached("create(CLOSE)") CallIOMethodNode callCloseNode) {
+            checkInitialized(this, self);
+            if (isClosedNode.execute(frame, self)) {
+                return PNone.NONE;
+            }
+            try {
+                flushBuffer(frame, self, flushNode, callFlushNode);
+            } catch (PException e) {
+                // the buffer is closed even if flushing fails
+                callCloseNode.execute(frame, self.getBuffer());
+                throw e;
+            }
+            return callCloseNode.execute(frame, self.getBuffer());
+        }
+    }
+
+    @Builtin(name = "closed", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ClosedNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean closed(VirtualFrame frame, PTextIO self,
+                        @Cached TextIsClosedNode isClosedNode) {
+            checkInitialized(this, self);
+            return isClosedNode.execute(frame, self);
+        }
+    }
+
+    @Builtin(name = "detach", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class DetachNode extends PythonUnaryBuiltinNode {
+        protected static final String FLUSH = "flush";
+
+        @Specialization
+        Object detach(VirtualFrame frame, PTextIO self,
+                        @Cached BufferedIOBuiltins.FlushNode flushNode,
+                        @Cached("create(FLUSH)") CallIOMethodNode callFlushNode) {
+            checkInitialized(this, self);
+            flushBuffer(frame, self, flushNode, callFlushNode);
+            Object buffer = self.getBuffer();
+            self.detach();
+            return buffer;
+        }
+    }
+
+    @Builtin(name = "tell", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class TellNode extends PythonUnaryBuiltinNode {
+        protected static final String FLUSH = "flush";
+        protected static final String TELL = "tell";
+
+        public abstract long execute(VirtualFrame frame, PTextIO self);
+
+        @Specialization
+        long tell(VirtualFrame frame, PTextIO self,
+                        @Cached TextIsClosedNode isClosedNode,
+                        @Cached RaiseUnsupportedOperationNode raiseUnsupportedNode,
+                        @Cached BufferedIOBuiltins.FlushNode flushNode,
+                        @Cached("create(FLUSH)") CallIOMethodNode callFlushNode,
+                        @Cached BufferedIOBuiltins.TellNode bufferTellNode,
+                        @Cached("create(TELL)") CallIOMethodNode callTellNode,
+                        @Cached CastToJavaLongNode castToLongNode,
+                        @Cached PRaiseNode raiseNode) {
+            checkClosed(frame, this, self, isClosedNode);
+            if (!self.isSeekable()) {
+                throw raiseUnsupportedNode.raise(frame, "underlying stream is not seekable");
+            }
+            flushBuffer(frame, self, flushNode, callFlushNode);
+            PBuffered javaBuffer = self.getJavaBuffer();
+            long pos;
+            if (javaBuffer != null) {
+                pos = bufferTellNode.execute(frame, javaBuffer);
+            } else {
+                pos = IONodes.castToLong(castToLongNode, raiseNode, callTellNode.execute(frame, self.getBuffer()));
+            }
+            // the buffer is ahead of us by the bytes we have read but not yet handed out
+            byte[] pending = self.getPendingBytes();
+            if (pending != null) {
+                pos -= pending.length;
+            }
+            if (self.getDecodedCharsAvailable() > 0) {
+                pos -= encodedLength(self, PString.substring(self.getDecodedChars(), self.getDecodedCharsUsed()));
+            }
+            return pos;
+        }
+
+        public static TellNode create() {
+            return TextIOWrapperBuiltinsFactory.TellNodeFactory.create();
+        }
+    }
+
+    @Builtin(name = "seek", minNumOfPositionalArgs = 2, parameterNames = {"$self", "cookie", "whence"})
+    @GenerateNodeFactory
+    abstract static class SeekNode extends PythonTernaryBuiltinNode {
+        protected static final String FLUSH = "flush";
+        protected static final String SEEK = "seek";
+
+        @Specialization
+        Object seek(VirtualFrame frame, PTextIO self, Object cookieObj, Object whenceObj,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib,
+                        @Cached CastToJavaLongNode castToLongNode,
+                        @Cached PRaiseNode raiseNode,
+                        @Cached TextIsClosedNode isClosedNode,
+                        @Cached RaiseUnsupportedOperationNode raiseUnsupportedNode,
+                        @Cached TellNode tellNode,
+                        @Cached BufferedIOBuiltins.FlushNode flushNode,
+                        @Cached("create(FLUSH)") CallIOMethodNode callFlushNode,
+                        @Cached BufferedIOBuiltins.SeekNode bufferSeekNode,
+                        @Cached("create(SEEK)") CallIOMethodNode callSeekNode) {
+            checkClosed(frame, this, self, isClosedNode);
+            if (!self.isSeekable()) {
+                throw raiseUnsupportedNode.raise(frame, "underlying stream is not seekable");
+            }
+            int whence = PGuards.isNoValue(whenceObj) ? PosixModuleBuiltins.SEEK_SET : lib.asSizeWithState(whenceObj, PArguments.getThreadState(frame));
+            long cookie = IONodes.castToLong(castToLongNode, raiseNode, cookieObj);
+            if (whence == PosixModuleBuiltins.SEEK_CUR) {
+                if (cookie != 0) {
+                    throw raiseUnsupportedNode.raise(frame, "can't do nonzero cur-relative seeks");
+                }
+                cookie = tellNode.execute(frame, self);
+            } else if (whence == PosixModuleBuiltins.SEEK_END) {
+                if (cookie != 0) {
+                    throw raiseUnsupportedNode.raise(frame, "can't do nonzero end-relative seeks");
+                }
+                flushBuffer(frame, self, flushNode, callFlushNode);
+                self.clearDecoded();
+                return seekBuffer(frame, self, 0, PosixModuleBuiltins.SEEK_END, bufferSeekNode, callSeekNode);
+            } else if (whence != PosixModuleBuiltins.SEEK_SET) {
+                throw raise(ValueError, "invalid whence (%d, should be 0, 1 or 2)", whence);
+            }
+            if (cookie < 0) {
+                throw raise(ValueError, "negative seek position %d", cookie);
+            }
+            flushBuffer(frame, self, flushNode, callFlushNode);
+            self.clearDecoded();
+            seekBuffer(frame, self, cookie, PosixModuleBuiltins.SEEK_SET, bufferSeekNode, callSeekNode);
+            return cookie;
+        }
+
+        private static Object seekBuffer(VirtualFrame frame, PTextIO self, long pos, int whence, BufferedIOBuiltins.SeekNode bufferSeekNode, CallIOMethodNode callSeekNode) {
+            PBuffered javaBuffer = self.getJavaBuffer();
+            if (javaBuffer != null) {
+                return bufferSeekNode.executeWith(frame, javaBuffer, pos, whence);
+            }
+            return callSeekNode.execute(frame, self.getBuffer(), pos, whence);
+        }
+    }
+
+    @Builtin(name = "truncate", minNumOfPositionalArgs = 1, parameterNames = {"$self", "pos"})
+    @GenerateNodeFactory
+    abstract static class TruncateNode extends PythonBinaryBuiltinNode {
+        protected static final String FLUSH = "flush";
+        protected static final String TRUNCATE = "truncate";
+
+        @Specialization
+        Object truncate(VirtualFrame frame, PTextIO self, Object pos,
+                        @Cached TextIsClosedNode isClosedNode,
+                        @Cached BufferedIOBuiltins.FlushNode flushNode,
+                        @Cached("create(FLUSH)") CallIOMethodNode callFlushNode,
+                        @Cached TellNode tellNode,
+                        @Cached("create(TRUNCATE)") CallIOMethodNode callTruncateNode) {
+            checkClosed(frame, this, self, isClosedNode);
+            flushBuffer(frame, self, flushNode, callFlushNode);
+            Object size = PGuards.isPNone(pos) ? tellNode.execute(frame, self) : pos;
+            return callTruncateNode.execute(frame, self.getBuffer(), size);
+        }
+    }
+
+    @Builtin(name = "fileno", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class FilenoNode extends PythonUnaryBuiltinNode {
+        protected static final String FILENO = "fileno";
+
+        @Specialization
+        Object fileno(VirtualFrame frame, PTextIO self,
+                        @Cached("create(FILENO)") CallIOMethodNode callNode) {
+            checkInitialized(this, self);
+            return callNode.execute(frame, self.getBuffer());
+        }
+    }
+
+    @Builtin(name = "isatty", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IsattyNode extends PythonUnaryBuiltinNode {
+        protected static final String ISATTY = "isatty";
+
+        @Specialization
+        Object isatty(VirtualFrame frame, PTextIO self,
+                        @Cached("create(ISATTY)") CallIOMethodNode callNode) {
+            checkInitialized(this, self);
+            return callNode.execute(frame, self.getBuffer());
+        }
+    }
+
+    @Builtin(name = "readable", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReadableNode extends PythonUnaryBuiltinNode {
+        protected static final String READABLE = "readable";
+
+        @Specialization
+        Object readable(VirtualFrame frame, PTextIO self,
+                        @Cached("create(READABLE)") CallIOMethodNode callNode) {
+            checkInitialized(this, self);
+            return callNode.execute(frame, self.getBuffer());
+        }
+    }
+
+    @Builtin(name = "writable", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class WritableNode extends PythonUnaryBuiltinNode {
+        protected static final String WRITABLE = "writable";
+
+        @Specialization
+        Object writable(VirtualFrame frame, PTextIO self,
+                        @Cached("create(WRITABLE)") CallIOMethodNode callNode) {
+            checkInitialized(this, self);
+            return callNode.execute(frame, self.getBuffer());
+        }
+    }
+
+    @Builtin(name = "seekable", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class SeekableNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean seekable(PTextIO self) {
+            checkInitialized(this, self);
+            return self.isSeekable();
+        }
+    }
+
+    @Builtin(name = "encoding", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class EncodingNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        String encoding(PTextIO self) {
+            checkInitialized(this, self);
+            return self.getEncoding();
+        }
+    }
+
+    @Builtin(name = "errors", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ErrorsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        String errors(PTextIO self) {
+            checkInitialized(this, self);
+            return self.getErrors();
+        }
+    }
+
+    @Builtin(name = "line_buffering", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class LineBufferingNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean lineBuffering(PTextIO self) {
+            checkInitialized(this, self);
+            return self.isLineBuffering();
+        }
+    }
+
+    @Builtin(name = "write_through", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class WriteThroughNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean writeThrough(PTextIO self) {
+            checkInitialized(this, self);
+            return self.isWriteThrough();
+        }
+    }
+
+    @Builtin(name = "buffer", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class BufferNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object buffer(PTextIO self) {
+            checkInitialized(this, self);
+            return self.getBuffer();
+        }
+    }
+
+    @Builtin(name = "newlines", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class NewlinesNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object newlines(PTextIO self) {
+            checkInitialized(this, self);
+            // the kinds of newlines seen so far are not tracked
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "name", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class NameNode extends PythonUnaryBuiltinNode {
+        protected static final String NAME = "name";
+
+        @Specialization
+        Object name(VirtualFrame frame, PTextIO self,
+                        @Cached("create(NAME)") GetFixedAttributeNode getNameNode) {
+            checkInitialized(this, self);
+            return getNameNode.executeObject(frame, self.getBuffer());
+        }
+    }
+
+    @Builtin(name = __ENTER__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class EnterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTextIO enter(VirtualFrame frame, PTextIO self,
+                        @Cached TextIsClosedNode isClosedNode) {
+            checkClosed(frame, this, self, isClosedNode);
+            return self;
+        }
+    }
+
+    @Builtin(name = __EXIT__, minNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class ExitNode extends PythonBuiltinNode {
+        protected static final String CLOSE = "close";
+
+        @Specialization
+        static Object exit(VirtualFrame frame, PTextIO self, @SuppressWarnings("unused") Object typ, @SuppressWarnings("unused") Object val, @SuppressWarnings("unused") Object tb,
+                        @Cached("create(CLOSE)") LookupAndCallUnaryNode callCloseNode) {
+            return callCloseNode.executeObject(frame, self);
+        }
+    }
+
+    @Builtin(name = __ITER__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTextIO iter(VirtualFrame frame, PTextIO self,
+                        @Cached TextIsClosedNode isClosedNode) {
+            checkClosed(frame, this, self, isClosedNode);
+            return self;
+        }
+    }
+
+    @Builtin(name = __NEXT__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class NextNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        String next(VirtualFrame frame, PTextIO self,
+                        @Cached ReadlineNode readlineNode) {
+            String line = readlineNode.executeWith(frame, self, PNone.NO_VALUE);
+            if (PString.length(line) == 0) {
+                throw raise(PythonBuiltinClassType.StopIteration);
+            }
+            return line;
+        }
+    }
+
+    @Builtin(name = __REPR__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReprNode extends PythonUnaryBuiltinNode {
+        protected static final String NAME = "name";
+        protected static final String MODE = "mode";
+
+        @Specialization
+        Object repr(VirtualFrame frame, PTextIO self,
+                        @Cached GetLazyClassNode getClassNode,
+                        @Cached TypeNodes.GetNameNode getTypeNameNode,
+                        @Cached("create(NAME)") GetFixedAttributeNode getNameNode,
+                        @Cached("create(MODE)") GetFixedAttributeNode getModeNode,
+                        @Cached("create(__REPR__)") LookupAndCallUnaryNode reprNode,
+                        @Cached CastToJavaStringNode castToStringNode) {
+            checkInitialized(this, self);
+            LazyPythonClass cls = getClassNode.execute(self);
+            String typeName = getTypeNameNode.execute(cls);
+            if (cls instanceof PythonBuiltinClassType || cls instanceof PythonBuiltinClass) {
+                typeName = concat("_io.", typeName);
+            }
+            String result = concat("<", typeName);
+            Object name = getOptionalAttribute(frame, self, getNameNode);
+            if (name != PNone.NO_VALUE) {
+                result = concat(concat(result, " name="), castToStringNode.execute(reprNode.executeObject(frame, name)));
+            }
+            Object mode = getOptionalAttribute(frame, self, getModeNode);
+            if (mode != PNone.NO_VALUE) {
+                result = concat(concat(result, " mode="), castToStringNode.execute(reprNode.executeObject(frame, mode)));
+            }
+            result = concat(concat(result, " encoding="), castToStringNode.execute(reprNode.executeObject(frame, self.getEncoding())));
+            return concat(result, ">");
+        }
+
+        private static Object getOptionalAttribute(VirtualFrame frame, PTextIO self, GetFixedAttributeNode getAttributeNode) {
+            try {
+                return getAttributeNode.executeObject(frame, self);
+            } catch (PException e) {
+                // CPython also ignores errors (other than a recursive repr) here
+                return PNone.NO_VALUE;
+            }
+        }
+    }
+
+    @Builtin(name = __GETSTATE__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class GetStateNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object getstate(PTextIO self) {
+            throw raise(TypeError, "cannot serialize '%p' object", self);
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, 2018, Oracle and/or its affiliates.
+ * Copyright (c) 2017, 2020, Oracle and/or its affiliates.
  * Copyright (c) 2013, Regents of the University of California
  *
  * All rights reserved.
@@ -53,4 +53,17 @@ public final class PSequenceIterator extends PBuiltinIterator {
     public boolean isPList() {
         return sequence instanceof PList;
     }
+
+    /**
+     * Moves past up to {@code n} items of a sequence of the given length without reading them.
+     * Returns the number of items actually skipped.
+     */
+    public int skip(int n, int length) {
+        if (isExhausted() || index >= length) {
+            return 0;
+        }
+        int skipped = Math.min(n, length - index);
+        index += skipped;
+        return skipped;
+    }
 }
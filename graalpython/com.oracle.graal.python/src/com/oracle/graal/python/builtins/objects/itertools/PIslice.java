@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.itertools;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+
+/**
+ * An {@code itertools.islice} object. {@code count} is the number of items consumed from the
+ * iterator so far and {@code next} the position of the next item to return. A {@code stop} of
+ * {@code -1} means there is no upper bound. The iterator is dropped once the slice is exhausted.
+ */
+public final class PIslice extends PythonBuiltinObject {
+    private Object iterator;
+    private int next;
+    private final int stop;
+    private final int step;
+    private int count;
+
+    public PIslice(LazyPythonClass cls, Object iterator, int start, int stop, int step) {
+        super(cls);
+        this.iterator = iterator;
+        this.next = start;
+        this.stop = stop;
+        this.step = step;
+    }
+
+    public Object getIterator() {
+        return iterator;
+    }
+
+    public void setExhausted() {
+        iterator = null;
+    }
+
+    public int getNext() {
+        return next;
+    }
+
+    public int getStop() {
+        return stop;
+    }
+
+    public int getStep() {
+        return step;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    /**
+     * Records that the item at {@code next} was returned and computes the position of the
+     * following one, taking care not to overflow or to run past {@code stop}.
+     */
+    public void advance() {
+        count++;
+        int oldNext = next;
+        next += step;
+        if (next < oldNext || (stop != -1 && next > stop)) {
+            next = stop;
+        }
+    }
+}
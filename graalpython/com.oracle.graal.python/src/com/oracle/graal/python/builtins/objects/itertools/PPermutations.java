@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.itertools;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+
+/**
+ * An {@code itertools.permutations} object, following the algorithm of CPython: the index and
+ * cycle arrays are allocated once and permuted in place.
+ */
+public final class PPermutations extends PythonBuiltinObject {
+    private final Object[] pool;
+    private final int r;
+    private final int[] indices;
+    private final int[] cycles;
+    private boolean first = true;
+    private boolean stopped;
+
+    public PPermutations(LazyPythonClass cls, Object[] pool, int r) {
+        super(cls);
+        int n = pool.length;
+        this.pool = pool;
+        this.r = r;
+        this.indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+        }
+        this.cycles = new int[r > n ? 0 : r];
+        for (int i = 0; i < cycles.length; i++) {
+            cycles[i] = n - i;
+        }
+        this.stopped = r > n;
+    }
+
+    public Object[] getPool() {
+        return pool;
+    }
+
+    public int getR() {
+        return r;
+    }
+
+    public int[] getIndices() {
+        return indices;
+    }
+
+    public int[] getCycles() {
+        return cycles;
+    }
+
+    public boolean isFirst() {
+        return first;
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Returns the items of the next permutation in a new array, or {@code null} if there are no
+     * more permutations.
+     */
+    public Object[] next() {
+        if (stopped) {
+            return null;
+        }
+        if (first) {
+            first = false;
+            return currentItems();
+        }
+        int n = pool.length;
+        if (n == 0) {
+            stopped = true;
+            return null;
+        }
+        for (int i = r - 1; i >= 0; i--) {
+            cycles[i]--;
+            if (cycles[i] == 0) {
+                // rotate indices[i:] left by one
+                int index = indices[i];
+                System.arraycopy(indices, i + 1, indices, i, n - i - 1);
+                indices[n - 1] = index;
+                cycles[i] = n - i;
+            } else {
+                int j = cycles[i];
+                int index = indices[i];
+                indices[i] = indices[n - j];
+                indices[n - j] = index;
+                return currentItems();
+            }
+        }
+        stopped = true;
+        return null;
+    }
+
+    private Object[] currentItems() {
+        Object[] result = new Object[r];
+        for (int i = 0; i < r; i++) {
+            result[i] = pool[indices[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Restores the state of a started iterator from pickled indices and cycles, clamping them to
+     * valid values.
+     */
+    public void setState(int[] newIndices, int[] newCycles) {
+        int n = pool.length;
+        for (int i = 0; i < n; i++) {
+            indices[i] = Math.min(Math.max(newIndices[i], 0), n - 1);
+        }
+        for (int i = 0; i < r; i++) {
+            cycles[i] = Math.min(Math.max(newCycles[i], 1), n - i);
+        }
+        first = false;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.itertools;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+
+/**
+ * An {@code itertools.product} object. The pools are materialized once, and the odometer state is
+ * an index array plus the items of the last result, both updated in place.
+ */
+public final class PProduct extends PythonBuiltinObject {
+    private final Object[][] gears;
+    private final int[] indices;
+    private Object[] lst;
+    private boolean stopped;
+
+    public PProduct(LazyPythonClass cls, Object[][] gears) {
+        super(cls);
+        this.gears = gears;
+        this.indices = new int[gears.length];
+        for (Object[] gear : gears) {
+            if (gear.length == 0) {
+                stopped = true;
+                break;
+            }
+        }
+    }
+
+    public Object[][] getGears() {
+        return gears;
+    }
+
+    public int[] getIndices() {
+        return indices;
+    }
+
+    public boolean isStarted() {
+        return lst != null;
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Advances the odometer and returns the items of the next result, or {@code null} if the
+     * product is exhausted. The returned array is reused by the next call.
+     */
+    public Object[] next() {
+        if (stopped) {
+            return null;
+        }
+        if (lst == null) {
+            lst = new Object[gears.length];
+            for (int i = 0; i < gears.length; i++) {
+                lst[i] = gears[i][0];
+            }
+            return lst;
+        }
+        for (int i = gears.length - 1; i >= 0; i--) {
+            Object[] gear = gears[i];
+            int index = indices[i] + 1;
+            if (index < gear.length) {
+                indices[i] = index;
+                lst[i] = gear[index];
+                return lst;
+            }
+            // carry over to the gear on the left
+            indices[i] = 0;
+            lst[i] = gear[0];
+        }
+        stopped = true;
+        lst = null;
+        return null;
+    }
+
+    /**
+     * Restores the odometer from pickled indices, clamping them to the pool sizes.
+     */
+    public void setState(int[] newIndices) {
+        if (stopped) {
+            return;
+        }
+        lst = new Object[gears.length];
+        for (int i = 0; i < gears.length; i++) {
+            int index = Math.min(Math.max(newIndices[i], 0), gears[i].length - 1);
+            indices[i] = index;
+            lst[i] = gears[i][index];
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.itertools;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REDUCE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETSTATE__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.StopIteration;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.SequenceNodes.GetObjectArrayNode;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetLazyClassNode;
+import com.oracle.graal.python.nodes.util.CastToJavaIntNode;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PPermutations)
+public class PermutationsBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return PermutationsBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = __NEXT__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class NextNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTuple next(PPermutations self) {
+            Object[] items = self.next();
+            if (items == null) {
+                throw raise(StopIteration);
+            }
+            return factory().createTuple(items);
+        }
+    }
+
+    @Builtin(name = __ITER__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class IterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object iter(PPermutations self) {
+            return self;
+        }
+    }
+
+    @Builtin(name = __REDUCE__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ReduceNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTuple reduce(PPermutations self,
+                        @Cached GetLazyClassNode getClassNode) {
+            Object type = getClassNode.execute(self);
+            if (self.isFirst()) {
+                return factory().createTuple(new Object[]{type, factory().createTuple(new Object[]{factory().createTuple(self.getPool()), self.getR()})});
+            } else if (self.isStopped()) {
+                return factory().createTuple(new Object[]{type, factory().createTuple(new Object[]{factory().createEmptyTuple(), self.getR()})});
+            }
+            PTuple arguments = factory().createTuple(new Object[]{factory().createTuple(self.getPool()), self.getR()});
+            PTuple state = factory().createTuple(new Object[]{toTuple(self.getIndices()), toTuple(self.getCycles())});
+            return factory().createTuple(new Object[]{type, arguments, state});
+        }
+
+        private PTuple toTuple(int[] values) {
+            Object[] items = new Object[values.length];
+            for (int i = 0; i < values.length; i++) {
+                items[i] = values[i];
+            }
+            return factory().createTuple(items);
+        }
+    }
+
+    @Builtin(name = __SETSTATE__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class SetStateNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone setState(PPermutations self, PTuple state,
+                        @Cached GetObjectArrayNode getStateItemsNode,
+                        @Cached GetObjectArrayNode getIndicesNode,
+                        @Cached CastToJavaIntNode castToIntNode) {
+            Object[] items = getStateItemsNode.execute(state);
+            if (items.length != 2 || !(items[0] instanceof PTuple) || !(items[1] instanceof PTuple)) {
+                throw raise(ValueError, "invalid arguments");
+            }
+            Object[] indices = getIndicesNode.execute(items[0]);
+            Object[] cycles = getIndicesNode.execute(items[1]);
+            if (indices.length != self.getPool().length || cycles.length != self.getR()) {
+                throw raise(ValueError, "invalid arguments");
+            }
+            self.setState(toIntArray(indices, castToIntNode), toIntArray(cycles, castToIntNode));
+            return PNone.NONE;
+        }
+
+        private static int[] toIntArray(Object[] items, CastToJavaIntNode castToIntNode) {
+            int[] result = new int[items.length];
+            for (int i = 0; i < items.length; i++) {
+                result[i] = castToIntNode.execute(items[i]);
+            }
+            return result;
+        }
+
+        @Specialization(guards = "!isPTuple(state)")
+        PNone setState(@SuppressWarnings("unused") PPermutations self, @SuppressWarnings("unused") Object state) {
+            throw raise(TypeError, "state is not a tuple");
+        }
+    }
+}
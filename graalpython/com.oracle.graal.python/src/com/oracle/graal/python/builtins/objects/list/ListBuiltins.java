@@ -49,6 +49,7 @@ import static com.oracle.graal.python.runtime.exception.PythonErrorType.MemoryEr
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
 
 import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
@@ -81,9 +82,12 @@ import com.oracle.graal.python.nodes.argument.ReadArgumentNode;
 import com.oracle.graal.python.nodes.builtins.ListNodes;
 import com.oracle.graal.python.nodes.builtins.ListNodes.AppendNode;
 import com.oracle.graal.python.nodes.builtins.ListNodes.IndexNode;
+import com.oracle.graal.python.nodes.call.CallNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.control.GetIteratorExpressionNode.GetIteratorNode;
 import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
+import com.oracle.graal.python.nodes.expression.CoerceToBooleanNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
@@ -103,8 +107,10 @@ import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorageFactory;
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.ImportStatic;
@@ -112,6 +118,7 @@ import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.dsl.TypeSystemReference;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 
 @CoreFunctions(extendClasses = PythonBuiltinClassType.PList)
@@ -492,6 +499,10 @@ public class ListBuiltins extends PythonBuiltins {
         }
 
         protected ListInsertNode createListInsertNode() {
+            return create();
+        }
+
+        public static ListInsertNode create() {
             return ListBuiltinsFactory.ListInsertNodeFactory.create(new ReadArgumentNode[0]);
         }
 
@@ -791,6 +802,283 @@ public class ListBuiltins extends PythonBuiltins {
         }
     }
 
+    // list.sort(*, key=None, reverse=False)
+    @Builtin(name = "sort", minNumOfPositionalArgs = 1, parameterNames = {"$self"}, keywordOnlyNames = {"key", "reverse"})
+    @GenerateNodeFactory
+    public abstract static class ListSortNode extends PythonTernaryBuiltinNode {
+
+        private static final String LIST_MODIFIED_DURING_SORT = "list modified during sort";
+
+        /**
+         * Runs up to this length are sorted with a binary insertion sort before they are merged.
+         */
+        private static final int MIN_RUN = 32;
+
+        @Child private BinaryComparisonNode ltNode;
+        @Child private CoerceToBooleanNode castToBooleanNode;
+
+        @CompilationFinal private boolean seenNonBoolean = false;
+
+        public abstract PNone execute(VirtualFrame frame, PList list, Object key, Object reverse);
+
+        @Specialization(guards = "isIntStorage(list)")
+        PNone sortInt(PList list, @SuppressWarnings("unused") PNone key, Object reverse,
+                        @Shared("lib") @CachedLibrary(limit = "2") PythonObjectLibrary lib) {
+            IntSequenceStorage storage = (IntSequenceStorage) list.getSequenceStorage();
+            sortInts(storage.getInternalIntArray(), storage.length());
+            if (isReverse(reverse, lib)) {
+                storage.reverse();
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "isLongStorage(list)")
+        PNone sortLong(PList list, @SuppressWarnings("unused") PNone key, Object reverse,
+                        @Shared("lib") @CachedLibrary(limit = "2") PythonObjectLibrary lib) {
+            LongSequenceStorage storage = (LongSequenceStorage) list.getSequenceStorage();
+            sortLongs(storage.getInternalLongArray(), storage.length());
+            if (isReverse(reverse, lib)) {
+                storage.reverse();
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = {"isDoubleStorage(list)", "isTotallyOrdered(list)"})
+        PNone sortDouble(PList list, @SuppressWarnings("unused") PNone key, Object reverse,
+                        @Shared("lib") @CachedLibrary(limit = "2") PythonObjectLibrary lib) {
+            DoubleSequenceStorage storage = (DoubleSequenceStorage) list.getSequenceStorage();
+            sortDoubles(storage.getInternalDoubleArray(), storage.length());
+            if (isReverse(reverse, lib)) {
+                storage.reverse();
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization
+        PNone sortGeneric(VirtualFrame frame, PList list, Object key, Object reverse,
+                        @Shared("lib") @CachedLibrary(limit = "2") PythonObjectLibrary lib,
+                        @Cached SequenceStorageNodes.ToArrayNode toArrayNode,
+                        @Cached SequenceStorageNodes.LenNode lenNode,
+                        @Cached CallNode keyCall,
+                        @Cached("createBinaryProfile()") ConditionProfile hasKeyProfile) {
+            SequenceStorage storage = list.getSequenceStorage();
+            int len = lenNode.execute(storage);
+            if (len == 0) {
+                return PNone.NONE;
+            }
+            boolean isReverse = isReverse(reverse, lib);
+            Object[] values = toArrayNode.execute(storage);
+
+            // like CPython, the list appears empty while it is sorted so that any modification
+            // through a key function or comparison can be detected afterwards
+            list.setSequenceStorage(EmptySequenceStorage.INSTANCE);
+            try {
+                Object[] keys = values;
+                if (hasKeyProfile.profile(!PGuards.isPNone(key))) {
+                    // decorate: compute each key exactly once
+                    keys = new Object[len];
+                    for (int i = 0; i < len; i++) {
+                        keys[i] = keyCall.execute(frame, key, values[i]);
+                    }
+                }
+                // reversing before and after the sort keeps equal elements in original order
+                if (isReverse) {
+                    reverseArrays(keys, values, len);
+                }
+                mergeSort(frame, keys, keys != values ? values : null, len);
+                if (isReverse) {
+                    reverseArrays(keys, values, len);
+                }
+            } catch (PException e) {
+                list.setSequenceStorage(SequenceStorageFactory.createStorage(values));
+                throw e;
+            }
+            SequenceStorage current = list.getSequenceStorage();
+            list.setSequenceStorage(SequenceStorageFactory.createStorage(values));
+            if (current != EmptySequenceStorage.INSTANCE) {
+                throw raise(PythonErrorType.ValueError, LIST_MODIFIED_DURING_SORT);
+            }
+            return PNone.NONE;
+        }
+
+        private static boolean isReverse(Object reverse, PythonObjectLibrary lib) {
+            return !PGuards.isNoValue(reverse) && lib.isTrue(reverse);
+        }
+
+        /**
+         * {@link Arrays#sort(double[])} orders {@code -0.0} before {@code 0.0} and places NaNs at
+         * the end, while Python's {@code <} considers the zeros equal and NaNs unordered. Only use
+         * the primitive sort if neither can make a difference.
+         */
+        protected static boolean isTotallyOrdered(PList list) {
+            DoubleSequenceStorage storage = (DoubleSequenceStorage) list.getSequenceStorage();
+            double[] values = storage.getInternalDoubleArray();
+            for (int i = 0; i < storage.length(); i++) {
+                double v = values[i];
+                if (Double.isNaN(v) || Double.doubleToRawLongBits(v) == Double.doubleToRawLongBits(-0.0)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @TruffleBoundary
+        private static void sortInts(int[] values, int len) {
+            Arrays.sort(values, 0, len);
+        }
+
+        @TruffleBoundary
+        private static void sortLongs(long[] values, int len) {
+            Arrays.sort(values, 0, len);
+        }
+
+        @TruffleBoundary
+        private static void sortDoubles(double[] values, int len) {
+            Arrays.sort(values, 0, len);
+        }
+
+        private static void reverseArrays(Object[] keys, Object[] values, int len) {
+            reverseArray(keys, len);
+            if (keys != values) {
+                reverseArray(values, len);
+            }
+        }
+
+        private static void reverseArray(Object[] array, int len) {
+            for (int head = 0, tail = len - 1; head < tail; head++, tail--) {
+                Object tmp = array[head];
+                array[head] = array[tail];
+                array[tail] = tmp;
+            }
+        }
+
+        /**
+         * Stable bottom-up merge sort of {@code keys}. If {@code values} is not {@code null}, it is
+         * permuted in the same way as {@code keys}. Only {@code <} is ever used to compare keys and
+         * inconsistent comparison results are tolerated. If a comparison raises, {@code keys} and
+         * {@code values} are left as a permutation of their original contents.
+         */
+        private void mergeSort(VirtualFrame frame, Object[] keys, Object[] values, int len) {
+            for (int lo = 0; lo < len; lo += MIN_RUN) {
+                binaryInsertionSort(frame, keys, values, lo, Math.min(lo + MIN_RUN, len));
+            }
+            if (len <= MIN_RUN) {
+                return;
+            }
+            Object[] srcKeys = keys;
+            Object[] srcValues = values;
+            Object[] dstKeys = new Object[len];
+            Object[] dstValues = values != null ? new Object[len] : null;
+            try {
+                for (long width = MIN_RUN; width < len; width *= 2) {
+                    for (long lo = 0; lo < len; lo += 2 * width) {
+                        int mid = (int) Math.min(lo + width, len);
+                        int hi = (int) Math.min(lo + 2 * width, len);
+                        merge(frame, srcKeys, srcValues, dstKeys, dstValues, (int) lo, mid, hi);
+                    }
+                    Object[] tmp = srcKeys;
+                    srcKeys = dstKeys;
+                    dstKeys = tmp;
+                    tmp = srcValues;
+                    srcValues = dstValues;
+                    dstValues = tmp;
+                }
+            } finally {
+                // the source of the last pass is complete, while the destination of an aborted
+                // pass may be only partly written
+                if (srcKeys != keys) {
+                    System.arraycopy(srcKeys, 0, keys, 0, len);
+                    if (values != null) {
+                        System.arraycopy(srcValues, 0, values, 0, len);
+                    }
+                }
+            }
+        }
+
+        private void binaryInsertionSort(VirtualFrame frame, Object[] keys, Object[] values, int lo, int hi) {
+            for (int start = lo + 1; start < hi; start++) {
+                Object pivot = keys[start];
+                int left = lo;
+                int right = start;
+                while (left < right) {
+                    int mid = (left + right) >>> 1;
+                    if (lessThan(frame, pivot, keys[mid])) {
+                        right = mid;
+                    } else {
+                        left = mid + 1;
+                    }
+                }
+                if (left < start) {
+                    System.arraycopy(keys, left, keys, left + 1, start - left);
+                    keys[left] = pivot;
+                    if (values != null) {
+                        Object pivotValue = values[start];
+                        System.arraycopy(values, left, values, left + 1, start - left);
+                        values[left] = pivotValue;
+                    }
+                }
+            }
+        }
+
+        private void merge(VirtualFrame frame, Object[] srcKeys, Object[] srcValues, Object[] dstKeys, Object[] dstValues, int lo, int mid, int hi) {
+            if (mid >= hi || !lessThan(frame, srcKeys[mid], srcKeys[mid - 1])) {
+                // the two runs are already in order
+                System.arraycopy(srcKeys, lo, dstKeys, lo, hi - lo);
+                if (srcValues != null) {
+                    System.arraycopy(srcValues, lo, dstValues, lo, hi - lo);
+                }
+                return;
+            }
+            int i = lo;
+            int j = mid;
+            int k = lo;
+            while (i < mid && j < hi) {
+                int from = lessThan(frame, srcKeys[j], srcKeys[i]) ? j++ : i++;
+                dstKeys[k] = srcKeys[from];
+                if (srcValues != null) {
+                    dstValues[k] = srcValues[from];
+                }
+                k++;
+            }
+            if (i < mid) {
+                System.arraycopy(srcKeys, i, dstKeys, k, mid - i);
+                if (srcValues != null) {
+                    System.arraycopy(srcValues, i, dstValues, k, mid - i);
+                }
+            } else if (j < hi) {
+                System.arraycopy(srcKeys, j, dstKeys, k, hi - j);
+                if (srcValues != null) {
+                    System.arraycopy(srcValues, j, dstValues, k, hi - j);
+                }
+            }
+        }
+
+        private boolean lessThan(VirtualFrame frame, Object left, Object right) {
+            if (ltNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                ltNode = insert(BinaryComparisonNode.create(__LT__, __GT__, "<"));
+            }
+            if (!seenNonBoolean) {
+                try {
+                    return ltNode.executeBool(frame, left, right);
+                } catch (UnexpectedResultException e) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    seenNonBoolean = true;
+                    return getCastToBooleanNode().executeBoolean(frame, e.getResult());
+                }
+            }
+            return getCastToBooleanNode().executeBoolean(frame, ltNode.executeWith(frame, left, right));
+        }
+
+        private CoerceToBooleanNode getCastToBooleanNode() {
+            if (castToBooleanNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castToBooleanNode = insert(CoerceToBooleanNode.createIfTrueNode());
+            }
+            return castToBooleanNode;
+        }
+    }
+
     @Builtin(name = __LEN__, minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     public abstract static class LenNode extends PythonUnaryBuiltinNode {
@@ -59,8 +59,6 @@ import static com.oracle.graal.python.nodes.SpecialMethodNames.__STR__;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.channels.Channel;
-import java.nio.channels.SeekableByteChannel;
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
@@ -68,23 +66,17 @@ import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
-import com.oracle.graal.python.builtins.objects.bytes.BytesBuiltins.BytesLikeNoGeneralizationNode;
 import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
 import com.oracle.graal.python.builtins.objects.bytes.PBytes;
 import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
 import com.oracle.graal.python.builtins.objects.common.SequenceNodes;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
-import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
 import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
-import com.oracle.graal.python.builtins.objects.mmap.MMapBuiltinsFactory.InternalLenNodeGen;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
 import com.oracle.graal.python.builtins.objects.slice.PSlice;
 import com.oracle.graal.python.builtins.objects.slice.PSlice.SliceInfo;
-import com.oracle.graal.python.nodes.PNodeWithContext;
-import com.oracle.graal.python.nodes.PRaiseNode;
-import com.oracle.graal.python.nodes.PRaiseOSErrorNode;
 import com.oracle.graal.python.nodes.SpecialMethodNames;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
@@ -93,21 +85,12 @@ import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
 import com.oracle.graal.python.nodes.util.CastToByteNode;
-import com.oracle.graal.python.nodes.util.ChannelNodes;
-import com.oracle.graal.python.nodes.util.ChannelNodes.ReadByteFromChannelNode;
-import com.oracle.graal.python.nodes.util.ChannelNodes.ReadFromChannelNode;
-import com.oracle.graal.python.nodes.util.ChannelNodes.WriteByteToChannelNode;
-import com.oracle.graal.python.nodes.util.ChannelNodes.WriteToChannelNode;
 import com.oracle.graal.python.nodes.util.CoerceToJavaLongNode;
-import com.oracle.graal.python.runtime.exception.PythonErrorType;
-import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
-import com.oracle.truffle.api.CompilerDirectives;
-import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Cached.Shared;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
-import com.oracle.truffle.api.dsl.GenerateUncached;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.dsl.TypeSystemReference;
@@ -120,53 +103,23 @@ import com.oracle.truffle.api.profiles.ConditionProfile;
 public class MMapBuiltins extends PythonBuiltins {
 
     protected interface MMapBaseNode {
-    }
-
-    protected interface ByteReadingNode extends MMapBaseNode {
-
-        default ReadByteFromChannelNode createValueError(PRaiseNode raise) {
-            return ReadByteFromChannelNode.create(() -> new ChannelNodes.ReadByteErrorHandler() {
-
-                @Override
-                public int execute(Channel channel) {
-                    throw raise.raise(PythonBuiltinClassType.ValueError, "read byte out of range");
-                }
-            });
-        }
-
-        default ReadByteFromChannelNode createIndexError(PRaiseNode raise) {
-            return ReadByteFromChannelNode.create(() -> new ChannelNodes.ReadByteErrorHandler() {
-
-                @Override
-                public int execute(Channel channel) {
-                    throw raise.raise(PythonBuiltinClassType.IndexError, "mmap index out of range");
-                }
-            });
 
-        }
-    }
-
-    protected interface ByteWritingNode extends MMapBaseNode {
+        PException raise(PythonBuiltinClassType type, String format, Object... arguments);
 
-        default WriteByteToChannelNode createValueError(PRaiseNode raise) {
-            return WriteByteToChannelNode.create(() -> new ChannelNodes.WriteByteErrorHandler() {
-
-                @Override
-                public void execute(Channel channel, byte b) {
-                    throw raise.raise(PythonBuiltinClassType.ValueError, "write byte out of range");
-                }
-            });
+        default ByteBuffer getBuffer(PMMap self) {
+            ByteBuffer buffer = self.getBuffer();
+            if (buffer == null) {
+                throw raise(PythonBuiltinClassType.ValueError, "mmap closed or invalid");
+            }
+            return buffer;
         }
 
-        default WriteByteToChannelNode createIndexError(PRaiseNode raise) {
-            return WriteByteToChannelNode.create(() -> new ChannelNodes.WriteByteErrorHandler() {
-
-                @Override
-                public void execute(Channel channel, byte b) {
-                    throw raise.raise(PythonBuiltinClassType.IndexError, "mmap index out of range");
-                }
-            });
-
+        default ByteBuffer getWritableBuffer(PMMap self) {
+            ByteBuffer buffer = getBuffer(self);
+            if (buffer.isReadOnly()) {
+                throw raise(PythonBuiltinClassType.TypeError, "mmap can't modify a readonly memory map.");
+            }
+            return buffer;
         }
     }
 
@@ -237,7 +190,7 @@ public class MMapBuiltins extends PythonBuiltins {
 
     @Builtin(name = __GETITEM__, minNumOfPositionalArgs = 2)
     @GenerateNodeFactory
-    public abstract static class GetItemNode extends PythonBuiltinNode implements ByteReadingNode {
+    public abstract static class GetItemNode extends PythonBuiltinNode implements MMapBaseNode {
 
         public abstract Object executeObject(VirtualFrame frame, PMMap self, Object idxObj);
 
@@ -247,55 +200,32 @@ public class MMapBuiltins extends PythonBuiltins {
 
         @Specialization(guards = "!isPSlice(idxObj)")
         int doSingle(PMMap self, Object idxObj,
-                        @SuppressWarnings("unused") @Cached PRaiseNode raise,
-                        @Cached("createIndexError(raise)") ReadByteFromChannelNode readByteNode,
                         @Cached("create()") CoerceToJavaLongNode castToLongNode,
-                        @Cached("create()") InternalLenNode lenNode) {
-
-            try {
-                long i = castToLongNode.execute(idxObj);
-                long len = lenNode.execute(self);
-                SeekableByteChannel channel = self.getChannel();
-                long idx = i < 0 ? i + len : i;
-
-                // save current position
-                long oldPos = PMMap.position(channel);
-
-                PMMap.position(channel, idx);
-                int res = readByteNode.execute(channel) & 0xFF;
-
-                // restore position
-                PMMap.position(channel, oldPos);
-
-                return res;
-
-            } catch (IOException e) {
-                throw raise(PythonBuiltinClassType.OSError, e);
+                        @Cached("createBinaryProfile()") ConditionProfile outOfRangeProfile) {
+            ByteBuffer buffer = getBuffer(self);
+            long i = castToLongNode.execute(idxObj);
+            long len = self.getLength();
+            long idx = i < 0 ? i + len : i;
+            if (outOfRangeProfile.profile(idx < 0 || idx >= len)) {
+                throw raise(PythonBuiltinClassType.IndexError, "mmap index out of range");
             }
+            return PMMap.getByte(buffer, (int) idx) & 0xFF;
         }
 
         @Specialization
         Object doSlice(PMMap self, PSlice idx,
-                        @Cached("create()") ReadFromChannelNode readNode,
-                        @Cached("create()") InternalLenNode lenNode) {
-            try {
-                long len = lenNode.execute(self);
-                SliceInfo info = idx.computeIndices(PInt.intValueExact(len));
-                SeekableByteChannel channel = self.getChannel();
-
-                // save current position
-                long oldPos = PMMap.position(channel);
-
-                PMMap.position(channel, info.start);
-                ByteSequenceStorage s = readNode.execute(channel, info.length);
-
-                // restore position
-                PMMap.position(channel, oldPos);
-
-                return factory().createBytes(s);
-            } catch (IOException e) {
-                throw raise(PythonBuiltinClassType.OSError, e);
+                        @Cached("createBinaryProfile()") ConditionProfile stepOneProfile) {
+            ByteBuffer buffer = getBuffer(self);
+            SliceInfo info = idx.computeIndices((int) self.getLength());
+            byte[] result = new byte[Math.max(info.length, 0)];
+            if (stepOneProfile.profile(info.step == 1)) {
+                PMMap.getBytes(buffer, info.start, result, 0, result.length);
+            } else {
+                for (int i = 0, j = info.start; i < result.length; i++, j += info.step) {
+                    result[i] = PMMap.getByte(buffer, j);
+                }
             }
+            return factory().createBytes(result);
         }
 
         public static GetItemNode create() {
@@ -305,73 +235,45 @@ public class MMapBuiltins extends PythonBuiltins {
 
     @Builtin(name = SpecialMethodNames.__SETITEM__, minNumOfPositionalArgs = 3)
     @GenerateNodeFactory
-    abstract static class SetItemNode extends PythonBuiltinNode implements ByteWritingNode {
+    abstract static class SetItemNode extends PythonBuiltinNode implements MMapBaseNode {
 
         @Specialization(guards = "!isPSlice(idxObj)")
         PNone doSingle(VirtualFrame frame, PMMap self, Object idxObj, Object val,
-                        @SuppressWarnings("unused") @Cached PRaiseNode raise,
-                        @Cached("createIndexError(raise)") WriteByteToChannelNode writeByteNode,
                         @Cached("create()") CoerceToJavaLongNode castToLongNode,
                         @Cached("createCoerce()") CastToByteNode castToByteNode,
-                        @Cached("create()") InternalLenNode lenNode,
                         @Cached("createBinaryProfile()") ConditionProfile outOfRangeProfile) {
-
-            try {
-                long i = castToLongNode.execute(idxObj);
-                long len = lenNode.execute(self);
-                SeekableByteChannel channel = self.getChannel();
-                long idx = i < 0 ? i + len : i;
-
-                if (outOfRangeProfile.profile(idx < 0 || idx >= len)) {
-                    throw raise(PythonBuiltinClassType.IndexError, "mmap index out of range");
-                }
-
-                // save current position
-                long oldPos = PMMap.position(channel);
-
-                PMMap.position(channel, idx);
-                writeByteNode.execute(channel, castToByteNode.execute(frame, val));
-
-                // restore position
-                PMMap.position(channel, oldPos);
-
-                return PNone.NONE;
-
-            } catch (IOException e) {
-                throw raise(PythonBuiltinClassType.OSError, e);
+            ByteBuffer buffer = getWritableBuffer(self);
+            long i = castToLongNode.execute(idxObj);
+            long len = self.getLength();
+            long idx = i < 0 ? i + len : i;
+            if (outOfRangeProfile.profile(idx < 0 || idx >= len)) {
+                throw raise(PythonBuiltinClassType.IndexError, "mmap index out of range");
             }
+            PMMap.putByte(buffer, (int) idx, castToByteNode.execute(frame, val));
+            return PNone.NONE;
         }
 
         @Specialization
-        PNone doSlice(VirtualFrame frame, PMMap self, PSlice idx, PIBytesLike val,
-                        @Cached("create()") WriteToChannelNode writeNode,
+        PNone doSlice(PMMap self, PSlice idx, PIBytesLike val,
                         @Cached("create()") SequenceNodes.GetSequenceStorageNode getStorageNode,
-                        @Cached("create()") InternalLenNode lenNode,
-                        @Cached("createBinaryProfile()") ConditionProfile invalidStepProfile) {
-
-            try {
-                long len = lenNode.execute(self);
-                SliceInfo info = idx.computeIndices(PInt.intValueExact(len));
-                SeekableByteChannel channel = self.getChannel();
-
-                if (invalidStepProfile.profile(info.step != 1)) {
-                    throw raise(PythonBuiltinClassType.SystemError, "step != 1 not supported");
+                        @Cached SequenceStorageNodes.GetInternalByteArrayNode getBytesNode,
+                        @Cached("createBinaryProfile()") ConditionProfile stepOneProfile) {
+            ByteBuffer buffer = getWritableBuffer(self);
+            SliceInfo info = idx.computeIndices((int) self.getLength());
+            SequenceStorage storage = getStorageNode.execute(val);
+            int n = Math.max(info.length, 0);
+            if (storage.length() != n) {
+                throw raise(PythonBuiltinClassType.IndexError, "mmap slice assignment is wrong size");
+            }
+            byte[] data = getBytesNode.execute(storage);
+            if (stepOneProfile.profile(info.step == 1)) {
+                PMMap.putBytes(buffer, info.start, data, 0, n);
+            } else {
+                for (int i = 0, j = info.start; i < n; i++, j += info.step) {
+                    PMMap.putByte(buffer, j, data[i]);
                 }
-
-                // save current position
-                long oldPos = PMMap.position(channel);
-
-                PMMap.position(channel, info.start);
-                writeNode.execute(frame, channel, getStorageNode.execute(val), info.length);
-
-                // restore position
-                PMMap.position(channel, oldPos);
-
-                return PNone.NONE;
-
-            } catch (IOException e) {
-                throw raise(PythonBuiltinClassType.OSError, e);
             }
+            return PNone.NONE;
         }
 
         protected static CastToByteNode createCoerce() {
@@ -383,9 +285,8 @@ public class MMapBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     public abstract static class LenNode extends PythonBuiltinNode {
         @Specialization
-        long len(PMMap self,
-                        @Cached("create()") InternalLenNode lenNode) {
-            return lenNode.execute(self);
+        static long len(PMMap self) {
+            return self.getLength();
         }
     }
 
@@ -415,20 +316,14 @@ public class MMapBuiltins extends PythonBuiltins {
     abstract static class CloseNode extends PythonUnaryBuiltinNode {
 
         @Specialization
-        PNone doClose(PMMap self,
-                        @Cached PRaiseNode raiseNode) {
+        PNone doClose(VirtualFrame frame, PMMap self) {
             try {
-                close(self);
+                self.close();
             } catch (IOException e) {
-                throw raiseNode.raise(PythonErrorType.BufferError, "cannot close exported pointers exist");
+                throw raiseOSError(frame, e);
             }
             return PNone.NONE;
         }
-
-        @TruffleBoundary
-        private static void close(PMMap self) throws IOException {
-            self.getChannel().close();
-        }
     }
 
     @Builtin(name = "closed", minNumOfPositionalArgs = 1, isGetter = true)
@@ -436,137 +331,163 @@ public class MMapBuiltins extends PythonBuiltins {
     abstract static class ClosedNode extends PythonUnaryBuiltinNode {
 
         @Specialization
-        @TruffleBoundary
-        boolean close(PMMap self) {
-            return !self.getChannel().isOpen();
+        static boolean close(PMMap self) {
+            return self.isClosed();
         }
     }
 
     @Builtin(name = "size", minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
-    abstract static class SizeNode extends PythonBuiltinNode {
+    abstract static class SizeNode extends PythonBuiltinNode implements MMapBaseNode {
 
         @Specialization
-        long size(PMMap self,
-                        @Cached("create()") InternalLenNode lenNode) {
-            return lenNode.execute(self);
+        long size(PMMap self) {
+            getBuffer(self);
+            return self.getLength();
         }
     }
 
     @Builtin(name = "tell", minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
-    abstract static class TellNode extends PythonBuiltinNode implements ByteReadingNode {
+    abstract static class TellNode extends PythonBuiltinNode implements MMapBaseNode {
         @Specialization
-        long readline(VirtualFrame frame, PMMap self) {
-            try {
-                SeekableByteChannel channel = self.getChannel();
-                return PMMap.position(channel) - self.getOffset();
-            } catch (IOException e) {
-                throw raiseOSError(frame, OSErrorEnum.EIO, e);
-            }
+        long tell(PMMap self) {
+            getBuffer(self);
+            return self.getPos();
         }
     }
 
     @Builtin(name = "read_byte", minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     @TypeSystemReference(PythonArithmeticTypes.class)
-    abstract static class ReadByteNode extends PythonUnaryBuiltinNode implements ByteReadingNode {
+    abstract static class ReadByteNode extends PythonUnaryBuiltinNode implements MMapBaseNode {
 
         @Specialization
         int readByte(PMMap self,
-                        @SuppressWarnings("unused") @Cached PRaiseNode raise,
-                        @Cached("createValueError(raise)") ReadByteFromChannelNode readByteNode) {
-            return readByteNode.execute(self.getChannel());
+                        @Cached BranchProfile outOfRangeProfile) {
+            ByteBuffer buffer = getBuffer(self);
+            int pos = self.getPos();
+            if (pos >= self.getLength()) {
+                outOfRangeProfile.enter();
+                throw raise(PythonBuiltinClassType.ValueError, "read byte out of range");
+            }
+            self.setPos(pos + 1);
+            return PMMap.getByte(buffer, pos) & 0xFF;
+        }
+    }
+
+    @Builtin(name = "write_byte", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class WriteByteNode extends PythonBinaryBuiltinNode implements MMapBaseNode {
+
+        @Specialization
+        PNone writeByte(VirtualFrame frame, PMMap self, Object val,
+                        @Cached("createCoerce()") CastToByteNode castToByteNode,
+                        @Cached BranchProfile outOfRangeProfile) {
+            ByteBuffer buffer = getWritableBuffer(self);
+            int pos = self.getPos();
+            if (pos >= self.getLength()) {
+                outOfRangeProfile.enter();
+                throw raise(PythonBuiltinClassType.ValueError, "write byte out of range");
+            }
+            PMMap.putByte(buffer, pos, castToByteNode.execute(frame, val));
+            self.setPos(pos + 1);
+            return PNone.NONE;
+        }
+
+        protected static CastToByteNode createCoerce() {
+            return CastToByteNode.create(true);
         }
     }
 
     @Builtin(name = "read", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
     @GenerateNodeFactory
     @TypeSystemReference(PythonArithmeticTypes.class)
-    abstract static class ReadNode extends PythonBuiltinNode {
+    abstract static class ReadNode extends PythonBuiltinNode implements MMapBaseNode {
 
         @Specialization
-        PBytes readUnlimited(PMMap self, @SuppressWarnings("unused") PNone n,
-                        @Cached("create()") ReadFromChannelNode readChannelNode) {
+        PBytes readUnlimited(PMMap self, @SuppressWarnings("unused") PNone n) {
             // intentionally accept NO_VALUE and NONE; both mean that we read unlimited amount of
             // bytes
-            ByteSequenceStorage res = readChannelNode.execute(self.getChannel(), ReadFromChannelNode.MAX_READ);
-            return factory().createBytes(res);
+            return read(self, Integer.MAX_VALUE);
         }
 
         @Specialization(guards = "!isNoValue(n)", limit = "getCallSiteInlineCacheMaxDepth()")
         PBytes read(VirtualFrame frame, PMMap self, Object n,
-                        @Cached("create()") ReadFromChannelNode readChannelNode,
                         @CachedLibrary("n") PythonObjectLibrary lib,
                         @Cached("createBinaryProfile()") ConditionProfile negativeProfile) {
             int nread = lib.asSizeWithState(n, PArguments.getThreadState(frame));
             if (negativeProfile.profile(nread < 0)) {
-                return readUnlimited(self, PNone.NO_VALUE, readChannelNode);
+                return readUnlimited(self, PNone.NO_VALUE);
             }
-            ByteSequenceStorage res = readChannelNode.execute(self.getChannel(), nread);
-            return factory().createBytes(res);
+            return read(self, nread);
         }
 
+        private PBytes read(PMMap self, int n) {
+            ByteBuffer buffer = getBuffer(self);
+            int pos = self.getPos();
+            int nread = (int) Math.min(n, self.getLength() - pos);
+            byte[] result = new byte[nread];
+            PMMap.getBytes(buffer, pos, result, 0, nread);
+            self.setPos(pos + nread);
+            return factory().createBytes(result);
+        }
     }
 
     @Builtin(name = "readline", minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
-    abstract static class ReadlineNode extends PythonUnaryBuiltinNode implements ByteReadingNode {
+    abstract static class ReadlineNode extends PythonUnaryBuiltinNode implements MMapBaseNode {
 
         @Specialization
-        Object readline(PMMap self,
-                        @Cached SequenceStorageNodes.AppendNode appendNode) {
-
-            try {
-                ByteBuffer buf = ByteBuffer.allocate(4096);
-                SeekableByteChannel channel = self.getChannel();
-                ByteSequenceStorage res = new ByteSequenceStorage(16);
-                // search for newline char
-                outer: while (readIntoBuffer(channel, buf) > 0) {
-                    buf.flip();
-                    while (buf.hasRemaining()) {
-                        byte b = buf.get();
-                        // CPython really tests for '\n' only
-                        if (b != (byte) '\n') {
-                            appendNode.execute(res, b, BytesLikeNoGeneralizationNode.SUPPLIER);
-                        } else {
-                            // recover correct position (i.e. number of remaining bytes in buffer)
-                            PMMap.position(channel, PMMap.position(channel) - buf.remaining() - 1);
-                            break outer;
-                        }
-                    }
-                    buf.clear();
+        Object readline(PMMap self) {
+            ByteBuffer buffer = getBuffer(self);
+            int pos = self.getPos();
+            int len = (int) self.getLength();
+            int end = pos;
+            // CPython really tests for '\n' only
+            while (end < len) {
+                if (PMMap.getByte(buffer, end++) == (byte) '\n') {
+                    break;
                 }
-                return factory().createBytes(res);
-            } catch (IOException e) {
-                throw raise(PythonBuiltinClassType.OSError, e);
             }
-        }
-
-        @TruffleBoundary(allowInlining = true)
-        private static int readIntoBuffer(SeekableByteChannel ch, ByteBuffer dst) throws IOException {
-            return ch.read(dst);
+            byte[] result = new byte[end - pos];
+            PMMap.getBytes(buffer, pos, result, 0, result.length);
+            self.setPos(end);
+            return factory().createBytes(result);
         }
     }
 
     @Builtin(name = "write", minNumOfPositionalArgs = 2)
     @GenerateNodeFactory
-    abstract static class WriteNode extends PythonBinaryBuiltinNode {
+    abstract static class WriteNode extends PythonBinaryBuiltinNode implements MMapBaseNode {
 
         @Specialization
-        int writeBytesLike(VirtualFrame frame, PMMap self, PIBytesLike bytesLike,
-                        @Cached("create()") WriteToChannelNode writeNode,
-                        @Cached("create()") SequenceNodes.GetSequenceStorageNode getStorageNode) {
-            SeekableByteChannel channel = self.getChannel();
-            return writeNode.execute(frame, channel, getStorageNode.execute(bytesLike), Integer.MAX_VALUE);
+        int writeBytesLike(PMMap self, PIBytesLike bytesLike,
+                        @Cached("create()") SequenceNodes.GetSequenceStorageNode getStorageNode,
+                        @Cached SequenceStorageNodes.GetInternalByteArrayNode getBytesNode,
+                        @Shared("outOfRangeProfile") @Cached BranchProfile outOfRangeProfile) {
+            SequenceStorage storage = getStorageNode.execute(bytesLike);
+            return write(self, getBytesNode.execute(storage), storage.length(), outOfRangeProfile);
         }
 
         @Specialization
         int writeMemoryview(VirtualFrame frame, PMMap self, PMemoryView memoryView,
-                        @Cached("create()") WriteToChannelNode writeNode,
-                        @Cached("create()") BytesNodes.ToBytesNode toBytesNode) {
+                        @Cached("create()") BytesNodes.ToBytesNode toBytesNode,
+                        @Shared("outOfRangeProfile") @Cached BranchProfile outOfRangeProfile) {
             byte[] data = toBytesNode.execute(frame, memoryView);
-            return writeNode.execute(frame, self.getChannel(), new ByteSequenceStorage(data), Integer.MAX_VALUE);
+            return write(self, data, data.length, outOfRangeProfile);
+        }
+
+        private int write(PMMap self, byte[] data, int n, BranchProfile outOfRangeProfile) {
+            ByteBuffer buffer = getWritableBuffer(self);
+            int pos = self.getPos();
+            if (self.getLength() - pos < n) {
+                outOfRangeProfile.enter();
+                throw raise(PythonBuiltinClassType.ValueError, "data out of range");
+            }
+            PMMap.putBytes(buffer, pos, data, 0, n);
+            self.setPos(pos + n);
+            return n;
         }
     }
 
@@ -585,120 +506,81 @@ public class MMapBuiltins extends PythonBuiltins {
         Object seek(VirtualFrame frame, PMMap self, long dist, Object how,
                         @Shared("errorProfile") @Cached BranchProfile errorProfile,
                         @Shared("library") @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
-            try {
-                SeekableByteChannel channel = self.getChannel();
-                long size;
-                if (self.getLength() == 0) {
-                    size = PMMap.size(channel) - self.getOffset();
-                } else {
-                    size = self.getLength();
-                }
-                long where;
-                int ihow = lib.asSizeWithState(how, PArguments.getThreadState(frame));
-                switch (ihow) {
-                    case 0: /* relative to start */
-                        where = dist;
-                        break;
-                    case 1: /* relative to current position */
-                        where = PMMap.position(channel) + dist;
-                        break;
-                    case 2: /* relative to end */
-                        where = size + dist;
-                        break;
-                    default:
-                        errorProfile.enter();
-                        throw raise(PythonBuiltinClassType.ValueError, "unknown seek type");
-                }
-                if (where > size || where < 0) {
+            getBuffer(self);
+            long size = self.getLength();
+            long where;
+            int ihow = lib.asSizeWithState(how, PArguments.getThreadState(frame));
+            switch (ihow) {
+                case 0: /* relative to start */
+                    where = dist;
+                    break;
+                case 1: /* relative to current position */
+                    where = self.getPos() + dist;
+                    break;
+                case 2: /* relative to end */
+                    where = size + dist;
+                    break;
+                default:
                     errorProfile.enter();
-                    throw raise(PythonBuiltinClassType.ValueError, "seek out of range");
-                }
-                PMMap.position(channel, where);
-                return PNone.NONE;
-            } catch (IOException e) {
+                    throw raise(PythonBuiltinClassType.ValueError, "unknown seek type");
+            }
+            if (where > size || where < 0) {
                 errorProfile.enter();
-                throw raiseOSError(frame, OSErrorEnum.EIO, e);
+                throw raise(PythonBuiltinClassType.ValueError, "seek out of range");
             }
+            self.setPos((int) where);
+            return PNone.NONE;
         }
     }
 
-    @Builtin(name = "find", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
-    @GenerateNodeFactory
-    @TypeSystemReference(PythonArithmeticTypes.class)
-    public abstract static class FindNode extends PythonBuiltinNode implements ByteReadingNode {
-
-        @Child private SequenceStorageNodes.GetItemNode getRightItemNode;
+    abstract static class AbstractFindNode extends PythonBuiltinNode implements MMapBaseNode {
 
         public abstract long execute(VirtualFrame frame, PMMap bytes, Object sub, Object starting, Object ending);
 
         @Specialization
-        long find(VirtualFrame frame, PMMap primary, PIBytesLike sub, Object starting, Object ending,
-                        @SuppressWarnings("unused") @Cached PRaiseNode raise,
-                        @Cached("createValueError(raise)") ReadByteFromChannelNode readByteNode) {
-            try {
-                SeekableByteChannel channel = primary.getChannel();
-                long len1 = PMMap.size(channel);
-
-                SequenceStorage needle = sub.getSequenceStorage();
-                int len2 = needle.length();
+        long find(PMMap primary, PIBytesLike sub, Object starting, Object ending,
+                        @Cached("create()") SequenceNodes.GetSequenceStorageNode getStorageNode,
+                        @Cached SequenceStorageNodes.GetInternalByteArrayNode getBytesNode) {
+            ByteBuffer buffer = getBuffer(primary);
+            SequenceStorage needle = getStorageNode.execute(sub);
+            return find(buffer, (int) primary.getLength(), primary.getPos(), getBytesNode.execute(needle), needle.length(), starting, ending);
+        }
 
-                long s = castToLong(starting, 0);
-                long e = castToLong(ending, len1);
+        @Specialization
+        long find(PMMap primary, int sub, Object starting, Object ending) {
+            ByteBuffer buffer = getBuffer(primary);
+            return find(buffer, (int) primary.getLength(), primary.getPos(), new byte[]{(byte) sub}, 1, starting, ending);
+        }
 
-                long start = s < 0 ? s + len1 : s;
-                long end = e < 0 ? e + len1 : e;
+        private long find(ByteBuffer buffer, int len1, int pos, byte[] needle, int len2, Object starting, Object ending) {
+            // like in CPython, the search starts at the current position by default
+            long s = castToLong(starting, pos);
+            long e = castToLong(ending, len1);
 
-                if (start >= len1 || len1 < len2) {
-                    return -1;
-                } else if (end > len1) {
-                    end = len1;
-                }
+            long start = s < 0 ? Math.max(s + len1, 0) : s;
+            long end = e < 0 ? Math.max(e + len1, 0) : Math.min(e, len1);
 
-                // TODO implement a more efficient algorithm
-                outer: for (long i = start; i < end; i++) {
-                    // TODO(fa) don't seek but use circular buffer
-                    PMMap.position(channel, i);
-                    for (int j = 0; j < len2; j++) {
-                        int hb = readByteNode.execute(channel);
-                        int nb = getGetRightItemNode().executeInt(frame, needle, j);
-                        if (nb != hb || i + j >= end) {
-                            continue outer;
-                        }
-                    }
-                    return i;
-                }
+            if (end - start < len2) {
                 return -1;
-            } catch (IOException e) {
-                throw raise(PythonBuiltinClassType.OSError, e);
             }
+            return doFind(buffer, (int) start, (int) end, needle, len2);
         }
 
-        @Specialization
-        long find(PMMap primary, int sub, Object starting, @SuppressWarnings("unused") Object ending,
-                        @SuppressWarnings("unused") @Cached PRaiseNode raise,
-                        @Cached("createValueError(raise)") ReadByteFromChannelNode readByteNode) {
-            try {
-                SeekableByteChannel channel = primary.getChannel();
-                long len1 = PMMap.size(channel);
-
-                long s = castToLong(starting, 0);
-                long e = castToLong(ending, len1);
-
-                long start = s < 0 ? s + len1 : s;
-                long end = Math.max(e < 0 ? e + len1 : e, len1);
-
-                PMMap.position(channel, start);
-
-                for (long i = start; i < end; i++) {
-                    int hb = readByteNode.execute(channel);
-                    if (hb == sub) {
-                        return i;
-                    }
+        /**
+         * Searches the first occurrence of {@code needle[0:len2]} in {@code buffer[start:end]},
+         * where {@code end - start >= len2}.
+         */
+        protected int doFind(ByteBuffer buffer, int start, int end, byte[] needle, int len2) {
+            if (len2 == 0) {
+                return start;
+            }
+            byte first = needle[0];
+            for (int i = start; i <= end - len2; i++) {
+                if (PMMap.getByte(buffer, i) == first && matches(buffer, i, needle, len2)) {
+                    return i;
                 }
-                return -1;
-            } catch (IOException e) {
-                throw raise(PythonBuiltinClassType.OSError, e);
             }
+            return -1;
         }
 
         // TODO(fa): use node
@@ -715,64 +597,56 @@ public class MMapBuiltins extends PythonBuiltins {
             return defaultVal;
         }
 
-        private SequenceStorageNodes.GetItemNode getGetRightItemNode() {
-            if (getRightItemNode == null) {
-                CompilerDirectives.transferToInterpreterAndInvalidate();
-                getRightItemNode = insert(SequenceStorageNodes.GetItemNode.create());
+        protected static boolean matches(ByteBuffer buffer, int i, byte[] needle, int len2) {
+            for (int j = 1; j < len2; j++) {
+                if (PMMap.getByte(buffer, i + j) != needle[j]) {
+                    return false;
+                }
             }
-            return getRightItemNode;
+            return true;
         }
     }
 
-    @GenerateUncached
-    abstract static class InternalLenNode extends PNodeWithContext implements MMapBaseNode {
+    @Builtin(name = "find", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    public abstract static class FindNode extends AbstractFindNode {
+    }
 
-        public abstract long execute(PMMap self);
+    @Builtin(name = "rfind", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    public abstract static class RFindNode extends AbstractFindNode {
 
-        @Specialization(guards = "self.getLength() == 0")
-        long doFull(PMMap self,
-                        @Cached PRaiseOSErrorNode raise,
-                        @Cached("create()") BranchProfile profile) {
-            try {
-                return PMMap.size(self.getChannel()) - self.getOffset();
-            } catch (IOException e) {
-                profile.enter();
-                throw raise.raiseOSError(null, OSErrorEnum.EIO, e);
+        @Override
+        protected int doFind(ByteBuffer buffer, int start, int end, byte[] needle, int len2) {
+            if (len2 == 0) {
+                return end;
             }
-        }
-
-        @Specialization(guards = "self.getLength() > 0")
-        long doWindow(PMMap self) {
-            return self.getLength();
-        }
-
-        @Specialization
-        long doGeneric(PMMap self,
-                        @Cached PRaiseOSErrorNode raise) {
-            if (self.getLength() == 0) {
-                try {
-                    return PMMap.size(self.getChannel()) - self.getOffset();
-                } catch (IOException e) {
-                    throw raise.raiseOSError(null, OSErrorEnum.EIO, e);
+            byte first = needle[0];
+            for (int i = end - len2; i >= start; i--) {
+                if (PMMap.getByte(buffer, i) == first && matches(buffer, i, needle, len2)) {
+                    return i;
                 }
             }
-            return self.getLength();
-        }
-
-        public static InternalLenNode create() {
-            return InternalLenNodeGen.create();
+            return -1;
         }
     }
 
-    @Builtin(name = "flush", minNumOfPositionalArgs = 1)
+    @Builtin(name = "flush", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 3)
     @GenerateNodeFactory
-    abstract static class FlushNode extends PythonUnaryBuiltinNode {
+    abstract static class FlushNode extends PythonBuiltinNode implements MMapBaseNode {
 
         @Specialization
-        Object seek(@SuppressWarnings("unused") PMMap self) {
+        Object flush(VirtualFrame frame, PMMap self, @SuppressWarnings("unused") Object offset, @SuppressWarnings("unused") Object size) {
+            getBuffer(self);
+            try {
+                self.force();
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            }
             return PNone.NONE;
         }
-
     }
 
 }
@@ -41,37 +41,48 @@
 package com.oracle.graal.python.builtins.objects.mmap;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
 
-import com.oracle.graal.python.builtins.objects.mmap.MMapBuiltins.InternalLenNode;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
-import com.oracle.graal.python.nodes.util.CastToJavaIntNode;
-import com.oracle.graal.python.nodes.util.ChannelNodes.ReadFromChannelNode;
-import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
-import com.oracle.truffle.api.dsl.Cached;
-import com.oracle.truffle.api.dsl.Cached.Shared;
 import com.oracle.truffle.api.library.ExportLibrary;
 import com.oracle.truffle.api.library.ExportMessage;
 
+/**
+ * A memory map. For files, the buffer is a {@link MappedByteBuffer} obtained via
+ * {@link FileChannel#map}; anonymous maps use a direct (off-heap) buffer. If the file system does
+ * not hand out {@link FileChannel}s, the buffer is a direct copy of the region and, for writable
+ * maps, is written back through the channel on {@link #force()} and {@link #close()}. All
+ * accesses use absolute indices into the buffer, the cursor used by {@code read}, {@code write}
+ * and {@code seek} is kept separately.
+ */
 @ExportLibrary(PythonObjectLibrary.class)
 public final class PMMap extends PythonObject {
 
-    private final SeekableByteChannel mappedByteBuffer;
-    private final long length;
+    private ByteBuffer buffer;
+    private SeekableByteChannel channel;
+    /** Whether {@link #buffer} was mapped from {@link #channel} rather than copied from it. */
+    private final boolean mapped;
+    private final int length;
     private final long offset;
+    private int pos;
 
-    public PMMap(LazyPythonClass pythonClass, SeekableByteChannel mappedByteBuffer, long length, long offset) {
+    public PMMap(LazyPythonClass pythonClass, ByteBuffer buffer, SeekableByteChannel channel, boolean mapped, long offset) {
         super(pythonClass);
-        this.mappedByteBuffer = mappedByteBuffer;
-        this.length = length;
+        this.buffer = buffer;
+        this.channel = channel;
+        this.mapped = mapped;
+        this.length = buffer.capacity();
         this.offset = offset;
     }
 
-    public SeekableByteChannel getChannel() {
-        return mappedByteBuffer;
+    public ByteBuffer getBuffer() {
+        return buffer;
     }
 
     public long getLength() {
@@ -82,6 +93,58 @@ public final class PMMap extends PythonObject {
         return offset;
     }
 
+    public int getPos() {
+        return pos;
+    }
+
+    public void setPos(int pos) {
+        this.pos = pos;
+    }
+
+    public boolean isClosed() {
+        return buffer == null;
+    }
+
+    /**
+     * Writes back a copied region, drops the reference to the mapped region (it is unmapped once
+     * the buffer is collected) and closes the file channel, if any.
+     */
+    @TruffleBoundary
+    public void close() throws IOException {
+        if (channel != null) {
+            SeekableByteChannel ch = channel;
+            try {
+                force();
+            } finally {
+                buffer = null;
+                channel = null;
+                ch.close();
+            }
+        } else {
+            buffer = null;
+        }
+    }
+
+    /**
+     * Writes any changes of a file-backed map back to the file. This is a no-op for anonymous,
+     * read-only and private ({@code ACCESS_COPY}) maps, which do not keep a channel.
+     */
+    @TruffleBoundary
+    public void force() throws IOException {
+        if (channel == null || buffer == null || buffer.isReadOnly()) {
+            return;
+        }
+        if (mapped) {
+            ((MappedByteBuffer) buffer).force();
+        } else {
+            ByteBuffer view = getView();
+            channel.position(offset);
+            while (view.hasRemaining()) {
+                channel.write(view);
+            }
+        }
+    }
+
     @ExportMessage
     @SuppressWarnings("static-method")
     boolean isBuffer() {
@@ -89,48 +152,72 @@ public final class PMMap extends PythonObject {
     }
 
     @ExportMessage
-    int getBufferLength(
-                    @Shared("lenNode") @Cached InternalLenNode lenNode,
-                    @Shared("castToIntNode") @Cached CastToJavaIntNode castToIntNode) {
-        return castToIntNode.execute(lenNode.execute(this));
+    int getBufferLength() {
+        return length;
     }
 
-    @ExportMessage
-    byte[] getBufferBytes(
-                    @Shared("lenNode") @Cached InternalLenNode lenNode,
-                    @Shared("castToIntNode") @Cached CastToJavaIntNode castToIntNode,
-                    @Cached ReadFromChannelNode readNode) {
-
-        try {
-            int len = getBufferLength(lenNode, castToIntNode);
-
-            // save current position
-            // TODO: restore in case of failure
-            @SuppressWarnings("unused")
-            long oldPos = PMMap.position(mappedByteBuffer);
-
-            PMMap.position(mappedByteBuffer, 0);
-            ByteSequenceStorage s = readNode.execute(mappedByteBuffer, len);
-            return s.getInternalByteArray();
-        } catch (IOException e) {
-            // TODO(fa) how to handle?
+    /**
+     * Returns a buffer that shares the memory of the whole map, or {@code null} if the map is
+     * closed. Channel reads and writes use it instead of {@link #getBufferBytes()}, which has to
+     * copy the region into a byte array.
+     */
+    @TruffleBoundary
+    public ByteBuffer getView() {
+        if (buffer == null) {
             return null;
         }
+        ByteBuffer view = buffer.duplicate();
+        view.clear();
+        return view;
     }
 
-    @TruffleBoundary
-    static long position(SeekableByteChannel ch) throws IOException {
-        return ch.position();
+    @ExportMessage
+    byte[] getBufferBytes() {
+        byte[] data = new byte[length];
+        if (buffer != null) {
+            getBytes(buffer, 0, data, 0, length);
+        }
+        return data;
     }
 
-    @TruffleBoundary
-    static void position(SeekableByteChannel ch, long offset) throws IOException {
-        ch.position(offset);
+    @TruffleBoundary(allowInlining = true)
+    static byte getByte(ByteBuffer buf, int idx) {
+        return buf.get(idx);
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    static void putByte(ByteBuffer buf, int idx, byte b) {
+        buf.put(idx, b);
+    }
+
+    /**
+     * Reads 8 bytes starting at {@code idx} in little-endian order, as needed by the native
+     * buffer access. Bytes beyond the end of the map read as zero.
+     */
+    @TruffleBoundary(allowInlining = true)
+    public static long getLongLE(ByteBuffer buf, int idx) {
+        int limit = buf.capacity();
+        if (idx + Long.BYTES <= limit) {
+            return Long.reverseBytes(buf.getLong(idx));
+        }
+        long result = 0;
+        for (int i = 0; idx + i < limit && i < Long.BYTES; i++) {
+            result |= (buf.get(idx + i) & 0xFFL) << (8 * i);
+        }
+        return result;
     }
 
     @TruffleBoundary
-    static long size(SeekableByteChannel ch) throws IOException {
-        return ch.size();
+    static void getBytes(ByteBuffer buf, int idx, byte[] dst, int dstOff, int len) {
+        ByteBuffer view = buf.duplicate();
+        view.position(idx);
+        view.get(dst, dstOff, len);
     }
 
+    @TruffleBoundary
+    static void putBytes(ByteBuffer buf, int idx, byte[] src, int srcOff, int len) {
+        ByteBuffer view = buf.duplicate();
+        view.position(idx);
+        view.put(src, srcOff, len);
+    }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.queue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * The state of a {@code _queue.SimpleQueue}. Items are kept in a lock-free
+ * {@link LinkedTransferQueue}, so putting an item never blocks and a consumer waiting in
+ * {@link #take} or {@link #poll(long)} is woken directly by the producer's put instead of going
+ * through a condition variable.
+ */
+public final class PSimpleQueue extends PythonBuiltinObject {
+    private final LinkedTransferQueue<Object> queue = new LinkedTransferQueue<>();
+
+    public PSimpleQueue(LazyPythonClass cls) {
+        super(cls);
+    }
+
+    @TruffleBoundary
+    public void put(Object item) {
+        queue.add(item);
+    }
+
+    @TruffleBoundary
+    public void putAll(Collection<Object> items) {
+        queue.addAll(items);
+    }
+
+    /**
+     * Returns the next item or {@code null} if the queue is empty.
+     */
+    @TruffleBoundary
+    public Object poll() {
+        return queue.poll();
+    }
+
+    /**
+     * Waits at most {@code timeoutNanos} for an item; returns {@code null} on timeout or if the
+     * thread was interrupted.
+     */
+    @TruffleBoundary
+    public Object poll(long timeoutNanos) {
+        try {
+            return queue.poll(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Waits until an item is available; returns {@code null} if the thread was interrupted.
+     */
+    @TruffleBoundary
+    public Object take() {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Moves at most {@code maxItems} items that are immediately available into {@code target}.
+     */
+    @TruffleBoundary
+    public int drainTo(List<Object> target, int maxItems) {
+        return queue.drainTo(target, maxItems);
+    }
+
+    @TruffleBoundary
+    public int size() {
+        return queue.size();
+    }
+
+    @TruffleBoundary
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.queue;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.OverflowError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.QueueEmpty;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.thread.AbstractPythonLock;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.control.GetIteratorExpressionNode.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.expression.CoerceToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonQuaternaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CastToJavaIntNode;
+import com.oracle.graal.python.nodes.util.CoerceToDoubleNode;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+/**
+ * Builtins of {@code _queue.SimpleQueue}. Besides the methods of CPython's {@code SimpleQueue},
+ * the queue offers {@code put_many(items)} and {@code get_many(maxitems, block=True, timeout=None)}
+ * to hand off several items with a single call.
+ */
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PSimpleQueue)
+public class SimpleQueueBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return SimpleQueueBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * Returns the next item of the queue following the rules of {@code SimpleQueue.get} or raises
+     * {@code Empty}.
+     */
+    static Object get(VirtualFrame frame, PythonBuiltinBaseNode node, PSimpleQueue self, Object block, Object timeout,
+                    CoerceToBooleanNode castToBooleanNode, CoerceToDoubleNode coerceToDoubleNode) {
+        boolean isBlocking = PGuards.isNoValue(block) || castToBooleanNode.executeBoolean(frame, block);
+        Object item;
+        if (!isBlocking) {
+            // the timeout is ignored for non-blocking calls
+            item = self.poll();
+        } else {
+            long timeoutNanos = -1;
+            if (!PGuards.isPNone(timeout)) {
+                double timeoutSeconds = coerceToDoubleNode.execute(frame, timeout);
+                if (timeoutSeconds < 0) {
+                    throw node.raise(ValueError, "'timeout' must be a non-negative number");
+                } else if (timeoutSeconds > AbstractPythonLock.TIMEOUT_MAX) {
+                    throw node.raise(OverflowError, "timeout value is too large");
+                }
+                timeoutNanos = (long) (timeoutSeconds * 1e9);
+            }
+            item = self.poll();
+            if (item == null) {
+                // only give up the GIL if we actually have to wait for a producer
+                PythonContext context = node.getContext();
+                boolean releasedGil = context.releaseGil();
+                try {
+                    item = timeoutNanos < 0 ? self.take() : self.poll(timeoutNanos);
+                } finally {
+                    context.reacquireGil(releasedGil);
+                }
+            }
+        }
+        if (item == null) {
+            throw node.raise(QueueEmpty);
+        }
+        return item;
+    }
+
+    // SimpleQueue.put(item, block=True, timeout=None)
+    @Builtin(name = "put", minNumOfPositionalArgs = 2, parameterNames = {"$self", "item", "block", "timeout"})
+    @GenerateNodeFactory
+    abstract static class PutNode extends PythonQuaternaryBuiltinNode {
+
+        @Specialization
+        static Object put(PSimpleQueue self, Object item, @SuppressWarnings("unused") Object block, @SuppressWarnings("unused") Object timeout) {
+            // the queue is unbounded, so this never blocks
+            self.put(item);
+            return PNone.NONE;
+        }
+    }
+
+    // SimpleQueue.put_nowait(item)
+    @Builtin(name = "put_nowait", minNumOfPositionalArgs = 2, parameterNames = {"$self", "item"})
+    @GenerateNodeFactory
+    abstract static class PutNoWaitNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        static Object put(PSimpleQueue self, Object item) {
+            self.put(item);
+            return PNone.NONE;
+        }
+    }
+
+    // SimpleQueue.put_many(items)
+    @Builtin(name = "put_many", minNumOfPositionalArgs = 2, parameterNames = {"$self", "items"})
+    @GenerateNodeFactory
+    abstract static class PutManyNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        static Object putMany(VirtualFrame frame, PSimpleQueue self, Object items,
+                        @Cached GetIteratorNode getIteratorNode,
+                        @Cached GetNextNode getNextNode,
+                        @Cached IsBuiltinClassProfile errorProfile) {
+            // collect the items first, so that consumers see all or none of them
+            List<Object> values = createList();
+            Object iterator = getIteratorNode.executeWith(frame, items);
+            while (true) {
+                try {
+                    add(values, getNextNode.execute(frame, iterator));
+                } catch (PException e) {
+                    e.expectStopIteration(errorProfile);
+                    break;
+                }
+            }
+            self.putAll(values);
+            return PNone.NONE;
+        }
+
+        @TruffleBoundary
+        private static List<Object> createList() {
+            return new ArrayList<>();
+        }
+
+        @TruffleBoundary
+        private static void add(List<Object> values, Object value) {
+            values.add(value);
+        }
+    }
+
+    // SimpleQueue.get(block=True, timeout=None)
+    @Builtin(name = "get", minNumOfPositionalArgs = 1, parameterNames = {"$self", "block", "timeout"})
+    @GenerateNodeFactory
+    abstract static class GetNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        Object get(VirtualFrame frame, PSimpleQueue self, Object block, Object timeout,
+                        @Cached("createIfTrueNode()") CoerceToBooleanNode castToBooleanNode,
+                        @Cached CoerceToDoubleNode coerceToDoubleNode) {
+            return SimpleQueueBuiltins.get(frame, this, self, block, timeout, castToBooleanNode, coerceToDoubleNode);
+        }
+    }
+
+    // SimpleQueue.get_nowait()
+    @Builtin(name = "get_nowait", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class GetNoWaitNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        Object get(PSimpleQueue self) {
+            Object item = self.poll();
+            if (item == null) {
+                throw raise(QueueEmpty);
+            }
+            return item;
+        }
+    }
+
+    // SimpleQueue.get_many(maxitems, block=True, timeout=None)
+    @Builtin(name = "get_many", minNumOfPositionalArgs = 2, parameterNames = {"$self", "maxitems", "block", "timeout"})
+    @GenerateNodeFactory
+    abstract static class GetManyNode extends PythonQuaternaryBuiltinNode {
+
+        @Specialization
+        PList getMany(VirtualFrame frame, PSimpleQueue self, Object maxitems, Object block, Object timeout,
+                        @Cached CastToJavaIntNode castToIntNode,
+                        @Cached("createIfTrueNode()") CoerceToBooleanNode castToBooleanNode,
+                        @Cached CoerceToDoubleNode coerceToDoubleNode) {
+            int maxItems = castToIntNode.execute(maxitems);
+            if (maxItems <= 0) {
+                throw raise(ValueError, "'maxitems' must be a positive number");
+            }
+            // only wait for the first item, the rest is whatever is available right away
+            Object first = SimpleQueueBuiltins.get(frame, this, self, block, timeout, castToBooleanNode, coerceToDoubleNode);
+            return factory().createList(drain(self, first, maxItems));
+        }
+
+        @TruffleBoundary
+        private static Object[] drain(PSimpleQueue self, Object first, int maxItems) {
+            ArrayList<Object> items = new ArrayList<>();
+            items.add(first);
+            self.drainTo(items, maxItems - 1);
+            return items.toArray();
+        }
+    }
+
+    // SimpleQueue.empty()
+    @Builtin(name = "empty", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class EmptyNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        static boolean empty(PSimpleQueue self) {
+            return self.isEmpty();
+        }
+    }
+
+    // SimpleQueue.qsize()
+    @Builtin(name = "qsize", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class QSizeNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        static int qsize(PSimpleQueue self) {
+            return self.size();
+        }
+    }
+}
@@ -40,54 +40,333 @@
  */
 package com.oracle.graal.python.builtins.objects.random;
 
-import java.util.Random;
+import java.math.BigInteger;
+import java.util.BitSet;
 
 import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.ObjectSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStoreException;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
-public class PRandom extends PythonBuiltinObject {
-    private static class PythonRandom extends Random {
-        private static final long serialVersionUID = 1L;
-
-        long getSeed() {
-            int nextseed = this.next(48); // 48 magic number of bits shifted away in superclass
-            this.setSeed(nextseed);
-            return nextseed;
-        }
-    }
+/**
+ * The state of a {@code _random.Random} object: a Mersenne Twister (MT19937) that produces the
+ * same sequences as CPython's {@code _randommodule.c} for the same seed and state.
+ */
+public final class PRandom extends PythonBuiltinObject {
+    public static final int N = 624;
+    private static final int M = 397;
+    private static final int MATRIX_A = 0x9908b0df;
+    private static final int UPPER_MASK = 0x80000000;
+    private static final int LOWER_MASK = 0x7fffffff;
 
-    private PythonRandom javaRandom;
+    private final int[] mt = new int[N];
+    private int index;
 
     public PRandom(LazyPythonClass cls) {
         super(cls);
-        resetJavaRandom();
+        setSeed(System.currentTimeMillis());
+    }
+
+    private void initGenrand(int s) {
+        mt[0] = s;
+        for (int i = 1; i < N; i++) {
+            mt[i] = 1812433253 * (mt[i - 1] ^ (mt[i - 1] >>> 30)) + i;
+        }
+        index = N;
+    }
+
+    private void initByArray(int[] key) {
+        initGenrand(19650218);
+        int i = 1;
+        int j = 0;
+        for (int k = Math.max(N, key.length); k > 0; k--) {
+            mt[i] = (mt[i] ^ ((mt[i - 1] ^ (mt[i - 1] >>> 30)) * 1664525)) + key[j] + j;
+            i++;
+            j++;
+            if (i >= N) {
+                mt[0] = mt[N - 1];
+                i = 1;
+            }
+            if (j >= key.length) {
+                j = 0;
+            }
+        }
+        for (int k = N - 1; k > 0; k--) {
+            mt[i] = (mt[i] ^ ((mt[i - 1] ^ (mt[i - 1] >>> 30)) * 1566083941)) - i;
+            i++;
+            if (i >= N) {
+                mt[0] = mt[N - 1];
+                i = 1;
+            }
+        }
+        mt[0] = UPPER_MASK;
     }
 
+    /**
+     * Seeds the generator with the given value interpreted as an unsigned 64-bit integer, like
+     * CPython does for hashes and (absolute values of) small ints.
+     */
     @TruffleBoundary
     public void setSeed(long seed) {
-        javaRandom.setSeed(seed);
+        int high = (int) (seed >>> 32);
+        initByArray(high == 0 ? new int[]{(int) seed} : new int[]{(int) seed, high});
+    }
+
+    /**
+     * Seeds the generator with all bits of a non-negative integer, in 32-bit words starting with
+     * the least significant one.
+     */
+    @TruffleBoundary
+    public void setSeed(BigInteger seed) {
+        assert seed.signum() >= 0;
+        int bits = seed.bitLength();
+        int[] key = new int[bits == 0 ? 1 : (bits - 1) / 32 + 1];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = seed.shiftRight(32 * i).intValue();
+        }
+        initByArray(key);
+    }
+
+    /**
+     * Returns the state as CPython's {@code getstate} does: the 624 words of the state vector as
+     * unsigned values followed by the current position in it.
+     */
+    @TruffleBoundary
+    public Object[] getState() {
+        Object[] state = new Object[N + 1];
+        for (int i = 0; i < N; i++) {
+            state[i] = mt[i] & 0xffffffffL;
+        }
+        state[N] = (long) index;
+        return state;
+    }
+
+    /**
+     * Sets a state produced by {@link #getState()}. The position must already have been checked to
+     * be in range {@code [0, N]}.
+     */
+    public void setState(int[] words, int position) {
+        assert words.length == N && position >= 0 && position <= N;
+        System.arraycopy(words, 0, mt, 0, N);
+        index = position;
     }
 
     @TruffleBoundary
-    public long getSeed() {
-        return javaRandom.getSeed();
+    private void generate() {
+        int kk;
+        int y;
+        for (kk = 0; kk < N - M; kk++) {
+            y = (mt[kk] & UPPER_MASK) | (mt[kk + 1] & LOWER_MASK);
+            mt[kk] = mt[kk + M] ^ (y >>> 1) ^ ((y & 1) * MATRIX_A);
+        }
+        for (; kk < N - 1; kk++) {
+            y = (mt[kk] & UPPER_MASK) | (mt[kk + 1] & LOWER_MASK);
+            mt[kk] = mt[kk + (M - N)] ^ (y >>> 1) ^ ((y & 1) * MATRIX_A);
+        }
+        y = (mt[N - 1] & UPPER_MASK) | (mt[0] & LOWER_MASK);
+        mt[N - 1] = mt[M - 1] ^ (y >>> 1) ^ ((y & 1) * MATRIX_A);
+        index = 0;
     }
 
-    public long nextLong() {
-        return javaRandom.nextLong();
+    /**
+     * Returns the next 32 random bits.
+     */
+    public int nextInt() {
+        if (index >= N) {
+            generate();
+        }
+        int y = mt[index++];
+        y ^= (y >>> 11);
+        y ^= (y << 7) & 0x9d2c5680;
+        y ^= (y << 15) & 0xefc60000;
+        y ^= (y >>> 18);
+        return y;
     }
 
+    /**
+     * Returns a random double in {@code [0.0, 1.0)} with 53 random bits, exactly like CPython's
+     * {@code random()}.
+     */
     public double nextDouble() {
-        return javaRandom.nextDouble();
+        int a = nextInt() >>> 5;
+        int b = nextInt() >>> 6;
+        return (a * 67108864.0 + b) * (1.0 / 9007199254740992.0);
+    }
+
+    /**
+     * Returns {@code k} random bits for {@code 0 < k < 64} as a non-negative long, consuming the
+     * same words as {@link #nextBigBits(int)}.
+     */
+    public long nextBits(int k) {
+        assert k > 0 && k < 64;
+        long low = nextInt() & 0xffffffffL;
+        if (k <= 32) {
+            return low >>> (32 - k);
+        }
+        long high = (nextInt() & 0xffffffffL) >>> (64 - k);
+        return (high << 32) | low;
     }
 
-    public Random getJavaRandom() {
-        return javaRandom;
+    /**
+     * Returns {@code k} random bits for {@code k > 0} as CPython's {@code getrandbits} does, filling
+     * 32-bit words from the least significant one and taking the topmost bits of the last word.
+     */
+    @TruffleBoundary
+    public BigInteger nextBigBits(int k) {
+        assert k > 0;
+        int words = (k - 1) / 32 + 1;
+        byte[] bytes = new byte[words * 4];
+        int remaining = k;
+        for (int i = 0; i < words; i++, remaining -= 32) {
+            int r = nextInt();
+            if (remaining < 32) {
+                r >>>= (32 - remaining);
+            }
+            int off = bytes.length - 4 * (i + 1);
+            bytes[off] = (byte) (r >>> 24);
+            bytes[off + 1] = (byte) (r >>> 16);
+            bytes[off + 2] = (byte) (r >>> 8);
+            bytes[off + 3] = (byte) r;
+        }
+        return new BigInteger(1, bytes);
+    }
+
+    /**
+     * Same as {@code Random._randbelow_with_getrandbits} for {@code 0 < n <= Integer.MAX_VALUE}.
+     */
+    private int randBelow(int n) {
+        int k = 32 - Integer.numberOfLeadingZeros(n);
+        int r = (int) nextBits(k);
+        while (r >= n) {
+            r = (int) nextBits(k);
+        }
+        return r;
     }
 
+    /**
+     * Shuffles the storage in place, drawing the same numbers as {@code Random.shuffle} does.
+     */
     @TruffleBoundary
-    public void resetJavaRandom() {
-        javaRandom = new PythonRandom();
+    public void shuffle(SequenceStorage storage) {
+        int n = storage.length();
+        if (storage instanceof IntSequenceStorage) {
+            int[] values = ((IntSequenceStorage) storage).getInternalIntArray();
+            for (int i = n - 1; i > 0; i--) {
+                int j = randBelow(i + 1);
+                int tmp = values[i];
+                values[i] = values[j];
+                values[j] = tmp;
+            }
+        } else if (storage instanceof LongSequenceStorage) {
+            long[] values = ((LongSequenceStorage) storage).getInternalLongArray();
+            for (int i = n - 1; i > 0; i--) {
+                int j = randBelow(i + 1);
+                long tmp = values[i];
+                values[i] = values[j];
+                values[j] = tmp;
+            }
+        } else if (storage instanceof DoubleSequenceStorage) {
+            double[] values = ((DoubleSequenceStorage) storage).getInternalDoubleArray();
+            for (int i = n - 1; i > 0; i--) {
+                int j = randBelow(i + 1);
+                double tmp = values[i];
+                values[i] = values[j];
+                values[j] = tmp;
+            }
+        } else if (storage instanceof ObjectSequenceStorage) {
+            Object[] values = storage.getInternalArray();
+            for (int i = n - 1; i > 0; i--) {
+                int j = randBelow(i + 1);
+                Object tmp = values[i];
+                values[i] = values[j];
+                values[j] = tmp;
+            }
+        } else {
+            for (int i = n - 1; i > 0; i--) {
+                int j = randBelow(i + 1);
+                Object tmp = storage.getItemNormalized(i);
+                storage.copyItem(i, j);
+                try {
+                    storage.setItemNormalized(j, tmp);
+                } catch (SequenceStoreException e) {
+                    // the value was taken from the same storage
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Chooses {@code k} distinct elements of the storage, drawing the same numbers as
+     * {@code Random.sample} does. The caller ensures {@code 0 <= k <= storage.length()}.
+     */
+    @TruffleBoundary
+    public Object[] sample(SequenceStorage storage, int k) {
+        int n = storage.length();
+        assert k >= 0 && k <= n;
+        Object[] result = new Object[k];
+        long setsize = 21;
+        if (k > 5) {
+            setsize += 1L << (2 * (int) Math.ceil(Math.log(k * 3.0) / Math.log(4)));
+        }
+        if (n <= setsize) {
+            Object[] pool = storage.getCopyOfInternalArray();
+            for (int i = 0; i < k; i++) {
+                int j = randBelow(n - i);
+                result[i] = pool[j];
+                pool[j] = pool[n - i - 1];
+            }
+        } else {
+            BitSet selected = new BitSet(n);
+            for (int i = 0; i < k; i++) {
+                int j = randBelow(n);
+                while (selected.get(j)) {
+                    j = randBelow(n);
+                }
+                selected.set(j);
+                result[i] = storage.getItemNormalized(j);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Chooses {@code k} elements of the storage with replacement, drawing the same numbers as
+     * {@code Random.choices} does. If {@code cumWeights} is not {@code null}, it has one entry per
+     * element.
+     */
+    @TruffleBoundary
+    public Object[] choices(SequenceStorage storage, int k, double[] cumWeights) {
+        int n = storage.length();
+        Object[] result = new Object[k];
+        if (cumWeights == null) {
+            for (int i = 0; i < k; i++) {
+                result[i] = storage.getItemNormalized((int) (nextDouble() * n));
+            }
+        } else {
+            assert cumWeights.length == n;
+            double total = cumWeights[n - 1];
+            for (int i = 0; i < k; i++) {
+                double x = nextDouble() * total;
+                // bisect_right(cumWeights, x, 0, n - 1)
+                int lo = 0;
+                int hi = n - 1;
+                while (lo < hi) {
+                    int mid = (lo + hi) >>> 1;
+                    if (x < cumWeights[mid]) {
+                        hi = mid;
+                    } else {
+                        lo = mid + 1;
+                    }
+                }
+                result[i] = storage.getItemNormalized(lo);
+            }
+        }
+        return result;
     }
 }
@@ -48,15 +48,24 @@ import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.PNotImplemented;
 import com.oracle.graal.python.builtins.objects.common.SequenceNodes.GetObjectArrayNode;
 import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
+import com.oracle.graal.python.nodes.util.CastToJavaLongNode;
+import com.oracle.graal.python.nodes.util.CastToJavaLongNode.CannotCastException;
 import com.oracle.graal.python.runtime.PythonOptions;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
+import com.oracle.graal.python.runtime.sequence.PSequence;
+import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
@@ -66,6 +75,7 @@ import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.dsl.TypeSystemReference;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
 
 @CoreFunctions(extendClasses = PythonBuiltinClassType.PRandom)
 public class RandomBuiltins extends PythonBuiltins {
@@ -82,26 +92,26 @@ public class RandomBuiltins extends PythonBuiltins {
         @Specialization
         @TruffleBoundary
         PNone seed(PRandom random, @SuppressWarnings("unused") PNone none) {
-            random.setSeed(System.currentTimeMillis());
+            random.setSeed(System.currentTimeMillis() * 1000003 ^ System.nanoTime());
             return PNone.NONE;
         }
 
         @Specialization
         PNone seed(PRandom random, long inputSeed) {
-            random.setSeed(inputSeed);
+            // the absolute value; Long.MIN_VALUE stays 2^63 when read as unsigned
+            random.setSeed(inputSeed < 0 ? -inputSeed : inputSeed);
             return PNone.NONE;
         }
 
         @Specialization
         PNone seed(PRandom random, PInt inputSeed) {
-            random.setSeed(inputSeed.longValue());
+            random.setSeed(abs(inputSeed.getValue()));
             return PNone.NONE;
         }
 
-        @Specialization
-        PNone seed(PRandom random, double inputSeed) {
-            random.setSeed((long) ((Long.MAX_VALUE - inputSeed) * 412316924));
-            return PNone.NONE;
+        @TruffleBoundary
+        private static BigInteger abs(BigInteger value) {
+            return value.abs();
         }
 
         @Child PythonObjectLibrary objectLib;
@@ -113,6 +123,7 @@ public class RandomBuiltins extends PythonBuiltins {
                     CompilerDirectives.transferToInterpreterAndInvalidate();
                     objectLib = insert(PythonObjectLibrary.getFactory().createDispatched(PythonOptions.getCallSiteInlineCacheMaxDepth()));
                 }
+                // like CPython, use the hash as an unsigned value
                 long hash = objectLib.hashWithState(inputSeed, PArguments.getThreadState(frame));
                 ((PRandom) random).setSeed(hash);
                 return PNone.NONE;
@@ -128,17 +139,44 @@ public class RandomBuiltins extends PythonBuiltins {
 
         @Specialization
         public PNone setstate(PRandom random, PTuple tuple,
-                        @Cached GetObjectArrayNode getObjectArrayNode) {
+                        @Cached GetObjectArrayNode getObjectArrayNode,
+                        @Cached CastToJavaLongNode castToLongNode) {
             Object[] arr = getObjectArrayNode.execute(tuple);
-            if (arr.length == 1) {
-                Object object = arr[0];
-                if (object instanceof Long) {
-                    random.resetJavaRandom();
-                    random.setSeed((Long) object);
-                    return PNone.NONE;
-                }
+            if (arr.length != PRandom.N + 1) {
+                throw raise(PythonErrorType.ValueError, "state vector is the wrong size");
+            }
+            int[] words = new int[PRandom.N];
+            for (int i = 0; i < PRandom.N; i++) {
+                long word = castToUnsigned(castToLongNode, arr[i]);
+                words[i] = (int) word;
+            }
+            long index = castToLong(castToLongNode, arr[PRandom.N]);
+            if (index < 0 || index > PRandom.N) {
+                throw raise(PythonErrorType.ValueError, "invalid state");
+            }
+            random.setState(words, (int) index);
+            return PNone.NONE;
+        }
+
+        private long castToUnsigned(CastToJavaLongNode castToLongNode, Object value) {
+            long result = castToLong(castToLongNode, value);
+            if (result < 0) {
+                throw raise(PythonErrorType.OverflowError, "can't convert negative value to unsigned int");
+            }
+            return result;
+        }
+
+        private long castToLong(CastToJavaLongNode castToLongNode, Object value) {
+            try {
+                return castToLongNode.execute(value);
+            } catch (CannotCastException e) {
+                throw raise(PythonErrorType.TypeError, "an integer is required (got type %p)", value);
             }
-            throw raise(PythonErrorType.SystemError, "state vector invalid.");
+        }
+
+        @Fallback
+        public PNone setstate(@SuppressWarnings("unused") Object random, @SuppressWarnings("unused") Object state) {
+            throw raise(PythonErrorType.TypeError, "state vector must be a tuple");
         }
     }
 
@@ -147,9 +185,8 @@ public class RandomBuiltins extends PythonBuiltins {
     public abstract static class GetStateNode extends PythonBuiltinNode {
 
         @Specialization
-        @TruffleBoundary
         public PTuple getstate(PRandom random) {
-            return factory().createTuple(new Object[]{random.getSeed()});
+            return factory().createTuple(random.getState());
         }
     }
 
@@ -158,7 +195,6 @@ public class RandomBuiltins extends PythonBuiltins {
     public abstract static class RandomNode extends PythonBuiltinNode {
 
         @Specialization
-        @TruffleBoundary
         public double random(PRandom random) {
             return random.nextDouble();
         }
@@ -168,14 +204,107 @@ public class RandomBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     public abstract static class GetRandBitsNode extends PythonBuiltinNode {
 
-        @TruffleBoundary
-        private static BigInteger createRandomBits(PRandom random, int k) {
-            return new BigInteger(k, random.getJavaRandom());
+        @Specialization(guards = {"k > 0", "k < 64"})
+        public long getrandbitsLong(PRandom random, int k) {
+            return random.nextBits(k);
+        }
+
+        @Specialization(replaces = "getrandbitsLong")
+        public Object getrandbits(VirtualFrame frame, PRandom random, Object k,
+                        @CachedLibrary(limit = "1") PythonObjectLibrary lib) {
+            int bits = lib.asSizeWithState(k, PArguments.getThreadState(frame));
+            if (bits <= 0) {
+                throw raise(PythonErrorType.ValueError, "number of bits must be greater than zero");
+            } else if (bits < 64) {
+                return random.nextBits(bits);
+            }
+            return factory().createInt(random.nextBigBits(bits));
         }
+    }
+
+    /**
+     * Shuffles a list in place like {@code Random.shuffle} with the built-in {@code getrandbits}.
+     */
+    @Builtin(name = "_shuffle", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class ShuffleNode extends PythonBuiltinNode {
 
         @Specialization
-        public PInt getrandbits(PRandom random, int k) {
-            return factory().createInt(createRandomBits(random, k));
+        public PNone shuffle(PRandom random, PList list) {
+            random.shuffle(list.getSequenceStorage());
+            return PNone.NONE;
+        }
+    }
+
+    /**
+     * Draws {@code k} distinct elements of a list or tuple like {@code Random.sample} with the
+     * built-in {@code getrandbits}. The caller checks that {@code 0 <= k <= len(population)}.
+     */
+    @Builtin(name = "_sample", minNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    public abstract static class SampleNode extends PythonBuiltinNode {
+
+        @Specialization(guards = "isList(population) || isPTuple(population)")
+        public PList sample(VirtualFrame frame, PRandom random, PSequence population, Object k,
+                        @CachedLibrary(limit = "1") PythonObjectLibrary lib) {
+            int size = lib.asSizeWithState(k, PArguments.getThreadState(frame));
+            return factory().createList(random.sample(population.getSequenceStorage(), size));
+        }
+    }
+
+    /**
+     * Draws {@code k} elements of a non-empty list or tuple like {@code Random.choices} with the
+     * built-in {@code random}, optionally weighted by a list of cumulative weights of the same
+     * length. Returns {@code NotImplemented} if the weights are not all ints or floats that can be
+     * compared exactly as Java doubles.
+     */
+    @Builtin(name = "_choices", minNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    public abstract static class ChoicesNode extends PythonBuiltinNode {
+
+        private static final long MAX_EXACT_DOUBLE = 1L << 53;
+
+        @Specialization(guards = "isList(population) || isPTuple(population)")
+        public PList choices(VirtualFrame frame, PRandom random, PSequence population, Object k, @SuppressWarnings("unused") PNone cumWeights,
+                        @CachedLibrary(limit = "1") PythonObjectLibrary lib) {
+            int size = lib.asSizeWithState(k, PArguments.getThreadState(frame));
+            return factory().createList(random.choices(population.getSequenceStorage(), Math.max(size, 0), null));
+        }
+
+        @Specialization(guards = "isList(population) || isPTuple(population)")
+        public Object choices(VirtualFrame frame, PRandom random, PSequence population, Object k, PList cumWeights,
+                        @CachedLibrary(limit = "1") PythonObjectLibrary lib) {
+            double[] weights = toDoubles(cumWeights.getSequenceStorage());
+            if (weights == null) {
+                return PNotImplemented.NOT_IMPLEMENTED;
+            }
+            int size = lib.asSizeWithState(k, PArguments.getThreadState(frame));
+            return factory().createList(random.choices(population.getSequenceStorage(), Math.max(size, 0), weights));
+        }
+
+        @TruffleBoundary
+        private static double[] toDoubles(SequenceStorage storage) {
+            int n = storage.length();
+            double[] result = new double[n];
+            if (storage instanceof DoubleSequenceStorage) {
+                System.arraycopy(((DoubleSequenceStorage) storage).getInternalDoubleArray(), 0, result, 0, n);
+            } else if (storage instanceof IntSequenceStorage) {
+                int[] values = ((IntSequenceStorage) storage).getInternalIntArray();
+                for (int i = 0; i < n; i++) {
+                    result[i] = values[i];
+                }
+            } else if (storage instanceof LongSequenceStorage) {
+                long[] values = ((LongSequenceStorage) storage).getInternalLongArray();
+                for (int i = 0; i < n; i++) {
+                    if (values[i] > MAX_EXACT_DOUBLE || values[i] < -MAX_EXACT_DOUBLE) {
+                        return null;
+                    }
+                    result[i] = values[i];
+                }
+            } else {
+                return null;
+            }
+            return result;
         }
     }
 }
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.select;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.RuntimeError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+import static com.oracle.graal.python.builtins.objects.select.PollBuiltins.CONCURRENT_POLL;
+import static com.oracle.graal.python.builtins.objects.select.PollBuiltins.toList;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ENTER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EXIT__;
+
+import java.io.IOException;
+import java.nio.channels.Channel;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToJavaIntNode;
+import com.oracle.graal.python.nodes.util.CoerceToDoubleNode;
+import com.oracle.graal.python.nodes.util.CoerceToFileDescriptorNode;
+import com.oracle.graal.python.nodes.util.CoerceToJavaLongNode;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+/**
+ * Builtins of {@code select.epoll}, which shares its implementation with {@code select.poll}. Edge
+ * triggered mode ({@code EPOLLET}) is not available with Java selectors, such registrations are
+ * level triggered.
+ */
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PEpoll)
+public class EpollBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return EpollBuiltinsFactory.getFactories();
+    }
+
+    static void checkOpen(PythonBuiltinBaseNode node, PPoll self) {
+        if (self.isClosed()) {
+            throw node.raise(ValueError, "I/O operation on closed epoll object");
+        }
+    }
+
+    static int getEvents(CoerceToJavaLongNode coerceToLongNode, Object eventmask) {
+        if (PGuards.isNoValue(eventmask)) {
+            return PollBuiltins.DEFAULT_EVENTS;
+        }
+        // the mask is an unsigned int, 'EPOLLET' does not fit into a Java int
+        return (int) coerceToLongNode.execute(eventmask);
+    }
+
+    @Builtin(name = "register", minNumOfPositionalArgs = 2, parameterNames = {"$self", "fd", "eventmask"})
+    @GenerateNodeFactory
+    public abstract static class EpollRegisterNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        Object register(VirtualFrame frame, PPoll self, Object fd, Object eventmask,
+                        @Cached CoerceToFileDescriptorNode coerceToFDNode,
+                        @Cached CoerceToJavaLongNode coerceToLongNode) {
+            checkOpen(this, self);
+            int fdInt = coerceToFDNode.execute(frame, fd);
+            int events = getEvents(coerceToLongNode, eventmask);
+            Channel channel = getContext().getResources().getFileChannel(fdInt);
+            if (channel == null) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF);
+            }
+            if (self.isRegistered(fdInt)) {
+                throw raiseOSError(frame, OSErrorEnum.EEXIST);
+            }
+            self.register(fdInt, channel, events);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "modify", minNumOfPositionalArgs = 3, parameterNames = {"$self", "fd", "eventmask"})
+    @GenerateNodeFactory
+    public abstract static class EpollModifyNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        Object modify(VirtualFrame frame, PPoll self, Object fd, Object eventmask,
+                        @Cached CoerceToFileDescriptorNode coerceToFDNode,
+                        @Cached CoerceToJavaLongNode coerceToLongNode) {
+            checkOpen(this, self);
+            int fdInt = coerceToFDNode.execute(frame, fd);
+            if (!self.modify(fdInt, getEvents(coerceToLongNode, eventmask))) {
+                throw raiseOSError(frame, OSErrorEnum.ENOENT);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "unregister", minNumOfPositionalArgs = 2, parameterNames = {"$self", "fd"})
+    @GenerateNodeFactory
+    public abstract static class EpollUnregisterNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        Object unregister(VirtualFrame frame, PPoll self, Object fd,
+                        @Cached CoerceToFileDescriptorNode coerceToFDNode) {
+            checkOpen(this, self);
+            if (!self.unregister(coerceToFDNode.execute(frame, fd))) {
+                throw raiseOSError(frame, OSErrorEnum.ENOENT);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "poll", minNumOfPositionalArgs = 1, parameterNames = {"$self", "timeout", "maxevents"})
+    @GenerateNodeFactory
+    public abstract static class EpollPollNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PList poll(VirtualFrame frame, PPoll self, Object timeout, Object maxevents,
+                        @Cached CoerceToDoubleNode coerceToDoubleNode,
+                        @Cached CastToJavaIntNode castToIntNode) {
+            checkOpen(this, self);
+            // the timeout is given in seconds, None or a negative value blocks indefinitely
+            long timeoutMillis = -1;
+            if (!PGuards.isPNone(timeout)) {
+                double seconds = coerceToDoubleNode.execute(frame, timeout);
+                if (seconds >= 0) {
+                    timeoutMillis = (long) Math.ceil(seconds * 1000.0);
+                }
+            }
+            int maxEvents = Integer.MAX_VALUE;
+            if (!PGuards.isNoValue(maxevents)) {
+                int value = castToIntNode.execute(maxevents);
+                if (value == 0 || value < -1) {
+                    throw raise(ValueError, "maxevents must be greater than 0, got %d", value);
+                } else if (value > 0) {
+                    maxEvents = value;
+                }
+            }
+            int[] ready;
+            PythonContext context = getContext();
+            boolean releasedGil = context.releaseGil();
+            try {
+                ready = self.poll(timeoutMillis, maxEvents, false);
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            } finally {
+                context.reacquireGil(releasedGil);
+            }
+            if (ready == null) {
+                throw raise(RuntimeError, CONCURRENT_POLL);
+            }
+            return toList(factory(), ready);
+        }
+    }
+
+    @Builtin(name = "close", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class EpollCloseNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        Object close(VirtualFrame frame, PPoll self) {
+            try {
+                self.close();
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "closed", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class EpollClosedNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        boolean closed(PPoll self) {
+            return self.isClosed();
+        }
+    }
+
+    @Builtin(name = __ENTER__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class EpollEnterNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        PPoll enter(PPoll self) {
+            checkOpen(this, self);
+            return self;
+        }
+    }
+
+    @Builtin(name = __EXIT__, minNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    public abstract static class EpollExitNode extends PythonBuiltinNode {
+
+        @Specialization
+        Object exit(VirtualFrame frame, PPoll self, @SuppressWarnings("unused") Object type, @SuppressWarnings("unused") Object value, @SuppressWarnings("unused") Object traceback) {
+            try {
+                self.close();
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            }
+            return PNone.NONE;
+        }
+    }
+}
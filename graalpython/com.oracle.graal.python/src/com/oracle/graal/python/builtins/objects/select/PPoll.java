@@ -0,0 +1,457 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.select;
+
+import java.io.IOException;
+import java.nio.channels.Channel;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.socket.PSocket;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * The state of a {@code select.poll} or {@code select.epoll} object. Registrations are kept in a
+ * map from file descriptor to {@link Registration} and are only transferred to the long-lived
+ * {@link Selector} when the object is polled, so that registering, modifying and unregistering
+ * file descriptors is cheap and never blocks on a concurrent {@link #poll}.
+ *
+ * Channels that cannot be registered with a selector (regular files, blocking sockets and
+ * channels, or sockets that are not connected yet) are always reported as ready for the requested
+ * input and output events. This is the same approximation that {@code select.select} uses for
+ * such channels.
+ */
+public final class PPoll extends PythonBuiltinObject {
+
+    // the poll and epoll event bits have the same values
+    public static final int POLLIN = 0x001;
+    public static final int POLLPRI = 0x002;
+    public static final int POLLOUT = 0x004;
+    public static final int POLLERR = 0x008;
+    public static final int POLLHUP = 0x010;
+    public static final int POLLNVAL = 0x020;
+    public static final int POLLRDNORM = 0x040;
+    public static final int POLLRDBAND = 0x080;
+    public static final int POLLWRNORM = 0x100;
+    public static final int POLLWRBAND = 0x200;
+    public static final int POLLMSG = 0x400;
+    public static final int POLLRDHUP = 0x2000;
+
+    public static final int EPOLLEXCLUSIVE = 1 << 28;
+    public static final int EPOLLONESHOT = 1 << 30;
+    public static final int EPOLLET = 1 << 31;
+    public static final int EPOLL_CLOEXEC = 0x80000;
+
+    private static final int INPUT_EVENTS = POLLIN | POLLPRI | POLLRDNORM | POLLRDBAND;
+    private static final int OUTPUT_EVENTS = POLLOUT | POLLWRNORM | POLLWRBAND;
+
+    static final class Registration {
+        private final int fd;
+        /** The channel from the file descriptor table, or {@code null} for an invalid fd. */
+        private final Channel source;
+        private int events;
+        private boolean removed;
+        private boolean dirty;
+        /** Ready in the last poll, but not reported because of the maximum number of events. */
+        private boolean deferred;
+        private int readyEvents;
+        private SelectionKey key;
+
+        Registration(int fd, Channel source, int events) {
+            this.fd = fd;
+            this.source = source;
+            this.events = events;
+        }
+    }
+
+    private final HashMap<Integer, Registration> registrations = new HashMap<>();
+    /** Registrations changed since the last {@link #poll}, in the order of the changes. */
+    private final ArrayList<Registration> pending = new ArrayList<>();
+    /** Registrations that could not be attached to the selector. */
+    private final LinkedHashSet<Registration> unattached = new LinkedHashSet<>();
+    /** Registrations that were left out of the last result. */
+    private final ArrayList<Registration> deferred = new ArrayList<>();
+
+    private Selector selector;
+    private boolean polling;
+    private boolean changedWhilePolling;
+    private boolean closed;
+
+    public PPoll(LazyPythonClass cls) {
+        super(cls);
+    }
+
+    @TruffleBoundary
+    public synchronized boolean isRegistered(int fd) {
+        return registrations.containsKey(fd);
+    }
+
+    /**
+     * Registers {@code fd} or replaces its current registration.
+     */
+    @TruffleBoundary
+    public synchronized void register(int fd, Channel source, int events) {
+        Registration previous = registrations.get(fd);
+        if (previous != null && previous.source == source) {
+            previous.events = events;
+            markPending(previous);
+            return;
+        }
+        if (previous != null) {
+            previous.removed = true;
+            markPending(previous);
+        }
+        Registration registration = new Registration(fd, source, events);
+        registrations.put(fd, registration);
+        markPending(registration);
+    }
+
+    @TruffleBoundary
+    public synchronized boolean modify(int fd, int events) {
+        Registration registration = registrations.get(fd);
+        if (registration == null) {
+            return false;
+        }
+        registration.events = events;
+        markPending(registration);
+        return true;
+    }
+
+    @TruffleBoundary
+    public synchronized boolean unregister(int fd) {
+        Registration registration = registrations.remove(fd);
+        if (registration == null) {
+            return false;
+        }
+        registration.removed = true;
+        if (!polling && registration.key != null) {
+            // deregister right away, so that the channel can be put into blocking mode again
+            registration.key.cancel();
+            registration.key = null;
+            unattached.remove(registration);
+            try {
+                selector.selectNow();
+                selector.selectedKeys().clear();
+            } catch (IOException e) {
+                // the cancelled key is flushed by the next poll
+            }
+            return true;
+        }
+        markPending(registration);
+        return true;
+    }
+
+    private void markPending(Registration registration) {
+        if (!registration.dirty) {
+            registration.dirty = true;
+            pending.add(registration);
+        }
+        if (polling) {
+            // let the polling thread pick up the change
+            changedWhilePolling = true;
+            selector.wakeup();
+        }
+    }
+
+    @TruffleBoundary
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    @TruffleBoundary
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            registrations.clear();
+            pending.clear();
+            unattached.clear();
+            deferred.clear();
+            if (selector != null) {
+                // this also wakes up a concurrent poll
+                selector.close();
+            }
+        }
+    }
+
+    /**
+     * Waits until at least one of the registered file descriptors is ready or the timeout expires.
+     * A negative timeout waits indefinitely, a zero timeout does not block at all. The result
+     * contains pairs of a file descriptor and its ready events, for at most {@code maxEvents} file
+     * descriptors. If {@code reportInvalid} is set, closed file descriptors are reported with
+     * {@link #POLLNVAL} (poll semantics), otherwise they are skipped (epoll semantics). Returns
+     * {@code null} if another thread is already polling this object.
+     */
+    @TruffleBoundary
+    public int[] poll(long timeoutMillis, int maxEvents, boolean reportInvalid) throws IOException {
+        Selector sel;
+        synchronized (this) {
+            if (selector == null) {
+                selector = Selector.open();
+            }
+            if (polling) {
+                return null;
+            }
+            sel = selector;
+            polling = true;
+        }
+        try {
+            long deadline = timeoutMillis > 0 ? System.nanoTime() + timeoutMillis * 1000000L : 0;
+            while (true) {
+                boolean mayBlock;
+                synchronized (this) {
+                    changedWhilePolling = false;
+                    applyPending();
+                    mayBlock = unattached.isEmpty();
+                }
+                boolean timedOut = false;
+                if (!mayBlock || timeoutMillis == 0) {
+                    sel.selectNow();
+                    timedOut = true;
+                } else if (timeoutMillis < 0) {
+                    sel.select();
+                } else {
+                    long remaining = (deadline - System.nanoTime()) / 1000000L;
+                    if (remaining <= 0) {
+                        sel.selectNow();
+                        timedOut = true;
+                    } else {
+                        sel.select(remaining);
+                    }
+                }
+                synchronized (this) {
+                    int[] result = collectEvents(sel, maxEvents, reportInvalid);
+                    if (result.length > 0 || timedOut || !changedWhilePolling) {
+                        return result;
+                    }
+                }
+            }
+        } catch (ClosedSelectorException e) {
+            // closed concurrently
+            return new int[0];
+        } finally {
+            synchronized (this) {
+                polling = false;
+            }
+        }
+    }
+
+    private void applyPending() throws IOException {
+        if (pending.isEmpty() && unattached.isEmpty()) {
+            return;
+        }
+        // cancel keys first; a cancelled key is only removed from the selector during the next
+        // selection operation and its channel cannot be registered again before that
+        boolean cancelled = false;
+        for (Registration registration : pending) {
+            if (registration.removed) {
+                unattached.remove(registration);
+                if (registration.key != null) {
+                    registration.key.cancel();
+                    registration.key = null;
+                    cancelled = true;
+                }
+            }
+        }
+        if (cancelled) {
+            selector.selectNow();
+            selector.selectedKeys().clear();
+        }
+        for (Registration registration : pending) {
+            registration.dirty = false;
+            if (!registration.removed) {
+                attach(registration);
+            }
+        }
+        pending.clear();
+        if (!unattached.isEmpty()) {
+            // sockets may have been connected or switched to non-blocking mode in the meantime
+            Registration[] retry = unattached.toArray(new Registration[0]);
+            for (Registration registration : retry) {
+                attach(registration);
+            }
+        }
+    }
+
+    private void attach(Registration registration) throws IOException {
+        SelectableChannel channel = getSelectableChannel(registration.source);
+        SelectionKey key = registration.key;
+        if (key != null && (!key.isValid() || key.channel() != channel)) {
+            key.cancel();
+            key = registration.key = null;
+        }
+        if (channel == null || !channel.isOpen() || channel.isBlocking()) {
+            unattached.add(registration);
+            return;
+        }
+        int ops = getInterestOps(registration.events, channel);
+        if (key != null) {
+            key.interestOps(ops);
+        } else {
+            registration.key = channel.register(selector, ops, registration);
+        }
+        unattached.remove(registration);
+    }
+
+    private int[] collectEvents(Selector sel, int maxEvents, boolean reportInvalid) {
+        for (Registration registration : deferred) {
+            registration.readyEvents = 0;
+        }
+        ArrayList<Registration> fresh = new ArrayList<>();
+        Iterator<SelectionKey> it = sel.selectedKeys().iterator();
+        while (it.hasNext()) {
+            SelectionKey key = it.next();
+            it.remove();
+            Registration registration = (Registration) key.attachment();
+            if (registration.removed || !key.isValid()) {
+                continue;
+            }
+            int events = getReadyEvents(key.readyOps()) & registration.events;
+            if (events != 0) {
+                registration.readyEvents = events;
+                if (!registration.deferred) {
+                    fresh.add(registration);
+                }
+            }
+        }
+        for (Registration registration : unattached) {
+            int events;
+            if (isClosed(registration.source)) {
+                events = reportInvalid ? POLLNVAL : 0;
+            } else {
+                events = registration.events & (POLLIN | POLLRDNORM | POLLOUT | POLLWRNORM);
+            }
+            if (events != 0) {
+                registration.readyEvents = events;
+                if (!registration.deferred) {
+                    fresh.add(registration);
+                }
+            }
+        }
+        // registrations that were ready but did not fit into the previous result are reported
+        // first and in the same order, like the kernel rotates its ready list, so that maxevents
+        // cannot starve them
+        ArrayList<Registration> ready = new ArrayList<>(deferred.size() + fresh.size());
+        for (Registration registration : deferred) {
+            registration.deferred = false;
+            if (registration.readyEvents != 0 && !registration.removed) {
+                ready.add(registration);
+            }
+        }
+        ready.addAll(fresh);
+        deferred.clear();
+        int count = Math.min(ready.size(), maxEvents);
+        int[] result = new int[count * 2];
+        for (int i = 0; i < count; i++) {
+            Registration registration = ready.get(i);
+            result[i * 2] = registration.fd;
+            result[i * 2 + 1] = registration.readyEvents;
+            if ((registration.events & EPOLLONESHOT) != 0) {
+                registration.events = 0;
+                if (registration.key != null && registration.key.isValid()) {
+                    registration.key.interestOps(0);
+                }
+            }
+        }
+        // the rest is still ready, the selector is level-triggered and selects them again
+        for (int i = count; i < ready.size(); i++) {
+            Registration registration = ready.get(i);
+            registration.deferred = true;
+            deferred.add(registration);
+        }
+        return result;
+    }
+
+    private static SelectableChannel getSelectableChannel(Channel source) {
+        if (source instanceof SelectableChannel) {
+            return (SelectableChannel) source;
+        } else if (source instanceof PSocket) {
+            PSocket socket = (PSocket) source;
+            return socket.getSocket() != null ? socket.getSocket() : socket.getServerSocket();
+        }
+        return null;
+    }
+
+    private static boolean isClosed(Channel source) {
+        if (source == null) {
+            return true;
+        }
+        SelectableChannel channel = getSelectableChannel(source);
+        if (channel != null) {
+            return !channel.isOpen();
+        }
+        // a socket without a channel is not connected yet
+        return !(source instanceof PSocket) && !source.isOpen();
+    }
+
+    private static int getInterestOps(int events, SelectableChannel channel) {
+        int ops = 0;
+        if ((events & INPUT_EVENTS) != 0) {
+            ops |= SelectionKey.OP_READ | SelectionKey.OP_ACCEPT;
+        }
+        if ((events & OUTPUT_EVENTS) != 0) {
+            ops |= SelectionKey.OP_WRITE;
+            if (channel instanceof SocketChannel && ((SocketChannel) channel).isConnectionPending()) {
+                ops |= SelectionKey.OP_CONNECT;
+            }
+        }
+        return ops & channel.validOps();
+    }
+
+    private static int getReadyEvents(int readyOps) {
+        int events = 0;
+        if ((readyOps & (SelectionKey.OP_READ | SelectionKey.OP_ACCEPT)) != 0) {
+            events |= POLLIN | POLLRDNORM;
+        }
+        if ((readyOps & (SelectionKey.OP_WRITE | SelectionKey.OP_CONNECT)) != 0) {
+            events |= POLLOUT | POLLWRNORM;
+        }
+        return events;
+    }
+}
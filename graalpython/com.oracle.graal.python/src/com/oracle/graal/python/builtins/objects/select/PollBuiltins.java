@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.select;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.KeyError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.OverflowError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.RuntimeError;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToJavaIntNode;
+import com.oracle.graal.python.nodes.util.CoerceToDoubleNode;
+import com.oracle.graal.python.nodes.util.CoerceToFileDescriptorNode;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PPoll)
+public class PollBuiltins extends PythonBuiltins {
+
+    static final int DEFAULT_EVENTS = PPoll.POLLIN | PPoll.POLLPRI | PPoll.POLLOUT;
+
+    static final String CONCURRENT_POLL = "concurrent poll() invocation";
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return PollBuiltinsFactory.getFactories();
+    }
+
+    static int getEvents(PythonBuiltinBaseNode node, CastToJavaIntNode castToIntNode, Object eventmask) {
+        if (PGuards.isNoValue(eventmask)) {
+            return DEFAULT_EVENTS;
+        }
+        int events = castToIntNode.execute(eventmask);
+        if (events < 0 || events > 0xFFFF) {
+            throw node.raise(OverflowError, "Python int too large for C unsigned short");
+        }
+        return events;
+    }
+
+    /**
+     * Converts the result of {@link PPoll#poll} to a list of {@code (fd, events)} tuples.
+     */
+    static PList toList(PythonObjectFactory factory, int[] ready) {
+        Object[] items = new Object[ready.length / 2];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = factory.createTuple(new Object[]{ready[2 * i], ready[2 * i + 1]});
+        }
+        return factory.createList(items);
+    }
+
+    @Builtin(name = "register", minNumOfPositionalArgs = 2, parameterNames = {"$self", "fd", "eventmask"})
+    @GenerateNodeFactory
+    public abstract static class PollRegisterNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        Object register(VirtualFrame frame, PPoll self, Object fd, Object eventmask,
+                        @Cached CoerceToFileDescriptorNode coerceToFDNode,
+                        @Cached CastToJavaIntNode castToIntNode) {
+            int fdInt = coerceToFDNode.execute(frame, fd);
+            int events = getEvents(this, castToIntNode, eventmask);
+            // an unknown fd is not an error for poll, it is reported with POLLNVAL instead
+            self.register(fdInt, getContext().getResources().getFileChannel(fdInt), events);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "modify", minNumOfPositionalArgs = 3, parameterNames = {"$self", "fd", "eventmask"})
+    @GenerateNodeFactory
+    public abstract static class PollModifyNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        Object modify(VirtualFrame frame, PPoll self, Object fd, Object eventmask,
+                        @Cached CoerceToFileDescriptorNode coerceToFDNode,
+                        @Cached CastToJavaIntNode castToIntNode) {
+            int fdInt = coerceToFDNode.execute(frame, fd);
+            if (!self.modify(fdInt, getEvents(this, castToIntNode, eventmask))) {
+                throw raiseOSError(frame, OSErrorEnum.ENOENT);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "unregister", minNumOfPositionalArgs = 2, parameterNames = {"$self", "fd"})
+    @GenerateNodeFactory
+    public abstract static class PollUnregisterNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        Object unregister(VirtualFrame frame, PPoll self, Object fd,
+                        @Cached CoerceToFileDescriptorNode coerceToFDNode) {
+            int fdInt = coerceToFDNode.execute(frame, fd);
+            if (!self.unregister(fdInt)) {
+                throw raise(KeyError, "%d", fdInt);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "poll", minNumOfPositionalArgs = 1, parameterNames = {"$self", "timeout"})
+    @GenerateNodeFactory
+    public abstract static class PollPollNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        PList poll(VirtualFrame frame, PPoll self, Object timeout,
+                        @Cached CoerceToDoubleNode coerceToDoubleNode) {
+            // the timeout is given in milliseconds, None or a negative value blocks indefinitely
+            long timeoutMillis = -1;
+            if (!PGuards.isPNone(timeout)) {
+                double millis = coerceToDoubleNode.execute(frame, timeout);
+                if (millis >= 0) {
+                    timeoutMillis = (long) Math.ceil(millis);
+                }
+            }
+            int[] ready;
+            PythonContext context = getContext();
+            boolean releasedGil = context.releaseGil();
+            try {
+                ready = self.poll(timeoutMillis, Integer.MAX_VALUE, true);
+            } catch (IOException e) {
+                throw raiseOSError(frame, e);
+            } finally {
+                context.reacquireGil(releasedGil);
+            }
+            if (ready == null) {
+                throw raise(RuntimeError, CONCURRENT_POLL);
+            }
+            return toList(factory(), ready);
+        }
+    }
+}
@@ -109,7 +109,8 @@ public class PSocket extends PythonBuiltinObject implements Channel {
     private SocketChannel socket;
 
     private ServerSocketChannel serverSocket;
-    private boolean blocking;
+    // like in CPython, sockets are created in blocking mode
+    private boolean blocking = true;
 
     private HashMap<Object, Object> options;
 
@@ -52,6 +52,7 @@ import java.nio.channels.SocketChannel;
 import java.util.Arrays;
 import java.util.List;
 
+import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
@@ -75,6 +76,7 @@ import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -103,7 +105,14 @@ public class SocketBuiltins extends PythonBuiltins {
         @TruffleBoundary
         Object accept(PSocket socket) {
             try {
-                SocketChannel acceptSocket = socket.getServerSocket().accept();
+                PythonContext context = getContext();
+                boolean releasedGil = context.releaseGil();
+                SocketChannel acceptSocket;
+                try {
+                    acceptSocket = socket.getServerSocket().accept();
+                } finally {
+                    context.reacquireGil(releasedGil);
+                }
                 if (acceptSocket == null) {
                     throw raise(PythonBuiltinClassType.OSError);
                 }
@@ -197,7 +206,13 @@ public class SocketBuiltins extends PythonBuiltins {
         private static void doConnect(PSocket socket, Object[] hostAndPort) throws IOException {
             InetSocketAddress socketAddress = new InetSocketAddress((String) hostAndPort[0], (Integer) hostAndPort[1]);
             SocketChannel channel = SocketChannel.open();
-            channel.connect(socketAddress);
+            PythonContext context = PythonLanguage.getContext();
+            boolean releasedGil = context.releaseGil();
+            try {
+                channel.connect(socketAddress);
+            } finally {
+                context.reacquireGil(releasedGil);
+            }
             socket.setSocket(channel);
         }
     }
@@ -342,8 +357,15 @@ public class SocketBuiltins extends PythonBuiltins {
         PBytes recv(PSocket socket, int bufsize, PNone flags) {
             SocketChannel nativeSocket = socket.getSocket();
             ByteBuffer readBytes = ByteBuffer.allocate(bufsize);
+            PythonContext context = getContext();
             try {
-                int length = nativeSocket.read(readBytes);
+                int length;
+                boolean releasedGil = context.releaseGil();
+                try {
+                    length = nativeSocket.read(readBytes);
+                } finally {
+                    context.reacquireGil(releasedGil);
+                }
                 return factory().createBytes(Arrays.copyOfRange(readBytes.array(), 0, length));
             } catch (IOException | NullPointerException e) {
                 throw raise(PythonBuiltinClassType.OSError);
@@ -439,7 +461,13 @@ public class SocketBuiltins extends PythonBuiltins {
         @TruffleBoundary
         private static int fillBuffer(PSocket socket, ByteBuffer byteBuffer) throws IOException {
             SocketChannel nativeSocket = socket.getSocket();
-            return nativeSocket.read(byteBuffer);
+            PythonContext context = PythonLanguage.getContext();
+            boolean releasedGil = context.releaseGil();
+            try {
+                return nativeSocket.read(byteBuffer);
+            } finally {
+                context.reacquireGil(releasedGil);
+            }
         }
     }
 
@@ -492,7 +520,13 @@ public class SocketBuiltins extends PythonBuiltins {
 
     @TruffleBoundary
     private static void doWrite(PSocket socket, ByteBuffer buffer) throws IOException {
-        socket.getSocket().write(buffer);
+        PythonContext context = PythonLanguage.getContext();
+        boolean releasedGil = context.releaseGil();
+        try {
+            socket.getSocket().write(buffer);
+        } finally {
+            context.reacquireGil(releasedGil);
+        }
     }
 
     // sendall(bytes[, flags])
@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.str;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A string that only contains characters in the range {@code U+0000..U+00FF} and stores them in
+ * one byte each, similar to CPython's {@code PyUnicode_1BYTE_KIND} strings. Such strings are
+ * created when decoding ASCII or Latin-1 data and can be searched, split, replaced, encoded,
+ * hashed, and handed to native code without widening them to a Java {@link String} first.
+ *
+ * The sequence does not cache its materialized form; {@link PString} replaces it with the
+ * materialized {@link String}, so that only one copy of the characters is kept.
+ */
+public final class Latin1CharSequence implements PCharSequence {
+
+    private static final byte ASCII_UNKNOWN = 0;
+    private static final byte ASCII = 1;
+    private static final byte NON_ASCII = 2;
+
+    private final byte[] bytes;
+    private byte asciiState;
+    private int hash;
+
+    /**
+     * Creates a sequence that takes ownership of {@code bytes}; the array must not be modified
+     * afterwards.
+     */
+    public Latin1CharSequence(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    private Latin1CharSequence(byte[] bytes, byte asciiState) {
+        this.bytes = bytes;
+        this.asciiState = asciiState;
+    }
+
+    /**
+     * Returns the internal storage. Callers must not modify the returned array.
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public boolean isAscii() {
+        if (asciiState == ASCII_UNKNOWN) {
+            asciiState = isAscii(bytes, bytes.length) ? ASCII : NON_ASCII;
+        }
+        return asciiState == ASCII;
+    }
+
+    public static boolean isAscii(byte[] data, int length) {
+        for (int i = 0; i < length; i++) {
+            if (data[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int length() {
+        return bytes.length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (bytes[index] & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new Latin1CharSequence(Arrays.copyOfRange(bytes, start, end), asciiState == ASCII ? ASCII : ASCII_UNKNOWN);
+    }
+
+    @Override
+    public boolean isMaterialized() {
+        return false;
+    }
+
+    @Override
+    @TruffleBoundary
+    public String materialize() {
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public String toString() {
+        return materialize();
+    }
+
+    /**
+     * Computes the same value as {@link String#hashCode()} would for the equivalent string, so
+     * that a {@link PString} has the same hash in both representations.
+     */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            for (int i = 0; i < bytes.length; i++) {
+                h = 31 * h + (bytes[i] & 0xFF);
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+     * Only another Latin-1 sequence with the same characters is equal, because
+     * {@link String#equals(Object)} cannot be made to return {@code true} for this class. Use
+     * {@link #contentEquals(Object)} to compare with a {@link String}.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Latin1CharSequence && Arrays.equals(bytes, ((Latin1CharSequence) obj).bytes);
+    }
+
+    /**
+     * Compares the characters with those of another Latin-1 sequence or a {@link String}.
+     */
+    public boolean contentEquals(Object obj) {
+        if (obj instanceof Latin1CharSequence) {
+            return Arrays.equals(bytes, ((Latin1CharSequence) obj).bytes);
+        } else if (obj instanceof String) {
+            String other = (String) obj;
+            if (other.length() != bytes.length) {
+                return false;
+            }
+            for (int i = 0; i < bytes.length; i++) {
+                if (other.charAt(i) != (char) (bytes[i] & 0xFF)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Converts {@code s} to Latin-1 bytes or returns {@code null} if it contains a character that
+     * does not fit into one byte.
+     */
+    public static byte[] toLatin1(String s) {
+        byte[] result = new byte[s.length()];
+        for (int i = 0; i < result.length; i++) {
+            char c = s.charAt(i);
+            if (c > 0xFF) {
+                return null;
+            }
+            result[i] = (byte) c;
+        }
+        return result;
+    }
+
+    /**
+     * Same as {@link String#indexOf(String, int)}.
+     */
+    @TruffleBoundary
+    public int indexOf(String sub, int fromIndex) {
+        int from = Math.max(fromIndex, 0);
+        if (sub.isEmpty()) {
+            return Math.min(from, bytes.length);
+        }
+        byte[] needle = toLatin1(sub);
+        if (needle == null) {
+            return -1;
+        }
+        return indexOf(bytes, needle, from);
+    }
+
+    /**
+     * Like {@link #indexOf(String, int)} for a non-empty needle already converted with
+     * {@link #toLatin1(String)}.
+     */
+    @TruffleBoundary
+    public int indexOf(byte[] needle, int fromIndex) {
+        return indexOf(bytes, needle, Math.max(fromIndex, 0));
+    }
+
+    private static int indexOf(byte[] haystack, byte[] needle, int from) {
+        byte first = needle[0];
+        int max = haystack.length - needle.length;
+        for (int i = from; i <= max; i++) {
+            if (haystack[i] == first && regionMatches(haystack, i, needle)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Same as {@link String#lastIndexOf(String, int)}.
+     */
+    @TruffleBoundary
+    public int lastIndexOf(String sub, int fromIndex) {
+        byte[] needle = toLatin1(sub);
+        if (needle == null) {
+            return -1;
+        }
+        for (int i = Math.min(fromIndex, bytes.length - needle.length); i >= 0; i--) {
+            if (regionMatches(bytes, i, needle)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(byte[] haystack, int offset, byte[] needle) {
+        for (int j = 0; j < needle.length; j++) {
+            if (haystack[offset + j] != needle[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the first {@code maxCount} (or all, if negative) occurrences of {@code old} with
+     * {@code with}. Returns {@code this} if nothing was replaced and {@code null} if the result
+     * cannot be represented in Latin-1 or {@code old} is empty, in which case the caller has to
+     * use the generic implementation.
+     */
+    @TruffleBoundary
+    public Latin1CharSequence replace(String old, String with, int maxCount) {
+        if (old.isEmpty()) {
+            return null;
+        }
+        byte[] needle = toLatin1(old);
+        if (needle == null || maxCount == 0) {
+            return this;
+        }
+        int limit = maxCount < 0 ? Integer.MAX_VALUE : maxCount;
+        int count = 0;
+        for (int idx = indexOf(bytes, needle, 0); idx != -1 && count < limit; idx = indexOf(bytes, needle, idx + needle.length)) {
+            count++;
+        }
+        if (count == 0) {
+            return this;
+        }
+        byte[] replacement = toLatin1(with);
+        if (replacement == null) {
+            return null;
+        }
+        byte[] result = new byte[bytes.length + count * (replacement.length - needle.length)];
+        int src = 0;
+        int dst = 0;
+        for (int i = 0; i < count; i++) {
+            int idx = indexOf(bytes, needle, src);
+            System.arraycopy(bytes, src, result, dst, idx - src);
+            dst += idx - src;
+            System.arraycopy(replacement, 0, result, dst, replacement.length);
+            dst += replacement.length;
+            src = idx + needle.length;
+        }
+        System.arraycopy(bytes, src, result, dst, bytes.length - src);
+        return new Latin1CharSequence(result);
+    }
+}
@@ -73,13 +73,17 @@ public class LazyString implements PCharSequence {
 
     private static boolean assertChecked(CharSequence left, CharSequence right, int length) {
         assert PythonLanguage.getContext().getOption(PythonOptions.LazyStrings);
-        assert (PGuards.isString(left) || left instanceof LazyString) && (PGuards.isString(right) || right instanceof LazyString);
+        assert isLeaf(left) && isLeaf(right);
         assert length == left.length() + right.length();
         assert left.length() > 0 && right.length() > 0;
         assert length >= PythonLanguage.getContext().getOption(PythonOptions.MinLazyStringLength);
         return true;
     }
 
+    private static boolean isLeaf(CharSequence cs) {
+        return PGuards.isString(cs) || cs instanceof LazyString || cs instanceof Latin1CharSequence;
+    }
+
     /**
      * Variant of {@link #createChecked} that tries to concatenate a very short string to an already
      * short root leaf up-front, e.g. when appending single characters.
@@ -191,6 +195,12 @@ public class LazyString implements PCharSequence {
             } else if (str instanceof String) {
                 ((String) str).getChars(from, to, dst, dstFrom);
                 return;
+            } else {
+                byte[] bytes = ((Latin1CharSequence) str).getBytes();
+                for (int i = from; i < to; i++) {
+                    dst[dstFrom++] = (char) (bytes[i] & 0xFF);
+                }
+                return;
             }
         }
     }
@@ -64,6 +64,11 @@ public final class PString extends PImmutableSequence {
     }
 
     public String getValue() {
+        if (value instanceof Latin1CharSequence) {
+            String materialized = ((Latin1CharSequence) value).materialize();
+            value = materialized;
+            return materialized;
+        }
         return PString.getValue(value);
     }
 
@@ -95,6 +100,10 @@ public final class PString extends PImmutableSequence {
             return seq instanceof LazyString;
         }
 
+        static boolean isLatin1String(CharSequence seq) {
+            return seq instanceof Latin1CharSequence;
+        }
+
         static boolean isNativeString(CharSequence seq) {
             return seq instanceof NativeCharSequence;
         }
@@ -133,6 +142,17 @@ public final class PString extends PImmutableSequence {
             return ((LazyString) self.value).length();
         }
 
+        @Specialization(guards = {
+                        "isLatin1String(self.getCharSequence())",
+                        "isBuiltin(self, profile) || hasBuiltinLen(self, lookupSelf, lookupString)"
+        }, limit = "1")
+        static int latin1String(PString self, @SuppressWarnings("unused") ThreadState state,
+                        @SuppressWarnings("unused") @Shared("builtinProfile") @Cached IsBuiltinClassProfile profile,
+                        @SuppressWarnings("unused") @Shared("lookupSelf") @Cached LookupInheritedAttributeNode.Dynamic lookupSelf,
+                        @SuppressWarnings("unused") @Shared("lookupString") @Cached LookupAttributeInMRONode.Dynamic lookupString) {
+            return ((Latin1CharSequence) self.value).length();
+        }
+
         @Specialization(guards = {
                         "isNativeString(self.getCharSequence())", "isMaterialized(self.getCharSequence())",
                         "isBuiltin(self, profile) || hasBuiltinLen(self, lookupSelf, lookupString)"
@@ -158,7 +178,7 @@ public final class PString extends PImmutableSequence {
             return ncs.length();
         }
 
-        @Specialization(replaces = {"string", "lazyString", "nativeString", "nativeStringMat"})
+        @Specialization(replaces = {"string", "lazyString", "latin1String", "nativeString", "nativeStringMat"})
         static int subclassedString(PString self, ThreadState state,
                         @Exclusive @Cached("createBinaryProfile()") ConditionProfile gotState,
                         @Exclusive @Cached("createBinaryProfile()") ConditionProfile hasLen,
@@ -193,6 +213,9 @@ public final class PString extends PImmutableSequence {
     @Ignore
     @Override
     public boolean equals(Object obj) {
+        if (value instanceof Latin1CharSequence) {
+            return ((Latin1CharSequence) value).contentEquals(obj instanceof PString ? ((PString) obj).value : obj);
+        }
         return obj != null && obj.equals(value);
     }
 
@@ -156,7 +156,7 @@ public final class StringBuiltins extends PythonBuiltins {
         }
 
         @TruffleBoundary
-        static String repr(String self) {
+        public static String repr(String self) {
             boolean hasSingleQuote = self.contains("'");
             boolean hasDoubleQuote = self.contains("\"");
             boolean useDoubleQuotes = hasSingleQuote && !hasDoubleQuote;
@@ -657,6 +657,19 @@ public final class StringBuiltins extends PythonBuiltins {
             return PSlice.computeIndices(start, end, 1, length);
         }
 
+        @Specialization(guards = "isLatin1String(self)")
+        Object findLatin1(VirtualFrame frame, PString self, String str, Object start, Object end) {
+            Latin1CharSequence seq = (Latin1CharSequence) self.getCharSequence();
+            if (PGuards.isPNone(start) && PGuards.isPNone(end)) {
+                return findWithBounds(seq, str, 0, seq.length());
+            }
+            SliceInfo info = computeSlice(frame, seq.length(), start, end);
+            if (info.length == 0) {
+                return -1;
+            }
+            return findWithBounds(seq, str, info.start, info.stop);
+        }
+
         @Specialization
         Object findString(String self, String str, @SuppressWarnings("unused") PNone start, @SuppressWarnings("unused") PNone end) {
             return find(self, str);
@@ -719,6 +732,12 @@ public final class StringBuiltins extends PythonBuiltins {
             CompilerDirectives.transferToInterpreter();
             throw new IllegalStateException("should not be reached");
         }
+
+        @SuppressWarnings("unused")
+        protected int findWithBounds(Latin1CharSequence self, String str, int start, int end) {
+            CompilerDirectives.transferToInterpreter();
+            throw new IllegalStateException("should not be reached");
+        }
     }
 
     // str.rfind(str[, start[, end]])
@@ -738,6 +757,12 @@ public final class StringBuiltins extends PythonBuiltins {
             int idx = self.lastIndexOf(str, end - str.length());
             return idx >= start ? idx : -1;
         }
+
+        @Override
+        protected int findWithBounds(Latin1CharSequence self, String str, int start, int end) {
+            int idx = self.lastIndexOf(str, end - str.length());
+            return idx >= start ? idx : -1;
+        }
     }
 
     // str.find(str[, start[, end]])
@@ -757,6 +782,12 @@ public final class StringBuiltins extends PythonBuiltins {
             int idx = self.indexOf(str, start);
             return idx + str.length() <= end ? idx : -1;
         }
+
+        @Override
+        protected int findWithBounds(Latin1CharSequence self, String str, int start, int end) {
+            int idx = self.indexOf(str, start);
+            return idx + str.length() <= end ? idx : -1;
+        }
     }
 
     // str.join(iterable)
@@ -1004,6 +1035,54 @@ public final class StringBuiltins extends PythonBuiltins {
             return splitfields(self, maxsplit, appendNode);
         }
 
+        @Specialization(guards = "isLatin1String(self)")
+        @SuppressWarnings("unused")
+        PList doLatin1Whitespace(PString self, PNone sep, PNone maxsplit,
+                        @Shared("appendNode") @Cached AppendNode appendNode) {
+            return splitfields((Latin1CharSequence) self.getCharSequence(), -1, appendNode);
+        }
+
+        @Specialization(guards = "isLatin1String(self)")
+        PList doLatin1Sep(PString self, String sep, @SuppressWarnings("unused") PNone maxsplit,
+                        @Shared("appendNode") @Cached AppendNode appendNode) {
+            return doLatin1SepMaxsplit(self, sep, -1, appendNode);
+        }
+
+        @Specialization(guards = "isLatin1String(self)")
+        PList doLatin1SepMaxsplit(PString self, String sep, int maxsplit,
+                        @Shared("appendNode") @Cached AppendNode appendNode) {
+            if (sep.isEmpty()) {
+                throw raise(ValueError, "empty separator");
+            }
+            Latin1CharSequence seq = (Latin1CharSequence) self.getCharSequence();
+            PList list = factory().createList();
+            byte[] needle = Latin1CharSequence.toLatin1(sep);
+            if (needle == null) {
+                // the separator cannot occur in this string
+                appendNode.execute(list, self);
+                return list;
+            }
+            int splits = maxsplit < 0 ? Integer.MAX_VALUE : maxsplit;
+            int lastEnd = 0;
+            while (splits > 0) {
+                int nextIndex = seq.indexOf(needle, lastEnd);
+                if (nextIndex == -1) {
+                    break;
+                }
+                splits--;
+                appendNode.execute(list, factory().createString(seq.subSequence(lastEnd, nextIndex)));
+                lastEnd = nextIndex + needle.length;
+            }
+            appendNode.execute(list, factory().createString(seq.subSequence(lastEnd, seq.length())));
+            return list;
+        }
+
+        @Specialization(guards = "isLatin1String(self)")
+        PList doLatin1Maxsplit(PString self, @SuppressWarnings("unused") PNone sep, int maxsplit,
+                        @Shared("appendNode") @Cached AppendNode appendNode) {
+            return splitfields((Latin1CharSequence) self.getCharSequence(), maxsplit, appendNode);
+        }
+
         @Specialization(replaces = {"doStringWhitespace", "doStringSep", "doStringSepMaxsplit", "doStringMaxsplit"}, limit = "getCallSiteInlineCacheMaxDepth()")
         Object doGeneric(VirtualFrame frame, Object self, Object sep, Object maxsplit,
                         @Cached CastToJavaStringCheckedNode castSelfNode,
@@ -1079,6 +1158,36 @@ public final class StringBuiltins extends PythonBuiltins {
             return list;
         }
 
+        // same as above but produces compact pieces without materializing the receiver
+        private PList splitfields(Latin1CharSequence s, int maxsplit, AppendNode appendNode) {
+            PList list = factory().createList();
+            int length = s.length();
+            int start = 0;
+            int splits = 0;
+            int index;
+
+            int maxsplit2 = maxsplit < 0 ? length : maxsplit;
+            while (start < length) {
+                while (start < length && PString.isWhitespace(s.charAt(start))) {
+                    start++;
+                }
+                if (start >= length) {
+                    break;
+                } else if (splits >= maxsplit2) {
+                    index = length;
+                } else {
+                    for (index = start; index < length; index++) {
+                        if (PString.isWhitespace(s.charAt(index))) {
+                            break;
+                        }
+                    }
+                }
+                appendNode.execute(list, factory().createString(s.subSequence(start, index)));
+                splits++;
+                start = index;
+            }
+            return list;
+        }
     }
 
     // str.split
@@ -1289,6 +1398,23 @@ public final class StringBuiltins extends PythonBuiltins {
             return sb.toString();
         }
 
+        @Specialization(guards = "isLatin1String(self)")
+        Object doLatin1(PString self, String old, String with, @SuppressWarnings("unused") PNone maxCount) {
+            return doLatin1(self, old, with, -1);
+        }
+
+        @Specialization(guards = "isLatin1String(self)")
+        Object doLatin1(PString self, String old, String with, int maxCount) {
+            Latin1CharSequence seq = (Latin1CharSequence) self.getCharSequence();
+            Latin1CharSequence result = seq.replace(old, with, maxCount);
+            if (result != null) {
+                return factory().createString(result);
+            } else if (maxCount < 0) {
+                return doReplace(seq.materialize(), old, with, PNone.NO_VALUE);
+            }
+            return doReplace(seq.materialize(), old, with, maxCount);
+        }
+
         @Specialization(limit = "getCallSiteInlineCacheMaxDepth()")
         static String doGeneric(VirtualFrame frame, Object self, Object old, Object with, Object maxCount,
                         @Cached CastToJavaStringCheckedNode castSelfNode,
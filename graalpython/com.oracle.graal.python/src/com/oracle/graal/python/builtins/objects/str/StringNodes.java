@@ -92,6 +92,10 @@ public abstract class StringNodes {
         return x.getCharSequence() instanceof LazyString;
     }
 
+    public static boolean isLatin1CharSequence(PString x) {
+        return x.getCharSequence() instanceof Latin1CharSequence;
+    }
+
     public static boolean isMaterialized(PString x) {
         return x.getCharSequence() instanceof String;
     }
@@ -125,6 +129,14 @@ public abstract class StringNodes {
             return materialized;
         }
 
+        @Specialization(guards = "isLatin1CharSequence(x)")
+        static String doLatin1(PString x) {
+            // cast guaranteed by the guard
+            String materialized = ((Latin1CharSequence) x.getCharSequence()).materialize();
+            x.setCharSequence(materialized);
+            return materialized;
+        }
+
         @Specialization(guards = "isMaterialized(x)")
         static String doMaterialized(PString x) {
             // cast guaranteed by the guard
@@ -160,6 +172,12 @@ public abstract class StringNodes {
             return ((LazyString) x.getCharSequence()).length();
         }
 
+        @Specialization(guards = "isLatin1CharSequence(x)")
+        static int doLatin1(PString x) {
+            // cast guaranteed by the guard
+            return ((Latin1CharSequence) x.getCharSequence()).length();
+        }
+
         @Specialization(guards = {"isNativeCharSequence(x)", "isNativeMaterialized(x)"})
         static int nativeString(PString x) {
             return ((NativeCharSequence) x.getCharSequence()).length();
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.str;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Strict UTF-8 decoding and encoding in plain loops over byte and char arrays. Unlike going through
+ * a {@link java.nio.charset.CharsetDecoder}, this needs no decoder object and no intermediate
+ * buffers. Both directions give up (returning {@code null}) on anything that is not well-formed,
+ * so that callers can fall back to the charset machinery for error handling.
+ */
+public final class Utf8Codec {
+
+    private Utf8Codec() {
+    }
+
+    /**
+     * Returns the length of the longest prefix of {@code data[off:off+len]} that does not end in
+     * the middle of a multi-byte sequence.
+     */
+    public static int completeLength(byte[] data, int off, int len) {
+        // look at the last up to three bytes for the start of a truncated sequence
+        for (int i = len - 1; i >= 0 && i >= len - 3; i--) {
+            int b = data[off + i] & 0xFF;
+            if (b < 0x80) {
+                return len;
+            } else if (b >= 0xC0) {
+                int needed = b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : 2;
+                return len - i < needed ? i : len;
+            }
+        }
+        return len;
+    }
+
+    /**
+     * Decodes {@code data[off:off+len]}, or returns {@code null} if it is not well-formed UTF-8.
+     */
+    @TruffleBoundary
+    public static String decode(byte[] data, int off, int len) {
+        char[] chars = new char[len];
+        int i = off;
+        int end = off + len;
+        int n = 0;
+        while (i < end) {
+            int b0 = data[i];
+            if (b0 >= 0) {
+                // ASCII runs are the common case
+                chars[n++] = (char) b0;
+                i++;
+                continue;
+            }
+            b0 &= 0xFF;
+            if (b0 < 0xC2) {
+                // continuation byte or overlong 2-byte sequence
+                return null;
+            } else if (b0 < 0xE0) {
+                if (i + 1 >= end || !isContinuation(data[i + 1])) {
+                    return null;
+                }
+                chars[n++] = (char) (((b0 & 0x1F) << 6) | (data[i + 1] & 0x3F));
+                i += 2;
+            } else if (b0 < 0xF0) {
+                if (i + 2 >= end || !isContinuation(data[i + 1]) || !isContinuation(data[i + 2])) {
+                    return null;
+                }
+                int c = ((b0 & 0x0F) << 12) | ((data[i + 1] & 0x3F) << 6) | (data[i + 2] & 0x3F);
+                if (c < 0x800 || Character.isSurrogate((char) c)) {
+                    // overlong or encoded surrogate
+                    return null;
+                }
+                chars[n++] = (char) c;
+                i += 3;
+            } else if (b0 < 0xF5) {
+                if (i + 3 >= end || !isContinuation(data[i + 1]) || !isContinuation(data[i + 2]) || !isContinuation(data[i + 3])) {
+                    return null;
+                }
+                int c = ((b0 & 0x07) << 18) | ((data[i + 1] & 0x3F) << 12) | ((data[i + 2] & 0x3F) << 6) | (data[i + 3] & 0x3F);
+                if (c < 0x10000 || c > Character.MAX_CODE_POINT) {
+                    return null;
+                }
+                chars[n++] = Character.highSurrogate(c);
+                chars[n++] = Character.lowSurrogate(c);
+                i += 4;
+            } else {
+                return null;
+            }
+        }
+        return new String(chars, 0, n);
+    }
+
+    private static boolean isContinuation(byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+
+    /**
+     * Encodes {@code str}, or returns {@code null} if it contains a lone surrogate.
+     */
+    @TruffleBoundary
+    public static byte[] encode(String str) {
+        int len = str.length();
+        if (len > Integer.MAX_VALUE / 3) {
+            return null;
+        }
+        byte[] bytes = new byte[len * 3];
+        int n = 0;
+        for (int i = 0; i < len; i++) {
+            char c = str.charAt(i);
+            if (c < 0x80) {
+                bytes[n++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[n++] = (byte) (0xC0 | (c >> 6));
+                bytes[n++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c)) {
+                if (i + 1 >= len || !Character.isLowSurrogate(str.charAt(i + 1))) {
+                    return null;
+                }
+                int cp = Character.toCodePoint(c, str.charAt(++i));
+                bytes[n++] = (byte) (0xF0 | (cp >> 18));
+                bytes[n++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                bytes[n++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                bytes[n++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isLowSurrogate(c)) {
+                return null;
+            } else {
+                bytes[n++] = (byte) (0xE0 | (c >> 12));
+                bytes[n++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[n++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return n == bytes.length ? bytes : Arrays.copyOf(bytes, n);
+    }
+}
@@ -72,7 +72,10 @@ public abstract class AbstractPythonLock extends PythonBuiltinObject {
         return acquireTimeout(getTimeoutInMillis(timeout));
     }
 
-    public abstract void release();
+    /**
+     * Releases the lock and returns {@code true}, or returns {@code false} if it was not held.
+     */
+    public abstract boolean release();
 
     public abstract boolean locked();
 }
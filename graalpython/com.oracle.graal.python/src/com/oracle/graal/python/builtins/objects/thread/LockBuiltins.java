@@ -47,6 +47,7 @@ import static com.oracle.graal.python.nodes.SpecialMethodNames.__ENTER__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__EXIT__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.RuntimeError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
 import java.util.List;
@@ -57,6 +58,7 @@ import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.thread.LockBuiltinsFactory.AcquireLockNodeFactory;
+import com.oracle.graal.python.builtins.objects.thread.LockBuiltinsFactory.ReleaseLockNodeFactory;
 import com.oracle.graal.python.builtins.objects.type.TypeNodes.GetNameNode;
 import com.oracle.graal.python.nodes.expression.CoerceToBooleanNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
@@ -64,6 +66,7 @@ import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.nodes.util.CoerceToDoubleNode;
+import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -88,6 +91,7 @@ public class LockBuiltins extends PythonBuiltins {
         private @Child CoerceToBooleanNode castToBooleanNode;
         private @CompilationFinal ConditionProfile isBlockingProfile = ConditionProfile.createBinaryProfile();
         private @CompilationFinal ConditionProfile defaultTimeoutProfile = ConditionProfile.createBinaryProfile();
+        private @CompilationFinal ConditionProfile uncontendedProfile = ConditionProfile.createBinaryProfile();
 
         private CoerceToDoubleNode getCoerceToDoubleNode() {
             if (coerceToDoubleNode == null) {
@@ -129,11 +133,21 @@ public class LockBuiltins extends PythonBuiltins {
             // acquire lock
             if (isBlockingProfile.profile(!isBlocking)) {
                 return self.acquireNonBlocking();
+            } else if (uncontendedProfile.profile(self.acquireNonBlocking())) {
+                return true;
             } else {
-                if (defaultTimeoutProfile.profile(timeoutSeconds == UNSET_TIMEOUT)) {
-                    return self.acquireBlocking();
-                } else {
-                    return self.acquireTimeout(timeoutSeconds);
+                // we are about to wait for another thread, which may need the GIL to release
+                // the lock
+                PythonContext context = getContext();
+                boolean releasedGil = context.releaseGil();
+                try {
+                    if (defaultTimeoutProfile.profile(timeoutSeconds == UNSET_TIMEOUT)) {
+                        return self.acquireBlocking();
+                    } else {
+                        return self.acquireTimeout(timeoutSeconds);
+                    }
+                } finally {
+                    context.reacquireGil(releasedGil);
                 }
             }
         }
@@ -167,20 +181,33 @@ public class LockBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class ReleaseLockNode extends PythonUnaryBuiltinNode {
         @Specialization
-        Object doRelease(AbstractPythonLock self) {
-            self.release();
+        Object doRelease(PLock self) {
+            if (!self.release()) {
+                throw raise(RuntimeError, "release unlocked lock");
+            }
             return PNone.NONE;
         }
+
+        @Specialization
+        Object doRelease(PRLock self) {
+            if (!self.release()) {
+                throw raise(RuntimeError, "cannot release un-acquired lock");
+            }
+            return PNone.NONE;
+        }
+
+        public static ReleaseLockNode create() {
+            return ReleaseLockNodeFactory.create();
+        }
     }
 
     @Builtin(name = __EXIT__, minNumOfPositionalArgs = 4)
     @GenerateNodeFactory
     abstract static class ExitLockNode extends PythonBuiltinNode {
         @Specialization
-        @TruffleBoundary
-        Object exit(AbstractPythonLock self, @SuppressWarnings("unused") Object type, @SuppressWarnings("unused") Object value, @SuppressWarnings("unused") Object traceback) {
-            self.release();
-            return PNone.NONE;
+        Object exit(VirtualFrame frame, AbstractPythonLock self, @SuppressWarnings("unused") Object type, @SuppressWarnings("unused") Object value, @SuppressWarnings("unused") Object traceback,
+                        @Cached ReleaseLockNode releaseLockNode) {
+            return releaseLockNode.execute(frame, self);
         }
     }
 
@@ -40,59 +40,11 @@
  */
 package com.oracle.graal.python.builtins.objects.thread;
 
-import java.util.concurrent.Semaphore;
-import java.util.concurrent.TimeUnit;
-
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
-import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
-public final class PLock extends AbstractPythonLock {
-    private final Semaphore semaphore;
+public final class PLock extends AbstractQueuedPythonLock {
 
-    @TruffleBoundary
     public PLock(LazyPythonClass cls) {
-        super(cls);
-        semaphore = new Semaphore(1);
-    }
-
-    @Override
-    @TruffleBoundary
-    protected boolean acquireNonBlocking() {
-        return semaphore.tryAcquire();
-    }
-
-    @Override
-    @TruffleBoundary
-    protected boolean acquireBlocking() {
-        try {
-            semaphore.acquire();
-            return true;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return false;
-        }
-    }
-
-    @Override
-    @TruffleBoundary
-    protected boolean acquireTimeout(long timeout) {
-        try {
-            return semaphore.tryAcquire(timeout, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return false;
-        }
-    }
-
-    @Override
-    @TruffleBoundary
-    public void release() {
-        semaphore.release();
-    }
-
-    @Override
-    @TruffleBoundary
-    public boolean locked() {
-        return semaphore.availablePermits() == 0;
+        super(cls, false);
     }
 }
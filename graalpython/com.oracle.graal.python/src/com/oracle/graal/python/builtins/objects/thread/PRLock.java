@@ -40,83 +40,34 @@
  */
 package com.oracle.graal.python.builtins.objects.thread;
 
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantLock;
-
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
-public final class PRLock extends AbstractPythonLock {
-    private class InternalReentrantLock extends ReentrantLock {
-        private static final long serialVersionUID = 2531000884985514112L;
-
-        @TruffleBoundary
-        long getOwnerId() {
-            Thread owner = getOwner();
-            if (owner != null) {
-                return owner.getId();
-            }
-            return 0;
-        }
-    }
-
-    private final InternalReentrantLock lock;
+public final class PRLock extends AbstractQueuedPythonLock {
 
     public PRLock(LazyPythonClass cls) {
-        super(cls);
-        this.lock = new InternalReentrantLock();
+        super(cls, true);
     }
 
     public boolean isOwned() {
-        return lock.isHeldByCurrentThread();
+        return sync.isHeldExclusively();
     }
 
     public int getCount() {
-        return lock.getHoldCount();
-    }
-
-    public long getOwnerId() {
-        return lock.getOwnerId();
-    }
-
-    public void releaseAll() {
-        while (lock.getHoldCount() > 0) {
-            lock.unlock();
-        }
-    }
-
-    @Override
-    @TruffleBoundary
-    protected boolean acquireNonBlocking() {
-        return lock.tryLock();
+        return sync.getHoldCount();
     }
 
-    @Override
     @TruffleBoundary
-    protected boolean acquireBlocking() {
-        lock.lock();
-        return true;
-    }
-
-    @Override
-    @TruffleBoundary
-    protected boolean acquireTimeout(long timeout) {
-        try {
-            return lock.tryLock(timeout, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return false;
+    public long getOwnerId() {
+        Thread owner = sync.getOwner();
+        if (owner != null) {
+            return owner.getId();
         }
+        return 0;
     }
 
-    @Override
     @TruffleBoundary
-    public void release() {
-        lock.unlock();
-    }
-
-    @Override
-    public boolean locked() {
-        return lock.isLocked();
+    public void releaseAll() {
+        sync.unlockAll();
     }
 }
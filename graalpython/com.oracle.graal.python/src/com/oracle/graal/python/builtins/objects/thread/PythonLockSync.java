@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.thread;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+
+/**
+ * The synchronizer behind {@link PLock} and {@link PRLock}. The state is the number of holds. An
+ * uncontended acquisition is a single compare-and-set of the state; a contended one first spins
+ * for a short while, because most Python critical sections are short, and only then queues the
+ * thread and parks it.
+ *
+ * The synchronizer also counts acquisitions and the time spent waiting for the lock. A plain lock
+ * may be released by any thread, so the counters are adders that are safe to update and read from
+ * any thread.
+ */
+final class PythonLockSync extends AbstractQueuedSynchronizer {
+    private static final long serialVersionUID = -4071322915287316521L;
+
+    /** Number of times a contended acquisition re-checks the state before parking. */
+    private static final int SPIN_COUNT = 128;
+
+    private final boolean reentrant;
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder contendedAcquisitions = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    PythonLockSync(boolean reentrant) {
+        this.reentrant = reentrant;
+    }
+
+    @Override
+    protected boolean tryAcquire(int acquires) {
+        if (compareAndSetState(0, acquires)) {
+            if (reentrant) {
+                setExclusiveOwnerThread(Thread.currentThread());
+            }
+            return true;
+        } else if (reentrant && getExclusiveOwnerThread() == Thread.currentThread()) {
+            int holds = getState() + acquires;
+            if (holds < 0) {
+                throw new Error("Maximum lock count exceeded");
+            }
+            setState(holds);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    protected boolean tryRelease(int releases) {
+        if (reentrant) {
+            int holds = getState() - releases;
+            if (holds == 0) {
+                setExclusiveOwnerThread(null);
+            }
+            setState(holds);
+            return holds == 0;
+        }
+        return compareAndSetState(releases, 0);
+    }
+
+    @Override
+    protected boolean isHeldExclusively() {
+        return reentrant ? getExclusiveOwnerThread() == Thread.currentThread() : getState() != 0;
+    }
+
+    boolean tryLock() {
+        if (tryAcquire(1)) {
+            acquisitions.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Acquires the lock after {@link #tryLock()} failed, waiting for at most {@code timeoutMillis}
+     * or forever if it is negative. Returns {@code false} on timeout or if the thread was
+     * interrupted, in which case the interrupt flag is set again.
+     */
+    boolean lockContended(long timeoutMillis) {
+        long start = System.nanoTime();
+        boolean acquired = false;
+        for (int i = 0; i < SPIN_COUNT; i++) {
+            if (getState() == 0 && tryAcquire(1)) {
+                acquired = true;
+                break;
+            }
+        }
+        if (!acquired) {
+            try {
+                if (timeoutMillis < 0) {
+                    acquireInterruptibly(1);
+                    acquired = true;
+                } else {
+                    acquired = tryAcquireNanos(1, TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (acquired) {
+            acquisitions.increment();
+            contendedAcquisitions.increment();
+            waitNanos.add(System.nanoTime() - start);
+        }
+        return acquired;
+    }
+
+    /**
+     * Releases one hold. Returns {@code false} if the lock was not held (by the current thread, for
+     * a reentrant lock).
+     */
+    boolean unlock() {
+        if (reentrant && !isHeldExclusively()) {
+            return false;
+        }
+        return release(1) || reentrant;
+    }
+
+    /**
+     * Releases all holds of the current thread on a reentrant lock and returns their number.
+     */
+    int unlockAll() {
+        assert reentrant;
+        int holds = getHoldCount();
+        if (holds > 0) {
+            release(holds);
+        }
+        return holds;
+    }
+
+    boolean isLocked() {
+        return getState() != 0;
+    }
+
+    int getHoldCount() {
+        return isHeldExclusively() ? getState() : 0;
+    }
+
+    Thread getOwner() {
+        return getExclusiveOwnerThread();
+    }
+
+    long getAcquisitions() {
+        return acquisitions.sum();
+    }
+
+    long getContendedAcquisitions() {
+        return contendedAcquisitions.sum();
+    }
+
+    long getWaitNanos() {
+        return waitNanos.sum();
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -50,6 +50,7 @@ import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
@@ -79,7 +80,13 @@ public class RLockBuiltins extends PythonBuiltins {
         @Specialization
         Object acquireRestore(PRLock self) {
             if (!self.acquireNonBlocking()) {
-                self.acquireBlocking();
+                PythonContext context = getContext();
+                boolean releasedGil = context.releaseGil();
+                try {
+                    self.acquireBlocking();
+                } finally {
+                    context.reacquireGil(releasedGil);
+                }
             }
             return PNone.NONE;
         }
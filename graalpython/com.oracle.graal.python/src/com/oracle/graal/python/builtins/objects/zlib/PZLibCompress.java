@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.zlib;
+
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import com.oracle.graal.python.builtins.modules.ZLibModuleBuiltins;
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * The state of a {@code zlib.compressobj}. The output buffer is kept between calls, so compressing
+ * a stream in many small pieces only allocates the resulting bytes objects.
+ */
+public final class PZLibCompress extends PythonBuiltinObject {
+    /** Output buffers that grew beyond this size are not kept for the next call. */
+    static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+    private final Deflater deflater;
+    private final int level;
+    private final int wbits;
+    private final int strategy;
+    private final byte[] zdict;
+    private byte[] buffer = new byte[ZLibModuleBuiltins.DEF_BUF_SIZE];
+    private boolean finished;
+
+    public PZLibCompress(LazyPythonClass cls, Deflater deflater, int level, int wbits, int strategy, byte[] zdict) {
+        super(cls);
+        this.deflater = deflater;
+        this.level = level;
+        this.wbits = wbits;
+        this.strategy = strategy;
+        this.zdict = zdict;
+    }
+
+    /**
+     * Creates a deflater for the given zlib parameters. The strategies {@code Z_RLE} and
+     * {@code Z_FIXED} are not available in {@code java.util.zip}; they only tune the matching, so
+     * the default strategy is used for them instead.
+     */
+    @TruffleBoundary
+    public static Deflater createDeflater(int level, boolean raw, int strategy, byte[] zdict) {
+        Deflater deflater = new Deflater(level, raw);
+        if (strategy == Deflater.FILTERED || strategy == Deflater.HUFFMAN_ONLY) {
+            deflater.setStrategy(strategy);
+        }
+        if (zdict != null) {
+            deflater.setDictionary(zdict);
+        }
+        return deflater;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getWbits() {
+        return wbits;
+    }
+
+    public int getStrategy() {
+        return strategy;
+    }
+
+    public byte[] getZdict() {
+        return zdict;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Compresses {@code length} bytes of {@code data}, which is used directly as input, and
+     * returns what the deflater produced so far. All input is consumed.
+     */
+    @TruffleBoundary
+    public byte[] compress(byte[] data, int length) {
+        deflater.setInput(data, 0, length);
+        int pos = 0;
+        while (!deflater.needsInput()) {
+            if (pos == buffer.length) {
+                buffer = grow(buffer);
+            }
+            pos += deflater.deflate(buffer, pos, buffer.length - pos, Deflater.NO_FLUSH);
+        }
+        return takeOutput(pos);
+    }
+
+    /**
+     * Flushes pending output. {@code Z_SYNC_FLUSH} and {@code Z_FULL_FLUSH} keep the stream
+     * usable, {@code Z_FINISH} ends it and releases the deflater.
+     */
+    @TruffleBoundary
+    public byte[] flush(int mode) {
+        int pos = 0;
+        if (mode == ZLibModuleBuiltins.Z_FINISH) {
+            deflater.finish();
+            while (!deflater.finished()) {
+                if (pos == buffer.length) {
+                    buffer = grow(buffer);
+                }
+                pos += deflater.deflate(buffer, pos, buffer.length - pos, Deflater.NO_FLUSH);
+            }
+            deflater.end();
+            finished = true;
+        } else {
+            // java.util.zip only knows sync and full flushes, partial and block flushes are
+            // mapped to a sync flush, which emits at least as much
+            int flushMode = mode == ZLibModuleBuiltins.Z_FULL_FLUSH ? Deflater.FULL_FLUSH : Deflater.SYNC_FLUSH;
+            do {
+                if (pos == buffer.length) {
+                    buffer = grow(buffer);
+                }
+                pos += deflater.deflate(buffer, pos, buffer.length - pos, flushMode);
+                // if the deflater filled all the space we gave it, there may be more
+            } while (pos == buffer.length);
+        }
+        return takeOutput(pos);
+    }
+
+    private byte[] takeOutput(int length) {
+        byte[] result = Arrays.copyOf(buffer, length);
+        if (buffer.length > MAX_RETAINED_BUFFER_SIZE) {
+            buffer = new byte[ZLibModuleBuiltins.DEF_BUF_SIZE];
+        }
+        return result;
+    }
+
+    static byte[] grow(byte[] buffer) {
+        int newLength = buffer.length < Integer.MAX_VALUE / 2 ? buffer.length * 2 : Integer.MAX_VALUE - 8;
+        if (newLength <= buffer.length) {
+            throw new OutOfMemoryError();
+        }
+        return Arrays.copyOf(buffer, newLength);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.zlib;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import com.oracle.graal.python.builtins.modules.ZLibModuleBuiltins;
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * The state of a {@code zlib.decompressobj}. Like {@link PZLibCompress}, it keeps its output
+ * buffer between calls. Input the caller asked us not to decompress yet (because of
+ * {@code max_length}) is handed back as {@code unconsumed_tail}, and input following the end of
+ * the stream is collected in {@code unused_data}.
+ */
+public final class PZLibDecompress extends PythonBuiltinObject {
+    private static final byte[] EMPTY = new byte[0];
+
+    private final Inflater inflater;
+    private final byte[] zdict;
+    private byte[] buffer = new byte[ZLibModuleBuiltins.DEF_BUF_SIZE];
+    private byte[] unconsumedTail = EMPTY;
+    private byte[] unusedData = EMPTY;
+    private boolean eof;
+
+    public PZLibDecompress(LazyPythonClass cls, Inflater inflater, byte[] zdict) {
+        super(cls);
+        this.inflater = inflater;
+        this.zdict = zdict;
+    }
+
+    public byte[] getUnconsumedTail() {
+        return unconsumedTail;
+    }
+
+    public byte[] getUnusedData() {
+        return unusedData;
+    }
+
+    public boolean isEof() {
+        return eof;
+    }
+
+    /**
+     * Decompresses {@code length} bytes of {@code data}, which is used directly as input, and
+     * returns at most {@code maxLength} bytes of output, or everything if {@code maxLength} is 0.
+     */
+    @TruffleBoundary
+    public byte[] decompress(byte[] data, int length, int maxLength) throws DataFormatException {
+        inflater.setInput(data, 0, length);
+        int limit = maxLength == 0 ? Integer.MAX_VALUE : maxLength;
+        int pos = 0;
+        while (pos < limit) {
+            if (pos == buffer.length) {
+                buffer = PZLibCompress.grow(buffer);
+            }
+            int n = inflater.inflate(buffer, pos, Math.min(buffer.length, limit) - pos);
+            pos += n;
+            if (inflater.finished()) {
+                eof = true;
+                break;
+            } else if (n == 0) {
+                if (inflater.needsDictionary()) {
+                    if (zdict == null) {
+                        throw new DataFormatException("incorrect or missing dictionary");
+                    }
+                    inflater.setDictionary(zdict);
+                } else {
+                    // the inflater cannot make progress without more input
+                    break;
+                }
+            }
+        }
+        int remaining = inflater.getRemaining();
+        byte[] tail = remaining == 0 ? EMPTY : Arrays.copyOfRange(data, length - remaining, length);
+        if (eof) {
+            unconsumedTail = EMPTY;
+            if (remaining > 0) {
+                byte[] newUnusedData = Arrays.copyOf(unusedData, unusedData.length + remaining);
+                System.arraycopy(tail, 0, newUnusedData, unusedData.length, remaining);
+                unusedData = newUnusedData;
+            }
+        } else {
+            unconsumedTail = tail;
+        }
+        byte[] result = Arrays.copyOf(buffer, pos);
+        if (buffer.length > PZLibCompress.MAX_RETAINED_BUFFER_SIZE) {
+            buffer = new byte[ZLibModuleBuiltins.DEF_BUF_SIZE];
+        }
+        return result;
+    }
+
+    /**
+     * Decompresses the remaining {@code unconsumed_tail} without an output limit.
+     */
+    @TruffleBoundary
+    public byte[] flush() throws DataFormatException {
+        byte[] tail = unconsumedTail;
+        return decompress(tail, tail.length, 0);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.zlib;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ZLibError;
+
+import java.util.List;
+import java.util.zip.DataFormatException;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes.ToByteStorageNode;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PZLibDecompress)
+public class ZLibDecompressBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return ZLibDecompressBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = "decompress", minNumOfPositionalArgs = 2, parameterNames = {"self", "data", "max_length"})
+    @GenerateNodeFactory
+    abstract static class DecompressNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PBytes decompress(VirtualFrame frame, PZLibDecompress self, Object data, Object maxLengthObj,
+                        @Cached ToByteStorageNode toByteStorageNode,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib) {
+            int maxLength = PGuards.isNoValue(maxLengthObj) ? 0 : lib.asSizeWithState(maxLengthObj, PArguments.getThreadState(frame));
+            if (maxLength < 0) {
+                throw raise(ValueError, "max_length must be non-negative");
+            }
+            ByteSequenceStorage storage = toByteStorageNode.execute(frame, data);
+            try {
+                return factory().createBytes(self.decompress(storage.getInternalByteArray(), storage.length(), maxLength));
+            } catch (DataFormatException e) {
+                throw raise(ZLibError, "Error -3 while decompressing data: %m", e);
+            }
+        }
+    }
+
+    @Builtin(name = "flush", minNumOfPositionalArgs = 1, parameterNames = {"self", "length"})
+    @GenerateNodeFactory
+    abstract static class FlushNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        PBytes flush(VirtualFrame frame, PZLibDecompress self, Object lengthObj,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib) {
+            // the length is only a hint for the initial buffer size, which we manage ourselves
+            if (!PGuards.isNoValue(lengthObj) && lib.asSizeWithState(lengthObj, PArguments.getThreadState(frame)) <= 0) {
+                throw raise(ValueError, "length must be greater than zero");
+            }
+            try {
+                return factory().createBytes(self.flush());
+            } catch (DataFormatException e) {
+                throw raise(ZLibError, "Error -3 while decompressing data: %m", e);
+            }
+        }
+    }
+
+    @Builtin(name = "unused_data", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class UnusedDataNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        PBytes unusedData(PZLibDecompress self) {
+            return factory().createBytes(self.getUnusedData());
+        }
+    }
+
+    @Builtin(name = "unconsumed_tail", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class UnconsumedTailNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        PBytes unconsumedTail(PZLibDecompress self) {
+            return factory().createBytes(self.getUnconsumedTail());
+        }
+    }
+
+    @Builtin(name = "eof", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class EofNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        boolean eof(PZLibDecompress self) {
+            return self.isEof();
+        }
+    }
+}
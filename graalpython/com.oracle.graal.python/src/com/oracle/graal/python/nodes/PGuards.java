@@ -67,6 +67,7 @@ import com.oracle.graal.python.builtins.objects.range.PRange;
 import com.oracle.graal.python.builtins.objects.set.PBaseSet;
 import com.oracle.graal.python.builtins.objects.set.PFrozenSet;
 import com.oracle.graal.python.builtins.objects.slice.PSlice;
+import com.oracle.graal.python.builtins.objects.str.Latin1CharSequence;
 import com.oracle.graal.python.builtins.objects.str.NativeCharSequence;
 import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
@@ -152,10 +153,6 @@ public abstract class PGuards {
         return sequence.getSequenceStorage() instanceof EmptySequenceStorage;
     }
 
-    public static boolean isEmptyStorage(PArray array) {
-        return array.getSequenceStorage() instanceof EmptySequenceStorage;
-    }
-
     public static boolean isBasicStorage(PSequence sequence) {
         return sequence.getSequenceStorage() instanceof BasicSequenceStorage;
     }
@@ -316,6 +313,10 @@ public abstract class PGuards {
         return isBuiltinClassProfile.profileClass(getClassNode.execute(s), PythonBuiltinClassType.PString);
     }
 
+    public static boolean isLatin1String(Object obj) {
+        return obj instanceof PString && ((PString) obj).getCharSequence() instanceof Latin1CharSequence;
+    }
+
     public static boolean isNativeString(PString x) {
         return x.getCharSequence() instanceof NativeCharSequence;
     }
@@ -400,6 +401,10 @@ public abstract class PGuards {
         return obj instanceof PSlice;
     }
 
+    public static boolean isPArray(Object obj) {
+        return obj instanceof PArray;
+    }
+
     public static boolean expectBoolean(Object result) throws UnexpectedResultException {
         if (result instanceof Boolean) {
             return (Boolean) result;
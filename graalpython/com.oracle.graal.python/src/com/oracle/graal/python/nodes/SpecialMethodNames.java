@@ -150,6 +150,7 @@ public abstract class SpecialMethodNames {
     public static final String __AEXIT__ = "__aexit__";
     public static final String __REDUCE__ = "__reduce__";
     public static final String __REDUCE_EX__ = "__reduce_ex__";
+    public static final String __COPY__ = "__copy__";
     public static final String __GETINITARGS__ = "__getinitargs__";
     public static final String __GETNEWARGS__ = "__getnewargs__";
     public static final String __GETSTATE__ = "__getstate__";
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -45,6 +45,7 @@ import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.function.PBuiltinFunction;
 import com.oracle.graal.python.builtins.objects.function.PFunction;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.functools.PPartial;
 import com.oracle.graal.python.builtins.objects.method.PBuiltinMethod;
 import com.oracle.graal.python.builtins.objects.method.PDecoratedMethod;
 import com.oracle.graal.python.builtins.objects.method.PMethod;
@@ -53,6 +54,7 @@ import com.oracle.graal.python.nodes.PNodeWithContext;
 import com.oracle.graal.python.nodes.PRaiseNode;
 import com.oracle.graal.python.nodes.SpecialMethodNames;
 import com.oracle.graal.python.nodes.argument.CreateArgumentsNode;
+import com.oracle.graal.python.nodes.argument.keywords.ExecuteKeywordStarargsNode.ExpandKeywordStarargsNode;
 import com.oracle.graal.python.nodes.argument.positional.PositionalArgumentsNode;
 import com.oracle.graal.python.nodes.attributes.LookupInheritedAttributeNode;
 import com.oracle.graal.python.nodes.call.special.CallVarargsMethodNode;
@@ -109,6 +111,15 @@ public abstract class CallNode extends PNodeWithContext {
         return executeInternal(frame, callableObject, arguments, PKeyword.EMPTY_KEYWORDS);
     }
 
+    @Specialization(guards = "callable.isExactPartial()")
+    protected Object partialCall(VirtualFrame frame, PPartial callable, Object[] arguments, PKeyword[] keywords,
+                    @Cached ExpandKeywordStarargsNode expandKeywordsNode,
+                    @Cached CallNode recursive) {
+        // unwrap partial objects so that the wrapped function gets the inline caches of this site
+        PKeyword[] boundKeywords = expandKeywordsNode.executeWith(callable.getKeywords());
+        return recursive.execute(frame, callable.getFunction(), callable.bindArguments(arguments), PPartial.bindKeywords(boundKeywords, keywords));
+    }
+
     @Specialization(guards = "!isCallable(callableObject) || isClass(callableObject)")
     protected Object doObjectAndType(VirtualFrame frame, Object callableObject, Object[] arguments, PKeyword[] keywords,
                     @Cached PRaiseNode raise,
@@ -202,7 +213,7 @@ public abstract class CallNode extends PNodeWithContext {
         return dispatch.executeCall(frame, callable, createArgs.execute(callable, arguments, keywords));
     }
 
-    @Specialization(replaces = {"doObjectAndType", "decoratedMethodCall", "methodCallBuiltinDirect", "methodCallDirect", "builtinMethodCallDirect", "builtinMethodCallBuiltinDirectCached",
+    @Specialization(replaces = {"partialCall", "doObjectAndType", "decoratedMethodCall", "methodCallBuiltinDirect", "methodCallDirect", "builtinMethodCallDirect", "builtinMethodCallBuiltinDirectCached",
                     "builtinMethodCallBuiltinDirect", "methodCall", "builtinMethodCall", "functionCall", "builtinFunctionCall"})
     protected Object doGeneric(VirtualFrame frame, Object callableObject, Object[] arguments, PKeyword[] keywords,
                     @Shared("dispatchNode") @Cached CallDispatchNode dispatch,
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.nodes.instrumentation;
+
+import java.util.ArrayList;
+
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.generator.GeneratorControlData;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.frame.Frame;
+import com.oracle.truffle.api.frame.MaterializedFrame;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.source.SourceSection;
+
+/**
+ * What the trace hooks remember about a generator from one resumption to the next. When the
+ * generator yields, the statements that contain the yield are left with a
+ * {@link com.oracle.graal.python.runtime.exception.YieldException YieldException}, and when it
+ * resumes they are entered again on the way back to the yield. Those entries do not start a new
+ * line, so they are not reported.
+ */
+final class GeneratorTraceState {
+    /* the statements left by the last yield, innermost first */
+    private final ArrayList<SourceSection> suspended = new ArrayList<>();
+    /* the innermost of them, where the generator continues */
+    private Node yieldLocation;
+    /* whether the statements being left belong to the yield that left the last one */
+    private boolean collecting;
+    /* the next statement expected to be entered again, or -1 */
+    private int resumeIndex = -1;
+
+    static GeneratorTraceState get(Frame frame, boolean create) {
+        MaterializedFrame generatorFrame = PArguments.getGeneratorFrameSafe(frame);
+        if (generatorFrame == null) {
+            return null;
+        }
+        GeneratorControlData data = PArguments.getControlDataFromGeneratorFrame(generatorFrame);
+        GeneratorTraceState state = (GeneratorTraceState) data.getTraceState();
+        if (state == null && create) {
+            state = new GeneratorTraceState();
+            data.setTraceState(state);
+        }
+        return state;
+    }
+
+    /**
+     * Called when the generator is resumed. Returns the statement of the yield it continues from,
+     * or {@code null} when it starts.
+     */
+    Node resume() {
+        collecting = false;
+        resumeIndex = suspended.size() - 1;
+        return yieldLocation;
+    }
+
+    /**
+     * Called when a statement is entered. Returns {@code true} if the generator is only returning
+     * to the yield it continues from.
+     */
+    @TruffleBoundary
+    boolean isResumedEntry(SourceSection statement) {
+        collecting = false;
+        if (resumeIndex >= 0) {
+            if (suspended.get(resumeIndex).equals(statement)) {
+                resumeIndex--;
+                return true;
+            }
+            resumeIndex = -1;
+        }
+        return false;
+    }
+
+    /**
+     * Called when a statement is left because the generator yields.
+     */
+    @TruffleBoundary
+    void suspend(Node statement) {
+        if (!collecting) {
+            suspended.clear();
+            yieldLocation = statement;
+            collecting = true;
+        }
+        suspended.add(statement.getSourceSection());
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.nodes.instrumentation;
+
+import com.oracle.graal.python.builtins.modules.Profiler;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.frame.PFrame;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.EventContext;
+import com.oracle.truffle.api.nodes.Node;
+
+/**
+ * Reports the {@code call} and {@code return} events of a Python function to the profile function,
+ * the trace function and the local trace function of the frame.
+ */
+final class TraceCallEventNode extends TraceEventNode {
+    TraceCallEventNode(EventContext eventContext) {
+        super(eventContext);
+    }
+
+    @Override
+    protected void onEnter(VirtualFrame frame) {
+        PythonContext context = getContext();
+        if (context.isTracing()) {
+            return;
+        }
+        // a resumed generator continues at its last yield
+        Node location = eventContext.getInstrumentedNode();
+        GeneratorTraceState state = GeneratorTraceState.get(frame, true);
+        if (state != null) {
+            Node yieldLocation = state.resume();
+            if (yieldLocation != null) {
+                location = yieldLocation;
+            }
+        }
+        Object profile = context.getProfileFunction();
+        if (profile instanceof Profiler) {
+            Profiler profiler = (Profiler) profile;
+            profiler.enter(eventContext.getInstrumentedNode().getRootNode(), now(frame, context, profiler));
+        } else if (profile != null) {
+            callHook(frame, context, profile, materializeFrame(frame, location), "call", PNone.NONE, true);
+        }
+        Object trace = context.getTraceFunction();
+        if (trace != null) {
+            PFrame pyFrame = materializeFrame(frame, location);
+            Object localTrace = callHook(frame, context, trace, pyFrame, "call", PNone.NONE, false);
+            pyFrame.setLocalTraceFunction(localTrace == PNone.NONE ? null : localTrace);
+        }
+    }
+
+    @Override
+    protected void onReturnValue(VirtualFrame frame, Object result) {
+        onReturn(frame, result == null ? PNone.NONE : result);
+    }
+
+    @Override
+    protected void onReturnExceptional(VirtualFrame frame, Throwable exception) {
+        // the 'exception' event has been reported by the statement that raised
+        onReturn(frame, PNone.NONE);
+    }
+
+    private void onReturn(VirtualFrame frame, Object result) {
+        PythonContext context = getContext();
+        if (context.isTracing()) {
+            return;
+        }
+        // the frame returns from the last statement it executed
+        PFrame current = getPyFrame(frame);
+        Node location = current != null && current.getLocation() != null ? current.getLocation() : eventContext.getInstrumentedNode();
+        Object profile = context.getProfileFunction();
+        if (profile instanceof Profiler) {
+            Profiler profiler = (Profiler) profile;
+            profiler.exit(now(frame, context, profiler));
+        } else if (profile != null) {
+            callHook(frame, context, profile, materializeFrame(frame, location), "return", result, true);
+        }
+        if (context.getTraceFunction() != null && getLocalTraceFunction(frame) != null) {
+            PFrame pyFrame = materializeFrame(frame, location);
+            callHook(frame, context, pyFrame.getLocalTraceFunction(), pyFrame, "return", result, false);
+        }
+    }
+
+    /**
+     * Returns the local trace function without materializing the frame; a frame that has one has
+     * been materialized when it was set.
+     */
+    static Object getLocalTraceFunction(VirtualFrame frame) {
+        PFrame pyFrame = getPyFrame(frame);
+        return pyFrame != null ? pyFrame.getLocalTraceFunction() : null;
+    }
+
+    static PFrame getPyFrame(VirtualFrame frame) {
+        PFrame.Reference info = PArguments.getCurrentFrameInfo(frame);
+        return info != null ? info.getPyFrame() : null;
+    }
+
+    private long now(VirtualFrame frame, PythonContext context, Profiler profiler) {
+        Object timer = profiler.getExternalTimer();
+        if (timer == null) {
+            return System.nanoTime();
+        }
+        context.setTracing(true);
+        try {
+            return profiler.timerToTicks(call(frame, timer));
+        } catch (PException e) {
+            // CPython reports the error as unraisable and uses 0
+            return 0;
+        } finally {
+            context.setTracing(false);
+        }
+    }
+}
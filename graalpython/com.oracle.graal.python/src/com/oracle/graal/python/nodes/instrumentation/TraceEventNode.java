@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.nodes.instrumentation;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.objects.frame.PFrame;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.frame.MaterializeFrameNode;
+import com.oracle.graal.python.nodes.frame.MaterializeFrameNodeGen;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.TruffleLanguage.ContextReference;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.EventContext;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNode;
+import com.oracle.truffle.api.nodes.Node;
+
+abstract class TraceEventNode extends ExecutionEventNode {
+    protected final EventContext eventContext;
+
+    @CompilationFinal private ContextReference<PythonContext> contextRef;
+    @Child private MaterializeFrameNode materializeFrameNode;
+    @Child private CallNode callNode;
+
+    TraceEventNode(EventContext eventContext) {
+        this.eventContext = eventContext;
+    }
+
+    protected final PythonContext getContext() {
+        if (contextRef == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            contextRef = lookupContextReference(PythonLanguage.class);
+        }
+        return contextRef.get();
+    }
+
+    protected final PFrame materializeFrame(VirtualFrame frame) {
+        // the instrumented node is the location, so that 'f_lineno' is the line of the event
+        return materializeFrame(frame, eventContext.getInstrumentedNode());
+    }
+
+    protected final PFrame materializeFrame(VirtualFrame frame, Node location) {
+        if (materializeFrameNode == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            materializeFrameNode = insert(MaterializeFrameNodeGen.create());
+        }
+        return materializeFrameNode.execute(frame, location, true, true);
+    }
+
+    protected final Object call(VirtualFrame frame, Object callable, Object... args) {
+        if (callNode == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            callNode = insert(CallNode.create());
+        }
+        return callNode.execute(frame, callable, args);
+    }
+
+    /**
+     * Calls a trace or profile function with the hooks of this thread suspended. Like in CPython,
+     * a function that raises is uninstalled before the exception propagates.
+     */
+    protected final Object callHook(VirtualFrame frame, PythonContext context, Object hook, PFrame pyFrame, String event, Object arg, boolean isProfile) {
+        context.setTracing(true);
+        try {
+            return call(frame, hook, pyFrame, event, arg);
+        } catch (PException e) {
+            if (isProfile) {
+                context.setProfileFunction(null);
+            } else {
+                context.setTraceFunction(null);
+                pyFrame.setLocalTraceFunction(null);
+            }
+            throw e;
+        } finally {
+            context.setTracing(false);
+        }
+    }
+}
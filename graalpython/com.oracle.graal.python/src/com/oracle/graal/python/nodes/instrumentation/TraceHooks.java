@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.nodes.instrumentation;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.instrumentation.EventBinding;
+import com.oracle.truffle.api.instrumentation.Instrumenter;
+import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
+import com.oracle.truffle.api.instrumentation.StandardTags;
+
+/**
+ * Attaches the event nodes that report calls, returns and lines to the trace and profile hooks.
+ * The bindings only exist while at least one thread has a hook installed, so code runs without
+ * any instrumentation otherwise.
+ */
+public final class TraceHooks {
+    private final Instrumenter instrumenter;
+
+    private int callHooks;
+    private int lineHooks;
+    private EventBinding<?> callBinding;
+    private EventBinding<?> lineBinding;
+
+    TraceHooks(Instrumenter instrumenter) {
+        this.instrumenter = instrumenter;
+    }
+
+    /**
+     * Adjusts the number of installed hooks that need call and return events, and those that need
+     * line events, attaching or disposing the bindings as the counts become non-zero or zero.
+     */
+    @TruffleBoundary
+    public synchronized void update(int callDelta, int lineDelta) {
+        callHooks += callDelta;
+        lineHooks += lineDelta;
+        assert callHooks >= 0 && lineHooks >= 0;
+        if (callHooks > 0 && callBinding == null) {
+            callBinding = instrumenter.attachExecutionEventFactory(createFilter(StandardTags.RootTag.class), TraceCallEventNode::new);
+        } else if (callHooks == 0 && callBinding != null) {
+            callBinding.dispose();
+            callBinding = null;
+        }
+        if (lineHooks > 0 && lineBinding == null) {
+            lineBinding = instrumenter.attachExecutionEventFactory(createFilter(StandardTags.StatementTag.class), TraceLineEventNode::new);
+        } else if (lineHooks == 0 && lineBinding != null) {
+            lineBinding.dispose();
+            lineBinding = null;
+        }
+    }
+
+    private static SourceSectionFilter createFilter(Class<?> tag) {
+        return SourceSectionFilter.newBuilder().tagIs(tag).mimeTypeIs(PythonLanguage.MIME_TYPE).includeInternal(false).build();
+    }
+}
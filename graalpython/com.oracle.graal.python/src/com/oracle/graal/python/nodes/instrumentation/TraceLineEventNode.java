@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.nodes.instrumentation;
+
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.exception.PBaseException;
+import com.oracle.graal.python.builtins.objects.frame.PFrame;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.statement.RaiseNode;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.exception.YieldException;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.EventContext;
+import com.oracle.truffle.api.nodes.Node;
+
+/**
+ * Reports the {@code line} event of a statement, and the {@code exception} event of an exception
+ * raised by it, to the local trace function of the frame.
+ */
+final class TraceLineEventNode extends TraceEventNode {
+    @Child private GetClassNode getClassNode;
+    @Child private PythonObjectFactory factory;
+
+    TraceLineEventNode(EventContext eventContext) {
+        super(eventContext);
+    }
+
+    @Override
+    protected void onEnter(VirtualFrame frame) {
+        PythonContext context = getContext();
+        if (context.isTracing() || context.getTraceFunction() == null) {
+            return;
+        }
+        GeneratorTraceState state = GeneratorTraceState.get(frame, false);
+        if (state != null && state.isResumedEntry(eventContext.getInstrumentedSourceSection())) {
+            return;
+        }
+        if (TraceCallEventNode.getLocalTraceFunction(frame) == null) {
+            return;
+        }
+        PFrame pyFrame = materializeFrame(frame);
+        pyFrame.setTracedException(null);
+        Object localTrace = callHook(frame, context, pyFrame.getLocalTraceFunction(), pyFrame, "line", PNone.NONE, false);
+        if (localTrace != PNone.NONE) {
+            pyFrame.setLocalTraceFunction(localTrace);
+        }
+    }
+
+    @Override
+    protected void onReturnExceptional(VirtualFrame frame, Throwable exception) {
+        if (exception instanceof YieldException) {
+            PythonContext context = getContext();
+            if (!context.isTracing() && context.getTraceFunction() != null) {
+                GeneratorTraceState.get(frame, true).suspend(eventContext.getInstrumentedNode());
+            }
+        } else if (exception instanceof PException) {
+            traceException(frame, (PException) exception);
+        }
+    }
+
+    private void traceException(VirtualFrame frame, PException exception) {
+        PythonContext context = getContext();
+        if (context.isTracing() || context.getTraceFunction() == null || TraceCallEventNode.getLocalTraceFunction(frame) == null) {
+            return;
+        }
+        // the statements around the one that raised are left with the same exception
+        PFrame pyFrame = TraceCallEventNode.getPyFrame(frame);
+        PBaseException value = exception.getExceptionObject();
+        if (pyFrame.getTracedException() == value) {
+            return;
+        }
+        pyFrame.setTracedException(value);
+        Node statement = eventContext.getInstrumentedNode();
+        if (statement instanceof RaiseNode && ((RaiseNode) statement).isReraise()) {
+            // CPython reports a re-raised exception only in the callers
+            return;
+        }
+        if (getClassNode == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            getClassNode = insert(GetClassNode.create());
+            factory = insert(PythonObjectFactory.create());
+        }
+        pyFrame = materializeFrame(frame);
+        // the traceback is still being built while the exception unwinds this frame
+        Object arg = factory.createTuple(new Object[]{getClassNode.execute(value), value, PNone.NONE});
+        Object localTrace = callHook(frame, context, pyFrame.getLocalTraceFunction(), pyFrame, "exception", arg, false);
+        if (localTrace != PNone.NONE) {
+            pyFrame.setLocalTraceFunction(localTrace);
+        }
+    }
+}
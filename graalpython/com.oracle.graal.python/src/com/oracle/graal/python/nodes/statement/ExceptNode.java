@@ -50,6 +50,7 @@ import com.oracle.graal.python.runtime.exception.PythonErrorType;
 import com.oracle.graal.python.runtime.object.PythonObjectFactory;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.TruffleException;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.CachedContext;
@@ -60,7 +61,10 @@ import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.instrumentation.GenerateWrapper;
 import com.oracle.truffle.api.instrumentation.InstrumentableNode;
 import com.oracle.truffle.api.instrumentation.ProbeNode;
+import com.oracle.truffle.api.instrumentation.StandardTags;
+import com.oracle.truffle.api.instrumentation.Tag;
 import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.source.SourceSection;
 
 @GenerateWrapper
 public class ExceptNode extends PNodeWithContext implements InstrumentableNode {
@@ -71,6 +75,8 @@ public class ExceptNode extends PNodeWithContext implements InstrumentableNode {
     @Child private PythonObjectFactory factory;
     @Child private ExceptMatchNode matchNode;
 
+    @CompilationFinal private SourceSection sourceSection;
+
     public ExceptNode(StatementNode body, ExpressionNode exceptType, WriteNode exceptName) {
         this.body = body;
         this.exceptName = exceptName;
@@ -81,6 +87,7 @@ public class ExceptNode extends PNodeWithContext implements InstrumentableNode {
         this.body = original.body;
         this.exceptName = original.exceptName;
         this.exceptType = original.exceptType;
+        this.sourceSection = original.sourceSection;
     }
 
     public void executeExcept(VirtualFrame frame, TruffleException e) {
@@ -131,6 +138,15 @@ public class ExceptNode extends PNodeWithContext implements InstrumentableNode {
         return exceptName;
     }
 
+    @Override
+    public SourceSection getSourceSection() {
+        return sourceSection;
+    }
+
+    public void assignSourceSection(SourceSection source) {
+        this.sourceSection = source;
+    }
+
     @Override
     public WrapperNode createWrapper(ProbeNode probeNode) {
         return new ExceptNodeWrapper(this, this, probeNode);
@@ -139,6 +155,12 @@ public class ExceptNode extends PNodeWithContext implements InstrumentableNode {
     public boolean isInstrumentable() {
         return getSourceSection() != null;
     }
+
+    @Override
+    public boolean hasTag(Class<? extends Tag> tag) {
+        // the handler starts a line of its own, like in CPython
+        return tag == StandardTags.StatementTag.class;
+    }
 }
 
 interface EmulateJythonNode {
@@ -50,14 +50,18 @@ import java.nio.channels.SeekableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.util.function.Supplier;
 
+import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodesFactory.ToByteArrayNodeGen;
 import com.oracle.graal.python.nodes.PNodeWithContext;
 import com.oracle.graal.python.nodes.PRaiseNode;
 import com.oracle.graal.python.nodes.util.ChannelNodesFactory.ReadByteFromChannelNodeGen;
 import com.oracle.graal.python.nodes.util.ChannelNodesFactory.ReadFromChannelNodeGen;
+import com.oracle.graal.python.nodes.util.ChannelNodesFactory.ReadIntoArrayNodeGen;
 import com.oracle.graal.python.nodes.util.ChannelNodesFactory.WriteByteToChannelNodeGen;
+import com.oracle.graal.python.nodes.util.ChannelNodesFactory.WriteFromArrayNodeGen;
 import com.oracle.graal.python.nodes.util.ChannelNodesFactory.WriteToChannelNodeGen;
+import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -111,9 +115,15 @@ public abstract class ChannelNodes {
             }
         }
 
-        @TruffleBoundary(allowInlining = true, transferToInterpreterOnException = false)
+        @TruffleBoundary(transferToInterpreterOnException = false)
         private static int read(ReadableByteChannel readableChannel, ByteBuffer dst) throws IOException {
-            return readableChannel.read(dst);
+            PythonContext context = PythonLanguage.getContext();
+            boolean releasedGil = context.releaseGil();
+            try {
+                return readableChannel.read(dst);
+            } finally {
+                context.reacquireGil(releasedGil);
+            }
         }
     }
 
@@ -133,9 +143,15 @@ public abstract class ChannelNodes {
             }
         }
 
-        @TruffleBoundary(allowInlining = true, transferToInterpreterOnException = false)
+        @TruffleBoundary(transferToInterpreterOnException = false)
         private static int write(WritableByteChannel writableChannel, ByteBuffer src) throws IOException {
-            return writableChannel.write(src);
+            PythonContext context = PythonLanguage.getContext();
+            boolean releasedGil = context.releaseGil();
+            try {
+                return writableChannel.write(src);
+            } finally {
+                context.reacquireGil(releasedGil);
+            }
         }
     }
 
@@ -205,6 +221,42 @@ public abstract class ChannelNodes {
         }
     }
 
+    /**
+     * Reads at most {@code len} bytes from the channel directly into {@code dst} starting at
+     * {@code off}. Returns the number of bytes read, which is {@code 0} at the end of the stream.
+     */
+    public abstract static class ReadIntoArrayNode extends ReadFromChannelBaseNode {
+
+        public abstract int execute(Channel channel, byte[] dst, int off, int len);
+
+        @Specialization
+        static int readReadable(ReadableByteChannel channel, byte[] dst, int off, int len,
+                        @Cached BranchProfile gotException,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            int n = readIntoBuffer(channel, wrap(dst, off, len), gotException, raiseNode);
+            return n < 0 ? 0 : n;
+        }
+
+        @Specialization(guards = "!isReadable(channel)")
+        static int readOther(@SuppressWarnings("unused") Channel channel, @SuppressWarnings("unused") byte[] dst, @SuppressWarnings("unused") int off, @SuppressWarnings("unused") int len,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            throw raiseNode.raise(OSError, "file not opened for reading");
+        }
+
+        static boolean isReadable(Channel channel) {
+            return channel instanceof ReadableByteChannel;
+        }
+
+        @TruffleBoundary(allowInlining = true)
+        private static ByteBuffer wrap(byte[] dst, int off, int len) {
+            return ByteBuffer.wrap(dst, off, len);
+        }
+
+        public static ReadIntoArrayNode create() {
+            return ReadIntoArrayNodeGen.create();
+        }
+    }
+
     public abstract static class ReadByteFromChannelNode extends ReadFromChannelBaseNode {
 
         @Child private ReadByteErrorHandler errorHandler;
@@ -293,6 +345,49 @@ public abstract class ChannelNodes {
         }
     }
 
+    /**
+     * Writes {@code len} bytes of {@code src} starting at {@code off} to the channel. Unlike a
+     * single {@code write(2)}, this keeps writing until all bytes have been accepted.
+     */
+    public abstract static class WriteFromArrayNode extends WriteToChannelBaseNode {
+
+        public abstract void execute(Channel channel, byte[] src, int off, int len);
+
+        @Specialization
+        static void writeWritable(WritableByteChannel channel, byte[] src, int off, int len,
+                        @Cached BranchProfile gotException,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            ByteBuffer buf = wrap(src, off, len);
+            while (hasRemaining(buf)) {
+                writeFromBuffer(channel, buf, gotException, raiseNode);
+            }
+        }
+
+        @Specialization(guards = "!isWritable(channel)")
+        static void writeOther(@SuppressWarnings("unused") Channel channel, @SuppressWarnings("unused") byte[] src, @SuppressWarnings("unused") int off, @SuppressWarnings("unused") int len,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            throw raiseNode.raise(OSError, "file not opened for writing");
+        }
+
+        static boolean isWritable(Channel channel) {
+            return channel instanceof WritableByteChannel;
+        }
+
+        @TruffleBoundary(allowInlining = true)
+        private static ByteBuffer wrap(byte[] src, int off, int len) {
+            return ByteBuffer.wrap(src, off, len);
+        }
+
+        @TruffleBoundary(allowInlining = true)
+        private static boolean hasRemaining(ByteBuffer buf) {
+            return buf.hasRemaining();
+        }
+
+        public static WriteFromArrayNode create() {
+            return WriteFromArrayNodeGen.create();
+        }
+    }
+
     public abstract static class WriteToChannelNode extends WriteToChannelBaseNode {
         @Child private SequenceStorageNodes.ToByteArrayNode toByteArrayNode;
 
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.parser;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.parser.sst.SSTDeserializer;
+import com.oracle.graal.python.parser.sst.SSTNode;
+import com.oracle.graal.python.parser.sst.SSTSerializerVisitor;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.api.TruffleLanguage.Env;
+import com.oracle.truffle.api.source.Source;
+
+/**
+ * A persistent cache of parsed modules, similar to CPython's {@code __pycache__} directories. For a
+ * source file {@code dir/name.py}, the SST and scope tree produced by the ANTLR parser are stored
+ * in {@code dir/__pycache__/name.graalpython.sst}. The cache entry is keyed by the length and a
+ * hash of the source characters rather than the modification time, because the source that is
+ * compiled does not necessarily come from the file at the time of parsing.
+ *
+ * Any problem reading or writing a cache file is silently ignored and the source is parsed as
+ * usual.
+ */
+final class ParseCache {
+
+    private static final int MAGIC = 0x47505353;
+    /**
+     * Must be incremented whenever the format written by {@link SSTSerializerVisitor} or
+     * {@link ScopeInfo#write(SSTSerializerVisitor)} changes.
+     */
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 8;
+
+    private static final String CACHE_DIR = "__pycache__";
+    private static final String CACHE_SUFFIX = ".graalpython.sst";
+
+    private ParseCache() {
+        // no instances
+    }
+
+    /**
+     * Loads the cached SST for {@code source}, registering the restored global scope with
+     * {@code scopeEnvironment}. Returns {@code null} if there is no valid cache entry.
+     */
+    @TruffleBoundary
+    static SSTNode load(Source source, ScopeEnvironment scopeEnvironment) {
+        TruffleFile cacheFile = getCacheFile(source);
+        if (cacheFile == null) {
+            return null;
+        }
+        try {
+            if (!cacheFile.isRegularFile()) {
+                return null;
+            }
+            byte[] data = cacheFile.readAllBytes();
+            if (data.length < HEADER_SIZE) {
+                return null;
+            }
+            CharSequence chars = source.getCharacters();
+            ByteBuffer header = ByteBuffer.wrap(data, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION || header.getInt() != chars.length() || header.getLong() != hash(chars)) {
+                return null;
+            }
+            return SSTDeserializer.deserialize(data, HEADER_SIZE, scopeEnvironment);
+        } catch (IOException | RuntimeException e) {
+            // not readable, or a truncated or otherwise corrupted cache file
+            return null;
+        }
+    }
+
+    /**
+     * Serializes the SST and the scope tree starting at {@code globalScope}. This must be called
+     * before the tree is translated, since translation modifies the scopes.
+     */
+    @TruffleBoundary
+    static byte[] serialize(ScopeInfo globalScope, SSTNode root) {
+        try {
+            return SSTSerializerVisitor.serialize(globalScope, root);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes data obtained from {@link #serialize(ScopeInfo, SSTNode)} to the cache file for
+     * {@code source}. The file is written to a temporary file first and then moved into place, so
+     * that concurrent readers never see a partially written entry.
+     */
+    @TruffleBoundary
+    static void store(Source source, byte[] data) {
+        TruffleFile cacheFile = getCacheFile(source);
+        if (cacheFile == null || data == null) {
+            return;
+        }
+        TruffleFile tmpFile = null;
+        try {
+            TruffleFile cacheDir = cacheFile.getParent();
+            if (!cacheDir.isDirectory()) {
+                cacheDir.createDirectories();
+            }
+            CharSequence chars = source.getCharacters();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(chars.length()).putLong(hash(chars));
+            TruffleFile newFile = cacheDir.resolve(cacheFile.getName() + "." + Long.toHexString(System.nanoTime()) + ".tmp");
+            try (OutputStream out = newFile.newOutputStream(StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                tmpFile = newFile;
+                out.write(header.array());
+                out.write(data);
+            }
+            try {
+                tmpFile.move(cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (UnsupportedOperationException | IOException e) {
+                tmpFile.move(cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            tmpFile = null;
+        } catch (IOException | SecurityException | UnsupportedOperationException e) {
+            // the cache is best effort, e.g. the directory may not be writable
+        } finally {
+            if (tmpFile != null) {
+                try {
+                    tmpFile.delete();
+                } catch (IOException | SecurityException | UnsupportedOperationException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    private static TruffleFile getCacheFile(Source source) {
+        String path = source.getPath();
+        if (path == null) {
+            return null;
+        }
+        try {
+            Env env = PythonLanguage.getContext().getEnv();
+            TruffleFile sourceFile = env.getPublicTruffleFile(path);
+            TruffleFile dir = sourceFile.getParent();
+            if (dir == null) {
+                return null;
+            }
+            String name = sourceFile.getName();
+            int dot = name.lastIndexOf('.');
+            String stem = dot > 0 ? name.substring(0, dot) : name;
+            return dir.resolve(CACHE_DIR).resolve(stem + CACHE_SUFFIX);
+        } catch (SecurityException | UnsupportedOperationException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the source characters.
+     */
+    private static long hash(CharSequence chars) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < chars.length(); i++) {
+            char c = chars.charAt(i);
+            h ^= c & 0xFF;
+            h *= 0x100000001b3L;
+            h ^= c >>> 8;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+}
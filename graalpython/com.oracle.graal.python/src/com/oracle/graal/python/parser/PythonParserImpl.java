@@ -53,6 +53,7 @@ public final class PythonParserImpl implements PythonParser {
 
     private final boolean logFiles;
     private final int timeStatistics;
+    private final boolean persistentCache;
     private long timeInParser = 0;
     private long numberOfFiles = 0;
 
@@ -61,6 +62,7 @@ public final class PythonParserImpl implements PythonParser {
     public PythonParserImpl(Env env) {
         this.logFiles = env.getOptions().get(PythonOptions.ParserLogFiles);
         this.timeStatistics = env.getOptions().get(PythonOptions.ParserStatistics);
+        this.persistentCache = env.getOptions().get(PythonOptions.PersistentParseCache);
     }
 
     private static Python3Parser getPython3Parser(Source source, ParserErrorCallback errors) {
@@ -120,9 +122,33 @@ public final class PythonParserImpl implements PythonParser {
     @TruffleBoundary
     public Node parseN(ParserMode mode, ParserErrorCallback errors, Source source, Frame currentFrame) {
         FrameDescriptor inlineLocals = mode == ParserMode.InlineEvaluation ? currentFrame.getFrameDescriptor() : null;
+        PythonSSTNodeFactory sstFactory = new PythonSSTNodeFactory(errors, source);
+        boolean useCache = persistentCache && mode == ParserMode.File && source.getPath() != null;
+        SSTNode parserSSTResult = useCache ? ParseCache.load(source, sstFactory.getScopeEnvironment()) : null;
+        byte[] cacheData = null;
+        if (parserSSTResult == null) {
+            parserSSTResult = parseSST(mode, errors, source, sstFactory, inlineLocals);
+            if (useCache) {
+                cacheData = ParseCache.serialize(sstFactory.getScopeEnvironment().getGlobalScope(), parserSSTResult);
+            }
+        }
+
+        lastGlobalScope = sstFactory.getScopeEnvironment().getGlobalScope();
+        Node result;
+        try {
+            result = sstFactory.createParserResult(parserSSTResult, mode, currentFrame);
+        } catch (Exception e) {
+            throw handleParserError(errors, source, e, !(mode == ParserMode.InteractiveStatement || mode == ParserMode.Statement));
+        }
+        if (cacheData != null) {
+            ParseCache.store(source, cacheData);
+        }
+        return result;
+    }
+
+    private static SSTNode parseSST(ParserMode mode, ParserErrorCallback errors, Source source, PythonSSTNodeFactory sstFactory, FrameDescriptor inlineLocals) {
         // ANTLR parsing
         Python3Parser parser = getPython3Parser(source, errors);
-        PythonSSTNodeFactory sstFactory = new PythonSSTNodeFactory(errors, source);
         parser.setFactory(sstFactory);
         SSTNode parserSSTResult = null;
 
@@ -158,13 +184,7 @@ public final class PythonParserImpl implements PythonParser {
                 throw handleParserError(errors, source, e, !(mode == ParserMode.InteractiveStatement || mode == ParserMode.Statement));
             }
         }
-
-        lastGlobalScope = sstFactory.getScopeEnvironment().getGlobalScope();
-        try {
-            return sstFactory.createParserResult(parserSSTResult, mode, currentFrame);
-        } catch (Exception e) {
-            throw handleParserError(errors, source, e, !(mode == ParserMode.InteractiveStatement || mode == ParserMode.Statement));
-        }
+        return parserSSTResult;
     }
 
     @Override
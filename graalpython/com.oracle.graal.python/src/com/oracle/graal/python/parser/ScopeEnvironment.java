@@ -230,6 +230,11 @@ public class ScopeEnvironment implements CellFrameSlotSupplier {
         return globalScope;
     }
 
+    public void setGlobalScope(ScopeInfo globalScope) {
+        assert this.globalScope == null : "global scope already set";
+        this.globalScope = globalScope;
+    }
+
     public boolean isNonlocal(String name) {
         assert name != null : "name is null!";
         return currentScope.isExplicitNonlocalVariable(name);
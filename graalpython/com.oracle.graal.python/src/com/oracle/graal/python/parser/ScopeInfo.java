@@ -34,6 +34,8 @@ import java.util.TreeSet;
 
 import com.oracle.graal.python.nodes.expression.ExpressionNode;
 import com.oracle.graal.python.nodes.function.FunctionDefinitionNode.KwDefaultExpressionNode;
+import com.oracle.graal.python.parser.sst.SSTDeserializer;
+import com.oracle.graal.python.parser.sst.SSTSerializerVisitor;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.FrameSlot;
@@ -305,6 +307,75 @@ public final class ScopeInfo {
         throw new IllegalStateException("Cannot find argument for name " + name + " in scope " + getScopeId());
     }
 
+    /**
+     * Writes this scope and all its child scopes. Only the information collected while parsing is
+     * written, the default argument nodes are created during translation.
+     */
+    public void write(SSTSerializerVisitor out) {
+        out.registerScope(this);
+        out.writeString(scopeId);
+        out.writeInt(scopeKind.ordinal());
+        List<? extends FrameSlot> slots = frameDescriptor.getSlots();
+        out.writeInt(slots.size());
+        for (FrameSlot slot : slots) {
+            Object identifier = slot.getIdentifier();
+            if (!(identifier instanceof String)) {
+                throw new IllegalStateException("cannot serialize frame slot " + identifier);
+            }
+            out.writeString((String) identifier);
+        }
+        out.writeStrings(identifierToIndex);
+        out.writeStrings(explicitGlobalVariables);
+        out.writeStrings(explicitNonlocalVariables);
+        out.writeStrings(cellVars);
+        out.writeStrings(freeVars);
+        out.writeStrings(seenVars);
+        out.writeBoolean(annotationsField);
+        // children are linked in reverse order of creation, write them in creation order
+        ArrayList<ScopeInfo> children = new ArrayList<>();
+        for (ScopeInfo child = firstChildScope; child != null; child = child.nextChildScope) {
+            children.add(child);
+        }
+        out.writeInt(children.size());
+        for (int i = children.size() - 1; i >= 0; i--) {
+            children.get(i).write(out);
+        }
+    }
+
+    /**
+     * Reads a scope tree written by {@link #write(SSTSerializerVisitor)}.
+     */
+    public static ScopeInfo read(SSTDeserializer in, ScopeInfo parent) {
+        String scopeId = in.readString();
+        ScopeKind kind = ScopeKind.values()[in.readInt()];
+        ScopeInfo scope = new ScopeInfo(scopeId, kind, null, parent);
+        in.registerScope(scope);
+        int slotCount = in.readInt();
+        for (int i = 0; i < slotCount; i++) {
+            scope.frameDescriptor.addFrameSlot(in.readString());
+        }
+        scope.identifierToIndex.addAll(in.readStringList());
+        scope.explicitGlobalVariables = toHashSet(in.readStringList());
+        scope.explicitNonlocalVariables = toHashSet(in.readStringList());
+        scope.cellVars = toTreeSet(in.readStringList());
+        scope.freeVars = toTreeSet(in.readStringList());
+        scope.seenVars = toTreeSet(in.readStringList());
+        scope.annotationsField = in.readBoolean();
+        int childCount = in.readInt();
+        for (int i = 0; i < childCount; i++) {
+            read(in, scope);
+        }
+        return scope;
+    }
+
+    private static HashSet<String> toHashSet(List<String> values) {
+        return values == null ? null : new HashSet<>(values);
+    }
+
+    private static TreeSet<String> toTreeSet(List<String> values) {
+        return values == null ? null : new TreeSet<>(values);
+    }
+
     public void debugPrint(StringBuilder sb, int indent) {
         indent(sb, indent);
         sb.append("Scope: ").append(scopeId).append("\n");
@@ -162,6 +162,80 @@ public final class ArgDefListBuilder {
         kwarIndex = kwargs.size() - 1;
     }
 
+    void write(SSTSerializerVisitor out) {
+        writeParameters(out, args);
+        writeParameters(out, kwargs);
+        out.writeStrings(paramNames);
+        out.writeInt(splatIndex);
+        out.writeInt(kwarIndex);
+        out.writeInt(positionalOnlyIndex);
+        out.writeInt(countOfTypedParams);
+    }
+
+    private static void writeParameters(SSTSerializerVisitor out, List<Parameter> parameters) {
+        if (parameters == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(parameters.size());
+        for (Parameter param : parameters) {
+            out.writeString(param.name);
+            out.writeNode(param.type);
+            boolean hasDefValue = param instanceof ParameterWithDefValue;
+            out.writeBoolean(hasDefValue);
+            if (hasDefValue) {
+                out.writeNode(((ParameterWithDefValue) param).value);
+            }
+        }
+    }
+
+    static ArgDefListBuilder read(SSTDeserializer in, ScopeEnvironment scopeEnvironment) {
+        ArgDefListBuilder result = new ArgDefListBuilder(scopeEnvironment);
+        int len = in.readInt();
+        if (len >= 0) {
+            result.args = new ArrayList<>(len);
+            for (int i = 0; i < len; i++) {
+                Parameter param = result.readParameter(in);
+                result.args.add(param);
+                if (param instanceof ParameterWithDefValue) {
+                    if (result.argsWithDefValue == null) {
+                        result.argsWithDefValue = new ArrayList<>(5);
+                    }
+                    result.argsWithDefValue.add((ParameterWithDefValue) param);
+                }
+            }
+        }
+        len = in.readInt();
+        if (len >= 0) {
+            result.kwargs = new ArrayList<>(len);
+            for (int i = 0; i < len; i++) {
+                Parameter param = result.readParameter(in);
+                result.kwargs.add(param);
+                if (param instanceof ParameterWithDefValue) {
+                    if (result.kwargsWithDefValue == null) {
+                        result.kwargsWithDefValue = new ArrayList<>(4);
+                    }
+                    result.kwargsWithDefValue.add((ParameterWithDefValue) param);
+                }
+            }
+        }
+        result.paramNames.addAll(in.readStringList());
+        result.splatIndex = in.readInt();
+        result.kwarIndex = in.readInt();
+        result.positionalOnlyIndex = in.readInt();
+        result.countOfTypedParams = in.readInt();
+        return result;
+    }
+
+    private Parameter readParameter(SSTDeserializer in) {
+        String name = in.readString();
+        SSTNode type = in.readNode();
+        if (in.readBoolean()) {
+            return new ParameterWithDefValue(name, type, in.readNode());
+        }
+        return new Parameter(name, type);
+    }
+
     public boolean hasDefaultParameter() {
         return argsWithDefValue != null;
     }
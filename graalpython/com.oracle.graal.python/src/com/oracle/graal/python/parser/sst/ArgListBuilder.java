@@ -61,6 +61,24 @@ public final class ArgListBuilder {
     private List<SSTNode> starArg;
     private List<SSTNode> kwArg;
 
+    void write(SSTSerializerVisitor out) {
+        out.writeNodes(args);
+        out.writeNodes(nameArgNodes);
+        out.writeStrings(nameArgNames);
+        out.writeNodes(starArg);
+        out.writeNodes(kwArg);
+    }
+
+    static ArgListBuilder read(SSTDeserializer in) {
+        ArgListBuilder result = new ArgListBuilder();
+        result.args = in.readNodeList();
+        result.nameArgNodes = in.readNodeList();
+        result.nameArgNames = in.readStringList();
+        result.starArg = in.readNodeList();
+        result.kwArg = in.readNodeList();
+        return result;
+    }
+
     public void addArg(SSTNode value) {
         if (args == null) {
             args = new ArrayList<>();
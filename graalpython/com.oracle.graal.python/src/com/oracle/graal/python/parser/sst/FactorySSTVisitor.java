@@ -1174,6 +1174,7 @@ public class FactorySSTVisitor implements SSTreeVisitor<PNode> {
             StatementNode exceptBody = (StatementNode) exceptNode.body.accept(this);
             WriteNode exceptName = exceptNode.asName != null ? (WriteNode) scopeEnvironment.findVariable(exceptNode.asName).makeWriteNode(null) : null;
             exceptNodes[i] = new ExceptNode(exceptBody, exceptTest, exceptName);
+            exceptNodes[i].assignSourceSection(createSourceSection(exceptNode.startOffset, exceptNode.endOffset));
         }
         PNode result = nodeFactory.createTryExceptElseFinallyNode(body, exceptNodes, elseStatement, finalyStatement);
         result.assignSourceSection(createSourceSection(node.startOffset, node.endOffset));
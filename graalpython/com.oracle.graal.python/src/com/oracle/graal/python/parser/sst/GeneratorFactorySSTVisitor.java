@@ -375,6 +375,7 @@ public class GeneratorFactorySSTVisitor extends FactorySSTVisitor {
             StatementNode exceptBody = (StatementNode) exceptNode.body.accept(this);
             WriteNode exceptName = exceptNode.asName != null ? (WriteNode) scopeEnvironment.findVariable(exceptNode.asName).makeWriteNode(null) : null;
             exceptNodes[i] = new ExceptNode(exceptBody, exceptTest, exceptName);
+            exceptNodes[i].assignSourceSection(createSourceSection(exceptNode.startOffset, exceptNode.endOffset));
         }
 
         StatementNode result;
@@ -0,0 +1,499 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.parser.sst;
+
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_AND;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_ANN_ASSIGNMENT;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_ASSERT;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_ASSIGNMENT;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_AUG_ASSIGNMENT;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_BINARY_ARITHMETIC;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_BLOCK;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_BOOLEAN_LITERAL;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_CALL;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_CLASS;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_COLLECTION;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_COMPARISON;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_DECORATED;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_DECORATOR;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_DEL;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_EXCEPT;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_EXPRESSION_STATEMENT;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_FLOAT_LITERAL;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_FOR;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_FOR_COMPREHENSION;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_FUNCTION_DEF;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_GET_ATTRIBUTE;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_IF;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_IMPORT;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_IMPORT_FROM;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_LAMBDA;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_NOT;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_NULL;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_NUMBER_LITERAL;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_OR;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_RAISE;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_RETURN;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_SIMPLE;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_SLICE;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_STAR;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_STRING_LITERAL;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_SUBSCRIPT;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_TERNARY_ARITHMETIC;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_TERNARY_IF;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_TRY;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_UNARY;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_VAR_LOOKUP;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_WHILE;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_WITH;
+import static com.oracle.graal.python.parser.sst.SSTSerializerVisitor.TAG_YIELD_EXPRESSION;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.nodes.expression.BinaryArithmetic;
+import com.oracle.graal.python.nodes.expression.UnaryArithmetic;
+import com.oracle.graal.python.parser.ScopeEnvironment;
+import com.oracle.graal.python.parser.ScopeInfo;
+
+/**
+ * Reads the format written by {@link SSTSerializerVisitor}. Malformed input results in a
+ * {@link RuntimeException}; callers are expected to fall back to parsing the source in that case.
+ */
+public final class SSTDeserializer {
+
+    private final byte[] data;
+    private int pos;
+    private final ScopeEnvironment scopeEnvironment;
+    private final List<String> strings = new ArrayList<>();
+    private final List<ScopeInfo> scopes = new ArrayList<>();
+
+    private SSTDeserializer(byte[] data, int offset, ScopeEnvironment scopeEnvironment) {
+        this.data = data;
+        this.pos = offset;
+        this.scopeEnvironment = scopeEnvironment;
+    }
+
+    /**
+     * Restores the scope tree and the SST from {@code data} starting at {@code offset}. The global
+     * scope is registered with the given scope environment.
+     */
+    public static SSTNode deserialize(byte[] data, int offset, ScopeEnvironment scopeEnvironment) {
+        SSTDeserializer deserializer = new SSTDeserializer(data, offset, scopeEnvironment);
+        ScopeInfo globalScope = ScopeInfo.read(deserializer, null);
+        SSTNode result = deserializer.readNode();
+        if (deserializer.pos != data.length) {
+            throw new IllegalStateException("unexpected trailing data");
+        }
+        scopeEnvironment.setGlobalScope(globalScope);
+        return result;
+    }
+
+    public void registerScope(ScopeInfo scope) {
+        scopes.add(scope);
+    }
+
+    public ScopeInfo readScope() {
+        int id = readInt();
+        return id == 0 ? null : scopes.get(id - 1);
+    }
+
+    public boolean readBoolean() {
+        return data[pos++] != 0;
+    }
+
+    public int readInt() {
+        int v = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = data[pos++];
+            v |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    public String readString() {
+        int code = readInt();
+        if (code == 0) {
+            return null;
+        } else if (code == 1) {
+            int len = readInt();
+            char[] chars = new char[len];
+            for (int i = 0; i < len; i++) {
+                chars[i] = (char) readInt();
+            }
+            String value = new String(chars);
+            strings.add(value);
+            return value;
+        }
+        return strings.get(code - 2);
+    }
+
+    /**
+     * Reads a list of strings, {@code null} is returned for an absent list.
+     */
+    public List<String> readStringList() {
+        int len = readInt();
+        if (len < 0) {
+            return null;
+        }
+        List<String> result = new ArrayList<>(len);
+        for (int i = 0; i < len; i++) {
+            result.add(readString());
+        }
+        return result;
+    }
+
+    private String[] readStrings() {
+        int len = readInt();
+        if (len < 0) {
+            return null;
+        }
+        String[] result = new String[len];
+        for (int i = 0; i < len; i++) {
+            result[i] = readString();
+        }
+        return result;
+    }
+
+    public SSTNode[] readNodes() {
+        int len = readInt();
+        if (len < 0) {
+            return null;
+        }
+        SSTNode[] result = new SSTNode[len];
+        for (int i = 0; i < len; i++) {
+            result[i] = readNode();
+        }
+        return result;
+    }
+
+    public List<SSTNode> readNodeList() {
+        int len = readInt();
+        if (len < 0) {
+            return null;
+        }
+        List<SSTNode> result = new ArrayList<>(len);
+        for (int i = 0; i < len; i++) {
+            result.add(readNode());
+        }
+        return result;
+    }
+
+    private ArgListBuilder readArgs() {
+        return readBoolean() ? ArgListBuilder.read(this) : null;
+    }
+
+    private ArgDefListBuilder readArgDefs() {
+        return readBoolean() ? ArgDefListBuilder.read(this, scopeEnvironment) : null;
+    }
+
+    private static <T extends Enum<T>> T valueOf(Class<T> enumType, String name) {
+        return name == null ? null : Enum.valueOf(enumType, name);
+    }
+
+    public SSTNode readNode() {
+        int tag = readInt();
+        if (tag == TAG_NULL) {
+            return null;
+        }
+        int start = readInt();
+        int end = readInt();
+        switch (tag) {
+            case TAG_AND:
+                return new AndSSTNode(readNodes(), start, end);
+            case TAG_ANN_ASSIGNMENT: {
+                SSTNode lhs = readNode();
+                SSTNode type = readNode();
+                SSTNode rhs = readNode();
+                return new AnnAssignmentSSTNode(lhs, type, rhs, start, end);
+            }
+            case TAG_ASSERT: {
+                SSTNode test = readNode();
+                SSTNode message = readNode();
+                return new AssertSSTNode(test, message, start, end);
+            }
+            case TAG_ASSIGNMENT: {
+                SSTNode[] lhs = readNodes();
+                SSTNode rhs = readNode();
+                return new AssignmentSSTNode(lhs, rhs, start, end);
+            }
+            case TAG_AUG_ASSIGNMENT: {
+                SSTNode lhs = readNode();
+                String operation = readString();
+                SSTNode rhs = readNode();
+                return new AugAssignmentSSTNode(lhs, operation, rhs, start, end);
+            }
+            case TAG_BINARY_ARITHMETIC: {
+                BinaryArithmetic operation = valueOf(BinaryArithmetic.class, readString());
+                SSTNode left = readNode();
+                SSTNode right = readNode();
+                return new BinaryArithmeticSSTNode(operation, left, right, start, end);
+            }
+            case TAG_BLOCK:
+                return new BlockSSTNode(readNodes(), start, end);
+            case TAG_BOOLEAN_LITERAL:
+                return new BooleanLiteralSSTNode(readBoolean(), start, end);
+            case TAG_CALL: {
+                SSTNode target = readNode();
+                ArgListBuilder parameters = readArgs();
+                return new CallSSTNode(target, parameters, start, end);
+            }
+            case TAG_CLASS: {
+                ScopeInfo classScope = readScope();
+                String name = readString();
+                ArgListBuilder baseClasses = readArgs();
+                SSTNode body = readNode();
+                return new ClassSSTNode(classScope, name, baseClasses, body, start, end);
+            }
+            case TAG_COLLECTION: {
+                SSTNode[] values = readNodes();
+                PythonBuiltinClassType type = valueOf(PythonBuiltinClassType.class, readString());
+                return new CollectionSSTNode(values, type, start, end);
+            }
+            case TAG_COMPARISON: {
+                SSTNode firstValue = readNode();
+                String[] operations = readStrings();
+                SSTNode[] otherValues = readNodes();
+                return new ComparisonSSTNode(firstValue, operations, otherValues, start, end);
+            }
+            case TAG_DECORATED: {
+                SSTNode[] decoratorNodes = readNodes();
+                DecoratorSSTNode[] decorators = null;
+                if (decoratorNodes != null) {
+                    decorators = new DecoratorSSTNode[decoratorNodes.length];
+                    for (int i = 0; i < decorators.length; i++) {
+                        decorators[i] = (DecoratorSSTNode) decoratorNodes[i];
+                    }
+                }
+                SSTNode decorated = readNode();
+                return new DecoratedSSTNode(decorators, decorated, start, end);
+            }
+            case TAG_DECORATOR: {
+                String name = readString();
+                ArgListBuilder arg = readArgs();
+                return new DecoratorSSTNode(name, arg, start, end);
+            }
+            case TAG_DEL:
+                return new DelSSTNode(readNodes(), start, end);
+            case TAG_EXCEPT: {
+                SSTNode test = readNode();
+                String asName = readString();
+                SSTNode body = readNode();
+                return new ExceptSSTNode(test, asName, body, start, end);
+            }
+            case TAG_EXPRESSION_STATEMENT: {
+                SSTNode result = new ExpressionStatementSSTNode(readNode());
+                result.setStartOffset(start);
+                result.setEndOffset(end);
+                return result;
+            }
+            case TAG_FLOAT_LITERAL: {
+                String value = readString();
+                boolean imaginary = readBoolean();
+                return new FloatLiteralSSTNode(value, imaginary, start, end);
+            }
+            case TAG_FOR_COMPREHENSION: {
+                ScopeInfo scope = readScope();
+                boolean async = readBoolean();
+                SSTNode target = readNode();
+                SSTNode name = readNode();
+                SSTNode[] variables = readNodes();
+                SSTNode iterator = readNode();
+                SSTNode[] conditions = readNodes();
+                PythonBuiltinClassType resultType = valueOf(PythonBuiltinClassType.class, readString());
+                int line = readInt();
+                int level = readInt();
+                return new ForComprehensionSSTNode(scope, async, target, name, variables, iterator, conditions, resultType, line, level, start, end);
+            }
+            case TAG_FOR: {
+                SSTNode[] targets = readNodes();
+                SSTNode iterator = readNode();
+                SSTNode body = readNode();
+                SSTNode elseStatement = readNode();
+                boolean containsContinue = readBoolean();
+                boolean containsBreak = readBoolean();
+                ForSSTNode result = new ForSSTNode(targets, iterator, body, containsContinue, start, end);
+                result.setElse(elseStatement);
+                result.setContainsBreak(containsBreak);
+                return result;
+            }
+            case TAG_FUNCTION_DEF: {
+                ScopeInfo functionScope = readScope();
+                String name = readString();
+                String enclosingClassName = readString();
+                ArgDefListBuilder argBuilder = readArgDefs();
+                SSTNode body = readNode();
+                return new FunctionDefSSTNode(functionScope, name, enclosingClassName, argBuilder, body, start, end);
+            }
+            case TAG_GET_ATTRIBUTE: {
+                SSTNode receiver = readNode();
+                String name = readString();
+                return new GetAttributeSSTNode(receiver, name, start, end);
+            }
+            case TAG_IF: {
+                SSTNode test = readNode();
+                SSTNode thenStatement = readNode();
+                SSTNode elseStatement = readNode();
+                return new IfSSTNode(test, thenStatement, elseStatement, start, end);
+            }
+            case TAG_IMPORT_FROM: {
+                ScopeInfo scope = readScope();
+                String from = readString();
+                int len = readInt();
+                String[][] asNames = null;
+                if (len >= 0) {
+                    asNames = new String[len][];
+                    for (int i = 0; i < len; i++) {
+                        asNames[i] = readStrings();
+                    }
+                }
+                return new ImportFromSSTNode(scope, from, asNames, start, end);
+            }
+            case TAG_IMPORT: {
+                ScopeInfo scope = readScope();
+                String name = readString();
+                String asName = readString();
+                return new ImportSSTNode(scope, name, asName, start, end);
+            }
+            case TAG_LAMBDA: {
+                ScopeInfo functionScope = readScope();
+                ArgDefListBuilder args = readArgDefs();
+                SSTNode body = readNode();
+                return new LambdaSSTNode(functionScope, args, body, start, end);
+            }
+            case TAG_NOT:
+                return new NotSSTNode(readNode(), start, end);
+            case TAG_NUMBER_LITERAL: {
+                String value = readString();
+                int numberStart = readInt();
+                int base = readInt();
+                NumberLiteralSSTNode result = new NumberLiteralSSTNode(value, numberStart, base, start, end);
+                result.setIsNegative(readBoolean());
+                return result;
+            }
+            case TAG_OR:
+                return new OrSSTNode(readNodes(), start, end);
+            case TAG_RAISE: {
+                SSTNode value = readNode();
+                SSTNode from = readNode();
+                return new RaiseSSTNode(value, from, start, end);
+            }
+            case TAG_RETURN:
+                return new ReturnSSTNode(readNode(), start, end);
+            case TAG_SIMPLE:
+                return new SimpleSSTNode(SimpleSSTNode.Type.values()[readInt()], start, end);
+            case TAG_SLICE: {
+                SSTNode sliceStart = readNode();
+                SSTNode stop = readNode();
+                SSTNode step = readNode();
+                return new SliceSSTNode(sliceStart, stop, step, start, end);
+            }
+            case TAG_STAR:
+                return new StarSSTNode(readNode(), start, end);
+            case TAG_STRING_LITERAL:
+                return new StringLiteralSSTNode(readStrings(), start, end);
+            case TAG_SUBSCRIPT: {
+                SSTNode receiver = readNode();
+                SSTNode subscript = readNode();
+                return new SubscriptSSTNode(receiver, subscript, start, end);
+            }
+            case TAG_TERNARY_ARITHMETIC: {
+                SSTNode left = readNode();
+                SSTNode right = readNode();
+                return new TernaryArithmeticSSTNode(left, right, start, end);
+            }
+            case TAG_TERNARY_IF: {
+                SSTNode test = readNode();
+                SSTNode thenStatement = readNode();
+                SSTNode elseStatement = readNode();
+                return new TernaryIfSSTNode(test, thenStatement, elseStatement, start, end);
+            }
+            case TAG_TRY: {
+                SSTNode body = readNode();
+                SSTNode[] exceptNodes = readNodes();
+                ExceptSSTNode[] excepts = null;
+                if (exceptNodes != null) {
+                    excepts = new ExceptSSTNode[exceptNodes.length];
+                    for (int i = 0; i < excepts.length; i++) {
+                        excepts[i] = (ExceptSSTNode) exceptNodes[i];
+                    }
+                }
+                SSTNode elseStatement = readNode();
+                SSTNode finallyStatement = readNode();
+                return new TrySSTNode(body, excepts, elseStatement, finallyStatement, start, end);
+            }
+            case TAG_UNARY: {
+                UnaryArithmetic arithmetic = valueOf(UnaryArithmetic.class, readString());
+                SSTNode value = readNode();
+                return new UnarySSTNode(arithmetic, value, start, end);
+            }
+            case TAG_VAR_LOOKUP:
+                return new VarLookupSSTNode(readString(), start, end);
+            case TAG_WHILE: {
+                SSTNode test = readNode();
+                SSTNode body = readNode();
+                SSTNode elseStatement = readNode();
+                boolean containsContinue = readBoolean();
+                boolean containsBreak = readBoolean();
+                WhileSSTNode result = new WhileSSTNode(test, body, containsContinue, containsBreak, start, end);
+                result.setElse(elseStatement);
+                return result;
+            }
+            case TAG_WITH: {
+                SSTNode expression = readNode();
+                SSTNode target = readNode();
+                SSTNode body = readNode();
+                return new WithSSTNode(expression, target, body, start, end);
+            }
+            case TAG_YIELD_EXPRESSION: {
+                SSTNode value = readNode();
+                boolean isFrom = readBoolean();
+                return new YieldExpressionSSTNode(value, isFrom, start, end);
+            }
+            default:
+                throw new IllegalStateException("unknown SST node tag " + tag);
+        }
+    }
+}
@@ -0,0 +1,628 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.parser.sst;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.oracle.graal.python.parser.ScopeInfo;
+
+/**
+ * Writes a parsed SST together with the scope tree that was built while parsing into a compact
+ * binary form. The result can be turned back into an equivalent tree using
+ * {@link SSTDeserializer}, which allows skipping the ANTLR parser for unchanged sources.
+ *
+ * Integers are written as variable-length quantities and every string is written only once,
+ * subsequent occurrences refer to the first one by index.
+ */
+public final class SSTSerializerVisitor implements SSTreeVisitor<Void> {
+
+    static final int TAG_NULL = 0;
+    static final int TAG_AND = 1;
+    static final int TAG_ANN_ASSIGNMENT = 2;
+    static final int TAG_ASSERT = 3;
+    static final int TAG_ASSIGNMENT = 4;
+    static final int TAG_AUG_ASSIGNMENT = 5;
+    static final int TAG_BINARY_ARITHMETIC = 6;
+    static final int TAG_BLOCK = 7;
+    static final int TAG_BOOLEAN_LITERAL = 8;
+    static final int TAG_CALL = 9;
+    static final int TAG_CLASS = 10;
+    static final int TAG_COLLECTION = 11;
+    static final int TAG_COMPARISON = 12;
+    static final int TAG_DECORATED = 13;
+    static final int TAG_DECORATOR = 14;
+    static final int TAG_DEL = 15;
+    static final int TAG_EXCEPT = 16;
+    static final int TAG_EXPRESSION_STATEMENT = 17;
+    static final int TAG_FLOAT_LITERAL = 18;
+    static final int TAG_FOR_COMPREHENSION = 19;
+    static final int TAG_FOR = 20;
+    static final int TAG_FUNCTION_DEF = 21;
+    static final int TAG_GET_ATTRIBUTE = 22;
+    static final int TAG_IF = 23;
+    static final int TAG_IMPORT_FROM = 24;
+    static final int TAG_IMPORT = 25;
+    static final int TAG_LAMBDA = 26;
+    static final int TAG_NOT = 27;
+    static final int TAG_NUMBER_LITERAL = 28;
+    static final int TAG_OR = 29;
+    static final int TAG_RAISE = 30;
+    static final int TAG_RETURN = 31;
+    static final int TAG_SIMPLE = 32;
+    static final int TAG_SLICE = 33;
+    static final int TAG_STAR = 34;
+    static final int TAG_STRING_LITERAL = 35;
+    static final int TAG_SUBSCRIPT = 36;
+    static final int TAG_TERNARY_ARITHMETIC = 37;
+    static final int TAG_TERNARY_IF = 38;
+    static final int TAG_TRY = 39;
+    static final int TAG_UNARY = 40;
+    static final int TAG_VAR_LOOKUP = 41;
+    static final int TAG_WHILE = 42;
+    static final int TAG_WITH = 43;
+    static final int TAG_YIELD_EXPRESSION = 44;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+    private final Map<String, Integer> strings = new HashMap<>();
+    private final Map<ScopeInfo, Integer> scopes = new HashMap<>();
+
+    /**
+     * Serializes the scope tree starting at {@code globalScope} followed by the tree starting at
+     * {@code root}. All scopes referenced from the tree must be reachable from the global scope.
+     */
+    public static byte[] serialize(ScopeInfo globalScope, SSTNode root) {
+        SSTSerializerVisitor visitor = new SSTSerializerVisitor();
+        globalScope.write(visitor);
+        visitor.writeNode(root);
+        return visitor.out.toByteArray();
+    }
+
+    public void registerScope(ScopeInfo scope) {
+        scopes.put(scope, scopes.size() + 1);
+    }
+
+    public void writeScope(ScopeInfo scope) {
+        if (scope == null) {
+            writeInt(0);
+        } else {
+            Integer id = scopes.get(scope);
+            if (id == null) {
+                throw new IllegalStateException("scope " + scope + " is not part of the serialized scope tree");
+            }
+            writeInt(id);
+        }
+    }
+
+    public void writeBoolean(boolean value) {
+        out.write(value ? 1 : 0);
+    }
+
+    /**
+     * Writes a zig-zag encoded variable-length integer, so that small negative values (like the
+     * frequently used {@code -1}) also take a single byte.
+     */
+    public void writeInt(int value) {
+        int v = (value << 1) ^ (value >> 31);
+        while ((v & ~0x7F) != 0) {
+            out.write((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.write(v);
+    }
+
+    public void writeString(String value) {
+        if (value == null) {
+            writeInt(0);
+            return;
+        }
+        Integer index = strings.get(value);
+        if (index != null) {
+            writeInt(index + 2);
+        } else {
+            strings.put(value, strings.size());
+            writeInt(1);
+            int len = value.length();
+            writeInt(len);
+            for (int i = 0; i < len; i++) {
+                writeInt(value.charAt(i));
+            }
+        }
+    }
+
+    public void writeStrings(Collection<String> values) {
+        if (values == null) {
+            writeInt(-1);
+        } else {
+            writeInt(values.size());
+            for (String value : values) {
+                writeString(value);
+            }
+        }
+    }
+
+    private void writeStrings(String[] values) {
+        if (values == null) {
+            writeInt(-1);
+        } else {
+            writeInt(values.length);
+            for (String value : values) {
+                writeString(value);
+            }
+        }
+    }
+
+    public void writeNode(SSTNode node) {
+        if (node == null) {
+            writeInt(TAG_NULL);
+        } else {
+            node.accept(this);
+        }
+    }
+
+    public void writeNodes(SSTNode[] nodes) {
+        if (nodes == null) {
+            writeInt(-1);
+        } else {
+            writeInt(nodes.length);
+            for (SSTNode node : nodes) {
+                writeNode(node);
+            }
+        }
+    }
+
+    public void writeNodes(List<? extends SSTNode> nodes) {
+        if (nodes == null) {
+            writeInt(-1);
+        } else {
+            writeInt(nodes.size());
+            for (SSTNode node : nodes) {
+                writeNode(node);
+            }
+        }
+    }
+
+    private void writeArgs(ArgListBuilder args) {
+        writeBoolean(args != null);
+        if (args != null) {
+            args.write(this);
+        }
+    }
+
+    private void writeArgDefs(ArgDefListBuilder args) {
+        writeBoolean(args != null);
+        if (args != null) {
+            args.write(this);
+        }
+    }
+
+    private void writeHeader(int tag, SSTNode node) {
+        writeInt(tag);
+        writeInt(node.startOffset);
+        writeInt(node.endOffset);
+    }
+
+    @Override
+    public Void visit(AndSSTNode node) {
+        writeHeader(TAG_AND, node);
+        writeNodes(node.values);
+        return null;
+    }
+
+    @Override
+    public Void visit(AnnAssignmentSSTNode node) {
+        writeHeader(TAG_ANN_ASSIGNMENT, node);
+        writeNode(node.lhs[0]);
+        writeNode(node.type);
+        writeNode(node.rhs);
+        return null;
+    }
+
+    @Override
+    public Void visit(AssertSSTNode node) {
+        writeHeader(TAG_ASSERT, node);
+        writeNode(node.test);
+        writeNode(node.message);
+        return null;
+    }
+
+    @Override
+    public Void visit(AssignmentSSTNode node) {
+        writeHeader(TAG_ASSIGNMENT, node);
+        writeNodes(node.lhs);
+        writeNode(node.rhs);
+        return null;
+    }
+
+    @Override
+    public Void visit(AugAssignmentSSTNode node) {
+        writeHeader(TAG_AUG_ASSIGNMENT, node);
+        writeNode(node.lhs);
+        writeString(node.operation);
+        writeNode(node.rhs);
+        return null;
+    }
+
+    @Override
+    public Void visit(BinaryArithmeticSSTNode node) {
+        writeHeader(TAG_BINARY_ARITHMETIC, node);
+        writeString(node.operation.name());
+        writeNode(node.left);
+        writeNode(node.right);
+        return null;
+    }
+
+    @Override
+    public Void visit(BlockSSTNode node) {
+        writeHeader(TAG_BLOCK, node);
+        writeNodes(node.statements);
+        return null;
+    }
+
+    @Override
+    public Void visit(BooleanLiteralSSTNode node) {
+        writeHeader(TAG_BOOLEAN_LITERAL, node);
+        writeBoolean(node.value);
+        return null;
+    }
+
+    @Override
+    public Void visit(CallSSTNode node) {
+        writeHeader(TAG_CALL, node);
+        writeNode(node.target);
+        writeArgs(node.parameters);
+        return null;
+    }
+
+    @Override
+    public Void visit(ClassSSTNode node) {
+        writeHeader(TAG_CLASS, node);
+        writeScope(node.classScope);
+        writeString(node.name);
+        writeArgs(node.baseClasses);
+        writeNode(node.body);
+        return null;
+    }
+
+    @Override
+    public Void visit(CollectionSSTNode node) {
+        writeHeader(TAG_COLLECTION, node);
+        writeNodes(node.values);
+        writeString(node.type == null ? null : node.type.name());
+        return null;
+    }
+
+    @Override
+    public Void visit(ComparisonSSTNode node) {
+        writeHeader(TAG_COMPARISON, node);
+        writeNode(node.firstValue);
+        writeStrings(node.operations);
+        writeNodes(node.otherValues);
+        return null;
+    }
+
+    @Override
+    public Void visit(DecoratedSSTNode node) {
+        writeHeader(TAG_DECORATED, node);
+        writeNodes(node.decorators);
+        writeNode(node.decorated);
+        return null;
+    }
+
+    @Override
+    public Void visit(DecoratorSSTNode node) {
+        writeHeader(TAG_DECORATOR, node);
+        writeString(node.name);
+        writeArgs(node.arg);
+        return null;
+    }
+
+    @Override
+    public Void visit(DelSSTNode node) {
+        writeHeader(TAG_DEL, node);
+        writeNodes(node.expressions);
+        return null;
+    }
+
+    @Override
+    public Void visit(ExceptSSTNode node) {
+        writeHeader(TAG_EXCEPT, node);
+        writeNode(node.test);
+        writeString(node.asName);
+        writeNode(node.body);
+        return null;
+    }
+
+    @Override
+    public Void visit(ExpressionStatementSSTNode node) {
+        writeHeader(TAG_EXPRESSION_STATEMENT, node);
+        writeNode(node.expression);
+        return null;
+    }
+
+    @Override
+    public Void visit(FloatLiteralSSTNode node) {
+        writeHeader(TAG_FLOAT_LITERAL, node);
+        writeString(node.value);
+        writeBoolean(node.imaginary);
+        return null;
+    }
+
+    @Override
+    public Void visit(ForComprehensionSSTNode node) {
+        writeHeader(TAG_FOR_COMPREHENSION, node);
+        writeScope(node.scope);
+        writeBoolean(node.async);
+        writeNode(node.target);
+        writeNode(node.name);
+        writeNodes(node.variables);
+        writeNode(node.iterator);
+        writeNodes(node.conditions);
+        writeString(node.resultType == null ? null : node.resultType.name());
+        writeInt(node.line);
+        writeInt(node.level);
+        return null;
+    }
+
+    @Override
+    public Void visit(ForSSTNode node) {
+        writeHeader(TAG_FOR, node);
+        writeNodes(node.targets);
+        writeNode(node.iterator);
+        writeNode(node.body);
+        writeNode(node.elseStatement);
+        writeBoolean(node.containsContinue);
+        writeBoolean(node.containsBreak);
+        return null;
+    }
+
+    @Override
+    public Void visit(FunctionDefSSTNode node) {
+        writeHeader(TAG_FUNCTION_DEF, node);
+        writeScope(node.functionScope);
+        writeString(node.name);
+        writeString(node.enclosingClassName);
+        writeArgDefs(node.argBuilder);
+        writeNode(node.body);
+        return null;
+    }
+
+    @Override
+    public Void visit(GetAttributeSSTNode node) {
+        writeHeader(TAG_GET_ATTRIBUTE, node);
+        writeNode(node.receiver);
+        writeString(node.name);
+        return null;
+    }
+
+    @Override
+    public Void visit(IfSSTNode node) {
+        writeHeader(TAG_IF, node);
+        writeNode(node.test);
+        writeNode(node.thenStatement);
+        writeNode(node.elseStatement);
+        return null;
+    }
+
+    @Override
+    public Void visit(ImportFromSSTNode node) {
+        writeHeader(TAG_IMPORT_FROM, node);
+        writeScope(node.scope);
+        writeString(node.from);
+        if (node.asNames == null) {
+            writeInt(-1);
+        } else {
+            writeInt(node.asNames.length);
+            for (String[] asName : node.asNames) {
+                writeStrings(asName);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(ImportSSTNode node) {
+        writeHeader(TAG_IMPORT, node);
+        writeScope(node.scope);
+        writeString(node.name);
+        writeString(node.asName);
+        return null;
+    }
+
+    @Override
+    public Void visit(LambdaSSTNode node) {
+        writeHeader(TAG_LAMBDA, node);
+        writeScope(node.functionScope);
+        writeArgDefs(node.args);
+        writeNode(node.body);
+        return null;
+    }
+
+    @Override
+    public Void visit(NotSSTNode node) {
+        writeHeader(TAG_NOT, node);
+        writeNode(node.value);
+        return null;
+    }
+
+    @Override
+    public Void visit(NumberLiteralSSTNode node) {
+        writeHeader(TAG_NUMBER_LITERAL, node);
+        writeString(node.value);
+        writeInt(node.start);
+        writeInt(node.base);
+        writeBoolean(node.negative);
+        return null;
+    }
+
+    @Override
+    public Void visit(OrSSTNode node) {
+        writeHeader(TAG_OR, node);
+        writeNodes(node.values);
+        return null;
+    }
+
+    @Override
+    public Void visit(RaiseSSTNode node) {
+        writeHeader(TAG_RAISE, node);
+        writeNode(node.value);
+        writeNode(node.from);
+        return null;
+    }
+
+    @Override
+    public Void visit(ReturnSSTNode node) {
+        writeHeader(TAG_RETURN, node);
+        writeNode(node.value);
+        return null;
+    }
+
+    @Override
+    public Void visit(SimpleSSTNode node) {
+        writeHeader(TAG_SIMPLE, node);
+        writeInt(node.type.ordinal());
+        return null;
+    }
+
+    @Override
+    public Void visit(SliceSSTNode node) {
+        writeHeader(TAG_SLICE, node);
+        writeNode(node.start);
+        writeNode(node.stop);
+        writeNode(node.step);
+        return null;
+    }
+
+    @Override
+    public Void visit(StarSSTNode node) {
+        writeHeader(TAG_STAR, node);
+        writeNode(node.value);
+        return null;
+    }
+
+    @Override
+    public Void visit(StringLiteralSSTNode node) {
+        writeHeader(TAG_STRING_LITERAL, node);
+        writeStrings(node.values);
+        return null;
+    }
+
+    @Override
+    public Void visit(SubscriptSSTNode node) {
+        writeHeader(TAG_SUBSCRIPT, node);
+        writeNode(node.receiver);
+        writeNode(node.subscript);
+        return null;
+    }
+
+    @Override
+    public Void visit(TernaryArithmeticSSTNode node) {
+        writeHeader(TAG_TERNARY_ARITHMETIC, node);
+        writeNode(node.left);
+        writeNode(node.right);
+        return null;
+    }
+
+    @Override
+    public Void visit(TernaryIfSSTNode node) {
+        writeHeader(TAG_TERNARY_IF, node);
+        writeNode(node.test);
+        writeNode(node.thenStatement);
+        writeNode(node.elseStatement);
+        return null;
+    }
+
+    @Override
+    public Void visit(TrySSTNode node) {
+        writeHeader(TAG_TRY, node);
+        writeNode(node.body);
+        writeNodes(node.exceptNodes);
+        writeNode(node.elseStatement);
+        writeNode(node.finallyStatement);
+        return null;
+    }
+
+    @Override
+    public Void visit(UnarySSTNode node) {
+        writeHeader(TAG_UNARY, node);
+        writeString(node.arithmetic.name());
+        writeNode(node.value);
+        return null;
+    }
+
+    @Override
+    public Void visit(VarLookupSSTNode node) {
+        writeHeader(TAG_VAR_LOOKUP, node);
+        writeString(node.name);
+        return null;
+    }
+
+    @Override
+    public Void visit(WhileSSTNode node) {
+        writeHeader(TAG_WHILE, node);
+        writeNode(node.test);
+        writeNode(node.body);
+        writeNode(node.elseStatement);
+        writeBoolean(node.containsContinue);
+        writeBoolean(node.containsBreak);
+        return null;
+    }
+
+    @Override
+    public Void visit(WithSSTNode node) {
+        writeHeader(TAG_WITH, node);
+        writeNode(node.expression);
+        writeNode(node.target);
+        writeNode(node.body);
+        return null;
+    }
+
+    @Override
+    public Void visit(YieldExpressionSSTNode node) {
+        writeHeader(TAG_YIELD_EXPRESSION, node);
+        writeNode(node.value);
+        writeBoolean(node.isFrom);
+        return null;
+    }
+}
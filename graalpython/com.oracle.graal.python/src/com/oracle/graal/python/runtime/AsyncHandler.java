@@ -182,10 +182,12 @@ public class AsyncHandler {
     }
 
     private final RootCallTarget callTarget;
+    private final GlobalInterpreterLock gil;
     CallNode callNode = CallNode.create();
 
-    AsyncHandler(PythonLanguage language) {
-        callTarget = Truffle.getRuntime().createCallTarget(new CallRootNode(language));
+    AsyncHandler(PythonLanguage language, GlobalInterpreterLock gil) {
+        this.callTarget = Truffle.getRuntime().createCallTarget(new CallRootNode(language));
+        this.gil = gil;
     }
 
     void registerAction(Supplier<AsyncAction> actionSupplier) {
@@ -199,6 +201,10 @@ public class AsyncHandler {
             CompilerDirectives.transferToInterpreter();
             processAsyncActions(frame, location);
         }
+        // the safe points that process async actions are also where we hand over the GIL
+        if (gil != null && gil.isDropRequested()) {
+            gil.yieldIfRequested();
+        }
     }
 
     /**
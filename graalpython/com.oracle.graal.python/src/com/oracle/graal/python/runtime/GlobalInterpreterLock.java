@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * The global interpreter lock used if the context runs with {@link PythonOptions#GIL}. It follows
+ * the design of CPython's GIL: a thread that wants to run Python code waits for at most one switch
+ * interval and then asks the current holder to drop the lock. The holder polls that request at the
+ * same safe points where asynchronous actions are processed (see
+ * {@link AsyncHandler#triggerAsyncActions}) and hands the lock over. Since the underlying lock is
+ * fair, the waiting thread is guaranteed to get it before the previous holder can take it back.
+ *
+ * Threads release the lock around operations that may block, like acquiring a Python lock, sleeping
+ * or waiting on a queue or selector, so that other threads can run in the meantime.
+ */
+public final class GlobalInterpreterLock {
+    /** The default switch interval of 5 ms, like {@code sys.getswitchinterval()} in CPython. */
+    public static final double DEFAULT_SWITCH_INTERVAL = 0.005;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private volatile boolean dropRequested = false;
+    private volatile long switchIntervalNanos = secondsToNanos(DEFAULT_SWITCH_INTERVAL);
+
+    private static long secondsToNanos(double seconds) {
+        return Math.max(1, (long) (seconds * 1e9));
+    }
+
+    public double getSwitchInterval() {
+        return switchIntervalNanos / 1e9;
+    }
+
+    public void setSwitchInterval(double seconds) {
+        switchIntervalNanos = secondsToNanos(seconds);
+    }
+
+    /**
+     * Fast check for the safe points; reading the flag does not require holding the lock.
+     */
+    public boolean isDropRequested() {
+        return dropRequested;
+    }
+
+    public boolean isHeldByCurrentThread() {
+        return lock.isHeldByCurrentThread();
+    }
+
+    /**
+     * Acquires the lock for the current thread unless it already holds it. The lock is never held
+     * more than once by the same thread.
+     */
+    @TruffleBoundary
+    public void acquire() {
+        if (lock.isHeldByCurrentThread()) {
+            return;
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (lock.tryLock(switchIntervalNanos, TimeUnit.NANOSECONDS)) {
+                    break;
+                }
+                dropRequested = true;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        dropRequested = false;
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Releases the lock if the current thread holds it and returns whether it did. The result is
+     * meant to be passed to {@link #reacquire(boolean)} after the blocking operation.
+     */
+    @TruffleBoundary
+    public boolean release() {
+        if (lock.isHeldByCurrentThread()) {
+            lock.unlock();
+            return true;
+        }
+        return false;
+    }
+
+    public void reacquire(boolean wasHeld) {
+        if (wasHeld) {
+            acquire();
+        }
+    }
+
+    /**
+     * Hands the lock over to a waiting thread if one has asked for it.
+     */
+    @TruffleBoundary
+    public void yieldIfRequested() {
+        if (dropRequested && lock.isHeldByCurrentThread() && lock.hasQueuedThreads()) {
+            lock.unlock();
+            acquire();
+        }
+    }
+}
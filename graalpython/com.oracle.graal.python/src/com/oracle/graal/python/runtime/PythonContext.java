@@ -57,6 +57,7 @@ import org.graalvm.options.OptionKey;
 import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.PythonAbstractObject;
+import com.oracle.graal.python.builtins.objects.cext.HandleCache;
 import com.oracle.graal.python.builtins.objects.cext.PThreadState;
 import com.oracle.graal.python.builtins.objects.cext.PythonNativeClass;
 import com.oracle.graal.python.builtins.objects.cext.capi.CApiContext;
@@ -75,6 +76,8 @@ import com.oracle.graal.python.nodes.SpecialAttributeNames;
 import com.oracle.graal.python.nodes.SpecialMethodNames;
 import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
 import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.instrumentation.PythonTraceInstrument;
+import com.oracle.graal.python.nodes.instrumentation.TraceHooks;
 import com.oracle.graal.python.runtime.AsyncHandler.AsyncAction;
 import com.oracle.graal.python.runtime.exception.ExceptionUtils;
 import com.oracle.graal.python.runtime.exception.PException;
@@ -85,6 +88,7 @@ import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.InstrumentInfo;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleException;
 import com.oracle.truffle.api.TruffleFile;
@@ -122,6 +126,13 @@ public final class PythonContext {
         /* corresponds to 'PyThreadState.exc_*' */
         PException caughtException;
 
+        /* corresponds to 'PyThreadState.c_tracefunc' and 'PyThreadState.c_profilefunc' */
+        Object traceFunction;
+        Object profileFunction;
+
+        /* corresponds to 'PyThreadState.tracing' */
+        boolean tracing;
+
         PythonThreadState() {
             owners = new LinkedList<>();
         }
@@ -203,6 +214,7 @@ public final class PythonContext {
     private OutputStream err;
     private InputStream in;
     @CompilationFinal private CApiContext cApiContext;
+    private HandleCache cApiHandleCache;
     private final Assumption singleThreaded = Truffle.getRuntime().createAssumption("single Threaded");
 
     private static final Assumption singleNativeContext = Truffle.getRuntime().createAssumption("single native context assumption");
@@ -220,10 +232,20 @@ public final class PythonContext {
     private final PosixResources resources;
     private final AsyncHandler handler;
 
+    /* the global interpreter lock; 'null' unless running with threads and PythonOptions.GIL */
+    private final GlobalInterpreterLock gil;
+    private final PythonThreadLauncher threadLauncher;
+
+    /* sys.getswitchinterval() if there is no GIL that would use it */
+    private volatile double switchInterval = GlobalInterpreterLock.DEFAULT_SWITCH_INTERVAL;
+
     // A thread-local to store the full path to the currently active import statement, for Jython
     // compat
     private final ThreadLocal<ArrayDeque<String>> currentImport = new ThreadLocal<>();
 
+    /* the service of the instrument behind 'sys.settrace' and 'sys.setprofile' */
+    private TraceHooks traceHooks;
+
     @CompilationFinal(dimensions = 1) private Object[] optionValues;
 
     public PythonContext(PythonLanguage language, TruffleLanguage.Env env, PythonCore core) {
@@ -231,7 +253,9 @@ public final class PythonContext {
         this.core = core;
         this.env = env;
         this.resources = new PosixResources();
-        this.handler = new AsyncHandler(language);
+        this.gil = PythonOptions.isWithThread(env) && env.getOptions().get(PythonOptions.GIL) ? new GlobalInterpreterLock() : null;
+        this.handler = new AsyncHandler(language, gil);
+        this.threadLauncher = new PythonThreadLauncher(this, env.getOptions().get(PythonOptions.ThreadPool), env.getOptions().get(PythonOptions.VirtualThreads));
         this.optionValues = PythonOptions.createOptionValuesStorage(env);
         this.resources.setEnv(env);
         this.in = env.in();
@@ -243,6 +267,10 @@ public final class PythonContext {
         return threadGroup;
     }
 
+    public PythonThreadLauncher getThreadLauncher() {
+        return threadLauncher;
+    }
+
     @TruffleBoundary(allowInlining = true)
     public long getPythonThreadStackSize() {
         return pythonThreadStackSize.get();
@@ -380,6 +408,97 @@ public final class PythonContext {
         return getThreadState().topframeref;
     }
 
+    /**
+     * Returns the function installed with {@code sys.settrace} for the current thread, or
+     * {@code null}.
+     */
+    public Object getTraceFunction() {
+        return getThreadState().traceFunction;
+    }
+
+    /**
+     * Returns the function or {@code _lsprof.Profiler} installed with {@code sys.setprofile} for
+     * the current thread, or {@code null}.
+     */
+    public Object getProfileFunction() {
+        return getThreadState().profileFunction;
+    }
+
+    /**
+     * Installs (or, with {@code null}, removes) the trace function of the current thread. The
+     * instrumentation that reports the events is only attached while some thread has a hook.
+     */
+    @TruffleBoundary
+    public void setTraceFunction(Object function) {
+        PythonThreadState ts = getThreadState();
+        int delta = hookDelta(ts.traceFunction, function);
+        ts.traceFunction = function;
+        TraceHooks hooks = getTraceHooks();
+        if (delta != 0 && hooks != null) {
+            hooks.update(delta, delta);
+        }
+    }
+
+    /**
+     * Installs (or, with {@code null}, removes) the profile function of the current thread.
+     */
+    @TruffleBoundary
+    public void setProfileFunction(Object function) {
+        PythonThreadState ts = getThreadState();
+        int delta = hookDelta(ts.profileFunction, function);
+        ts.profileFunction = function;
+        TraceHooks hooks = getTraceHooks();
+        if (delta != 0 && hooks != null) {
+            hooks.update(delta, 0);
+        }
+    }
+
+    private static int hookDelta(Object oldFunction, Object newFunction) {
+        return (newFunction != null ? 1 : 0) - (oldFunction != null ? 1 : 0);
+    }
+
+    /**
+     * Removes the hooks of a thread that is done, so that the instrumentation is detached once no
+     * live thread has a hook.
+     */
+    private void clearHooks(PythonThreadState ts) {
+        int traceDelta = hookDelta(ts.traceFunction, null);
+        int profileDelta = hookDelta(ts.profileFunction, null);
+        ts.traceFunction = null;
+        ts.profileFunction = null;
+        TraceHooks hooks = getTraceHooks();
+        if (traceDelta + profileDelta != 0 && hooks != null) {
+            hooks.update(traceDelta + profileDelta, traceDelta);
+        }
+    }
+
+    /**
+     * Returns {@code true} while a trace or profile function runs on the current thread, so that
+     * the hooks do not see their own execution.
+     */
+    public boolean isTracing() {
+        return getThreadState().tracing;
+    }
+
+    public void setTracing(boolean tracing) {
+        getThreadState().tracing = tracing;
+    }
+
+    public boolean isTraceHooksAvailable() {
+        return getTraceHooks() != null;
+    }
+
+    @TruffleBoundary
+    private TraceHooks getTraceHooks() {
+        if (traceHooks == null) {
+            InstrumentInfo instrumentInfo = env.getInstruments().get(PythonTraceInstrument.ID);
+            if (instrumentInfo != null) {
+                traceHooks = env.lookup(instrumentInfo, TraceHooks.class);
+            }
+        }
+        return traceHooks;
+    }
+
     public boolean isInitialized() {
         return isInitialized;
     }
@@ -690,6 +809,7 @@ public final class PythonContext {
             LOGGER.finest("threading module was not imported");
         }
         LOGGER.fine("successfully shut down all threads");
+        threadLauncher.shutdown();
 
         if (!singleThreaded.isValid()) {
             // collect list of threads to join in synchronized block
@@ -703,7 +823,9 @@ public final class PythonContext {
                 }
             }
 
-            // join threads outside the synchronized block otherwise we could run into a dead lock
+            // join threads outside the synchronized block otherwise we could run into a dead lock;
+            // the remaining threads may also need the GIL to finish
+            releaseGil();
             try {
                 for (WeakReference<Thread> threadRef : threadList) {
                     Thread thread = threadRef.get();
@@ -765,6 +887,57 @@ public final class PythonContext {
         handler.registerAction(actionSupplier);
     }
 
+    /**
+     * Returns the global interpreter lock or {@code null} if Python threads run in parallel.
+     */
+    public GlobalInterpreterLock getGil() {
+        return gil;
+    }
+
+    /**
+     * Acquires the global interpreter lock for the current thread, if there is one.
+     */
+    public void acquireGil() {
+        if (gil != null) {
+            gil.acquire();
+        }
+    }
+
+    /**
+     * Releases the global interpreter lock before an operation that may block. The result must be
+     * passed to {@link #reacquireGil(boolean)} once the operation is done:
+     *
+     * <pre>
+     * boolean released = context.releaseGil();
+     * try {
+     *     // blocking operation
+     * } finally {
+     *     context.reacquireGil(released);
+     * }
+     * </pre>
+     */
+    public boolean releaseGil() {
+        return gil != null && gil.release();
+    }
+
+    public void reacquireGil(boolean wasHeld) {
+        if (wasHeld) {
+            gil.acquire();
+        }
+    }
+
+    public double getSwitchInterval() {
+        return gil != null ? gil.getSwitchInterval() : switchInterval;
+    }
+
+    public void setSwitchInterval(double seconds) {
+        if (gil != null) {
+            gil.setSwitchInterval(seconds);
+        } else {
+            switchInterval = seconds;
+        }
+    }
+
     @TruffleBoundary
     public CyclicAssumption getNativeClassStableAssumption(PythonNativeClass cls, boolean createOnDemand) {
         CyclicAssumption assumption = nativeClassStableAssumptions.get(cls);
@@ -948,6 +1121,23 @@ public final class PythonContext {
         }
     }
 
+    /**
+     * Called on the thread of a Python thread when it is done. Since the Java thread may run other
+     * Python threads later, the sentinel lock that {@code threading} joins on is released now
+     * rather than when the thread is disposed, and the state of the Python thread is reset.
+     */
+    public void finishPythonThread() {
+        PythonThreadState ts = getThreadState();
+        releaseSentinelLock(ts.sentinelLock);
+        ts.sentinelLock = null;
+        ts.currentException = null;
+        ts.caughtException = null;
+        ts.topframeref = Reference.EMPTY;
+        if (!singleThreaded.isValid()) {
+            clearHooks(ts);
+        }
+    }
+
     public synchronized void disposeThread(Thread thread) {
         CompilerAsserts.neverPartOfCompilation();
         long threadId = thread.getId();
@@ -958,6 +1148,7 @@ public final class PythonContext {
             // only release sentinel lock if all owners are gone
             if (!singleThreadState.hasOwners()) {
                 releaseSentinelLock(singleThreadState.sentinelLock);
+                clearHooks(singleThreadState);
             }
         } else {
             PythonThreadState ts = threadStateMapping.get(threadId);
@@ -966,6 +1157,7 @@ public final class PythonContext {
             threadStateMapping.remove(threadId);
             if (!ts.hasOwners()) {
                 releaseSentinelLock(ts.sentinelLock);
+                clearHooks(ts);
             }
         }
     }
@@ -988,6 +1180,18 @@ public final class PythonContext {
         return cApiContext;
     }
 
+    /**
+     * Returns the handle cache of the C API, or {@code null} if the C API has not been initialized.
+     */
+    public HandleCache getCApiHandleCache() {
+        return cApiHandleCache;
+    }
+
+    public void setCApiHandleCache(HandleCache cache) {
+        assert cApiHandleCache == null : "tried to create a second C API handle cache";
+        cApiHandleCache = cache;
+    }
+
     public void setCapiWasLoaded(Object capiLibrary) {
         assert cApiContext == null : "tried to create new C API context but it was already created";
         cApiContext = new CApiContext(this, capiLibrary);
@@ -123,6 +123,9 @@ public final class PythonOptions {
     @Option(category = OptionCategory.EXPERT, help = "Prints parser time statistis after number of parsed files, set by this option. 0 or <0 means no statistics are printed.") //
     public static final OptionKey<Integer> ParserStatistics = new OptionKey<>(0);
 
+    @Option(category = OptionCategory.EXPERT, help = "Store the parse trees of imported modules in __pycache__ directories and reuse them if the source did not change.") //
+    public static final OptionKey<Boolean> PersistentParseCache = new OptionKey<>(false);
+
     @EngineOption @Option(category = OptionCategory.EXPERT, help = "") //
     public static final OptionKey<Integer> AttributeAccessInlineCacheMaxDepth = new OptionKey<>(5);
 
@@ -147,6 +150,15 @@ public final class PythonOptions {
     @EngineOption @Option(category = OptionCategory.EXPERT, help = "This option control builtin _thread module support") //
     public static final OptionKey<Boolean> WithThread = new OptionKey<>(false);
 
+    @EngineOption @Option(category = OptionCategory.EXPERT, help = "Serialize the execution of Python threads with a global interpreter lock that is handed over between threads at safe points and around blocking calls. Only has an effect together with WithThread. Default false") //
+    public static final OptionKey<Boolean> GIL = new OptionKey<>(false);
+
+    @EngineOption @Option(category = OptionCategory.EXPERT, help = "Run the threads started by _thread.start_new_thread on a pool of threads that are reused once a Python thread finishes. Only has an effect together with WithThread. Default false") //
+    public static final OptionKey<Boolean> ThreadPool = new OptionKey<>(false);
+
+    @EngineOption @Option(category = OptionCategory.EXPERT, help = "Run the threads started by _thread.start_new_thread as virtual threads if the JDK supports them, and as platform threads otherwise. Takes precedence over ThreadPool. Only has an effect together with WithThread. Default false") //
+    public static final OptionKey<Boolean> VirtualThreads = new OptionKey<>(false);
+
     // disabling TRegex has an effect on the _sre Python functions that are
     // dynamically created, so we cannot change that option again.
     @EngineOption @Option(category = OptionCategory.EXPERT, help = "Use the optimized TRegex engine and call the CPython sre engine only as a fallback. Default true") //
@@ -185,6 +197,12 @@ public final class PythonOptions {
     @Option(category = OptionCategory.EXPERT, help = "Propagate append operations to lists created as literals back to where they were created, to inform overallocation to avoid having to grow them later.") //
     public static final OptionKey<Boolean> OverallocateLiteralLists = new OptionKey<>(true);
 
+    @Option(category = OptionCategory.EXPERT, help = "The number of entries in the cache that maps native handles of C API objects back to managed objects.") //
+    public static final OptionKey<Integer> CAPIHandleCacheSize = new OptionKey<>(1024);
+
+    @Option(category = OptionCategory.EXPERT, help = "Print hits, misses, and evictions of the C API handle cache when the context exits.") //
+    public static final OptionKey<Boolean> CAPIHandleCacheStatistics = new OptionKey<>(false);
+
     @EngineOption @Option(category = OptionCategory.USER, help = "Emulate some Jython features that can cause performance degradation") //
     public static final OptionKey<Boolean> EmulateJython = new OptionKey<>(false);
 
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleContext;
+import com.oracle.truffle.api.TruffleLanguage.Env;
+import com.oracle.truffle.api.TruffleLogger;
+
+/**
+ * Starts the threads of {@code _thread.start_new_thread}. By default, every Python thread gets a
+ * new platform thread from {@link Env#createThread}. With {@link PythonOptions#ThreadPool}, Python
+ * threads run on a pool of such threads that stay entered in the context and are reused, and with
+ * {@link PythonOptions#VirtualThreads}, they run on virtual threads that enter the context for the
+ * duration of the Python thread, if the JDK provides them.
+ *
+ * Since pooled and virtual threads are not members of the context's thread group, the launcher
+ * counts the running Python threads itself.
+ */
+public final class PythonThreadLauncher {
+    private static final TruffleLogger LOGGER = PythonLanguage.getLogger(PythonThreadLauncher.class);
+
+    /** How long an idle pooled thread waits for the next Python thread before it ends. */
+    private static final long POOL_KEEP_ALIVE_SECONDS = 60;
+
+    private final PythonContext context;
+    private final AtomicInteger runningThreads = new AtomicInteger();
+    private final ThreadFactory virtualThreadFactory;
+    private final boolean pooled;
+    private ExecutorService pool;
+
+    PythonThreadLauncher(PythonContext context, boolean pooled, boolean virtual) {
+        this.context = context;
+        this.virtualThreadFactory = virtual ? createVirtualThreadFactory() : null;
+        this.pooled = pooled && virtualThreadFactory == null;
+    }
+
+    private static ThreadFactory createVirtualThreadFactory() {
+        try {
+            // Thread.ofVirtual().factory(), which is only available on recent JDKs
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "virtual threads are not supported by this JDK, using platform threads instead");
+            return null;
+        }
+    }
+
+    /**
+     * The number of Python threads that were started and have not finished yet.
+     */
+    public int getRunningThreadCount() {
+        return runningThreads.get();
+    }
+
+    /**
+     * Runs {@code body} on a new Python thread and returns the Java thread that runs it.
+     */
+    @TruffleBoundary
+    public Thread start(Runnable body) {
+        runningThreads.incrementAndGet();
+        try {
+            if (virtualThreadFactory != null) {
+                return startVirtual(body);
+            } else if (pooled) {
+                return startPooled(body);
+            } else {
+                Env env = context.getEnv();
+                Thread thread = env.createThread(() -> run(body), env.getContext(), context.getThreadGroup());
+                thread.start();
+                return thread;
+            }
+        } catch (RuntimeException | Error e) {
+            runningThreads.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void run(Runnable body) {
+        try {
+            body.run();
+        } finally {
+            // count the thread as finished before threading.Thread.join() can return
+            runningThreads.decrementAndGet();
+            context.finishPythonThread();
+        }
+    }
+
+    private Thread startVirtual(Runnable body) {
+        TruffleContext truffleContext = context.getEnv().getContext();
+        Thread thread = virtualThreadFactory.newThread(() -> {
+            Object prev = truffleContext.enter();
+            try {
+                run(body);
+            } finally {
+                truffleContext.leave(prev);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private Thread startPooled(Runnable body) {
+        AtomicReference<Thread> worker = new AtomicReference<>();
+        getPool().execute(() -> {
+            synchronized (worker) {
+                worker.set(Thread.currentThread());
+                worker.notifyAll();
+            }
+            run(body);
+        });
+        // wait until a pooled thread picked up the task, so that the caller gets its ident
+        boolean interrupted = false;
+        synchronized (worker) {
+            while (worker.get() == null) {
+                try {
+                    worker.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return worker.get();
+    }
+
+    private synchronized ExecutorService getPool() {
+        if (pool == null) {
+            Env env = context.getEnv();
+            ThreadGroup group = context.getThreadGroup();
+            pool = new ThreadPoolExecutor(0, Integer.MAX_VALUE, POOL_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                            runnable -> env.createThread(runnable, env.getContext(), group));
+        }
+        return pool;
+    }
+
+    /**
+     * Lets idle pooled threads end, so that they can be joined when the context shuts down.
+     */
+    @TruffleBoundary
+    public synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+}
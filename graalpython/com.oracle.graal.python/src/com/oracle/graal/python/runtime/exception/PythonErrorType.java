@@ -34,6 +34,7 @@ public abstract class PythonErrorType {
     public static final PythonBuiltinClassType BaseException = PythonBuiltinClassType.PBaseException;
     public static final PythonBuiltinClassType BytesWarning = PythonBuiltinClassType.BytesWarning;
     public static final PythonBuiltinClassType DeprecationWarning = PythonBuiltinClassType.DeprecationWarning;
+    public static final PythonBuiltinClassType EOFError = PythonBuiltinClassType.EOFError;
     public static final PythonBuiltinClassType Exception = PythonBuiltinClassType.Exception;
     public static final PythonBuiltinClassType FloatingPointError = PythonBuiltinClassType.FloatingPointError;
     public static final PythonBuiltinClassType IOError = PythonBuiltinClassType.OSError;
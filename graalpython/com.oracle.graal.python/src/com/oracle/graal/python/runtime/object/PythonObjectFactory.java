@@ -28,10 +28,13 @@ package com.oracle.graal.python.runtime.object;
 import java.io.ByteArrayOutputStream;
 import java.lang.ref.ReferenceQueue;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.DirectoryStream;
 import java.util.Iterator;
 import java.util.concurrent.Semaphore;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 import org.graalvm.collections.EconomicMap;
 import org.tukaani.xz.FinishableOutputStream;
@@ -54,6 +57,8 @@ import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
 import com.oracle.graal.python.builtins.objects.common.LocalsStorage;
 import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
 import com.oracle.graal.python.builtins.objects.complex.PComplex;
+import com.oracle.graal.python.builtins.objects.deque.PDeque;
+import com.oracle.graal.python.builtins.objects.deque.PDequeIter;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.dict.PDictView;
 import com.oracle.graal.python.builtins.objects.dict.PDictView.PDictItemsView;
@@ -68,10 +73,15 @@ import com.oracle.graal.python.builtins.objects.function.PFunction;
 import com.oracle.graal.python.builtins.objects.function.PGeneratorFunction;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.function.Signature;
+import com.oracle.graal.python.builtins.objects.functools.PLruCacheWrapper;
+import com.oracle.graal.python.builtins.objects.functools.PPartial;
 import com.oracle.graal.python.builtins.objects.generator.PGenerator;
 import com.oracle.graal.python.builtins.objects.getsetdescriptor.GetSetDescriptor;
 import com.oracle.graal.python.builtins.objects.getsetdescriptor.HiddenKeyDescriptor;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.io.PBuffered;
+import com.oracle.graal.python.builtins.objects.io.PFileIO;
+import com.oracle.graal.python.builtins.objects.io.PTextIO;
 import com.oracle.graal.python.builtins.objects.iterator.PArrayIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PBaseSetIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PDoubleSequenceIterator;
@@ -85,6 +95,16 @@ import com.oracle.graal.python.builtins.objects.iterator.PSentinelIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PSequenceIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PStringIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PZip;
+import com.oracle.graal.python.builtins.objects.itertools.PAccumulate;
+import com.oracle.graal.python.builtins.objects.itertools.PChain;
+import com.oracle.graal.python.builtins.objects.itertools.PCount;
+import com.oracle.graal.python.builtins.objects.itertools.PIslice;
+import com.oracle.graal.python.builtins.objects.itertools.PPermutations;
+import com.oracle.graal.python.builtins.objects.itertools.PProduct;
+import com.oracle.graal.python.builtins.objects.itertools.PRepeat;
+import com.oracle.graal.python.builtins.objects.itertools.PStarmap;
+import com.oracle.graal.python.builtins.objects.itertools.PTee;
+import com.oracle.graal.python.builtins.objects.itertools.PTeeDataObject;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.lzma.PLZMACompressor;
 import com.oracle.graal.python.builtins.objects.lzma.PLZMADecompressor;
@@ -99,11 +119,13 @@ import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.posix.PDirEntry;
 import com.oracle.graal.python.builtins.objects.posix.PScandirIterator;
+import com.oracle.graal.python.builtins.objects.queue.PSimpleQueue;
 import com.oracle.graal.python.builtins.objects.random.PRandom;
 import com.oracle.graal.python.builtins.objects.range.PRange;
 import com.oracle.graal.python.builtins.objects.referencetype.PReferenceType;
 import com.oracle.graal.python.builtins.objects.reversed.PSequenceReverseIterator;
 import com.oracle.graal.python.builtins.objects.reversed.PStringReverseIterator;
+import com.oracle.graal.python.builtins.objects.select.PPoll;
 import com.oracle.graal.python.builtins.objects.set.PBaseSet;
 import com.oracle.graal.python.builtins.objects.set.PFrozenSet;
 import com.oracle.graal.python.builtins.objects.set.PSet;
@@ -121,17 +143,18 @@ import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.graal.python.builtins.objects.type.PythonAbstractClass;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
 import com.oracle.graal.python.builtins.objects.zipimporter.PZipImporter;
+import com.oracle.graal.python.builtins.objects.zlib.PZLibCompress;
+import com.oracle.graal.python.builtins.objects.zlib.PZLibDecompress;
 import com.oracle.graal.python.nodes.attributes.WriteAttributeToDynamicObjectNode;
 import com.oracle.graal.python.nodes.literal.ListLiteralNode;
 import com.oracle.graal.python.parser.ExecutionCellSlots;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.exception.PException;
-import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
-import com.oracle.graal.python.runtime.sequence.storage.CharSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.EmptySequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.PackedSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorageFactory;
 import com.oracle.truffle.api.Assumption;
@@ -607,27 +630,7 @@ public abstract class PythonObjectFactory extends Node {
      * Arrays
      */
 
-    public PArray createArray(LazyPythonClass cls, byte[] array) {
-        return trace(new PArray(cls, new ByteSequenceStorage(array)));
-    }
-
-    public PArray createArray(LazyPythonClass cls, int[] array) {
-        return trace(new PArray(cls, new IntSequenceStorage(array)));
-    }
-
-    public PArray createArray(LazyPythonClass cls, double[] array) {
-        return trace(new PArray(cls, new DoubleSequenceStorage(array)));
-    }
-
-    public PArray createArray(LazyPythonClass cls, char[] array) {
-        return trace(new PArray(cls, new CharSequenceStorage(array)));
-    }
-
-    public PArray createArray(LazyPythonClass cls, long[] array) {
-        return trace(new PArray(cls, new LongSequenceStorage(array)));
-    }
-
-    public PArray createArray(LazyPythonClass cls, SequenceStorage store) {
+    public PArray createArray(LazyPythonClass cls, PackedSequenceStorage store) {
         return trace(new PArray(cls, store));
     }
 
@@ -643,27 +646,7 @@ public abstract class PythonObjectFactory extends Node {
         return trace(new PByteArray(cls, storage));
     }
 
-    public PArray createArray(byte[] array) {
-        return trace(new PArray(PythonBuiltinClassType.PArray, new ByteSequenceStorage(array)));
-    }
-
-    public PArray createArray(int[] array) {
-        return trace(new PArray(PythonBuiltinClassType.PArray, new IntSequenceStorage(array)));
-    }
-
-    public PArray createArray(double[] array) {
-        return trace(new PArray(PythonBuiltinClassType.PArray, new DoubleSequenceStorage(array)));
-    }
-
-    public PArray createArray(char[] array) {
-        return trace(new PArray(PythonBuiltinClassType.PArray, new CharSequenceStorage(array)));
-    }
-
-    public PArray createArray(long[] array) {
-        return trace(new PArray(PythonBuiltinClassType.PArray, new LongSequenceStorage(array)));
-    }
-
-    public PArray createArray(SequenceStorage store) {
+    public PArray createArray(PackedSequenceStorage store) {
         return trace(new PArray(PythonBuiltinClassType.PArray, store));
     }
 
@@ -838,12 +821,12 @@ public abstract class PythonObjectFactory extends Node {
         return trace(new PDirEntry(cls, name, file));
     }
 
-    public PMMap createMMap(SeekableByteChannel channel, long length, long offset) {
-        return trace(new PMMap(PythonBuiltinClassType.PMMap, channel, length, offset));
+    public PMMap createMMap(ByteBuffer buffer, SeekableByteChannel channel, boolean mapped, long offset) {
+        return trace(new PMMap(PythonBuiltinClassType.PMMap, buffer, channel, mapped, offset));
     }
 
-    public PMMap createMMap(LazyPythonClass clazz, SeekableByteChannel channel, long length, long offset) {
-        return trace(new PMMap(clazz, channel, length, offset));
+    public PMMap createMMap(LazyPythonClass clazz, ByteBuffer buffer, SeekableByteChannel channel, boolean mapped, long offset) {
+        return trace(new PMMap(clazz, buffer, channel, mapped, offset));
     }
 
     public PLZMACompressor createLZMACompressor(LazyPythonClass clazz, FinishableOutputStream lzmaStream, ByteArrayOutputStream bos) {
@@ -853,4 +836,88 @@ public abstract class PythonObjectFactory extends Node {
     public PLZMADecompressor createLZMADecompressor(LazyPythonClass clazz, int format, int memlimit) {
         return trace(new PLZMADecompressor(clazz, format, memlimit));
     }
+
+    public PZLibCompress createZLibCompress(Deflater deflater, int level, int wbits, int strategy, byte[] zdict) {
+        return trace(new PZLibCompress(PythonBuiltinClassType.PZLibCompress, deflater, level, wbits, strategy, zdict));
+    }
+
+    public PZLibDecompress createZLibDecompress(Inflater inflater, byte[] zdict) {
+        return trace(new PZLibDecompress(PythonBuiltinClassType.PZLibDecompress, inflater, zdict));
+    }
+
+    public PFileIO createFileIO(LazyPythonClass clazz) {
+        return trace(new PFileIO(clazz));
+    }
+
+    public PBuffered createBuffered(LazyPythonClass clazz) {
+        return trace(new PBuffered(clazz));
+    }
+
+    public PTextIO createTextIO(LazyPythonClass clazz) {
+        return trace(new PTextIO(clazz));
+    }
+
+    public PDeque createDeque(LazyPythonClass clazz) {
+        return trace(new PDeque(clazz));
+    }
+
+    public PDequeIter createDequeIter(LazyPythonClass clazz, PDeque deque) {
+        return trace(new PDequeIter(clazz, deque, false));
+    }
+
+    public PDequeIter createDequeRevIter(LazyPythonClass clazz, PDeque deque) {
+        return trace(new PDequeIter(clazz, deque, true));
+    }
+
+    public PPoll createPoll(LazyPythonClass cls) {
+        return trace(new PPoll(cls));
+    }
+
+    public PSimpleQueue createSimpleQueue(LazyPythonClass cls) {
+        return trace(new PSimpleQueue(cls));
+    }
+
+    public PPartial createPartial(LazyPythonClass cls, Object function, Object[] arguments, PDict keywords) {
+        return trace(new PPartial(cls, function, arguments, createTuple(arguments), keywords));
+    }
+
+    public PLruCacheWrapper createLruCacheWrapper(LazyPythonClass cls, Object function, Object maxSizeObject, int maxSize, int kind, boolean typed, Object cacheInfoType, Object keywordMark) {
+        return trace(new PLruCacheWrapper(cls, function, maxSizeObject, maxSize, kind, typed, cacheInfoType, keywordMark));
+    }
+
+    public PRepeat createRepeat(LazyPythonClass cls, Object element, long times) {
+        return trace(new PRepeat(cls, element, times));
+    }
+
+    public PCount createCount(LazyPythonClass cls, Object start, Object step) {
+        return trace(new PCount(cls, start, step));
+    }
+
+    public PChain createChain(LazyPythonClass cls, Object source) {
+        return trace(new PChain(cls, source));
+    }
+
+    public PIslice createIslice(LazyPythonClass cls, Object iterator, int start, int stop, int step) {
+        return trace(new PIslice(cls, iterator, start, stop, step));
+    }
+
+    public PStarmap createStarmap(LazyPythonClass cls, Object function, Object iterator) {
+        return trace(new PStarmap(cls, function, iterator));
+    }
+
+    public PAccumulate createAccumulate(LazyPythonClass cls, Object iterator, Object function, Object initial) {
+        return trace(new PAccumulate(cls, iterator, function, initial));
+    }
+
+    public PProduct createProduct(LazyPythonClass cls, Object[][] gears) {
+        return trace(new PProduct(cls, gears));
+    }
+
+    public PPermutations createPermutations(LazyPythonClass cls, Object[] pool, int r) {
+        return trace(new PPermutations(cls, pool, r));
+    }
+
+    public PTee createTee(LazyPythonClass cls, PTeeDataObject data, int index) {
+        return trace(new PTee(cls, data, index));
+    }
 }
@@ -25,17 +25,23 @@
  */
 package com.oracle.graal.python.runtime.sequence;
 
+import com.oracle.graal.python.builtins.objects.PythonAbstractObject.PInteropSubscriptNode;
 import com.oracle.graal.python.builtins.objects.common.SequenceNodes;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
-import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode.LookupAndCallUnaryDynamicNode;
+import com.oracle.graal.python.nodes.interop.PTypeToForeignNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.dsl.Cached;
-import com.oracle.truffle.api.dsl.Cached.Exclusive;
+import com.oracle.truffle.api.dsl.Cached.Shared;
 import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.interop.InvalidArrayIndexException;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.library.ExportLibrary;
 import com.oracle.truffle.api.library.ExportMessage;
@@ -174,16 +180,72 @@ public abstract class PSequence extends PythonBuiltinObject {
     }
 
     @ExportMessage
-    public long getArraySize(@Exclusive @Cached SequenceNodes.GetSequenceStorageNode getSequenceStorageNode,
-                    @Exclusive @Cached SequenceStorageNodes.LenNode lenNode) {
-        return lenNode.execute(getSequenceStorageNode.execute(this));
+    public long getArraySize(@Shared("isBuiltin") @Cached IsBuiltinClassProfile isBuiltinClassProfile,
+                    @Shared("getStorage") @Cached SequenceNodes.GetSequenceStorageNode getSequenceStorageNode,
+                    @Shared("lenNode") @Cached SequenceStorageNodes.LenNode lenNode,
+                    @Shared("callLenNode") @Cached LookupAndCallUnaryDynamicNode callLenNode) throws UnsupportedMessageException {
+        if (isBuiltinStorageSequence(isBuiltinClassProfile)) {
+            return lenNode.execute(getSequenceStorageNode.execute(this));
+        }
+        return super.getArraySize(callLenNode);
     }
 
     @ExportMessage
     public Object readArrayElement(long index,
-                    @Exclusive @Cached SequenceNodes.GetSequenceStorageNode getSequenceStorageNode,
-                    @Cached SequenceStorageNodes.GetItemScalarNode getItem) {
-        return getItem.execute(getSequenceStorageNode.execute(this), PInt.intValueExact(index));
+                    @Shared("isBuiltin") @Cached IsBuiltinClassProfile isBuiltinClassProfile,
+                    @Shared("getStorage") @Cached SequenceNodes.GetSequenceStorageNode getSequenceStorageNode,
+                    @Shared("lenNode") @Cached SequenceStorageNodes.LenNode lenNode,
+                    @Cached SequenceStorageNodes.GetItemScalarNode getItem,
+                    @Shared("getItemNode") @Cached PInteropSubscriptNode getItemNode,
+                    @Cached PTypeToForeignNode toForeign) throws InvalidArrayIndexException {
+        if (isBuiltinStorageSequence(isBuiltinClassProfile)) {
+            SequenceStorage storage = getSequenceStorageNode.execute(this);
+            if (0 <= index && index < lenNode.execute(storage)) {
+                return toForeign.executeConvert(getItem.execute(storage, (int) index));
+            }
+            throw InvalidArrayIndexException.create(index);
+        }
+        try {
+            return toForeign.executeConvert(getItemNode.execute(this, index));
+        } catch (PException e) {
+            // a subclass may have overridden '__getitem__'; we assume the index is wrong
+            throw InvalidArrayIndexException.create(index);
+        }
+    }
+
+    @ExportMessage
+    public boolean isArrayElementReadable(long idx,
+                    @Shared("isBuiltin") @Cached IsBuiltinClassProfile isBuiltinClassProfile,
+                    @Shared("getStorage") @Cached SequenceNodes.GetSequenceStorageNode getSequenceStorageNode,
+                    @Shared("lenNode") @Cached SequenceStorageNodes.LenNode lenNode,
+                    @Shared("getItemNode") @Cached PInteropSubscriptNode getItemNode,
+                    @Shared("callLenNode") @Cached LookupAndCallUnaryDynamicNode callLenNode) {
+        if (isBuiltinStorageSequence(isBuiltinClassProfile)) {
+            return 0 <= idx && idx < lenNode.execute(getSequenceStorageNode.execute(this));
+        }
+        return super.isArrayElementReadable(idx, getItemNode, callLenNode);
+    }
+
+    @ExportMessage
+    public boolean isArrayElementModifiable(long idx,
+                    @Shared("isBuiltin") @Cached IsBuiltinClassProfile isBuiltinClassProfile,
+                    @Shared("getStorage") @Cached SequenceNodes.GetSequenceStorageNode getSequenceStorageNode,
+                    @Shared("lenNode") @Cached SequenceStorageNodes.LenNode lenNode,
+                    @Shared("getItemNode") @Cached PInteropSubscriptNode getItemNode,
+                    @Shared("callLenNode") @Cached LookupAndCallUnaryDynamicNode callLenNode) {
+        if (isBuiltinStorageSequence(isBuiltinClassProfile)) {
+            return this instanceof PMutableSequence && 0 <= idx && idx < lenNode.execute(getSequenceStorageNode.execute(this));
+        }
+        return super.isArrayElementModifiable(idx, getItemNode, callLenNode);
+    }
+
+    /**
+     * The interop array messages may work on the sequence storage directly if the object's class
+     * is a builtin class since then the element access cannot be overridden. Strings do not have a
+     * sequence storage and always take the generic path.
+     */
+    private boolean isBuiltinStorageSequence(IsBuiltinClassProfile isBuiltinClassProfile) {
+        return !(this instanceof PString) && isBuiltinClassProfile.profileIsAnyBuiltinObject(this);
     }
 
 }
@@ -0,0 +1,473 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime.sequence.storage;
+
+import java.math.BigInteger;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * The storage of {@code array.array}. The items are packed into a byte array in the same layout
+ * (and in native byte order) as a C array of the array's type code, so an array takes exactly
+ * {@code len(a) * a.itemsize} bytes and {@code tobytes}, {@code frombytes} and the buffer
+ * protocol are plain copies.
+ */
+public final class PackedSequenceStorage extends BasicSequenceStorage {
+
+    private static final boolean LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+    public enum Format {
+        SIGNED_CHAR('b', 1, true),
+        UNSIGNED_CHAR('B', 1, false),
+        UNICODE('u', 4, false),
+        SIGNED_SHORT('h', 2, true),
+        UNSIGNED_SHORT('H', 2, false),
+        SIGNED_INT('i', 4, true),
+        UNSIGNED_INT('I', 4, false),
+        SIGNED_LONG('l', 8, true),
+        UNSIGNED_LONG('L', 8, false),
+        SIGNED_LONG_LONG('q', 8, true),
+        UNSIGNED_LONG_LONG('Q', 8, false),
+        FLOAT('f', 4, true),
+        DOUBLE('d', 8, true);
+
+        public static final String TYPE_CODES = "b, B, u, h, H, i, I, l, L, q, Q, f or d";
+
+        public final char typeCode;
+        public final int itemSize;
+        public final boolean signed;
+
+        Format(char typeCode, int itemSize, boolean signed) {
+            this.typeCode = typeCode;
+            this.itemSize = itemSize;
+            this.signed = signed;
+        }
+
+        public boolean isFloatingPoint() {
+            return this == FLOAT || this == DOUBLE;
+        }
+
+        public boolean isUnicode() {
+            return this == UNICODE;
+        }
+
+        public boolean isInteger() {
+            return !isFloatingPoint() && !isUnicode();
+        }
+
+        /**
+         * Tests if an integer format can represent {@code value}. For the unsigned 64-bit formats,
+         * this only accepts the non-negative part of their range.
+         */
+        public boolean fits(long value) {
+            if (itemSize == 8) {
+                return signed || value >= 0;
+            }
+            long bound = 1L << (itemSize * 8 - (signed ? 1 : 0));
+            return signed ? value >= -bound && value < bound : value >= 0 && value < bound;
+        }
+
+        public static Format forTypeCode(char typeCode) {
+            for (Format format : values()) {
+                if (format.typeCode == typeCode) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final Format format;
+    private byte[] values;
+
+    public PackedSequenceStorage(Format format, int capacity) {
+        super(ListStorageType.Generic);
+        this.format = format;
+        this.values = new byte[Math.multiplyExact(capacity, format.itemSize)];
+        this.capacity = capacity;
+        this.length = 0;
+    }
+
+    public PackedSequenceStorage(Format format, byte[] values, int length) {
+        super(ListStorageType.Generic);
+        assert values.length % format.itemSize == 0 && length * format.itemSize <= values.length;
+        this.format = format;
+        this.values = values;
+        this.capacity = values.length / format.itemSize;
+        this.length = length;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public int getItemSize() {
+        return format.itemSize;
+    }
+
+    public int getByteLength() {
+        return length * format.itemSize;
+    }
+
+    public byte[] getInternalByteArray() {
+        return values;
+    }
+
+    /**
+     * Returns an exact copy of the packed items.
+     */
+    public byte[] getBytes() {
+        return Arrays.copyOf(values, getByteLength());
+    }
+
+    @Override
+    protected void increaseCapacityExactWithCopy(int newCapacity) {
+        values = Arrays.copyOf(values, Math.multiplyExact(newCapacity, format.itemSize));
+        capacity = newCapacity;
+    }
+
+    @Override
+    protected void increaseCapacityExact(int newCapacity) {
+        values = new byte[Math.multiplyExact(newCapacity, format.itemSize)];
+        capacity = newCapacity;
+    }
+
+    @Override
+    public SequenceStorage copy() {
+        return new PackedSequenceStorage(format, getBytes(), length);
+    }
+
+    @Override
+    public SequenceStorage createEmpty(int newCapacity) {
+        return new PackedSequenceStorage(format, newCapacity);
+    }
+
+    @Override
+    public Object[] getInternalArray() {
+        Object[] boxed = new Object[length];
+        for (int i = 0; i < length; i++) {
+            boxed[i] = getItemNormalized(i);
+        }
+        return boxed;
+    }
+
+    @Override
+    public Object[] getCopyOfInternalArray() {
+        return getInternalArray();
+    }
+
+    private long readRaw(int offset, int size) {
+        long result = 0;
+        if (LITTLE_ENDIAN) {
+            for (int i = size - 1; i >= 0; i--) {
+                result = (result << 8) | (values[offset + i] & 0xFF);
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                result = (result << 8) | (values[offset + i] & 0xFF);
+            }
+        }
+        return result;
+    }
+
+    private void writeRaw(int offset, int size, long value) {
+        for (int i = 0; i < size; i++) {
+            values[LITTLE_ENDIAN ? offset + i : offset + size - 1 - i] = (byte) (value >>> (i * 8));
+        }
+    }
+
+    /**
+     * Reads an item of an integer or unicode format. Signed formats are sign-extended, unsigned
+     * formats are zero-extended; for the unsigned 64-bit formats, this returns the raw bits.
+     */
+    public long getLongItemNormalized(int idx) {
+        int size = format.itemSize;
+        long raw = readRaw(idx * size, size);
+        if (format.signed && size < 8) {
+            int shift = 64 - size * 8;
+            return (raw << shift) >> shift;
+        }
+        return raw;
+    }
+
+    /**
+     * Writes an item of an integer or unicode format, truncating {@code value} to the item size.
+     */
+    public void setLongItemNormalized(int idx, long value) {
+        int size = format.itemSize;
+        writeRaw(idx * size, size, value);
+    }
+
+    public double getDoubleItemNormalized(int idx) {
+        if (format == Format.FLOAT) {
+            return Float.intBitsToFloat((int) readRaw(idx * 4, 4));
+        }
+        return Double.longBitsToDouble(readRaw(idx * 8, 8));
+    }
+
+    public void setDoubleItemNormalized(int idx, double value) {
+        if (format == Format.FLOAT) {
+            writeRaw(idx * 4, 4, Float.floatToRawIntBits((float) value));
+        } else {
+            writeRaw(idx * 8, 8, Double.doubleToRawLongBits(value));
+        }
+    }
+
+    @Override
+    public Object getItemNormalized(int idx) {
+        if (format.isFloatingPoint()) {
+            return getDoubleItemNormalized(idx);
+        }
+        long value = getLongItemNormalized(idx);
+        if (format.isUnicode()) {
+            return codePointToString((int) value);
+        } else if (format.itemSize <= 2 || format == Format.SIGNED_INT) {
+            return (int) value;
+        } else if (value < 0 && !format.signed) {
+            return unsignedToPInt(value);
+        }
+        return value;
+    }
+
+    @TruffleBoundary
+    private static String codePointToString(int codePoint) {
+        if (Character.isValidCodePoint(codePoint)) {
+            return new String(Character.toChars(codePoint));
+        }
+        return "\uFFFD";
+    }
+
+    @TruffleBoundary
+    private static PInt unsignedToPInt(long bits) {
+        return new PInt(PythonBuiltinClassType.PInt, BigInteger.valueOf(bits & Long.MAX_VALUE).setBit(63));
+    }
+
+    @Override
+    public void setItemNormalized(int idx, Object value) throws SequenceStoreException {
+        if (format.isFloatingPoint()) {
+            if (value instanceof Double) {
+                setDoubleItemNormalized(idx, (double) value);
+            } else if (value instanceof Integer) {
+                setDoubleItemNormalized(idx, (int) value);
+            } else if (value instanceof Long) {
+                setDoubleItemNormalized(idx, (long) value);
+            } else {
+                throw new SequenceStoreException(value);
+            }
+        } else if (format.isUnicode()) {
+            if (value instanceof String && isSingleCodePoint((String) value)) {
+                setLongItemNormalized(idx, codePointAt((String) value));
+            } else {
+                throw new SequenceStoreException(value);
+            }
+        } else {
+            long longValue;
+            if (value instanceof Integer) {
+                longValue = (int) value;
+            } else if (value instanceof Long) {
+                longValue = (long) value;
+            } else if (value instanceof Boolean) {
+                longValue = ((boolean) value) ? 1 : 0;
+            } else {
+                throw new SequenceStoreException(value);
+            }
+            if (!format.fits(longValue)) {
+                throw new SequenceStoreException(value);
+            }
+            setLongItemNormalized(idx, longValue);
+        }
+    }
+
+    @TruffleBoundary
+    public static boolean isSingleCodePoint(String s) {
+        return !s.isEmpty() && s.offsetByCodePoints(0, 1) == s.length();
+    }
+
+    @TruffleBoundary
+    public static int codePointAt(String s) {
+        return s.codePointAt(0);
+    }
+
+    @Override
+    public void insertItem(int idx, Object value) throws SequenceStoreException {
+        int size = format.itemSize;
+        ensureCapacity(length + 1);
+        System.arraycopy(values, idx * size, values, (idx + 1) * size, (length - idx) * size);
+        try {
+            setItemNormalized(idx, value);
+        } catch (SequenceStoreException e) {
+            System.arraycopy(values, (idx + 1) * size, values, idx * size, (length - idx) * size);
+            throw e;
+        }
+        length++;
+    }
+
+    @Override
+    public void copyItem(int idxTo, int idxFrom) {
+        int size = format.itemSize;
+        System.arraycopy(values, idxFrom * size, values, idxTo * size, size);
+    }
+
+    @Override
+    public PackedSequenceStorage getSliceInBound(int start, int stop, int step, int sliceLength) {
+        int size = format.itemSize;
+        byte[] newValues = new byte[sliceLength * size];
+        if (step == 1) {
+            System.arraycopy(values, start * size, newValues, 0, sliceLength * size);
+        } else {
+            for (int i = start, j = 0; j < sliceLength; i += step, j++) {
+                System.arraycopy(values, i * size, newValues, j * size, size);
+            }
+        }
+        return new PackedSequenceStorage(format, newValues, sliceLength);
+    }
+
+    /**
+     * Replaces the items in {@code [start, stop)} by the first {@code count} items packed in
+     * {@code src}, which must use the same format. The length of the storage changes if
+     * {@code count} differs from the number of replaced items.
+     */
+    public void replaceSlice(int start, int stop, byte[] src, int count) {
+        int size = format.itemSize;
+        byte[] source = src == values ? getBytes() : src;
+        int newLength = Math.addExact(length - (stop - start), count);
+        ensureCapacity(newLength);
+        System.arraycopy(values, stop * size, values, (start + count) * size, (length - stop) * size);
+        System.arraycopy(source, 0, values, start * size, count * size);
+        length = newLength;
+    }
+
+    /**
+     * Appends {@code len} bytes of {@code src}, which must be a multiple of the item size.
+     */
+    public void appendBytes(byte[] src, int offset, int len) {
+        assert len % format.itemSize == 0;
+        int count = len / format.itemSize;
+        int newLength = Math.addExact(length, count);
+        ensureCapacity(newLength);
+        System.arraycopy(src, offset, values, getByteLength(), len);
+        length = newLength;
+    }
+
+    public PackedSequenceStorage repeat(int times) {
+        int byteLength = getByteLength();
+        byte[] newValues = new byte[Math.multiplyExact(byteLength, times)];
+        for (int i = 0; i < times; i++) {
+            System.arraycopy(values, 0, newValues, i * byteLength, byteLength);
+        }
+        return new PackedSequenceStorage(format, newValues, length * times);
+    }
+
+    public void byteswap() {
+        int size = format.itemSize;
+        for (int offset = 0; offset < getByteLength(); offset += size) {
+            for (int i = 0, j = size - 1; i < j; i++, j--) {
+                byte tmp = values[offset + i];
+                values[offset + i] = values[offset + j];
+                values[offset + j] = tmp;
+            }
+        }
+    }
+
+    @Override
+    public void reverse() {
+        int size = format.itemSize;
+        for (int head = 0, tail = length - 1; head < tail; head++, tail--) {
+            for (int i = 0; i < size; i++) {
+                byte tmp = values[head * size + i];
+                values[head * size + i] = values[tail * size + i];
+                values[tail * size + i] = tmp;
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(SequenceStorage other) {
+        if (!(other instanceof PackedSequenceStorage) || other.length() != length) {
+            return false;
+        }
+        PackedSequenceStorage packed = (PackedSequenceStorage) other;
+        if (packed.format != format) {
+            return false;
+        }
+        for (int i = 0; i < getByteLength(); i++) {
+            if (values[i] != packed.values[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public SequenceStorage generalizeFor(Object value, SequenceStorage other) {
+        return new ObjectSequenceStorage(getInternalArray());
+    }
+
+    @Override
+    public Object getIndicativeValue() {
+        if (format.isFloatingPoint()) {
+            return .0;
+        } else if (format.isUnicode()) {
+            return "";
+        }
+        return 0;
+    }
+
+    @Override
+    public Object getInternalArrayObject() {
+        return values;
+    }
+
+    @Override
+    public Object getCopyOfInternalArrayObject() {
+        return getBytes();
+    }
+
+    @Override
+    public void setInternalArrayObject(Object arrayObject) {
+        this.values = (byte[]) arrayObject;
+        this.capacity = values.length / format.itemSize;
+    }
+}
@@ -37,30 +37,23 @@
 # OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
 # SOFTWARE.
 
-@__graalpython__.builtin
-def reduce(function, iterable, initializer=None):
-    it = iter(iterable)
-    if initializer is None:
-        value = next(it)
-    else:
-        value = initializer
-    for element in it:
-        value = function(value, element)
-    return value
+_partial_repr_running = set()
 
 
-class partial:
-    def __init__(self, func, *args, **keywords):
-        def newfunc(*fargs, **fkeywords):
-            newkeywords = keywords.copy()
-            newkeywords.update(fkeywords)
-            return func(*args, *fargs, **newkeywords)
-        self.func = func
-        self.args = args
-        self.keywords = keywords
-        self.newfunc = newfunc
+def _partial_repr(self):
+    key = id(self)
+    if key in _partial_repr_running:
+        return "..."
+    _partial_repr_running.add(key)
+    try:
+        args = [repr(self.func)]
+        args.extend(repr(x) for x in self.args)
+        args.extend("%s=%r" % (k, v) for k, v in self.keywords.items())
+        cls = type(self)
+        name = "functools.partial" if cls is partial else cls.__name__
+        return "%s(%s)" % (name, ", ".join(args))
+    finally:
+        _partial_repr_running.discard(key)
 
-    def __call__(self, *args, **keywords):
-        return self.newfunc(*args, **keywords)
 
-    # TODO: correctly implement '__reduce__' and '__setstate__'
+partial.__repr__ = _partial_repr
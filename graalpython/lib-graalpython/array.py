@@ -37,13 +37,34 @@
 # OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
 # SOFTWARE.
 
-def frombytes(self, bytesLike):
-    for b in bytesLike:
-        self.append(b)
+# Files are read and written in blocks of this many bytes, so that large arrays
+# are streamed instead of being copied into one big bytes object.
+_BLOCK_SIZE = 64 * 1024
 
 
 def fromfile(self, f, n):
-    self.frombytes(f.read(n))
+    if n < 0:
+        raise ValueError("negative count")
+    itemsize = self.itemsize
+    remaining = n * itemsize
+    while remaining > 0:
+        block = f.read(min(remaining, _BLOCK_SIZE - _BLOCK_SIZE % itemsize))
+        if not block:
+            break
+        if len(block) % itemsize != 0:
+            self.frombytes(block[:len(block) - len(block) % itemsize])
+            break
+        self.frombytes(block)
+        remaining -= len(block)
+    if remaining > 0:
+        raise EOFError("read() didn't return enough bytes")
+
+
+def tofile(self, f):
+    items_per_block = max(1, _BLOCK_SIZE // self.itemsize)
+    for i in range(0, len(self), items_per_block):
+        f.write(self[i:i + items_per_block].tobytes())
+
 
-array.frombytes = frombytes
 array.fromfile = fromfile
+array.tofile = tofile
@@ -52,6 +52,7 @@ finally:
 import _io
 import _sysconfig
 import builtins
+import os
 
 
 # ----------------------------------------------------------------------------------------------------------------------
@@ -60,24 +61,97 @@ import builtins
 #
 # ----------------------------------------------------------------------------------------------------------------------
 
+# See comment in _pyio.py. This method isn't strictly necessary and is provided
+# on CPython for performance. Because it goes through memoryview, it is slower
+# for us due to the overhead of memoryview being in C and the warmup cost
+# associated with that. We remove it and rely on the (for us faster) base
+# implementation.
+del _pyio.BufferedReader._readinto
+
+
+# FileIO, BufferedReader, BufferedWriter and TextIOWrapper are implemented in
+# Java, so they are registered with the ABCs that we take from _pyio.
+_pyio.RawIOBase.register(_io.FileIO)
+_pyio.BufferedIOBase.register(_io.BufferedReader)
+_pyio.BufferedIOBase.register(_io.BufferedWriter)
+_pyio.TextIOBase.register(_io.TextIOWrapper)
+
+
 @__graalpython__.builtin
-def open(*args, **kwargs):
-    return _pyio.open(*args, **kwargs)
+def open(file, mode="r", buffering=-1, encoding=None, errors=None, newline=None, closefd=True, opener=None):
+    # files opened for updating need _pyio.BufferedRandom
+    if not isinstance(mode, str) or "+" in mode or "U" in mode:
+        return _pyio.open(file, mode, buffering, encoding, errors, newline, closefd, opener)
+    if not isinstance(file, int):
+        file = os.fspath(file)
+    if not isinstance(file, (str, bytes, int)):
+        raise TypeError("invalid file: %r" % file)
+    if not isinstance(buffering, int):
+        raise TypeError("invalid buffering: %r" % buffering)
+    if encoding is not None and not isinstance(encoding, str):
+        raise TypeError("invalid encoding: %r" % encoding)
+    if errors is not None and not isinstance(errors, str):
+        raise TypeError("invalid errors: %r" % errors)
+    modes = set(mode)
+    if modes - set("axrwbt") or len(mode) > len(modes):
+        raise ValueError("invalid mode: %r" % mode)
+    creating = "x" in modes
+    reading = "r" in modes
+    writing = "w" in modes
+    appending = "a" in modes
+    text = "t" in modes
+    binary = "b" in modes
+    if text and binary:
+        raise ValueError("can't have text and binary mode at once")
+    if creating + reading + writing + appending != 1:
+        raise ValueError("must have exactly one of create/read/write/append mode")
+    if binary and encoding is not None:
+        raise ValueError("binary mode doesn't take an encoding argument")
+    if binary and errors is not None:
+        raise ValueError("binary mode doesn't take an errors argument")
+    if binary and newline is not None:
+        raise ValueError("binary mode doesn't take a newline argument")
+    if binary and buffering == 1:
+        import warnings
+        warnings.warn("line buffering (buffering=1) isn't supported in binary "
+                      "mode, the default buffer size will be used",
+                      RuntimeWarning, 2)
+    raw = _io.FileIO(file, mode.replace("b", "").replace("t", ""), closefd, opener=opener)
+    result = raw
+    try:
+        line_buffering = False
+        if buffering == 1 or buffering < 0 and raw.isatty():
+            buffering = -1
+            line_buffering = True
+        if buffering < 0:
+            buffering = _io.DEFAULT_BUFFER_SIZE
+        if buffering == 0:
+            if binary:
+                return result
+            raise ValueError("can't have unbuffered text I/O")
+        if reading:
+            result = _io.BufferedReader(raw, buffering)
+        else:
+            result = _io.BufferedWriter(raw, buffering)
+        if binary:
+            return result
+        result = _io.TextIOWrapper(result, encoding, errors, newline, line_buffering)
+        result.mode = mode
+        return result
+    except:
+        result.close()
+        raise
 
 
 for module in [_io, io]:
     setattr(module, 'open', open)
-    setattr(module, 'TextIOWrapper', _pyio.TextIOWrapper)
     setattr(module, 'IncrementalNewlineDecoder', _pyio.IncrementalNewlineDecoder)
     setattr(module, 'BufferedRandom', _pyio.BufferedRandom)
     setattr(module, 'BufferedRWPair', _pyio.BufferedRWPair)
-    setattr(module, 'BufferedWriter', _pyio.BufferedWriter)
-    setattr(module, 'BufferedReader', _pyio.BufferedReader)
     setattr(module, 'StringIO', _pyio.StringIO)
     setattr(module, '_IOBase', _pyio.IOBase)
     setattr(module, 'BufferedIOBase', _pyio.BufferedIOBase)
     setattr(module, 'RawIOBase', _pyio.RawIOBase)
-    setattr(module, 'FileIO', _pyio.FileIO)
     setattr(module, 'BytesIO', _pyio.BytesIO)
     setattr(module, '_TextIOBase', _pyio.TextIOBase)
 
@@ -85,20 +159,13 @@ for module in [_io, io]:
 setattr(builtins, 'open', open)
 
 
-sys.stdin = _pyio.TextIOWrapper(_pyio.BufferedReader(sys.stdin), encoding="utf-8", line_buffering=True)
+sys.stdin = _io.TextIOWrapper(_io.BufferedReader(sys.stdin), encoding="utf-8", line_buffering=True)
 sys.stdin.mode = "r"
 sys.__stdin__ = sys.stdin
-sys.stdout = _pyio.TextIOWrapper(_pyio.BufferedWriter(sys.stdout), encoding="utf-8", line_buffering=True)
+sys.stdout = _io.TextIOWrapper(_io.BufferedWriter(sys.stdout), encoding="utf-8", line_buffering=True)
 sys.stdout.mode = "w"
 sys.__stdout__ = sys.stdout
-sys.stderr = _pyio.TextIOWrapper(_pyio.BufferedWriter(sys.stderr), encoding="utf-8", line_buffering=True)
+sys.stderr = _io.TextIOWrapper(_io.BufferedWriter(sys.stderr), encoding="utf-8", line_buffering=True)
 sys.stderr.mode = "w"
 sys.__stderr__ = sys.stderr
 
-
-# See comment in _pyio.py. This method isn't strictly necessary and is provided
-# on CPython for performance. Because it goes through memoryview, it is slower
-# for us due to the overhead of memoryview being in C and the warmup cost
-# associated with that. We remove it and rely on the (for us faster) base
-# implementation.
-del _pyio.BufferedReader._readinto
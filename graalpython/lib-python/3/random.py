@@ -75,6 +75,16 @@ RECIP_BPF = 2**-BPF
 
 import _random
 
+
+def _uses_builtin_getrandbits(inst):
+    # GraalPython: the Java helpers of _random.Random draw the same numbers as
+    # _randbelow_with_getrandbits, so they can only be used if neither of them
+    # is overridden
+    cls = type(inst)
+    return (cls.getrandbits is _random.Random.getrandbits
+            and cls._randbelow is Random._randbelow_with_getrandbits)
+
+
 class Random(_random.Random):
     """Random number generator base class used by bound module functions.
 
@@ -300,6 +310,10 @@ class Random(_random.Random):
         """
 
         if random is None:
+            if type(x) is list and _uses_builtin_getrandbits(self):
+                # GraalPython: shuffle the list storage in Java
+                self._shuffle(x)
+                return
             randbelow = self._randbelow
             for i in reversed(range(1, len(x))):
                 # pick an element in x[:i+1] with which to exchange x[i]
@@ -361,6 +375,9 @@ class Random(_random.Random):
         n = len(population)
         if not 0 <= k <= n:
             raise ValueError("Sample larger than population or is negative")
+        if type(population) in (list, tuple) and _uses_builtin_getrandbits(self):
+            # GraalPython: draw the sample in Java
+            return self._sample(population, k)
         result = [None] * k
         setsize = 21        # size of a small set minus size of an empty list
         if k > 5:
@@ -392,8 +409,12 @@ class Random(_random.Random):
         """
         random = self.random
         n = len(population)
+        fast = n > 0 and type(population) in (list, tuple) and type(self).random is _random.Random.random
         if cum_weights is None:
             if weights is None:
+                if fast:
+                    # GraalPython: draw the elements in Java
+                    return self._choices(population, k, None)
                 _int = int
                 n += 0.0    # convert to float for a small speed improvement
                 return [population[_int(random() * n)] for i in _repeat(None, k)]
@@ -402,6 +423,12 @@ class Random(_random.Random):
             raise TypeError('Cannot specify both weights and cumulative weights')
         if len(cum_weights) != n:
             raise ValueError('The number of weights does not match the population')
+        if fast and type(cum_weights) is list:
+            # GraalPython: draw the elements in Java, unless the weights are not
+            # all ints or floats that compare exactly as doubles
+            result = self._choices(population, k, cum_weights)
+            if result is not NotImplemented:
+                return result
         bisect = _bisect
         total = cum_weights[-1] + 0.0   # convert to float
         hi = n - 1
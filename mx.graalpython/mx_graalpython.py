@@ -53,6 +53,7 @@ from mx_graalpython_bench_param import PATH_MESO, BENCHMARKS, JBENCHMARKS
 from mx_graalpython_benchmark import PythonBenchmarkSuite, python_vm_registry, CPythonVm, PyPyVm, GraalPythonVm, \
     CONFIGURATION_DEFAULT, CONFIGURATION_SANDBOXED, CONFIGURATION_NATIVE, \
     CONFIGURATION_DEFAULT_MULTI, CONFIGURATION_SANDBOXED_MULTI, CONFIGURATION_NATIVE_MULTI, \
+    CONFIGURATION_THREADED, CONFIGURATION_THREADED_GIL, \
     PythonInteropBenchmarkSuite
 
 
@@ -1201,6 +1202,12 @@ def _register_vms(namespace):
     python_vm_registry.add_vm(GraalPythonVm(config_name=CONFIGURATION_NATIVE_MULTI, extra_polyglot_args=[
         '--experimental-options', '-multi-context',
     ]), SUITE, 10)
+    python_vm_registry.add_vm(GraalPythonVm(config_name=CONFIGURATION_THREADED, extra_polyglot_args=[
+        '--experimental-options', '--python.WithThread',
+    ]), SUITE, 10)
+    python_vm_registry.add_vm(GraalPythonVm(config_name=CONFIGURATION_THREADED_GIL, extra_polyglot_args=[
+        '--experimental-options', '--python.WithThread', '--python.GIL',
+    ]), SUITE, 10)
 
 
 def _register_bench_suites(namespace):
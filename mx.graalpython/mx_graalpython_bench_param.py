@@ -85,6 +85,15 @@ MICRO_BENCHMARKS = {
     'magic-bool-sized': ITER_10 + ['300_000_000'],
     'magic-iter': ITER_10 + ['50000000'],
     'instantiation': ITER_10 + ['50000000'],
+    'itertools-pipeline-sized': ITER_10 + ['1_000'],
+    'itertools-combinatorics-sized': ITER_10 + ['20'],
+    'gzip-stream-sized': ITER_10 + ['2_000'],
+    'codecs-utf8-sized': ITER_10 + ['2_000'],
+    'random-bulk-sized': ITER_10 + ['10_000'],
+    'array-bytes-sized': ITER_10 + ['2_000'],
+    'int-bignum-sized': ITER_10 + ['20_000'],
+    'os-io-sized': ITER_10 + ['256'],
+    'cprofile-calls-sized': ITER_10 + ['1_000'],
     'call-classmethod-sized': ITER_10 + ['500_000_000'],
     'mmap-anonymous-sized': ITER_10 + ['20_000'],
     'mmap-file': ITER_10 + ['1000'],
@@ -162,6 +171,14 @@ MESO_BENCHMARKS = {
 }
 
 
+# run these with the 'threaded' or 'threaded-gil' configurations, the args are the number of threads
+# and the total amount of work shared between them
+THREADED_BENCHMARKS = {
+    'threads-cpu-sized': ITER_10 + ['4', '20_000_000'],
+    'threads-shared-sized': ITER_10 + ['4', '2_000_000'],
+}
+
+
 MACRO_BENCHMARKS = {
     'gcbench': ITER_10 + ['10'],
 }
@@ -181,6 +198,7 @@ INTEROP_JAVA_BENCHMARKS = {
     'euler11': [_INTEROP_JAVA_PACKAGE + 'PyEuler11'] + MESO_BENCHMARKS['euler11'],
     'nbody3': [_INTEROP_JAVA_PACKAGE + 'PyNbody'] + MESO_BENCHMARKS['nbody3'],
     'fannkuchredux3': [_INTEROP_JAVA_PACKAGE + 'PyFannkuchredux'] + MESO_BENCHMARKS['fannkuchredux3'],
+    'sequence-read': [_INTEROP_JAVA_PACKAGE + 'PySequenceRead'] + ITER_10 + ['1000000'],
 }
 
 
@@ -193,6 +211,7 @@ BENCHMARKS = {
     "micro": [PATH_MICRO, MICRO_BENCHMARKS],
     "micro-native": [PATH_MICRO, MICRO_NATIVE_BENCHMARKS],
     "meso": [PATH_MESO, MESO_BENCHMARKS],
+    "threaded": [PATH_MESO, THREADED_BENCHMARKS],
     "macro": [PATH_MACRO, MACRO_BENCHMARKS],
     "interop": [PATH_INTEROP, INTEROP_BENCHMARKS],
 }
@@ -60,6 +60,8 @@ CONFIGURATION_NATIVE = "native"
 CONFIGURATION_NATIVE_MULTI = "native-multi"
 CONFIGURATION_SANDBOXED = "sandboxed"
 CONFIGURATION_SANDBOXED_MULTI = "sandboxed-multi"
+CONFIGURATION_THREADED = "threaded"
+CONFIGURATION_THREADED_GIL = "threaded-gil"
 
 DEFAULT_ITERATIONS = 10
 